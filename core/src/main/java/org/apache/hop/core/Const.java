@@ -329,6 +329,9 @@ public class Const {
   /** The default maximum for the nr of lines in the GUI logs */
   public static final int MAX_NR_LOG_LINES = 5000;
 
+  /** The default maximum number of result rows kept in memory: 0 keeps all rows in memory */
+  public static final int RESULT_ROWS_MAX_IN_MEMORY = 0;
+
   /** The default maximum for the nr of lines in the history views */
   public static final int MAX_NR_HISTORY_LINES = 50;
 
@@ -436,6 +439,18 @@ public class Const {
    */
   public static final String HOP_MAX_LOG_TIMEOUT_IN_MINUTES = "HOP_MAX_LOG_TIMEOUT_IN_MINUTES";
 
+  /**
+   * The maximum number of result rows of a workflow or pipeline which are kept in memory. The other
+   * rows are written to a temporary file. Set to 0 to keep all rows in memory, the default.
+   */
+  public static final String HOP_RESULT_ROWS_MAX_IN_MEMORY = "HOP_RESULT_ROWS_MAX_IN_MEMORY";
+
+  /**
+   * The number of threads compressing blocks of a file in parallel. The default of 1 compresses on
+   * the thread writing the file, 0 uses all the available processors.
+   */
+  public static final String HOP_COMPRESSION_THREADS = "HOP_COMPRESSION_THREADS";
+
   /**
    * System wide flag to determine whether standard error will be redirected to Hop logging
    * facilities. Will redirect if the value is equal ignoring case to the string "Y"
@@ -479,6 +494,11 @@ public class Const {
    */
   public static final String HOP_MAX_ACTIONS_LOGGED = "HOP_MAX_ACTIONS_LOGGED";
 
+  /**
+   * A variable to configure the maximum number of actions executed in parallel in a workflow. 0 means no limit.
+   */
+  public static final String HOP_WORKFLOW_MAX_PARALLEL_ACTIONS = "HOP_WORKFLOW_MAX_PARALLEL_ACTIONS";
+
   /**
    * A variable to configure the maximum number of logging registry entries kept in memory for
    * logging purposes.
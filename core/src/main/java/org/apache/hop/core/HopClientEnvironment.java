@@ -23,6 +23,7 @@ import org.apache.hop.core.encryption.TwoWayPasswordEncoderPluginType;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.extension.ExtensionPointPluginType;
+import org.apache.hop.core.logging.AsyncLoggingEventListener;
 import org.apache.hop.core.logging.ConsoleLoggingEventListener;
 import org.apache.hop.core.logging.HopLogStore;
 import org.apache.hop.core.logging.ILoggingPlugin;
@@ -102,11 +103,12 @@ public class HopClientEnvironment {
     HopLogStore.init();
 
     // Add console output so that folks see what's going on...
+    // Writing the log lines happens in the background so that logging threads don't wait for the console.
     //
     if ( !"Y".equalsIgnoreCase( System.getProperty( Const.HOP_DISABLE_CONSOLE_LOGGING, "N" ) ) ) {
-      HopLogStore.getAppender().addLoggingEventListener( new ConsoleLoggingEventListener() );
+      HopLogStore.getAppender().addLoggingEventListener( new AsyncLoggingEventListener( new ConsoleLoggingEventListener() ) );
     }
-    HopLogStore.getAppender().addLoggingEventListener( new Slf4jLoggingEventListener() );
+    HopLogStore.getAppender().addLoggingEventListener( new AsyncLoggingEventListener( new Slf4jLoggingEventListener() ) );
 
     // Load plugins
     //
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A row set which receives its rows from a {@link RemoteOutputRowSet} on another Hop server.
+ * It is registered with a {@link RemoteRowSetServer} under a unique name and is attached as soon as the sending side
+ * connects to that server.
+ * <p>
+ * The receiving side buffers at most the window size of rows. The sender gets credits for half a window at a time,
+ * as the rows are read from this row set.
+ */
+public class RemoteInputRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  public static final int DEFAULT_WINDOW_SIZE = 10000;
+
+  private final String remoteName;
+  private final String secret;
+  private final int windowSize;
+  private final BlockingQueue<Object[]> queue;
+
+  private final int timeoutPut;
+  private final int timeoutGet;
+
+  private final Object creditLock = new Object();
+  private int consumed;
+
+  private volatile SocketChannel channel;
+  private volatile Exception error;
+  private volatile boolean closed;
+  private volatile long rowsReceived;
+
+  /**
+   * @param remoteName The name under which the sending side finds this row set on the row set server
+   * @param secret     The secret the sending side needs to know to connect
+   * @param windowSize The maximum number of rows buffered on this side
+   */
+  RemoteInputRowSet( String remoteName, String secret, int windowSize ) {
+    super();
+    this.remoteName = remoteName;
+    this.secret = secret;
+    this.windowSize = windowSize > 1 ? windowSize : DEFAULT_WINDOW_SIZE;
+    this.queue = new ArrayBlockingQueue<>( this.windowSize, false );
+
+    timeoutGet = Const.toInt( System.getProperty( Const.HOP_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.HOP_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  /**
+   * Start receiving rows from the given connection. Called by the row set server after the handshake.
+   *
+   * @param channel The connection with the sending side
+   */
+  void attach( SocketChannel channel ) {
+    this.channel = channel;
+    Thread reader = new Thread( this::readRows, "Remote row set reader " + remoteName );
+    reader.setDaemon( true );
+    reader.start();
+  }
+
+  private void readRows() {
+    try {
+      synchronized ( channel ) {
+        RemoteRowSetProtocol.writeInt( channel, RemoteRowSetProtocol.TYPE_CREDIT, windowSize );
+      }
+
+      IRowMeta meta = null;
+      RemoteRowSetProtocol.Frame frame;
+      while ( ( frame = RemoteRowSetProtocol.readFrame( channel ) ) != null ) {
+        switch ( frame.type ) {
+          case RemoteRowSetProtocol.TYPE_META:
+            meta = new RowMeta( new DataInputStream( new ByteArrayInputStream( frame.payload ) ) );
+            rowMeta = meta;
+            break;
+          case RemoteRowSetProtocol.TYPE_ROWS:
+            if ( meta == null ) {
+              throw new IOException( "Rows received before the row metadata" );
+            }
+            DataInputStream in = new DataInputStream( new ByteArrayInputStream( frame.getData() ) );
+            int count = in.readInt();
+            for ( int i = 0; i < count; i++ ) {
+              // Never blocks for long: the sender can't have more rows in flight than we have room for
+              //
+              queue.put( meta.readData( in ) );
+              rowsReceived++;
+            }
+            break;
+          case RemoteRowSetProtocol.TYPE_DONE:
+            super.setDone();
+            return;
+          default:
+            throw new IOException( "Unexpected frame type received: " + frame.type );
+        }
+      }
+      throw new IOException( "Connection closed before all rows were received" );
+    } catch ( InterruptedException e ) {
+      error = e;
+      Thread.currentThread().interrupt();
+    } catch ( Exception e ) {
+      if ( !closed ) {
+        error = e;
+      }
+    } finally {
+      // Never leave the reading transform waiting forever
+      //
+      super.setDone();
+      try {
+        channel.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+  }
+
+  /**
+   * Put a row on this side of the connection, as if it was received from the sending side.
+   */
+  @Override
+  public boolean putRow( IRowMeta rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    this.rowMeta = rowMeta;
+    try {
+      return queue.offer( rowData, time, tu );
+    } catch ( InterruptedException e ) {
+      return false;
+    }
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return consumed( queue.poll() );
+  }
+
+  /**
+   * @throws IllegalStateException when all received rows were read and the connection broke before the end
+   */
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    try {
+      return consumed( queue.poll( timeout, tu ) );
+    } catch ( InterruptedException e ) {
+      return null;
+    }
+  }
+
+  private Object[] consumed( Object[] row ) {
+    if ( row == null ) {
+      if ( error != null && queue.isEmpty() ) {
+        throw new IllegalStateException( "Error receiving rows for remote row set '" + remoteName + "'", error );
+      }
+      return null;
+    }
+    int credit = 0;
+    synchronized ( creditLock ) {
+      consumed++;
+      if ( consumed >= windowSize / 2 ) {
+        credit = consumed;
+        consumed = 0;
+      }
+    }
+    if ( credit > 0 && !isDone() ) {
+      try {
+        synchronized ( channel ) {
+          RemoteRowSetProtocol.writeInt( channel, RemoteRowSetProtocol.TYPE_CREDIT, credit );
+        }
+      } catch ( IOException e ) {
+        // The reader thread will notice the broken connection as well, unless all rows were received already
+        //
+        if ( error == null && !isDone() ) {
+          error = e;
+        }
+      }
+    }
+    return row;
+  }
+
+  /**
+   * Stop receiving rows: the connection is closed and the row set is done. Rows which were received already can still
+   * be read. Used when the receiving pipeline stops before the sending side is done or even connected.
+   */
+  public void close() {
+    closed = true;
+    super.setDone();
+    SocketChannel current = channel;
+    if ( current != null ) {
+      try {
+        current.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+  }
+
+  /**
+   * Rows received from the remote side can't be taken back, only the local buffer is cleared.
+   */
+  @Override
+  public void clear() {
+    queue.clear();
+  }
+
+  @Override
+  public int size() {
+    return queue.size();
+  }
+
+  /**
+   * Gets remoteName
+   *
+   * @return value of remoteName
+   */
+  public String getRemoteName() {
+    return remoteName;
+  }
+
+  /**
+   * @param nonce     The nonce sent to the connecting side
+   * @param signature The signature of the nonce and our name as sent back by the connecting side
+   * @return true if the connecting side knows the secret of this row set
+   */
+  boolean verify( byte[] nonce, byte[] signature ) {
+    return RemoteRowSetProtocol.verify( secret, nonce, remoteName, signature );
+  }
+
+  /**
+   * Gets windowSize
+   *
+   * @return value of windowSize
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * @return true if the sending side connected to this row set
+   */
+  public boolean isAttached() {
+    return channel != null;
+  }
+
+  /**
+   * Gets error
+   *
+   * @return the error which broke the connection or null if there was none
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  /**
+   * Gets rowsReceived
+   *
+   * @return value of rowsReceived
+   */
+  public long getRowsReceived() {
+    return rowsReceived;
+  }
+}
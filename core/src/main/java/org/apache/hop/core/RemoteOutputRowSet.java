@@ -0,0 +1,505 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A row set which sends the rows put into it to a {@link RemoteInputRowSet} on another Hop server.
+ * <p>
+ * Rows are serialized in batches which can optionally be compressed. The number of rows in flight is limited by the
+ * credits granted by the receiving side: when those run out {@link #putRowWait(IRowMeta, Object[], long, TimeUnit)}
+ * times out just like it does on a full {@link BlockingRowSet}. Partially filled batches are sent after a short linger
+ * time so that slow streams don't keep rows back. A batch is also sent as soon as it holds a megabyte of data.
+ * <p>
+ * The connection is authenticated with the secret shared by the servers taking part in the same run. While the
+ * receiving server didn't open the run yet, connecting is retried for at most
+ * {@link RemoteRowSetServer#RUN_WAIT_TIMEOUT_MILLIS}.
+ * <p>
+ * This row set is write-only: the rows end up in a transform copy on another server. The local copy of the target
+ * transform still reads from it, it never gets a row and simply finishes once the sending transform is done.
+ */
+public class RemoteOutputRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  public static final long DEFAULT_LINGER_MILLIS = 50L;
+
+  private static final ScheduledExecutorService lingerScheduler = Executors.newSingleThreadScheduledExecutor( r -> {
+    Thread thread = new Thread( r, "Remote row set flusher" );
+    thread.setDaemon( true );
+    return thread;
+  } );
+
+  private final String remoteName;
+  private final int batchSize;
+  private final boolean compressed;
+  private final int timeoutPut;
+
+  private final SocketChannel channel;
+  private final Semaphore credits;
+  private final Thread creditReader;
+  private final ScheduledFuture<?> lingerFlush;
+  private final CountDownLatch doneLatch = new CountDownLatch( 1 );
+
+  private final ByteArrayOutputStream batchBytes;
+  private final DataOutputStream batchOutput;
+  private int batchRows;
+  private long lastFlush;
+  private boolean metaSent;
+
+  private volatile Exception error;
+  private volatile boolean doneSent;
+
+  private long rowsSent;
+  private long bytesSent;
+
+  /**
+   * Connect to the row set server on another Hop server.
+   *
+   * @param hostname   The hostname of the remote row set server
+   * @param port       The port of the remote row set server
+   * @param runId      The ID of the run the row set takes part in
+   * @param remoteName The name of the input row set on the remote server to send the rows to
+   * @param secret     The secret to answer the challenge of the remote server with
+   * @param batchSize  The maximum number of rows sent in one frame
+   * @param compressed true if the row batches need to be compressed
+   * @throws HopException In case the connection can't be made or is refused
+   */
+  public RemoteOutputRowSet( String hostname, int port, String runId, String remoteName, String secret, int batchSize,
+                             boolean compressed ) throws HopException {
+    super();
+    if ( Utils.isEmpty( secret ) ) {
+      throw new HopException( "A secret is required to connect to remote row set '" + remoteName + "'" );
+    }
+    this.remoteName = remoteName;
+    this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    this.compressed = compressed;
+    this.timeoutPut = Const.toInt( System.getProperty( Const.HOP_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+
+    this.credits = new Semaphore( 0 );
+    this.batchBytes = new ByteArrayOutputStream( 64 * 1024 );
+    this.batchOutput = new DataOutputStream( batchBytes );
+    this.lastFlush = System.currentTimeMillis();
+
+    long deadline = System.currentTimeMillis() + RemoteRowSetServer.RUN_WAIT_TIMEOUT_MILLIS;
+    long retryDelay = 50L;
+    SocketChannel connection;
+    while ( ( connection = connect( hostname, port, runId, secret ) ) == null ) {
+      if ( System.currentTimeMillis() + retryDelay > deadline ) {
+        throw new HopException( "Remote row set run '" + runId + "' wasn't opened on " + hostname + ":" + port
+          + " within " + RemoteRowSetServer.RUN_WAIT_TIMEOUT_MILLIS / 1000 + " seconds" );
+      }
+      try {
+        Thread.sleep( retryDelay );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new HopException( "Interrupted while connecting to remote row set '" + remoteName + "'", e );
+      }
+      retryDelay = Math.min( retryDelay * 2, 1000L );
+    }
+    channel = connection;
+
+    creditReader = new Thread( this::readCredits, "Remote row set credits " + remoteName );
+    creditReader.setDaemon( true );
+    creditReader.start();
+
+    lingerFlush = lingerScheduler.scheduleWithFixedDelay( this::flushLingering,
+      DEFAULT_LINGER_MILLIS, DEFAULT_LINGER_MILLIS, TimeUnit.MILLISECONDS );
+  }
+
+  /**
+   * Connect and answer the challenge of the remote server.
+   *
+   * @return The accepted connection or null if the remote server asks to try again later
+   * @throws HopException In case the connection can't be made or is refused
+   */
+  private SocketChannel connect( String hostname, int port, String runId, String secret ) throws HopException {
+    SocketChannel connection = null;
+    ScheduledFuture<?> handshakeTimeout = null;
+    try {
+      connection = SocketChannel.open();
+      connection.socket().connect( new InetSocketAddress( hostname, port ), (int) RemoteRowSetServer.HANDSHAKE_TIMEOUT_MILLIS );
+      connection.socket().setTcpNoDelay( true );
+
+      // Don't wait forever for a server which accepts the connection but doesn't answer
+      //
+      SocketChannel connected = connection;
+      handshakeTimeout = lingerScheduler.schedule( () -> closeQuietly( connected ), RemoteRowSetServer.HANDSHAKE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+      RemoteRowSetProtocol.Frame challenge = RemoteRowSetProtocol.readFrame( connection, RemoteRowSetProtocol.MAX_CONTROL_FRAME_SIZE );
+      if ( challenge == null || challenge.type != RemoteRowSetProtocol.TYPE_CHALLENGE ) {
+        throw new IOException( "No valid challenge received from the remote row set server" );
+      }
+      byte[] signature = RemoteRowSetProtocol.sign( secret, challenge.payload, remoteName );
+      RemoteRowSetProtocol.writeFrame( connection, RemoteRowSetProtocol.TYPE_HELLO, RemoteRowSetProtocol.FLAG_NONE,
+        RemoteRowSetProtocol.helloPayload( runId, remoteName, signature ) );
+      RemoteRowSetProtocol.Frame answer = RemoteRowSetProtocol.readFrame( connection, RemoteRowSetProtocol.MAX_CONTROL_FRAME_SIZE );
+      if ( !handshakeTimeout.cancel( false ) ) {
+        throw new IOException( "No answer received from the remote row set server" );
+      }
+      if ( answer != null && answer.type == RemoteRowSetProtocol.TYPE_RETRY ) {
+        closeQuietly( connection );
+        return null;
+      }
+      if ( answer == null || answer.type != RemoteRowSetProtocol.TYPE_ACCEPTED ) {
+        throw new IOException( "The connection was refused by the remote row set server" );
+      }
+      return connection;
+    } catch ( IOException e ) {
+      if ( handshakeTimeout != null ) {
+        handshakeTimeout.cancel( false );
+      }
+      closeQuietly( connection );
+      throw new HopException( "Unable to connect to remote row set '" + remoteName + "' on " + hostname + ":" + port, e );
+    }
+  }
+
+  @Override
+  public boolean putRow( IRowMeta rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  /**
+   * Queue a row for sending. If the receiving side didn't grant enough credits we wait at most the given time.
+   *
+   * @return false if the row wasn't accepted because the receiving side is not keeping up.
+   * @throws IllegalStateException in case the communication with the remote server failed
+   */
+  @Override
+  public boolean putRowWait( IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    checkError();
+    this.rowMeta = rowMeta;
+    try {
+      if ( !credits.tryAcquire() ) {
+        // Send what we have so the other side can consume it and hand out new credits
+        //
+        flush();
+        if ( !credits.tryAcquire( time, tu ) ) {
+          checkError();
+          return false;
+        }
+      }
+      synchronized ( batchOutput ) {
+        if ( !metaSent ) {
+          ByteArrayOutputStream metaBytes = new ByteArrayOutputStream();
+          rowMeta.writeMeta( new DataOutputStream( metaBytes ) );
+          write( RemoteRowSetProtocol.TYPE_META, RemoteRowSetProtocol.FLAG_NONE, metaBytes.toByteArray() );
+          metaSent = true;
+        }
+        rowMeta.writeData( batchOutput, rowData );
+        batchRows++;
+        if ( batchBytes.size() + 4 > RemoteRowSetProtocol.MAX_FRAME_SIZE ) {
+          throw new HopException( "A row is too large to send to remote row set '" + remoteName + "', the maximum is "
+            + RemoteRowSetProtocol.MAX_FRAME_SIZE + " bytes" );
+        }
+        if ( batchRows >= batchSize || batchBytes.size() >= RemoteRowSetProtocol.FLUSH_SIZE ) {
+          flush();
+        }
+      }
+      return true;
+    } catch ( InterruptedException e ) {
+      return false;
+    } catch ( Exception e ) {
+      fail( e );
+      checkError();
+      return false;
+    }
+  }
+
+  /**
+   * Send the rows in the current batch to the remote server.
+   *
+   * @throws IOException In case of a communication error
+   */
+  public void flush() throws IOException {
+    synchronized ( batchOutput ) {
+      if ( batchRows == 0 ) {
+        return;
+      }
+      batchOutput.flush();
+      byte[] rows = batchBytes.toByteArray();
+      byte[] payload = new byte[ 4 + rows.length ];
+      ByteBuffer.wrap( payload ).putInt( batchRows ).put( rows );
+
+      byte flags = RemoteRowSetProtocol.FLAG_NONE;
+      if ( compressed ) {
+        byte[] deflated = RemoteRowSetProtocol.deflate( payload );
+        // Data which doesn't compress can grow a little, never beyond what the receiver accepts
+        //
+        if ( deflated.length <= RemoteRowSetProtocol.MAX_FRAME_SIZE ) {
+          payload = deflated;
+          flags = RemoteRowSetProtocol.FLAG_COMPRESSED;
+        }
+      }
+      write( RemoteRowSetProtocol.TYPE_ROWS, flags, payload );
+
+      rowsSent += batchRows;
+      batchBytes.reset();
+      batchRows = 0;
+      lastFlush = System.currentTimeMillis();
+    }
+  }
+
+  private void write( byte type, byte flags, byte[] payload ) throws IOException {
+    RemoteRowSetProtocol.writeFrame( channel, type, flags, payload );
+    bytesSent += RemoteRowSetProtocol.HEADER_SIZE + payload.length;
+  }
+
+  private void flushLingering() {
+    if ( error != null || isDone() ) {
+      return;
+    }
+    synchronized ( batchOutput ) {
+      if ( batchRows > 0 && System.currentTimeMillis() - lastFlush >= DEFAULT_LINGER_MILLIS ) {
+        try {
+          flush();
+        } catch ( IOException e ) {
+          fail( e );
+        }
+      }
+    }
+  }
+
+  private void readCredits() {
+    try {
+      RemoteRowSetProtocol.Frame frame;
+      while ( ( frame = RemoteRowSetProtocol.readFrame( channel, RemoteRowSetProtocol.MAX_CONTROL_FRAME_SIZE ) ) != null ) {
+        if ( frame.type == RemoteRowSetProtocol.TYPE_CREDIT ) {
+          int credit = frame.payload.length == 4 ? ByteBuffer.wrap( frame.payload ).getInt() : -1;
+          if ( credit <= 0 ) {
+            throw new IOException( "Invalid credit received: " + credit );
+          }
+          credits.release( credit );
+        }
+      }
+      if ( !doneSent ) {
+        // A refused handshake or a receiving pipeline which stopped
+        //
+        throw new IOException( "The remote server closed the connection" );
+      }
+    } catch ( IOException e ) {
+      if ( !doneSent ) {
+        fail( e );
+      }
+    } finally {
+      // The receiver closes the connection once it has seen all our data
+      //
+      closeQuietly( channel );
+    }
+  }
+
+  /**
+   * Send the remaining rows and signal the remote server that no more rows are coming.
+   */
+  @Override
+  public void setDone() {
+    synchronized ( batchOutput ) {
+      if ( isDone() ) {
+        return;
+      }
+      lingerFlush.cancel( false );
+      try {
+        if ( error == null ) {
+          flush();
+          doneSent = true;
+          write( RemoteRowSetProtocol.TYPE_DONE, RemoteRowSetProtocol.FLAG_NONE, new byte[ 0 ] );
+          try {
+            channel.shutdownOutput();
+          } catch ( IOException e ) {
+            // All data is written: the receiver may have closed the connection already
+          }
+        }
+      } catch ( IOException e ) {
+        fail( e );
+      } finally {
+        super.setDone();
+        doneLatch.countDown();
+      }
+    }
+  }
+
+  /**
+   * Abort sending: the connection is closed without signalling the end of the rows, the receiving side reports the
+   * broken connection. Used when the sending pipeline is stopped.
+   */
+  public void close() {
+    synchronized ( batchOutput ) {
+      if ( isDone() ) {
+        return;
+      }
+      fail( new IOException( "Sending rows to remote row set '" + remoteName + "' was aborted" ) );
+      super.setDone();
+      doneLatch.countDown();
+    }
+  }
+
+  private void fail( Exception e ) {
+    if ( error == null ) {
+      error = e;
+    }
+    lingerFlush.cancel( false );
+    // Release any thread waiting for credits
+    //
+    credits.release( batchSize );
+    closeQuietly( channel );
+  }
+
+  private void checkError() {
+    if ( error != null ) {
+      throw new IllegalStateException( "Error sending rows to remote row set '" + remoteName + "'", error );
+    }
+  }
+
+  private static void closeQuietly( SocketChannel channel ) {
+    if ( channel == null ) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch ( IOException e ) {
+      // Ignore
+    }
+  }
+
+  /**
+   * The rows go to the remote server: there is never a row to read on this side.
+   *
+   * @return null
+   */
+  @Override
+  public Object[] getRow() {
+    return null;
+  }
+
+  /**
+   * The rows go to the remote server: there is never a row to read on this side.
+   *
+   * @return null
+   */
+  @Override
+  public Object[] getRowImmediate() {
+    return null;
+  }
+
+  /**
+   * There is never a row to read on this side. Like on an empty {@link BlockingRowSet} we wait for the given time, or
+   * until the sending transform is done, so that a reading transform doesn't spin.
+   *
+   * @return null
+   */
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    try {
+      doneLatch.await( timeout, tu );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  /**
+   * @return The number of rows waiting to be sent
+   */
+  @Override
+  public int size() {
+    synchronized ( batchOutput ) {
+      return batchRows;
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized ( batchOutput ) {
+      batchBytes.reset();
+      batchRows = 0;
+    }
+  }
+
+  /**
+   * Gets remoteName
+   *
+   * @return value of remoteName
+   */
+  public String getRemoteName() {
+    return remoteName;
+  }
+
+  /**
+   * Gets batchSize
+   *
+   * @return value of batchSize
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Gets compressed
+   *
+   * @return value of compressed
+   */
+  public boolean isCompressed() {
+    return compressed;
+  }
+
+  /**
+   * Gets error
+   *
+   * @return the error which broke the connection or null if there was none
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  /**
+   * Gets rowsSent
+   *
+   * @return value of rowsSent
+   */
+  public long getRowsSent() {
+    synchronized ( batchOutput ) {
+      return rowsSent;
+    }
+  }
+
+  /**
+   * Gets bytesSent
+   *
+   * @return the number of bytes sent over the connection, after compression
+   */
+  public long getBytesSent() {
+    synchronized ( batchOutput ) {
+      return bytesSent;
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The binary framed protocol used to stream rows between Hop servers over a socket channel.
+ * <p>
+ * Every frame starts with a header of 6 bytes: the payload length (int), the frame type and flags (both a byte).
+ * The payload of the rows frames can optionally be compressed with deflate. The receiving server first sends a
+ * challenge: a random nonce. The sender answers with a hello frame holding the run ID, the name of the row set it's
+ * connecting to and an HMAC of the nonce and that name, keyed with the secret shared by all servers taking part in the
+ * same run. The receiver accepts the connection once the HMAC is verified or asks the sender to try again later when
+ * it doesn't know the secret of the run yet. After that the sender sends the row metadata and batches of rows. The receiver grants
+ * credits to the sender: the number of rows it can send before it has to wait. This way a slow consumer pushes back
+ * on a fast producer without blocking the producer indefinitely.
+ */
+final class RemoteRowSetProtocol {
+
+  static final byte TYPE_HELLO = 1;
+  static final byte TYPE_META = 2;
+  static final byte TYPE_ROWS = 3;
+  static final byte TYPE_DONE = 4;
+  static final byte TYPE_CREDIT = 5;
+  static final byte TYPE_CHALLENGE = 6;
+  static final byte TYPE_ACCEPTED = 7;
+  static final byte TYPE_RETRY = 8;
+
+  static final byte FLAG_NONE = 0;
+  static final byte FLAG_COMPRESSED = 1;
+
+  static final int HEADER_SIZE = 6;
+
+  /**
+   * Refuse frames larger than this to protect against garbage on the line. Row batches are sent well before they
+   * reach this size, only a single huge row can hit it.
+   */
+  static final int MAX_FRAME_SIZE = 8 * 1024 * 1024;
+
+  /**
+   * The maximum size of the challenge, hello and credit frames
+   */
+  static final int MAX_CONTROL_FRAME_SIZE = 4096;
+
+  /**
+   * The sender flushes a batch of rows as soon as it holds this many bytes
+   */
+  static final int FLUSH_SIZE = 1024 * 1024;
+
+  static final int NONCE_SIZE = 16;
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  private static final SecureRandom random = new SecureRandom();
+
+  private RemoteRowSetProtocol() {
+  }
+
+  /**
+   * A frame as received from a socket channel
+   */
+  static class Frame {
+    final byte type;
+    final byte flags;
+    final byte[] payload;
+
+    Frame( byte type, byte flags, byte[] payload ) {
+      this.type = type;
+      this.flags = flags;
+      this.payload = payload;
+    }
+
+    /**
+     * @return The payload, decompressed if needed
+     */
+    byte[] getData() throws IOException {
+      if ( ( flags & FLAG_COMPRESSED ) == 0 ) {
+        return payload;
+      }
+      return inflate( payload );
+    }
+  }
+
+  static void writeFrame( SocketChannel channel, byte type, byte flags, byte[] payload ) throws IOException {
+    int length = payload == null ? 0 : payload.length;
+    ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+    header.putInt( length ).put( type ).put( flags );
+    header.flip();
+    ByteBuffer[] buffers = new ByteBuffer[] { header, ByteBuffer.wrap( payload == null ? new byte[ 0 ] : payload ) };
+    long remaining = HEADER_SIZE + (long) length;
+    while ( remaining > 0 ) {
+      remaining -= channel.write( buffers );
+    }
+  }
+
+  static void writeInt( SocketChannel channel, byte type, int value ) throws IOException {
+    writeFrame( channel, type, FLAG_NONE, ByteBuffer.allocate( 4 ).putInt( value ).array() );
+  }
+
+  /**
+   * Read a complete frame from the channel.
+   *
+   * @return The frame or null if the other side closed the connection cleanly before a new frame started.
+   * @throws IOException in case of a communication error or a broken frame
+   */
+  static Frame readFrame( SocketChannel channel ) throws IOException {
+    return readFrame( channel, MAX_FRAME_SIZE );
+  }
+
+  /**
+   * Read a complete frame from the channel, refusing frames with a payload larger than the given size.
+   *
+   * @return The frame or null if the other side closed the connection cleanly before a new frame started.
+   * @throws IOException in case of a communication error or a broken frame
+   */
+  static Frame readFrame( SocketChannel channel, int maxSize ) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate( HEADER_SIZE );
+    if ( !readFully( channel, header, true ) ) {
+      return null;
+    }
+    header.flip();
+    int length = header.getInt();
+    byte type = header.get();
+    byte flags = header.get();
+    if ( length < 0 || length > maxSize ) {
+      throw new IOException( "Invalid frame length received: " + length );
+    }
+    ByteBuffer payload = ByteBuffer.allocate( length );
+    readFully( channel, payload, false );
+    return new Frame( type, flags, payload.array() );
+  }
+
+  private static boolean readFully( SocketChannel channel, ByteBuffer buffer, boolean eofAllowed ) throws IOException {
+    while ( buffer.hasRemaining() ) {
+      int read = channel.read( buffer );
+      if ( read < 0 ) {
+        if ( eofAllowed && buffer.position() == 0 ) {
+          return false;
+        }
+        throw new EOFException( "Connection closed in the middle of a frame" );
+      }
+    }
+    return true;
+  }
+
+  static byte[] deflate( byte[] data ) {
+    Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+    try {
+      deflater.setInput( data );
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream( Math.max( 64, data.length / 2 ) );
+      byte[] buffer = new byte[ 8192 ];
+      while ( !deflater.finished() ) {
+        int size = deflater.deflate( buffer );
+        out.write( buffer, 0, size );
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  static byte[] inflate( byte[] data ) throws IOException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput( data );
+      ByteArrayOutputStream out = new ByteArrayOutputStream( Math.min( data.length * 2, MAX_FRAME_SIZE ) );
+      byte[] buffer = new byte[ 8192 ];
+      while ( !inflater.finished() ) {
+        int size = inflater.inflate( buffer );
+        if ( size == 0 && ( inflater.needsInput() || inflater.needsDictionary() ) ) {
+          throw new IOException( "Truncated compressed frame received" );
+        }
+        if ( out.size() + size > MAX_FRAME_SIZE ) {
+          throw new IOException( "Compressed frame expands beyond the maximum frame size of " + MAX_FRAME_SIZE + " bytes" );
+        }
+        out.write( buffer, 0, size );
+      }
+      return out.toByteArray();
+    } catch ( DataFormatException e ) {
+      throw new IOException( "Invalid compressed frame received", e );
+    } finally {
+      inflater.end();
+    }
+  }
+
+  static byte[] newNonce() {
+    byte[] nonce = new byte[ NONCE_SIZE ];
+    random.nextBytes( nonce );
+    return nonce;
+  }
+
+  /**
+   * Sign the nonce of a challenge together with the name of the row set to connect to.
+   *
+   * @param secret The secret shared by the servers taking part in the same run
+   * @param nonce  The nonce sent by the receiving server
+   * @param name   The name of the row set
+   * @return The HMAC to send in the hello frame
+   */
+  static byte[] sign( String secret, byte[] nonce, String name ) throws IOException {
+    try {
+      Mac mac = Mac.getInstance( MAC_ALGORITHM );
+      mac.init( new SecretKeySpec( secret.getBytes( StandardCharsets.UTF_8 ), MAC_ALGORITHM ) );
+      mac.update( nonce );
+      return mac.doFinal( name.getBytes( StandardCharsets.UTF_8 ) );
+    } catch ( GeneralSecurityException e ) {
+      throw new IOException( "Unable to sign the remote row set challenge", e );
+    }
+  }
+
+  /**
+   * @return true if the signature was made with the given secret for the nonce and name
+   */
+  static boolean verify( String secret, byte[] nonce, String name, byte[] signature ) {
+    try {
+      return MessageDigest.isEqual( sign( secret, nonce, name ), signature );
+    } catch ( IOException e ) {
+      return false;
+    }
+  }
+
+  static byte[] helloPayload( String runId, String name, byte[] signature ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream( bytes );
+    out.writeUTF( runId );
+    out.writeUTF( name );
+    out.writeShort( signature.length );
+    out.write( signature );
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * The content of a hello frame
+   */
+  static class Hello {
+    final String runId;
+    final String name;
+    final byte[] signature;
+
+    Hello( byte[] payload ) throws IOException {
+      DataInputStream in = new DataInputStream( new ByteArrayInputStream( payload ) );
+      runId = in.readUTF();
+      name = in.readUTF();
+      signature = new byte[ in.readUnsignedShort() ];
+      in.readFully( signature );
+    }
+  }
+}
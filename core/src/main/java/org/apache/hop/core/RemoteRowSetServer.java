@@ -0,0 +1,369 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts connections from {@link RemoteOutputRowSet}s on other Hop servers and hands them to the
+ * {@link RemoteInputRowSet} registered under the name sent by the connecting side.
+ * <p>
+ * Every connection is challenged with a random nonce: the connecting side has to sign it with the secret of the row
+ * set it wants to send rows to. The sending side can connect before the receiving row set is registered, as long as
+ * the run it takes part in was opened on this server: the signature is verified with the secret of the run and the
+ * connection is kept for a short time until the row set with that name shows up. A sending side connecting before its
+ * run is opened here, or while too many connections of the run are waiting, is asked to try again later. This way only
+ * authenticated connections are ever kept waiting.
+ * <p>
+ * Started servers are registered by port so that a pipeline executing on a Hop server can find the row set server of
+ * that Hop server.
+ */
+public class RemoteRowSetServer {
+
+  /**
+   * The maximum time a connecting side gets to answer the challenge
+   */
+  public static final long HANDSHAKE_TIMEOUT_MILLIS = 10000L;
+
+  /**
+   * The maximum time a connecting side keeps trying while the run it takes part in isn't opened on this server
+   */
+  public static final long RUN_WAIT_TIMEOUT_MILLIS = 120000L;
+
+  /**
+   * The maximum time an authenticated connection waits for its row set to be registered
+   */
+  public static final long PENDING_TIMEOUT_MILLIS = 10000L;
+
+  /**
+   * The maximum number of connections of a run waiting for their row set to be registered
+   */
+  public static final int MAX_PENDING_CONNECTIONS_PER_RUN = 64;
+
+  private static final Map<Integer, RemoteRowSetServer> servers = new ConcurrentHashMap<>();
+
+  private static final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor( r -> {
+    Thread thread = Executors.defaultThreadFactory().newThread( r );
+    thread.setDaemon( true );
+    thread.setName( "Remote row set server timeouts" );
+    return thread;
+  } );
+
+  private final String hostname;
+  private final int requestedPort;
+
+  private final Map<String, Run> runs = new HashMap<>();
+  private final Map<String, RemoteInputRowSet> rowSets = new HashMap<>();
+  private final Map<String, PendingConnection> pendingConnections = new HashMap<>();
+
+  private ServerSocketChannel serverChannel;
+  private Thread acceptThread;
+
+  /**
+   * A run opened on this server, possibly by several pipelines
+   */
+  private static class Run {
+    final String secret;
+    int openCount;
+
+    Run( String secret ) {
+      this.secret = secret;
+    }
+  }
+
+  /**
+   * An authenticated connection which answered the challenge before its row set was registered
+   */
+  private static class PendingConnection {
+    final String runId;
+    final SocketChannel channel;
+    final byte[] nonce;
+    final byte[] signature;
+    ScheduledFuture<?> expiry;
+
+    PendingConnection( String runId, SocketChannel channel, byte[] nonce, byte[] signature ) {
+      this.runId = runId;
+      this.channel = channel;
+      this.nonce = nonce;
+      this.signature = signature;
+    }
+  }
+
+  /**
+   * @param hostname The address to listen on or null for all addresses
+   * @param port     The port to listen on, 0 picks a free port
+   */
+  public RemoteRowSetServer( String hostname, int port ) {
+    this.hostname = hostname;
+    this.requestedPort = port;
+  }
+
+  /**
+   * Find the started row set server listening on the given port in this JVM.
+   *
+   * @param port The port
+   * @return The server or null if no server was started on the given port
+   */
+  public static RemoteRowSetServer findServer( int port ) {
+    return servers.get( port );
+  }
+
+  public synchronized void start() throws HopException {
+    if ( serverChannel != null ) {
+      return;
+    }
+    try {
+      serverChannel = ServerSocketChannel.open();
+      serverChannel.bind( hostname == null ? new InetSocketAddress( requestedPort ) : new InetSocketAddress( hostname, requestedPort ) );
+    } catch ( IOException e ) {
+      serverChannel = null;
+      throw new HopException( "Unable to start the remote row set server on port " + requestedPort, e );
+    }
+    servers.put( getPort(), this );
+    acceptThread = new Thread( this::acceptConnections, "Remote row set server " + getPort() );
+    acceptThread.setDaemon( true );
+    acceptThread.start();
+  }
+
+  public synchronized void stop() {
+    if ( serverChannel == null ) {
+      return;
+    }
+    servers.remove( getPort(), this );
+    closeQuietly( serverChannel );
+    serverChannel = null;
+    for ( PendingConnection pending : pendingConnections.values() ) {
+      pending.expiry.cancel( false );
+      closeQuietly( pending.channel );
+    }
+    pendingConnections.clear();
+    runs.clear();
+    for ( RemoteInputRowSet rowSet : rowSets.values() ) {
+      rowSet.close();
+    }
+    rowSets.clear();
+  }
+
+  /**
+   * @return The port the server listens on
+   */
+  public synchronized int getPort() {
+    if ( serverChannel == null ) {
+      return requestedPort;
+    }
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Open a run on this server: from now on the sending sides taking part in the run can connect before their row set
+   * is registered. Every call needs a matching {@link #closeRun(String)}.
+   *
+   * @param runId  The ID of the run
+   * @param secret The secret shared by the servers taking part in the run
+   * @throws HopException In case the run is already open with another secret
+   */
+  public synchronized void openRun( String runId, String secret ) throws HopException {
+    if ( Utils.isEmpty( secret ) ) {
+      throw new HopException( "A secret is required to open remote row set run '" + runId + "'" );
+    }
+    Run run = runs.get( runId );
+    if ( run == null ) {
+      run = new Run( secret );
+      runs.put( runId, run );
+    } else if ( !run.secret.equals( secret ) ) {
+      throw new HopException( "Remote row set run '" + runId + "' is already open with another secret" );
+    }
+    run.openCount++;
+  }
+
+  /**
+   * Close a run once all its row sets are registered or closed. The connections still waiting for a row set of the run
+   * are closed when the run isn't used anymore.
+   *
+   * @param runId The ID of the run
+   */
+  public synchronized void closeRun( String runId ) {
+    Run run = runs.get( runId );
+    if ( run == null || --run.openCount > 0 ) {
+      return;
+    }
+    runs.remove( runId );
+    Iterator<PendingConnection> iterator = pendingConnections.values().iterator();
+    while ( iterator.hasNext() ) {
+      PendingConnection pending = iterator.next();
+      if ( pending.runId.equals( runId ) ) {
+        iterator.remove();
+        pending.expiry.cancel( false );
+        closeQuietly( pending.channel );
+      }
+    }
+  }
+
+  /**
+   * Register a new row set to receive rows from another server.
+   *
+   * @param name       The unique name the sending side uses to connect
+   * @param secret     The secret the sending side signs the challenge with
+   * @param windowSize The maximum number of rows buffered on this side
+   * @return The new row set
+   * @throws HopException In case a row set with the same name is already registered
+   */
+  public RemoteInputRowSet openInputRowSet( String name, String secret, int windowSize ) throws HopException {
+    if ( Utils.isEmpty( secret ) ) {
+      throw new HopException( "A secret is required to open remote row set '" + name + "'" );
+    }
+    RemoteInputRowSet rowSet = new RemoteInputRowSet( name, secret, windowSize );
+    synchronized ( this ) {
+      if ( rowSets.containsKey( name ) ) {
+        throw new HopException( "A remote row set with name '" + name + "' is already registered" );
+      }
+      rowSets.put( name, rowSet );
+      PendingConnection pending = pendingConnections.remove( name );
+      if ( pending != null ) {
+        pending.expiry.cancel( false );
+        if ( rowSet.verify( pending.nonce, pending.signature ) ) {
+          rowSet.attach( pending.channel );
+        } else {
+          closeQuietly( pending.channel );
+        }
+      }
+    }
+    return rowSet;
+  }
+
+  /**
+   * Remove a row set from the server. The row set is closed: rows received already can still be read but a sending
+   * side which didn't connect yet is refused.
+   *
+   * @param name The name of the row set
+   */
+  public synchronized void closeInputRowSet( String name ) {
+    RemoteInputRowSet rowSet = rowSets.remove( name );
+    if ( rowSet != null ) {
+      rowSet.close();
+    }
+  }
+
+  private void acceptConnections() {
+    ServerSocketChannel server;
+    synchronized ( this ) {
+      server = serverChannel;
+    }
+    while ( server != null && server.isOpen() ) {
+      try {
+        SocketChannel channel = server.accept();
+        channel.socket().setTcpNoDelay( true );
+        Thread handshake = new Thread( () -> handshake( channel ), "Remote row set handshake" );
+        handshake.setDaemon( true );
+        handshake.start();
+      } catch ( ClosedChannelException e ) {
+        return;
+      } catch ( IOException e ) {
+        // Keep accepting other connections
+      }
+    }
+  }
+
+  private void handshake( SocketChannel channel ) {
+    // Don't let a silent connection hold on to a thread
+    //
+    ScheduledFuture<?> timeout = timeoutScheduler.schedule( () -> closeQuietly( channel ), HANDSHAKE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+    try {
+      byte[] nonce = RemoteRowSetProtocol.newNonce();
+      RemoteRowSetProtocol.writeFrame( channel, RemoteRowSetProtocol.TYPE_CHALLENGE, RemoteRowSetProtocol.FLAG_NONE, nonce );
+      RemoteRowSetProtocol.Frame frame = RemoteRowSetProtocol.readFrame( channel, RemoteRowSetProtocol.MAX_CONTROL_FRAME_SIZE );
+      if ( frame == null || frame.type != RemoteRowSetProtocol.TYPE_HELLO || !timeout.cancel( false ) ) {
+        closeQuietly( channel );
+        return;
+      }
+      RemoteRowSetProtocol.Hello hello = new RemoteRowSetProtocol.Hello( frame.payload );
+      synchronized ( this ) {
+        RemoteInputRowSet rowSet = rowSets.get( hello.name );
+        Run run = runs.get( hello.runId );
+        if ( serverChannel == null ) {
+          closeQuietly( channel );
+        } else if ( rowSet != null ) {
+          // Only one sender per row set
+          //
+          if ( !rowSet.isAttached() && !rowSet.isDone() && rowSet.verify( nonce, hello.signature ) ) {
+            RemoteRowSetProtocol.writeFrame( channel, RemoteRowSetProtocol.TYPE_ACCEPTED, RemoteRowSetProtocol.FLAG_NONE, null );
+            rowSet.attach( channel );
+          } else {
+            closeQuietly( channel );
+          }
+        } else if ( run == null || getPendingCount( hello.runId ) >= MAX_PENDING_CONNECTIONS_PER_RUN ) {
+          // Nothing is kept for a connection which can't be authenticated yet
+          //
+          RemoteRowSetProtocol.writeFrame( channel, RemoteRowSetProtocol.TYPE_RETRY, RemoteRowSetProtocol.FLAG_NONE, null );
+          closeQuietly( channel );
+        } else if ( pendingConnections.containsKey( hello.name )
+          || !RemoteRowSetProtocol.verify( run.secret, nonce, hello.name, hello.signature ) ) {
+          closeQuietly( channel );
+        } else {
+          RemoteRowSetProtocol.writeFrame( channel, RemoteRowSetProtocol.TYPE_ACCEPTED, RemoteRowSetProtocol.FLAG_NONE, null );
+          PendingConnection pending = new PendingConnection( hello.runId, channel, nonce, hello.signature );
+          pending.expiry = timeoutScheduler.schedule( () -> expire( hello.name, pending ), PENDING_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+          pendingConnections.put( hello.name, pending );
+        }
+      }
+    } catch ( IOException e ) {
+      timeout.cancel( false );
+      closeQuietly( channel );
+    }
+  }
+
+  private int getPendingCount( String runId ) {
+    int count = 0;
+    for ( PendingConnection pending : pendingConnections.values() ) {
+      if ( pending.runId.equals( runId ) ) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private synchronized void expire( String name, PendingConnection pending ) {
+    if ( pendingConnections.remove( name, pending ) ) {
+      closeQuietly( pending.channel );
+    }
+  }
+
+  private static void closeQuietly( Channel channel ) {
+    try {
+      channel.close();
+    } catch ( IOException e ) {
+      // Ignore
+    }
+  }
+}
@@ -187,7 +187,7 @@ public class Result implements Cloneable {
     result = false;
 
     exitStatus = 0;
-    rows = new ArrayList<>();
+    rows = new ResultRows();
     resultFiles = new ConcurrentHashMap<>();
 
     stopped = false;
@@ -243,9 +243,9 @@ public class Result implements Cloneable {
 
       // Clone result rows and files as well...
       if ( rows != null ) {
-        List<RowMetaAndData> clonedRows = new ArrayList<>();
-        for ( int i = 0; i < rows.size(); i++ ) {
-          clonedRows.add( ( rows.get( i ) ).clone() );
+        List<RowMetaAndData> clonedRows = new ResultRows();
+        for ( RowMetaAndData row : rows ) {
+          clonedRows.add( row.clone() );
         }
         result.setRows( clonedRows );
       }
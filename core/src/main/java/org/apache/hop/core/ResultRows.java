@@ -0,0 +1,511 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.vfs.HopVfs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The rows of a {@link Result}. By default all rows are kept in memory. When a maximum number of rows in memory is
+ * set, the rows are written to a temporary file in the compact binary format of {@link IRowMeta#writeData} once that
+ * number is exceeded. The spilled rows are read back when iterating over the list, so consumers should iterate or use
+ * increasing indexes with {@link #get(int)}, which is cheap for sequential access.
+ * <p>
+ * Rows read back from the temporary file are new objects: changing them doesn't change the rows in the list.
+ * Replacing, inserting or removing a spilled row reads all spilled rows back into memory first, they are spilled
+ * again when the next row is added. The temporary file is removed when that happens, when the list is cleared or when
+ * the list is garbage collected. Rows which can't be serialized, for example because of a value type which doesn't
+ * support it, are kept in memory: the temporary file only marks their place.
+ */
+public class ResultRows extends AbstractList<RowMetaAndData> {
+
+  private static final ReferenceQueue<ResultRows> unusedLists = new ReferenceQueue<>();
+  private static final Set<SpillReference> spillReferences = ConcurrentHashMap.newKeySet();
+  private static final AtomicBoolean cleanerStarted = new AtomicBoolean( false );
+
+  /**
+   * The number of spilled rows an iterator reads at once: the file is only open while reading a batch
+   */
+  private static final int READ_BATCH_SIZE = 1000;
+
+  private final int maxRowsInMemory;
+
+  /**
+   * The last rows, after the ones written to the spill file
+   */
+  private List<RowMetaAndData> memoryRows;
+
+  private Spill spill;
+  private SpillReference spillReference;
+  private int spilledRows;
+
+  /**
+   * Creates a list which keeps the number of rows set in variable {@link Const#HOP_RESULT_ROWS_MAX_IN_MEMORY} in
+   * memory. All rows are kept in memory if the variable isn't set.
+   */
+  public ResultRows() {
+    this( Const.toInt( EnvUtil.getSystemProperty( Const.HOP_RESULT_ROWS_MAX_IN_MEMORY ),
+      Const.RESULT_ROWS_MAX_IN_MEMORY ) );
+  }
+
+  /**
+   * @param maxRowsInMemory The maximum number of rows to keep in memory, 0 or less to keep all rows in memory
+   */
+  public ResultRows( int maxRowsInMemory ) {
+    this.maxRowsInMemory = maxRowsInMemory;
+    this.memoryRows = new ArrayList<>();
+  }
+
+  /**
+   * @param rows The rows to add to the new list
+   */
+  public ResultRows( List<RowMetaAndData> rows ) {
+    this();
+    addAll( rows );
+  }
+
+  @Override public synchronized int size() {
+    return spilledRows + memoryRows.size();
+  }
+
+  @Override public synchronized boolean add( RowMetaAndData row ) {
+    memoryRows.add( row );
+    modCount++;
+    if ( maxRowsInMemory > 0 && memoryRows.size() > maxRowsInMemory ) {
+      spillMemoryRows();
+    }
+    return true;
+  }
+
+  @Override public synchronized void add( int index, RowMetaAndData row ) {
+    if ( index == size() ) {
+      add( row );
+    } else {
+      rangeCheck( index );
+      int memoryIndex = memoryIndex( index );
+      memoryRows.add( memoryIndex, row );
+      modCount++;
+    }
+  }
+
+  @Override public synchronized RowMetaAndData set( int index, RowMetaAndData row ) {
+    rangeCheck( index );
+    int memoryIndex = memoryIndex( index );
+    return memoryRows.set( memoryIndex, row );
+  }
+
+  @Override public synchronized RowMetaAndData remove( int index ) {
+    rangeCheck( index );
+    int memoryIndex = memoryIndex( index );
+    RowMetaAndData row = memoryRows.remove( memoryIndex );
+    modCount++;
+    return row;
+  }
+
+  @Override public synchronized RowMetaAndData get( int index ) {
+    rangeCheck( index );
+    if ( index >= spilledRows ) {
+      return memoryRows.get( index - spilledRows );
+    }
+    try {
+      return spill.read( index );
+    } catch ( IOException | HopFileException e ) {
+      throw new RuntimeException( "Unable to read result row " + index + " from file " + spill.file, e );
+    }
+  }
+
+  @Override public synchronized void clear() {
+    memoryRows = new ArrayList<>();
+    deleteSpill();
+    modCount++;
+  }
+
+  /**
+   * @return The number of rows which are written to the temporary file, including the rows which couldn't be
+   * serialized and only have their place marked in it
+   */
+  public synchronized int getSpilledRows() {
+    return spilledRows;
+  }
+
+  /**
+   * @return The maximum number of rows kept in memory, 0 or less if all rows are kept in memory
+   */
+  public int getMaxRowsInMemory() {
+    return maxRowsInMemory;
+  }
+
+  @Override public Iterator<RowMetaAndData> iterator() {
+    return new RowIterator();
+  }
+
+  private void rangeCheck( int index ) {
+    if ( index < 0 || index >= size() ) {
+      throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size() );
+    }
+  }
+
+  /**
+   * @return The index of the row in the rows kept in memory. A spilled row is read back into memory first, which
+   * replaces the list of rows in memory.
+   */
+  private int memoryIndex( int index ) {
+    if ( index < spilledRows ) {
+      readSpilledRows();
+    }
+    return index - spilledRows;
+  }
+
+  /**
+   * Read all spilled rows back into memory so that they can be changed, and remove the temporary file
+   */
+  private void readSpilledRows() {
+    List<RowMetaAndData> rows = new ArrayList<>( size() );
+    for ( int i = 0; i < spilledRows; i++ ) {
+      rows.add( get( i ) );
+    }
+    rows.addAll( memoryRows );
+    memoryRows = rows;
+    deleteSpill();
+  }
+
+  private void deleteSpill() {
+    spilledRows = 0;
+    if ( spill != null ) {
+      spill.delete();
+      spillReferences.remove( spillReference );
+      spillReference.clear();
+      spill = null;
+      spillReference = null;
+    }
+  }
+
+  private void spillMemoryRows() {
+    int written = 0;
+    try {
+      if ( spill == null ) {
+        spill = new Spill();
+        spillReference = new SpillReference( this, spill );
+        registerSpill( spillReference );
+      }
+      for ( RowMetaAndData row : memoryRows ) {
+        spill.write( row );
+        written++;
+      }
+    } catch ( IOException e ) {
+      throw new RuntimeException( "Unable to write result rows to a temporary file", e );
+    } finally {
+      if ( written > 0 ) {
+        memoryRows = new ArrayList<>( memoryRows.subList( written, memoryRows.size() ) );
+        spilledRows += written;
+      }
+    }
+  }
+
+  /**
+   * Keep track of a temporary file to remove it when its list is garbage collected. The first file starts the thread
+   * removing them.
+   */
+  private static void registerSpill( SpillReference reference ) {
+    spillReferences.add( reference );
+    if ( cleanerStarted.compareAndSet( false, true ) ) {
+      Thread cleaner = new Thread( ResultRows::deleteUnusedSpills, "Hop result rows cleaner" );
+      cleaner.setDaemon( true );
+      cleaner.start();
+    }
+  }
+
+  /**
+   * Remove the temporary files of the lists as they are garbage collected
+   */
+  private static void deleteUnusedSpills() {
+    try {
+      while ( true ) {
+        SpillReference reference = (SpillReference) unusedLists.remove();
+        reference.spill.delete();
+        spillReferences.remove( reference );
+      }
+    } catch ( InterruptedException e ) {
+      cleanerStarted.set( false );
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class SpillReference extends PhantomReference<ResultRows> {
+    private final Spill spill;
+
+    SpillReference( ResultRows rows, Spill spill ) {
+      super( rows, unusedLists );
+      this.spill = spill;
+    }
+  }
+
+  /**
+   * The temporary file with the spilled rows. Every row is written as the length of the row metadata (0 if it's the
+   * same as the metadata of the previous row), the row metadata, the length of the data and the data itself.
+   * The lengths allow rows to be skipped without parsing them. A row which can't be serialized is written as length -1
+   * and kept in memory.
+   */
+  private static class Spill {
+    private final File file;
+    private final DataOutputStream outputStream;
+    private final ByteArrayOutputStream metaBuffer = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream dataBuffer = new ByteArrayOutputStream();
+    private IRowMeta lastWrittenRowMeta;
+    private int nrRows;
+    private boolean deleted;
+
+    /**
+     * The rows which can't be serialized, by index
+     */
+    private final Map<Integer, RowMetaAndData> rowsInMemory = new ConcurrentHashMap<>();
+
+    /**
+     * The reader used for random access: the next row it reads is readerIndex
+     */
+    private SpillReader reader;
+
+    Spill() throws IOException {
+      file = File.createTempFile( "hop-result-rows-", ".tmp", new File( HopVfs.TEMP_DIR ) );
+      outputStream = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ), 65536 ) );
+    }
+
+    synchronized void write( RowMetaAndData row ) throws IOException {
+      IRowMeta rowMeta = row.getRowMeta();
+      if ( rowMeta == null || !serialize( rowMeta, row.getData() ) ) {
+        outputStream.writeInt( -1 );
+        rowsInMemory.put( nrRows++, row );
+        return;
+      }
+      outputStream.writeInt( metaBuffer.size() );
+      metaBuffer.writeTo( outputStream );
+      outputStream.writeInt( dataBuffer.size() );
+      dataBuffer.writeTo( outputStream );
+      lastWrittenRowMeta = rowMeta;
+      nrRows++;
+    }
+
+    /**
+     * @return false if the row can't be serialized
+     */
+    private boolean serialize( IRowMeta rowMeta, Object[] data ) {
+      metaBuffer.reset();
+      dataBuffer.reset();
+      try {
+        if ( rowMeta != lastWrittenRowMeta ) {
+          rowMeta.writeMeta( new DataOutputStream( metaBuffer ) );
+        }
+        rowMeta.writeData( new DataOutputStream( dataBuffer ), data );
+        return true;
+      } catch ( HopFileException | RuntimeException e ) {
+        return false;
+      }
+    }
+
+    /**
+     * Open a reader at the given position
+     *
+     * @param index   the index of the next row to read
+     * @param offset  the position of that row in the file
+     * @param rowMeta the row metadata of the row before it, null at the start of the file
+     */
+    synchronized SpillReader openReader( int index, long offset, IRowMeta rowMeta ) throws IOException {
+      outputStream.flush();
+      return new SpillReader( this, index, offset, rowMeta );
+    }
+
+    synchronized RowMetaAndData read( int index ) throws IOException, HopFileException {
+      if ( reader == null || reader.index > index ) {
+        if ( reader != null ) {
+          reader.close();
+        }
+        reader = openReader( 0, 0L, null );
+      } else {
+        outputStream.flush();
+      }
+      while ( reader.index < index ) {
+        reader.skip();
+      }
+      return reader.read();
+    }
+
+    synchronized void delete() {
+      if ( deleted ) {
+        return;
+      }
+      deleted = true;
+      try {
+        if ( reader != null ) {
+          reader.close();
+        }
+        outputStream.close();
+      } catch ( IOException e ) {
+        // Nothing left to do with the file
+      }
+      file.delete();
+    }
+  }
+
+  private static class SpillReader {
+    private final Spill spill;
+    private final DataInputStream inputStream;
+    private IRowMeta rowMeta;
+    private int index;
+    private long offset;
+
+    SpillReader( Spill spill, int index, long offset, IRowMeta rowMeta ) throws IOException {
+      this.spill = spill;
+      this.index = index;
+      this.offset = offset;
+      this.rowMeta = rowMeta;
+      FileInputStream fileInputStream = new FileInputStream( spill.file );
+      try {
+        fileInputStream.getChannel().position( offset );
+      } catch ( IOException e ) {
+        fileInputStream.close();
+        throw e;
+      }
+      inputStream = new DataInputStream( new BufferedInputStream( fileInputStream, 65536 ) );
+    }
+
+    /**
+     * @return the length of the row metadata, -1 if the row is kept in memory
+     */
+    private int readMeta() throws IOException, HopFileException {
+      int metaLength = inputStream.readInt();
+      offset += 4;
+      if ( metaLength > 0 ) {
+        rowMeta = new RowMeta( inputStream );
+        offset += metaLength;
+      }
+      return metaLength;
+    }
+
+    void skip() throws IOException, HopFileException {
+      if ( readMeta() >= 0 ) {
+        int dataLength = inputStream.readInt();
+        inputStream.skipBytes( dataLength );
+        offset += 4 + dataLength;
+      }
+      index++;
+    }
+
+    RowMetaAndData read() throws IOException, HopFileException {
+      if ( readMeta() < 0 ) {
+        return spill.rowsInMemory.get( index++ );
+      }
+      int dataLength = inputStream.readInt();
+      Object[] data = rowMeta.readData( inputStream );
+      offset += 4 + dataLength;
+      index++;
+      return new RowMetaAndData( rowMeta, data );
+    }
+
+    void close() throws IOException {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * Reads the spilled rows in batches, followed by the rows in memory. The file is closed after every batch so that an
+   * iterator which isn't read to the end doesn't keep it open.
+   */
+  private class RowIterator implements Iterator<RowMetaAndData> {
+    private int index;
+    private int expectedModCount;
+    private List<RowMetaAndData> batch = new ArrayList<>();
+    private int batchIndex;
+    private long offset;
+    private IRowMeta rowMeta;
+
+    RowIterator() {
+      synchronized ( ResultRows.this ) {
+        expectedModCount = modCount;
+      }
+    }
+
+    @Override public boolean hasNext() {
+      synchronized ( ResultRows.this ) {
+        return index < size();
+      }
+    }
+
+    @Override public RowMetaAndData next() {
+      synchronized ( ResultRows.this ) {
+        if ( modCount != expectedModCount ) {
+          throw new ConcurrentModificationException();
+        }
+        if ( index >= size() ) {
+          throw new NoSuchElementException();
+        }
+        if ( index >= spilledRows ) {
+          return memoryRows.get( index++ - spilledRows );
+        }
+        if ( batchIndex >= batch.size() ) {
+          readBatch();
+        }
+        index++;
+        return batch.get( batchIndex++ );
+      }
+    }
+
+    private void readBatch() {
+      batch = new ArrayList<>();
+      batchIndex = 0;
+      try {
+        SpillReader reader = spill.openReader( index, offset, rowMeta );
+        try {
+          while ( batch.size() < READ_BATCH_SIZE && index + batch.size() < spilledRows ) {
+            batch.add( reader.read() );
+          }
+          offset = reader.offset;
+          rowMeta = reader.rowMeta;
+        } finally {
+          reader.close();
+        }
+      } catch ( IOException | HopFileException e ) {
+        throw new RuntimeException( "Unable to read result rows from file " + spill.file, e );
+      }
+    }
+  }
+}
@@ -615,6 +615,16 @@ public abstract class BaseDatabaseMeta implements Cloneable, IDatabase {
     return "COUNT";
   }
 
+  /**
+   * @param expression the integer expression to divide
+   * @param divisor    the divisor
+   * @return the SQL expression calculating the remainder of the division
+   */
+  @Override
+  public String getModuloExpression( String expression, int divisor ) {
+    return "MOD(" + expression + ", " + divisor + ")";
+  }
+
   /**
    * Get the schema-table combination to query the right table. Usually that is SCHEMA.TABLENAME, however there are
    * exceptions to this rule...
@@ -130,6 +130,9 @@ public class Database implements IVariables, ILoggingObject {
 
   private IRowMeta rowMeta;
 
+  /** Reads the values of the rows of the result sets, see getRow() */
+  private ResultSetRowReader rowReader;
+
   private int written;
 
   private ILogChannel log;
@@ -2717,24 +2720,49 @@ public class Database implements IVariables, ILoggingObject {
    */
   public Object[] getRow(ResultSet rs, ResultSetMetaData dummy, IRowMeta rowInfo)
       throws HopDatabaseException {
-    long startTime = System.currentTimeMillis();
-
-    try {
+    Object[] data = RowDataUtil.allocateRowData(rowInfo.size());
+    return readRow(rs, rowInfo, data, 0) ? data : null;
+  }
 
-      int nrcols = rowInfo.size();
-      Object[] data = RowDataUtil.allocateRowData(nrcols);
+  /**
+   * Read the next row from the resultset into the given row. This saves allocating and copying a
+   * row when the values are added to another row anyway.
+   *
+   * @param rs The resultset to get the row from
+   * @param row The row to store the values in
+   * @param offset The index in the row to store the value of the first column at
+   * @return false if there are no more rows in the resultset
+   * @throws HopDatabaseException in case the row can't be read
+   */
+  public boolean getRow(ResultSet rs, Object[] row, int offset) throws HopDatabaseException {
+    if (rowMeta == null) {
+      try {
+        rowMeta = getRowInfo(rs.getMetaData(), false, false);
+      } catch (SQLException e) {
+        throw new HopDatabaseException("Unable to retrieve metadata from resultset", e);
+      }
+    }
+    return readRow(rs, rowMeta, row, offset);
+  }
 
-      if (rs.next()) {
-        for (int i = 0; i < nrcols; i++) {
-          IValueMeta val = rowInfo.getValueMeta(i);
+  private boolean readRow(ResultSet rs, IRowMeta rowInfo, Object[] row, int offset)
+      throws HopDatabaseException {
+    long startTime = System.currentTimeMillis();
 
-          data[i] = databaseMeta.getValueFromResultSet(rs, val, i);
-        }
-      } else {
-        data = null;
+    try {
+      if (!rs.next()) {
+        return false;
       }
 
-      return data;
+      // The readers of the columns are determined once per query
+      //
+      if (rowReader == null
+          || rowReader.getRowMeta() != rowInfo
+          || rowReader.size() != rowInfo.size()) {
+        rowReader = new ResultSetRowReader(databaseMeta, rowInfo);
+      }
+      rowReader.readValues(rs, row, offset);
+      return true;
     } catch (Exception ex) {
       throw new HopDatabaseException("Couldn't get row from result set", ex);
     } finally {
@@ -1058,6 +1058,15 @@ public class DatabaseMeta extends HopMetadataBase implements Cloneable, IHopMeta
     return iDatabase.getFunctionCount();
   }
 
+  /**
+   * @param expression the integer expression to divide
+   * @param divisor the divisor
+   * @return the SQL expression calculating the remainder of the division
+   */
+  public String getModuloExpression(String expression, int divisor) {
+    return iDatabase.getModuloExpression(expression, divisor);
+  }
+
   /**
    * Check the database connection parameters and give back an array of remarks
    *
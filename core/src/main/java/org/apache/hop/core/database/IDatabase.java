@@ -367,6 +367,13 @@ public interface IDatabase extends Cloneable {
    */
   public String getFunctionCount();
 
+  /**
+   * @param expression the integer expression to divide
+   * @param divisor    the divisor
+   * @return the SQL expression calculating the remainder of the division
+   */
+  public String getModuloExpression( String expression, int divisor );
+
   /**
    * Get the schema-table combination to query the right table. Usually that is SCHEMA.TABLENAME, however there are
    * exceptions to this rule...
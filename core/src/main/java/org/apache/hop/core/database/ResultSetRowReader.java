@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaBase;
+
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Reads the rows of a result set with an extractor per column which is chosen once per query.
+ *
+ * <p>The values of the columns of the standard data types are read with the matching typed getter
+ * of the result set, without looking at the data type and the database dialect for every value.
+ * Columns of other data types, or of databases and value metadata which read values in their own
+ * way, are read with {@link DatabaseMeta#getValueFromResultSet(ResultSet, IValueMeta, int)} like
+ * before.
+ */
+public class ResultSetRowReader {
+
+  /** Reads the value of a single column from the current row of a result set */
+  @FunctionalInterface
+  interface IColumnReader {
+    /**
+     * @param resultSet the result set positioned on the row to read
+     * @param column the 1-based index of the column
+     * @return the value of the column, null if the database value is null
+     */
+    Object read(ResultSet resultSet, int column) throws SQLException, HopDatabaseException;
+  }
+
+  private final IRowMeta rowMeta;
+  private final IColumnReader[] readers;
+
+  /**
+   * @param databaseMeta the database the result set is read from
+   * @param rowMeta the metadata of the rows in the result set
+   */
+  public ResultSetRowReader(DatabaseMeta databaseMeta, IRowMeta rowMeta) {
+    this.rowMeta = rowMeta;
+    this.readers = new IColumnReader[rowMeta.size()];
+
+    IDatabase iDatabase = databaseMeta.getIDatabase();
+    boolean standardDatabase =
+        isDeclaredBy(
+            iDatabase.getClass(),
+            BaseDatabaseMeta.class,
+            "getValueFromResultSet",
+            ResultSet.class,
+            IValueMeta.class,
+            int.class);
+    for (int i = 0; i < readers.length; i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(i);
+      IColumnReader reader = null;
+      if (standardDatabase
+          && isDeclaredBy(
+              valueMeta.getClass(),
+              ValueMetaBase.class,
+              "getValueFromResultSet",
+              IDatabase.class,
+              ResultSet.class,
+              int.class)) {
+        reader = getTypedReader(iDatabase, valueMeta);
+      }
+      if (reader == null) {
+        final int index = i;
+        reader = (resultSet, column) -> databaseMeta.getValueFromResultSet(resultSet, valueMeta, index);
+      }
+      readers[i] = reader;
+    }
+  }
+
+  private static boolean isDeclaredBy(
+      Class<?> clazz, Class<?> declaringClass, String methodName, Class<?>... parameterTypes) {
+    try {
+      return clazz.getMethod(methodName, parameterTypes).getDeclaringClass() == declaringClass;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the reader doing the same as ValueMetaBase.getValueFromResultSet() for the data type of
+   *     the value, null if there is no specific one
+   */
+  private static IColumnReader getTypedReader(IDatabase iDatabase, IValueMeta valueMeta) {
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_BOOLEAN:
+        return (resultSet, column) -> {
+          boolean value = resultSet.getBoolean(column);
+          return resultSet.wasNull() ? null : Boolean.valueOf(value);
+        };
+      case IValueMeta.TYPE_NUMBER:
+        return (resultSet, column) -> {
+          double value = resultSet.getDouble(column);
+          return resultSet.wasNull() ? null : Double.valueOf(value);
+        };
+      case IValueMeta.TYPE_INTEGER:
+        return (resultSet, column) -> {
+          long value = resultSet.getLong(column);
+          return resultSet.wasNull() ? null : Long.valueOf(value);
+        };
+      case IValueMeta.TYPE_BIGNUMBER:
+        return (resultSet, column) -> {
+          BigDecimal value = resultSet.getBigDecimal(column);
+          return resultSet.wasNull() ? null : value;
+        };
+      case IValueMeta.TYPE_STRING:
+        if (valueMeta.isStorageBinaryString()) {
+          return (resultSet, column) -> {
+            byte[] value = resultSet.getBytes(column);
+            return resultSet.wasNull() ? null : value;
+          };
+        }
+        return (resultSet, column) -> {
+          String value = resultSet.getString(column);
+          return resultSet.wasNull() ? null : value;
+        };
+      case IValueMeta.TYPE_BINARY:
+        if (iDatabase.supportsGetBlob()) {
+          return (resultSet, column) -> {
+            Blob blob = resultSet.getBlob(column);
+            byte[] value = blob == null ? null : blob.getBytes(1L, (int) blob.length());
+            return resultSet.wasNull() ? null : value;
+          };
+        }
+        return (resultSet, column) -> {
+          byte[] value = resultSet.getBytes(column);
+          return resultSet.wasNull() ? null : value;
+        };
+      case IValueMeta.TYPE_DATE:
+        if (valueMeta.getPrecision() != 1 && iDatabase.supportsTimeStampToDateConversion()) {
+          return (resultSet, column) -> {
+            Timestamp value = resultSet.getTimestamp(column);
+            return resultSet.wasNull() ? null : value;
+          };
+        }
+        if (iDatabase.isNetezzaVariant()) {
+          return null; // Netezza has its own way of reading times
+        }
+        return (resultSet, column) -> {
+          Date value = resultSet.getDate(column);
+          return resultSet.wasNull() ? null : value;
+        };
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Read the values of the current row of the result set into the given row.
+   *
+   * @param resultSet the result set positioned on the row to read
+   * @param row the row to store the values in
+   * @param offset the index in the row of the value of the first column
+   * @throws HopDatabaseException in case a value can't be read
+   */
+  public void readValues(ResultSet resultSet, Object[] row, int offset)
+      throws HopDatabaseException {
+    int i = 0;
+    try {
+      for (; i < readers.length; i++) {
+        row[offset + i] = readers[i].read(resultSet, i + 1);
+      }
+    } catch (SQLException e) {
+      throw new HopDatabaseException(
+          "Unable to get value '"
+              + rowMeta.getValueMeta(i).toStringMeta()
+              + "' from database resultset, index "
+              + i,
+          e);
+    }
+  }
+
+  /** @return the number of columns read */
+  public int size() {
+    return readers.length;
+  }
+
+  /** @return the metadata of the rows read */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes the logging events to another listener on a background thread, in batches.
+ * Threads which log don't have to wait for slow listeners writing to a file or the console: they only add the event
+ * to a queue. Only when the queue is full a logging thread waits until there is room again so no events get lost.
+ * The events are handed to the listener in the order they were added.
+ */
+public class AsyncLoggingEventListener implements IHopLoggingEventListener {
+
+  public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  private final IHopLoggingEventListener listener;
+  private final BlockingQueue<HopLoggingEvent> queue;
+  private final AtomicLong nrAdded = new AtomicLong( 0 );
+  private final Object handledLock = new Object();
+  private long nrHandled;
+  private final Thread thread;
+  private final Thread shutdownHook;
+  private volatile boolean closed;
+
+  /**
+   * @param listener the listener to pass the events to
+   */
+  public AsyncLoggingEventListener( IHopLoggingEventListener listener ) {
+    this( listener, DEFAULT_QUEUE_SIZE );
+  }
+
+  /**
+   * @param listener  the listener to pass the events to
+   * @param queueSize the number of events which can wait before logging threads are blocked
+   */
+  public AsyncLoggingEventListener( IHopLoggingEventListener listener, int queueSize ) {
+    this.listener = listener;
+    this.queue = new LinkedBlockingQueue<>( Math.max( 1, queueSize ) );
+
+    thread = new Thread( this::run, "Logging to " + listener.getClass().getSimpleName() );
+    thread.setDaemon( true );
+    thread.start();
+
+    // Write out what is still waiting when the JVM exits
+    //
+    shutdownHook = new Thread( this::close );
+    Runtime.getRuntime().addShutdownHook( shutdownHook );
+  }
+
+  @Override
+  public void eventAdded( HopLoggingEvent event ) {
+    // Once closed or when the listener itself logs something, handle the event right away
+    //
+    if ( closed || Thread.currentThread() == thread ) {
+      listener.eventAdded( event );
+      return;
+    }
+    try {
+      nrAdded.incrementAndGet();
+      queue.put( event );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      nrAdded.decrementAndGet();
+      listener.eventAdded( event );
+    }
+  }
+
+  private void run() {
+    List<HopLoggingEvent> batch = new ArrayList<>( MAX_BATCH_SIZE );
+    while ( !closed || !queue.isEmpty() ) {
+      try {
+        HopLoggingEvent event = queue.poll( 100, TimeUnit.MILLISECONDS );
+        if ( event == null ) {
+          continue;
+        }
+        batch.add( event );
+        queue.drainTo( batch, MAX_BATCH_SIZE - 1 );
+        handle( batch );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      batch.clear();
+    }
+  }
+
+  private void handle( List<HopLoggingEvent> batch ) {
+    try {
+      listener.eventsAdded( batch );
+    } catch ( RuntimeException e ) {
+      // Logging about a logging problem is pointless, keep going with the next batch
+      //
+      e.printStackTrace( HopLogStore.OriginalSystemErr );
+    } finally {
+      synchronized ( handledLock ) {
+        nrHandled += batch.size();
+        handledLock.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Wait until all the events added so far are handled by the listener.
+   *
+   * @throws InterruptedException
+   */
+  public void flush() throws InterruptedException {
+    long target = nrAdded.get();
+    synchronized ( handledLock ) {
+      while ( nrHandled < target && thread.isAlive() ) {
+        handledLock.wait( 100 );
+      }
+    }
+  }
+
+  /**
+   * Handle the events still in the queue and stop the background thread.
+   * The events added after closing are passed to the listener right away.
+   */
+  public synchronized void close() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    try {
+      thread.join();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+
+    // Pick up the events which were added while closing
+    //
+    List<HopLoggingEvent> batch = new ArrayList<>();
+    queue.drainTo( batch );
+    if ( !batch.isEmpty() ) {
+      handle( batch );
+    }
+
+    if ( Thread.currentThread() != shutdownHook ) {
+      try {
+        Runtime.getRuntime().removeShutdownHook( shutdownHook );
+      } catch ( IllegalStateException e ) {
+        // The JVM is shutting down already
+      }
+    }
+  }
+
+  /**
+   * @return the listener the events are passed to
+   */
+  public IHopLoggingEventListener getListener() {
+    return listener;
+  }
+}
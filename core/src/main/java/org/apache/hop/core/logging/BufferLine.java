@@ -30,6 +30,15 @@ public class BufferLine {
     this.nr = sequence.incrementAndGet();
   }
 
+  /**
+   * @param event the logging event
+   * @param nr    the sequence number of the line in the buffer it's added to
+   */
+  public BufferLine( HopLoggingEvent event, int nr ) {
+    this.event = event;
+    this.nr = nr;
+  }
+
   public int getNr() {
     return nr;
   }
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A ring of buffer lines, indexed by the sequence number of the line.
+ * Adding, getting and removing a line doesn't take a lock: every line has a slot of its own determined by its number.
+ * Next to the line, a slot keeps the number of the last line put in it, which tells readers whether a line is still
+ * being added, and the number of the previous line of the same log channel, which chains the lines of a channel.
+ * When a new line is added, the line which falls out of the window of the last N lines is evicted.
+ * The slots are allocated in chunks, as they are needed, and can be released once their lines are gone so that a large
+ * capacity doesn't cost memory up front.
+ */
+final class BufferLineRing {
+
+  private static final int MAX_CHUNK_SIZE = 1024;
+
+  private static final int MAX_PAGE_SIZE = 1024;
+
+  static final int MAX_CAPACITY = 1 << 30;
+
+  private static final class Chunk {
+    private final AtomicReferenceArray<BufferLine> lines;
+    /** The number of the last line put in the slot, also when it was removed since: 0 if none */
+    private final AtomicIntegerArray published;
+    /** The number of the line of the same log channel before the line in the slot: 0 if none */
+    private final AtomicIntegerArray previousInChannel;
+
+    private Chunk( int size ) {
+      lines = new AtomicReferenceArray<>( size );
+      published = new AtomicIntegerArray( size );
+      previousInChannel = new AtomicIntegerArray( size );
+    }
+  }
+
+  private final int maxNrLines;
+  private final int capacity;
+  private final int mask;
+  private final int chunkShift;
+  private final int chunkMask;
+  private final int pageShift;
+  private final int pageMask;
+  private final AtomicReferenceArray<AtomicReferenceArray<Chunk>> pages;
+  private final AtomicInteger nrLines = new AtomicInteger( 0 );
+
+  /**
+   * @param maxNrLines The number of lines to keep, at most {@link #MAX_CAPACITY}
+   */
+  BufferLineRing( int maxNrLines ) {
+    this.maxNrLines = Math.min( Math.max( 1, maxNrLines ), MAX_CAPACITY );
+
+    // The physical capacity is the next power of 2 to keep the calculation of the slot cheap.
+    // The chunks are kept in pages so that the largest ring starts with a small table.
+    //
+    this.capacity = this.maxNrLines == 1 ? 1 : Integer.highestOneBit( this.maxNrLines - 1 ) << 1;
+    int chunkSize = Math.min( capacity, MAX_CHUNK_SIZE );
+    int nrChunks = capacity / chunkSize;
+    int pageSize = Math.min( nrChunks, MAX_PAGE_SIZE );
+    this.mask = capacity - 1;
+    this.chunkShift = Integer.numberOfTrailingZeros( chunkSize );
+    this.chunkMask = chunkSize - 1;
+    this.pageShift = Integer.numberOfTrailingZeros( pageSize );
+    this.pageMask = pageSize - 1;
+    this.pages = new AtomicReferenceArray<>( nrChunks / pageSize );
+  }
+
+  /**
+   * @return the maximum number of lines kept
+   */
+  int getMaxNrLines() {
+    return maxNrLines;
+  }
+
+  /**
+   * @return the number of lines in the ring
+   */
+  int size() {
+    return Math.max( 0, nrLines.get() );
+  }
+
+  /**
+   * @param nr the number of the line
+   * @return the line or null if it was evicted, removed or not added yet
+   */
+  BufferLine get( int nr ) {
+    Chunk chunk = getChunk( nr, false );
+    if ( chunk == null ) {
+      return null;
+    }
+    BufferLine line = chunk.lines.get( nr & chunkMask );
+    return line != null && line.getNr() == nr ? line : null;
+  }
+
+  /**
+   * @param nr the number of the line
+   * @return true if the line with the given number was added or skipped, false if it's still being added
+   */
+  boolean isPublished( int nr ) {
+    Chunk chunk = getChunk( nr, false );
+    return chunk != null && chunk.published.get( nr & chunkMask ) - nr >= 0;
+  }
+
+  /**
+   * @param nr the number of a line
+   * @return the number of the line of the same log channel before it, 0 if there is none or if it is no longer known
+   */
+  int getPreviousInChannel( int nr ) {
+    Chunk chunk = getChunk( nr, false );
+    if ( chunk == null ) {
+      return 0;
+    }
+    int slot = nr & chunkMask;
+    int previous = chunk.previousInChannel.get( slot );
+    return chunk.published.get( slot ) == nr ? previous : 0;
+  }
+
+  /**
+   * Add a line and evict the line which no longer fits in the window of the last lines.
+   *
+   * @param line              the line to add
+   * @param previousInChannel the number of the line of the same log channel before this one, 0 if none
+   */
+  void put( BufferLine line, int previousInChannel ) {
+    int nr = line.getNr();
+    store( nr, line, previousInChannel );
+    BufferLine evicted = get( nr - maxNrLines );
+    if ( evicted != null ) {
+      remove( evicted );
+    }
+  }
+
+  /**
+   * Publish a number without a line so that readers move past it.
+   *
+   * @param nr the number which isn't used for a line
+   */
+  void skip( int nr ) {
+    store( nr, null, 0 );
+  }
+
+  /**
+   * Copy a published slot from another ring, unless a line with the same or a later number took it already.
+   *
+   * @param source the ring to copy from
+   * @param nr     the number of the line
+   */
+  void copy( BufferLineRing source, int nr ) {
+    Chunk sourceChunk = source.getChunk( nr, false );
+    if ( sourceChunk == null ) {
+      return;
+    }
+    int sourceSlot = nr & source.chunkMask;
+    int previousInChannel = sourceChunk.previousInChannel.get( sourceSlot );
+    if ( sourceChunk.published.get( sourceSlot ) == nr ) {
+      BufferLine line = sourceChunk.lines.get( sourceSlot );
+      store( nr, line != null && line.getNr() == nr ? line : null, previousInChannel );
+    }
+  }
+
+  private void store( int nr, BufferLine line, int previousInChannel ) {
+    Chunk chunk = getChunk( nr, true );
+    int slot = nr & chunkMask;
+    for ( ; ; ) {
+      BufferLine current = chunk.lines.get( slot );
+      if ( chunk.published.get( slot ) - nr >= 0 || current != null && current.getNr() - nr >= 0 ) {
+        // The slot was taken by this or a later line: this one is out of the window already
+        //
+        return;
+      }
+      if ( chunk.lines.compareAndSet( slot, current, line ) ) {
+        if ( current == null && line != null ) {
+          nrLines.incrementAndGet();
+        } else if ( current != null && line == null ) {
+          nrLines.decrementAndGet();
+        }
+        break;
+      }
+    }
+    chunk.previousInChannel.set( slot, previousInChannel );
+    for ( ; ; ) {
+      int published = chunk.published.get( slot );
+      if ( published - nr >= 0 || chunk.published.compareAndSet( slot, published, nr ) ) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * @param line the line to remove
+   * @return true if the line was removed, false if it wasn't in the ring (anymore)
+   */
+  boolean remove( BufferLine line ) {
+    int nr = line.getNr();
+    Chunk chunk = getChunk( nr, false );
+    if ( chunk != null && chunk.lines.compareAndSet( nr & chunkMask, line, null ) ) {
+      nrLines.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  void clear() {
+    for ( int i = 0; i < pages.length(); i++ ) {
+      AtomicReferenceArray<Chunk> page = pages.get( i );
+      for ( int j = 0; page != null && j < page.length(); j++ ) {
+        Chunk chunk = page.get( j );
+        for ( int k = 0; chunk != null && k < chunk.lines.length(); k++ ) {
+          if ( chunk.lines.getAndSet( k, null ) != null ) {
+            nrLines.decrementAndGet();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Release the chunks holding nothing but numbers in the given range. The lines with these numbers must be gone.
+   * A chunk is only released when the numbers which will use it next are at least half the capacity away from the
+   * last number given out, so that no line is being added to it.
+   *
+   * @param fromNr   the first number of the range
+   * @param toNr     the number after the range
+   * @param claimedNr the last number given out to a line
+   */
+  void release( int fromNr, int toNr, int claimedNr ) {
+    int chunkSize = chunkMask + 1;
+    if ( chunkSize == capacity ) {
+      return;
+    }
+    int nr = ( fromNr + chunkMask ) & ~chunkMask;
+    for ( int i = 0; i < capacity / chunkSize && toNr - ( nr + chunkSize ) >= 0; i++, nr += chunkSize ) {
+      if ( nr + capacity - claimedNr > capacity / 2 ) {
+        int chunkNr = ( nr & mask ) >>> chunkShift;
+        AtomicReferenceArray<Chunk> page = pages.get( chunkNr >>> pageShift );
+        if ( page != null ) {
+          page.set( chunkNr & pageMask, null );
+        }
+      }
+    }
+  }
+
+  private Chunk getChunk( int nr, boolean create ) {
+    int chunkNr = ( nr & mask ) >>> chunkShift;
+    int pageNr = chunkNr >>> pageShift;
+    AtomicReferenceArray<Chunk> page = pages.get( pageNr );
+    if ( page == null ) {
+      if ( !create ) {
+        return null;
+      }
+      pages.compareAndSet( pageNr, null, new AtomicReferenceArray<>( pageMask + 1 ) );
+      page = pages.get( pageNr );
+    }
+    Chunk chunk = page.get( chunkNr & pageMask );
+    if ( chunk == null && create ) {
+      page.compareAndSet( chunkNr & pageMask, null, new Chunk( chunkMask + 1 ) );
+      chunk = page.get( chunkNr & pageMask );
+    }
+    return chunk;
+  }
+}
@@ -17,6 +17,10 @@
 
 package org.apache.hop.core.logging;
 
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+
 public class ConsoleLoggingEventListener implements IHopLoggingEventListener {
 
   private HopLogLayout layout;
@@ -27,15 +31,38 @@ public class ConsoleLoggingEventListener implements IHopLoggingEventListener {
 
   @Override
   public void eventAdded( HopLoggingEvent event ) {
+    eventsAdded( Collections.singletonList( event ) );
+  }
+
+  /**
+   * Print the events and flush the console once for the whole batch.
+   *
+   * @param events the events in the order they were added
+   */
+  @Override
+  public void eventsAdded( List<HopLoggingEvent> events ) {
+    StringBuilder out = new StringBuilder();
+    for ( HopLoggingEvent event : events ) {
+      String logText = layout.format( event );
 
-    String logText = layout.format( event );
+      if ( event.getLevel() == LogLevel.ERROR ) {
+        // Keep the order of the lines when both streams end up on the same console
+        //
+        print( HopLogStore.OriginalSystemOut, out );
+        HopLogStore.OriginalSystemErr.println( logText );
+        HopLogStore.OriginalSystemErr.flush();
+      } else {
+        out.append( logText ).append( System.lineSeparator() );
+      }
+    }
+    print( HopLogStore.OriginalSystemOut, out );
+  }
 
-    if ( event.getLevel() == LogLevel.ERROR ) {
-      HopLogStore.OriginalSystemErr.println( logText );
-      HopLogStore.OriginalSystemErr.flush();
-    } else {
-      HopLogStore.OriginalSystemOut.println( logText );
-      HopLogStore.OriginalSystemOut.flush();
+  private static void print( PrintStream stream, StringBuilder text ) {
+    if ( text.length() > 0 ) {
+      stream.print( text );
+      stream.flush();
+      text.setLength( 0 );
     }
   }
 }
@@ -23,6 +23,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.vfs.HopVfs;
 
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
 
 public class FileLoggingEventListener implements IHopLoggingEventListener {
@@ -78,29 +79,47 @@ public class FileLoggingEventListener implements IHopLoggingEventListener {
 
   @Override
   public void eventAdded( HopLoggingEvent event ) {
+    eventsAdded( Collections.singletonList( event ) );
+  }
+
+  /**
+   * Write the events to the file in one go and flush it once for the whole batch.
+   *
+   * @param events the events in the order they were added
+   */
+  @Override
+  public void eventsAdded( List<HopLoggingEvent> events ) {
 
     try {
-      Object messageObject = event.getMessage();
-      if ( messageObject instanceof LogMessage ) {
-        boolean logToFile = false;
-
-        if ( logChannelId == null ) {
-          logToFile = true;
-        } else {
-          LogMessage message = (LogMessage) messageObject;
-          // This should be fast enough cause cached.
-          List<String> logChannelChildren = LoggingRegistry.getInstance().getLogChannelChildren( logChannelId );
-          // This could be non-optimal, consider keeping the list sorted in the logging registry
-          logToFile = Const.indexOfString( message.getLogChannelId(), logChannelChildren ) >= 0;
-        }
+      List<String> logChannelChildren = null;
+      if ( logChannelId != null ) {
+        // This should be fast enough cause cached.
+        logChannelChildren = LoggingRegistry.getInstance().getLogChannelChildren( logChannelId );
+      }
 
-        if ( logToFile ) {
-          String logText = layout.format( event );
-          outputStream.write( logText.getBytes() );
-          outputStream.write( Const.CR.getBytes() );
-          outputStream.flush();
+      StringBuilder logText = new StringBuilder();
+      for ( HopLoggingEvent event : events ) {
+        Object messageObject = event.getMessage();
+        if ( messageObject instanceof LogMessage ) {
+          boolean logToFile = false;
+
+          if ( logChannelChildren == null ) {
+            logToFile = true;
+          } else {
+            LogMessage message = (LogMessage) messageObject;
+            // This could be non-optimal, consider keeping the list sorted in the logging registry
+            logToFile = Const.indexOfString( message.getLogChannelId(), logChannelChildren ) >= 0;
+          }
+
+          if ( logToFile ) {
+            logText.append( layout.format( event ) ).append( Const.CR );
+          }
         }
       }
+      if ( logText.length() > 0 ) {
+        outputStream.write( logText.toString().getBytes() );
+        outputStream.flush();
+      }
     } catch ( Exception e ) {
       exception = new HopException( "Unable to write to logging event to file '" + filename + "'", e );
     }
@@ -17,6 +17,20 @@
 
 package org.apache.hop.core.logging;
 
+import java.util.List;
+
 public interface IHopLoggingEventListener {
   void eventAdded( HopLoggingEvent event );
+
+  /**
+   * Handle a batch of events at once, as done by {@link AsyncLoggingEventListener}.
+   * Override this to do expensive work like flushing an output stream only once per batch.
+   *
+   * @param events the events in the order they were added
+   */
+  default void eventsAdded( List<HopLoggingEvent> events ) {
+    for ( HopLoggingEvent event : events ) {
+      eventAdded( event );
+    }
+  }
 }
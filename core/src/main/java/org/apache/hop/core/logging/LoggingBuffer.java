@@ -21,26 +21,54 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.hop.core.Const;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * This class keeps the last N lines in a buffer
+ * This class keeps the last N lines in a buffer.
+ * <p>
+ * The lines are kept in a ring, every line gets the next sequence number of this buffer. Adding a line doesn't take a
+ * lock or wait for other threads so that logging threads don't block each other. Every slot of the ring records the
+ * number of the line put in it: {@link #getLastBufferLineNr()} never moves past a line which is still being added. This
+ * allows readers to grab the new lines incrementally by passing the last line number they've seen.
+ * <p>
+ * The lines of a log channel are chained so that the lines of a channel can be found and removed without going over
+ * all the lines of the buffer. To keep the chains in order, a number is skipped when two threads add a line to the same
+ * channel at the same time.
+ * <p>
+ * Without a limit on the number of lines, the last 2^30 lines are kept: in practice the lines are kept until they time
+ * out (see {@link org.apache.hop.core.Const#HOP_MAX_LOG_TIMEOUT_IN_MINUTES}) or until the memory runs out.
  *
  * @author matt
  */
 public class LoggingBuffer {
+
   private String name;
 
-  private List<BufferLine> buffer;
-  private ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile BufferLineRing buffer;
+
+  /** The number given to the last line */
+  private final AtomicInteger sequence = new AtomicInteger( 0 );
+
+  /** The lines up to this number are all added */
+  private final AtomicInteger lastPublishedNr = new AtomicInteger( 0 );
+
+  /** The lines before this number are all gone */
+  private final AtomicInteger firstNr = new AtomicInteger( 1 );
+
+  /** The number of the last line of every log channel */
+  private final Map<String, AtomicInteger> lastLineOfChannel = new ConcurrentHashMap<>();
 
   private int bufferSize;
 
@@ -52,52 +80,67 @@ public class LoggingBuffer {
 
   public LoggingBuffer( int bufferSize ) {
     this.bufferSize = bufferSize;
-    // The buffer overflow protection allows it to be overflowed for 1 item within a single thread.
-    // Considering a possible high contention, let's set it's max overflow size to be 10%.
-    // Anyway, even an overflow goes higher than 10%, it wouldn't cost us too much.
-    buffer = new ArrayList<>( (int) ( bufferSize * 1.1 ) );
+    buffer = new BufferLineRing( getCapacity( bufferSize ) );
     layout = new HopLogLayout( true );
     eventListeners = new CopyOnWriteArrayList<>();
   }
 
+  private static int getCapacity( int bufferSize ) {
+    return bufferSize > 0 ? Math.min( bufferSize, BufferLineRing.MAX_CAPACITY ) : BufferLineRing.MAX_CAPACITY;
+  }
+
   /**
-   * @return the number (sequence, 1..N) of the last log line. If no records are present in the buffer, 0 is returned.
+   * @return the number (sequence, 1..N) of the last log line added to the buffer. If no records were added, 0 is
+   * returned.
    */
   public int getLastBufferLineNr() {
-    lock.readLock().lock();
-    try {
-      if ( buffer.size() > 0 ) {
-        return buffer.get( buffer.size() - 1 ).getNr();
-      } else {
-        return 0;
-      }
-    } finally {
-      lock.readLock().unlock();
+    BufferLineRing ring = buffer;
+    int last = lastPublishedNr.get();
+    int next = last;
+    while ( sequence.get() - next > 0 && ring.isPublished( next + 1 ) ) {
+      next++;
     }
+    // Move the number forward, unless another thread moved it further already
+    //
+    while ( next - last > 0 && !lastPublishedNr.compareAndSet( last, next ) ) {
+      last = lastPublishedNr.get();
+    }
+    return next - last > 0 ? next : last;
   }
 
   /**
    * @param channelId      channel IDs to grab
    * @param includeGeneral include general log lines
-   * @param from
-   * @param to
+   * @param from           the number of the last line seen, the lines after this one are returned
+   * @param to             the number of the last line to return
    * @return
    */
   public List<HopLoggingEvent> getLogBufferFromTo( List<String> channelId, boolean includeGeneral, int from,
                                                    int to ) {
-    lock.readLock().lock();
-    try {
-      Stream<BufferLine> bufferStream = buffer.stream().filter( line -> line.getNr() > from && line.getNr() <= to );
-      if ( channelId != null ) {
-        bufferStream = bufferStream.filter( line -> {
-          String logChannelId = getLogChId( line );
-          return includeGeneral ? isGeneral( logChannelId ) || channelId.contains( logChannelId ) : channelId.contains( logChannelId );
-        } );
+    Set<String> channelIds = channelId == null ? null : new HashSet<>( channelId );
+    List<BufferLine> lines = null;
+    if ( channelIds != null ) {
+      // Follow the chains of the channels unless the lines after the given one are few
+      //
+      int last = getLastBufferLineNr();
+      if ( Math.min( to, last ) - Math.max( from, getWindowStart( last ) - 1 ) > 16 * channelIds.size() ) {
+        Set<String> logChannelIds = new HashSet<>( channelIds );
+        if ( includeGeneral ) {
+          lastLineOfChannel.keySet().stream().filter( this::isGeneral ).forEach( logChannelIds::add );
+        }
+        lines = getChannelLines( logChannelIds, from, Math.min( to, last ) );
       }
-      return bufferStream.map( BufferLine::getEvent ).collect( Collectors.toList() );
-    } finally {
-      lock.readLock().unlock();
     }
+    if ( lines == null ) {
+      lines = getBufferLines( from, to, line -> {
+        if ( channelIds == null ) {
+          return true;
+        }
+        String logChannelId = getLogChId( line );
+        return channelIds.contains( logChannelId ) || ( includeGeneral && isGeneral( logChannelId ) );
+      } );
+    }
+    return lines.stream().map( BufferLine::getEvent ).collect( Collectors.toList() );
   }
 
   /**
@@ -119,6 +162,107 @@ public class LoggingBuffer {
     return getLogBufferFromTo( childIds, includeGeneral, from, to );
   }
 
+  /**
+   * Get the lines in the buffer with a number in the given range, in order.
+   *
+   * @param from   the number of the last line seen, the lines after this one are returned
+   * @param to     the number of the last line to return
+   * @param filter the lines to return
+   * @return the lines found
+   */
+  private List<BufferLine> getBufferLines( int from, int to, Predicate<BufferLine> filter ) {
+    BufferLineRing ring = buffer;
+    int last = getLastBufferLineNr();
+    int first = getWindowStart( last );
+    long start = Math.max( (long) from + 1, first );
+    long end = Math.min( to, last );
+    long present = start == first ? -1 : start;
+    List<BufferLine> lines = new ArrayList<>();
+    for ( long nr = start; nr <= end; nr++ ) {
+      BufferLine line = ring.get( (int) nr );
+      if ( line != null ) {
+        if ( present < 0 ) {
+          present = nr;
+        }
+        if ( filter.test( line ) ) {
+          lines.add( line );
+        }
+      }
+    }
+    if ( start == first ) {
+      // Skip the lines which are gone at the start of the buffer next time around
+      //
+      moveFirstNr( (int) ( present < 0 ? end + 1 : present ) );
+    }
+    return lines;
+  }
+
+  /**
+   * Get the lines of the given log channels with a number in the given range, in order.
+   *
+   * @param logChannelIds the IDs of the log channels
+   * @param from          the number of the last line seen, the lines after this one are returned
+   * @param to            the number of the last line to return
+   * @return the lines found or null if a chain can't be followed because a line is still being added
+   */
+  private List<BufferLine> getChannelLines( Collection<String> logChannelIds, int from, int to ) {
+    List<BufferLine> lines = new ArrayList<>();
+    for ( String logChannelId : logChannelIds ) {
+      AtomicInteger lastLine = lastLineOfChannel.get( logChannelId );
+      if ( lastLine != null && !addChannelLines( lastLine.get(), from, to, lines ) ) {
+        return null;
+      }
+    }
+    lines.sort( Comparator.comparingInt( BufferLine::getNr ) );
+    return lines;
+  }
+
+  /**
+   * Follow the chain of a log channel back from its last line and add the lines with a number in the given range.
+   *
+   * @return false if the chain can't be followed because a line is still being added
+   */
+  private boolean addChannelLines( int lastNr, int from, int to, List<BufferLine> lines ) {
+    BufferLineRing ring = buffer;
+    int start = (int) Math.max( (long) from + 1, getWindowStart( getLastBufferLineNr() ) );
+    for ( int nr = lastNr; nr != 0 && nr - start >= 0; nr = ring.getPreviousInChannel( nr ) ) {
+      if ( !ring.isPublished( nr ) ) {
+        return false;
+      }
+      BufferLine line = nr - to <= 0 ? ring.get( nr ) : null;
+      if ( line != null ) {
+        lines.add( line );
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param last the number of the last line
+   * @return the number of the first line which can still be in the buffer
+   */
+  private int getWindowStart( int last ) {
+    return (int) Math.max( firstNr.get(), (long) last - buffer.getMaxNrLines() + 1 );
+  }
+
+  /**
+   * Remember that the lines before the given number are gone and release the memory they used.
+   */
+  private void moveFirstNr( int nr ) {
+    int first = firstNr.get();
+    while ( nr - first > 0 ) {
+      if ( firstNr.compareAndSet( first, nr ) ) {
+        buffer.release( first, nr, sequence.get() );
+        return;
+      }
+      first = firstNr.get();
+    }
+  }
+
+  private List<BufferLine> getBufferLines() {
+    return getBufferLines( 0, Integer.MAX_VALUE, line -> true );
+  }
+
   public StringBuffer getBuffer( String parentLogChannelId, boolean includeGeneral, int startLineNr, int endLineNr ) {
     StringBuilder eventBuffer = new StringBuilder( 10000 );
 
@@ -147,15 +291,39 @@ public class LoggingBuffer {
 
   public void doAppend( HopLoggingEvent event ) {
     if ( event.getMessage() instanceof LogMessage ) {
-      lock.writeLock().lock();
-      try {
-        buffer.add( new BufferLine( event ) );
-        while ( bufferSize > 0 && buffer.size() > bufferSize ) {
-          buffer.remove( 0 );
+      String logChannelId = ( (LogMessage) event.getMessage() ).getLogChannelId();
+      AtomicInteger lastLine = null;
+      if ( logChannelId != null ) {
+        lastLine = lastLineOfChannel.get( logChannelId );
+        if ( lastLine == null ) {
+          lastLine = lastLineOfChannel.computeIfAbsent( logChannelId, id -> new AtomicInteger( 0 ) );
+        }
+      }
+
+      // Take the ring after claiming the number, see setMaxNrLines()
+      //
+      int nr;
+      int previousInChannel;
+      while ( true ) {
+        previousInChannel = lastLine == null ? 0 : lastLine.get();
+        nr = sequence.incrementAndGet();
+        if ( lastLine == null || lastLine.compareAndSet( previousInChannel, nr ) ) {
+          break;
         }
+        // Another line of the channel got a number first: skip this one to keep the chain of the channel in order
+        //
+        buffer.skip( nr );
+      }
+      boolean added = false;
+      try {
+        buffer.put( new BufferLine( event, nr ), previousInChannel );
+        added = true;
       } finally {
-        lock.writeLock().unlock();
+        if ( !added ) {
+          buffer.skip( nr );
+        }
       }
+      getLastBufferLineNr();
     }
   }
 
@@ -180,12 +348,8 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    lock.writeLock().lock();
-    try {
-      buffer.clear();
-    } finally {
-      lock.writeLock().unlock();
-    }
+    buffer.clear();
+    lastLineOfChannel.clear();
   }
 
   /**
@@ -196,9 +360,32 @@ public class LoggingBuffer {
   }
 
   /**
+   * Changing the size moves the lines to a new ring. Lines added at the same time are kept.
+   *
    * @param maxNrLines the maximum number of lines that this buffer should contain, 0 or lower means: no limit
    */
-  public void setMaxNrLines( int maxNrLines ) {
+  public synchronized void setMaxNrLines( int maxNrLines ) {
+    if ( getCapacity( maxNrLines ) != buffer.getMaxNrLines() ) {
+      BufferLineRing previous = buffer;
+      BufferLineRing ring = new BufferLineRing( getCapacity( maxNrLines ) );
+      buffer = ring;
+
+      // Lines numbered after this one are added to the new ring. The others are copied once they're added.
+      //
+      int last = sequence.get();
+      int start = (int) Math.max( firstNr.get(), (long) last - ring.getMaxNrLines() + 1 );
+      for ( int nr = start; nr - last <= 0; nr++ ) {
+        while ( !previous.isPublished( nr ) && !ring.isPublished( nr ) ) {
+          Thread.yield();
+        }
+        ring.copy( previous, nr );
+      }
+      int published = lastPublishedNr.get();
+      while ( last - published > 0 && !lastPublishedNr.compareAndSet( published, last ) ) {
+        published = lastPublishedNr.get();
+      }
+      moveFirstNr( start );
+    }
     this.bufferSize = maxNrLines;
   }
 
@@ -215,11 +402,13 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer( String id ) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf( line -> id.equals( getLogChId( line ) ) );
-    } finally {
-      lock.writeLock().unlock();
+    AtomicInteger lastLine = lastLineOfChannel.remove( id );
+    if ( lastLine != null ) {
+      List<BufferLine> lines = new ArrayList<>();
+      if ( !addChannelLines( lastLine.get(), 0, Integer.MAX_VALUE, lines ) ) {
+        lines = getBufferLines( 0, Integer.MAX_VALUE, line -> id.equals( getLogChId( line ) ) );
+      }
+      removeBufferLines( lines );
     }
   }
 
@@ -228,12 +417,7 @@ public class LoggingBuffer {
   }
 
   public void removeGeneralMessages() {
-    lock.writeLock().lock();
-    try {
-      buffer.removeIf( line -> isGeneral( getLogChId( line ) ) );
-    } finally {
-      lock.writeLock().unlock();
-    }
+    lastLineOfChannel.keySet().stream().filter( this::isGeneral ).forEach( this::removeChannelFromBuffer );
   }
 
   /**
@@ -246,7 +430,7 @@ public class LoggingBuffer {
   @Deprecated
   @VisibleForTesting
   public Iterator<BufferLine> getBufferIterator() {
-    return buffer.iterator();
+    return getBufferLines().iterator();
   }
 
   /**
@@ -255,17 +439,12 @@ public class LoggingBuffer {
   @Deprecated
   public String dump() {
     StringBuilder buf = new StringBuilder( 50000 );
-    lock.readLock().lock();
-    try {
-      buffer.forEach( line -> {
-        LogMessage message = (LogMessage) line.getEvent().getMessage();
-        buf.append( message.getLogChannelId() ).append( "\t" )
-          .append( message.getSubject() ).append( "\n" );
-      } );
-      return buf.toString();
-    } finally {
-      lock.readLock().unlock();
-    }
+    getBufferLines().forEach( line -> {
+      LogMessage message = (LogMessage) line.getEvent().getMessage();
+      buf.append( message.getLogChannelId() ).append( "\t" )
+        .append( message.getSubject() ).append( "\n" );
+    } );
+    return buf.toString();
   }
 
   /**
@@ -275,12 +454,12 @@ public class LoggingBuffer {
    */
   @Deprecated
   public void removeBufferLines( List<BufferLine> linesToRemove ) {
-    lock.writeLock().lock();
-    try {
-      buffer.removeAll( linesToRemove );
-    } finally {
-      lock.writeLock().unlock();
-    }
+    removeBufferLines( (Collection<BufferLine>) linesToRemove );
+  }
+
+  private void removeBufferLines( Collection<BufferLine> linesToRemove ) {
+    BufferLineRing ring = buffer;
+    linesToRemove.forEach( ring::remove );
   }
 
   /**
@@ -290,35 +469,40 @@ public class LoggingBuffer {
    */
   @Deprecated
   public List<BufferLine> getBufferLinesBefore( long minTimeBoundary ) {
-    lock.readLock().lock();
-    try {
-      return buffer.stream().filter( line -> line.getEvent().timeStamp < minTimeBoundary )
-        .collect( Collectors.toList() );
-    } finally {
-      lock.readLock().unlock();
-    }
+    List<BufferLine> lines = new ArrayList<>();
+    getLinesBefore( minTimeBoundary, lines::add );
+    return lines;
   }
 
   public void removeBufferLinesBefore( long minTimeBoundary ) {
-    // Using HashSet even though BufferLine does not implement hashcode and equals,
-    // we just need to remove the exact objects we have found and put in the set.
-    Set<BufferLine> linesToRemove = new HashSet<>();
-    lock.writeLock().lock();
-    try {
-      for ( BufferLine bufferLine : buffer ) {
-        if ( bufferLine.getEvent().timeStamp < minTimeBoundary ) {
-          linesToRemove.add( bufferLine );
-        } else {
+    BufferLineRing ring = buffer;
+    moveFirstNr( getLinesBefore( minTimeBoundary, ring::remove ) );
+
+    // Forget the channels of which all lines are gone
+    //
+    int first = getWindowStart( getLastBufferLineNr() );
+    lastLineOfChannel.entrySet().removeIf( entry -> entry.getValue().get() - first < 0 );
+  }
+
+  /**
+   * The lines are in order of time: stop at the first line which is recent enough.
+   *
+   * @return the number of the first line which is recent enough
+   */
+  private int getLinesBefore( long minTimeBoundary, Consumer<BufferLine> consumer ) {
+    BufferLineRing ring = buffer;
+    int last = getLastBufferLineNr();
+    int nr = getWindowStart( last );
+    for ( ; nr - last <= 0; nr++ ) {
+      BufferLine line = ring.get( nr );
+      if ( line != null ) {
+        if ( line.getEvent().timeStamp >= minTimeBoundary ) {
           break;
         }
+        consumer.accept( line );
       }
-      // removeAll should run fast against a HashSet,
-      // since ArrayList.batchRemove check for each element of a collection given if it is in the ArrayList.
-      // Thus, removeAll should run in a linear time.
-      buffer.removeAll( linesToRemove );
-    } finally {
-      lock.writeLock().unlock();
     }
+    return nr;
   }
 
   public void addLogggingEvent( HopLoggingEvent loggingEvent ) {
@@ -21,35 +21,68 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.util.EnvUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of all the logging objects and the hierarchy of their log channels.
+ * <p>
+ * The registry doesn't use a global lock: the logging objects are indexed by container ID, name and parent log channel
+ * to find an existing registration quickly. Registrations with the same index key are serialized on one of a number of
+ * locks.
+ * The children of every log channel are kept in a concurrent set so that all the children of a channel are found in
+ * time proportional to their number. When the registry grows over its maximum size, the oldest registrations are
+ * purged in batches, in order of registration, so that the cost of purging is spread over the registrations.
+ */
 public class LoggingRegistry {
   private static LoggingRegistry registry = new LoggingRegistry();
   private Map<String, ILoggingObject> map;
   private Map<String, LogChannelFileWriterBuffer> fileWriterBuffers;
-  private Map<String, List<String>> childrenMap;
-  private Date lastModificationTime;
+  private Map<String, Set<String>> childrenMap;
+  private volatile Date lastModificationTime;
   private int maxSize;
   private final int DEFAULT_MAX_SIZE = 10000;
 
-  private final Object syncObject = new Object();
+  /**
+   * The maximum number of registrations removed at once when the registry is full
+   */
+  private static final int MAX_PURGE_SIZE = 1000;
+
+  private static final int NR_LOCKS = 64;
+
+  private final Object[] locks;
+
+  /**
+   * The log channel IDs in order of registration, the oldest first
+   */
+  private final Queue<String> registrationQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger registrationQueueSize = new AtomicInteger( 0 );
+  private final AtomicBoolean purging = new AtomicBoolean( false );
 
   private LoggingRegistry() {
-    this.map = new ConcurrentHashMap<>();
+    this.map = new IndexedMap();
     this.childrenMap = new ConcurrentHashMap<>();
     this.fileWriterBuffers = new ConcurrentHashMap<>();
 
     this.lastModificationTime = new Date();
     this.maxSize = Const.toInt( EnvUtil.getSystemProperty( "HOP_MAX_LOGGING_REGISTRY_SIZE" ), DEFAULT_MAX_SIZE );
+
+    this.locks = new Object[ NR_LOCKS ];
+    for ( int i = 0; i < NR_LOCKS; i++ ) {
+      locks[ i ] = new Object();
+    }
   }
 
   public static LoggingRegistry getInstance() {
@@ -57,11 +90,14 @@ public class LoggingRegistry {
   }
 
   public String registerLoggingSource( Object object ) {
-    synchronized ( this.syncObject ) {
+    LoggingObject loggingSource = new LoggingObject( object );
 
-      LoggingObject loggingSource = new LoggingObject( object );
+    String logChannelId;
 
-      ILoggingObject found = findExistingLoggingSource( loggingSource );
+    // Two threads registering the same object should end up with the same log channel
+    //
+    synchronized ( getLock( loggingSource ) ) {
+      ILoggingObject found = findRegisteredLoggingSource( loggingSource );
       if ( found != null ) {
         ILoggingObject foundParent = found.getParent();
         ILoggingObject loggingSourceParent = loggingSource.getParent();
@@ -83,61 +119,122 @@ public class LoggingRegistry {
         }
       }
 
-      String logChannelId = UUID.randomUUID().toString();
+      logChannelId = UUID.randomUUID().toString();
       loggingSource.setLogChannelId( logChannelId );
 
+      this.lastModificationTime = new Date();
+      loggingSource.setRegistrationDate( this.lastModificationTime );
+
       this.map.put( logChannelId, loggingSource );
 
+      // Add the child under the same lock: a thread finding the registration also finds it among the children
+      //
       if ( loggingSource.getParent() != null ) {
         String parentLogChannelId = loggingSource.getParent().getLogChannelId();
         if ( parentLogChannelId != null ) {
-          List<String> parentChildren =
-            this.childrenMap.computeIfAbsent( parentLogChannelId, k -> new ArrayList<>() );
-          parentChildren.add( logChannelId );
+          this.childrenMap.computeIfAbsent( parentLogChannelId, k -> ConcurrentHashMap.newKeySet() ).add( logChannelId );
         }
       }
+    }
 
-      this.lastModificationTime = new Date();
-      loggingSource.setRegistrationDate( this.lastModificationTime );
+    registrationQueue.add( logChannelId );
+    registrationQueueSize.incrementAndGet();
 
-      if ( ( this.maxSize > 0 ) && ( this.map.size() > this.maxSize ) ) {
-        List<ILoggingObject> all = new ArrayList<>( this.map.values() );
-        Collections.sort( all, ( o1, o2 ) -> {
-          if ( ( o1 == null ) && ( o2 != null ) ) {
-            return -1;
-          }
-          if ( ( o1 != null ) && ( o2 == null ) ) {
-            return 1;
-          }
-          if ( ( o1 == null ) && ( o2 == null ) ) {
-            return 0;
-          }
-          if ( o1.getRegistrationDate() == null && o2.getRegistrationDate() != null ) {
-            return -1;
-          }
-          if ( o1.getRegistrationDate() != null && o2.getRegistrationDate() == null ) {
-            return 1;
-          }
-          if ( o1.getRegistrationDate() == null && o2.getRegistrationDate() == null ) {
-            return 0;
-          }
-          return ( o1.getRegistrationDate().compareTo( o2.getRegistrationDate() ) );
-        } );
-        int cutCount = this.maxSize < 1000 ? this.maxSize : 1000;
-        Set<String> channelsNotToRemove = getLogChannelFileWriterBufferIds();
-        for ( int i = 0; i < cutCount; i++ ) {
-          ILoggingObject toRemove = all.get( i );
-          if ( !channelsNotToRemove.contains( toRemove.getLogChannelId() ) ) {
-            this.map.remove( toRemove.getLogChannelId() );
-          }
+    if ( ( this.maxSize > 0 ) && ( this.map.size() > this.maxSize ) ) {
+      purge();
+    } else if ( registrationQueueSize.get() > 2 * this.map.size() + MAX_PURGE_SIZE ) {
+      compactRegistrationQueue();
+    }
+    return logChannelId;
+  }
+
+  /**
+   * Remove the oldest registrations, except for the ones logging to a file. Only one thread purges at a time.
+   */
+  private void purge() {
+    if ( !purging.compareAndSet( false, true ) ) {
+      return;
+    }
+    try {
+      int cutCount = this.maxSize < MAX_PURGE_SIZE ? this.maxSize : MAX_PURGE_SIZE;
+      Set<String> channelsNotToRemove = getLogChannelFileWriterBufferIds();
+      List<String> survivors = new ArrayList<>();
+      int attempts = registrationQueueSize.get();
+      int cut = 0;
+      while ( cut < cutCount && attempts-- > 0 ) {
+        String logChannelId = registrationQueue.poll();
+        if ( logChannelId == null ) {
+          break;
+        }
+        registrationQueueSize.decrementAndGet();
+        if ( !this.map.containsKey( logChannelId ) ) {
+          // Removed already
+          continue;
         }
-        removeOrphans();
+        if ( channelsNotToRemove.contains( logChannelId ) ) {
+          survivors.add( logChannelId );
+        } else {
+          remove( logChannelId );
+        }
+        cut++;
       }
-      return logChannelId;
+
+      // The survivors move to the back of the queue: they will be considered again after the younger ones
+      //
+      registrationQueue.addAll( survivors );
+      registrationQueueSize.addAndGet( survivors.size() );
+    } finally {
+      purging.set( false );
     }
   }
 
+  /**
+   * Forget about the log channels in the registration queue which were removed from the registry
+   */
+  private void compactRegistrationQueue() {
+    if ( !purging.compareAndSet( false, true ) ) {
+      return;
+    }
+    try {
+      registrationQueue.removeIf( logChannelId -> {
+        if ( this.map.containsKey( logChannelId ) ) {
+          return false;
+        }
+        registrationQueueSize.decrementAndGet();
+        return true;
+      } );
+    } finally {
+      purging.set( false );
+    }
+  }
+
+  /**
+   * Only a registration with the same parent log channel can be reused, look at those only.
+   *
+   * @param loggingSource the logging source to register
+   * @return an equal logging object registered with the same parent log channel or null if there is none
+   */
+  private ILoggingObject findRegisteredLoggingSource( LoggingObject loggingSource ) {
+    for ( ILoggingObject verify : ( (IndexedMap) this.map ).getIndexed( loggingSource, true ) ) {
+      if ( loggingSource.equals( verify ) ) {
+        return verify;
+      }
+    }
+    return null;
+  }
+
   public ILoggingObject findExistingLoggingSource( ILoggingObject loggingObject ) {
+    if ( loggingObject instanceof LoggingObject ) {
+      // Only logging objects with the same container ID and name can be equal
+      //
+      for ( ILoggingObject verify : ( (IndexedMap) this.map ).getIndexed( loggingObject, false ) ) {
+        if ( loggingObject.equals( verify ) ) {
+          return verify;
+        }
+      }
+      return null;
+    }
+
     ILoggingObject found = null;
     for ( ILoggingObject verify : this.map.values() ) {
       if ( loggingObject.equals( verify ) ) {
@@ -166,23 +263,18 @@ public class LoggingRegistry {
   }
 
   private List<String> getLogChannelChildren( List<String> children, String parentLogChannelId ) {
-    synchronized ( this.syncObject ) {
-      List<String> list = this.childrenMap.get( parentLogChannelId );
-      if ( list == null ) {
-        // Don't do anything, just return the input.
-        return children;
-      }
-
-      Iterator<String> kids = list.iterator();
-      while ( kids.hasNext() ) {
-        String logChannelId = kids.next();
+    Set<String> kids = this.childrenMap.get( parentLogChannelId );
+    if ( kids == null ) {
+      // Don't do anything, just return the input.
+      return children;
+    }
 
-        // Add the children recursively
-        getLogChannelChildren( children, logChannelId );
+    for ( String logChannelId : kids ) {
+      // Add the children recursively
+      getLogChannelChildren( children, logChannelId );
 
-        // Also add the current parent
-        children.add( logChannelId );
-      }
+      // Also add the current parent
+      children.add( logChannelId );
     }
 
     return children;
@@ -229,18 +321,31 @@ public class LoggingRegistry {
    *
    * @return ro parent-child relations map
    */
-  Map<String, List<String>> dumpChildren() {
+  Map<String, Set<String>> dumpChildren() {
     return Collections.unmodifiableMap( this.childrenMap );
   }
 
   public void removeIncludingChildren( String logChannelId ) {
-    synchronized ( this.map ) {
-      List<String> children = getLogChannelChildren( logChannelId );
-      for ( String child : children ) {
-        this.map.remove( child );
+    List<String> children = getLogChannelChildren( logChannelId );
+    for ( String child : children ) {
+      remove( child );
+    }
+  }
+
+  /**
+   * Remove a registration together with its place in the hierarchy
+   *
+   * @param logChannelId the log channel to remove
+   */
+  private void remove( String logChannelId ) {
+    ILoggingObject loggingObject = this.map.remove( logChannelId );
+    this.childrenMap.remove( logChannelId );
+    if ( loggingObject != null && loggingObject.getParent() != null
+      && loggingObject.getParent().getLogChannelId() != null ) {
+      Set<String> siblings = this.childrenMap.get( loggingObject.getParent().getLogChannelId() );
+      if ( siblings != null ) {
+        siblings.remove( logChannelId );
       }
-      this.map.remove( logChannelId );
-      removeOrphans();
     }
   }
 
@@ -254,10 +359,28 @@ public class LoggingRegistry {
   }
 
   public LogChannelFileWriterBuffer getLogChannelFileWriterBuffer( String id ) {
-    for ( String bufferId : this.fileWriterBuffers.keySet() ) {
-      if ( getLogChannelChildren( bufferId ).contains( id ) ) {
-        return this.fileWriterBuffers.get( bufferId );
+    if ( this.fileWriterBuffers.isEmpty() ) {
+      return null;
+    }
+    LogChannelFileWriterBuffer buffer = this.fileWriterBuffers.get( id );
+    if ( buffer != null ) {
+      return buffer;
+    }
+
+    // Look for a file writer of one of the parents
+    //
+    Set<String> visited = new HashSet<>();
+    ILoggingObject loggingObject = this.map.get( id );
+    while ( loggingObject != null && loggingObject.getParent() != null ) {
+      String parentId = loggingObject.getParent().getLogChannelId();
+      if ( parentId == null || !visited.add( parentId ) ) {
+        break;
       }
+      buffer = this.fileWriterBuffers.get( parentId );
+      if ( buffer != null ) {
+        return buffer;
+      }
+      loggingObject = this.map.get( parentId );
     }
     return null;
   }
@@ -287,10 +410,107 @@ public class LoggingRegistry {
   }
 
   public void reset() {
-    synchronized ( this.syncObject ) {
-      map.clear();
-      childrenMap.clear();
-      fileWriterBuffers.clear();
+    map.clear();
+    childrenMap.clear();
+    fileWriterBuffers.clear();
+    registrationQueue.clear();
+    registrationQueueSize.set( 0 );
+  }
+
+  private Object getLock( ILoggingObject loggingObject ) {
+    int hash = IndexedMap.getFamilyKey( loggingObject ).hashCode() * 31 + IndexedMap.getParentKey( loggingObject ).hashCode();
+    return locks[ ( hash & 0x7fffffff ) % NR_LOCKS ];
+  }
+
+  /**
+   * The map of all logging objects by log channel ID, with an index on container ID and object name and then on the
+   * log channel ID of the parent. The index is kept up to date when entries are put in or removed from the map
+   * directly.
+   */
+  private static final class IndexedMap extends ConcurrentHashMap<String, ILoggingObject> {
+
+    private static final String NO_PARENT = "";
+    private static final String NO_PARENT_LOG_CHANNEL = "?";
+
+    private final Map<List<String>, Map<String, Set<ILoggingObject>>> index = new ConcurrentHashMap<>();
+
+    static List<String> getFamilyKey( ILoggingObject loggingObject ) {
+      return Arrays.asList( loggingObject.getContainerId(), loggingObject.getObjectName() );
+    }
+
+    static String getParentKey( ILoggingObject loggingObject ) {
+      ILoggingObject parent = loggingObject.getParent();
+      if ( parent == null ) {
+        return NO_PARENT;
+      }
+      return parent.getLogChannelId() == null ? NO_PARENT_LOG_CHANNEL : parent.getLogChannelId();
+    }
+
+    /**
+     * @param loggingObject the logging object to look for
+     * @param sameParent    true to only return the objects with the same parent log channel
+     * @return the logging objects with the same container ID and name as the given one
+     */
+    Collection<ILoggingObject> getIndexed( ILoggingObject loggingObject, boolean sameParent ) {
+      Map<String, Set<ILoggingObject>> family = index.get( getFamilyKey( loggingObject ) );
+      if ( family == null ) {
+        return Collections.emptySet();
+      }
+      if ( sameParent ) {
+        Set<ILoggingObject> indexed = family.get( getParentKey( loggingObject ) );
+        return indexed == null ? Collections.emptySet() : indexed;
+      }
+      List<ILoggingObject> indexed = new ArrayList<>();
+      family.values().forEach( indexed::addAll );
+      return indexed;
+    }
+
+    @Override
+    public ILoggingObject put( String key, ILoggingObject value ) {
+      ILoggingObject previous = super.put( key, value );
+      if ( previous != null ) {
+        removeFromIndex( previous );
+      }
+      index.compute( getFamilyKey( value ), ( k, family ) -> {
+        Map<String, Set<ILoggingObject>> objects = family == null ? new ConcurrentHashMap<>() : family;
+        objects.computeIfAbsent( getParentKey( value ), pk -> ConcurrentHashMap.newKeySet() ).add( value );
+        return objects;
+      } );
+      return previous;
+    }
+
+    @Override
+    public ILoggingObject remove( Object key ) {
+      ILoggingObject removed = super.remove( key );
+      if ( removed != null ) {
+        removeFromIndex( removed );
+      }
+      return removed;
+    }
+
+    @Override
+    public boolean remove( Object key, Object value ) {
+      boolean removed = super.remove( key, value );
+      if ( removed ) {
+        removeFromIndex( (ILoggingObject) value );
+      }
+      return removed;
+    }
+
+    @Override
+    public void clear() {
+      super.clear();
+      index.clear();
+    }
+
+    private void removeFromIndex( ILoggingObject loggingObject ) {
+      index.computeIfPresent( getFamilyKey( loggingObject ), ( k, family ) -> {
+        family.computeIfPresent( getParentKey( loggingObject ), ( pk, objects ) -> {
+          objects.remove( loggingObject );
+          return objects.isEmpty() ? null : objects;
+        } );
+        return family.isEmpty() ? null : family;
+      } );
     }
   }
 }
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes calls for rows concurrently, for example requests to a web service, while a transform keeps on reading
+ * rows. The transform submits a call for every row and picks up the finished calls on its own thread to pass them on,
+ * either in the order the rows were submitted or in the order the calls finish.
+ * <p>
+ * At most a maximum number of calls are in flight at the same time. A failed call is retried after a delay which
+ * doubles with every attempt if the call throws a {@link RetryException} or if it couldn't connect. Other
+ * {@link IOException}s, like a connection reset while waiting for the response, are only retried for calls submitted
+ * as idempotent: the request may have been processed already. Calls to the same host can be spaced out with a
+ * {@link HostRateLimiter}.
+ *
+ * @param <T> The result type of the calls
+ */
+public class AsyncCallQueue<T> {
+
+  /**
+   * A call for a single row
+   *
+   * @param <T> The result type
+   */
+  @FunctionalInterface
+  public interface ICall<T> {
+    /**
+     * @param lastAttempt true if the call won't be retried anymore if it fails
+     * @return The result of the call
+     * @throws Exception in case the call failed, throw a {@link RetryException} to retry the call
+     */
+    T call( boolean lastAttempt ) throws Exception;
+  }
+
+  /**
+   * Thrown by a call which failed in a way which is worth retrying, like an overloaded server. The call decides whether
+   * it's safe to send the request again.
+   */
+  public static class RetryException extends Exception {
+    private static final long serialVersionUID = -4431787006432232405L;
+
+    public RetryException( String message ) {
+      super( message );
+    }
+  }
+
+  /**
+   * A finished call: the row it was submitted for with the result or the reason it failed
+   *
+   * @param <T> The result type
+   */
+  public static class Completed<T> {
+    private final Object[] row;
+    private final CountDownLatch done = new CountDownLatch( 1 );
+    private volatile T result;
+    private volatile Exception exception;
+
+    Completed( Object[] row ) {
+      this.row = row;
+    }
+
+    void await() throws InterruptedException {
+      done.await();
+    }
+
+    boolean isDone() {
+      return done.getCount() == 0;
+    }
+
+    /**
+     * @return The row the call was submitted for
+     */
+    public Object[] getRow() {
+      return row;
+    }
+
+    /**
+     * @return The result of the call or null if it failed
+     */
+    public T getResult() {
+      return result;
+    }
+
+    /**
+     * @return The exception of the last attempt of the call or null if it succeeded
+     */
+    public Exception getException() {
+      return exception;
+    }
+  }
+
+  private static final AtomicInteger queueNr = new AtomicInteger();
+
+  private final int maxInFlight;
+  private final boolean ordered;
+  private final int maxRetries;
+  private final long retryDelay;
+  private final HostRateLimiter rateLimiter;
+  private final ExecutorService executor;
+
+  /**
+   * The calls in flight in the order they were submitted
+   */
+  private final Deque<Completed<T>> pending = new ArrayDeque<>();
+
+  /**
+   * The finished calls in the order they finished, only used if the output doesn't need to be ordered
+   */
+  private final BlockingQueue<Completed<T>> finished = new LinkedBlockingQueue<>();
+
+  /**
+   * @param name        The name of the threads, usually the name of the transform
+   * @param maxInFlight The maximum number of calls executed at the same time
+   * @param ordered     true if the calls need to be returned in the order they were submitted
+   * @param maxRetries  The number of times a call is retried
+   * @param retryDelay  The delay in ms before the first retry, doubled for every next retry
+   * @param rateLimiter Limits the number of calls per host or null to not limit
+   */
+  public AsyncCallQueue( String name, int maxInFlight, boolean ordered, int maxRetries, long retryDelay,
+                         HostRateLimiter rateLimiter ) {
+    this.maxInFlight = Math.max( 1, maxInFlight );
+    this.ordered = ordered;
+    this.maxRetries = Math.max( 0, maxRetries );
+    this.retryDelay = Math.max( 0L, retryDelay );
+    this.rateLimiter = rateLimiter;
+
+    String prefix = name + " async call " + queueNr.incrementAndGet() + "-";
+    AtomicInteger threadNr = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread( runnable, prefix + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    };
+    this.executor = Executors.newFixedThreadPool( this.maxInFlight, threadFactory );
+  }
+
+  /**
+   * @return true if no new call can be submitted before a call in flight is taken
+   */
+  public boolean isFull() {
+    return pending.size() >= maxInFlight;
+  }
+
+  /**
+   * @return true if there are no calls in flight or waiting to be taken
+   */
+  public boolean isEmpty() {
+    return pending.isEmpty();
+  }
+
+  /**
+   * Submit a call for a row which isn't retried after an IO error, unless it couldn't connect. Make sure the queue
+   * isn't full before submitting.
+   *
+   * @param row  The row to make the call for
+   * @param host The host to call, used to limit the rate of the calls per host
+   * @param call The call
+   */
+  public void submit( Object[] row, String host, ICall<T> call ) {
+    submit( row, host, false, call );
+  }
+
+  /**
+   * Submit a call for a row. Make sure the queue isn't full before submitting.
+   *
+   * @param row        The row to make the call for
+   * @param host       The host to call, used to limit the rate of the calls per host
+   * @param idempotent true if the call can be repeated after any IO error, like a GET request
+   * @param call       The call
+   */
+  public void submit( Object[] row, String host, boolean idempotent, ICall<T> call ) {
+    Completed<T> completed = new Completed<>( row );
+    pending.addLast( completed );
+    executor.execute( () -> execute( completed, host, idempotent, call ) );
+  }
+
+  private void execute( Completed<T> completed, String host, boolean idempotent, ICall<T> call ) {
+    try {
+      long delay = retryDelay;
+      for ( int attempt = 0; ; attempt++ ) {
+        boolean lastAttempt = attempt >= maxRetries;
+        try {
+          if ( rateLimiter != null ) {
+            rateLimiter.acquire( host );
+          }
+          completed.result = call.call( lastAttempt );
+          break;
+        } catch ( Exception e ) {
+          if ( lastAttempt || !isRetryable( e, idempotent ) || Thread.currentThread().isInterrupted() ) {
+            completed.exception = e;
+            break;
+          }
+          Thread.sleep( delay );
+          delay *= 2;
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      completed.exception = e;
+    } finally {
+      completed.done.countDown();
+      if ( !ordered ) {
+        finished.add( completed );
+      }
+    }
+  }
+
+  /**
+   * @param e          The exception of the call
+   * @param idempotent true if the call can be repeated after any IO error
+   * @return true if the exception or one of its causes is a reason to try again
+   */
+  static boolean isRetryable( Throwable e, boolean idempotent ) {
+    for ( Throwable cause = e; cause != null; cause = cause.getCause() ) {
+      if ( cause instanceof RetryException || isConnectFailure( cause ) || idempotent && cause instanceof IOException ) {
+        return true;
+      }
+      if ( cause.getCause() == cause ) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the connection couldn't be established: the request wasn't sent
+   */
+  private static boolean isConnectFailure( Throwable e ) {
+    return e instanceof ConnectException || e instanceof NoRouteToHostException || e instanceof UnknownHostException
+      || e instanceof ConnectTimeoutException;
+  }
+
+  /**
+   * Wait for the next call to finish and take it from the queue.
+   *
+   * @return The finished call, the oldest one submitted if the output is ordered
+   * @throws HopException in case we're interrupted
+   */
+  public Completed<T> take() throws HopException {
+    if ( pending.isEmpty() ) {
+      return null;
+    }
+    try {
+      Completed<T> completed;
+      if ( ordered ) {
+        completed = pending.peekFirst();
+        completed.await();
+        pending.removeFirst();
+      } else {
+        completed = finished.take();
+        pending.remove( completed );
+      }
+      return completed;
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while waiting for a call to finish", e );
+    }
+  }
+
+  /**
+   * Take the calls from the queue which finished already, without waiting.
+   *
+   * @return The finished calls, ordered if the output is ordered
+   */
+  public List<Completed<T>> poll() {
+    List<Completed<T>> list = new ArrayList<>();
+    if ( ordered ) {
+      while ( !pending.isEmpty() && pending.peekFirst().isDone() ) {
+        list.add( pending.removeFirst() );
+      }
+    } else {
+      finished.drainTo( list );
+      pending.removeAll( list );
+    }
+    return list;
+  }
+
+  /**
+   * Stop all calls in flight and release the threads.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+    pending.clear();
+    finished.clear();
+  }
+
+  /**
+   * Gets maxInFlight
+   *
+   * @return value of maxInFlight
+   */
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Gets ordered
+   *
+   * @return value of ordered
+   */
+  public boolean isOrdered() {
+    return ordered;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+/**
+ * A simple Bloom filter on 32 bit hash codes. It answers whether a value was added with a configurable rate of false
+ * positives but never with a false negative. The bit positions are derived from a 64 bit mix of the hash code with
+ * double hashing.
+ */
+public class BloomFilter {
+
+  public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+  private final long[] words;
+  private final long nrBits;
+  private final int nrHashes;
+
+  /**
+   * @param expectedInsertions The number of values which are going to be added
+   * @param falsePositiveRate  The acceptable rate of false positives, between 0 and 1
+   */
+  public BloomFilter( long expectedInsertions, double falsePositiveRate ) {
+    long n = Math.max( 1L, expectedInsertions );
+    double p = Math.min( 0.5, Math.max( 1E-9, falsePositiveRate ) );
+    long bits = (long) Math.ceil( -n * Math.log( p ) / ( Math.log( 2 ) * Math.log( 2 ) ) );
+    bits = Math.max( 64L, ( ( bits + 63 ) / 64 ) * 64 );
+    // The bit index is derived from a positive int: more than 2^31 bits can't be addressed
+    this.words = new long[ (int) Math.min( 1L << 25, bits / 64 ) ];
+    this.nrBits = words.length * 64L;
+    this.nrHashes = Math.max( 1, (int) Math.round( (double) nrBits / n * Math.log( 2 ) ) );
+  }
+
+  public void add( int hashCode ) {
+    long hash = mix( hashCode );
+    int h1 = (int) hash;
+    int h2 = (int) ( hash >>> 32 );
+    for ( int i = 1; i <= nrHashes; i++ ) {
+      long bit = bitIndex( h1 + i * h2 );
+      words[ (int) ( bit >>> 6 ) ] |= 1L << bit;
+    }
+  }
+
+  /**
+   * @return false if the hash code was certainly not added, true if it probably was
+   */
+  public boolean mightContain( int hashCode ) {
+    long hash = mix( hashCode );
+    int h1 = (int) hash;
+    int h2 = (int) ( hash >>> 32 );
+    for ( int i = 1; i <= nrHashes; i++ ) {
+      long bit = bitIndex( h1 + i * h2 );
+      if ( ( words[ (int) ( bit >>> 6 ) ] & ( 1L << bit ) ) == 0 ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long getNrBits() {
+    return nrBits;
+  }
+
+  public int getNrHashes() {
+    return nrHashes;
+  }
+
+  private long bitIndex( int combinedHash ) {
+    return ( combinedHash < 0 ? ~combinedHash : combinedHash ) % nrBits;
+  }
+
+  /**
+   * The finalizer of MurmurHash3, spreads the bits of the hash code over a long
+   */
+  private static long mix( int hashCode ) {
+    long h = hashCode;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out calls to the same host so that no host gets more than a number of calls per second.
+ * Calls to different hosts don't wait for each other.
+ */
+public class HostRateLimiter {
+
+  private final long intervalNanos;
+  private final Map<String, Long> nextSlots = new HashMap<>();
+
+  /**
+   * @param callsPerSecond The maximum number of calls per second per host
+   */
+  public HostRateLimiter( double callsPerSecond ) {
+    if ( callsPerSecond <= 0 ) {
+      throw new IllegalArgumentException( "The number of calls per second needs to be positive" );
+    }
+    this.intervalNanos = (long) ( TimeUnit.SECONDS.toNanos( 1 ) / callsPerSecond );
+  }
+
+  /**
+   * Wait until a call to the given host is allowed.
+   *
+   * @param host The host to call
+   * @throws InterruptedException in case we're interrupted while waiting
+   */
+  public void acquire( String host ) throws InterruptedException {
+    long now = System.nanoTime();
+    long slot;
+    synchronized ( nextSlots ) {
+      String key = host == null ? "" : host;
+      Long next = nextSlots.get( key );
+      slot = next == null || next - now < 0 ? now : next;
+      nextSlots.put( key, slot + intervalNanos );
+    }
+    long wait = slot - now;
+    if ( wait > 0 ) {
+      TimeUnit.NANOSECONDS.sleep( wait );
+    }
+  }
+
+  /**
+   * @param url The URL to call
+   * @return The host of the URL or the URL itself if it can't be parsed
+   */
+  public static String getHost( String url ) {
+    if ( url == null ) {
+      return null;
+    }
+    try {
+      String host = new URI( url ).getHost();
+      return host == null ? url : host;
+    } catch ( Exception e ) {
+      return url;
+    }
+  }
+}
@@ -29,6 +29,8 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 
+import java.net.HttpURLConnection;
+
 /**
  * Single entry point for all {@link org.apache.http.client.HttpClient HttpClient instances} usages in Hop projects.
  * Contains {@link org.apache.http.impl.conn.PoolingHttpClientConnectionManager Connection pool} of 200 connections.
@@ -42,6 +44,8 @@ public class HttpClientManager {
   private static final int CONNECTIONS_PER_ROUTE = 100;
   private static final int TOTAL_CONNECTIONS = 200;
 
+  public static final int HTTP_TOO_MANY_REQUESTS = 429;
+
   private static HttpClientManager httpClientManager;
   private static PoolingHttpClientConnectionManager manager;
 
@@ -67,6 +71,30 @@ public class HttpClientManager {
     return new HttpClientBuilderFacade();
   }
 
+  /**
+   * @param statusCode The status code of a response
+   * @return true if the request is worth retrying later: too many requests, bad gateway, service unavailable or
+   * gateway timeout
+   */
+  public static boolean isRetryableStatus( int statusCode ) {
+    return statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HttpURLConnection.HTTP_BAD_GATEWAY
+      || statusCode == HttpURLConnection.HTTP_UNAVAILABLE || statusCode == HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+  }
+
+  /**
+   * @param statusCode The status code of the response
+   * @param idempotent true if the request can be sent again even if it was processed, like a GET request
+   * @return true if the request is worth retrying later. A request which isn't idempotent is only retried if the server
+   * refused it: too many requests or service unavailable. After a bad gateway or gateway timeout it may have been
+   * processed.
+   */
+  public static boolean isRetryableStatus( int statusCode, boolean idempotent ) {
+    if ( idempotent ) {
+      return isRetryableStatus( statusCode );
+    }
+    return statusCode == HTTP_TOO_MANY_REQUESTS || statusCode == HttpURLConnection.HTTP_UNAVAILABLE;
+  }
+
   public class HttpClientBuilderFacade {
     private RedirectStrategy redirectStrategy;
     private CredentialsProvider provider;
@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RemoteRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private static final String RUN = "run";
+  private static final String SECRET = "s3cr3t";
+
+  private RemoteRowSetServer server;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void before() throws Exception {
+    server = new RemoteRowSetServer( "localhost", 0 );
+    server.start();
+    server.openRun( RUN, SECRET );
+
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+  }
+
+  @After
+  public void after() {
+    server.stop();
+  }
+
+  @Test
+  public void testStreamRows() throws Exception {
+    streamRows( false );
+  }
+
+  @Test
+  public void testStreamCompressedRows() throws Exception {
+    streamRows( true );
+  }
+
+  private void streamRows( boolean compressed ) throws Exception {
+    RemoteInputRowSet input = server.openInputRowSet( "stream", SECRET, 100 );
+    RemoteOutputRowSet output = new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "stream", SECRET, 30, compressed );
+
+    int nrRows = 1000;
+    Thread producer = new Thread( () -> {
+      for ( long i = 0; i < nrRows; i++ ) {
+        Object[] row = new Object[] { i, "name " + i };
+        while ( !output.putRow( rowMeta, row ) ) {
+          // Wait for credits
+        }
+      }
+      output.setDone();
+    } );
+    producer.start();
+
+    long expected = 0;
+    while ( true ) {
+      Object[] row = input.getRowWait( 50, TimeUnit.MILLISECONDS );
+      if ( row == null ) {
+        if ( input.isDone() && input.size() == 0 ) {
+          break;
+        }
+        continue;
+      }
+      assertEquals( expected, row[ 0 ] );
+      assertEquals( "name " + expected, row[ 1 ] );
+      expected++;
+    }
+    producer.join();
+
+    assertEquals( nrRows, expected );
+    assertNull( input.getError() );
+    assertNull( output.getError() );
+    assertEquals( nrRows, output.getRowsSent() );
+    assertEquals( 2, input.getRowMeta().size() );
+  }
+
+  @Test
+  public void testBackPressure() throws Exception {
+    RemoteInputRowSet input = server.openInputRowSet( "slow", SECRET, 10 );
+    RemoteOutputRowSet output = new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "slow", SECRET, 5, false );
+
+    // The window of 10 rows fills up as nobody reads on the other side
+    //
+    int accepted = 0;
+    for ( long i = 0; i < 20; i++ ) {
+      if ( output.putRowWait( rowMeta, new Object[] { i, "x" }, 200, TimeUnit.MILLISECONDS ) ) {
+        accepted++;
+      }
+    }
+    assertEquals( 10, accepted );
+
+    // Reading half a window hands out new credits
+    //
+    for ( int i = 0; i < 5; i++ ) {
+      assertNotNull( input.getRowWait( 1, TimeUnit.SECONDS ) );
+    }
+    assertTrue( output.putRowWait( rowMeta, new Object[] { 20L, "x" }, 1, TimeUnit.SECONDS ) );
+    output.setDone();
+  }
+
+  @Test
+  public void testSenderConnectsFirst() throws Exception {
+    RemoteOutputRowSet output = new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "early", SECRET, 10, false );
+    Thread.sleep( 100 );
+    RemoteInputRowSet input = server.openInputRowSet( "early", SECRET, 10 );
+
+    assertTrue( output.putRowWait( rowMeta, new Object[] { 1L, "a" }, 1, TimeUnit.SECONDS ) );
+    output.setDone();
+
+    Object[] row = input.getRowWait( 1, TimeUnit.SECONDS );
+    assertNotNull( row );
+    assertEquals( 1L, row[ 0 ] );
+
+    long end = System.currentTimeMillis() + 5000;
+    while ( !input.isDone() && System.currentTimeMillis() < end ) {
+      Thread.sleep( 10 );
+    }
+    assertTrue( input.isDone() );
+    assertFalse( input.isAttached() && input.getError() != null );
+  }
+
+  @Test
+  public void testWrongSecretRefused() throws Exception {
+    RemoteInputRowSet input = server.openInputRowSet( "guarded", SECRET, 10 );
+    assertRefused( RUN, "guarded", "guess" );
+    assertFalse( input.isAttached() );
+  }
+
+  @Test
+  public void testWrongSecretRefusedWhenSenderConnectsFirst() throws Exception {
+    // The signature is verified with the secret of the run before the connection is kept waiting for its row set
+    //
+    assertRefused( RUN, "early", "guess" );
+    RemoteInputRowSet input = server.openInputRowSet( "early", SECRET, 10 );
+    assertFalse( input.isAttached() );
+  }
+
+  private void assertRefused( String runId, String name, String secret ) {
+    long start = System.currentTimeMillis();
+    try {
+      new RemoteOutputRowSet( "localhost", server.getPort(), runId, name, secret, 10, false );
+      fail( "The connection should be refused" );
+    } catch ( HopException e ) {
+      // Expected, without retrying
+      assertTrue( System.currentTimeMillis() - start < RemoteRowSetServer.HANDSHAKE_TIMEOUT_MILLIS );
+    }
+  }
+
+  @Test
+  public void testSenderWaitsForRun() throws Exception {
+    List<Object> outputs = Collections.synchronizedList( new ArrayList<>() );
+    Thread sender = new Thread( () -> {
+      try {
+        outputs.add( new RemoteOutputRowSet( "localhost", server.getPort(), "later", "late", SECRET, 10, false ) );
+      } catch ( HopException e ) {
+        outputs.add( e );
+      }
+    } );
+    sender.start();
+
+    // Nothing is kept for a run which isn't open: the sender tries again
+    //
+    Thread.sleep( 300 );
+    assertTrue( sender.isAlive() );
+    server.openRun( "later", SECRET );
+    RemoteInputRowSet input = server.openInputRowSet( "late", SECRET, 10 );
+    sender.join( 5000 );
+
+    RemoteOutputRowSet output = (RemoteOutputRowSet) outputs.get( 0 );
+    assertTrue( output.putRowWait( rowMeta, new Object[] { 1L, "a" }, 1, TimeUnit.SECONDS ) );
+    output.setDone();
+    assertNotNull( input.getRowWait( 1, TimeUnit.SECONDS ) );
+    server.closeRun( "later" );
+  }
+
+  @Test
+  public void testPendingConnectionsLimitedPerRun() throws Exception {
+    for ( int i = 0; i < RemoteRowSetServer.MAX_PENDING_CONNECTIONS_PER_RUN; i++ ) {
+      new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "pending" + i, SECRET, 10, false );
+    }
+
+    // The next sender of the run has to wait until one of the waiting connections gets its row set
+    //
+    List<Object> outputs = Collections.synchronizedList( new ArrayList<>() );
+    Thread sender = new Thread( () -> {
+      try {
+        outputs.add( new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "one-too-many", SECRET, 10, false ) );
+      } catch ( HopException e ) {
+        outputs.add( e );
+      }
+    } );
+    sender.start();
+    Thread.sleep( 300 );
+    assertTrue( sender.isAlive() );
+
+    RemoteInputRowSet input = server.openInputRowSet( "pending0", SECRET, 10 );
+    assertTrue( input.isAttached() );
+    sender.join( 5000 );
+    assertTrue( outputs.get( 0 ) instanceof RemoteOutputRowSet );
+  }
+
+  @Test
+  public void testCloseRunDropsPendingConnections() throws Exception {
+    RemoteOutputRowSet output = new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "dropped", SECRET, 10, false );
+    server.closeRun( RUN );
+
+    try {
+      for ( long i = 0; i < 10; i++ ) {
+        assertFalse( output.putRowWait( rowMeta, new Object[] { i, "a" }, 500, TimeUnit.MILLISECONDS ) );
+      }
+      fail( "The closed connection should be reported" );
+    } catch ( IllegalStateException e ) {
+      assertNotNull( output.getError() );
+    }
+  }
+
+  @Test
+  public void testSecretRequired() throws Exception {
+    try {
+      server.openInputRowSet( "open", null, 10 );
+      fail( "A row set without a secret should be refused" );
+    } catch ( HopException e ) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testCloseUnattached() throws Exception {
+    RemoteInputRowSet input = server.openInputRowSet( "never", SECRET, 10 );
+    server.closeInputRowSet( "never" );
+
+    assertTrue( input.isDone() );
+    assertNull( input.getRowWait( 10, TimeUnit.MILLISECONDS ) );
+    assertNull( input.getError() );
+  }
+
+  @Test
+  public void testReadFromOutputRowSet() throws Exception {
+    server.openInputRowSet( "write-only", SECRET, 10 );
+    RemoteOutputRowSet output = new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "write-only", SECRET, 10, false );
+
+    assertNull( output.getRow() );
+    assertNull( output.getRowImmediate() );
+    long start = System.currentTimeMillis();
+    assertNull( output.getRowWait( 50, TimeUnit.MILLISECONDS ) );
+    assertTrue( System.currentTimeMillis() - start >= 40 );
+
+    // Once the sending side is done a reader no longer waits
+    //
+    output.setDone();
+    start = System.currentTimeMillis();
+    assertNull( output.getRowWait( 10, TimeUnit.SECONDS ) );
+    assertTrue( System.currentTimeMillis() - start < 5000 );
+  }
+
+  @Test
+  public void testLargeRowsFlushedBySize() throws Exception {
+    RemoteInputRowSet input = server.openInputRowSet( "large", SECRET, 100 );
+    RemoteOutputRowSet output = new RemoteOutputRowSet( "localhost", server.getPort(), RUN, "large", SECRET, 100, false );
+
+    // Two rows of 600KB exceed the flush size of a batch
+    //
+    char[] chars = new char[ 600 * 1024 ];
+    Arrays.fill( chars, 'x' );
+    String large = new String( chars );
+    assertTrue( output.putRowWait( rowMeta, new Object[] { 1L, large }, 1, TimeUnit.SECONDS ) );
+    assertTrue( output.putRowWait( rowMeta, new Object[] { 2L, large }, 1, TimeUnit.SECONDS ) );
+    assertEquals( 0, output.size() );
+
+    Object[] row = input.getRowWait( 5, TimeUnit.SECONDS );
+    assertNotNull( row );
+    assertEquals( large, row[ 1 ] );
+    output.setDone();
+  }
+
+  @Test
+  public void testFindServer() {
+    assertTrue( server == RemoteRowSetServer.findServer( server.getPort() ) );
+    server.stop();
+    assertNull( RemoteRowSetServer.findServer( server.getPort() ) );
+  }
+}
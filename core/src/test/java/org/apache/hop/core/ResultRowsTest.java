@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.core.xml.XmlHandler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ResultRowsTest {
+
+  private static RowMeta rowMeta;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    HopClientEnvironment.init();
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+  }
+
+  private static RowMetaAndData createRow( long id ) {
+    return new RowMetaAndData( rowMeta, id, "name " + id, new Date( id * 1000L ) );
+  }
+
+  private static void assertRow( long id, RowMetaAndData row ) throws Exception {
+    assertEquals( 3, row.size() );
+    assertEquals( Long.valueOf( id ), row.getInteger( "id" ) );
+    assertEquals( "name " + id, row.getString( "name", null ) );
+    assertEquals( new Date( id * 1000L ), row.getDate( "date", null ) );
+  }
+
+  @Test
+  public void testRowsInMemory() throws Exception {
+    ResultRows rows = new ResultRows( 0 );
+    for ( int i = 0; i < 1000; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    assertEquals( 1000, rows.size() );
+    assertEquals( 0, rows.getSpilledRows() );
+    RowMetaAndData row = createRow( 5000 );
+    rows.set( 10, row );
+    assertSame( row, rows.get( 10 ) );
+    rows.remove( 10 );
+    assertRow( 11, rows.get( 10 ) );
+  }
+
+  @Test
+  public void testRowsAreSpilled() throws Exception {
+    ResultRows rows = new ResultRows( 100 );
+    for ( int i = 0; i < 1050; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    assertEquals( 1050, rows.size() );
+    assertEquals( 1010, rows.getSpilledRows() );
+
+    int id = 0;
+    for ( RowMetaAndData row : rows ) {
+      assertRow( id++, row );
+    }
+    assertEquals( 1050, id );
+
+    // Sequential and random access
+    //
+    for ( int i = 0; i < rows.size(); i++ ) {
+      assertRow( i, rows.get( i ) );
+    }
+    assertRow( 500, rows.get( 500 ) );
+    assertRow( 3, rows.get( 3 ) );
+    assertRow( 1049, rows.get( 1049 ) );
+
+    // The rows in memory are changed in place
+    //
+    rows.remove( 1049 );
+    assertEquals( 1049, rows.size() );
+    assertEquals( 1010, rows.getSpilledRows() );
+
+    rows.clear();
+    assertEquals( 0, rows.size() );
+    assertEquals( 0, rows.getSpilledRows() );
+    assertFalse( rows.iterator().hasNext() );
+    rows.add( createRow( 7 ) );
+    assertRow( 7, rows.get( 0 ) );
+  }
+
+  @Test
+  public void testSpilledRowsCanBeChanged() throws Exception {
+    File tempDir = new File( HopVfs.TEMP_DIR );
+    Set<String> before = getSpillFiles( tempDir );
+    ResultRows rows = new ResultRows( 10 );
+    for ( int i = 0; i < 100; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    assertEquals( 99, rows.getSpilledRows() );
+    Set<String> spillFiles = getSpillFiles( tempDir );
+    spillFiles.removeAll( before );
+    assertEquals( 1, spillFiles.size() );
+
+    // Changing a spilled row brings the spilled rows back into memory and removes the file
+    //
+    assertRow( 5, rows.set( 5, createRow( 500 ) ) );
+    assertEquals( 0, rows.getSpilledRows() );
+    assertFalse( new File( tempDir, spillFiles.iterator().next() ).exists() );
+    assertRow( 500, rows.get( 5 ) );
+    assertRow( 4, rows.get( 4 ) );
+    assertRow( 99, rows.get( 99 ) );
+
+    rows.remove( 0 );
+    rows.add( 0, createRow( 0 ) );
+    assertEquals( 100, rows.size() );
+
+    // Sorting works the same way
+    //
+    rows.add( createRow( 100 ) );
+    assertEquals( 101, rows.getSpilledRows() );
+    rows.sort( ( a, b ) -> Long.compare( (Long) b.getData()[ 0 ], (Long) a.getData()[ 0 ] ) );
+    assertEquals( 101, rows.size() );
+    assertRow( 500, rows.get( 0 ) );
+    assertRow( 100, rows.get( 1 ) );
+    assertRow( 0, rows.get( 100 ) );
+
+    // Adding rows spills them again
+    //
+    rows.add( createRow( 101 ) );
+    assertEquals( 102, rows.getSpilledRows() );
+    assertRow( 101, rows.get( 101 ) );
+    assertRow( 500, rows.get( 0 ) );
+    rows.clear();
+  }
+
+  @Test
+  public void testDifferentRowMetadata() throws Exception {
+    RowMeta otherRowMeta = new RowMeta();
+    otherRowMeta.addValueMeta( new ValueMetaString( "other" ) );
+
+    ResultRows rows = new ResultRows( 10 );
+    for ( int i = 0; i < 100; i++ ) {
+      if ( i % 3 == 0 ) {
+        rows.add( new RowMetaAndData( otherRowMeta, "other " + i ) );
+      } else {
+        rows.add( createRow( i ) );
+      }
+    }
+    int i = 0;
+    for ( RowMetaAndData row : rows ) {
+      if ( i % 3 == 0 ) {
+        assertEquals( 1, row.size() );
+        assertEquals( "other " + i, row.getString( "other", null ) );
+      } else {
+        assertRow( i, row );
+      }
+      i++;
+    }
+    assertEquals( 100, i );
+  }
+
+  @Test
+  public void testRowsWhichCantBeSerializedStayInMemory() throws Exception {
+    RowMeta serializableRowMeta = new RowMeta();
+    serializableRowMeta.addValueMeta( new ValueMetaString( "value" ) {
+      @Override public int getType() {
+        return IValueMeta.TYPE_SERIALIZABLE;
+      }
+    } );
+
+    ResultRows rows = new ResultRows( 10 );
+    for ( int i = 0; i < 50; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    RowMetaAndData unserializable = new RowMetaAndData( serializableRowMeta, "value" );
+    rows.add( unserializable );
+    for ( int i = 51; i < 100; i++ ) {
+      rows.add( createRow( i ) );
+    }
+
+    // The rows after the one which can't be serialized are still spilled
+    //
+    assertEquals( 100, rows.size() );
+    assertEquals( 99, rows.getSpilledRows() );
+    assertSame( unserializable, rows.get( 50 ) );
+    assertRow( 49, rows.get( 49 ) );
+    assertRow( 51, rows.get( 51 ) );
+    assertRow( 99, rows.get( 99 ) );
+
+    int i = 0;
+    for ( RowMetaAndData row : rows ) {
+      if ( i == 50 ) {
+        assertSame( unserializable, row );
+      } else {
+        assertRow( i, row );
+      }
+      i++;
+    }
+    assertEquals( 100, i );
+  }
+
+  @Test
+  public void testTemporaryFileRemovedOnClear() throws Exception {
+    File tempDir = new File( HopVfs.TEMP_DIR );
+    Set<String> before = getSpillFiles( tempDir );
+    ResultRows rows = new ResultRows( 10 );
+    for ( int i = 0; i < 3000; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    Set<String> spillFiles = getSpillFiles( tempDir );
+    spillFiles.removeAll( before );
+    assertEquals( 1, spillFiles.size() );
+
+    // Iterators which stop early don't hold on to the file
+    //
+    Iterator<RowMetaAndData> iterator = rows.iterator();
+    assertRow( 0, iterator.next() );
+    assertRow( 1, iterator.next() );
+
+    rows.clear();
+    assertFalse( new File( tempDir, spillFiles.iterator().next() ).exists() );
+  }
+
+  private static Set<String> getSpillFiles( File dir ) {
+    String[] names = dir.list( ( parent, name ) -> name.startsWith( "hop-result-rows-" ) );
+    return names == null ? new HashSet<>() : new HashSet<>( Arrays.asList( names ) );
+  }
+
+  @Test( expected = ConcurrentModificationException.class )
+  public void testIteratorFailsOnModification() {
+    ResultRows rows = new ResultRows( 10 );
+    for ( int i = 0; i < 50; i++ ) {
+      rows.add( createRow( i ) );
+    }
+    Iterator<RowMetaAndData> iterator = rows.iterator();
+    iterator.next();
+    rows.add( createRow( 50 ) );
+    iterator.next();
+  }
+
+  @Test
+  public void testResultCloneAndXml() throws Exception {
+    Result result = new Result();
+    List<RowMetaAndData> expected = new ArrayList<>();
+    for ( int i = 0; i < 20; i++ ) {
+      expected.add( createRow( i ) );
+    }
+    result.setRows( new ResultRows( 5 ) );
+    result.getRows().addAll( expected );
+
+    Result clone = result.clone();
+    assertNotSame( result.getRows(), clone.getRows() );
+    assertEquals( 20, clone.getRows().size() );
+    for ( int i = 0; i < 20; i++ ) {
+      assertRow( i, clone.getRows().get( i ) );
+    }
+
+    Result fromXml = new Result( XmlHandler.getSubNode( XmlHandler.loadXmlString( result.getXml() ), Result.XML_TAG ) );
+    assertEquals( 20, fromXml.getRows().size() );
+    for ( int i = 0; i < 20; i++ ) {
+      assertRow( i, fromXml.getRows().get( i ) );
+    }
+  }
+}
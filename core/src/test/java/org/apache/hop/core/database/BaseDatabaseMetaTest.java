@@ -74,6 +74,7 @@ public class BaseDatabaseMetaTest {
     assertEquals( "MIN", nativeMeta.getFunctionMinimum() );
     assertEquals( "MAX", nativeMeta.getFunctionMaximum() );
     assertEquals( "COUNT", nativeMeta.getFunctionCount() );
+    assertEquals( "MOD(FOO, 4)", nativeMeta.getModuloExpression( "FOO", 4 ) );
     assertEquals( "\"", nativeMeta.getStartQuote() );
     assertEquals( "\"", nativeMeta.getEndQuote() );
     assertEquals( "FOO.BAR", nativeMeta.getSchemaTableCombination( "FOO", "BAR" ) );
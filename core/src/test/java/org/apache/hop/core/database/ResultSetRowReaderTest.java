@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResultSetRowReaderTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private DatabaseMeta databaseMeta;
+  private ResultSet resultSet;
+
+  @BeforeClass
+  public static void setUpOnce() throws HopException {
+    DatabasePluginType.getInstance().searchPlugins();
+    HopClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setIDatabase( new ConcreteBaseDatabaseMeta() );
+    resultSet = mock( ResultSet.class );
+  }
+
+  @Test
+  public void testTypedValuesAreReadAtOffset() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "string" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "bignumber" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "boolean" ) );
+
+    when( resultSet.getString( 1 ) ).thenReturn( "hop" );
+    when( resultSet.getLong( 2 ) ).thenReturn( 42L );
+    when( resultSet.getDouble( 3 ) ).thenReturn( 1.5 );
+    when( resultSet.getBigDecimal( 4 ) ).thenReturn( new BigDecimal( "123.45" ) );
+    when( resultSet.getBoolean( 5 ) ).thenReturn( true );
+
+    ResultSetRowReader reader = new ResultSetRowReader( databaseMeta, rowMeta );
+    Object[] row = new Object[] { "input", null, null, null, null, null, null };
+    reader.readValues( resultSet, row, 1 );
+
+    assertArrayEquals( new Object[] { "input", "hop", 42L, 1.5, new BigDecimal( "123.45" ), true, null }, row );
+    assertEquals( 5, reader.size() );
+    assertSame( rowMeta, reader.getRowMeta() );
+    verify( resultSet, never() ).getObject( anyInt() );
+  }
+
+  @Test
+  public void testNullValues() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+
+    when( resultSet.getLong( 1 ) ).thenReturn( 0L );
+    when( resultSet.getDouble( 2 ) ).thenReturn( 0.0 );
+    when( resultSet.wasNull() ).thenReturn( true );
+
+    Object[] row = new Object[ 3 ];
+    new ResultSetRowReader( databaseMeta, rowMeta ).readValues( resultSet, row, 0 );
+
+    assertNull( row[ 0 ] );
+    assertNull( row[ 1 ] );
+    assertNull( row[ 2 ] );
+  }
+
+  @Test
+  public void testOverriddenValueMetaFallsBack() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "timestamp" ) );
+
+    Timestamp timestamp = new Timestamp( 1234567890123L );
+    when( resultSet.getTimestamp( 1 ) ).thenReturn( timestamp );
+
+    DatabaseMeta spyMeta = spy( databaseMeta );
+    Object[] row = new Object[ 1 ];
+    new ResultSetRowReader( spyMeta, rowMeta ).readValues( resultSet, row, 0 );
+
+    assertEquals( timestamp, row[ 0 ] );
+    verify( spyMeta, times( 1 ) ).getValueFromResultSet( any( ResultSet.class ), any( IValueMeta.class ), anyInt() );
+  }
+
+  @Test
+  public void testOverriddenDatabaseFallsBack() throws Exception {
+    databaseMeta.setIDatabase( new ConcreteBaseDatabaseMeta() {
+      @Override
+      public Object getValueFromResultSet( ResultSet resultSet, IValueMeta valueMeta, int index ) {
+        return "dialect";
+      }
+    } );
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "string" ) );
+
+    Object[] row = new Object[ 1 ];
+    new ResultSetRowReader( databaseMeta, rowMeta ).readValues( resultSet, row, 0 );
+
+    assertEquals( "dialect", row[ 0 ] );
+    verify( resultSet, never() ).getString( anyInt() );
+  }
+
+  @Test
+  public void testSqlExceptionIsWrapped() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "string" ) );
+    when( resultSet.getString( 1 ) ).thenThrow( new SQLException( "broken" ) );
+
+    try {
+      new ResultSetRowReader( databaseMeta, rowMeta ).readValues( resultSet, new Object[ 1 ], 0 );
+      fail( "Expected a HopDatabaseException" );
+    } catch ( HopDatabaseException e ) {
+      assertEquals( "broken", e.getCause().getMessage() );
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncLoggingEventListenerTest {
+
+  @Test
+  public void testEventsArePassedInOrder() throws Exception {
+    List<HopLoggingEvent> received = Collections.synchronizedList( new ArrayList<>() );
+    List<Integer> batchSizes = Collections.synchronizedList( new ArrayList<>() );
+    IHopLoggingEventListener listener = new IHopLoggingEventListener() {
+      @Override public void eventAdded( HopLoggingEvent event ) {
+        received.add( event );
+      }
+
+      @Override public void eventsAdded( List<HopLoggingEvent> events ) {
+        batchSizes.add( events.size() );
+        received.addAll( events );
+      }
+    };
+
+    AsyncLoggingEventListener asyncListener = new AsyncLoggingEventListener( listener );
+    List<HopLoggingEvent> events = new ArrayList<>();
+    for ( int i = 0; i < 5000; i++ ) {
+      HopLoggingEvent event = new HopLoggingEvent( new LogMessage( "line " + i, LogLevel.BASIC ), i, LogLevel.BASIC );
+      events.add( event );
+      asyncListener.eventAdded( event );
+    }
+    asyncListener.flush();
+
+    Assert.assertEquals( events, received );
+    Assert.assertTrue( batchSizes.stream().allMatch( size -> size <= 1000 ) );
+
+    asyncListener.close();
+  }
+
+  @Test
+  public void testSlowListenerDoesNotBlockLogging() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    List<HopLoggingEvent> received = Collections.synchronizedList( new ArrayList<>() );
+    AsyncLoggingEventListener asyncListener = new AsyncLoggingEventListener( event -> {
+      try {
+        release.await( 10, TimeUnit.SECONDS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      received.add( event );
+    }, 100 );
+
+    long start = System.currentTimeMillis();
+    for ( int i = 0; i < 50; i++ ) {
+      asyncListener.eventAdded( new HopLoggingEvent( new LogMessage( "line " + i, LogLevel.BASIC ), i, LogLevel.BASIC ) );
+    }
+    Assert.assertTrue( System.currentTimeMillis() - start < 5000 );
+    Assert.assertTrue( received.isEmpty() );
+
+    // Closing handles everything which is still waiting
+    //
+    release.countDown();
+    asyncListener.close();
+    Assert.assertEquals( 50, received.size() );
+
+    // After closing the events are passed on right away
+    //
+    asyncListener.eventAdded( new HopLoggingEvent( new LogMessage( "late", LogLevel.BASIC ), 50, LogLevel.BASIC ) );
+    Assert.assertEquals( 51, received.size() );
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferLineRingTest {
+
+  @Test
+  public void testPublishedOutOfOrder() {
+    BufferLineRing ring = new BufferLineRing( 10 );
+    ring.put( createLine( 2 ), 0 );
+    Assert.assertFalse( ring.isPublished( 1 ) );
+    Assert.assertTrue( ring.isPublished( 2 ) );
+    Assert.assertNull( ring.get( 1 ) );
+
+    ring.put( createLine( 1 ), 0 );
+    Assert.assertTrue( ring.isPublished( 1 ) );
+    Assert.assertEquals( 2, ring.size() );
+
+    // A skipped number is published without a line
+    //
+    ring.skip( 3 );
+    Assert.assertTrue( ring.isPublished( 3 ) );
+    Assert.assertNull( ring.get( 3 ) );
+    Assert.assertEquals( 2, ring.size() );
+
+    // A removed line stays published
+    //
+    ring.remove( ring.get( 1 ) );
+    Assert.assertTrue( ring.isPublished( 1 ) );
+    Assert.assertEquals( 1, ring.size() );
+  }
+
+  @Test
+  public void testChannelChain() {
+    BufferLineRing ring = new BufferLineRing( 4 );
+    ring.put( createLine( 1 ), 0 );
+    ring.put( createLine( 2 ), 0 );
+    ring.put( createLine( 3 ), 1 );
+    Assert.assertEquals( 1, ring.getPreviousInChannel( 3 ) );
+    Assert.assertEquals( 0, ring.getPreviousInChannel( 2 ) );
+
+    // Once a later line takes the slot, the chain of the older one is gone
+    //
+    ring.put( createLine( 7 ), 3 );
+    Assert.assertEquals( 0, ring.getPreviousInChannel( 3 ) );
+    Assert.assertEquals( 3, ring.getPreviousInChannel( 7 ) );
+  }
+
+  @Test
+  public void testEvictAndLapped() {
+    BufferLineRing ring = new BufferLineRing( 3 );
+    for ( int nr = 1; nr <= 5; nr++ ) {
+      ring.put( createLine( nr ), 0 );
+    }
+    Assert.assertEquals( 3, ring.size() );
+    Assert.assertNull( ring.get( 2 ) );
+    Assert.assertNotNull( ring.get( 3 ) );
+
+    // A line which was lapped while it was being added doesn't replace the later line
+    //
+    ring.put( createLine( 8 ), 0 );
+    ring.put( createLine( 4 ), 0 );
+    Assert.assertNotNull( ring.get( 8 ) );
+  }
+
+  @Test
+  public void testRelease() {
+    BufferLineRing ring = new BufferLineRing( 4096 );
+    for ( int nr = 1; nr <= 2048; nr++ ) {
+      ring.put( createLine( nr ), 0 );
+    }
+    ring.clear();
+    Assert.assertEquals( 0, ring.size() );
+    ring.release( 1, 2049, 2048 );
+    Assert.assertFalse( ring.isPublished( 1500 ) );
+    Assert.assertTrue( ring.isPublished( 1000 ) );
+
+    ring.put( createLine( 2049 ), 0 );
+    Assert.assertEquals( 1, ring.size() );
+  }
+
+  private static BufferLine createLine( int nr ) {
+    return new BufferLine( new HopLoggingEvent( new LogMessage( "line " + nr, LogLevel.BASIC ), nr, LogLevel.BASIC ),
+      nr );
+  }
+}
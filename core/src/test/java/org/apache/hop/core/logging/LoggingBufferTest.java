@@ -22,7 +22,10 @@ import org.apache.hop.core.Const;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -172,4 +175,134 @@ public class LoggingBufferTest {
     Assert.assertEquals( 10, loggingBuffer.size() );
   }
 
+  @Test
+  public void testIncrementalRead() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 10 );
+    for ( int i = 0; i < 5; i++ ) {
+      loggingBuffer.addLogggingEvent( createEvent( "line " + i, i ) );
+    }
+    int last = loggingBuffer.getLastBufferLineNr();
+    Assert.assertEquals( 5, last );
+    Assert.assertEquals( 5, loggingBuffer.getLogBufferFromTo( (List<String>) null, true, 0, last ).size() );
+
+    for ( int i = 5; i < 8; i++ ) {
+      loggingBuffer.addLogggingEvent( createEvent( "line " + i, i ) );
+    }
+    List<HopLoggingEvent> events =
+      loggingBuffer.getLogBufferFromTo( (List<String>) null, true, last, loggingBuffer.getLastBufferLineNr() );
+    Assert.assertEquals( 3, events.size() );
+    Assert.assertEquals( 5L, events.get( 0 ).getTimeStamp() );
+
+    // The numbers keep going up, even when the lines are cleared
+    //
+    loggingBuffer.clear();
+    Assert.assertEquals( 0, loggingBuffer.size() );
+    Assert.assertEquals( 8, loggingBuffer.getLastBufferLineNr() );
+  }
+
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    final int nrThreads = 8;
+    final int nrEvents = 2000;
+    final LoggingBuffer loggingBuffer = new LoggingBuffer( nrThreads * nrEvents );
+    List<Thread> threads = new ArrayList<>();
+    for ( int t = 0; t < nrThreads; t++ ) {
+      threads.add( new Thread( () -> {
+        for ( int i = 0; i < nrEvents; i++ ) {
+          loggingBuffer.addLogggingEvent( createEvent( "line " + i, i ) );
+        }
+      } ) );
+    }
+    threads.forEach( Thread::start );
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+
+    Assert.assertEquals( nrThreads * nrEvents, loggingBuffer.getLastBufferLineNr() );
+    Assert.assertEquals( nrThreads * nrEvents, loggingBuffer.size() );
+
+    // No line numbers are skipped
+    //
+    int expectedNr = 1;
+    Iterator<BufferLine> it = loggingBuffer.getBufferIterator();
+    while ( it.hasNext() ) {
+      Assert.assertEquals( expectedNr++, it.next().getNr() );
+    }
+  }
+
+  @Test
+  public void testSetMaxNrLines() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    for ( int i = 0; i < 50; i++ ) {
+      loggingBuffer.addLogggingEvent( createEvent( "line " + i, i ) );
+    }
+    loggingBuffer.setMaxNrLines( 20 );
+    Assert.assertEquals( 20, loggingBuffer.getMaxNrLines() );
+    Assert.assertEquals( 20, loggingBuffer.size() );
+
+    loggingBuffer.addLogggingEvent( createEvent( "line 50", 50 ) );
+    Assert.assertEquals( 20, loggingBuffer.size() );
+    Assert.assertEquals( 31L, loggingBuffer.getBufferIterator().next().getEvent().getTimeStamp() );
+  }
+
+  @Test
+  public void testChannelLines() throws Exception {
+    final LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    List<Thread> threads = new ArrayList<>();
+    for ( int t = 0; t < 4; t++ ) {
+      threads.add( new Thread( () -> {
+        for ( int i = 0; i < 1000; i++ ) {
+          loggingBuffer.addLogggingEvent( createEvent( "line " + i, "channel-" + ( i % 10 ), i ) );
+        }
+      } ) );
+    }
+    threads.forEach( Thread::start );
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+    Assert.assertEquals( 4000, loggingBuffer.size() );
+
+    List<HopLoggingEvent> events = loggingBuffer.getLogBufferFromTo( Collections.singletonList( "channel-3" ), false, 0,
+      loggingBuffer.getLastBufferLineNr() );
+    Assert.assertEquals( 400, events.size() );
+    for ( HopLoggingEvent event : events ) {
+      Assert.assertEquals( "channel-3", ( (LogMessage) event.getMessage() ).getLogChannelId() );
+    }
+
+    loggingBuffer.removeChannelFromBuffer( "channel-3" );
+    Assert.assertEquals( 3600, loggingBuffer.size() );
+    Assert.assertTrue( loggingBuffer.getLogBufferFromTo( Collections.singletonList( "channel-3" ), false, 0,
+      loggingBuffer.getLastBufferLineNr() ).isEmpty() );
+
+    // The lines of a channel logged after it was removed are chained again
+    //
+    loggingBuffer.addLogggingEvent( createEvent( "again", "channel-3", 1000 ) );
+    Assert.assertEquals( 1, loggingBuffer.getLogBufferFromTo( Collections.singletonList( "channel-3" ), false, 0,
+      loggingBuffer.getLastBufferLineNr() ).size() );
+  }
+
+  @Test
+  public void testRemoveBufferLinesBeforeUnlimited() {
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 0 );
+    for ( int i = 0; i < 5000; i++ ) {
+      loggingBuffer.addLogggingEvent( createEvent( "line " + i, "channel", i ) );
+    }
+    loggingBuffer.removeBufferLinesBefore( 4990 );
+    Assert.assertEquals( 10, loggingBuffer.size() );
+    Assert.assertEquals( 4990L, loggingBuffer.getBufferIterator().next().getEvent().getTimeStamp() );
+    Assert.assertEquals( 10, loggingBuffer.getLogBufferFromTo( Collections.singletonList( "channel" ), false, 0,
+      loggingBuffer.getLastBufferLineNr() ).size() );
+
+    loggingBuffer.addLogggingEvent( createEvent( "line 5000", "channel", 5000 ) );
+    Assert.assertEquals( 5001, loggingBuffer.getLastBufferLineNr() );
+    Assert.assertEquals( 11, loggingBuffer.size() );
+  }
+
+  private static HopLoggingEvent createEvent( String text, String logChannelId, long timeStamp ) {
+    return new HopLoggingEvent( new LogMessage( text, logChannelId, LogLevel.BASIC ), timeStamp, LogLevel.BASIC );
+  }
+
+  private static HopLoggingEvent createEvent( String text, long timeStamp ) {
+    return new HopLoggingEvent( new LogMessage( text, LogLevel.BASIC ), timeStamp, LogLevel.BASIC );
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registers millions of log channels the way a Hop server running many short sub-pipelines does: every pipeline has a
+ * number of transforms, half of the pipelines are removed from the registry when they finish and the rest is left for
+ * the registry to purge.
+ * <p>
+ * This is not a unit test: its name doesn't match the test classes surefire runs. LoggingRegistryTest covers the
+ * behavior of the registry. Run the benchmark with:
+ * <pre>java -cp ... org.apache.hop.core.logging.LoggingRegistryBenchmark [pipelines] [threads]</pre>
+ */
+public class LoggingRegistryBenchmark {
+
+  private static final int NR_TRANSFORMS = 5;
+
+  public static void main( String[] args ) throws Exception {
+    int nrPipelines = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 500000;
+    int nrThreads = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : Runtime.getRuntime().availableProcessors();
+
+    LoggingRegistry registry = LoggingRegistry.getInstance();
+
+    // Warm up
+    //
+    run( registry, 20000, nrThreads );
+    registry.reset();
+
+    long start = System.nanoTime();
+    long nrChannels = run( registry, nrPipelines, nrThreads );
+    double seconds = ( System.nanoTime() - start ) / 1e9;
+
+    System.out.println( String.format( "Registered %,d log channels with %d threads in %.2f s: %,.0f channels/s",
+      nrChannels, nrThreads, seconds, nrChannels / seconds ) );
+    System.out.println( String.format( "Registry size at the end: %,d", registry.getMap().size() ) );
+  }
+
+  private static long run( LoggingRegistry registry, int nrPipelines, int nrThreads ) throws InterruptedException {
+    AtomicLong nrChannels = new AtomicLong();
+    List<Thread> threads = new ArrayList<>();
+    for ( int t = 0; t < nrThreads; t++ ) {
+      final int threadNr = t;
+      threads.add( new Thread( () -> {
+        for ( int p = threadNr; p < nrPipelines; p += nrThreads ) {
+          LoggingObject pipeline =
+            new LoggingObject( new SimpleLoggingObject( "pipeline " + p, LoggingObjectType.PIPELINE, null ) );
+          pipeline.setLogChannelId( registry.registerLoggingSource( pipeline ) );
+          for ( int i = 0; i < NR_TRANSFORMS; i++ ) {
+            registry.registerLoggingSource( new SimpleLoggingObject( "transform " + i, LoggingObjectType.TRANSFORM,
+              pipeline ) );
+          }
+          registry.getLogChannelChildren( pipeline.getLogChannelId() );
+          if ( p % 2 == 0 ) {
+            registry.removeIncludingChildren( pipeline.getLogChannelId() );
+          }
+          nrChannels.addAndGet( 1 + NR_TRANSFORMS );
+        }
+      } ) );
+    }
+    threads.forEach( Thread::start );
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+    return nrChannels.get();
+  }
+}
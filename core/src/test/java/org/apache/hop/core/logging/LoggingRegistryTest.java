@@ -21,9 +21,17 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith( PowerMockRunner.class )
 public class LoggingRegistryTest {
@@ -85,4 +93,108 @@ public class LoggingRegistryTest {
 
     assertNull( loggingRegistry.getLogChannelFileWriterBuffer( id ) );
   }
+
+  @Test
+  public void testChildrenRemovedWithParent() {
+    LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
+
+    LoggingObject parent = new LoggingObject( new SimpleLoggingObject( "parent-pipeline", LoggingObjectType.PIPELINE, null ) );
+    String parentId = loggingRegistry.registerLoggingSource( parent );
+    parent.setLogChannelId( parentId );
+    for ( int i = 0; i < 3; i++ ) {
+      loggingRegistry.registerLoggingSource( new SimpleLoggingObject( "transform " + i, LoggingObjectType.TRANSFORM, parent ) );
+    }
+
+    List<String> children = loggingRegistry.getLogChannelChildren( parentId );
+    assertEquals( 4, children.size() );
+    assertEquals( parentId, children.get( 3 ) );
+
+    loggingRegistry.removeIncludingChildren( parentId );
+    for ( String child : children ) {
+      assertNull( loggingRegistry.getLoggingObject( child ) );
+    }
+    assertFalse( loggingRegistry.dumpChildren().containsKey( parentId ) );
+  }
+
+  @Test
+  public void testOldestRegistrationsArePurged() {
+    LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
+    loggingRegistry.reset();
+
+    String firstId = loggingRegistry.registerLoggingSource( new SimpleLoggingObject( "first", LoggingObjectType.PIPELINE, null ) );
+    String lastId = null;
+    for ( int i = 0; i < 20000; i++ ) {
+      lastId = loggingRegistry.registerLoggingSource( new SimpleLoggingObject( "pipeline " + i, LoggingObjectType.PIPELINE, null ) );
+    }
+
+    assertTrue( loggingRegistry.getMap().size() <= 10000 );
+    assertNull( loggingRegistry.getLoggingObject( firstId ) );
+    assertNotNull( loggingRegistry.getLoggingObject( lastId ) );
+
+    // An existing registration is found again
+    //
+    assertEquals( lastId,
+      loggingRegistry.registerLoggingSource( new SimpleLoggingObject( "pipeline 19999", LoggingObjectType.PIPELINE, null ) ) );
+
+    loggingRegistry.reset();
+  }
+
+  @Test
+  public void testConcurrentRegistrations() throws Exception {
+    final LoggingRegistry loggingRegistry = LoggingRegistry.getInstance();
+    loggingRegistry.reset();
+
+    // Every thread registers its own pipelines and the transforms of a shared pipeline
+    //
+    final LoggingObject shared = new LoggingObject( new SimpleLoggingObject( "shared", LoggingObjectType.PIPELINE, null ) );
+    shared.setLogChannelId( loggingRegistry.registerLoggingSource( shared ) );
+    final List<String> errors = Collections.synchronizedList( new ArrayList<>() );
+    final Set<String> sharedIds = ConcurrentHashMap.newKeySet();
+    List<Thread> threads = new ArrayList<>();
+    for ( int t = 0; t < 4; t++ ) {
+      final int threadNr = t;
+      threads.add( new Thread( () -> {
+        for ( int p = 0; p < 200; p++ ) {
+          LoggingObject pipeline = new LoggingObject(
+            new SimpleLoggingObject( "pipeline " + threadNr + "/" + p, LoggingObjectType.PIPELINE, null ) );
+          pipeline.setLogChannelId( loggingRegistry.registerLoggingSource( pipeline ) );
+          for ( int i = 0; i < 5; i++ ) {
+            loggingRegistry.registerLoggingSource( new SimpleLoggingObject( "transform " + i, LoggingObjectType.TRANSFORM, pipeline ) );
+          }
+          sharedIds.add( loggingRegistry.registerLoggingSource(
+            new SimpleLoggingObject( "transform " + ( p % 5 ), LoggingObjectType.TRANSFORM, shared ) ) );
+
+          List<String> children = loggingRegistry.getLogChannelChildren( pipeline.getLogChannelId() );
+          if ( children.size() != 6 ) {
+            errors.add( "Pipeline " + threadNr + "/" + p + " has " + children.size() + " log channels" );
+          }
+          if ( p % 2 == 0 ) {
+            loggingRegistry.removeIncludingChildren( pipeline.getLogChannelId() );
+            for ( String child : children ) {
+              if ( loggingRegistry.getLoggingObject( child ) != null ) {
+                errors.add( "Log channel " + child + " wasn't removed" );
+              }
+            }
+          }
+        }
+      } ) );
+    }
+    threads.forEach( Thread::start );
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+
+    assertEquals( Collections.emptyList(), errors );
+
+    // The same transform registered by several threads gets one log channel
+    //
+    assertEquals( 5, sharedIds.size() );
+    assertEquals( 6, loggingRegistry.getLogChannelChildren( shared.getLogChannelId() ).size() );
+
+    // The pipelines which weren't removed are left with their transforms
+    //
+    assertEquals( 1 + 5 + 4 * 100 * 6, loggingRegistry.getMap().size() );
+
+    loggingRegistry.reset();
+  }
 }
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncCallQueueTest {
+
+  @Test
+  public void testOrderedOutput() throws Exception {
+    AsyncCallQueue<Integer> queue = new AsyncCallQueue<>( "test", 4, true, 0, 0L, null );
+    List<Integer> results = new ArrayList<>();
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    try {
+      for ( int i = 0; i < 20; i++ ) {
+        while ( queue.isFull() ) {
+          results.add( queue.take().getResult() );
+        }
+        int nr = i;
+        queue.submit( new Object[] { nr }, "localhost", lastAttempt -> {
+          maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+          // Make the early calls the slow ones
+          Thread.sleep( 20 - nr );
+          inFlight.decrementAndGet();
+          return nr;
+        } );
+        for ( AsyncCallQueue.Completed<Integer> completed : queue.poll() ) {
+          results.add( completed.getResult() );
+        }
+      }
+      while ( !queue.isEmpty() ) {
+        results.add( queue.take().getResult() );
+      }
+    } finally {
+      queue.shutdown();
+    }
+    assertEquals( 20, results.size() );
+    for ( int i = 0; i < 20; i++ ) {
+      assertEquals( Integer.valueOf( i ), results.get( i ) );
+    }
+    assertTrue( maxInFlight.get() <= 4 );
+    assertTrue( maxInFlight.get() > 1 );
+  }
+
+  @Test
+  public void testUnorderedOutput() throws Exception {
+    AsyncCallQueue<Integer> queue = new AsyncCallQueue<>( "test", 3, false, 0, 0L, null );
+    Set<Integer> results = new HashSet<>();
+    try {
+      for ( int i = 0; i < 3; i++ ) {
+        int nr = i;
+        queue.submit( new Object[] { nr }, null, lastAttempt -> {
+          Thread.sleep( nr == 0 ? 200 : 0 );
+          return nr;
+        } );
+      }
+      assertTrue( queue.isFull() );
+      // The first call is the slowest one, it comes last
+      AsyncCallQueue.Completed<Integer> first = queue.take();
+      assertFalse( Integer.valueOf( 0 ).equals( first.getResult() ) );
+      results.add( first.getResult() );
+      while ( !queue.isEmpty() ) {
+        results.add( queue.take().getResult() );
+      }
+    } finally {
+      queue.shutdown();
+    }
+    assertEquals( 3, results.size() );
+  }
+
+  @Test
+  public void testRetries() throws Exception {
+    AsyncCallQueue<String> queue = new AsyncCallQueue<>( "test", 2, true, 2, 1L, null );
+    AtomicInteger attempts = new AtomicInteger();
+    AtomicInteger failures = new AtomicInteger();
+    try {
+      queue.submit( new Object[] { "retry" }, null, lastAttempt -> {
+        if ( attempts.incrementAndGet() < 3 ) {
+          throw new AsyncCallQueue.RetryException( "Overloaded" );
+        }
+        return "ok";
+      } );
+      queue.submit( new Object[] { "fail" }, null, lastAttempt -> {
+        failures.incrementAndGet();
+        throw new IllegalStateException( "Not retried" );
+      } );
+
+      AsyncCallQueue.Completed<String> completed = queue.take();
+      assertEquals( "ok", completed.getResult() );
+      assertNull( completed.getException() );
+      assertEquals( 3, attempts.get() );
+
+      completed = queue.take();
+      assertNull( completed.getResult() );
+      assertEquals( "fail", completed.getRow()[ 0 ] );
+      assertTrue( completed.getException() instanceof IllegalStateException );
+      assertEquals( 1, failures.get() );
+    } finally {
+      queue.shutdown();
+    }
+  }
+
+  @Test
+  public void testIsRetryable() {
+    assertTrue( AsyncCallQueue.isRetryable( new IOException( "Connection reset" ), true ) );
+    assertFalse( AsyncCallQueue.isRetryable( new IOException( "Connection reset" ), false ) );
+    assertTrue( AsyncCallQueue.isRetryable( new ConnectException( "Connection refused" ), false ) );
+    assertTrue( AsyncCallQueue.isRetryable( new Exception( new AsyncCallQueue.RetryException( "503" ) ), false ) );
+    assertFalse( AsyncCallQueue.isRetryable( new Exception( "Bad request" ), true ) );
+  }
+
+  @Test
+  public void testNonIdempotentNotRetried() throws Exception {
+    AsyncCallQueue<String> queue = new AsyncCallQueue<>( "test", 2, true, 2, 1L, null );
+    AtomicInteger posts = new AtomicInteger();
+    AtomicInteger gets = new AtomicInteger();
+    try {
+      queue.submit( new Object[] { "post" }, null, false, lastAttempt -> {
+        posts.incrementAndGet();
+        throw new IOException( "Connection reset" );
+      } );
+      queue.submit( new Object[] { "get" }, null, true, lastAttempt -> {
+        if ( gets.incrementAndGet() < 3 ) {
+          throw new IOException( "Connection reset" );
+        }
+        return "ok";
+      } );
+
+      AsyncCallQueue.Completed<String> completed = queue.take();
+      assertTrue( completed.getException() instanceof IOException );
+      assertEquals( 1, posts.get() );
+
+      completed = queue.take();
+      assertEquals( "ok", completed.getResult() );
+      assertEquals( 3, gets.get() );
+    } finally {
+      queue.shutdown();
+    }
+  }
+
+  @Test
+  public void testRateLimiter() throws Exception {
+    HostRateLimiter limiter = new HostRateLimiter( 50 );
+    long start = System.nanoTime();
+    for ( int i = 0; i < 6; i++ ) {
+      limiter.acquire( "slow.example.com" );
+    }
+    // 5 intervals of 20ms
+    assertTrue( System.nanoTime() - start >= 90_000_000L );
+
+    start = System.nanoTime();
+    limiter.acquire( "other.example.com" );
+    assertTrue( System.nanoTime() - start < 20_000_000L );
+
+    assertEquals( "example.com", HostRateLimiter.getHost( "https://example.com:8443/api?x=1" ) );
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BloomFilterTest {
+
+  @Test
+  public void testNoFalseNegatives() {
+    BloomFilter filter = new BloomFilter( 10000, 0.01 );
+    for ( int i = 0; i < 10000; i++ ) {
+      filter.add( Integer.valueOf( i * 7 ).hashCode() );
+    }
+    for ( int i = 0; i < 10000; i++ ) {
+      assertTrue( filter.mightContain( Integer.valueOf( i * 7 ).hashCode() ) );
+    }
+  }
+
+  @Test
+  public void testFalsePositiveRate() {
+    BloomFilter filter = new BloomFilter( 10000, 0.01 );
+    for ( int i = 0; i < 10000; i++ ) {
+      filter.add( ( "key" + i ).hashCode() );
+    }
+    int falsePositives = 0;
+    for ( int i = 0; i < 100000; i++ ) {
+      if ( filter.mightContain( ( "other" + i ).hashCode() ) ) {
+        falsePositives++;
+      }
+    }
+    // Expect about 1%, allow for some variation
+    assertTrue( "False positives: " + falsePositives, falsePositives < 2000 );
+  }
+
+  @Test
+  public void testEmptyFilter() {
+    BloomFilter filter = new BloomFilter( 0, 0.01 );
+    assertTrue( filter.getNrBits() >= 64 );
+    assertFalse( filter.mightContain( 42 ) );
+    filter.add( 42 );
+    assertTrue( filter.mightContain( 42 ) );
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.core.util.ExecutorUtil;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An output stream which cuts the data in blocks and compresses these blocks in parallel, like pigz does.
+ * <p>
+ * Every block is compressed into a self-contained unit of the compression format: a gzip member, an LZ4 or a
+ * Zstandard frame. The compressed blocks are written in order so that the result is a concatenation of these units
+ * which the regular decompressors read as a single stream. The number of blocks in flight is limited to the number of
+ * threads to keep the memory use in check.
+ */
+public class BlockCompressionOutputStream extends OutputStream {
+
+  /**
+   * The default size of the uncompressed blocks
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  /**
+   * Compresses a block of data into a self-contained unit of the compression format
+   */
+  @FunctionalInterface
+  public interface IBlockCompressor {
+    /**
+     * @param data   the buffer with the data to compress
+     * @param length the number of bytes in the buffer to compress
+     * @return the compressed block
+     * @throws IOException in case the block can't be compressed
+     */
+    byte[] compress( byte[] data, int length ) throws IOException;
+  }
+
+  private final OutputStream out;
+  private final IBlockCompressor compressor;
+  private final int blockSize;
+  private final int threads;
+  private final Deque<Future<byte[]>> pending;
+
+  private byte[] buffer;
+  private int count;
+  private boolean closed;
+
+  /**
+   * @param out        the stream to write the compressed blocks to
+   * @param compressor compresses a single block
+   * @param blockSize  the size of the uncompressed blocks
+   * @param threads    the maximum number of blocks compressed at the same time
+   */
+  public BlockCompressionOutputStream( OutputStream out, IBlockCompressor compressor, int blockSize, int threads ) {
+    this.out = out;
+    this.compressor = compressor;
+    this.blockSize = blockSize;
+    this.threads = Math.max( 1, threads );
+    this.pending = new ArrayDeque<>();
+    this.buffer = new byte[ blockSize ];
+  }
+
+  /**
+   * @return the number of threads to compress with as set in variable {@link Const#HOP_COMPRESSION_THREADS}
+   */
+  public static int getCompressionThreads() {
+    int threads = Const.toInt( EnvUtil.getSystemProperty( Const.HOP_COMPRESSION_THREADS ), 1 );
+    if ( threads <= 0 ) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    return threads;
+  }
+
+  @Override
+  public void write( int b ) throws IOException {
+    ensureOpen();
+    buffer[ count++ ] = (byte) b;
+    if ( count == blockSize ) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write( byte[] b, int off, int len ) throws IOException {
+    ensureOpen();
+    while ( len > 0 ) {
+      int size = Math.min( len, blockSize - count );
+      System.arraycopy( b, off, buffer, count, size );
+      count += size;
+      off += size;
+      len -= size;
+      if ( count == blockSize ) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Compresses what was written so far and writes all the compressed blocks. This ends the current block so flushing
+   * very often makes the compression less efficient.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if ( count > 0 ) {
+      submitBlock();
+    }
+    while ( !pending.isEmpty() ) {
+      writeBlock( pending.poll() );
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      closed = true;
+      for ( Future<byte[]> future : pending ) {
+        future.cancel( true );
+      }
+      pending.clear();
+      buffer = null;
+      out.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final byte[] block = buffer;
+    final int length = count;
+    pending.add( ExecutorUtil.getExecutor().submit( () -> compressor.compress( block, length ) ) );
+    buffer = new byte[ blockSize ];
+    count = 0;
+
+    // Keep a block in every thread while this one fills the next
+    //
+    while ( pending.size() > threads ) {
+      writeBlock( pending.poll() );
+    }
+  }
+
+  private void writeBlock( Future<byte[]> future ) throws IOException {
+    try {
+      out.write( future.get() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while waiting for a block to be compressed" );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof IOException ) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException( "Unable to compress block", e.getCause() );
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+  }
+}
@@ -17,9 +17,11 @@
 
 package org.apache.hop.core.compress.gzip;
 
+import org.apache.hop.core.compress.BlockCompressionOutputStream;
 import org.apache.hop.core.compress.CompressionOutputStream;
 import org.apache.hop.core.compress.ICompressionProvider;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
@@ -28,8 +30,20 @@ import java.util.zip.ZipOutputStream;
 public class GzipCompressionOutputStream extends CompressionOutputStream {
 
   public GzipCompressionOutputStream( OutputStream out, ICompressionProvider provider ) throws IOException {
-    super( getDelegate( out ), provider );
+    super( createDelegate( out ), provider );
+  }
 
+  /**
+   * Compresses in parallel if variable HOP_COMPRESSION_THREADS asks for it. The result is a series of gzip members
+   * which gzip and GZIPInputStream read as one.
+   */
+  private static OutputStream createDelegate( OutputStream out ) throws IOException {
+    int threads = BlockCompressionOutputStream.getCompressionThreads();
+    if ( threads > 1 && !( out instanceof GZIPOutputStream ) ) {
+      return new BlockCompressionOutputStream( out, GzipCompressionOutputStream::compressBlock,
+        BlockCompressionOutputStream.DEFAULT_BLOCK_SIZE, threads );
+    }
+    return getDelegate( out );
   }
 
   protected static GZIPOutputStream getDelegate( OutputStream out ) throws IOException {
@@ -42,9 +56,19 @@ public class GzipCompressionOutputStream extends CompressionOutputStream {
     return delegate;
   }
 
+  /**
+   * @return the block compressed as a complete gzip member
+   */
+  public static byte[] compressBlock( byte[] data, int length ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream( length / 2 + 64 );
+    try ( GZIPOutputStream gzip = new GZIPOutputStream( bytes, 65536 ) ) {
+      gzip.write( data, 0, length );
+    }
+    return bytes.toByteArray();
+  }
+
   @Override
   public void close() throws IOException {
-    GZIPOutputStream zos = (GZIPOutputStream) delegate;
-    zos.close();
+    delegate.close();
   }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.lz4;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.hop.core.compress.CompressionInputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class Lz4CompressionInputStream extends CompressionInputStream {
+
+  public Lz4CompressionInputStream( InputStream in, ICompressionProvider provider ) throws IOException {
+    super( getDelegate( in ), provider );
+  }
+
+  /**
+   * Reads all the concatenated frames, as written by a parallel compression
+   */
+  protected static FramedLZ4CompressorInputStream getDelegate( InputStream in ) throws IOException {
+    FramedLZ4CompressorInputStream delegate;
+    if ( in instanceof FramedLZ4CompressorInputStream ) {
+      delegate = (FramedLZ4CompressorInputStream) in;
+    } else {
+      delegate = new FramedLZ4CompressorInputStream( in, true );
+    }
+    return delegate;
+  }
+}
@@ -0,0 +1,281 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.lz4;
+
+import org.apache.commons.compress.compressors.lz4.XXHash32;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes the LZ4 frame format with independent blocks of at most 1MB and no checksums.
+ * <p>
+ * The blocks are compressed in a single pass with a hash table of the last positions of every 4 byte sequence, like
+ * the fast mode of the reference implementation. This trades some compression for a speed which is usually limited by
+ * the disk. The frames can be read by any LZ4 implementation, {@link Lz4CompressionInputStream} included.
+ */
+public class Lz4FrameOutputStream extends OutputStream {
+
+  static final int MAGIC = 0x184D2204;
+
+  /**
+   * Version 01, independent blocks
+   */
+  static final byte FLAGS = 0x60;
+
+  /**
+   * Maximum block size of 1MB
+   */
+  static final byte BLOCK_DESCRIPTOR = 0x60;
+
+  public static final int BLOCK_SIZE = 1024 * 1024;
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  private static final int MATCH_FIND_LIMIT = 12;
+  private static final int MAX_OFFSET = 65535;
+  private static final int HASH_LOG = 16;
+  private static final int UNCOMPRESSED_FLAG = 0x80000000;
+
+  private final OutputStream out;
+  private final byte[] buffer;
+  private final byte[] compressed;
+  private final int[] hashTable;
+  private int count;
+  private boolean headerWritten;
+  private boolean closed;
+
+  public Lz4FrameOutputStream( OutputStream out ) {
+    this.out = out;
+    this.buffer = new byte[ BLOCK_SIZE ];
+    this.compressed = new byte[ maxCompressedLength( BLOCK_SIZE ) ];
+    this.hashTable = new int[ 1 << HASH_LOG ];
+  }
+
+  /**
+   * @return the data compressed as a complete LZ4 frame
+   */
+  public static byte[] compressFrame( byte[] data, int length ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream( length / 2 + 64 );
+    try ( Lz4FrameOutputStream lz4 = new Lz4FrameOutputStream( bytes ) ) {
+      lz4.write( data, 0, length );
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public void write( int b ) throws IOException {
+    ensureOpen();
+    buffer[ count++ ] = (byte) b;
+    if ( count == BLOCK_SIZE ) {
+      writeBlock();
+    }
+  }
+
+  @Override
+  public void write( byte[] b, int off, int len ) throws IOException {
+    ensureOpen();
+    while ( len > 0 ) {
+      int size = Math.min( len, BLOCK_SIZE - count );
+      System.arraycopy( b, off, buffer, count, size );
+      count += size;
+      off += size;
+      len -= size;
+      if ( count == BLOCK_SIZE ) {
+        writeBlock();
+      }
+    }
+  }
+
+  /**
+   * Ends the current block. Flushing very often makes the compression less efficient.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    if ( count > 0 ) {
+      writeBlock();
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    try {
+      if ( count > 0 || !headerWritten ) {
+        writeBlock();
+      }
+      writeIntLE( out, 0 ); // end mark
+      out.flush();
+    } finally {
+      closed = true;
+      out.close();
+    }
+  }
+
+  private void writeBlock() throws IOException {
+    if ( !headerWritten ) {
+      writeHeader();
+      headerWritten = true;
+    }
+    if ( count == 0 ) {
+      return;
+    }
+    int length = compressBlock( buffer, count, compressed, hashTable );
+    if ( length < count ) {
+      writeIntLE( out, length );
+      out.write( compressed, 0, length );
+    } else {
+      writeIntLE( out, count | UNCOMPRESSED_FLAG );
+      out.write( buffer, 0, count );
+    }
+    count = 0;
+  }
+
+  private void writeHeader() throws IOException {
+    writeIntLE( out, MAGIC );
+    byte[] descriptor = new byte[] { FLAGS, BLOCK_DESCRIPTOR };
+    XXHash32 hash = new XXHash32();
+    hash.update( descriptor, 0, descriptor.length );
+    out.write( descriptor );
+    out.write( (int) ( ( hash.getValue() >> 8 ) & 0xFF ) );
+  }
+
+  private void ensureOpen() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+  }
+
+  static int maxCompressedLength( int length ) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compress the data into a single LZ4 block.
+   *
+   * @param src       the data to compress
+   * @param length    the number of bytes to compress
+   * @param dst       the buffer to write the block to, at least {@link #maxCompressedLength(int)} bytes
+   * @param hashTable a scratch table, overwritten
+   * @return the size of the compressed block
+   */
+  static int compressBlock( byte[] src, int length, byte[] dst, int[] hashTable ) {
+    int anchor = 0;
+    int op = 0;
+
+    if ( length >= MATCH_FIND_LIMIT + 1 ) {
+      Arrays.fill( hashTable, -1 );
+      int matchLimit = length - LAST_LITERALS;
+      int findLimit = length - MATCH_FIND_LIMIT;
+      int ip = 0;
+      int misses = 0;
+      while ( ip < findLimit ) {
+        int sequence = readIntLE( src, ip );
+        int hash = hash( sequence );
+        int ref = hashTable[ hash ];
+        hashTable[ hash ] = ip;
+        if ( ref < 0 || ip - ref > MAX_OFFSET || readIntLE( src, ref ) != sequence ) {
+          // Skip faster over data which doesn't compress
+          ip += 1 + ( misses++ >>> 6 );
+          continue;
+        }
+        misses = 0;
+
+        // Extend the match backwards and forwards
+        //
+        while ( ip > anchor && ref > 0 && src[ ip - 1 ] == src[ ref - 1 ] ) {
+          ip--;
+          ref--;
+        }
+        int matchLength = MIN_MATCH;
+        while ( ip + matchLength < matchLimit && src[ ip + matchLength ] == src[ ref + matchLength ] ) {
+          matchLength++;
+        }
+
+        op = writeSequence( src, anchor, ip - anchor, ip - ref, matchLength, dst, op );
+        ip += matchLength;
+        anchor = ip;
+        if ( ip - 2 < findLimit ) {
+          hashTable[ hash( readIntLE( src, ip - 2 ) ) ] = ip - 2;
+        }
+      }
+    }
+
+    // The last bytes are always literals
+    //
+    int literals = length - anchor;
+    int token = op++;
+    op = writeLength( literals, dst, token, 4, op );
+    System.arraycopy( src, anchor, dst, op, literals );
+    return op + literals;
+  }
+
+  private static int writeSequence( byte[] src, int anchor, int literals, int offset, int matchLength, byte[] dst,
+                                    int op ) {
+    int token = op++;
+    op = writeLength( literals, dst, token, 4, op );
+    System.arraycopy( src, anchor, dst, op, literals );
+    op += literals;
+    dst[ op++ ] = (byte) offset;
+    dst[ op++ ] = (byte) ( offset >>> 8 );
+    return writeLength( matchLength - MIN_MATCH, dst, token, 0, op );
+  }
+
+  /**
+   * Store the length in the token nibble at the given shift and the extra length bytes after it.
+   */
+  private static int writeLength( int length, byte[] dst, int token, int shift, int op ) {
+    if ( shift == 4 ) {
+      dst[ token ] = 0;
+    }
+    if ( length < 15 ) {
+      dst[ token ] |= (byte) ( length << shift );
+      return op;
+    }
+    dst[ token ] |= (byte) ( 15 << shift );
+    length -= 15;
+    while ( length >= 255 ) {
+      dst[ op++ ] = (byte) 255;
+      length -= 255;
+    }
+    dst[ op++ ] = (byte) length;
+    return op;
+  }
+
+  private static int hash( int sequence ) {
+    return ( sequence * -1640531535 ) >>> ( 32 - HASH_LOG );
+  }
+
+  private static int readIntLE( byte[] data, int index ) {
+    return ( data[ index ] & 0xFF ) | ( data[ index + 1 ] & 0xFF ) << 8 | ( data[ index + 2 ] & 0xFF ) << 16
+      | ( data[ index + 3 ] & 0xFF ) << 24;
+  }
+
+  private static void writeIntLE( OutputStream out, int value ) throws IOException {
+    out.write( value );
+    out.write( value >>> 8 );
+    out.write( value >>> 16 );
+    out.write( value >>> 24 );
+  }
+}
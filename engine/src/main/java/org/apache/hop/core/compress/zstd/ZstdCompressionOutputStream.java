@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.zstd;
+
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.hop.core.compress.BlockCompressionOutputStream;
+import org.apache.hop.core.compress.CompressionOutputStream;
+import org.apache.hop.core.compress.ICompressionProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class ZstdCompressionOutputStream extends CompressionOutputStream {
+
+  public ZstdCompressionOutputStream( OutputStream out, ICompressionProvider provider ) throws IOException {
+    super( getDelegate( out ), provider );
+  }
+
+  /**
+   * Compresses in parallel if variable HOP_COMPRESSION_THREADS asks for it. The result is a series of Zstandard frames.
+   */
+  protected static OutputStream getDelegate( OutputStream out ) throws IOException {
+    if ( out instanceof ZstdCompressorOutputStream ) {
+      return out;
+    }
+    int threads = BlockCompressionOutputStream.getCompressionThreads();
+    if ( threads > 1 ) {
+      return new BlockCompressionOutputStream( out, ZstdCompressionOutputStream::compressBlock,
+        BlockCompressionOutputStream.DEFAULT_BLOCK_SIZE, threads );
+    }
+    return new ZstdCompressorOutputStream( out );
+  }
+
+  /**
+   * @return the block compressed as a complete Zstandard frame
+   */
+  public static byte[] compressBlock( byte[] data, int length ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream( length / 2 + 64 );
+    try ( ZstdCompressorOutputStream zstd = new ZstdCompressorOutputStream( bytes ) ) {
+      zstd.write( data, 0, length );
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -28,8 +28,12 @@ import org.apache.hop.core.IExecutor;
 import org.apache.hop.core.IExtensionData;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.RemoteInputRowSet;
+import org.apache.hop.core.RemoteOutputRowSet;
+import org.apache.hop.core.RemoteRowSetServer;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
+import org.apache.hop.core.ResultRows;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
@@ -110,6 +114,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.hop.pipeline.Pipeline.BitMaskStatus.BIT_STATUS_SUM;
@@ -228,6 +233,19 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
    */
   public List<IRowSet> rowsets;
 
+  /**
+   * The row sets receiving rows from the other servers when the partitioned transforms are distributed over several
+   * servers, see {@link RemoteRowSetDistribution}.
+   */
+  private List<RemoteInputRowSet> remoteInputRowSets = new ArrayList<>();
+
+  private RemoteRowSetServer remoteRowSetServer;
+
+  /**
+   * The run this pipeline opened on the remote row set server, null if none
+   */
+  private final AtomicReference<String> remoteRunId = new AtomicReference<>();
+
   /**
    * A list of all the transforms.
    */
@@ -501,7 +519,7 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
     activeSubPipelines = new ConcurrentHashMap<>();
     activeSubWorkflows = new HashMap<>();
 
-    resultRows = new ArrayList<>();
+    resultRows = new ResultRows();
     resultFiles = new ArrayList<>();
 
     extensionDataMap = new HashMap<>();
@@ -709,6 +727,14 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
     //
     transforms = Collections.synchronizedList( new ArrayList<>() );
     rowsets = new ArrayList<>();
+    remoteInputRowSets = new ArrayList<>();
+
+    // Are the copies of the partitioned transforms distributed over several servers?
+    //
+    RemoteRowSetDistribution distribution = null;
+    if ( pipelineMeta.getPipelineType() == PipelineMeta.PipelineType.Normal ) {
+      distribution = RemoteRowSetDistribution.fromVariables( this );
+    }
 
     List<TransformMeta> hopTransforms = pipelineMeta.getPipelineHopTransforms( false );
 
@@ -787,7 +813,10 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
 
         // Allocate the rowsets
         //
-        if ( dispatchType != TYPE_DISP_N_M ) {
+        if ( distribution != null && repartitioning && nextTransform.isPartitioned()
+          && ( dispatchType == TYPE_DISP_1_N || dispatchType == TYPE_DISP_N_M ) ) {
+          allocateDistributedRowSets( distribution, thisTransform, thisCopies, nextTransform, nextCopies );
+        } else if ( dispatchType != TYPE_DISP_N_M ) {
           for ( int c = 0; c < nrCopies; c++ ) {
             IRowSet rowSet;
             switch ( pipelineMeta.getPipelineType() ) {
@@ -941,6 +970,17 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
       }
     }
 
+    // The rows received from the other servers go to the local copy of the partitioned transform as well
+    //
+    for ( RemoteInputRowSet remoteInputRowSet : remoteInputRowSets ) {
+      ITransform transform = findTransformInterface( remoteInputRowSet.getDestinationTransformName(), remoteInputRowSet.getDestinationTransformCopy() );
+      if ( transform == null ) {
+        throw new HopException( "Unable to find transform copy " + remoteInputRowSet.getDestinationTransformName() + "."
+          + remoteInputRowSet.getDestinationTransformCopy() + " to receive the rows of remote row set " + remoteInputRowSet.getRemoteName() );
+      }
+      transform.addRowSetToInputRowSets( remoteInputRowSet );
+    }
+
     // Now we need to verify if certain rowsets are not meant to be for error
     // handling...
     // Loop over the transforms and for every transform verify the output rowsets
@@ -1338,6 +1378,7 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
    * @throws HopException if any errors occur during notification
    */
   public void firePipelineExecutionFinishedListeners() throws HopException {
+    closeRemoteRowSets();
 
     synchronized ( executionFinishedListeners ) {
       if ( executionFinishedListeners.size() == 0 ) {
@@ -1525,6 +1566,90 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
     }
   }
 
+  /**
+   * Allocate the row sets of a hop into a partitioned transform whose copies are distributed over several servers.
+   * The rows for a copy running on another server are sent there, the copies running here receive rows from the
+   * local source transform copies as well as from the ones on all the other servers. The local target copies which
+   * run elsewhere read from the remote output row sets: they never get a row and finish when the source is done.
+   */
+  private void allocateDistributedRowSets( RemoteRowSetDistribution distribution, TransformMeta thisTransform, int thisCopies,
+                                           TransformMeta nextTransform, int nextCopies ) throws HopException {
+    String from = thisTransform.getName();
+    String to = nextTransform.getName();
+    int serverNr = distribution.getServerNr();
+
+    // Opened before connecting to any other server: the senders of the other servers wait for it, not for our row sets
+    //
+    if ( remoteRunId.get() == null ) {
+      remoteRowSetServer = distribution.getLocalServer();
+      remoteRowSetServer.openRun( distribution.getRunId(), distribution.getSecret() );
+      remoteRunId.set( distribution.getRunId() );
+    }
+
+    for ( int t = 0; t < nextCopies; t++ ) {
+      int owner = distribution.getOwner( t );
+      for ( int s = 0; s < thisCopies; s++ ) {
+        IRowSet rowSet;
+        if ( owner == serverNr ) {
+          rowSet = new BlockingRowSet( rowSetSize );
+        } else {
+          rowSet = new RemoteOutputRowSet( distribution.getHostname( owner ), distribution.getPort( owner ),
+            distribution.getRunId(), distribution.getRowSetName( from, s, to, t, serverNr ), distribution.getSecret(),
+            RemoteOutputRowSet.DEFAULT_BATCH_SIZE, distribution.isCompressed() );
+          rowSet.setRemoteHopServerName( distribution.getHostname( owner ) + ":" + distribution.getPort( owner ) );
+        }
+        rowSet.setThreadNameFromToCopy( from, s, to, t );
+        rowsets.add( rowSet );
+        if ( log.isDetailed() ) {
+          log.logDetailed( BaseMessages.getString( PKG, "Pipeline.PipelineAllocatedNewRowset", rowSet.toString() ) );
+        }
+      }
+
+      if ( owner == serverNr ) {
+        // Added after the local row sets: those are the ones the transforms find for this hop
+        //
+        for ( int sender = 0; sender < distribution.getNrServers(); sender++ ) {
+          if ( sender == serverNr ) {
+            continue;
+          }
+          for ( int s = 0; s < thisCopies; s++ ) {
+            RemoteInputRowSet rowSet = remoteRowSetServer.openInputRowSet( distribution.getRowSetName( from, s, to, t, sender ),
+              distribution.getSecret(), rowSetSize );
+            rowSet.setThreadNameFromToCopy( from, s, to, t );
+            rowSet.setRemoteHopServerName( distribution.getHostname( sender ) + ":" + distribution.getPort( sender ) );
+            rowsets.add( rowSet );
+            remoteInputRowSets.add( rowSet );
+            if ( log.isDetailed() ) {
+              log.logDetailed( BaseMessages.getString( PKG, "Pipeline.PipelineAllocatedNewRowset", rowSet.toString() ) );
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Release the row sets connecting this pipeline with the other servers it's distributed over.
+   * Senders which didn't finish yet can't deliver their rows anymore.
+   */
+  private void closeRemoteRowSets() {
+    if ( rowsets == null ) {
+      return;
+    }
+    for ( RemoteInputRowSet rowSet : remoteInputRowSets ) {
+      remoteRowSetServer.closeInputRowSet( rowSet.getRemoteName() );
+    }
+    String runId = remoteRunId.getAndSet( null );
+    if ( runId != null ) {
+      remoteRowSetServer.closeRun( runId );
+    }
+    for ( IRowSet rowSet : rowsets ) {
+      if ( rowSet instanceof RemoteOutputRowSet && !rowSet.isDone() ) {
+        ( (RemoteOutputRowSet) rowSet ).close();
+      }
+    }
+  }
+
   /**
    * Finds the IRowSet between two transforms (or copies of transforms).
    *
@@ -1592,6 +1717,7 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
       return;
     }
     transforms.forEach( combi -> stopTransform( combi, false ) );
+    closeRemoteRowSets();
 
     // if it is stopped it is not paused
     setPaused( false );
@@ -3308,6 +3434,9 @@ public abstract class Pipeline implements IVariables, INamedParameters, IHasLogC
             metrics.setComponentMetric( combi.transform, METRIC_UPDATED, combi.transform.getLinesUpdated() );
             metrics.setComponentMetric( combi.transform, METRIC_REJECTED, combi.transform.getLinesRejected() );
             metrics.setComponentMetric( combi.transform, METRIC_ERROR, combi.transform.getErrors() );
+            for ( Map.Entry<IEngineMetric, Long> entry : transform.getCustomMetrics().entrySet() ) {
+              metrics.setComponentMetric( combi.transform, entry.getKey(), entry.getValue() );
+            }
 
             long inputBufferSize = 0;
             for ( IRowSet rowSet : transform.getInputRowSets() ) {
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RemoteRowSetServer;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Describes how the copies of partitioned transforms are distributed over a number of Hop servers which all execute
+ * the same pipeline. Copy <i>t</i> of a partitioned transform runs on server <i>t % nrServers</i>: rows for a
+ * partition owned by another server are sent to it with a remote row set, rows for the partitions this server owns
+ * are received from all the other servers.
+ * <p>
+ * Every server executes the complete pipeline, so the transforms ahead of the first partitioned transform have to
+ * read their own part of the data, for example based on the server number in variable {@link #VARIABLE_SERVER_NR}.
+ * <p>
+ * The plan is passed to each server in a few variables: the servers are listed as hostname:port of their remote
+ * row set server, the run ID keeps the row sets of different runs apart and the secret authenticates the connections
+ * between the servers.
+ */
+public class RemoteRowSetDistribution {
+
+  /**
+   * The comma separated list of hostname:port of the row set servers of all the servers taking part
+   */
+  public static final String VARIABLE_SERVERS = "HOP_REMOTE_ROW_SET_SERVERS";
+
+  /**
+   * The index of the executing server in the list of servers, starting at 0
+   */
+  public static final String VARIABLE_SERVER_NR = "HOP_REMOTE_ROW_SET_SERVER_NR";
+
+  public static final String VARIABLE_RUN_ID = "HOP_REMOTE_ROW_SET_RUN_ID";
+
+  public static final String VARIABLE_SECRET = "HOP_REMOTE_ROW_SET_SECRET";
+
+  /**
+   * Y to compress the rows sent between the servers
+   */
+  public static final String VARIABLE_COMPRESSED = "HOP_REMOTE_ROW_SET_COMPRESSED";
+
+  private static final SecureRandom random = new SecureRandom();
+
+  private final List<String> hostnames;
+  private final List<Integer> ports;
+  private final int serverNr;
+  private final String runId;
+  private final String secret;
+  private final boolean compressed;
+
+  public RemoteRowSetDistribution( List<String> hostnames, List<Integer> ports, int serverNr, String runId, String secret, boolean compressed ) {
+    this.hostnames = Collections.unmodifiableList( new ArrayList<>( hostnames ) );
+    this.ports = Collections.unmodifiableList( new ArrayList<>( ports ) );
+    this.serverNr = serverNr;
+    this.runId = runId;
+    this.secret = secret;
+    this.compressed = compressed;
+  }
+
+  /**
+   * Plan a new run over the given row set servers, with a new run ID and secret.
+   *
+   * @param hostnames  The hostnames of the servers
+   * @param ports      The ports of the remote row set servers
+   * @param compressed true if the rows sent between the servers need to be compressed
+   * @return The distribution as seen by the first server
+   */
+  public static RemoteRowSetDistribution newRun( List<String> hostnames, List<Integer> ports, boolean compressed ) {
+    byte[] secret = new byte[ 32 ];
+    random.nextBytes( secret );
+    return new RemoteRowSetDistribution( hostnames, ports, 0, UUID.randomUUID().toString(),
+      Base64.getEncoder().encodeToString( secret ), compressed );
+  }
+
+  /**
+   * @param serverNr The index of another server
+   * @return The same distribution as seen by the given server
+   */
+  public RemoteRowSetDistribution forServer( int serverNr ) {
+    return new RemoteRowSetDistribution( hostnames, ports, serverNr, runId, secret, compressed );
+  }
+
+  /**
+   * Read the distribution from the variables of a pipeline.
+   *
+   * @param variables The variables
+   * @return The distribution or null if the pipeline isn't distributed over several servers
+   * @throws HopException in case the variables don't describe a valid distribution
+   */
+  public static RemoteRowSetDistribution fromVariables( IVariables variables ) throws HopException {
+    String servers = variables.getVariable( VARIABLE_SERVERS );
+    if ( Utils.isEmpty( servers ) ) {
+      return null;
+    }
+    List<String> hostnames = new ArrayList<>();
+    List<Integer> ports = new ArrayList<>();
+    for ( String server : servers.split( "," ) ) {
+      int colon = server.lastIndexOf( ':' );
+      int port = colon > 0 ? Const.toInt( server.substring( colon + 1 ).trim(), -1 ) : -1;
+      if ( port <= 0 ) {
+        throw new HopException( "Invalid remote row set server '" + server + "' in variable " + VARIABLE_SERVERS + ", expecting hostname:port" );
+      }
+      hostnames.add( server.substring( 0, colon ).trim() );
+      ports.add( port );
+    }
+    int serverNr = Const.toInt( variables.getVariable( VARIABLE_SERVER_NR ), -1 );
+    if ( serverNr < 0 || serverNr >= hostnames.size() ) {
+      throw new HopException( "Variable " + VARIABLE_SERVER_NR + " needs to hold the index of this server in " + VARIABLE_SERVERS );
+    }
+    String runId = variables.getVariable( VARIABLE_RUN_ID );
+    String secret = variables.getVariable( VARIABLE_SECRET );
+    if ( Utils.isEmpty( runId ) || Utils.isEmpty( secret ) ) {
+      throw new HopException( "Variables " + VARIABLE_RUN_ID + " and " + VARIABLE_SECRET + " are required to distribute a pipeline" );
+    }
+    boolean compressed = "Y".equalsIgnoreCase( variables.getVariable( VARIABLE_COMPRESSED ) );
+    return new RemoteRowSetDistribution( hostnames, ports, serverNr, runId, secret, compressed );
+  }
+
+  /**
+   * Pass this distribution to a pipeline.
+   *
+   * @param variables The variables of the pipeline
+   */
+  public void setVariables( IVariables variables ) {
+    StringBuilder servers = new StringBuilder();
+    for ( int i = 0; i < hostnames.size(); i++ ) {
+      if ( i > 0 ) {
+        servers.append( ',' );
+      }
+      servers.append( hostnames.get( i ) ).append( ':' ).append( ports.get( i ) );
+    }
+    variables.setVariable( VARIABLE_SERVERS, servers.toString() );
+    variables.setVariable( VARIABLE_SERVER_NR, Integer.toString( serverNr ) );
+    variables.setVariable( VARIABLE_RUN_ID, runId );
+    variables.setVariable( VARIABLE_SECRET, secret );
+    variables.setVariable( VARIABLE_COMPRESSED, compressed ? "Y" : "N" );
+  }
+
+  /**
+   * @param copy The copy of a partitioned transform
+   * @return The index of the server which runs that copy
+   */
+  public int getOwner( int copy ) {
+    return copy % hostnames.size();
+  }
+
+  /**
+   * @param copy The copy of a partitioned transform
+   * @return true if that copy runs on this server
+   */
+  public boolean isOwner( int copy ) {
+    return getOwner( copy ) == serverNr;
+  }
+
+  /**
+   * The name of the row set carrying the rows from one transform copy to another, sent by the given server.
+   */
+  public String getRowSetName( String from, int fromCopy, String to, int toCopy, int senderNr ) {
+    return runId + "/" + from + "." + fromCopy + "->" + to + "." + toCopy + "@" + senderNr;
+  }
+
+  /**
+   * @return The row set server of the Hop server executing the pipeline in this JVM
+   * @throws HopException in case that server isn't running here
+   */
+  public RemoteRowSetServer getLocalServer() throws HopException {
+    RemoteRowSetServer server = RemoteRowSetServer.findServer( getPort( serverNr ) );
+    if ( server == null ) {
+      throw new HopException( "No remote row set server is running on port " + getPort( serverNr ) + " for server number " + serverNr );
+    }
+    return server;
+  }
+
+  public int getNrServers() {
+    return hostnames.size();
+  }
+
+  public String getHostname( int serverNr ) {
+    return hostnames.get( serverNr );
+  }
+
+  public int getPort( int serverNr ) {
+    return ports.get( serverNr );
+  }
+
+  /**
+   * Gets serverNr
+   *
+   * @return value of serverNr
+   */
+  public int getServerNr() {
+    return serverNr;
+  }
+
+  /**
+   * Gets runId
+   *
+   * @return value of runId
+   */
+  public String getRunId() {
+    return runId;
+  }
+
+  /**
+   * Gets secret
+   *
+   * @return value of secret
+   */
+  public String getSecret() {
+    return secret;
+  }
+
+  /**
+   * Gets compressed
+   *
+   * @return value of compressed
+   */
+  public boolean isCompressed() {
+    return compressed;
+  }
+}
@@ -50,6 +50,7 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineConfiguration;
 import org.apache.hop.pipeline.PipelineExecutionConfiguration;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RemoteRowSetDistribution;
 import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
 import org.apache.hop.pipeline.config.PipelineRunConfiguration;
 import org.apache.hop.pipeline.engine.EngineComponent;
@@ -117,6 +118,11 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
   protected HopServer hopServer;
 
+  /**
+   * The engines executing the same pipeline on the other servers the partitioned transforms are distributed over
+   */
+  protected List<RemotePipelineEngine> distributedEngines = new ArrayList<>();
+
   protected ILoggingObject parent;
   protected IPipelineEngine parentPipeline;
   protected IWorkflowEngine<WorkflowMeta> parentWorkflow;
@@ -156,6 +162,16 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
   protected int lastLogLineNr;
   protected Timer refreshTimer;
 
+  /**
+   * The thread following the status stream of the Hop server
+   */
+  protected Thread statusStreamThread;
+
+  /**
+   * Used to wake up threads waiting for the pipeline to finish
+   */
+  private final Object finishedLock = new Object();
+
   /**
    * The named parameters.
    */
@@ -225,6 +241,13 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
         throw new HopException( "Hop server '" + hopServerName + "' could not be found" );
       }
 
+      // Distribute the copies of the partitioned transforms over the other servers as well
+      //
+      String distributedHopServers = resolve( remotePipelineRunConfiguration.getDistributedHopServers() );
+      if ( StringUtils.isNotBlank( distributedHopServers ) ) {
+        prepareDistributedExecution( remotePipelineRunConfiguration, distributedHopServers );
+      }
+
       PipelineExecutionConfiguration pipelineExecutionConfiguration = new PipelineExecutionConfiguration();
       pipelineExecutionConfiguration.setRunConfiguration( remoteRunConfigurationName );
       if ( logLevel != null ) {
@@ -238,10 +261,81 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
       setReadyToStart( true );
     } catch ( Exception e ) {
+      stopDistributedEngines();
       throw new HopException( "Error preparing remote pipeline", e );
     }
   }
 
+  /**
+   * Prepare the execution of the pipeline on the other servers. Every server executes the complete pipeline, the
+   * copies of the partitioned transforms are divided over the servers and the rows are streamed between them.
+   *
+   * @param configuration          The remote run configuration
+   * @param distributedHopServers The comma separated names of the other Hop servers
+   * @throws HopException In case a server can't be found or the pipeline can't be prepared on it
+   */
+  private void prepareDistributedExecution( RemotePipelineRunConfiguration configuration, String distributedHopServers ) throws HopException {
+    List<HopServer> servers = new ArrayList<>();
+    servers.add( hopServer );
+    for ( String name : distributedHopServers.split( "," ) ) {
+      if ( StringUtils.isBlank( name ) ) {
+        continue;
+      }
+      HopServer server = metadataProvider.getSerializer( HopServer.class ).load( name.trim() );
+      if ( server == null ) {
+        throw new HopException( "Hop server '" + name.trim() + "' could not be found" );
+      }
+      servers.add( server );
+    }
+
+    List<String> hostnames = new ArrayList<>();
+    List<Integer> ports = new ArrayList<>();
+    for ( HopServer server : servers ) {
+      int port = Const.toInt( resolve( server.getRowSetPort() ), -1 );
+      if ( port <= 0 ) {
+        throw new HopException( "Hop server '" + server.getName() + "' needs a remote row set port to receive rows from the other servers" );
+      }
+      hostnames.add( resolve( server.getHostname() ) );
+      ports.add( port );
+    }
+    RemoteRowSetDistribution distribution = RemoteRowSetDistribution.newRun( hostnames, ports, configuration.isCompressingRows() );
+    distribution.setVariables( this );
+
+    logChannel.logBasic( "Distributing the partitioned transforms over " + servers.size() + " Hop servers" );
+
+    for ( int i = 1; i < servers.size(); i++ ) {
+      RemotePipelineRunConfiguration engineRunConfiguration = configuration.clone();
+      engineRunConfiguration.setHopServerName( servers.get( i ).getName() );
+      engineRunConfiguration.setDistributedHopServers( null );
+      PipelineRunConfiguration runConfiguration = new PipelineRunConfiguration( pipelineRunConfiguration );
+      runConfiguration.setEngineRunConfiguration( engineRunConfiguration );
+
+      RemotePipelineEngine engine = new RemotePipelineEngine( subject );
+      engine.setPipelineRunConfiguration( runConfiguration );
+      engine.setMetadataProvider( metadataProvider );
+      engine.setParent( loggingObject );
+      engine.setLogLevel( logLevel );
+      engine.setPreviousResult( previousResult );
+      engine.initializeFrom( this );
+      distribution.forServer( i ).setVariables( engine );
+
+      distributedEngines.add( engine );
+      engine.prepareExecution();
+    }
+  }
+
+  private void stopDistributedEngines() {
+    for ( RemotePipelineEngine engine : distributedEngines ) {
+      if ( engine.isReadyToStart() || engine.isRunning() ) {
+        try {
+          engine.stopAll();
+        } catch ( Exception e ) {
+          logChannel.logError( "Unable to stop the pipeline on hop server '" + engine.getHopServer().getName() + "'", e );
+        }
+      }
+    }
+  }
+
   /**
    * Send the pipeline for execution to a HopServer hop server.
    *
@@ -338,6 +432,17 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
   @Override public void startThreads() throws HopException {
     try {
+      // Start the pipeline on the other servers first, stop everything as soon as one of them fails
+      //
+      for ( RemotePipelineEngine engine : distributedEngines ) {
+        engine.addExecutionFinishedListener( finishedEngine -> {
+          if ( engine.getErrors() > 0 ) {
+            stopAll();
+          }
+        } );
+        engine.startThreads();
+      }
+
       // Start the pipeline
       //
       String reply = hopServer.execService( this, StartExecutionPipelineServlet.CONTEXT_PATH + "/?name=" + URLEncoder.encode( subject.getName(), "UTF-8" ) + "&xml=Y&id=" + containerId );
@@ -349,91 +454,128 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
 
         // So the pipeline has been successfully started.
         // That doesn't mean that the execution itself is without error
-        // To know that we need to monitor the execution remotely
-        // We monitor this every 2 seconds after a 1 second delay (configurable)
+        // To know that we need to monitor the execution remotely.
+        // The server pushes the changes in status to us.
         //
-        TimerTask refreshTask = new TimerTask() {
-          @Override public void run() {
-            getPipelineStatus();
-          }
-        };
-        refreshTimer = new Timer();
-        refreshTimer.schedule( refreshTask, serverPollDelay, serverPollInterval );
-
         readyToStart = false;
         running = true;
+
+        statusStreamThread = new Thread( this::followPipelineStatus, "Status of remote pipeline " + subject.getName() );
+        statusStreamThread.setDaemon( true );
+        statusStreamThread.start();
       } else {
         throw new HopException( "Error starting pipeline on hop server '" + hopServer.getName() + "' with object ID '" + containerId + "' : " + webResult.getMessage() );
       }
     } catch ( Exception e ) {
+      stopDistributedEngines();
       throw new HopException( "Unable to start pipeline on server '" + hopServer.getName() + "'", e );
     }
   }
 
-  private synchronized void getPipelineStatus() throws RuntimeException {
+  /**
+   * Follow the status stream of the server. If the server doesn't support this or the stream gets interrupted we fall
+   * back to polling every 2 seconds after a 1 second delay (configurable)
+   */
+  private void followPipelineStatus() {
+    HopServerPipelineStatus streamedStatus = new HopServerPipelineStatus( subject.getName(), containerId, null );
+    boolean complete = false;
     try {
-      HopServerPipelineStatus pipelineStatus = hopServer.getPipelineStatus( this, subject.getName(), containerId, lastLogLineNr );
-      synchronized ( engineMetrics ) {
-        hasHaltedComponents = false;
-        engineMetrics.setStartDate( pipelineStatus.getExecutionStartDate() );
-        engineMetrics.setEndDate( pipelineStatus.getExecutionEndDate() );
-        engineMetrics.getComponents().clear();
-        engineMetrics.getComponentRunningMap().clear();
-        engineMetrics.getComponentSpeedMap().clear();
-        engineMetrics.getComponentMetricsMap().clear();
-
-        for ( TransformStatus transformStatus : pipelineStatus.getTransformStatusList() ) {
-          EngineComponent component = new EngineComponent( transformStatus.getTransformName(), transformStatus.getCopy() );
-          component.setErrors( transformStatus.getErrors() );
-          status = ComponentExecutionStatus.getStatusFromDescription( transformStatus.getStatusDescription() );
-          statusDescription = status.getDescription();
-          boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
-          component.setRunning( running );
-          boolean halted = status == ComponentExecutionStatus.STATUS_HALTED || status == ComponentExecutionStatus.STATUS_HALTING;
-          if ( halted ) {
-            hasHaltedComponents = true;
-          }
-          engineMetrics.setComponentStatus( component, transformStatus.getStatusDescription() );
-          engineMetrics.setComponentRunning( component, running );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_READ, transformStatus.getLinesRead() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_ERROR, transformStatus.getErrors() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize() );
-          engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize() );
-          engineMetrics.setComponentSpeed( component, transformStatus.getSpeed() );
-          engineMetrics.getComponents().add( component );
-        }
+      complete = hopServer.followPipelineStatus( this, containerId, lastLogLineNr, delta -> {
+        delta.applyTo( streamedStatus );
+        updatePipelineStatus( streamedStatus );
+      } );
+    } catch ( Exception e ) {
+      logChannel.logDetailed( "Unable to follow the status stream of hop server '" + hopServer.getName() + "', polling instead: " + e.getMessage() );
+    }
 
-        running = pipelineStatus.isRunning();
-        finished = pipelineStatus.isFinished();
-        stopped = pipelineStatus.isStopped();
-        paused = pipelineStatus.isPaused();
-        errors = (int) pipelineStatus.getNrTransformErrors();
+    if ( !complete && !finished ) {
+      TimerTask refreshTask = new TimerTask() {
+        @Override public void run() {
+          getPipelineStatus();
+        }
+      };
+      refreshTimer = new Timer();
+      refreshTimer.schedule( refreshTask, serverPollDelay, serverPollInterval );
+    }
+  }
 
-        lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+  private void getPipelineStatus() throws RuntimeException {
+    try {
+      updatePipelineStatus( hopServer.getPipelineStatus( this, subject.getName(), containerId, lastLogLineNr ) );
+    } catch ( Exception e ) {
+      throw new RuntimeException( "Error getting the status of pipeline '" + subject.getName() + "' on hop server '" + hopServer.getName() + "' with object ID '" + containerId + "'", e );
+    }
+  }
 
-        // Also pass the remote log to this log channel as BASIC logging...
-        // TODO: make this configurable and split up the log lines individually so we can do a better job of this.
-        // Now it's a bit garbled
-        //
-        if ( StringUtils.isNotEmpty( pipelineStatus.getLoggingString() ) ) {
-          logChannel.logBasic( pipelineStatus.getLoggingString() );
+  private synchronized void updatePipelineStatus( HopServerPipelineStatus pipelineStatus ) throws HopException {
+    synchronized ( engineMetrics ) {
+      hasHaltedComponents = false;
+      engineMetrics.setStartDate( pipelineStatus.getExecutionStartDate() );
+      engineMetrics.setEndDate( pipelineStatus.getExecutionEndDate() );
+      engineMetrics.getComponents().clear();
+      engineMetrics.getComponentRunningMap().clear();
+      engineMetrics.getComponentSpeedMap().clear();
+      engineMetrics.getComponentMetricsMap().clear();
+
+      for ( TransformStatus transformStatus : pipelineStatus.getTransformStatusList() ) {
+        EngineComponent component = new EngineComponent( transformStatus.getTransformName(), transformStatus.getCopy() );
+        component.setErrors( transformStatus.getErrors() );
+        status = ComponentExecutionStatus.getStatusFromDescription( transformStatus.getStatusDescription() );
+        statusDescription = status.getDescription();
+        boolean running = status == ComponentExecutionStatus.STATUS_RUNNING;
+        component.setRunning( running );
+        boolean halted = status == ComponentExecutionStatus.STATUS_HALTED || status == ComponentExecutionStatus.STATUS_HALTING;
+        if ( halted ) {
+          hasHaltedComponents = true;
         }
+        engineMetrics.setComponentStatus( component, transformStatus.getStatusDescription() );
+        engineMetrics.setComponentRunning( component, running );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_READ, transformStatus.getLinesRead() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_WRITTEN, transformStatus.getLinesWritten() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_INPUT, transformStatus.getLinesInput() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_OUTPUT, transformStatus.getLinesOutput() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_REJECTED, transformStatus.getLinesRejected() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_UPDATED, transformStatus.getLinesUpdated() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_ERROR, transformStatus.getErrors() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_IN, transformStatus.getInputBufferSize() );
+        engineMetrics.setComponentMetric( component, Pipeline.METRIC_BUFFER_OUT, transformStatus.getOutputBufferSize() );
+        engineMetrics.setComponentSpeed( component, transformStatus.getSpeed() );
+        engineMetrics.getComponents().add( component );
+      }
 
-        // If the pipeline is finished, cancel the timer task
-        //
-        if ( finished ) {
-          firePipelineExecutionFinishedListeners();
+      running = pipelineStatus.isRunning();
+      finished = pipelineStatus.isFinished();
+      stopped = pipelineStatus.isStopped();
+      paused = pipelineStatus.isPaused();
+      errors = (int) pipelineStatus.getNrTransformErrors();
+
+      lastLogLineNr = pipelineStatus.getLastLoggingLineNr();
+
+      // Also pass the remote log to this log channel as BASIC logging...
+      // TODO: make this configurable and split up the log lines individually so we can do a better job of this.
+      // Now it's a bit garbled
+      //
+      if ( StringUtils.isNotEmpty( pipelineStatus.getLoggingString() ) ) {
+        logChannel.logBasic( pipelineStatus.getLoggingString() );
+      }
+
+      // If the pipeline is finished, cancel the timer task
+      //
+      if ( finished ) {
+        if ( errors > 0 ) {
+          stopDistributedEngines();
+        }
+        firePipelineExecutionFinishedListeners();
+        if ( refreshTimer != null ) {
           refreshTimer.cancel();
-          logChannel.logBasic( "Execution finished on a remote pipeline engine with run configuration '" + pipelineRunConfiguration.getName() + "'" );
         }
+        logChannel.logBasic( "Execution finished on a remote pipeline engine with run configuration '" + pipelineRunConfiguration.getName() + "'" );
+      }
+    }
+    if ( finished || stopped ) {
+      synchronized ( finishedLock ) {
+        finishedLock.notifyAll();
       }
-    } catch ( Exception e ) {
-      throw new RuntimeException( "Error getting the status of pipeline '" + subject.getName() + "' on hop server '" + hopServer.getName() + "' with object ID '" + containerId + "'", e );
     }
   }
 
@@ -473,19 +615,27 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
   }
 
   @Override public void waitUntilFinished() {
-    while ( ( running || paused || readyToStart ) && !( stopped || finished ) ) {
-      try {
-        Thread.sleep( 1000 );
-      } catch ( Exception e ) {
-        // ignore
+    synchronized ( finishedLock ) {
+      while ( ( running || paused || readyToStart ) && !( stopped || finished ) ) {
+        try {
+          // Woken up as soon as the status update says we're done
+          //
+          finishedLock.wait( 1000 );
+        } catch ( InterruptedException e ) {
+          // ignore
+        }
       }
     }
+    for ( RemotePipelineEngine engine : distributedEngines ) {
+      engine.waitUntilFinished();
+    }
   }
 
   /**
    * Stop the pipeline on the server
    */
   @Override public void stopAll() {
+    stopDistributedEngines();
     try {
       hopServer.stopPipeline( this, subject.getName(), containerId );
       getPipelineStatus();
@@ -820,10 +970,14 @@ public class RemotePipelineEngine extends Variables implements IPipelineEngine<P
   /**
    * Gets errors
    *
-   * @return value of errors
+   * @return The number of errors on this server and on the servers the pipeline is distributed over
    */
   @Override public int getErrors() {
-    return errors;
+    int allErrors = errors;
+    for ( RemotePipelineEngine engine : distributedEngines ) {
+      allErrors += engine.getErrors();
+    }
+    return allErrors;
   }
 
   /**
@@ -74,6 +74,27 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
   @HopMetadataProperty( key = "server_poll_interval" )
   protected String serverPollInterval;
 
+  /**
+   * A comma separated list of the other Hop servers to distribute the copies of the partitioned transforms over
+   */
+  @GuiWidgetElement(
+    order = "50",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.TEXT,
+    label = "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.DistributedHopServers.Label"
+  )
+  @HopMetadataProperty( key = "distributed_hop_servers" )
+  protected String distributedHopServers;
+
+  @GuiWidgetElement(
+    order = "60",
+    parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.CHECKBOX,
+    label = "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.CompressingRows.Label"
+  )
+  @HopMetadataProperty( key = "compress_rows" )
+  protected boolean compressingRows;
+
 
   public RemotePipelineRunConfiguration() {
     super();
@@ -85,6 +106,8 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
     this.runConfigurationName = config.runConfigurationName;
     this.serverPollDelay = config.serverPollDelay;
     this.serverPollInterval = config.serverPollInterval;
+    this.distributedHopServers = config.distributedHopServers;
+    this.compressingRows = config.compressingRows;
   }
 
   public List<String> getHopServerNames( ILogChannel log, IHopMetadataProvider metadataProvider ) {
@@ -178,4 +201,36 @@ public class RemotePipelineRunConfiguration extends EmptyPipelineRunConfiguratio
   public void setServerPollInterval( String serverPollInterval ) {
     this.serverPollInterval = serverPollInterval;
   }
+
+  /**
+   * Gets distributedHopServers
+   *
+   * @return the comma separated list of the other Hop servers to distribute the partitioned transforms over
+   */
+  public String getDistributedHopServers() {
+    return distributedHopServers;
+  }
+
+  /**
+   * @param distributedHopServers The distributedHopServers to set
+   */
+  public void setDistributedHopServers( String distributedHopServers ) {
+    this.distributedHopServers = distributedHopServers;
+  }
+
+  /**
+   * Gets compressingRows
+   *
+   * @return true if the rows sent between the servers are compressed
+   */
+  public boolean isCompressingRows() {
+    return compressingRows;
+  }
+
+  /**
+   * @param compressingRows The compressingRows to set
+   */
+  public void setCompressingRows( boolean compressingRows ) {
+    this.compressingRows = compressingRows;
+  }
 }
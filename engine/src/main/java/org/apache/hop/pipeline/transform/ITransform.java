@@ -29,6 +29,7 @@ import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 import java.util.Collection;
@@ -414,6 +415,15 @@ public interface ITransform<Meta extends ITransformMeta, Data extends ITransform
     return Collections.emptyList();
   }
 
+  /**
+   * Transforms can expose metrics of their own next to the standard row counters, for example the lag of a consumer.
+   *
+   * @return The current values of the transform specific metrics, empty by default
+   */
+  default Map<IEngineMetric, Long> getCustomMetrics() {
+    return Collections.emptyMap();
+  }
+
   default void addRowSetToInputRowSets( IRowSet rowSet ) {
     getInputRowSets().add( rowSet );
   }
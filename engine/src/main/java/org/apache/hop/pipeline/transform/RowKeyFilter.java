@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.BloomFilter;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A Bloom filter on the keys of a join or lookup transform, published to the input transforms earlier in the same
+ * pipeline. An input transform subscribing to the filter can drop the rows which can't possibly match a key before
+ * they are sent to the next transforms (semi-join reduction).
+ * <p>
+ * The subscribers register during initialization, before any transform starts processing rows. This way the
+ * publisher only spends the time and memory to build a filter when somebody is going to use it. The filter is
+ * shared through the extension data map of the pipeline.
+ */
+public class RowKeyFilter {
+
+  private final IRowMeta keyMeta;
+  private final BloomFilter bloomFilter;
+
+  private RowKeyFilter( IRowMeta keyMeta, BloomFilter bloomFilter ) {
+    this.keyMeta = keyMeta;
+    this.bloomFilter = bloomFilter;
+  }
+
+  /**
+   * @return The metadata of the keys in the filter, in normal storage
+   */
+  public IRowMeta getKeyMeta() {
+    return keyMeta;
+  }
+
+  /**
+   * @param keyData The key, in normal storage and of the data types of the key metadata
+   * @return false if the key certainly isn't in the filter
+   */
+  public boolean mightContain( Object[] keyData ) throws HopValueException {
+    return bloomFilter.mightContain( keyMeta.hashCode( keyData ) );
+  }
+
+  /**
+   * Create a matcher to test the rows of a subscribing transform with.
+   *
+   * @param rowMeta    The metadata of the rows to test
+   * @param fieldNames The names of the key fields in these rows, in the same order as the keys of the filter
+   * @return The matcher
+   * @throws HopException in case a field can't be found or the number of fields doesn't match the filter
+   */
+  public Matcher createMatcher( IRowMeta rowMeta, String[] fieldNames ) throws HopException {
+    if ( fieldNames.length != keyMeta.size() ) {
+      throw new HopException( "The Bloom filter has " + keyMeta.size() + " key fields " + Arrays.toString(
+        keyMeta.getFieldNames() ) + ", " + fieldNames.length + " fields were specified to filter on" );
+    }
+    return new Matcher( rowMeta, fieldNames );
+  }
+
+  /**
+   * Tests the rows of a subscribing transform against the filter. Key values are converted to the data type of the
+   * keys in the filter if needed.
+   */
+  public class Matcher {
+    private final IRowMeta rowMeta;
+    private final int[] fieldNrs;
+    private final IValueMeta[] normalMetas;
+    private final boolean[] converting;
+
+    private Matcher( IRowMeta rowMeta, String[] fieldNames ) throws HopException {
+      this.rowMeta = rowMeta;
+      this.fieldNrs = new int[ fieldNames.length ];
+      this.normalMetas = new IValueMeta[ fieldNames.length ];
+      this.converting = new boolean[ fieldNames.length ];
+      for ( int i = 0; i < fieldNames.length; i++ ) {
+        fieldNrs[ i ] = rowMeta.indexOfValue( fieldNames[ i ] );
+        if ( fieldNrs[ i ] < 0 ) {
+          throw new HopException( "Unable to find field [" + fieldNames[ i ] + "] to filter on with the Bloom filter" );
+        }
+        normalMetas[ i ] = rowMeta.getValueMeta( fieldNrs[ i ] ).clone();
+        normalMetas[ i ].setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
+        converting[ i ] = normalMetas[ i ].getType() != keyMeta.getValueMeta( i ).getType();
+      }
+    }
+
+    /**
+     * @return false if the key of the row certainly isn't in the filter
+     */
+    public boolean matches( Object[] row ) throws HopValueException {
+      Object[] keyData = new Object[ fieldNrs.length ];
+      for ( int i = 0; i < fieldNrs.length; i++ ) {
+        Object value = rowMeta.getValueMeta( fieldNrs[ i ] ).convertToNormalStorageType( row[ fieldNrs[ i ] ] );
+        if ( converting[ i ] ) {
+          try {
+            value = keyMeta.getValueMeta( i ).convertData( normalMetas[ i ], value );
+          } catch ( HopValueException e ) {
+            // A value which can't be converted to the type of the keys can't match any of them
+            return false;
+          }
+        }
+        keyData[ i ] = value;
+      }
+      return mightContain( keyData );
+    }
+  }
+
+  /**
+   * Collects the keys of a publishing transform to create the filter with.
+   */
+  public static class Builder {
+    private final IRowMeta keyMeta;
+    private int[] hashCodes = new int[ 1024 ];
+    private int size;
+
+    /**
+     * @param keyMeta The metadata of the keys, in normal storage
+     */
+    public Builder( IRowMeta keyMeta ) {
+      this.keyMeta = keyMeta;
+    }
+
+    /**
+     * @param keyData The key to add, in normal storage
+     */
+    public void add( Object[] keyData ) throws HopValueException {
+      if ( size == hashCodes.length ) {
+        hashCodes = Arrays.copyOf( hashCodes, size * 2 );
+      }
+      hashCodes[ size++ ] = keyMeta.hashCode( keyData );
+    }
+
+    public RowKeyFilter build() {
+      BloomFilter bloomFilter = new BloomFilter( size, BloomFilter.DEFAULT_FALSE_POSITIVE_RATE );
+      for ( int i = 0; i < size; i++ ) {
+        bloomFilter.add( hashCodes[ i ] );
+      }
+      hashCodes = null;
+      return new RowKeyFilter( keyMeta, bloomFilter );
+    }
+  }
+
+  /**
+   * The place where a publisher leaves its filter for the subscribers
+   */
+  private static class Slot {
+    private boolean published;
+    private RowKeyFilter filter;
+  }
+
+  private static Slot getSlot( IPipelineEngine<?> pipeline, String publisherName, boolean create ) {
+    String key = RowKeyFilter.class.getName() + ":" + publisherName;
+    Map<String, Object> map = pipeline.getExtensionDataMap();
+    if ( map == null ) {
+      return null;
+    }
+    synchronized ( map ) {
+      Slot slot = (Slot) map.get( key );
+      if ( slot == null && create ) {
+        slot = new Slot();
+        map.put( key, slot );
+      }
+      return slot;
+    }
+  }
+
+  /**
+   * Ask a transform to publish a filter on its keys. Call this when the subscribing transform initializes.
+   *
+   * @param pipeline      The pipeline both transforms run in
+   * @param publisherName The name of the join or lookup transform to get the filter from
+   */
+  public static void subscribe( IPipelineEngine<?> pipeline, String publisherName ) {
+    getSlot( pipeline, publisherName, true );
+  }
+
+  /**
+   * @return true if an input transform asked the given transform to publish a filter
+   */
+  public static boolean isSubscribed( IPipelineEngine<?> pipeline, String publisherName ) {
+    return getSlot( pipeline, publisherName, false ) != null;
+  }
+
+  /**
+   * Publish the filter of a transform to its subscribers.
+   *
+   * @param pipeline      The pipeline the transform runs in
+   * @param publisherName The name of the publishing transform
+   * @param filter        The filter or null if the subscribers need to let all rows pass
+   */
+  public static void publish( IPipelineEngine<?> pipeline, String publisherName, RowKeyFilter filter ) {
+    Slot slot = getSlot( pipeline, publisherName, true );
+    if ( slot == null ) {
+      return;
+    }
+    synchronized ( slot ) {
+      slot.filter = filter;
+      slot.published = true;
+      slot.notifyAll();
+    }
+  }
+
+  /**
+   * Wait until the given transform published its filter.
+   *
+   * @param pipeline      The pipeline both transforms run in
+   * @param publisherName The name of the join or lookup transform to get the filter from
+   * @param stopped       Tells us to stop waiting
+   * @return The filter or null if all rows need to pass, also when the transform finished without publishing one
+   * @throws HopException In case we were stopped or interrupted
+   */
+  public static RowKeyFilter waitFor( IPipelineEngine<?> pipeline, String publisherName, BooleanSupplier stopped )
+    throws HopException {
+    Slot slot = getSlot( pipeline, publisherName, true );
+    if ( slot == null ) {
+      return null;
+    }
+    try {
+      synchronized ( slot ) {
+        while ( !slot.published ) {
+          if ( stopped.getAsBoolean() ) {
+            throw new HopException( "Stopped while waiting for the Bloom filter of transform [" + publisherName + "]" );
+          }
+          if ( isFinished( pipeline, publisherName ) ) {
+            return null;
+          }
+          slot.wait( 100 );
+        }
+        return slot.filter;
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while waiting for the Bloom filter of transform [" + publisherName + "]", e );
+    }
+  }
+
+  private static boolean isFinished( IPipelineEngine<?> pipeline, String publisherName ) {
+    List<IEngineComponent> copies = pipeline.getComponentCopies( publisherName );
+    if ( copies == null || copies.isEmpty() ) {
+      return true;
+    }
+    for ( IEngineComponent copy : copies ) {
+      ComponentExecutionStatus status = copy.getStatus();
+      if ( status != ComponentExecutionStatus.STATUS_FINISHED
+        && status != ComponentExecutionStatus.STATUS_STOPPED
+        && status != ComponentExecutionStatus.STATUS_DISPOSED
+        && status != ComponentExecutionStatus.STATUS_HALTED ) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -33,6 +33,7 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
 import java.sql.ResultSet;
@@ -171,7 +172,9 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
           }
 
           if ( data.thisrow != null ) {
-            putRow( data.rowMeta, data.thisrow ); // fill the rowset(s). (wait for empty)
+            if ( passesBloomFilter( data.thisrow ) ) {
+              putRow( data.rowMeta, data.thisrow ); // fill the rowset(s). (wait for empty)
+            }
             data.thisrow = data.nextrow;
 
             if ( checkFeedback( getLinesInput() ) ) {
@@ -190,7 +193,9 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
         return false; // end of data or error.
       }
     } else {
-      putRow( data.rowMeta, data.thisrow ); // fill the rowset(s). (wait for empty)
+      if ( passesBloomFilter( data.thisrow ) ) {
+        putRow( data.rowMeta, data.thisrow ); // fill the rowset(s). (wait for empty)
+      }
       data.thisrow = data.nextrow;
 
       if ( checkFeedback( getLinesInput() ) ) {
@@ -203,13 +208,39 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
     return true;
   }
 
+  /**
+   * Test a row against the Bloom filter of the lookup transform. The first time around we wait until the filter is
+   * published.
+   *
+   * @return false if the row can't match any key of the lookup transform and can be dropped
+   */
+  private boolean passesBloomFilter( Object[] row ) throws HopException {
+    if ( data.bloomFilterTransform == null ) {
+      return true;
+    }
+    if ( data.bloomFilterMatcher == null ) {
+      RowKeyFilter filter = RowKeyFilter.waitFor( getPipeline(), data.bloomFilterTransform, this::isStopped );
+      if ( filter == null ) {
+        logBasic( BaseMessages.getString( PKG, "TableInput.Log.BloomFilterNotPublished", data.bloomFilterTransform ) );
+        data.bloomFilterTransform = null;
+        return true;
+      }
+      data.bloomFilterMatcher = filter.createMatcher( data.rowMeta, data.bloomFilterFields );
+    }
+    if ( data.bloomFilterMatcher.matches( row ) ) {
+      return true;
+    }
+    data.bloomFilterDropped++;
+    return false;
+  }
+
   private void closePreviousQuery() throws HopDatabaseException {
     if ( data.db != null ) {
       data.db.closeQuery( data.rs );
     }
   }
 
-  private boolean doQuery( IRowMeta parametersMeta, Object[] parameters ) throws HopDatabaseException {
+  private boolean doQuery( IRowMeta parametersMeta, Object[] parameters ) throws HopException {
     boolean success = true;
 
     // Open the query with the optional parameters received from the source transforms.
@@ -220,6 +251,13 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
       sql = meta.getSql();
     }
 
+    if ( data.partition != null ) {
+      data.partition.prepare( sql, parametersMeta, parameters );
+      sql = data.partition.getSql();
+      parametersMeta = data.partition.getParametersMeta();
+      parameters = data.partition.getParameters();
+    }
+
     if ( log.isDetailed() ) {
       logDetailed( "SQL query : " + sql );
     }
@@ -260,6 +298,10 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
   public void dispose() {
     if ( log.isBasic() ) {
       logBasic( "Finished reading query, closing connection." );
+      if ( data.bloomFilterDropped > 0 ) {
+        logBasic( BaseMessages.getString( PKG, "TableInput.Log.BloomFilterDropped", data.bloomFilterDropped,
+          data.bloomFilterTransform ) );
+      }
     }
     try {
       closePreviousQuery();
@@ -330,6 +372,29 @@ public class TableInput extends BaseTransform<TableInputMeta, TableInputData> im
           logDetailed( "Connected to database..." );
         }
 
+        // Split the rows over the copies of this transform?
+        //
+        int nrCopies = getTransformMeta().getCopies( this );
+        if ( meta.isPartitioningRows() && nrCopies > 1 ) {
+          data.partition = new TableInputPartition( data.db, meta.getPartitionMethod(),
+            resolve( meta.getPartitionField() ), getCopy(), nrCopies, getPipeline(), getTransformName() );
+          if ( log.isDetailed() ) {
+            logDetailed( "Reading part " + ( getCopy() + 1 ) + " of " + nrCopies + " of the rows, split on field ["
+              + resolve( meta.getPartitionField() ) + "] with method " + meta.getPartitionMethod() );
+          }
+        }
+
+        // Ask the lookup transform for a Bloom filter on its keys before it starts reading them
+        //
+        if ( meta.isBloomFiltering() ) {
+          data.bloomFilterTransform = resolve( meta.getBloomFilterTransform() );
+          data.bloomFilterFields = resolve( meta.getBloomFilterFields() ).split( "," );
+          for ( int i = 0; i < data.bloomFilterFields.length; i++ ) {
+            data.bloomFilterFields[ i ] = data.bloomFilterFields[ i ].trim();
+          }
+          RowKeyFilter.subscribe( getPipeline(), data.bloomFilterTransform );
+        }
+
         return true;
       } catch ( HopException e ) {
         logError( "An error occurred, processing will be stopped: " + e.getMessage() );
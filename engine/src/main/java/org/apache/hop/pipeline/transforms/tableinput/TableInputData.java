@@ -22,6 +22,7 @@ import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
 import org.apache.hop.pipeline.transform.errorhandling.IStream;
 
 import java.sql.ResultSet;
@@ -40,6 +41,14 @@ public class TableInputData extends BaseTransformData implements ITransformData
   public IRowSet rowSet;
   public boolean isCanceled;
   public IStream infoStream;
+  /** The part of the rows this copy reads, null if it reads all of them */
+  public TableInputPartition partition;
+  /** The transform to take the Bloom filter from and the fields to test, null if all rows pass */
+  public String bloomFilterTransform;
+  public String[] bloomFilterFields;
+  /** Tests the rows against the Bloom filter, null as long as the filter wasn't received or if all rows pass */
+  public RowKeyFilter.Matcher bloomFilterMatcher;
+  public long bloomFilterDropped;
 
   public TableInputData() {
     super();
@@ -89,6 +89,31 @@ public class TableInputMeta extends BaseTransformMeta
   @Injection(name = "REPLACE_VARIABLES")
   private boolean variableReplacementActive;
 
+  public static final String PARTITION_METHOD_NONE = "none";
+  public static final String PARTITION_METHOD_RANGE = "range";
+  public static final String PARTITION_METHOD_QUANTILE = "quantile";
+  public static final String PARTITION_METHOD_MODULO = "modulo";
+
+  public static final String[] PARTITION_METHODS = {
+    PARTITION_METHOD_NONE, PARTITION_METHOD_RANGE, PARTITION_METHOD_QUANTILE, PARTITION_METHOD_MODULO
+  };
+
+  /** How the rows are split over the copies of the transform, see PARTITION_METHODS */
+  @Injection(name = "PARTITION_METHOD")
+  private String partitionMethod;
+
+  /** The field to split the rows over the copies of the transform on */
+  @Injection(name = "PARTITION_FIELD")
+  private String partitionField;
+
+  /** The join or lookup transform to take a Bloom filter on its keys from */
+  @Injection(name = "BLOOM_FILTER_TRANSFORM")
+  private String bloomFilterTransform;
+
+  /** The comma separated fields to test against the Bloom filter, in the order of the keys */
+  @Injection(name = "BLOOM_FILTER_FIELDS")
+  private String bloomFilterFields;
+
   public TableInputMeta() {
     super();
   }
@@ -132,6 +157,58 @@ public class TableInputMeta extends BaseTransformMeta
     this.rowLimit = rowLimit;
   }
 
+  /** @return The method to split the rows over the copies of the transform with */
+  public String getPartitionMethod() {
+    return partitionMethod;
+  }
+
+  /** @param partitionMethod The method to split the rows over the copies of the transform with */
+  public void setPartitionMethod(String partitionMethod) {
+    this.partitionMethod = partitionMethod;
+  }
+
+  /** @return true if the rows are split over the copies of the transform */
+  public boolean isPartitioningRows() {
+    return !Utils.isEmpty(partitionMethod)
+        && !PARTITION_METHOD_NONE.equals(partitionMethod)
+        && !Utils.isEmpty(partitionField);
+  }
+
+  /** @return The field to split the rows over the copies of the transform on */
+  public String getPartitionField() {
+    return partitionField;
+  }
+
+  /** @param partitionField The field to split the rows over the copies of the transform on */
+  public void setPartitionField(String partitionField) {
+    this.partitionField = partitionField;
+  }
+
+  /** @return The join or lookup transform to take a Bloom filter on its keys from */
+  public String getBloomFilterTransform() {
+    return bloomFilterTransform;
+  }
+
+  /** @param bloomFilterTransform The join or lookup transform to take a Bloom filter from */
+  public void setBloomFilterTransform(String bloomFilterTransform) {
+    this.bloomFilterTransform = bloomFilterTransform;
+  }
+
+  /** @return The comma separated fields to test against the Bloom filter */
+  public String getBloomFilterFields() {
+    return bloomFilterFields;
+  }
+
+  /** @param bloomFilterFields The comma separated fields to test against the Bloom filter */
+  public void setBloomFilterFields(String bloomFilterFields) {
+    this.bloomFilterFields = bloomFilterFields;
+  }
+
+  /** @return true if rows which can't match the keys of another transform are dropped */
+  public boolean isBloomFiltering() {
+    return !Utils.isEmpty(bloomFilterTransform) && !Utils.isEmpty(bloomFilterFields);
+  }
+
   /** @return Returns the sql. */
   public String getSql() {
     return sql;
@@ -169,6 +246,11 @@ public class TableInputMeta extends BaseTransformMeta
       executeEachInputRow = "Y".equals(XmlHandler.getTagValue(transformNode, "execute_each_row"));
       variableReplacementActive =
           "Y".equals(XmlHandler.getTagValue(transformNode, "variables_active"));
+      partitionMethod =
+          Const.NVL(XmlHandler.getTagValue(transformNode, "partition_method"), PARTITION_METHOD_NONE);
+      partitionField = XmlHandler.getTagValue(transformNode, "partition_field");
+      bloomFilterTransform = XmlHandler.getTagValue(transformNode, "bloom_filter_transform");
+      bloomFilterFields = XmlHandler.getTagValue(transformNode, "bloom_filter_fields");
     } catch (Exception e) {
       throw new HopXmlException("Unable to load transform info from XML", e);
     }
@@ -178,6 +260,10 @@ public class TableInputMeta extends BaseTransformMeta
     databaseMeta = null;
     sql = "SELECT <values> FROM <table name> WHERE <conditions>";
     rowLimit = "0";
+    partitionMethod = PARTITION_METHOD_NONE;
+    partitionField = null;
+    bloomFilterTransform = null;
+    bloomFilterFields = null;
   }
 
   public void getFields(
@@ -268,6 +354,10 @@ public class TableInputMeta extends BaseTransformMeta
     retval.append("    " + XmlHandler.addTagValue("lookup", infoStream.getTransformName()));
     retval.append("    " + XmlHandler.addTagValue("execute_each_row", executeEachInputRow));
     retval.append("    " + XmlHandler.addTagValue("variables_active", variableReplacementActive));
+    retval.append("    " + XmlHandler.addTagValue("partition_method", partitionMethod));
+    retval.append("    " + XmlHandler.addTagValue("partition_field", partitionField));
+    retval.append("    " + XmlHandler.addTagValue("bloom_filter_transform", bloomFilterTransform));
+    retval.append("    " + XmlHandler.addTagValue("bloom_filter_fields", bloomFilterFields));
 
     return retval.toString();
   }
@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The part of the result of a Table Input query which is read by one transform copy.
+ * <p>
+ * The query is wrapped in a sub-query and every copy adds a predicate on the split field so that the copies read
+ * disjoint parts of the result, in parallel, over their own connection. Rows with a null split field are read by the
+ * first copy.
+ * <ul>
+ * <li>range: the range between the minimum and the maximum of the split field is divided in equal parts</li>
+ * <li>quantile: the boundaries are probed with counts so that all copies read about the same number of rows</li>
+ * <li>modulo: the remainder of the split field divided by the number of copies selects the copy</li>
+ * </ul>
+ * The range and quantile boundaries are probed once per query, by the first copy to get there, and shared with the
+ * other copies of the transform in the pipeline. The copies read the table in separate transactions, so the parts
+ * only add up to the result of the query if the table doesn't change while it is read.
+ */
+public class TableInputPartition {
+
+  static final String ALIAS = "hop_partition";
+
+  private final Database db;
+  private final IPipelineEngine<?> pipeline;
+  private final String transformName;
+  private final DatabaseMeta databaseMeta;
+  private final String method;
+  private final String field;
+  private final int partitionNr;
+  private final int nrPartitions;
+
+  private String sql;
+  private IRowMeta parametersMeta;
+  private Object[] parameters;
+
+  /**
+   * @param db           the connection to probe the boundaries with
+   * @param method       the partition method, see TableInputMeta.PARTITION_METHOD_*
+   * @param field        the name of the field to split the rows on
+   * @param partitionNr  the number of the part to read, starting at 0
+   * @param nrPartitions the number of parts the rows are split in
+   */
+  public TableInputPartition( Database db, String method, String field, int partitionNr, int nrPartitions ) {
+    this( db, method, field, partitionNr, nrPartitions, null, null );
+  }
+
+  /**
+   * @param db            the connection to probe the boundaries with
+   * @param method        the partition method, see TableInputMeta.PARTITION_METHOD_*
+   * @param field         the name of the field to split the rows on
+   * @param partitionNr   the number of the part to read, starting at 0
+   * @param nrPartitions  the number of parts the rows are split in
+   * @param pipeline      the pipeline to share the boundaries with the other copies in, null to probe them per copy
+   * @param transformName the name of the transform the copies belong to
+   */
+  public TableInputPartition( Database db, String method, String field, int partitionNr, int nrPartitions,
+                              IPipelineEngine<?> pipeline, String transformName ) {
+    this.db = db;
+    this.pipeline = pipeline;
+    this.transformName = transformName;
+    this.databaseMeta = db.getDatabaseMeta();
+    this.method = method;
+    this.field = field;
+    this.partitionNr = partitionNr;
+    this.nrPartitions = nrPartitions;
+  }
+
+  /**
+   * Calculate the query reading this part of the rows of the given query.
+   *
+   * @param query          the query to split
+   * @param queryParamsMeta the metadata of the parameters of the query, can be empty
+   * @param queryParams    the parameters of the query
+   * @throws HopException in case the boundaries can't be determined
+   */
+  public void prepare( String query, IRowMeta queryParamsMeta, Object[] queryParams ) throws HopException {
+    String from = "FROM ( " + stripSemicolon( query ) + " ) " + ALIAS + Const.CR;
+    String column = ALIAS + "." + databaseMeta.quoteField( field );
+
+    parametersMeta = queryParamsMeta == null ? new RowMeta() : queryParamsMeta.clone();
+    List<Object> values =
+      queryParams == null ? new ArrayList<>() : new ArrayList<>( Arrays.asList( queryParams ) );
+
+    String where;
+    if ( TableInputMeta.PARTITION_METHOD_MODULO.equals( method ) ) {
+      where = "ABS(" + databaseMeta.getModuloExpression( column, nrPartitions ) + ") = " + partitionNr;
+      if ( partitionNr == 0 ) {
+        where = where + " OR " + column + " IS NULL";
+      }
+    } else {
+      where = getRangePredicate( from, column, queryParamsMeta, queryParams, values );
+    }
+
+    sql = "SELECT * " + from + "WHERE " + where;
+    parameters = values.toArray();
+  }
+
+  private String getRangePredicate( String from, String column, IRowMeta queryParamsMeta, Object[] queryParams,
+                                    List<Object> values ) throws HopException {
+    Boundaries boundaries = getBoundaries( from, column, queryParamsMeta, queryParams );
+    if ( boundaries.valueMeta == null ) {
+      // Nothing but nulls: the first copy reads everything
+      //
+      return partitionNr == 0 ? "1 = 1" : "1 = 0";
+    }
+
+    StringBuilder where = new StringBuilder();
+    if ( partitionNr > 0 ) {
+      where.append( column ).append( " >= ?" );
+      parametersMeta.addValueMeta( boundaries.valueMeta );
+      values.add( boundaries.values[ partitionNr ] );
+    }
+    if ( partitionNr < nrPartitions - 1 ) {
+      if ( where.length() > 0 ) {
+        where.append( " AND " );
+      }
+      where.append( column ).append( " < ?" );
+      parametersMeta.addValueMeta( boundaries.valueMeta );
+      values.add( boundaries.values[ partitionNr + 1 ] );
+    }
+    if ( partitionNr == 0 ) {
+      where.insert( 0, "( " ).append( " OR " ).append( column ).append( " IS NULL )" );
+    }
+    return where.toString();
+  }
+
+  /**
+   * Get the boundaries of the parts of the given query. The first copy asking for them probes them, the other copies
+   * of the transform wait for the result. Once all copies took them, the boundaries are forgotten.
+   */
+  private Boundaries getBoundaries( String from, String column, IRowMeta queryParamsMeta, Object[] queryParams )
+    throws HopException {
+    Map<String, Object> extensionDataMap = pipeline == null ? null : pipeline.getExtensionDataMap();
+    if ( extensionDataMap == null ) {
+      return probeBoundaries( from, column, queryParamsMeta, queryParams );
+    }
+
+    Map<List<Object>, SharedBoundaries> shared;
+    synchronized ( extensionDataMap ) {
+      @SuppressWarnings( "unchecked" )
+      Map<List<Object>, SharedBoundaries> map = (Map<List<Object>, SharedBoundaries>) extensionDataMap
+        .computeIfAbsent( TableInputPartition.class.getName() + ":" + transformName, key -> new HashMap<>() );
+      shared = map;
+    }
+
+    List<Object> key = new ArrayList<>();
+    key.add( from );
+    if ( queryParams != null ) {
+      key.addAll( Arrays.asList( queryParams ) );
+    }
+    SharedBoundaries boundaries;
+    boolean probe = false;
+    synchronized ( shared ) {
+      boundaries = shared.get( key );
+      if ( boundaries == null ) {
+        boundaries = new SharedBoundaries( nrPartitions );
+        shared.put( key, boundaries );
+        probe = true;
+      }
+      if ( --boundaries.remaining == 0 ) {
+        shared.remove( key );
+      }
+    }
+
+    if ( probe ) {
+      try {
+        boundaries.future.complete( probeBoundaries( from, column, queryParamsMeta, queryParams ) );
+      } catch ( HopException | RuntimeException e ) {
+        boundaries.future.completeExceptionally( e );
+        throw e;
+      }
+    }
+    try {
+      return boundaries.future.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while waiting for the boundaries of the parts of the rows", e );
+    } catch ( ExecutionException e ) {
+      throw new HopException( "Unable to determine the boundaries of the parts of the rows", e.getCause() );
+    }
+  }
+
+  private Boundaries probeBoundaries( String from, String column, IRowMeta queryParamsMeta, Object[] queryParams )
+    throws HopException {
+    RowMetaAndData minMax = db.getOneRow( databaseMeta.stripCR( "SELECT " + databaseMeta.getFunctionMinimum() + "("
+      + column + "), " + databaseMeta.getFunctionMaximum() + "(" + column + "), " + databaseMeta.getFunctionCount()
+      + "(" + column + ") " + from ), emptyToNull( queryParamsMeta ), queryParams );
+    if ( minMax == null || minMax.getData()[ 0 ] == null ) {
+      return new Boundaries( null, null );
+    }
+
+    IValueMeta valueMeta = minMax.getRowMeta().getValueMeta( 0 ).clone();
+    valueMeta.setName( field );
+    Domain domain = new Domain( valueMeta );
+    long min = domain.toLong( minMax.getRowMeta(), minMax.getData(), 0 );
+    long max = domain.toLong( minMax.getRowMeta(), minMax.getData(), 1 );
+    long count = minMax.getRowMeta().getInteger( minMax.getData(), 2 );
+
+    Object[] values = new Object[ nrPartitions ];
+    for ( int nr = 1; nr < nrPartitions; nr++ ) {
+      values[ nr ] = domain.fromLong( getBoundary( domain, nr, min, max, count, from, column, queryParamsMeta,
+        queryParams ) );
+    }
+    return new Boundaries( valueMeta, values );
+  }
+
+  /**
+   * @return the lower boundary of the given part, as a long in the domain of the split field
+   */
+  private long getBoundary( Domain domain, int nr, long min, long max, long count, String from, String column,
+                            IRowMeta queryParamsMeta, Object[] queryParams ) throws HopException {
+    if ( !TableInputMeta.PARTITION_METHOD_QUANTILE.equals( method ) ) {
+      return domain.interpolate( min, max, nr, nrPartitions );
+    }
+
+    // Find the smallest value with at least the target number of rows below it.
+    // Every probe is a count on the split field: it should be indexed.
+    //
+    long target = ( count * nr + nrPartitions - 1 ) / nrPartitions;
+    String countSql = databaseMeta.stripCR( "SELECT " + databaseMeta.getFunctionCount() + "(*) " + from + "WHERE "
+      + column + " < ?" );
+    IRowMeta probeMeta = queryParamsMeta == null ? new RowMeta() : queryParamsMeta.clone();
+    probeMeta.addValueMeta( domain.valueMeta );
+    Object[] probe = Arrays.copyOf( queryParams == null ? new Object[ 0 ] : queryParams, probeMeta.size() );
+
+    long low = min;
+    long high = max;
+    while ( low < high ) {
+      long middle = low + ( ( high - low ) >>> 1 );
+      probe[ probe.length - 1 ] = domain.fromLong( middle );
+      RowMetaAndData below = db.getOneRow( countSql, probeMeta, probe );
+      if ( below.getRowMeta().getInteger( below.getData(), 0 ) >= target ) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  private static IRowMeta emptyToNull( IRowMeta rowMeta ) {
+    return rowMeta == null || rowMeta.isEmpty() ? null : rowMeta;
+  }
+
+  static String stripSemicolon( String query ) {
+    String stripped = Const.rtrim( query );
+    while ( stripped.endsWith( ";" ) ) {
+      stripped = Const.rtrim( stripped.substring( 0, stripped.length() - 1 ) );
+    }
+    return stripped;
+  }
+
+  /**
+   * Map a double on a long keeping the order so that the values can be split and probed as longs.
+   */
+  static long toSortableLong( double value ) {
+    long bits = Double.doubleToLongBits( value );
+    return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+  }
+
+  static double fromSortableLong( long value ) {
+    return Double.longBitsToDouble( value < 0 ? value ^ Long.MAX_VALUE : value );
+  }
+
+  /**
+   * @return min + ( max - min ) * nr / nrParts, calculated without overflow
+   */
+  static long interpolate( long min, long max, int nr, int nrParts ) {
+    BigInteger range = BigInteger.valueOf( max ).subtract( BigInteger.valueOf( min ) );
+    return BigInteger.valueOf( min )
+      .add( range.multiply( BigInteger.valueOf( nr ) ).divide( BigInteger.valueOf( nrParts ) ) ).longValue();
+  }
+
+  /**
+   * The lower boundaries of the parts, the one of part nr at index nr. The value metadata is null if the split field
+   * only contains nulls.
+   */
+  static class Boundaries {
+    final IValueMeta valueMeta;
+    final Object[] values;
+
+    Boundaries( IValueMeta valueMeta, Object[] values ) {
+      this.valueMeta = valueMeta;
+      this.values = values;
+    }
+  }
+
+  /**
+   * The boundaries of a query, probed by one copy for all of them
+   */
+  private static class SharedBoundaries {
+    private final CompletableFuture<Boundaries> future = new CompletableFuture<>();
+    private int remaining;
+
+    SharedBoundaries( int nrCopies ) {
+      this.remaining = nrCopies;
+    }
+  }
+
+  /**
+   * The values of the split field mapped on longs, keeping the order
+   */
+  static class Domain {
+    final IValueMeta valueMeta;
+
+    Domain( IValueMeta valueMeta ) throws HopException {
+      this.valueMeta = valueMeta;
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_INTEGER:
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_BIGNUMBER:
+        case IValueMeta.TYPE_DATE:
+        case IValueMeta.TYPE_TIMESTAMP:
+          break;
+        default:
+          throw new HopException( "Unable to split the rows on field [" + valueMeta.getName() + "] of type "
+            + valueMeta.getTypeDesc() + ": a numeric or date field is required" );
+      }
+    }
+
+    private boolean isDecimal() {
+      return valueMeta.getType() == IValueMeta.TYPE_NUMBER || valueMeta.getType() == IValueMeta.TYPE_BIGNUMBER;
+    }
+
+    long toLong( IRowMeta rowMeta, Object[] row, int index ) throws HopException {
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_INTEGER:
+          return rowMeta.getInteger( row, index );
+        case IValueMeta.TYPE_NUMBER:
+        case IValueMeta.TYPE_BIGNUMBER:
+          return toSortableLong( rowMeta.getNumber( row, index ) );
+        default:
+          return rowMeta.getDate( row, index ).getTime();
+      }
+    }
+
+    Object fromLong( long value ) {
+      switch ( valueMeta.getType() ) {
+        case IValueMeta.TYPE_INTEGER:
+          return value;
+        case IValueMeta.TYPE_NUMBER:
+          return fromSortableLong( value );
+        case IValueMeta.TYPE_BIGNUMBER:
+          return BigDecimal.valueOf( fromSortableLong( value ) );
+        case IValueMeta.TYPE_TIMESTAMP:
+          return new Timestamp( value );
+        default:
+          return new Date( value );
+      }
+    }
+
+    long interpolate( long min, long max, int nr, int nrParts ) {
+      if ( isDecimal() ) {
+        double low = fromSortableLong( min );
+        double high = fromSortableLong( max );
+        return toSortableLong( low + ( high - low ) * nr / nrParts );
+      }
+      return TableInputPartition.interpolate( min, max, nr, nrParts );
+    }
+  }
+
+  /**
+   * @return the query reading this part of the rows
+   */
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * @return the metadata of the parameters of the query, the ones of the original query first
+   */
+  public IRowMeta getParametersMeta() {
+    return parametersMeta;
+  }
+
+  /**
+   * @return the parameters of the query
+   */
+  public Object[] getParameters() {
+    return parameters;
+  }
+}
@@ -54,6 +54,9 @@ import org.apache.hop.www.StartWorkflowServlet;
 import org.apache.hop.www.StopPipelineServlet;
 import org.apache.hop.www.StopWorkflowServlet;
 import org.apache.hop.www.WebResult;
+import org.apache.hop.www.jaxrs.IStatusDeltaListener;
+import org.apache.hop.www.jaxrs.StatusDelta;
+import org.apache.hop.www.jaxrs.StatusDeltaStream;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
@@ -143,6 +146,9 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
   @HopMetadataProperty
   private String webAppName;
 
+  @HopMetadataProperty
+  private String rowSetPort;
+
   @HopMetadataProperty
   private String username;
 
@@ -208,6 +214,7 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     this.hostname = XmlHandler.getTagValue( node, "hostname" );
     this.port = XmlHandler.getTagValue( node, "port" );
     this.webAppName = XmlHandler.getTagValue( node, "webAppName" );
+    this.rowSetPort = XmlHandler.getTagValue( node, "row_set_port" );
     this.username = XmlHandler.getTagValue( node, "username" );
     this.password = Encr.decryptPasswordOptionallyEncrypted( XmlHandler.getTagValue( node, "password" ) );
     this.proxyHostname = XmlHandler.getTagValue( node, "proxy_hostname" );
@@ -239,6 +246,7 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     xml.append( "        " ).append( XmlHandler.addTagValue( "hostname", hostname ) );
     xml.append( "        " ).append( XmlHandler.addTagValue( "port", port ) );
     xml.append( "        " ).append( XmlHandler.addTagValue( "webAppName", webAppName ) );
+    xml.append( "        " ).append( XmlHandler.addTagValue( "row_set_port", rowSetPort ) );
     xml.append( "        " ).append( XmlHandler.addTagValue( "username", username ) );
     xml.append( XmlHandler.addTagValue( "password", Encr.encryptPasswordIfNotUsingVariables( password ), false ) );
     xml.append( "        " ).append( XmlHandler.addTagValue( "proxy_hostname", proxyHostname ) );
@@ -265,6 +273,7 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     this.hostname = hopServer.hostname;
     this.port = hopServer.port;
     this.webAppName = hopServer.webAppName;
+    this.rowSetPort = hopServer.rowSetPort;
     this.username = hopServer.username;
     this.password = hopServer.password;
     this.proxyHostname = hopServer.proxyHostname;
@@ -350,6 +359,20 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     this.webAppName = webAppName;
   }
 
+  /**
+   * @return the port of the server receiving rows from other servers, empty if rows can't be streamed to this server
+   */
+  public String getRowSetPort() {
+    return rowSetPort;
+  }
+
+  /**
+   * @param rowSetPort the port of the server receiving rows from other servers
+   */
+  public void setRowSetPort( String rowSetPort ) {
+    this.rowSetPort = rowSetPort;
+  }
+
   /**
    * @return the nonProxyHosts
    */
@@ -785,6 +808,76 @@ public class HopServer extends HopMetadataBase implements Cloneable, IXml, IHopM
     return HopServerWorkflowStatus.fromXml( xml );
   }
 
+  /**
+   * Follow the status of a pipeline on the server. Changes are pushed by the server and passed to the listener until
+   * the pipeline finished or was stopped.
+   *
+   * @param variables      The variables to resolve the server details with
+   * @param serverObjectId The ID of the pipeline on the server
+   * @param startLogLineNr The first log line to receive
+   * @param listener       The listener to pass the status deltas to
+   * @return true if the last status delta was received, false if the stream was interrupted
+   * @throws Exception In case the server doesn't support status streams or in case of a communication error
+   */
+  public boolean followPipelineStatus( IVariables variables, String serverObjectId, int startLogLineNr, IStatusDeltaListener listener )
+    throws Exception {
+    return followStatusStream( variables, "/api/carte/pipeline/statusStream/" + URLEncoder.encode( serverObjectId, "UTF-8" )
+      + "?from=" + startLogLineNr, listener );
+  }
+
+  /**
+   * Follow the status of a workflow on the server. Changes are pushed by the server and passed to the listener until
+   * the workflow finished or was stopped.
+   *
+   * @param variables      The variables to resolve the server details with
+   * @param serverObjectId The ID of the workflow on the server
+   * @param startLogLineNr The first log line to receive
+   * @param listener       The listener to pass the status deltas to
+   * @return true if the last status delta was received, false if the stream was interrupted
+   * @throws Exception In case the server doesn't support status streams or in case of a communication error
+   */
+  public boolean followWorkflowStatus( IVariables variables, String serverObjectId, int startLogLineNr, IStatusDeltaListener listener )
+    throws Exception {
+    return followStatusStream( variables, "/api/carte/workflow/statusStream/" + URLEncoder.encode( serverObjectId, "UTF-8" )
+      + "?from=" + startLogLineNr, listener );
+  }
+
+  private boolean followStatusStream( IVariables variables, String service, IStatusDeltaListener listener ) throws Exception {
+    HttpGet method = buildExecuteServiceMethod( variables, service, new HashMap<>() );
+    method.setHeader( "Accept", StatusDeltaStream.MEDIA_TYPE );
+    try {
+      HttpResponse httpResponse = getHttpClient().execute( method, getAuthContext( variables ) );
+      StatusLine statusLine = httpResponse.getStatusLine();
+      int statusCode = statusLine.getStatusCode();
+      if ( statusCode >= 400 ) {
+        throw new HopException( String.format( "HTTP Status %d - %s - %s", statusCode, method.getURI().toString(),
+          statusLine.getReasonPhrase() ) );
+      }
+
+      try ( BufferedReader reader = new BufferedReader( new InputStreamReader( httpResponse.getEntity().getContent(), "UTF-8" ) ) ) {
+        String line;
+        StringBuilder data = new StringBuilder();
+        while ( ( line = reader.readLine() ) != null ) {
+          if ( line.startsWith( "data:" ) ) {
+            data.append( line.substring( "data:".length() ).trim() );
+          } else if ( line.isEmpty() && data.length() > 0 ) {
+            // An empty line ends the event
+            //
+            StatusDelta delta = StatusDelta.fromJson( data.toString() );
+            data.setLength( 0 );
+            listener.statusChanged( delta );
+            if ( delta.isLast() ) {
+              return true;
+            }
+          }
+        }
+      }
+      return false;
+    } finally {
+      method.releaseConnection();
+    }
+  }
+
   public WebResult stopPipeline( IVariables variables, String pipelineName, String serverObjectId ) throws Exception {
     String xml =
       execService( variables, StopPipelineServlet.CONTEXT_PATH + "/?name=" + URLEncoder.encode( pipelineName, "UTF-8" ) + "&id="
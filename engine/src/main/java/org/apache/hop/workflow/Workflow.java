@@ -75,6 +75,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -182,6 +183,17 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
 
   protected boolean initializingVariablesOnStart;
 
+  /**
+   * The maximum number of actions to execute in parallel in this workflow, 0 or empty means no limit.
+   * If not set, the value of variable HOP_WORKFLOW_MAX_PARALLEL_ACTIONS is used.
+   */
+  protected String maxParallelActions;
+
+  /**
+   * Executes the actions which are launched in parallel
+   */
+  protected WorkflowActionExecutor actionExecutor;
+
   /**
    * <p>
    * This enum stores bit masks which are used to manipulate with statuses over field {@link Workflow#status}
@@ -388,6 +400,12 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
         beginProcessing();
       }
 
+      int maxParallel = Const.toInt( resolve( maxParallelActions ), -1 );
+      if ( maxParallel < 0 ) {
+        maxParallel = Const.toInt( getVariable( Const.HOP_WORKFLOW_MAX_PARALLEL_ACTIONS ), 0 );
+      }
+      actionExecutor = new WorkflowActionExecutor( getWorkflowName(), maxParallel );
+
       Result res = null;
 
       if ( startActionMeta == null ) {
@@ -642,7 +660,7 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
     // Keep track of all the threads we fired in case of parallel execution...
     // Keep track of the results of these executions too.
     //
-    final List<Thread> threads = new ArrayList<>();
+    final List<Future<?>> futures = new ArrayList<>();
     // next 2 lists is being modified concurrently so must be synchronized for this case.
     final Queue<Result> threadResults = new ConcurrentLinkedQueue<>();
     final Queue<HopException> threadExceptions = new ConcurrentLinkedQueue<>();
@@ -693,6 +711,9 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
         // if (we launch in parallel, fire the execution off in a new thread...
         //
         if ( actionMeta.isLaunchingInParallel() ) {
+          if ( actionExecutor == null ) {
+            actionExecutor = new WorkflowActionExecutor( getWorkflowName(), 0 );
+          }
           threadActions.add( nextAction );
 
           Runnable runnable = () -> {
@@ -709,12 +730,14 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
               threadResults.add( threadResult );
             }
           };
-          Thread thread = new Thread( runnable );
-          threads.add( thread );
-          thread.start();
+          futures.add( actionExecutor.submit( runnable ) );
           if ( log.isBasic() ) {
             log.logBasic( BaseMessages.getString( PKG, "Workflow.Log.LaunchedActionInParallel", nextAction.getName() ) );
           }
+          if ( log.isDetailed() ) {
+            log.logDetailed( BaseMessages.getString( PKG, "Workflow.Log.ParallelActionsStatus", actionExecutor.getNrQueued(),
+              actionExecutor.getNrRunning(), actionExecutor.getNrFinished() ) );
+          }
         } else {
           try {
             // Same as before: blocks until it's done
@@ -737,17 +760,17 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
     // finish...
     //
     if ( actionMeta.isLaunchingInParallel() ) {
-      for ( int i = 0; i < threads.size(); i++ ) {
-        Thread thread = threads.get( i );
-        ActionMeta nextAction = threadActions.get( i );
-
-        try {
-          thread.join();
-        } catch ( InterruptedException e ) {
-          log.logError( workflowMeta.toString(), BaseMessages.getString( PKG,
-            "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextAction.getName() ) );
-          threadExceptions.add( new HopException( BaseMessages.getString( PKG,
-            "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextAction.getName() ), e ) );
+      try {
+        actionExecutor.waitFor( futures );
+      } catch ( InterruptedException e ) {
+        for ( int i = 0; i < futures.size(); i++ ) {
+          if ( !futures.get( i ).isDone() ) {
+            ActionMeta nextAction = threadActions.get( i );
+            log.logError( workflowMeta.toString(), BaseMessages.getString( PKG,
+              "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextAction.getName() ) );
+            threadExceptions.add( new HopException( BaseMessages.getString( PKG,
+              "Workflow.Log.UnexpectedErrorWhileWaitingForAction", nextAction.getName() ), e ) );
+          }
         }
       }
     }
@@ -1507,4 +1530,30 @@ public abstract class Workflow extends Variables implements IVariables, INamedPa
   public void setInitializingVariablesOnStart( boolean initializingVariablesOnStart ) {
     this.initializingVariablesOnStart = initializingVariablesOnStart;
   }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return value of maxParallelActions
+   */
+  public String getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @param maxParallelActions The maximum number of actions to run in parallel to set, 0 means no limit
+   */
+  public void setMaxParallelActions( String maxParallelActions ) {
+    this.maxParallelActions = maxParallelActions;
+  }
+
+  /**
+   * Gets the executor of the actions launched in parallel. It gives access to the number of queued, running and
+   * finished parallel actions.
+   *
+   * @return value of actionExecutor, null if the workflow didn't start yet
+   */
+  public WorkflowActionExecutor getActionExecutor() {
+    return actionExecutor;
+  }
 }
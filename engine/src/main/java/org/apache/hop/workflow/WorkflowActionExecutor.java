@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.workflow;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes the actions which are launched in parallel in a workflow.
+ * <p>
+ * The number of worker threads is limited to the configured maximum. Actions which can't be started right away are
+ * queued and picked up by the first worker which becomes available. A thread waiting for its parallel actions to
+ * finish helps out by executing queued actions itself. That way nested parallel branches can never dead-lock the
+ * executor, no matter how small the limit is.
+ * <p>
+ * A maximum of 0 or lower means that there is no limit: every action gets its own thread, like before.
+ */
+public class WorkflowActionExecutor {
+
+  private final String name;
+  private final int maxParallelActions;
+
+  private final ConcurrentLinkedQueue<FutureTask<?>> queue;
+  private final AtomicInteger workers;
+  private final AtomicLong threadNr;
+
+  private final AtomicInteger queued;
+  private final AtomicInteger running;
+  private final AtomicLong finished;
+
+  public WorkflowActionExecutor( String name, int maxParallelActions ) {
+    this.name = name;
+    this.maxParallelActions = maxParallelActions;
+    this.queue = new ConcurrentLinkedQueue<>();
+    this.workers = new AtomicInteger( 0 );
+    this.threadNr = new AtomicLong( 0 );
+    this.queued = new AtomicInteger( 0 );
+    this.running = new AtomicInteger( 0 );
+    this.finished = new AtomicLong( 0 );
+  }
+
+  /**
+   * Submit an action for execution. It's either started right away or queued until a worker becomes available.
+   *
+   * @param runnable The action execution to run
+   * @return The future to wait for with {@link #waitFor(List)}
+   */
+  public Future<?> submit( Runnable runnable ) {
+    FutureTask<?> task = new FutureTask<>( () -> runTask( runnable ), null );
+
+    if ( maxParallelActions <= 0 ) {
+      startWorker( task );
+      return task;
+    }
+
+    queued.incrementAndGet();
+    queue.add( task );
+
+    // Start an extra worker if we're still below the limit
+    //
+    int current = workers.get();
+    while ( current < maxParallelActions ) {
+      if ( workers.compareAndSet( current, current + 1 ) ) {
+        startWorker( null );
+        break;
+      }
+      current = workers.get();
+    }
+    return task;
+  }
+
+  /**
+   * Wait for the given actions to finish. While there is queued work, the calling thread executes it rather than
+   * sitting idle.
+   *
+   * @param futures the actions to wait for
+   * @throws InterruptedException in case the waiting thread was interrupted
+   */
+  public void waitFor( List<Future<?>> futures ) throws InterruptedException {
+    for ( Future<?> future : futures ) {
+      while ( !future.isDone() ) {
+        FutureTask<?> task = pollTask();
+        if ( task != null ) {
+          task.run();
+        } else {
+          try {
+            future.get();
+          } catch ( ExecutionException e ) {
+            // Errors are handled by the runnable itself
+          }
+        }
+      }
+    }
+  }
+
+  private FutureTask<?> pollTask() {
+    FutureTask<?> task = queue.poll();
+    if ( task != null ) {
+      queued.decrementAndGet();
+    }
+    return task;
+  }
+
+  private void runTask( Runnable runnable ) {
+    running.incrementAndGet();
+    try {
+      runnable.run();
+    } finally {
+      running.decrementAndGet();
+      finished.incrementAndGet();
+    }
+  }
+
+  private void startWorker( FutureTask<?> task ) {
+    Runnable worker;
+    if ( task != null ) {
+      worker = task;
+    } else {
+      worker = () -> {
+        while ( true ) {
+          FutureTask<?> next = pollTask();
+          while ( next != null ) {
+            next.run();
+            next = pollTask();
+          }
+          workers.decrementAndGet();
+
+          // An action could have been queued right after the last poll while we were still counted as a worker.
+          // In that case we try to claim our slot back and continue working.
+          //
+          if ( queue.isEmpty() ) {
+            return;
+          }
+          int current = workers.get();
+          if ( current >= maxParallelActions || !workers.compareAndSet( current, current + 1 ) ) {
+            return;
+          }
+        }
+      };
+    }
+    Thread thread = new Thread( worker, name + " - action executor " + threadNr.incrementAndGet() );
+    thread.start();
+  }
+
+  /**
+   * Gets the name
+   *
+   * @return value of name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return the maximum number of actions running in parallel, 0 or lower means unlimited
+   */
+  public int getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @return the number of actions waiting for a worker to become available
+   */
+  public int getNrQueued() {
+    return queued.get();
+  }
+
+  /**
+   * @return the number of actions currently being executed
+   */
+  public int getNrRunning() {
+    return running.get();
+  }
+
+  /**
+   * @return the number of actions which finished executing
+   */
+  public long getNrFinished() {
+    return finished.get();
+  }
+}
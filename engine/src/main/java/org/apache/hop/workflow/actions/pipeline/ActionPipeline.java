@@ -400,7 +400,12 @@ public class ActionPipeline extends ActionBase implements Cloneable, IAction {
 
     RowMetaAndData resultRow = null;
     boolean first = true;
-    List<RowMetaAndData> rows = new ArrayList<>( result.getRows() );
+    List<RowMetaAndData> rows = result.getRows();
+    if ( execPerRow ) {
+      // The result rows are cleared for every execution, keep the input rows
+      //
+      result.setRows( new ArrayList<>() );
+    }
 
     while ( ( first && !execPerRow )
       || ( execPerRow && rows != null && iteration < rows.size() && result.getNrErrors() == 0 )
@@ -640,9 +645,11 @@ public class ActionPipeline extends ActionBase implements Cloneable, IAction {
 
   protected void updateResult( Result result ) {
     Result newResult = pipeline.getResult();
+    List<RowMetaAndData> newRows = newResult.getRows();
+    newResult.setRows( new ArrayList<>() ); // the rows are replaced below, don't copy them first
     result.clear(); // clear only the numbers, NOT the files or rows.
     result.add( newResult );
-    result.setRows( newResult.getRows() );
+    result.setRows( newRows );
   }
 
   public PipelineMeta getPipelineMeta( IHopMetadataProvider metadataProvider, IVariables variables ) throws HopException {
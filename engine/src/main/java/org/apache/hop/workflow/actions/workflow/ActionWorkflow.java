@@ -393,7 +393,12 @@ public class ActionWorkflow extends ActionBase implements Cloneable, IAction {
 
       RowMetaAndData resultRow = null;
       boolean first = true;
-      List<RowMetaAndData> rows = new ArrayList<>(result.getRows());
+      List<RowMetaAndData> rows = result.getRows();
+      if (execPerRow) {
+        // The result rows are cleared for every execution, keep the input rows
+        //
+        result.setRows(new ArrayList<>());
+      }
 
       while ((first && !execPerRow)
           || (execPerRow && rows != null && iteration < rows.size() && result.getNrErrors() == 0)) {
@@ -611,14 +616,17 @@ public class ActionWorkflow extends ActionBase implements Cloneable, IAction {
         }
 
         oneResult = runner.getResult();
+        List<RowMetaAndData> oneResultRows = oneResult.getRows();
+        oneResult.setRows(new ArrayList<>()); // the rows are set below, don't copy them first
 
         result.clear(); // clear only the numbers, NOT the files or rows.
         result.add(oneResult);
 
         // Set the result rows too, if any ...
-        if (!Utils.isEmpty(oneResult.getRows())) {
-          result.setRows(new ArrayList<>(oneResult.getRows()));
+        if (!Utils.isEmpty(oneResultRows)) {
+          result.setRows(oneResultRows);
         }
+        oneResult.setRows(oneResultRows);
 
         // if one of them fails (in the loop), increase the number of errors
         //
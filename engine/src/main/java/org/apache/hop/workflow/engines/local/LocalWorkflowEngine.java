@@ -17,6 +17,7 @@
 
 package org.apache.hop.workflow.engines.local;
 
+import org.apache.hop.core.Result;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.workflow.Workflow;
 import org.apache.hop.workflow.WorkflowMeta;
@@ -55,4 +56,13 @@ public class LocalWorkflowEngine extends Workflow implements IWorkflowEngine<Wor
     setWorkflowRunConfiguration( new WorkflowRunConfiguration( "local", "", createDefaultWorkflowEngineRunConfiguration() ) );
   }
 
+  @Override public Result startExecution() {
+    if ( workflowRunConfiguration != null
+      && workflowRunConfiguration.getEngineRunConfiguration() instanceof LocalWorkflowRunConfiguration ) {
+      LocalWorkflowRunConfiguration config = (LocalWorkflowRunConfiguration) workflowRunConfiguration.getEngineRunConfiguration();
+      setMaxParallelActions( config.getMaxParallelActions() );
+    }
+    return super.startExecution();
+  }
+
 }
@@ -37,6 +37,15 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   @HopMetadataProperty(key="safe_mode")
   protected boolean safeModeEnabled;
 
+  @GuiWidgetElement(
+    order = "30",
+    parentId = WorkflowRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+    type = GuiElementType.TEXT,
+    label = "i18n:org.apache.hop.ui.workflow.config:WorkflowRunConfigurationDialog.MaxParallelActions.Label"
+  )
+  @HopMetadataProperty(key="max_parallel_actions")
+  protected String maxParallelActions;
+
   public LocalWorkflowRunConfiguration() {
     super();
     safeModeEnabled = false;
@@ -45,6 +54,7 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   public LocalWorkflowRunConfiguration( LocalWorkflowRunConfiguration config ) {
     super( config );
     this.safeModeEnabled = config.safeModeEnabled;
+    this.maxParallelActions = config.maxParallelActions;
   }
 
   public LocalWorkflowRunConfiguration clone() {
@@ -66,4 +76,20 @@ public class LocalWorkflowRunConfiguration extends EmptyWorkflowRunConfiguration
   public void setSafeModeEnabled( boolean safeModeEnabled ) {
     this.safeModeEnabled = safeModeEnabled;
   }
+
+  /**
+   * Gets maxParallelActions
+   *
+   * @return value of maxParallelActions
+   */
+  public String getMaxParallelActions() {
+    return maxParallelActions;
+  }
+
+  /**
+   * @param maxParallelActions The maximum number of actions running in parallel to set
+   */
+  public void setMaxParallelActions( String maxParallelActions ) {
+    this.maxParallelActions = maxParallelActions;
+  }
 }
@@ -284,6 +284,23 @@ public class RemoteWorkflowEngine extends Variables implements IWorkflowEngine<W
 
   public void monitorRemoteWorkflowUntilFinished() {
     try {
+      // The server pushes the changes in status to us until the workflow is done.
+      // If the server doesn't support this or the stream gets interrupted we fall back to polling.
+      //
+      boolean complete = false;
+      try {
+        HopServerWorkflowStatus streamedStatus = new HopServerWorkflowStatus( workflowMeta.getName(), containerId, null );
+        complete = hopServer.followWorkflowStatus( this, containerId, lastLogLineNr, delta -> {
+          delta.applyTo( streamedStatus );
+          updateWorkflowStatus( streamedStatus );
+        } );
+      } catch ( Exception e ) {
+        logChannel.logDetailed( "Unable to follow the status stream of hop server '" + hopServer.getName() + "', polling instead: " + e.getMessage() );
+      }
+      if ( complete ) {
+        return;
+      }
+
       // Start with a little bit of a wait
       //
       Thread.sleep( serverPollDelay );
@@ -299,25 +316,33 @@ public class RemoteWorkflowEngine extends Variables implements IWorkflowEngine<W
     }
   }
 
-  public synchronized void getWorkflowStatus() throws HopException {
+  public void getWorkflowStatus() throws HopException {
     try {
-      workflowStatus = hopServer.getWorkflowStatus( this, workflowMeta.getName(), containerId, lastLogLineNr );
-      lastLogLineNr = workflowStatus.getLastLoggingLineNr();
-      if ( StringUtils.isNotEmpty( workflowStatus.getLoggingString() ) ) {
-        logChannel.logBasic( workflowStatus.getLoggingString() ); // TODO implement detailed logging and add option to log at all
-      }
-      finished = workflowStatus.isFinished();
-      stopped = workflowStatus.isStopped();
-      running = workflowStatus.isRunning();
-      active = running; // TODO: differentiate
-      statusDescription = workflowStatus.getStatusDescription();
-
-      result = workflowStatus.getResult();
+      updateWorkflowStatus( hopServer.getWorkflowStatus( this, workflowMeta.getName(), containerId, lastLogLineNr ) );
     } catch ( Exception e ) {
       throw new HopException( "Error getting workflow status", e );
     }
   }
 
+  private synchronized void updateWorkflowStatus( HopServerWorkflowStatus workflowStatus ) throws HopException {
+    this.workflowStatus = workflowStatus;
+    lastLogLineNr = workflowStatus.getLastLoggingLineNr();
+    if ( StringUtils.isNotEmpty( workflowStatus.getLoggingString() ) ) {
+      logChannel.logBasic( workflowStatus.getLoggingString() ); // TODO implement detailed logging and add option to log at all
+    }
+    finished = workflowStatus.isFinished();
+    stopped = workflowStatus.isStopped();
+    running = workflowStatus.isRunning();
+    active = running; // TODO: differentiate
+    statusDescription = workflowStatus.getStatusDescription();
+
+    // A streamed status only carries the result once the workflow is done
+    //
+    if ( workflowStatus.getResult() != null ) {
+      result = workflowStatus.getResult();
+    }
+  }
+
   @Override public void stopExecution() {
     try {
       hopServer.stopWorkflow( this, workflowMeta.getName(), containerId );
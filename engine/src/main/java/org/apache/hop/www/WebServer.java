@@ -20,6 +20,7 @@ package org.apache.hop.www;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.RemoteRowSetServer;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.extension.ExtensionPointHandler;
 import org.apache.hop.core.extension.HopExtensionPoint;
@@ -32,6 +33,7 @@ import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.server.HopServer;
+import org.apache.hop.www.jaxrs.StatusDeltaStreamServlet;
 import org.eclipse.jetty.jaas.JAASLoginService;
 import org.eclipse.jetty.security.ConstraintMapping;
 import org.eclipse.jetty.security.ConstraintSecurityHandler;
@@ -84,6 +86,8 @@ public class WebServer {
 
   private SslConfiguration sslConfig;
 
+  private RemoteRowSetServer rowSetServer;
+
   public WebServer( ILogChannel log, PipelineMap pipelineMap, WorkflowMap workflowMap,
                     String hostname, int port, boolean join,
                     String passwordFile ) throws Exception {
@@ -213,6 +217,15 @@ public class WebServer {
       servletContext.addServlet( servletHolder, "/*" );
     }
 
+    // The status streams are asynchronous, Jersey can't serve them
+    //
+    for ( boolean pipeline : new boolean[] { true, false } ) {
+      StatusDeltaStreamServlet statusStreamServlet = new StatusDeltaStreamServlet( pipeline );
+      ServletHolder statusStreamHolder = new ServletHolder( statusStreamServlet );
+      statusStreamHolder.setAsyncSupported( true );
+      root.addServlet( statusStreamHolder, statusStreamServlet.getPathSpec() );
+    }
+
     // setup jersey (REST)
     ServletHolder jerseyServletHolder = new ServletHolder( ServletContainer.class );
     jerseyServletHolder.setInitParameter( "com.sun.jersey.config.property.resourceConfigClass",
@@ -252,6 +265,35 @@ public class WebServer {
     createListeners();
 
     server.start();
+
+    startRowSetServer();
+  }
+
+  /**
+   * Start receiving rows from the other servers a pipeline is distributed over, if a row set port is configured.
+   */
+  private void startRowSetServer() throws HopException {
+    if ( pipelineMap == null ) {
+      return;
+    }
+    HopServer hopServer = pipelineMap.getHopServerConfig().getHopServer();
+    if ( hopServer == null || Utils.isEmpty( hopServer.getRowSetPort() ) ) {
+      return;
+    }
+    int rowSetPort = Const.toInt( variables.resolve( hopServer.getRowSetPort() ), -1 );
+    if ( rowSetPort < 0 ) {
+      throw new HopException( "Invalid remote row set port: " + hopServer.getRowSetPort() );
+    }
+    rowSetServer = new RemoteRowSetServer( hostname, rowSetPort );
+    rowSetServer.start();
+    log.logBasic( BaseMessages.getString( PKG, "WebServer.Log.CreateRowSetListener", hostname, "" + rowSetServer.getPort() ) );
+  }
+
+  /**
+   * @return The server receiving rows from the other servers a pipeline is distributed over, null if not started
+   */
+  public RemoteRowSetServer getRowSetServer() {
+    return rowSetServer;
   }
 
   public String getContextPath( IHopServerPlugin servlet ) {
@@ -283,6 +325,9 @@ public class WebServer {
 
         // Stop the server...
         //
+        if ( rowSetServer != null ) {
+          rowSetServer.stop();
+        }
         server.stop();
         HopEnvironment.shutdown();
         if ( webServerShutdownHandler != null ) {
@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * Receives the status deltas streamed by a Hop server
+ */
+public interface IStatusDeltaListener {
+
+  /**
+   * Called for every status delta received from the server, in order.
+   *
+   * @param delta The changes since the previous delta
+   * @throws HopException
+   */
+  void statusChanged( StatusDelta delta ) throws HopException;
+}
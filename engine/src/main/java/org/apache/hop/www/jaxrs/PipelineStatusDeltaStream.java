@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams the changes in status, transform metrics and logging of a pipeline running on the Hop server.
+ */
+public class PipelineStatusDeltaStream extends StatusDeltaStream {
+
+  private final IPipelineEngine<PipelineMeta> pipeline;
+
+  private String lastStatusDescription;
+  private boolean lastPaused;
+  private boolean datesSent;
+  private final Map<String, String> lastSignatures;
+
+  public PipelineStatusDeltaStream( String id, IPipelineEngine<PipelineMeta> pipeline, int startLogLineNr, long interval ) {
+    super( id, startLogLineNr, interval );
+    this.pipeline = pipeline;
+    this.lastSignatures = new HashMap<>();
+  }
+
+  @Override protected boolean isAvailable() {
+    return HopServerResource.getHopServerObjectEntry( id ) != null;
+  }
+
+  @Override protected boolean isDone() {
+    return pipeline.isFinished() || pipeline.isStopped();
+  }
+
+  @Override protected String getLogChannelId() {
+    return pipeline.getLogChannelId();
+  }
+
+  @Override protected void addChanges( StatusDelta delta, boolean last ) throws HopException {
+    String statusDescription = pipeline.getStatusDescription();
+    boolean paused = pipeline.isPaused();
+    if ( last || lastStatusDescription == null || !lastStatusDescription.equals( statusDescription ) || lastPaused != paused ) {
+      delta.setName( pipeline.getPipelineMeta().getName() );
+      delta.setStatusDescription( statusDescription );
+      delta.setPaused( paused );
+      lastStatusDescription = statusDescription;
+      lastPaused = paused;
+    }
+
+    if ( !datesSent || last ) {
+      delta.setExecutionStartDate( pipeline.getExecutionStartDate() );
+      delta.setExecutionEndDate( pipeline.getExecutionEndDate() );
+      datesSent = pipeline.getExecutionStartDate() != null;
+    }
+
+    for ( IEngineComponent component : pipeline.getComponents() ) {
+      if ( component.isRunning() || component.getStatus() != ComponentExecutionStatus.STATUS_EMPTY ) {
+        TransformStatusDelta transformDelta = new TransformStatusDelta( new TransformStatus( component ) );
+        String key = component.getName() + "." + component.getCopyNr();
+        String signature = transformDelta.getSignature();
+        if ( !signature.equals( lastSignatures.get( key ) ) ) {
+          delta.getTransformStatuses().add( transformDelta );
+          lastSignatures.put( key, signature );
+        }
+      }
+    }
+
+    if ( last ) {
+      Result result = pipeline.getResult();
+      if ( result != null ) {
+        delta.setResultXml( result.getBasicXml() );
+      }
+    }
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.apache.hop.www.HopServerPipelineStatus;
+import org.apache.hop.www.HopServerWorkflowStatus;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A single event of the status stream of a pipeline or workflow running on a Hop server.
+ * It only contains what changed since the previous event: the new log lines and the metrics of the transforms
+ * which changed. The result is only sent with the last event, once the execution finished or was stopped.
+ */
+public class StatusDelta {
+
+  private static final ObjectMapper MAPPER =
+    new ObjectMapper().configure( DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false );
+
+  private String id;
+  private String name;
+  private String statusDescription;
+  private boolean paused;
+  private Date executionStartDate;
+  private Date executionEndDate;
+  private int firstLogLineNr;
+  private int lastLogLineNr;
+  private String logText;
+  private List<TransformStatusDelta> transformStatuses = new ArrayList<>();
+  private String resultXml;
+  private boolean last;
+
+  public StatusDelta() {
+  }
+
+  /**
+   * @return true if anything needs to be sent to the client
+   */
+  @JsonIgnore
+  public boolean hasChanges() {
+    return last || statusDescription != null || !transformStatuses.isEmpty() || ( logText != null && !logText.isEmpty() );
+  }
+
+  public String toJson() throws HopException {
+    try {
+      return MAPPER.writeValueAsString( this );
+    } catch ( Exception e ) {
+      throw new HopException( "Unable to serialize status delta to JSON", e );
+    }
+  }
+
+  public static StatusDelta fromJson( String json ) throws HopException {
+    try {
+      return MAPPER.readValue( json, StatusDelta.class );
+    } catch ( Exception e ) {
+      throw new HopException( "Unable to parse status delta from JSON", e );
+    }
+  }
+
+  /**
+   * Merge this delta into the given pipeline status. The log text of the status is replaced by the new log lines.
+   *
+   * @param status The pipeline status to update
+   * @throws HopException In case the result can't be parsed
+   */
+  public void applyTo( HopServerPipelineStatus status ) throws HopException {
+    status.setId( id );
+    if ( statusDescription != null ) {
+      status.setStatusDescription( statusDescription );
+      status.setPaused( paused );
+    }
+    if ( executionStartDate != null ) {
+      status.setExecutionStartDate( executionStartDate );
+    }
+    if ( executionEndDate != null ) {
+      status.setExecutionEndDate( executionEndDate );
+    }
+    status.setFirstLoggingLineNr( firstLogLineNr );
+    status.setLastLoggingLineNr( lastLogLineNr );
+    status.setLoggingString( logText );
+    status.setLogDate( new Date() );
+
+    List<TransformStatus> statusList = status.getTransformStatusList();
+    for ( TransformStatusDelta transformDelta : transformStatuses ) {
+      boolean found = false;
+      for ( int i = 0; i < statusList.size() && !found; i++ ) {
+        if ( transformDelta.isSameTransform( statusList.get( i ) ) ) {
+          statusList.set( i, transformDelta.toTransformStatus() );
+          found = true;
+        }
+      }
+      if ( !found ) {
+        statusList.add( transformDelta.toTransformStatus() );
+      }
+    }
+
+    Result result = getResult();
+    if ( result != null ) {
+      status.setResult( result );
+    }
+  }
+
+  /**
+   * Merge this delta into the given workflow status. The log text of the status is replaced by the new log lines.
+   *
+   * @param status The workflow status to update
+   * @throws HopException In case the result can't be parsed
+   */
+  public void applyTo( HopServerWorkflowStatus status ) throws HopException {
+    status.setId( id );
+    if ( statusDescription != null ) {
+      status.setStatusDescription( statusDescription );
+    }
+    status.setFirstLoggingLineNr( firstLogLineNr );
+    status.setLastLoggingLineNr( lastLogLineNr );
+    status.setLoggingString( logText );
+    status.setLogDate( new Date() );
+
+    Result result = getResult();
+    if ( result != null ) {
+      status.setResult( result );
+    }
+  }
+
+  /**
+   * @return The result parsed from the result XML or null if there is none (yet)
+   * @throws HopException In case the result can't be parsed
+   */
+  @JsonIgnore
+  public Result getResult() throws HopException {
+    if ( resultXml == null ) {
+      return null;
+    }
+    return new Result( XmlHandler.getSubNode( XmlHandler.loadXmlString( resultXml ), Result.XML_TAG ) );
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId( String id ) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName( String name ) {
+    this.name = name;
+  }
+
+  /**
+   * @return the status description or null if it didn't change
+   */
+  public String getStatusDescription() {
+    return statusDescription;
+  }
+
+  public void setStatusDescription( String statusDescription ) {
+    this.statusDescription = statusDescription;
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  public void setPaused( boolean paused ) {
+    this.paused = paused;
+  }
+
+  public Date getExecutionStartDate() {
+    return executionStartDate;
+  }
+
+  public void setExecutionStartDate( Date executionStartDate ) {
+    this.executionStartDate = executionStartDate;
+  }
+
+  public Date getExecutionEndDate() {
+    return executionEndDate;
+  }
+
+  public void setExecutionEndDate( Date executionEndDate ) {
+    this.executionEndDate = executionEndDate;
+  }
+
+  public int getFirstLogLineNr() {
+    return firstLogLineNr;
+  }
+
+  public void setFirstLogLineNr( int firstLogLineNr ) {
+    this.firstLogLineNr = firstLogLineNr;
+  }
+
+  public int getLastLogLineNr() {
+    return lastLogLineNr;
+  }
+
+  public void setLastLogLineNr( int lastLogLineNr ) {
+    this.lastLogLineNr = lastLogLineNr;
+  }
+
+  /**
+   * @return The log lines added since the previous delta
+   */
+  public String getLogText() {
+    return logText;
+  }
+
+  public void setLogText( String logText ) {
+    this.logText = logText;
+  }
+
+  /**
+   * @return The metrics of the transforms which changed since the previous delta
+   */
+  public List<TransformStatusDelta> getTransformStatuses() {
+    return transformStatuses;
+  }
+
+  public void setTransformStatuses( List<TransformStatusDelta> transformStatuses ) {
+    this.transformStatuses = transformStatuses;
+  }
+
+  public String getResultXml() {
+    return resultXml;
+  }
+
+  public void setResultXml( String resultXml ) {
+    this.resultXml = resultXml;
+  }
+
+  /**
+   * @return true if this is the last event of the stream
+   */
+  public boolean isLast() {
+    return last;
+  }
+
+  public void setLast( boolean last ) {
+    this.last = last;
+  }
+}
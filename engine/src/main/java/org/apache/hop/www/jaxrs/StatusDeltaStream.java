@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.LogChannel;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the status of an execution on the Hop server as a stream of Server-Sent Events.
+ * Every event carries a {@link StatusDelta} in JSON format with only the changes since the previous event.
+ * The stream ends after the last event, sent when the execution finished or was stopped.
+ * <p>
+ * The streams don't hold a servlet thread: the request is handled asynchronously and one shared thread checks all the
+ * streams for changes. The writes don't block. As long as a client didn't receive the previous event, the changes are
+ * not collected: the next event contains everything which changed in the meantime.
+ */
+public abstract class StatusDeltaStream implements WriteListener, AsyncListener {
+
+  public static final String MEDIA_TYPE = "text/event-stream";
+
+  public static final String EVENT_NAME = "status";
+
+  /**
+   * The default number of milliseconds between two checks for changes
+   */
+  public static final long DEFAULT_INTERVAL = 500L;
+
+  /**
+   * The smallest number of milliseconds between two checks a client can ask for: every check of every stream runs on
+   * the same thread
+   */
+  public static final long MIN_INTERVAL = 250L;
+
+  /**
+   * Send a comment every so many milliseconds when nothing changes to detect closed connections
+   */
+  public static final long KEEP_ALIVE_INTERVAL = 15000L;
+
+  /**
+   * Daemon thread, otherwise it blocks the Hop server shutdown
+   */
+  private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+    r -> {
+      Thread t = Executors.defaultThreadFactory().newThread( r );
+      t.setDaemon( true );
+      t.setName( StatusDeltaStream.class.getSimpleName() );
+      return t;
+    } );
+
+  protected final String id;
+  protected final long interval;
+  protected int lastLogLineNr;
+
+  private AsyncContext asyncContext;
+  private ServletOutputStream outputStream;
+  private ScheduledFuture<?> schedule;
+  private long lastWrite;
+  private boolean lastSent;
+  private boolean closed;
+
+  /**
+   * Push as soon as the response can be written: at the start or when a check was skipped for a slow client
+   */
+  private boolean pushWhenReady = true;
+
+  protected StatusDeltaStream( String id, int startLogLineNr, long interval ) {
+    this.id = id;
+    this.lastLogLineNr = startLogLineNr;
+    this.interval = interval > 0 ? Math.max( interval, MIN_INTERVAL ) : DEFAULT_INTERVAL;
+  }
+
+  /**
+   * @return false if the execution was removed from the server
+   */
+  protected abstract boolean isAvailable();
+
+  /**
+   * @return true if the execution finished or was stopped
+   */
+  protected abstract boolean isDone();
+
+  protected abstract String getLogChannelId();
+
+  /**
+   * Add the changes in status and metrics to the given delta.
+   *
+   * @param delta The delta to complete
+   * @param last  true if this is the last delta, the result needs to be included
+   * @throws HopException
+   */
+  protected abstract void addChanges( StatusDelta delta, boolean last ) throws HopException;
+
+  /**
+   * Start streaming to the client of an asynchronous request. The first event is sent as soon as the response can be
+   * written.
+   *
+   * @param asyncContext The context of the request, the content type of the response is set
+   * @throws IOException
+   */
+  public synchronized void start( AsyncContext asyncContext ) throws IOException {
+    this.asyncContext = asyncContext;
+    asyncContext.setTimeout( 0 ); // The stream ends with the execution
+    asyncContext.addListener( this );
+    lastWrite = System.currentTimeMillis();
+    outputStream = asyncContext.getResponse().getOutputStream();
+    outputStream.setWriteListener( this );
+    schedule = scheduler.scheduleWithFixedDelay( this::push, interval, interval, TimeUnit.MILLISECONDS );
+  }
+
+  /**
+   * Send the changes to the client if it received the previous event.
+   */
+  synchronized void push() {
+    if ( closed ) {
+      return;
+    }
+    try {
+      if ( !outputStream.isReady() ) {
+        // Still writing: we're called back by onWritePossible()
+        //
+        pushWhenReady = true;
+        return;
+      }
+      pushWhenReady = false;
+      if ( lastSent || !isAvailable() ) {
+        close();
+        return;
+      }
+      // Evaluate this before collecting the changes so that nothing gets lost after the last delta
+      //
+      boolean last = isDone();
+
+      StatusDelta delta = new StatusDelta();
+      delta.setId( id );
+      delta.setLast( last );
+      addChanges( delta, last );
+      addLogLines( delta );
+
+      if ( delta.hasChanges() ) {
+        writeEvent( delta );
+      } else if ( System.currentTimeMillis() - lastWrite > KEEP_ALIVE_INTERVAL ) {
+        write( ":\n\n" );
+      }
+
+      if ( last ) {
+        lastSent = true;
+        if ( outputStream.isReady() ) {
+          close();
+        } else {
+          pushWhenReady = true;
+        }
+      }
+    } catch ( Exception e ) {
+      LogChannel.GENERAL.logError( "Unable to send the status of " + id, e );
+      close();
+    }
+  }
+
+  protected void addLogLines( StatusDelta delta ) {
+    int lastLineNr = HopLogStore.getLastBufferLineNr();
+    delta.setFirstLogLineNr( lastLogLineNr );
+    delta.setLastLogLineNr( lastLineNr );
+    if ( lastLineNr > lastLogLineNr ) {
+      String logText = HopLogStore.getAppender().getBuffer( getLogChannelId(), false, lastLogLineNr, lastLineNr ).toString();
+      if ( !logText.isEmpty() ) {
+        delta.setLogText( logText );
+      }
+      lastLogLineNr = lastLineNr;
+    }
+  }
+
+  protected void writeEvent( StatusDelta delta ) throws IOException, HopException {
+    write( "event: " + EVENT_NAME + "\n" + "data: " + delta.toJson() + "\n\n" );
+  }
+
+  /**
+   * Write in one go: a write is only allowed if the previous one completed.
+   */
+  private void write( String text ) throws IOException {
+    outputStream.write( text.getBytes( StandardCharsets.UTF_8 ) );
+    if ( outputStream.isReady() ) {
+      outputStream.flush();
+    }
+    lastWrite = System.currentTimeMillis();
+  }
+
+  private synchronized void close() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    if ( schedule != null ) {
+      schedule.cancel( false );
+    }
+    try {
+      asyncContext.complete();
+    } catch ( IllegalStateException e ) {
+      // Completed already
+    }
+  }
+
+  @Override public synchronized void onWritePossible() {
+    if ( pushWhenReady ) {
+      push();
+    }
+  }
+
+  @Override public void onError( Throwable t ) {
+    // The client went away
+    close();
+  }
+
+  @Override public void onComplete( AsyncEvent event ) {
+    close();
+  }
+
+  @Override public void onTimeout( AsyncEvent event ) {
+    close();
+  }
+
+  @Override public void onError( AsyncEvent event ) {
+    close();
+  }
+
+  @Override public void onStartAsync( AsyncEvent event ) {
+    // Not restarted
+  }
+
+  /**
+   * @param value the interval in milliseconds as passed by the client
+   * @return The interval, at least {@link #MIN_INTERVAL}, or the default if nothing valid was specified
+   */
+  public static long getInterval( String value ) {
+    long interval = Const.toLong( value, DEFAULT_INTERVAL );
+    return interval > 0 ? Math.max( interval, MIN_INTERVAL ) : DEFAULT_INTERVAL;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.util.Utils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves the status streams of the pipelines and workflows on the Hop server, see {@link StatusDeltaStream}.
+ * These requests are handled asynchronously, outside of the REST API: a stream lasts as long as the execution.
+ */
+public class StatusDeltaStreamServlet extends HttpServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final String PIPELINE_PATH = "/api/carte/pipeline/statusStream";
+
+  public static final String WORKFLOW_PATH = "/api/carte/workflow/statusStream";
+
+  private final boolean pipeline;
+
+  /**
+   * @param pipeline true to stream the status of pipelines, false for workflows
+   */
+  public StatusDeltaStreamServlet( boolean pipeline ) {
+    this.pipeline = pipeline;
+  }
+
+  /**
+   * @return The path to map the servlet to
+   */
+  public String getPathSpec() {
+    return ( pipeline ? PIPELINE_PATH : WORKFLOW_PATH ) + "/*";
+  }
+
+  /**
+   * Streams the status of the execution with the ID in the path until it finished or was stopped. The parameters are
+   * the first log line to send ("from") and the number of milliseconds between checks for changes ("interval", at
+   * least {@link StatusDeltaStream#MIN_INTERVAL}).
+   */
+  @Override protected void doGet( HttpServletRequest request, HttpServletResponse response ) throws IOException {
+    String id = request.getPathInfo() == null ? null : request.getPathInfo().substring( 1 );
+    if ( Utils.isEmpty( id ) || HopServerResource.getHopServerObjectEntry( id ) == null ) {
+      response.sendError( HttpServletResponse.SC_NOT_FOUND );
+      return;
+    }
+    int startLineNr = Const.toInt( request.getParameter( "from" ), 0 );
+    long interval = StatusDeltaStream.getInterval( request.getParameter( "interval" ) );
+
+    StatusDeltaStream stream;
+    if ( pipeline ) {
+      stream = new PipelineStatusDeltaStream( id, HopServerResource.getPipeline( id ), startLineNr, interval );
+    } else {
+      stream = new WorkflowStatusDeltaStream( id, HopServerResource.getWorkflow( id ), startLineNr, interval );
+    }
+
+    response.setContentType( StatusDeltaStream.MEDIA_TYPE );
+    response.setCharacterEncoding( "UTF-8" );
+    response.setHeader( "Cache-Control", "no-cache" );
+    stream.start( request.startAsync() );
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.apache.hop.pipeline.transform.TransformStatus;
+
+/**
+ * The metrics of a single transform copy as sent in a {@link StatusDelta}.
+ * Only the transforms which changed since the previous delta are sent.
+ */
+public class TransformStatusDelta {
+
+  private String transformName;
+  private int copy;
+  private String statusDescription;
+  private long linesRead;
+  private long linesWritten;
+  private long linesInput;
+  private long linesOutput;
+  private long linesUpdated;
+  private long linesRejected;
+  private long errors;
+  private long inputBufferSize;
+  private long outputBufferSize;
+  private double seconds;
+  private String speed;
+  private String priority;
+  private boolean stopped;
+  private boolean paused;
+
+  public TransformStatusDelta() {
+  }
+
+  public TransformStatusDelta( TransformStatus status ) {
+    this.transformName = status.getTransformName();
+    this.copy = status.getCopy();
+    this.statusDescription = status.getStatusDescription();
+    this.linesRead = status.getLinesRead();
+    this.linesWritten = status.getLinesWritten();
+    this.linesInput = status.getLinesInput();
+    this.linesOutput = status.getLinesOutput();
+    this.linesUpdated = status.getLinesUpdated();
+    this.linesRejected = status.getLinesRejected();
+    this.errors = status.getErrors();
+    this.inputBufferSize = status.getInputBufferSize();
+    this.outputBufferSize = status.getOutputBufferSize();
+    this.seconds = status.getSeconds();
+    this.speed = status.getSpeed();
+    this.priority = status.getPriority();
+    this.stopped = status.isStopped();
+    this.paused = status.isPaused();
+  }
+
+  /**
+   * @return a new transform status with the metrics of this delta
+   */
+  public TransformStatus toTransformStatus() {
+    TransformStatus status = new TransformStatus();
+    status.setTransformName( transformName );
+    status.setCopy( copy );
+    status.setStatusDescription( statusDescription );
+    status.setLinesRead( linesRead );
+    status.setLinesWritten( linesWritten );
+    status.setLinesInput( linesInput );
+    status.setLinesOutput( linesOutput );
+    status.setLinesUpdated( linesUpdated );
+    status.setLinesRejected( linesRejected );
+    status.setErrors( errors );
+    status.setInputBufferSize( inputBufferSize );
+    status.setOutputBufferSize( outputBufferSize );
+    status.setSeconds( seconds );
+    status.setSpeed( speed );
+    status.setPriority( priority );
+    status.setStopped( stopped );
+    status.setPaused( paused );
+    return status;
+  }
+
+  /**
+   * @return true if this delta describes the given transform copy
+   */
+  public boolean isSameTransform( TransformStatus status ) {
+    return status.getCopy() == copy && status.getTransformName() != null && status.getTransformName().equals( transformName );
+  }
+
+  /**
+   * @return A key which changes whenever any of the metrics change
+   */
+  @JsonIgnore
+  public String getSignature() {
+    return statusDescription + "|" + linesRead + "|" + linesWritten + "|" + linesInput + "|" + linesOutput + "|"
+      + linesUpdated + "|" + linesRejected + "|" + errors + "|" + inputBufferSize + "|" + outputBufferSize + "|"
+      + speed + "|" + priority + "|" + stopped + "|" + paused;
+  }
+
+  public String getTransformName() {
+    return transformName;
+  }
+
+  public void setTransformName( String transformName ) {
+    this.transformName = transformName;
+  }
+
+  public int getCopy() {
+    return copy;
+  }
+
+  public void setCopy( int copy ) {
+    this.copy = copy;
+  }
+
+  public String getStatusDescription() {
+    return statusDescription;
+  }
+
+  public void setStatusDescription( String statusDescription ) {
+    this.statusDescription = statusDescription;
+  }
+
+  public long getLinesRead() {
+    return linesRead;
+  }
+
+  public void setLinesRead( long linesRead ) {
+    this.linesRead = linesRead;
+  }
+
+  public long getLinesWritten() {
+    return linesWritten;
+  }
+
+  public void setLinesWritten( long linesWritten ) {
+    this.linesWritten = linesWritten;
+  }
+
+  public long getLinesInput() {
+    return linesInput;
+  }
+
+  public void setLinesInput( long linesInput ) {
+    this.linesInput = linesInput;
+  }
+
+  public long getLinesOutput() {
+    return linesOutput;
+  }
+
+  public void setLinesOutput( long linesOutput ) {
+    this.linesOutput = linesOutput;
+  }
+
+  public long getLinesUpdated() {
+    return linesUpdated;
+  }
+
+  public void setLinesUpdated( long linesUpdated ) {
+    this.linesUpdated = linesUpdated;
+  }
+
+  public long getLinesRejected() {
+    return linesRejected;
+  }
+
+  public void setLinesRejected( long linesRejected ) {
+    this.linesRejected = linesRejected;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  public void setErrors( long errors ) {
+    this.errors = errors;
+  }
+
+  public long getInputBufferSize() {
+    return inputBufferSize;
+  }
+
+  public void setInputBufferSize( long inputBufferSize ) {
+    this.inputBufferSize = inputBufferSize;
+  }
+
+  public long getOutputBufferSize() {
+    return outputBufferSize;
+  }
+
+  public void setOutputBufferSize( long outputBufferSize ) {
+    this.outputBufferSize = outputBufferSize;
+  }
+
+  public double getSeconds() {
+    return seconds;
+  }
+
+  public void setSeconds( double seconds ) {
+    this.seconds = seconds;
+  }
+
+  public String getSpeed() {
+    return speed;
+  }
+
+  public void setSpeed( String speed ) {
+    this.speed = speed;
+  }
+
+  public String getPriority() {
+    return priority;
+  }
+
+  public void setPriority( String priority ) {
+    this.priority = priority;
+  }
+
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  public void setStopped( boolean stopped ) {
+    this.stopped = stopped;
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  public void setPaused( boolean paused ) {
+    this.paused = paused;
+  }
+}
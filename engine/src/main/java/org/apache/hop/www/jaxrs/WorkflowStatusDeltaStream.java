@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.core.Result;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.workflow.WorkflowMeta;
+import org.apache.hop.workflow.engine.IWorkflowEngine;
+
+/**
+ * Streams the changes in status and logging of a workflow running on the Hop server.
+ */
+public class WorkflowStatusDeltaStream extends StatusDeltaStream {
+
+  private final IWorkflowEngine<WorkflowMeta> workflow;
+
+  private String lastStatusDescription;
+
+  public WorkflowStatusDeltaStream( String id, IWorkflowEngine<WorkflowMeta> workflow, int startLogLineNr, long interval ) {
+    super( id, startLogLineNr, interval );
+    this.workflow = workflow;
+  }
+
+  @Override protected boolean isAvailable() {
+    return HopServerResource.getHopServerObjectEntry( id ) != null;
+  }
+
+  @Override protected boolean isDone() {
+    return workflow.isFinished() || workflow.isStopped();
+  }
+
+  @Override protected String getLogChannelId() {
+    return workflow.getLogChannelId();
+  }
+
+  @Override protected void addChanges( StatusDelta delta, boolean last ) throws HopException {
+    String statusDescription = workflow.getStatusDescription();
+    if ( last || lastStatusDescription == null || !lastStatusDescription.equals( statusDescription ) ) {
+      delta.setName( workflow.getWorkflowMeta().getName() );
+      delta.setStatusDescription( statusDescription );
+      lastStatusDescription = statusDescription;
+    }
+
+    if ( last ) {
+      Result result = workflow.getResult();
+      if ( result != null ) {
+        delta.setResultXml( result.getBasicXml() );
+      }
+    }
+  }
+}
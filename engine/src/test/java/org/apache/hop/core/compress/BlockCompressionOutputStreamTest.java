@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress;
+
+import org.apache.hop.core.compress.gzip.GzipCompressionOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BlockCompressionOutputStreamTest {
+
+  @Test
+  public void testBlocksAreWrittenInOrder() throws IOException {
+    byte[] data = createData( 100000 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( BlockCompressionOutputStream stream =
+            new BlockCompressionOutputStream( out, GzipCompressionOutputStream::compressBlock, 4096, 4 ) ) {
+      // Mix single bytes and arrays which span several blocks
+      stream.write( data[ 0 ] );
+      stream.write( data, 1, 9999 );
+      for ( int i = 10000; i < 20000; i++ ) {
+        stream.write( data[ i ] );
+      }
+      stream.write( data, 20000, data.length - 20000 );
+    }
+
+    assertArrayEquals( data, readAll( new GZIPInputStream( new ByteArrayInputStream( out.toByteArray() ) ) ) );
+  }
+
+  @Test
+  public void testFlushWritesEverything() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BlockCompressionOutputStream stream = new BlockCompressionOutputStream( out, ( data, length ) -> {
+      byte[] copy = new byte[ length ];
+      System.arraycopy( data, 0, copy, 0, length );
+      return copy;
+    }, 1024, 2 );
+    stream.write( "Hop".getBytes() );
+    assertEquals( 0, out.size() );
+    stream.flush();
+    assertEquals( "Hop", out.toString() );
+    stream.close();
+    stream.close();
+  }
+
+  @Test
+  public void testCompressionErrorIsReported() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BlockCompressionOutputStream stream = new BlockCompressionOutputStream( out, ( data, length ) -> {
+      throw new IOException( "broken" );
+    }, 16, 1 );
+    try {
+      stream.write( new byte[ 64 ] );
+      stream.close();
+      fail( "Expected an IOException" );
+    } catch ( IOException e ) {
+      assertEquals( "broken", e.getMessage() );
+    }
+  }
+
+  static byte[] createData( int size ) {
+    // Repetitive enough to compress, random enough to catch blocks out of order
+    Random random = new Random( 42 );
+    byte[] data = new byte[ size ];
+    for ( int i = 0; i < size; i++ ) {
+      data[ i ] = (byte) ( 'a' + random.nextInt( 8 ) );
+    }
+    return data;
+  }
+
+  static byte[] readAll( InputStream in ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 1000 ];
+    int read;
+    while ( ( read = in.read( buffer ) ) >= 0 ) {
+      out.write( buffer, 0, read );
+    }
+    in.close();
+    return out.toByteArray();
+  }
+}
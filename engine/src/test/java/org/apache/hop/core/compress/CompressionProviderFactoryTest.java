@@ -112,6 +112,8 @@ public class CompressionProviderFactoryTest {
         put( "GZip", false );
         put( "Snappy", false );
         put( "Hadoop-snappy", false );
+        put( "LZ4", false );
+        put( "Zstandard", false );
       }
     };
 
@@ -142,6 +144,8 @@ public class CompressionProviderFactoryTest {
         put( "GZip", false );
         put( "Snappy", false );
         put( "Hadoop-snappy", false );
+        put( "LZ4", false );
+        put( "Zstandard", false );
       }
     };
 
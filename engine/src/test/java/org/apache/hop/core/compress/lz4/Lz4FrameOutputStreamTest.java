@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.compress.lz4;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Lz4FrameOutputStreamTest {
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertArrayEquals( new byte[ 0 ], roundTrip( new byte[ 0 ] ) );
+  }
+
+  @Test
+  public void testShortInput() throws IOException {
+    for ( int length = 1; length < 20; length++ ) {
+      byte[] data = new byte[ length ];
+      for ( int i = 0; i < length; i++ ) {
+        data[ i ] = (byte) ( i % 3 );
+      }
+      assertArrayEquals( data, roundTrip( data ) );
+    }
+  }
+
+  @Test
+  public void testRandomData() throws IOException {
+    // Doesn't compress, stored as uncompressed blocks
+    byte[] data = new byte[ 3 * Lz4FrameOutputStream.BLOCK_SIZE + 1234 ];
+    new Random( 1 ).nextBytes( data );
+    assertArrayEquals( data, roundTrip( data ) );
+  }
+
+  @Test
+  public void testLongMatchesAndLiterals() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Random random = new Random( 2 );
+    for ( int i = 0; i < 200; i++ ) {
+      byte[] literals = new byte[ random.nextInt( 1000 ) ];
+      random.nextBytes( literals );
+      out.write( literals );
+      byte[] run = new byte[ random.nextInt( 5000 ) ];
+      Arrays.fill( run, (byte) i );
+      out.write( run );
+    }
+    byte[] data = out.toByteArray();
+    assertArrayEquals( data, roundTrip( data ) );
+  }
+
+  @Test
+  public void testTextCompresses() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for ( int i = 0; i < 300000; i++ ) {
+      text.append( "line " ).append( i ).append( '\n' );
+    }
+    byte[] data = text.toString().getBytes();
+    byte[] compressed = Lz4FrameOutputStream.compressFrame( data, data.length );
+    assertTrue( compressed.length < data.length / 2 );
+    assertArrayEquals( data, readAll( new FramedLZ4CompressorInputStream( new ByteArrayInputStream( compressed ) ) ) );
+  }
+
+  private static byte[] roundTrip( byte[] data ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( Lz4FrameOutputStream lz4 = new Lz4FrameOutputStream( out ) ) {
+      // Write in odd chunks to cross the block boundaries
+      int index = 0;
+      while ( index < data.length ) {
+        int size = Math.min( 77777, data.length - index );
+        lz4.write( data, index, size );
+        index += size;
+      }
+    }
+    return readAll( new FramedLZ4CompressorInputStream( new ByteArrayInputStream( out.toByteArray() ), true ) );
+  }
+
+  private static byte[] readAll( InputStream in ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 8192 ];
+    int read;
+    while ( ( read = in.read( buffer ) ) >= 0 ) {
+      out.write( buffer, 0, read );
+    }
+    in.close();
+    return out.toByteArray();
+  }
+}
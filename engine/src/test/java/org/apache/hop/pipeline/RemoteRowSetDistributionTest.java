@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.RemoteRowSetServer;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.partition.PartitionSchema;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteRowSetDistributionTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final int NR_SERVERS = 2;
+  private static final int NR_PARTITIONS = 4;
+  private static final int NR_ROWS_PER_SERVER = 1000;
+
+  private List<RemoteRowSetServer> servers;
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    HopEnvironment.init();
+  }
+
+  @Before
+  public void before() throws Exception {
+    servers = new ArrayList<>();
+    for ( int i = 0; i < NR_SERVERS; i++ ) {
+      RemoteRowSetServer server = new RemoteRowSetServer( "localhost", 0 );
+      server.start();
+      servers.add( server );
+    }
+  }
+
+  @After
+  public void after() {
+    for ( RemoteRowSetServer server : servers ) {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testVariables() throws Exception {
+    assertNull( RemoteRowSetDistribution.fromVariables( new Variables() ) );
+
+    RemoteRowSetDistribution distribution = newDistribution( true ).forServer( 1 );
+    Variables variables = new Variables();
+    distribution.setVariables( variables );
+    RemoteRowSetDistribution read = RemoteRowSetDistribution.fromVariables( variables );
+
+    assertEquals( NR_SERVERS, read.getNrServers() );
+    assertEquals( 1, read.getServerNr() );
+    assertEquals( servers.get( 1 ).getPort(), read.getPort( 1 ) );
+    assertEquals( distribution.getRunId(), read.getRunId() );
+    assertEquals( distribution.getSecret(), read.getSecret() );
+    assertTrue( read.isCompressed() );
+    assertTrue( servers.get( 1 ) == read.getLocalServer() );
+    assertTrue( read.isOwner( 3 ) );
+    assertEquals( 0, read.getOwner( 2 ) );
+  }
+
+  @Test
+  public void testPartitionsDistributed() throws Exception {
+    streamPartitions( false );
+  }
+
+  @Test
+  public void testPartitionsDistributedCompressed() throws Exception {
+    streamPartitions( true );
+  }
+
+  /**
+   * Every server injects its own rows into the same pipeline. The rows are partitioned on their id over 4 copies of
+   * the target transform, each server runs 2 of them: copy t receives all rows with id % 4 == t, on server t % 2.
+   */
+  private void streamPartitions( boolean compressed ) throws Exception {
+    PipelineMeta pipelineMeta = createPipelineMeta();
+    RemoteRowSetDistribution distribution = newDistribution( compressed );
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+
+    // Like on separate servers the pipelines are prepared at the same time: the senders wait for the run to be opened
+    // on the receiving server
+    //
+    List<Pipeline> pipelines = new ArrayList<>();
+    List<Thread> preparations = new ArrayList<>();
+    List<Exception> errors = Collections.synchronizedList( new ArrayList<>() );
+    for ( int serverNr = 0; serverNr < NR_SERVERS; serverNr++ ) {
+      Pipeline pipeline = new LocalPipelineEngine( pipelineMeta );
+      distribution.forServer( serverNr ).setVariables( pipeline );
+      Thread preparation = new Thread( () -> {
+        try {
+          pipeline.prepareExecution();
+        } catch ( Exception e ) {
+          errors.add( e );
+        }
+      } );
+      preparation.start();
+      preparations.add( preparation );
+      pipelines.add( pipeline );
+    }
+    for ( Thread preparation : preparations ) {
+      preparation.join();
+    }
+    assertEquals( Collections.emptyList(), errors );
+
+    List<List<List<Long>>> received = new ArrayList<>();
+    for ( Pipeline pipeline : pipelines ) {
+      List<List<Long>> copies = new ArrayList<>();
+      for ( int copy = 0; copy < NR_PARTITIONS; copy++ ) {
+        List<Long> ids = Collections.synchronizedList( new ArrayList<>() );
+        pipeline.getTransformInterface( "target", copy ).addRowListener( new RowAdapter() {
+          @Override public void rowReadEvent( IRowMeta rowMeta, Object[] row ) {
+            ids.add( (Long) row[ 0 ] );
+          }
+        } );
+        copies.add( ids );
+      }
+      received.add( copies );
+    }
+
+    for ( int serverNr = 0; serverNr < NR_SERVERS; serverNr++ ) {
+      Pipeline pipeline = pipelines.get( serverNr );
+      RowProducer producer = pipeline.addRowProducer( "source", 0 );
+      pipeline.startThreads();
+      for ( long i = 0; i < NR_ROWS_PER_SERVER; i++ ) {
+        producer.putRow( rowMeta, new Object[] { serverNr * NR_ROWS_PER_SERVER + i } );
+      }
+      producer.finished();
+    }
+
+    for ( Pipeline pipeline : pipelines ) {
+      pipeline.waitUntilFinished();
+      assertEquals( 0, pipeline.getErrors() );
+    }
+
+    int total = 0;
+    for ( int serverNr = 0; serverNr < NR_SERVERS; serverNr++ ) {
+      for ( int copy = 0; copy < NR_PARTITIONS; copy++ ) {
+        List<Long> ids = received.get( serverNr ).get( copy );
+        if ( distribution.getOwner( copy ) != serverNr ) {
+          assertEquals( "Copy " + copy + " doesn't run on server " + serverNr, 0, ids.size() );
+          continue;
+        }
+        assertEquals( NR_SERVERS * NR_ROWS_PER_SERVER / NR_PARTITIONS, ids.size() );
+        for ( Long id : ids ) {
+          assertEquals( copy, id % NR_PARTITIONS );
+        }
+        total += ids.size();
+      }
+    }
+    assertEquals( NR_SERVERS * NR_ROWS_PER_SERVER, total );
+  }
+
+  @Test
+  public void testStopReleasesRowSets() throws Exception {
+    RemoteRowSetDistribution distribution = newDistribution( false );
+    Pipeline pipeline = new LocalPipelineEngine( createPipelineMeta() );
+    distribution.setVariables( pipeline );
+    servers.get( 1 ).openRun( distribution.getRunId(), distribution.getSecret() ); // the other server started the run
+    pipeline.prepareExecution();
+    pipeline.stopAll();
+
+    // The row set receiving from the other server is no longer registered
+    //
+    String name = distribution.getRowSetName( "source", 0, "target", 0, 1 );
+    servers.get( 0 ).openInputRowSet( name, distribution.getSecret(), 10 );
+  }
+
+  private RemoteRowSetDistribution newDistribution( boolean compressed ) {
+    List<String> hostnames = new ArrayList<>();
+    List<Integer> ports = new ArrayList<>();
+    for ( RemoteRowSetServer server : servers ) {
+      hostnames.add( "localhost" );
+      ports.add( server.getPort() );
+    }
+    return RemoteRowSetDistribution.newRun( hostnames, ports, compressed );
+  }
+
+  private PipelineMeta createPipelineMeta() throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName( "distributed" );
+
+    TransformMeta source = new TransformMeta( "source", new InjectorMeta() );
+    pipelineMeta.addTransform( source );
+
+    PartitionSchema partitionSchema = new PartitionSchema( "partitions", Arrays.asList( "P1", "P2", "P3", "P4" ) );
+    TransformPartitioningMeta partitioningMeta = new TransformPartitioningMeta( "ModPartitioner", partitionSchema );
+    ( (ModPartitioner) partitioningMeta.getPartitioner() ).setFieldName( "id" );
+    TransformMeta target = new TransformMeta( "target", new DummyMeta() );
+    target.setTransformPartitioningMeta( partitioningMeta );
+    pipelineMeta.addTransform( target );
+
+    pipelineMeta.addPipelineHop( new PipelineHopMeta( source, target ) );
+    return pipelineMeta;
+  }
+}
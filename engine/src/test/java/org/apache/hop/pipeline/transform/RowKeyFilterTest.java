@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
+import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class RowKeyFilterTest {
+
+  private IPipelineEngine<?> pipeline;
+  private Map<String, Object> extensionDataMap;
+
+  @Before
+  public void setUp() {
+    pipeline = mock( IPipelineEngine.class );
+    extensionDataMap = new HashMap<>();
+    doReturn( extensionDataMap ).when( pipeline ).getExtensionDataMap();
+  }
+
+  private RowKeyFilter buildFilter() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    RowKeyFilter.Builder builder = new RowKeyFilter.Builder( keyMeta );
+    for ( long id = 0; id < 5000; id += 5 ) {
+      builder.add( new Object[] { id } );
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testMatcher() throws Exception {
+    RowKeyFilter filter = buildFilter();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "customer_id" ) );
+    RowKeyFilter.Matcher matcher = filter.createMatcher( rowMeta, new String[] { "customer_id" } );
+
+    int passed = 0;
+    for ( long id = 0; id < 5000; id++ ) {
+      boolean matches = matcher.matches( new Object[] { "name", id } );
+      if ( id % 5 == 0 ) {
+        assertTrue( "No false negatives for key " + id, matches );
+      }
+      if ( matches ) {
+        passed++;
+      }
+    }
+    assertTrue( "Most rows which can't match are dropped: " + passed, passed < 1100 );
+  }
+
+  @Test
+  public void testMatcherConvertsKeys() throws Exception {
+    RowKeyFilter filter = buildFilter();
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "customer_id" ) );
+    RowKeyFilter.Matcher matcher = filter.createMatcher( rowMeta, new String[] { "customer_id" } );
+
+    assertTrue( matcher.matches( new Object[] { "25" } ) );
+    assertFalse( matcher.matches( new Object[] { "not a number" } ) );
+  }
+
+  @Test( expected = HopException.class )
+  public void testMatcherUnknownField() throws Exception {
+    buildFilter().createMatcher( new RowMeta(), new String[] { "customer_id" } );
+  }
+
+  @Test
+  public void testPublish() throws Exception {
+    IEngineComponent component = mock( IEngineComponent.class );
+    doReturn( ComponentExecutionStatus.STATUS_RUNNING ).when( component ).getStatus();
+    doReturn( Collections.singletonList( component ) ).when( pipeline ).getComponentCopies( "lookup" );
+
+    assertFalse( RowKeyFilter.isSubscribed( pipeline, "lookup" ) );
+    RowKeyFilter.subscribe( pipeline, "lookup" );
+    assertTrue( RowKeyFilter.isSubscribed( pipeline, "lookup" ) );
+
+    RowKeyFilter filter = buildFilter();
+    Thread publisher = new Thread( () -> RowKeyFilter.publish( pipeline, "lookup", filter ) );
+    publisher.start();
+
+    assertSame( filter, RowKeyFilter.waitFor( pipeline, "lookup", () -> false ) );
+    publisher.join();
+  }
+
+  @Test
+  public void testPublisherFinishedWithoutFilter() throws Exception {
+    IEngineComponent component = mock( IEngineComponent.class );
+    doReturn( ComponentExecutionStatus.STATUS_FINISHED ).when( component ).getStatus();
+    doReturn( Collections.singletonList( component ) ).when( pipeline ).getComponentCopies( "lookup" );
+
+    RowKeyFilter.subscribe( pipeline, "lookup" );
+    assertNull( RowKeyFilter.waitFor( pipeline, "lookup", () -> false ) );
+  }
+
+  @Test
+  public void testStoppedWhileWaiting() throws Exception {
+    IEngineComponent component = mock( IEngineComponent.class );
+    doReturn( ComponentExecutionStatus.STATUS_RUNNING ).when( component ).getStatus();
+    doReturn( Collections.singletonList( component ) ).when( pipeline ).getComponentCopies( "lookup" );
+
+    RowKeyFilter.subscribe( pipeline, "lookup" );
+    try {
+      RowKeyFilter.waitFor( pipeline, "lookup", () -> true );
+      fail( "Expected an exception when stopped" );
+    } catch ( HopException e ) {
+      assertEquals( 1, extensionDataMap.size() );
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableinput;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TableInputPartitionTest {
+
+  private Database db;
+
+  @Before
+  public void setUp() {
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    doAnswer( invocation -> invocation.getArguments()[ 0 ] ).when( databaseMeta ).quoteField( anyString() );
+    doAnswer( invocation -> invocation.getArguments()[ 0 ] ).when( databaseMeta ).stripCR( anyString() );
+    doAnswer( invocation -> "MOD(" + invocation.getArguments()[ 0 ] + ", " + invocation.getArguments()[ 1 ] + ")" )
+      .when( databaseMeta ).getModuloExpression( anyString(), anyInt() );
+    doReturn( "MIN" ).when( databaseMeta ).getFunctionMinimum();
+    doReturn( "MAX" ).when( databaseMeta ).getFunctionMaximum();
+    doReturn( "COUNT" ).when( databaseMeta ).getFunctionCount();
+
+    db = mock( Database.class );
+    doReturn( databaseMeta ).when( db ).getDatabaseMeta();
+  }
+
+  private void mockMinMax( long min, long max, long count ) throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "min" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "max" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "count" ) );
+    doReturn( new RowMetaAndData( rowMeta, min, max, count ) ).when( db )
+      .getOneRow( startsWith( "SELECT MIN(" ), any(), any() );
+  }
+
+  @Test
+  public void testModulo() throws Exception {
+    TableInputPartition partition =
+      new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_MODULO, "id", 0, 4 );
+    partition.prepare( "SELECT id, name FROM customers;", new RowMeta(), new Object[ 0 ] );
+    assertEquals( "SELECT * FROM ( SELECT id, name FROM customers ) hop_partition" + Const.CR
+        + "WHERE ABS(MOD(hop_partition.id, 4)) = 0 OR hop_partition.id IS NULL", partition.getSql() );
+    assertEquals( 0, partition.getParameters().length );
+
+    partition = new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_MODULO, "id", 3, 4 );
+    partition.prepare( "SELECT id, name FROM customers", new RowMeta(), new Object[ 0 ] );
+    assertTrue( partition.getSql().endsWith( "WHERE ABS(MOD(hop_partition.id, 4)) = 3" ) );
+  }
+
+  @Test
+  public void testRange() throws Exception {
+    mockMinMax( 0L, 100L, 101L );
+
+    IRowMeta queryParamsMeta = new RowMeta();
+    queryParamsMeta.addValueMeta( new ValueMetaString( "country" ) );
+
+    TableInputPartition first = new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_RANGE, "id", 0, 4 );
+    first.prepare( "SELECT id FROM customers WHERE country = ?", queryParamsMeta, new Object[] { "BE" } );
+    assertTrue( first.getSql().endsWith(
+      "WHERE ( hop_partition.id < ? OR hop_partition.id IS NULL )" ) );
+    assertArrayEquals( new Object[] { "BE", 25L }, first.getParameters() );
+    assertEquals( 2, first.getParametersMeta().size() );
+
+    TableInputPartition second = new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_RANGE, "id", 1, 4 );
+    second.prepare( "SELECT id FROM customers WHERE country = ?", queryParamsMeta, new Object[] { "BE" } );
+    assertTrue( second.getSql().endsWith( "WHERE hop_partition.id >= ? AND hop_partition.id < ?" ) );
+    assertArrayEquals( new Object[] { "BE", 25L, 50L }, second.getParameters() );
+
+    TableInputPartition last = new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_RANGE, "id", 3, 4 );
+    last.prepare( "SELECT id FROM customers WHERE country = ?", queryParamsMeta, new Object[] { "BE" } );
+    assertTrue( last.getSql().endsWith( "WHERE hop_partition.id >= ?" ) );
+    assertArrayEquals( new Object[] { "BE", 75L }, last.getParameters() );
+  }
+
+  @Test
+  public void testBoundariesSharedByCopies() throws Exception {
+    mockMinMax( 0L, 100L, 101L );
+    Map<String, Object> extensionDataMap = new HashMap<>();
+    IPipelineEngine<?> pipeline = mock( IPipelineEngine.class );
+    doReturn( extensionDataMap ).when( pipeline ).getExtensionDataMap();
+
+    for ( int nr = 0; nr < 4; nr++ ) {
+      TableInputPartition partition =
+        new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_RANGE, "id", nr, 4, pipeline, "input" );
+      partition.prepare( "SELECT id FROM customers", new RowMeta(), new Object[ 0 ] );
+      assertEquals( nr == 0 ? 25L : nr * 25L, partition.getParameters()[ 0 ] );
+    }
+    verify( db, times( 1 ) ).getOneRow( startsWith( "SELECT MIN(" ), any(), any() );
+    assertTrue( ( (Map<?, ?>) extensionDataMap.values().iterator().next() ).isEmpty() );
+  }
+
+  @Test
+  public void testQuantile() throws Exception {
+    // 1000 rows: 900 rows with id 0..8 and 100 rows with id 9..108
+    //
+    mockMinMax( 0L, 108L, 1000L );
+    IRowMeta countMeta = new RowMeta();
+    countMeta.addValueMeta( new ValueMetaInteger( "count" ) );
+    doAnswer( invocation -> {
+      Object[] params = (Object[]) invocation.getArguments()[ 2 ];
+      long value = (Long) params[ params.length - 1 ];
+      long below = value <= 9 ? value * 100 : 900 + ( value - 9 );
+      return new RowMetaAndData( countMeta, below );
+    } ).when( db ).getOneRow( startsWith( "SELECT COUNT(*)" ), any(), any() );
+
+    TableInputPartition partition =
+      new TableInputPartition( db, TableInputMeta.PARTITION_METHOD_QUANTILE, "id", 1, 2 );
+    partition.prepare( "SELECT id FROM orders", new RowMeta(), new Object[ 0 ] );
+    assertArrayEquals( new Object[] { 5L }, partition.getParameters() );
+  }
+
+  @Test
+  public void testSortableLong() {
+    double[] values = { -Double.MAX_VALUE, -10.5, -1, -Double.MIN_VALUE, 0, Double.MIN_VALUE, 1, 10.5,
+      Double.MAX_VALUE };
+    for ( int i = 0; i < values.length; i++ ) {
+      long sortable = TableInputPartition.toSortableLong( values[ i ] );
+      assertEquals( values[ i ], TableInputPartition.fromSortableLong( sortable ), 0 );
+      if ( i > 0 ) {
+        assertTrue( TableInputPartition.toSortableLong( values[ i - 1 ] ) < sortable );
+      }
+    }
+  }
+
+  @Test
+  public void testInterpolate() {
+    assertEquals( 25L, TableInputPartition.interpolate( 0L, 100L, 1, 4 ) );
+    assertEquals( Long.MIN_VALUE, TableInputPartition.interpolate( Long.MIN_VALUE, Long.MAX_VALUE, 0, 2 ) );
+    assertEquals( -1L, TableInputPartition.interpolate( Long.MIN_VALUE, Long.MAX_VALUE, 1, 2 ) );
+  }
+
+  @Test
+  public void testStripSemicolon() {
+    assertEquals( "SELECT 1", TableInputPartition.stripSemicolon( "SELECT 1 ; \n" ) );
+  }
+}
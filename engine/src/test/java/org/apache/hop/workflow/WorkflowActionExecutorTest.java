@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.workflow;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorkflowActionExecutorTest {
+
+  @Test( timeout = 30000 )
+  public void testConcurrencyIsLimited() throws Exception {
+    WorkflowActionExecutor executor = new WorkflowActionExecutor( "test", 4 );
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for ( int i = 0; i < 200; i++ ) {
+      futures.add( executor.submit( () -> {
+        int current = active.incrementAndGet();
+        maxActive.accumulateAndGet( current, Math::max );
+        try {
+          Thread.sleep( 1 );
+        } catch ( InterruptedException e ) {
+          // Ignore
+        }
+        active.decrementAndGet();
+      } ) );
+    }
+    executor.waitFor( futures );
+
+    // The 4 workers plus the waiting thread which helps out
+    //
+    assertTrue( maxActive.get() <= 5 );
+    assertEquals( 200L, executor.getNrFinished() );
+    assertEquals( 0, executor.getNrQueued() );
+    assertEquals( 0, executor.getNrRunning() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testNestedParallelActionsDontDeadlock() throws Exception {
+    WorkflowActionExecutor executor = new WorkflowActionExecutor( "test", 1 );
+    AtomicInteger count = new AtomicInteger();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for ( int i = 0; i < 10; i++ ) {
+      futures.add( executor.submit( () -> {
+        List<Future<?>> nested = new ArrayList<>();
+        for ( int j = 0; j < 10; j++ ) {
+          nested.add( executor.submit( count::incrementAndGet ) );
+        }
+        try {
+          executor.waitFor( nested );
+        } catch ( InterruptedException e ) {
+          // Ignore
+        }
+      } ) );
+    }
+    executor.waitFor( futures );
+
+    assertEquals( 100, count.get() );
+    assertEquals( 110L, executor.getNrFinished() );
+  }
+
+  @Test( timeout = 30000 )
+  public void testUnlimited() throws Exception {
+    WorkflowActionExecutor executor = new WorkflowActionExecutor( "test", 0 );
+    AtomicInteger count = new AtomicInteger();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for ( int i = 0; i < 50; i++ ) {
+      futures.add( executor.submit( count::incrementAndGet ) );
+    }
+    executor.waitFor( futures );
+
+    assertEquals( 50, count.get() );
+    assertEquals( 0, executor.getNrQueued() );
+  }
+}
@@ -18,7 +18,9 @@ package org.apache.hop.www;
 
 import org.apache.hop.server.HopServer;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RemoteRowSetServer;
 import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.variables.Variables;
 import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Server;
@@ -32,6 +34,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -117,6 +122,26 @@ public class WebServerTest {
   //
   //  }
 
+  @Test
+  public void testRowSetServer() throws Exception {
+    assertNull( webServer.getRowSetServer() );
+
+    when( sServerConfMock.getVariables() ).thenReturn( new Variables() );
+    when( sServer.getRowSetPort() ).thenReturn( "0" );
+    webServerNg = new WebServer( logMock, trMapMock, jbMapMock, HOST_NAME, PORT + 1, SHOULD_JOIN, null );
+    int rowSetPort;
+    try {
+      RemoteRowSetServer rowSetServer = webServerNg.getRowSetServer();
+      assertNotNull( rowSetServer );
+      rowSetPort = rowSetServer.getPort();
+      assertSame( rowSetServer, RemoteRowSetServer.findServer( rowSetPort ) );
+    } finally {
+      webServerNg.setWebServerShutdownHandler( null );
+      webServerNg.stopServer();
+    }
+    assertNull( RemoteRowSetServer.findServer( rowSetPort ) );
+  }
+
   @Test
   public void testJettyOption_AcceptQueueSizeSetUp() throws Exception {
     assertEquals( getSocketConnectors( webServer ).size(), EXPECTED_CONNECTORS_SIZE );
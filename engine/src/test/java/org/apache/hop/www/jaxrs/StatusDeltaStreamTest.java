@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.pipeline.Pipeline;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatusDeltaStreamTest {
+
+  private TestOutputStream outputStream;
+  private AsyncContext asyncContext;
+  private TestStream stream;
+
+  @Before
+  public void setUp() throws Exception {
+    outputStream = new TestOutputStream();
+    ServletResponse response = mock( ServletResponse.class );
+    when( response.getOutputStream() ).thenReturn( outputStream );
+    asyncContext = mock( AsyncContext.class );
+    when( asyncContext.getResponse() ).thenReturn( response );
+    stream = new TestStream();
+  }
+
+  @Test
+  public void testPushWhenReady() throws Exception {
+    stream.start( asyncContext );
+    verify( asyncContext ).setTimeout( 0L );
+
+    // The first event is sent as soon as the response can be written
+    //
+    stream.onWritePossible();
+    assertTrue( outputStream.getText().contains( Pipeline.STRING_RUNNING ) );
+
+    // Nothing changed
+    //
+    int length = outputStream.getText().length();
+    stream.push();
+    assertEquals( length, outputStream.getText().length() );
+
+    // The client didn't receive the previous event: skip the check until it did
+    //
+    outputStream.ready = false;
+    stream.status = Pipeline.STRING_PAUSED;
+    stream.push();
+    assertEquals( length, outputStream.getText().length() );
+    outputStream.ready = true;
+    stream.onWritePossible();
+    assertTrue( outputStream.getText().substring( length ).contains( Pipeline.STRING_PAUSED ) );
+    verify( asyncContext, never() ).complete();
+
+    // The last event completes the request
+    //
+    length = outputStream.getText().length();
+    stream.status = Pipeline.STRING_FINISHED;
+    stream.done = true;
+    stream.push();
+    assertTrue( outputStream.getText().substring( length ).contains( Pipeline.STRING_FINISHED ) );
+    verify( asyncContext ).complete();
+
+    length = outputStream.getText().length();
+    stream.push();
+    assertEquals( length, outputStream.getText().length() );
+  }
+
+  @Test
+  public void testClientGone() throws Exception {
+    stream.start( asyncContext );
+    stream.onError( new IOException( "Broken pipe" ) );
+    verify( asyncContext ).complete();
+
+    stream.push();
+    assertEquals( "", outputStream.getText() );
+  }
+
+  @Test
+  public void testInterval() {
+    assertEquals( StatusDeltaStream.DEFAULT_INTERVAL, StatusDeltaStream.getInterval( null ) );
+    assertEquals( StatusDeltaStream.DEFAULT_INTERVAL, StatusDeltaStream.getInterval( "fast" ) );
+    assertEquals( StatusDeltaStream.DEFAULT_INTERVAL, StatusDeltaStream.getInterval( "0" ) );
+    assertEquals( StatusDeltaStream.DEFAULT_INTERVAL, StatusDeltaStream.getInterval( "-10" ) );
+    assertEquals( StatusDeltaStream.MIN_INTERVAL, StatusDeltaStream.getInterval( "1" ) );
+    assertEquals( 2000L, StatusDeltaStream.getInterval( "2000" ) );
+  }
+
+  private static class TestStream extends StatusDeltaStream {
+    private String status = Pipeline.STRING_RUNNING;
+    private String lastStatus;
+    private boolean done;
+
+    TestStream() {
+      // Pushed by the test only
+      super( "id", 0, 3600000L );
+    }
+
+    @Override protected boolean isAvailable() {
+      return true;
+    }
+
+    @Override protected boolean isDone() {
+      return done;
+    }
+
+    @Override protected String getLogChannelId() {
+      return "id";
+    }
+
+    @Override protected void addChanges( StatusDelta delta, boolean last ) {
+      if ( last || !status.equals( lastStatus ) ) {
+        delta.setStatusDescription( status );
+        lastStatus = status;
+      }
+    }
+
+    @Override protected void addLogLines( StatusDelta delta ) {
+      // No logging
+    }
+  }
+
+  private static class TestOutputStream extends ServletOutputStream {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private boolean ready = true;
+
+    @Override public boolean isReady() {
+      return ready;
+    }
+
+    @Override public void setWriteListener( WriteListener writeListener ) {
+      // Called back by the test
+    }
+
+    @Override public void write( int b ) {
+      bytes.write( b );
+    }
+
+    String getText() {
+      return new String( bytes.toByteArray(), StandardCharsets.UTF_8 );
+    }
+  }
+}
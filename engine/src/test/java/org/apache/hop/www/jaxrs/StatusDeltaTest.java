@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.www.jaxrs;
+
+import org.apache.hop.core.Result;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.transform.TransformStatus;
+import org.apache.hop.www.HopServerPipelineStatus;
+import org.apache.hop.www.HopServerWorkflowStatus;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatusDeltaTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private TransformStatusDelta createTransformDelta( String name, int copy, long linesWritten ) {
+    TransformStatusDelta transformDelta = new TransformStatusDelta();
+    transformDelta.setTransformName( name );
+    transformDelta.setCopy( copy );
+    transformDelta.setLinesWritten( linesWritten );
+    transformDelta.setStatusDescription( "Running" );
+    return transformDelta;
+  }
+
+  @Test
+  public void testJsonRoundTrip() throws Exception {
+    StatusDelta delta = new StatusDelta();
+    delta.setId( "id" );
+    delta.setStatusDescription( Pipeline.STRING_RUNNING );
+    delta.setFirstLogLineNr( 5 );
+    delta.setLastLogLineNr( 10 );
+    delta.setLogText( "line1\nline2\n" );
+    delta.getTransformStatuses().add( createTransformDelta( "A", 0, 100 ) );
+
+    String json = delta.toJson();
+    assertFalse( "A delta has to fit on a single event data line", json.contains( "\n" ) );
+
+    StatusDelta copy = StatusDelta.fromJson( json );
+    assertEquals( "id", copy.getId() );
+    assertEquals( Pipeline.STRING_RUNNING, copy.getStatusDescription() );
+    assertEquals( 5, copy.getFirstLogLineNr() );
+    assertEquals( 10, copy.getLastLogLineNr() );
+    assertEquals( "line1\nline2\n", copy.getLogText() );
+    assertEquals( 1, copy.getTransformStatuses().size() );
+    assertEquals( 100L, copy.getTransformStatuses().get( 0 ).getLinesWritten() );
+    assertFalse( copy.isLast() );
+    assertNull( copy.getResult() );
+  }
+
+  @Test
+  public void testHasChanges() {
+    StatusDelta delta = new StatusDelta();
+    assertFalse( delta.hasChanges() );
+    delta.setLogText( "" );
+    assertFalse( delta.hasChanges() );
+    delta.setLogText( "log" );
+    assertTrue( delta.hasChanges() );
+  }
+
+  @Test
+  public void testApplyToPipelineStatus() throws Exception {
+    HopServerPipelineStatus status = new HopServerPipelineStatus( "pipeline", "id", null );
+
+    StatusDelta first = new StatusDelta();
+    first.setId( "id" );
+    first.setStatusDescription( Pipeline.STRING_RUNNING );
+    first.getTransformStatuses().add( createTransformDelta( "A", 0, 10 ) );
+    first.getTransformStatuses().add( createTransformDelta( "B", 0, 20 ) );
+    first.applyTo( status );
+
+    assertTrue( status.isRunning() );
+    assertEquals( 2, status.getTransformStatusList().size() );
+
+    // Only B changed, the status stays the same
+    //
+    StatusDelta second = new StatusDelta();
+    second.setId( "id" );
+    second.setLogText( "new lines" );
+    second.getTransformStatuses().add( createTransformDelta( "B", 0, 30 ) );
+    second.applyTo( status );
+
+    assertTrue( status.isRunning() );
+    assertEquals( "new lines", status.getLoggingString() );
+    assertEquals( 2, status.getTransformStatusList().size() );
+    TransformStatus a = status.getTransformStatusList().get( 0 );
+    TransformStatus b = status.getTransformStatusList().get( 1 );
+    assertEquals( 10L, a.getLinesWritten() );
+    assertEquals( 30L, b.getLinesWritten() );
+
+    Result result = new Result();
+    result.setNrErrors( 2 );
+    StatusDelta last = new StatusDelta();
+    last.setStatusDescription( Pipeline.STRING_FINISHED );
+    last.setResultXml( result.getBasicXml() );
+    last.setLast( true );
+    StatusDelta.fromJson( last.toJson() ).applyTo( status );
+
+    assertTrue( status.isFinished() );
+    assertNotNull( status.getResult() );
+    assertEquals( 2L, status.getResult().getNrErrors() );
+  }
+
+  @Test
+  public void testApplyToWorkflowStatus() throws Exception {
+    HopServerWorkflowStatus status = new HopServerWorkflowStatus( "workflow", "id", null );
+
+    StatusDelta delta = new StatusDelta();
+    delta.setStatusDescription( Pipeline.STRING_RUNNING );
+    delta.setLastLogLineNr( 42 );
+    delta.applyTo( status );
+
+    assertTrue( status.isRunning() );
+    assertEquals( 42, status.getLastLoggingLineNr() );
+    assertNull( status.getResult() );
+  }
+}
@@ -28,6 +28,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.annotations.Action;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.logging.AsyncLoggingEventListener;
 import org.apache.hop.core.logging.FileLoggingEventListener;
 import org.apache.hop.core.logging.HopLogStore;
 import org.apache.hop.core.logging.LogLevel;
@@ -273,6 +274,7 @@ public class ActionShell extends ActionBase implements Cloneable, IAction {
 
   public Result execute(Result result, int nr) throws HopException {
     FileLoggingEventListener loggingEventListener = null;
+    AsyncLoggingEventListener asyncLoggingEventListener = null;
     LogLevel shellLogLevel = parentWorkflow.getLogLevel();
     if (setLogfile) {
       String realLogFilename = resolve(getLogFilename());
@@ -288,7 +290,8 @@ public class ActionShell extends ActionBase implements Cloneable, IAction {
       try {
         loggingEventListener =
             new FileLoggingEventListener(getLogChannelId(), realLogFilename, setAppendLogfile);
-        HopLogStore.getAppender().addLoggingEventListener(loggingEventListener);
+        asyncLoggingEventListener = new AsyncLoggingEventListener(loggingEventListener);
+        HopLogStore.getAppender().addLoggingEventListener(asyncLoggingEventListener);
       } catch (HopException e) {
         logError(
             BaseMessages.getString(
@@ -380,7 +383,10 @@ public class ActionShell extends ActionBase implements Cloneable, IAction {
 
     if (setLogfile) {
       if (loggingEventListener != null) {
-        HopLogStore.getAppender().removeLoggingEventListener(loggingEventListener);
+        // Write the remaining log lines before closing the file
+        //
+        HopLogStore.getAppender().removeLoggingEventListener(asyncLoggingEventListener);
+        asyncLoggingEventListener.close();
         loggingEventListener.close();
 
         ResultFile resultFile =
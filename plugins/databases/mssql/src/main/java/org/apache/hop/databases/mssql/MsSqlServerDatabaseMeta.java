@@ -565,6 +565,11 @@ public class MsSqlServerDatabaseMeta extends BaseDatabaseMeta implements IDataba
         return true;
     }
 
+    @Override
+    public String getModuloExpression( String expression, int divisor ) {
+        return "(" + expression + " % " + divisor + ")";
+    }
+
     @Override
     public String getStartQuote() {
         return "";
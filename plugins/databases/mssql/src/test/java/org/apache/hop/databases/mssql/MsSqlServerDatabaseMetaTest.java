@@ -144,6 +144,7 @@ public class MsSqlServerDatabaseMetaTest {
   @Test
   public void testSqlStatements() {
     assertEquals( "SELECT TOP 1 * FROM FOO", nativeMeta.getSqlQueryFields( "FOO" ) );
+    assertEquals( "(FOO % 4)", nativeMeta.getModuloExpression( "FOO", 4 ) );
     String lineSep = System.getProperty( "line.separator" );
     assertEquals( "SELECT top 0 * FROM FOO WITH (UPDLOCK, HOLDLOCK);"
         + lineSep + "SELECT top 0 * FROM BAR WITH (UPDLOCK, HOLDLOCK);" + lineSep,
@@ -199,4 +199,9 @@ public class SqliteDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
     return true;
   }
 
+  @Override
+  public String getModuloExpression( String expression, int divisor ) {
+    return "(" + expression + " % " + divisor + ")";
+  }
+
 }
@@ -56,6 +56,7 @@ public class SqliteDatabaseMetaTest {
   @Test
   public void testSqlStatements() {
     assertEquals( "DELETE FROM FOO", nativeMeta.getTruncateTableStatement( "FOO" ) );
+    assertEquals( "(FOO % 4)", nativeMeta.getModuloExpression( "FOO", 4 ) );
     assertEquals( "ALTER TABLE FOO ADD BAR TEXT",
       nativeMeta.getAddColumnStatement( "FOO", new ValueMetaString( "BAR", 15, 0 ), "", false, "", false ) );
     assertEquals( "ALTER TABLE FOO MODIFY BAR TEXT",
@@ -237,4 +237,9 @@ public class SybaseDatabaseMeta extends BaseDatabaseMeta implements IDatabase {
   public boolean isSybaseVariant() {
     return true;
   }
+
+  @Override
+  public String getModuloExpression( String expression, int divisor ) {
+    return "(" + expression + " % " + divisor + ")";
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.transforms.analyticquery;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -28,10 +29,10 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
 
 /**
- * Performs analytic queries (LEAD/LAG, etc) based on a group
+ * Performs analytic queries (LEAD/LAG, running and moving aggregates, ranking, etc) based on a group
  *
  * @author ngoodman
  * @since 27-jan-2009
@@ -79,42 +80,67 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
         }
       }
 
-      // Setup of "window size" and "queue_size"
-      int maxOffset = 0;
-      for ( int i = 0; i < meta.getNumberOfFields(); i++ ) {
-        if ( meta.getValueField()[ i ] > maxOffset ) {
-          maxOffset = meta.getValueField()[ i ];
+      // The subjects of the analytic functions and the largest offsets of LAG and LEAD
+      //
+      int nrFields = meta.getNumberOfFields();
+      data.subjectnrs = new int[ nrFields ];
+      data.functions = new AnalyticWindowFunction[ nrFields ];
+      data.maxLag = 0;
+      data.maxLead = 0;
+      data.rangeFrames = false;
+      data.orderIndex = -1;
+      for ( int i = 0; i < nrFields; i++ ) {
+        int type = meta.getAggregateType()[ i ];
+        data.subjectnrs[ i ] = data.inputRowMeta.indexOfValue( meta.getSubjectField()[ i ] );
+        if ( data.subjectnrs[ i ] < 0 && type != AnalyticQueryMeta.TYPE_FUNCT_ROW_NUMBER ) {
+          logError( BaseMessages.getString(
+            PKG, "AnalyticQuery.Log.AggregateSubjectFieldCouldNotFound", meta.getSubjectField()[ i ] ) );
+          setErrors( 1 );
+          stopAll();
+          return false;
+        }
+        if ( type == AnalyticQueryMeta.TYPE_FUNCT_LAG ) {
+          data.maxLag = Math.max( data.maxLag, meta.getValueField()[ i ] );
+        } else if ( type == AnalyticQueryMeta.TYPE_FUNCT_LEAD ) {
+          data.maxLead = Math.max( data.maxLead, meta.getValueField()[ i ] );
+        } else {
+          boolean range = meta.getFrameType( i ) == AnalyticQueryMeta.FRAME_RANGE;
+          if ( range && data.orderIndex < 0 ) {
+            data.orderIndex = data.inputRowMeta.indexOfValue( resolve( meta.getOrderField() ) );
+            if ( data.orderIndex < 0 ) {
+              logError( BaseMessages.getString( PKG, "AnalyticQuery.Log.OrderFieldCouldNotFound", meta.getOrderField() ) );
+              setErrors( 1 );
+              stopAll();
+              return false;
+            }
+            data.orderMeta = data.inputRowMeta.getValueMeta( data.orderIndex );
+          }
+          IValueMeta subjectMeta = data.subjectnrs[ i ] < 0 ? null : data.inputRowMeta.getValueMeta( data.subjectnrs[ i ] );
+          data.functions[ i ] = new AnalyticWindowFunction( type, subjectMeta, data.subjectnrs[ i ], range,
+            meta.getValueField()[ i ], data.orderMeta, data.orderIndex );
+          data.rangeFrames |= data.functions[ i ].isRangeFrame();
         }
       }
-      data.window_size = maxOffset;
-      data.queue_size = ( maxOffset * 2 ) + 1;
 
       // After we've processed the metadata we're all set
       first = false;
 
     }
 
-    /* If our row is null we're done, clear the queue and end otherwise process the row */
+    /* If our row is null we're done, send the rows of the last group and end otherwise process the row */
     if ( r == null ) {
-      clearQueue();
+      endGroup();
       setOutputDone();
       return false;
     } else {
       /* First with every group change AND the first row */
       if ( !sameGroup( this.data.previous, r ) ) {
-        clearQueue();
+        endGroup();
         resetGroup();
       }
-      /* Add this row to the end of the queue */
-      data.data.add( r );
-      /* Push the extra records off the end of the queue */
-      while ( data.data.size() > data.queue_size ) {
-        data.data.poll();
-      }
-
       data.previous = r.clone();
 
-      processQueue();
+      addRow( r );
     }
 
     if ( log.isBasic() && checkFeedback( getLinesRead() ) ) {
@@ -124,80 +150,134 @@ public class AnalyticQuery extends BaseTransform<AnalyticQueryMeta, AnalyticQuer
     return true;
   }
 
-  public void processQueue() throws HopTransformException {
+  /**
+   * Add a row to the current group, calculate the window functions and send the rows which are complete.
+   *
+   * @param r the input row
+   */
+  public void addRow( Object[] r ) throws HopException {
+    Object[] row = RowDataUtil.resizeArray( r, data.outputRowMeta.size() );
+
+    // A new order value means that all the rows with the previous order value are known
+    //
+    if ( data.rangeFrames ) {
+      Object order = row[ data.orderIndex ];
+      if ( data.peers > 0 && data.orderMeta.compare( data.previousOrder, order ) != 0 ) {
+        completePeers();
+      }
+      data.previousOrder = order;
+    }
 
-    // If we've filled up our queue for processing
-    if ( data.data.size() == data.queue_size ) {
-      // Bring current cursor "up to current"
-      if ( data.queue_cursor <= data.window_size ) {
-        while ( data.queue_cursor <= data.window_size ) {
-          processQueueObjectAt( data.queue_cursor + 1 );
-          data.queue_cursor++;
+    int inputSize = data.inputRowMeta.size();
+    for ( int i = 0; i < data.functions.length; i++ ) {
+      AnalyticWindowFunction function = data.functions[ i ];
+      if ( function != null ) {
+        function.add( row );
+        if ( !function.isRangeFrame() ) {
+          row[ inputSize + i ] = function.getValue();
         }
-      } else {
-        processQueueObjectAt( data.window_size + 1 );
       }
     }
-  }
+    data.rows.add( row );
+    if ( data.rangeFrames ) {
+      data.peers++;
+    }
 
-  public void clearQueue() throws HopTransformException {
+    sendRows( false );
+  }
 
-    if ( data.data == null ) {
-      return;
+  /**
+   * Calculate the RANGE frames for the last rows with the same order value
+   */
+  private void completePeers() throws HopException {
+    int inputSize = data.inputRowMeta.size();
+    int last = data.rows.size() - 1;
+    for ( int i = 0; i < data.functions.length; i++ ) {
+      AnalyticWindowFunction function = data.functions[ i ];
+      if ( function != null && function.isRangeFrame() ) {
+        function.slideTo( data.rows.get( last ) );
+        Object value = function.getValue();
+        for ( int p = last - data.peers + 1; p <= last; p++ ) {
+          data.rows.get( p )[ inputSize + i ] = value;
+        }
+      }
     }
+    data.peers = 0;
+  }
 
-    int numberOfRows = data.data.size();
-
-    for ( int i = data.queue_cursor; i < numberOfRows; i++ ) {
-      processQueueObjectAt( i + 1 );
+  /**
+   * Send the rows with all their analytic values known: the rows far enough from the end of the group for the LEAD
+   * functions and with a complete RANGE frame.
+   *
+   * @param endOfGroup true if all the rows of the group were added
+   */
+  private void sendRows( boolean endOfGroup ) throws HopTransformException {
+    int end = data.rows.size();
+    if ( !endOfGroup ) {
+      end -= Math.max( data.maxLead, data.peers );
+    }
+    while ( data.cursor < end ) {
+      putRow( data.outputRowMeta, getOutputRow( data.cursor ) );
+      data.cursor++;
     }
 
+    // Forget the rows we no longer need for LAG once they are at least half of the rows we keep
+    //
+    int obsolete = data.cursor - data.maxLag;
+    if ( obsolete > 0 && obsolete * 2 >= data.rows.size() ) {
+      data.rows.subList( 0, obsolete ).clear();
+      data.cursor -= obsolete;
+    }
   }
 
-  public void processQueueObjectAt( int i ) throws HopTransformException {
-    int index = i - 1;
-    Object[] rows = data.data.toArray();
-
-    Object[] fields = new Object[ meta.getNumberOfFields() ];
-    for ( int j = 0; j < meta.getNumberOfFields(); j++ ) {
-      // field_index is the location inside a row of the subject of this
-      // ie, ORDERTOTAL might be the subject ofthis field lag or lead
-      // so we determine that ORDERTOTAL's index in the row
-      int fieldIndex = data.inputRowMeta.indexOfValue( meta.getSubjectField()[ j ] );
-      int rowIndex = 0;
-      switch ( meta.getAggregateType()[ j ] ) {
+  private Object[] getOutputRow( int index ) {
+    Object[] row = data.rows.get( index );
+    int inputSize = data.inputRowMeta.size();
+    for ( int i = 0; i < data.functions.length; i++ ) {
+      int rowIndex;
+      switch ( meta.getAggregateType()[ i ] ) {
         case AnalyticQueryMeta.TYPE_FUNCT_LAG:
-          rowIndex = index - meta.getValueField()[ j ];
+          rowIndex = index - meta.getValueField()[ i ];
           break;
         case AnalyticQueryMeta.TYPE_FUNCT_LEAD:
-          rowIndex = index + meta.getValueField()[ j ];
+          rowIndex = index + meta.getValueField()[ i ];
           break;
         default:
-          break;
+          continue;
       }
-      if ( rowIndex < rows.length && rowIndex >= 0 ) {
-        Object[] singleRow = (Object[]) rows[ rowIndex ];
-        if ( singleRow != null && singleRow[ fieldIndex ] != null ) {
-          fields[ j ] = ( (Object[]) rows[ rowIndex ] )[ fieldIndex ];
-        } else {
-          // set default
-          fields[ j ] = null;
-        }
+      if ( rowIndex >= 0 && rowIndex < data.rows.size() ) {
+        row[ inputSize + i ] = data.rows.get( rowIndex )[ data.subjectnrs[ i ] ];
       } else {
         // set default
-        fields[ j ] = null;
+        row[ inputSize + i ] = null;
       }
     }
+    return row;
+  }
 
-    Object[] newRow = RowDataUtil.addRowData( (Object[]) rows[ index ], data.inputRowMeta.size(), fields );
-
-    putRow( data.outputRowMeta, newRow );
-
+  /**
+   * Send the remaining rows of the current group
+   */
+  public void endGroup() throws HopException {
+    if ( data.rows == null ) {
+      return;
+    }
+    if ( data.peers > 0 ) {
+      completePeers();
+    }
+    sendRows( true );
   }
 
   public void resetGroup() {
-    data.data = new ConcurrentLinkedQueue<>();
-    data.queue_cursor = 0;
+    data.rows = new ArrayList<>();
+    data.cursor = 0;
+    data.peers = 0;
+    data.previousOrder = null;
+    for ( AnalyticWindowFunction function : data.functions ) {
+      if ( function != null ) {
+        function.reset();
+      }
+    }
   }
 
   // Is the row r of the same group as previous?
@@ -18,10 +18,11 @@
 package org.apache.hop.pipeline.transforms.analyticquery;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.List;
 
 /**
  * @author ngoodman
@@ -34,18 +35,28 @@ public class AnalyticQueryData extends BaseTransformData implements ITransformDa
   public IRowMeta inputRowMeta;
   public IRowMeta outputRowMeta;
 
-  // Two Integers for our processing
-  // Window Size (the largest N we need to skip forward/back)
-  public int window_size;
-  // Queue Size (the size of our data queue (Window Size * 2 ) + 1)
-  public int queue_size;
-  // / Queue Cursor (the current processing location in the queue) reset with every group
-  public int queue_cursor;
-
-  // Queue for keeping the data. We will push data onto the queue
-  // and pop it off as we process rows. The queue of data is required
-  // to get the second previous row and the second ahead row, etc.
-  public ConcurrentLinkedQueue<Object[]> data;
+  // The index of the subject field of every analytic function
+  public int[] subjectnrs;
+
+  // The window functions, null for LEAD and LAG
+  public AnalyticWindowFunction[] functions;
+  public boolean rangeFrames;
+
+  // The largest N we need to look back (LAG) and ahead (LEAD)
+  public int maxLag;
+  public int maxLead;
+
+  // The rows of the current group which are still needed: the rows waiting to be sent
+  // and the last rows sent, up to the largest LAG offset
+  public List<Object[]> rows;
+  // The index in the rows of the next row to send
+  public int cursor;
+  // The number of rows at the end of the rows with the same order value, still waiting for the value of RANGE frames
+  public int peers;
+
+  public int orderIndex;
+  public IValueMeta orderMeta;
+  public Object previousOrder;
 
   public Object[] previous;
 
@@ -34,6 +34,7 @@ import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
 import org.eclipse.swt.events.*;
 import org.eclipse.swt.layout.FormAttachment;
 import org.eclipse.swt.layout.FormData;
@@ -51,6 +52,8 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
 
   private TableView wAgg;
 
+  private CCombo wOrderField;
+
   private final AnalyticQueryMeta input;
   private ColumnInfo[] ciKey;
   private ColumnInfo[] ciReturn;
@@ -138,19 +141,38 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
     fdGroup.left = new FormAttachment( 0, 0 );
     fdGroup.top = new FormAttachment(wlGroup, margin );
     fdGroup.right = new FormAttachment(wGet, -margin );
-    fdGroup.bottom = new FormAttachment( 45, 0 );
+    fdGroup.bottom = new FormAttachment( 40, 0 );
     wGroup.setLayoutData(fdGroup);
 
+    // The order field for the RANGE frames
+    Label wlOrderField = new Label( shell, SWT.RIGHT );
+    wlOrderField.setText( BaseMessages.getString( PKG, "AnalyticQueryDialog.OrderField.Label" ) );
+    wlOrderField.setToolTipText( BaseMessages.getString( PKG, "AnalyticQueryDialog.OrderField.Tooltip" ) );
+    props.setLook( wlOrderField );
+    FormData fdlOrderField = new FormData();
+    fdlOrderField.left = new FormAttachment( 0, 0 );
+    fdlOrderField.right = new FormAttachment( middle, -margin );
+    fdlOrderField.top = new FormAttachment( wGroup, margin );
+    wlOrderField.setLayoutData( fdlOrderField );
+    wOrderField = new CCombo( shell, SWT.BORDER );
+    props.setLook( wOrderField );
+    wOrderField.addModifyListener( lsMod );
+    FormData fdOrderField = new FormData();
+    fdOrderField.left = new FormAttachment( middle, 0 );
+    fdOrderField.top = new FormAttachment( wGroup, margin );
+    fdOrderField.right = new FormAttachment( 100, 0 );
+    wOrderField.setLayoutData( fdOrderField );
+
     // THE Aggregate fields
     Label wlAgg = new Label(shell, SWT.NONE);
     wlAgg.setText( BaseMessages.getString( PKG, "AnalyticQueryDialog.Aggregates.Label" ) );
     props.setLook(wlAgg);
     FormData fdlAgg = new FormData();
     fdlAgg.left = new FormAttachment( 0, 0 );
-    fdlAgg.top = new FormAttachment( wGroup, margin );
+    fdlAgg.top = new FormAttachment( wOrderField, margin );
     wlAgg.setLayoutData(fdlAgg);
 
-    int UpInsCols = 4;
+    int UpInsCols = 5;
     int UpInsRows = ( input.getAggregateField() != null ? input.getAggregateField().length : 1 );
 
     ciReturn = new ColumnInfo[ UpInsCols ];
@@ -171,6 +193,11 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
         BaseMessages.getString( PKG, "AnalyticQueryDialog.ColumnInfo.Value" ), ColumnInfo.COLUMN_TYPE_TEXT,
         false );
     ciReturn[ 3 ].setToolTip( BaseMessages.getString( PKG, "AnalyticQueryDialog.ColumnInfo.Value.Tooltip" ) );
+    ciReturn[ 4 ] =
+      new ColumnInfo(
+        BaseMessages.getString( PKG, "AnalyticQueryDialog.ColumnInfo.Frame" ), ColumnInfo.COLUMN_TYPE_CCOMBO,
+        AnalyticQueryMeta.frameTypeCode );
+    ciReturn[ 4 ].setToolTip( BaseMessages.getString( PKG, "AnalyticQueryDialog.ColumnInfo.Frame.Tooltip" ) );
 
     wAgg =
       new TableView(
@@ -277,6 +304,13 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
     Const.sortStrings( fieldNames );
     ciKey[ 0 ].setComboValues( fieldNames );
     ciReturn[ 1 ].setComboValues( fieldNames );
+    shell.getDisplay().asyncExec( () -> {
+      if ( !wOrderField.isDisposed() ) {
+        String orderField = wOrderField.getText();
+        wOrderField.setItems( fieldNames );
+        wOrderField.setText( orderField );
+      }
+    } );
   }
 
   /**
@@ -311,9 +345,12 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
         if ( valuetext != null ) {
           item.setText( 4, valuetext );
         }
+        item.setText( 5, AnalyticQueryMeta.getFrameTypeCode( input.getFrameType( i ) ) );
       }
     }
 
+    wOrderField.setText( Const.NVL( input.getOrderField(), "" ) );
+
     wGroup.setRowNums();
     wGroup.optWidth( true );
     wAgg.setRowNums();
@@ -352,7 +389,9 @@ public class AnalyticQueryDialog extends BaseTransformDialog implements ITransfo
       input.getSubjectField()[ i ] = item.getText( 2 );
       input.getAggregateType()[ i ] = AnalyticQueryMeta.getType( item.getText( 3 ) );
       input.getValueField()[ i ] = Const.toInt( item.getText( 4 ), 1 );
+      input.getFrameType()[ i ] = AnalyticQueryMeta.getFrameType( item.getText( 5 ) );
     }
+    input.setOrderField( wOrderField.getText() );
 
     transformName = wTransformName.getText();
 
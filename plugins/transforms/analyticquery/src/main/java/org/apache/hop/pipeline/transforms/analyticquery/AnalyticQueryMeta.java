@@ -29,6 +29,9 @@ import org.apache.hop.core.injection.InjectionSupported;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.xml.XmlHandler;
@@ -64,17 +67,53 @@ public class AnalyticQueryMeta extends BaseTransformMeta
 
   public static final int TYPE_FUNCT_LEAD = 0;
   public static final int TYPE_FUNCT_LAG = 1;
+  public static final int TYPE_FUNCT_ROW_NUMBER = 2;
+  public static final int TYPE_FUNCT_RANK = 3;
+  public static final int TYPE_FUNCT_DENSE_RANK = 4;
+  public static final int TYPE_FUNCT_SUM = 5;
+  public static final int TYPE_FUNCT_AVG = 6;
+  public static final int TYPE_FUNCT_COUNT = 7;
+  public static final int TYPE_FUNCT_MIN = 8;
+  public static final int TYPE_FUNCT_MAX = 9;
+  public static final int TYPE_FUNCT_FIRST_VALUE = 10;
+  public static final int TYPE_FUNCT_LAST_VALUE = 11;
 
   public static final String[]
       typeGroupCode = /* WARNING: DO NOT TRANSLATE THIS. WE ARE SERIOUS, DON'T TRANSLATE! */ {
-    "LEAD", "LAG",
+    "LEAD",
+    "LAG",
+    "ROW_NUMBER",
+    "RANK",
+    "DENSE_RANK",
+    "SUM",
+    "AVG",
+    "COUNT",
+    "MIN",
+    "MAX",
+    "FIRST_VALUE",
+    "LAST_VALUE",
   };
 
   public static final String[] typeGroupLongDesc = {
     BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LEAD"),
-    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LAG")
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LAG"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.ROW_NUMBER"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.RANK"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.DENSE_RANK"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.SUM"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.AVG"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.COUNT"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.MIN"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.MAX"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.FIRST_VALUE"),
+    BaseMessages.getString(PKG, "AnalyticQueryMeta.TypeGroupLongDesc.LAST_VALUE")
   };
 
+  public static final int FRAME_ROWS = 0;
+  public static final int FRAME_RANGE = 1;
+
+  public static final String[] frameTypeCode = {"ROWS", "RANGE"};
+
   /** Fields to partition by ie, CUSTOMER, PRODUCT */
   @Injection(name = "GROUP_FIELDS")
   private String[] groupField;
@@ -91,9 +130,18 @@ public class AnalyticQueryMeta extends BaseTransformMeta
   /** Aggregate type (LEAD/LAG, etc) */
   @Injection(name = "OUTPUT.AGGREGATE_TYPE")
   private int[] aggregateType;
-  /** Offset "N" of how many rows to go forward/back */
+  /**
+   * Offset "N" of how many rows to go forward/back, the size of the frame for the window functions
+   */
   @Injection(name = "OUTPUT.VALUE_FIELD")
   private int[] valueField;
+  /** The type of frame of the window functions: ROWS or RANGE */
+  @Injection(name = "OUTPUT.FRAME_TYPE")
+  private int[] frameType;
+
+  /** The field the rows are sorted on within a group, determines the RANGE frames */
+  @Injection(name = "ORDER_FIELD")
+  private String orderField;
 
   /** END arrays are one for each configured analytic function */
   public AnalyticQueryMeta() {
@@ -150,6 +198,31 @@ public class AnalyticQueryMeta extends BaseTransformMeta
     this.valueField = valueField;
   }
 
+  /** @return the frame types of the window functions (FRAME_ROWS or FRAME_RANGE) */
+  public int[] getFrameType() {
+    return frameType;
+  }
+
+  /** @return the frame type of the given window function, ROWS if none was specified */
+  public int getFrameType(int i) {
+    return frameType != null && i < frameType.length ? frameType[i] : FRAME_ROWS;
+  }
+
+  /** @param frameType the frame types of the window functions to set */
+  public void setFrameType(int[] frameType) {
+    this.frameType = frameType;
+  }
+
+  /** @return the field the rows are sorted on within a group */
+  public String getOrderField() {
+    return orderField;
+  }
+
+  /** @param orderField the field the rows are sorted on within a group */
+  public void setOrderField(String orderField) {
+    this.orderField = orderField;
+  }
+
   @Override
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
@@ -162,6 +235,7 @@ public class AnalyticQueryMeta extends BaseTransformMeta
     subjectField = new String[nrFields];
     aggregateType = new int[nrFields];
     valueField = new int[nrFields];
+    frameType = new int[nrFields];
 
     numberOfFields = nrFields;
   }
@@ -193,7 +267,9 @@ public class AnalyticQueryMeta extends BaseTransformMeta
         aggregateType[i] = getType(XmlHandler.getTagValue(fnode, "type"));
 
         valueField[i] = Integer.parseInt(XmlHandler.getTagValue(fnode, "valuefield"));
+        frameType[i] = getFrameType(XmlHandler.getTagValue(fnode, "frame"));
       }
+      orderField = XmlHandler.getTagValue(transformNode, "order_field");
 
     } catch (Exception e) {
       throw new HopXmlException(
@@ -217,6 +293,27 @@ public class AnalyticQueryMeta extends BaseTransformMeta
     return 0;
   }
 
+  public static final int getFrameType(String code) {
+    for (int i = 0; i < frameTypeCode.length; i++) {
+      if (frameTypeCode[i].equalsIgnoreCase(code)) {
+        return i;
+      }
+    }
+    return FRAME_ROWS;
+  }
+
+  public static final String getFrameTypeCode(int i) {
+    if (i < 0 || i >= frameTypeCode.length) {
+      return frameTypeCode[FRAME_ROWS];
+    }
+    return frameTypeCode[i];
+  }
+
+  /** @return true if the function only needs the current row and the rows before it */
+  public static final boolean isWindowFunction(int type) {
+    return type != TYPE_FUNCT_LEAD && type != TYPE_FUNCT_LAG;
+  }
+
   public static final String getTypeDesc(int i) {
     if (i < 0 || i >= typeGroupCode.length) {
       return null;
@@ -237,6 +334,7 @@ public class AnalyticQueryMeta extends BaseTransformMeta
     int nrFields = 0;
 
     allocate(sizegroup, nrFields);
+    orderField = null;
   }
 
   @Override
@@ -261,11 +359,39 @@ public class AnalyticQueryMeta extends BaseTransformMeta
       int indexOf_subject = -1;
       indexOf_subject = r.indexOfValue(subjectField[i]);
 
-      // if we found the subjectField in the IRowMeta, and we should....
-      if (indexOf_subject > -1) {
-        IValueMeta vmi = r.getValueMeta(indexOf_subject).clone();
+      if (aggregateType[i] == TYPE_FUNCT_ROW_NUMBER) {
+        // the row number doesn't need a subject
+        IValueMeta vmi = new ValueMetaInteger(aggregateField[i]);
+        vmi.setOrigin(origin);
+        fields.addValueMeta(r.size() + i, vmi);
+      } else if (indexOf_subject > -1) {
+        // if we found the subjectField in the IRowMeta, and we should....
+        IValueMeta subject = r.getValueMeta(indexOf_subject);
+        IValueMeta vmi;
+        switch (aggregateType[i]) {
+          case TYPE_FUNCT_RANK:
+          case TYPE_FUNCT_DENSE_RANK:
+          case TYPE_FUNCT_COUNT:
+            vmi = new ValueMetaInteger(aggregateField[i]);
+            break;
+          case TYPE_FUNCT_AVG:
+            vmi = new ValueMetaNumber(aggregateField[i]);
+            break;
+          case TYPE_FUNCT_SUM:
+            if (subject.getType() == IValueMeta.TYPE_INTEGER) {
+              vmi = new ValueMetaInteger(aggregateField[i]);
+            } else if (subject.getType() == IValueMeta.TYPE_BIGNUMBER) {
+              vmi = new ValueMetaBigNumber(aggregateField[i]);
+            } else {
+              vmi = new ValueMetaNumber(aggregateField[i]);
+            }
+            break;
+          default:
+            vmi = subject.clone();
+            vmi.setName(aggregateField[i]);
+            break;
+        }
         vmi.setOrigin(origin);
-        vmi.setName(aggregateField[i]);
         fields.addValueMeta(r.size() + i, vmi);
       } else {
         // we have a condition where the subjectField can't be found from the iRowMeta
@@ -310,9 +436,13 @@ public class AnalyticQueryMeta extends BaseTransformMeta
           .append("          ")
           .append(XmlHandler.addTagValue("type", getTypeDesc(aggregateType[i])));
       retval.append("          ").append(XmlHandler.addTagValue("valuefield", valueField[i]));
+      retval
+          .append("          ")
+          .append(XmlHandler.addTagValue("frame", getFrameTypeCode(getFrameType(i))));
       retval.append("        </field>").append(Const.CR);
     }
     retval.append("      </fields>").append(Const.CR);
+    retval.append("      ").append(XmlHandler.addTagValue("order_field", orderField));
 
     return retval.toString();
   }
@@ -390,8 +520,9 @@ public class AnalyticQueryMeta extends BaseTransformMeta
     String[][] rtn = Utils.normalizeArrays(nrFields, aggregateField);
     aggregateField = rtn[0];
 
-    int[][] rtnInt = Utils.normalizeArrays(nrFields, aggregateType, valueField);
+    int[][] rtnInt = Utils.normalizeArrays(nrFields, aggregateType, valueField, frameType);
     aggregateType = rtnInt[0];
     valueField = rtnInt[1];
+    frameType = rtnInt[2];
   }
 }
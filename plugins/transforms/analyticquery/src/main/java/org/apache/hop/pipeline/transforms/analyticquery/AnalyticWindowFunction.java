@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+
+/**
+ * Calculates a window function over the rows of a group: ranking, running or moving aggregates and first/last values.
+ * <p>
+ * Rows are added in the order of the group. A ROWS frame holds the last N rows, a RANGE frame holds the rows with an
+ * order value at most N below the order value of the current row. The rows without an order value are peers of each
+ * other only: they sort together at the start or the end of the group and their RANGE frame holds just them. Without a frame size the frame starts at the first
+ * row of the group. The aggregates are updated as rows enter and leave the frame: sums and counts are adjusted, the
+ * minimum and maximum are kept in monotonic deques. This keeps the cost per row constant (amortized) whatever the size
+ * of the frame, and only the rows of a bounded frame are kept in memory.
+ *
+ * @see AnalyticQuery
+ */
+public class AnalyticWindowFunction {
+
+  /**
+   * A row in the frame
+   */
+  private static class Entry {
+    final Object value;
+    // The order value of a RANGE frame, null if the row has none
+    final Double key;
+
+    Entry( Object value, Double key ) {
+      this.value = value;
+      this.key = key;
+    }
+  }
+
+  private final int type;
+  private final IValueMeta subjectMeta;
+  private final int subjectIndex;
+  private final boolean rangeFrame;
+  private final int frameSize;
+  private final IValueMeta orderMeta;
+  private final int orderIndex;
+
+  // The rows in a bounded frame
+  private final ArrayDeque<Entry> frame = new ArrayDeque<>();
+  // The candidates for the minimum or maximum of a bounded frame, in frame order with the best value first
+  private final ArrayDeque<Entry> extremes = new ArrayDeque<>();
+
+  private long count;
+  private long longSum;
+  private double doubleSum;
+  private BigDecimal bigSum;
+
+  private Object firstValue;
+  private Object lastValue;
+  private Object extreme;
+
+  private long rowNumber;
+  private long rank;
+  private long denseRank;
+  private Object previousSubject;
+
+  /**
+   * @param type         the function type, one of the AnalyticQueryMeta.TYPE_FUNCT_ constants except LEAD and LAG
+   * @param subjectMeta  the metadata of the subject field or null if the function doesn't need it
+   * @param subjectIndex the index of the subject field in the row
+   * @param rangeFrame   true for a RANGE frame, false for a ROWS frame
+   * @param frameSize    the number of rows (ROWS) or the order value distance (RANGE) of the frame, 0 for a frame from
+   *                     the first row of the group up to the current row
+   * @param orderMeta    the metadata of the order field of a RANGE frame
+   * @param orderIndex   the index of the order field in the row
+   */
+  public AnalyticWindowFunction( int type, IValueMeta subjectMeta, int subjectIndex, boolean rangeFrame,
+                                 int frameSize, IValueMeta orderMeta, int orderIndex ) {
+    this.type = type;
+    this.subjectMeta = subjectMeta;
+    this.subjectIndex = subjectIndex;
+    this.rangeFrame = rangeFrame;
+    this.frameSize = Math.max( 0, frameSize );
+    this.orderMeta = orderMeta;
+    this.orderIndex = orderIndex;
+    reset();
+  }
+
+  /**
+   * @return true if the value is only known once all the rows with the same order value were added
+   */
+  public boolean isRangeFrame() {
+    return rangeFrame && !isRanking();
+  }
+
+  private boolean isRanking() {
+    return type == AnalyticQueryMeta.TYPE_FUNCT_ROW_NUMBER || type == AnalyticQueryMeta.TYPE_FUNCT_RANK
+      || type == AnalyticQueryMeta.TYPE_FUNCT_DENSE_RANK;
+  }
+
+  private boolean isBounded() {
+    return frameSize > 0;
+  }
+
+  /**
+   * Start a new group
+   */
+  public void reset() {
+    frame.clear();
+    extremes.clear();
+    count = 0;
+    longSum = 0;
+    doubleSum = 0;
+    bigSum = BigDecimal.ZERO;
+    firstValue = null;
+    lastValue = null;
+    extreme = null;
+    rowNumber = 0;
+    rank = 0;
+    denseRank = 0;
+    previousSubject = null;
+  }
+
+  /**
+   * Add the next row of the group to the frame. A ROWS frame drops the rows which fall out of it.
+   *
+   * @param row the row to add
+   * @throws HopValueException in case the subject or order value can't be converted
+   */
+  public void add( Object[] row ) throws HopValueException {
+    Object value = subjectIndex < 0 ? null : row[ subjectIndex ];
+    rowNumber++;
+
+    switch ( type ) {
+      case AnalyticQueryMeta.TYPE_FUNCT_ROW_NUMBER:
+        return;
+      case AnalyticQueryMeta.TYPE_FUNCT_RANK:
+      case AnalyticQueryMeta.TYPE_FUNCT_DENSE_RANK:
+        if ( rowNumber == 1 || subjectMeta.compare( previousSubject, value ) != 0 ) {
+          rank = rowNumber;
+          denseRank++;
+        }
+        previousSubject = value;
+        return;
+      default:
+        break;
+    }
+
+    if ( rowNumber == 1 ) {
+      firstValue = value;
+    }
+    lastValue = value;
+
+    Entry entry = null;
+    if ( isBounded() ) {
+      Double key = isRangeFrame() ? orderMeta.getNumber( row[ orderIndex ] ) : null;
+      entry = new Entry( value, key );
+      frame.addLast( entry );
+    }
+
+    if ( value != null ) {
+      switch ( type ) {
+        case AnalyticQueryMeta.TYPE_FUNCT_SUM:
+        case AnalyticQueryMeta.TYPE_FUNCT_AVG:
+          addToSum( value, 1 );
+          count++;
+          break;
+        case AnalyticQueryMeta.TYPE_FUNCT_COUNT:
+          count++;
+          break;
+        case AnalyticQueryMeta.TYPE_FUNCT_MIN:
+        case AnalyticQueryMeta.TYPE_FUNCT_MAX:
+          if ( entry == null ) {
+            if ( extreme == null || isBetter( value, extreme ) ) {
+              extreme = value;
+            }
+          } else {
+            // Values which can no longer be the best before they leave the frame are dropped
+            while ( !extremes.isEmpty() && !isBetter( extremes.peekLast().value, value ) ) {
+              extremes.pollLast();
+            }
+            extremes.addLast( entry );
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    if ( isBounded() && !isRangeFrame() ) {
+      while ( frame.size() > frameSize ) {
+        removeFirst();
+      }
+    }
+  }
+
+  /**
+   * Drop the rows from a RANGE frame with an order value more than the frame size below the given order value. A row
+   * without an order value drops all the rows with one and the other way around.
+   *
+   * @param row a row with the order value of the current rows
+   * @throws HopValueException in case the order value can't be converted
+   */
+  public void slideTo( Object[] row ) throws HopValueException {
+    if ( !isRangeFrame() || !isBounded() ) {
+      return;
+    }
+    Double number = orderMeta.getNumber( row[ orderIndex ] );
+    while ( !frame.isEmpty() && !isInRange( frame.peekFirst().key, number ) ) {
+      removeFirst();
+    }
+  }
+
+  private boolean isInRange( Double key, Double number ) {
+    if ( key == null || number == null ) {
+      return key == null && number == null;
+    }
+    return key >= number - frameSize;
+  }
+
+  private void removeFirst() throws HopValueException {
+    Entry entry = frame.pollFirst();
+    if ( entry.value == null ) {
+      return;
+    }
+    switch ( type ) {
+      case AnalyticQueryMeta.TYPE_FUNCT_SUM:
+      case AnalyticQueryMeta.TYPE_FUNCT_AVG:
+        addToSum( entry.value, -1 );
+        count--;
+        break;
+      case AnalyticQueryMeta.TYPE_FUNCT_COUNT:
+        count--;
+        break;
+      case AnalyticQueryMeta.TYPE_FUNCT_MIN:
+      case AnalyticQueryMeta.TYPE_FUNCT_MAX:
+        if ( extremes.peekFirst() == entry ) {
+          extremes.pollFirst();
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void addToSum( Object value, int sign ) throws HopValueException {
+    switch ( subjectMeta.getType() ) {
+      case IValueMeta.TYPE_INTEGER:
+        longSum += sign * subjectMeta.getInteger( value );
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        BigDecimal number = subjectMeta.getBigNumber( value );
+        bigSum = sign > 0 ? bigSum.add( number ) : bigSum.subtract( number );
+        break;
+      default:
+        doubleSum += sign * subjectMeta.getNumber( value );
+        break;
+    }
+  }
+
+  private boolean isBetter( Object value, Object than ) throws HopValueException {
+    int compare = subjectMeta.compare( value, than );
+    return type == AnalyticQueryMeta.TYPE_FUNCT_MIN ? compare < 0 : compare > 0;
+  }
+
+  /**
+   * @return the value of the function for the frame of the last row added
+   */
+  public Object getValue() {
+    switch ( type ) {
+      case AnalyticQueryMeta.TYPE_FUNCT_ROW_NUMBER:
+        return rowNumber;
+      case AnalyticQueryMeta.TYPE_FUNCT_RANK:
+        return rank;
+      case AnalyticQueryMeta.TYPE_FUNCT_DENSE_RANK:
+        return denseRank;
+      case AnalyticQueryMeta.TYPE_FUNCT_COUNT:
+        return count;
+      case AnalyticQueryMeta.TYPE_FUNCT_SUM:
+        if ( count == 0 ) {
+          return null;
+        }
+        return getSum();
+      case AnalyticQueryMeta.TYPE_FUNCT_AVG:
+        if ( count == 0 ) {
+          return null;
+        }
+        if ( subjectMeta.getType() == IValueMeta.TYPE_BIGNUMBER ) {
+          return bigSum.divide( BigDecimal.valueOf( count ), MathContext.DECIMAL64 ).doubleValue();
+        }
+        return ( (Number) getSum() ).doubleValue() / count;
+      case AnalyticQueryMeta.TYPE_FUNCT_MIN:
+      case AnalyticQueryMeta.TYPE_FUNCT_MAX:
+        if ( isBounded() ) {
+          return extremes.isEmpty() ? null : extremes.peekFirst().value;
+        }
+        return extreme;
+      case AnalyticQueryMeta.TYPE_FUNCT_FIRST_VALUE:
+        if ( isBounded() ) {
+          return frame.isEmpty() ? null : frame.peekFirst().value;
+        }
+        return firstValue;
+      case AnalyticQueryMeta.TYPE_FUNCT_LAST_VALUE:
+        return lastValue;
+      default:
+        return null;
+    }
+  }
+
+  private Object getSum() {
+    switch ( subjectMeta.getType() ) {
+      case IValueMeta.TYPE_INTEGER:
+        return longSum;
+      case IValueMeta.TYPE_BIGNUMBER:
+        return bigSum;
+      default:
+        return doubleSum;
+    }
+  }
+}
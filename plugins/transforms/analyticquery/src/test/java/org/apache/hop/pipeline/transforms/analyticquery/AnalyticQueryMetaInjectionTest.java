@@ -39,5 +39,7 @@ public class AnalyticQueryMetaInjectionTest extends BaseMetadataInjectionTest<An
     check( "OUTPUT.SUBJECT_FIELD", () -> meta.getSubjectField()[ 0 ] );
     check( "OUTPUT.AGGREGATE_TYPE", () -> meta.getAggregateType()[ 0 ] );
     check( "OUTPUT.VALUE_FIELD", () -> meta.getValueField()[ 0 ] );
+    check( "OUTPUT.FRAME_TYPE", () -> meta.getFrameType()[ 0 ] );
+    check( "ORDER_FIELD", () -> meta.getOrderField() );
   }
 }
@@ -45,7 +45,7 @@ public class AnalyticQueryMetaTest {
   @Test
   public void testRoundTrip() throws HopException {
     List<String> attributes = Arrays.asList( "groupField", "aggregateField", "subjectField",
-      "aggregateType", "valueField" );
+      "aggregateType", "valueField", "frameType", "orderField" );
 
     Map<String, String> getterMap = new HashMap<>();
     Map<String, String> setterMap = new HashMap<>();
@@ -57,6 +57,8 @@ public class AnalyticQueryMetaTest {
     fieldValidators.put( "aggregateType", new PrimitiveIntArrayLoadSaveValidator(
       new IntLoadSaveValidator( AnalyticQueryMeta.typeGroupCode.length ), 50 ) );
     fieldValidators.put( "valueField", new PrimitiveIntArrayLoadSaveValidator( new IntLoadSaveValidator(), 50 ) );
+    fieldValidators.put( "frameType", new PrimitiveIntArrayLoadSaveValidator(
+      new IntLoadSaveValidator( AnalyticQueryMeta.frameTypeCode.length ), 50 ) );
 
     LoadSaveTester loadSaveTester =
       new LoadSaveTester( AnalyticQueryMeta.class, attributes, getterMap, setterMap, fieldValidators, typeValidators );
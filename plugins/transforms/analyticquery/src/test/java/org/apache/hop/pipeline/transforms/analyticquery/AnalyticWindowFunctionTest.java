@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.analyticquery;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnalyticWindowFunctionTest {
+
+  private final IValueMeta subjectMeta = new ValueMetaInteger( "subject" );
+  private final IValueMeta orderMeta = new ValueMetaNumber( "order" );
+
+  private List<Object> calculate( int type, int frameSize, long... values ) throws HopValueException {
+    AnalyticWindowFunction function = new AnalyticWindowFunction( type, subjectMeta, 0, false, frameSize, null, -1 );
+    List<Object> result = new ArrayList<>();
+    for ( long value : values ) {
+      function.add( new Object[] { value } );
+      result.add( function.getValue() );
+    }
+    return result;
+  }
+
+  private static List<Object> list( Object... values ) {
+    List<Object> list = new ArrayList<>();
+    for ( Object value : values ) {
+      list.add( value );
+    }
+    return list;
+  }
+
+  @Test
+  public void testRunningSum() throws Exception {
+    assertEquals( list( 1L, 3L, 6L, 10L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_SUM, 0, 1, 2, 3, 4 ) );
+  }
+
+  @Test
+  public void testMovingSumAndAverage() throws Exception {
+    assertEquals( list( 1L, 3L, 5L, 7L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_SUM, 2, 1, 2, 3, 4 ) );
+    assertEquals( list( 1.0, 1.5, 2.5, 3.5 ), calculate( AnalyticQueryMeta.TYPE_FUNCT_AVG, 2, 1, 2, 3, 4 ) );
+  }
+
+  @Test
+  public void testMovingMinMax() throws Exception {
+    assertEquals( list( 5L, 3L, 3L, 3L, 1L, 1L ),
+      calculate( AnalyticQueryMeta.TYPE_FUNCT_MIN, 3, 5, 3, 4, 6, 1, 2 ) );
+    assertEquals( list( 5L, 5L, 5L, 6L, 6L, 6L ),
+      calculate( AnalyticQueryMeta.TYPE_FUNCT_MAX, 3, 5, 3, 4, 6, 1, 2 ) );
+    assertEquals( list( 5L, 3L, 3L, 3L, 1L, 1L ),
+      calculate( AnalyticQueryMeta.TYPE_FUNCT_MIN, 0, 5, 3, 4, 6, 1, 2 ) );
+  }
+
+  @Test
+  public void testFirstValueAndCount() throws Exception {
+    assertEquals( list( 5L, 5L, 3L, 4L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_FIRST_VALUE, 2, 5, 3, 4, 6 ) );
+    assertEquals( list( 5L, 5L, 5L, 5L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_FIRST_VALUE, 0, 5, 3, 4, 6 ) );
+    assertEquals( list( 1L, 2L, 2L, 2L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_COUNT, 2, 5, 3, 4, 6 ) );
+  }
+
+  @Test
+  public void testRanking() throws Exception {
+    assertEquals( list( 1L, 2L, 3L, 4L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_ROW_NUMBER, 0, 7, 7, 8, 9 ) );
+    assertEquals( list( 1L, 1L, 3L, 4L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_RANK, 0, 7, 7, 8, 9 ) );
+    assertEquals( list( 1L, 1L, 2L, 3L ), calculate( AnalyticQueryMeta.TYPE_FUNCT_DENSE_RANK, 0, 7, 7, 8, 9 ) );
+  }
+
+  @Test
+  public void testRangeFrame() throws Exception {
+    // Sum over the rows with an order value within 2 of the current one
+    AnalyticWindowFunction function =
+      new AnalyticWindowFunction( AnalyticQueryMeta.TYPE_FUNCT_SUM, subjectMeta, 0, true, 2, orderMeta, 1 );
+    double[] orders = { 1.0, 2.0, 4.0, 7.0, 8.0 };
+    List<Object> result = new ArrayList<>();
+    for ( double order : orders ) {
+      Object[] row = new Object[] { 10L, order };
+      function.add( row );
+      function.slideTo( row );
+      result.add( function.getValue() );
+    }
+    assertEquals( list( 10L, 20L, 20L, 10L, 20L ), result );
+  }
+
+  @Test
+  public void testRangeFrameWithNullOrderValues() throws Exception {
+    // The rows without an order value are a peer group of their own, sorted first or last
+    assertEquals( list( 3L, 3L, 4L, 12L, 24L ), rangeSums( null, null, 1.0, 2.0, 4.0 ) );
+    assertEquals( list( 1L, 3L, 6L, 24L, 24L ), rangeSums( 1.0, 2.0, 4.0, null, null ) );
+  }
+
+  /**
+   * Sum 1, 2, 4, 8, ... over the rows with an order value within 2 of the current one, a peer group at a time
+   */
+  private List<Object> rangeSums( Double... orders ) throws HopValueException {
+    AnalyticWindowFunction function =
+      new AnalyticWindowFunction( AnalyticQueryMeta.TYPE_FUNCT_SUM, subjectMeta, 0, true, 2, orderMeta, 1 );
+    List<Object> result = new ArrayList<>();
+    int peers = 0;
+    for ( int i = 0; i < orders.length; i++ ) {
+      Object[] row = new Object[] { 1L << i, orders[ i ] };
+      function.add( row );
+      peers++;
+      if ( i == orders.length - 1 || orderMeta.compare( orders[ i ], orders[ i + 1 ] ) != 0 ) {
+        function.slideTo( row );
+        for ( ; peers > 0; peers-- ) {
+          result.add( function.getValue() );
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    AnalyticWindowFunction function =
+      new AnalyticWindowFunction( AnalyticQueryMeta.TYPE_FUNCT_SUM, subjectMeta, 0, false, 0, null, -1 );
+    function.add( new Object[] { 5L } );
+    function.reset();
+    assertEquals( null, function.getValue() );
+    function.add( new Object[] { 2L } );
+    assertEquals( 2L, function.getValue() );
+  }
+}
@@ -35,6 +35,8 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
 
 /**
  * Calculate new field values using pre-defined functions.
@@ -53,6 +55,17 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> im
     public int indexC;
   }
 
+  /**
+   * A calculation bound to the indexes and metadata of the calculation row. The calculations are prepared once with the
+   * first row so that the common cases don't need to look up the calculation type and metadata for every row.
+   */
+  public interface ICalculation {
+    /**
+     * @param calcData The input row with room for the calculated fields, the result is stored in it
+     */
+    void calculate( Object[] calcData ) throws HopValueException, HopFileNotFoundException;
+  }
+
 
   public Calculator( TransformMeta transformMeta, CalculatorMeta meta, CalculatorData data, int copyNr, PipelineMeta pipelineMeta,
                      Pipeline pipeline ) {
@@ -143,6 +156,11 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> im
       for ( int i = 0; i < data.getTempIndexes().length; i++ ) {
         data.getTempIndexes()[ i ] = tempIndexes.get( i );
       }
+
+      data.setCalculations( new ICalculation[ meta.getCalculation().length ] );
+      for ( int i = 0; i < meta.getCalculation().length; i++ ) {
+        data.getCalculations()[ i ] = compile( i, getInputRowMeta().size() + i );
+      }
     }
 
     if ( log.isRowLevel() ) {
@@ -187,6 +205,10 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> im
     Object[] calcData = RowDataUtil.resizeArray( r, data.getCalcRowMeta().size() );
 
     for ( int i = 0, index = inputRowMeta.size() + i; i < meta.getCalculation().length; i++, index++ ) {
+      if ( data.getCalculations()[ i ] != null ) {
+        data.getCalculations()[ i ].calculate( calcData );
+        continue;
+      }
       CalculatorMetaFunction fn = meta.getCalculation()[ i ];
       if ( !Utils.isEmpty( fn.getFieldName() ) ) {
         IValueMeta targetMeta = data.getCalcRowMeta().getValueMeta( index );
@@ -629,6 +651,85 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> im
     // OK, now we should refrain from adding the temporary fields to the result.
     // So we remove them.
     //
+    if ( data.getTempIndexes().length == 0 ) {
+      return calcData;
+    }
     return RowDataUtil.removeItems( calcData, data.getTempIndexes() );
   }
+
+  /**
+   * Prepare calculation i. Additions, subtractions, multiplications and divisions of two Integer or two Number fields
+   * and copies of a field of the target type are calculated directly on the values.
+   *
+   * @param i     The number of the calculation
+   * @param index The index of the calculated field in the calculation row
+   * @return The calculation or null if it goes through the calculation type switch in {@link #calcFields}
+   */
+  private ICalculation compile( int i, int index ) {
+    CalculatorMetaFunction fn = meta.getCalculation()[ i ];
+    if ( Utils.isEmpty( fn.getFieldName() ) ) {
+      // There is no calculated field for it in the row
+      return null;
+    }
+    IRowMeta calcRowMeta = data.getCalcRowMeta();
+    int type = calcRowMeta.getValueMeta( index ).getType();
+    int indexA = data.getFieldIndexes()[ i ].indexA;
+    int indexB = data.getFieldIndexes()[ i ].indexB;
+    IValueMeta metaA = indexA >= 0 ? calcRowMeta.getValueMeta( indexA ) : null;
+    IValueMeta metaB = indexB >= 0 ? calcRowMeta.getValueMeta( indexB ) : null;
+
+    if ( metaA != null && metaA.getType() == type && type != IValueMeta.TYPE_NONE ) {
+      if ( fn.getCalcType() == CalculatorMetaFunction.CALC_COPY_OF_FIELD ) {
+        return calcData -> calcData[ index ] = calcData[ indexA ];
+      }
+      // The values of both arguments are Long or Double objects and the result doesn't need a conversion
+      //
+      if ( metaB != null && metaB.getType() == type && metaA.isStorageNormal() && metaB.isStorageNormal() ) {
+        if ( type == IValueMeta.TYPE_INTEGER ) {
+          switch ( fn.getCalcType() ) {
+            case CalculatorMetaFunction.CALC_ADD:
+              return integerCalculation( index, indexA, indexB, ( a, b ) -> a + b );
+            case CalculatorMetaFunction.CALC_SUBTRACT:
+              return integerCalculation( index, indexA, indexB, ( a, b ) -> a - b );
+            case CalculatorMetaFunction.CALC_MULTIPLY:
+              return integerCalculation( index, indexA, indexB, ( a, b ) -> a * b );
+            case CalculatorMetaFunction.CALC_DIVIDE:
+              return integerCalculation( index, indexA, indexB, ( a, b ) -> a / b );
+            default:
+              break;
+          }
+        } else if ( type == IValueMeta.TYPE_NUMBER ) {
+          switch ( fn.getCalcType() ) {
+            case CalculatorMetaFunction.CALC_ADD:
+              return numberCalculation( index, indexA, indexB, ( a, b ) -> a + b );
+            case CalculatorMetaFunction.CALC_SUBTRACT:
+              return numberCalculation( index, indexA, indexB, ( a, b ) -> a - b );
+            case CalculatorMetaFunction.CALC_MULTIPLY:
+              return numberCalculation( index, indexA, indexB, ( a, b ) -> a * b );
+            case CalculatorMetaFunction.CALC_DIVIDE:
+              return numberCalculation( index, indexA, indexB, ( a, b ) -> a / b );
+            default:
+              break;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static ICalculation integerCalculation( int index, int indexA, int indexB, LongBinaryOperator operator ) {
+    return calcData -> {
+      Long a = (Long) calcData[ indexA ];
+      Long b = (Long) calcData[ indexB ];
+      calcData[ index ] = a == null || b == null ? null : Long.valueOf( operator.applyAsLong( a, b ) );
+    };
+  }
+
+  private static ICalculation numberCalculation( int index, int indexA, int indexB, DoubleBinaryOperator operator ) {
+    return calcData -> {
+      Double a = (Double) calcData[ indexA ];
+      Double b = (Double) calcData[ indexB ];
+      calcData[ index ] = a == null || b == null ? null : Double.valueOf( operator.applyAsDouble( a, b ) );
+    };
+  }
 }
@@ -798,6 +798,66 @@ public class CalculatorUnitTest {
     }
   }
 
+  @Test
+  public void testArithmeticOnIntegersAndNumbers() throws HopException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "b" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "x" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "y" ) );
+
+    IRowSet inputRowSet = smh.getMockInputRowSet( new Object[][] {
+      { 7L, 2L, 1.5, 0.5 }, { null, 2L, 1.5, null }, { -9L, 4L, -3.0, 4.0 } } );
+    inputRowSet.setRowMeta( inputRowMeta );
+
+    CalculatorMeta meta = new CalculatorMeta();
+    meta.setCalculation( new CalculatorMetaFunction[] {
+      new CalculatorMetaFunction( "sum", CalculatorMetaFunction.CALC_ADD, "a", "b", null,
+        IValueMeta.TYPE_INTEGER, 0, 0, true, "", "", "", "" ),
+      new CalculatorMetaFunction( "product", CalculatorMetaFunction.CALC_MULTIPLY, "sum", "b", null,
+        IValueMeta.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "difference", CalculatorMetaFunction.CALC_SUBTRACT, "a", "b", null,
+        IValueMeta.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "quotient", CalculatorMetaFunction.CALC_DIVIDE, "a", "b", null,
+        IValueMeta.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "ratio", CalculatorMetaFunction.CALC_DIVIDE, "x", "y", null,
+        IValueMeta.TYPE_NUMBER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "copy", CalculatorMetaFunction.CALC_COPY_OF_FIELD, "x", null, null,
+        IValueMeta.TYPE_NUMBER, 0, 0, false, "", "", "", "" ),
+      // Mixed types use the type of the first argument like before: 7 + round( 1.5 )
+      new CalculatorMetaFunction( "mixed", CalculatorMetaFunction.CALC_ADD, "a", "x", null,
+        IValueMeta.TYPE_NUMBER, 0, 0, false, "", "", "", "" ) } );
+
+    CalculatorData data = new CalculatorData();
+
+    Calculator calculator = new Calculator( smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline );
+    calculator.addRowSetToInputRowSets( inputRowSet );
+    calculator.setInputRowMeta( inputRowMeta );
+    calculator.init();
+
+    final List<Object[]> rows = new ArrayList<>();
+    calculator.addRowListener( new RowAdapter() {
+      @Override public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) {
+        Assert.assertEquals( 10, rowMeta.size() );
+        rows.add( row );
+      }
+    } );
+    while ( calculator.processRow() ) {
+      // Process all rows
+    }
+
+    Assert.assertEquals( 3, rows.size() );
+    assertRowEquals( new Object[] { 7L, 2L, 1.5, 0.5, 18L, 5L, 3L, 3.0, 1.5, 9.0 }, rows.get( 0 ) );
+    assertRowEquals( new Object[] { null, 2L, 1.5, null, null, null, null, null, 1.5, null }, rows.get( 1 ) );
+    assertRowEquals( new Object[] { -9L, 4L, -3.0, 4.0, -20L, -13L, -2L, -0.75, -3.0, -12.0 }, rows.get( 2 ) );
+  }
+
+  private static void assertRowEquals( Object[] expected, Object[] row ) {
+    for ( int i = 0; i < expected.length; i++ ) {
+      assertEquals( "field " + i, expected[ i ], row[ i ] );
+    }
+  }
+
   @Test
   public void calculatorReminder() throws Exception {
     assertCalculatorReminder( new Double( "0.10000000000000053" ), new Object[] { new Long( "10" ), new Double( "3.3" ) },
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.Arrays;
+
+/**
+ * The cache of the combination lookup: it maps the key values of a combination to its technical key.
+ * <p>
+ * It's an open-addressing hash table with linear probing. The hash codes of the keys and the technical keys are packed
+ * in primitive arrays so that a lookup only compares the key values of the entries with the same hash code and no
+ * wrapper objects are created per entry.
+ */
+public class CombinationCache {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private final IRowMeta keyRowMeta;
+
+  private int[] hashes;
+  private long[] technicalKeys;
+  private Object[][] keys;
+  private int size;
+  private int mask;
+
+  /**
+   * @param keyRowMeta   the metadata of the key values
+   * @param expectedSize the number of entries to reserve room for
+   */
+  public CombinationCache( IRowMeta keyRowMeta, int expectedSize ) {
+    this.keyRowMeta = keyRowMeta;
+    allocate( capacityFor( expectedSize ) );
+  }
+
+  private static int capacityFor( int expectedSize ) {
+    // Keep the table at most half full to keep the probe sequences short
+    //
+    int capacity = MIN_CAPACITY;
+    while ( capacity < 2L * expectedSize && capacity < ( 1 << 30 ) ) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private void allocate( int capacity ) {
+    hashes = new int[ capacity ];
+    technicalKeys = new long[ capacity ];
+    keys = new Object[ capacity ][];
+    mask = capacity - 1;
+    size = 0;
+  }
+
+  private int hash( Object[] key ) throws HopValueException {
+    int h = keyRowMeta.hashCode( key ) * 0x9E3779B9;
+    return h ^ ( h >>> 16 );
+  }
+
+  /**
+   * @return the index of the slot holding the key or of the empty slot where it belongs
+   */
+  private int find( Object[] key, int hash ) throws HopValueException {
+    int index = hash & mask;
+    while ( keys[ index ] != null ) {
+      if ( hashes[ index ] == hash && keyRowMeta.compare( keys[ index ], key ) == 0 ) {
+        return index;
+      }
+      index = ( index + 1 ) & mask;
+    }
+    return index;
+  }
+
+  /**
+   * @param key the key values
+   * @return the technical key of the combination or null if it's not in the cache
+   * @throws HopValueException in case the key values can't be compared
+   */
+  public Long get( Object[] key ) throws HopValueException {
+    int index = find( key, hash( key ) );
+    return keys[ index ] == null ? null : technicalKeys[ index ];
+  }
+
+  /**
+   * Store the technical key of a combination, replacing the one that might already be in the cache.
+   *
+   * @param key          the key values
+   * @param technicalKey the technical key
+   * @throws HopValueException in case the key values can't be compared
+   */
+  public void put( Object[] key, long technicalKey ) throws HopValueException {
+    int hash = hash( key );
+    int index = find( key, hash );
+    if ( keys[ index ] == null ) {
+      if ( 2 * ( size + 1 ) > keys.length && keys.length < ( 1 << 30 ) ) {
+        rehash( keys.length << 1 );
+        index = find( key, hash );
+      }
+      keys[ index ] = key;
+      hashes[ index ] = hash;
+      size++;
+    }
+    technicalKeys[ index ] = technicalKey;
+  }
+
+  /**
+   * Remove all the combinations with a technical key smaller than or equal to the given one.
+   *
+   * @param technicalKey the largest technical key to remove
+   */
+  public void removeUpTo( long technicalKey ) {
+    int[] oldHashes = hashes;
+    long[] oldTechnicalKeys = technicalKeys;
+    Object[][] oldKeys = keys;
+    allocate( keys.length );
+    for ( int i = 0; i < oldKeys.length; i++ ) {
+      if ( oldKeys[ i ] != null && oldTechnicalKeys[ i ] > technicalKey ) {
+        insert( oldKeys[ i ], oldHashes[ i ], oldTechnicalKeys[ i ] );
+      }
+    }
+  }
+
+  /**
+   * Take a number of technical keys spread evenly over the cache.
+   *
+   * @param count the maximum number of samples to take
+   * @return the sampled technical keys, sorted
+   */
+  public long[] sampleTechnicalKeys( int count ) {
+    long[] samples = new long[ Math.min( count, size ) ];
+    int step = Math.max( 1, keys.length / Math.max( 1, samples.length ) );
+    int nrSamples = 0;
+    for ( int start = 0; start < step && nrSamples < samples.length; start++ ) {
+      for ( int i = start; i < keys.length && nrSamples < samples.length; i += step ) {
+        if ( keys[ i ] != null ) {
+          samples[ nrSamples++ ] = technicalKeys[ i ];
+        }
+      }
+    }
+    Arrays.sort( samples, 0, nrSamples );
+    return nrSamples == samples.length ? samples : Arrays.copyOf( samples, nrSamples );
+  }
+
+  private void rehash( int capacity ) {
+    int[] oldHashes = hashes;
+    long[] oldTechnicalKeys = technicalKeys;
+    Object[][] oldKeys = keys;
+    allocate( capacity );
+    for ( int i = 0; i < oldKeys.length; i++ ) {
+      if ( oldKeys[ i ] != null ) {
+        insert( oldKeys[ i ], oldHashes[ i ], oldTechnicalKeys[ i ] );
+      }
+    }
+  }
+
+  /**
+   * Add an entry which is known not to be in the table yet.
+   */
+  private void insert( Object[] key, int hash, long technicalKey ) {
+    int index = hash & mask;
+    while ( keys[ index ] != null ) {
+      index = ( index + 1 ) & mask;
+    }
+    keys[ index ] = key;
+    hashes[ index ] = hash;
+    technicalKeys[ index ] = technicalKey;
+    size++;
+  }
+
+  /**
+   * @return the number of combinations in the cache
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -43,10 +43,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Manages or looks up information in a Type 1 or junk dimension.
@@ -101,7 +103,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
-  private Long lookupInCache( IRowMeta rowMeta, Object[] row ) {
+  private Long lookupInCache( IRowMeta rowMeta, Object[] row ) throws HopValueException {
     // Short circuit if cache is disabled.
     if ( meta.getCacheSize() == -1 ) {
       return null;
@@ -109,7 +111,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
 
     // try to find the row in the cache...
     //
-    Long tk = data.cache.get( new RowMetaAndData( rowMeta, row ) );
+    Long tk = data.cache.get( row );
     return tk;
   }
 
@@ -132,7 +134,10 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
 
     // store it in the cache if needed.
-    data.cache.put( new RowMetaAndData( rowMeta, row ), tk );
+    if ( tk == null ) {
+      return;
+    }
+    data.cache.put( row, tk );
 
     // check if the size is not too big...
     // Allow for a buffer overrun of 20% and then remove those 20% in one go.
@@ -150,46 +155,23 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       //
       // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
       //
-      List<RowMetaAndData> keys = new ArrayList<>( data.cache.keySet() );
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<>();
-
-      // Take 10 sample technical keys....
-      int transformsize = keys.size() / 5;
-      if ( transformsize < 1 ) {
-        transformsize = 1; // make sure we have no endless loop
-      }
-      for ( int i = 0; i < keys.size(); i += transformsize ) {
-        RowMetaAndData key = keys.get( i );
-        Long value = data.cache.get( key );
-        if ( value != null ) {
-          samples.add( value );
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort( samples );
+      int sizeBefore = data.cache.size();
+
+      // Take 5 sample technical keys, sorted...
+      long[] samples = data.cache.sampleTechnicalKeys( 5 );
 
       // What is the smallest?
       // Take the second, not the fist in the list, otherwise we would be removing a single entry = not good.
-      if ( samples.size() > 1 ) {
-        data.smallestCacheKey = samples.get( 1 ).longValue();
+      if ( samples.length > 1 ) {
+        data.smallestCacheKey = samples[ 1 ];
       } else { // except when there is only one sample
-        data.smallestCacheKey = samples.get( 0 ).longValue();
+        data.smallestCacheKey = samples[ 0 ];
       }
 
       // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
       // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the time.
       //
-      for ( int i = 0; i < keys.size(); i++ ) {
-        RowMetaAndData key = keys.get( i );
-        Long value = data.cache.get( key );
-        if ( value != null ) {
-          if ( value.longValue() <= data.smallestCacheKey ) {
-            data.cache.remove( key ); // this one has to go.
-          }
-        }
-      }
+      data.cache.removeUpTo( data.smallestCacheKey );
 
       int sizeAfter = data.cache.size();
       logDetailed( "Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows." );
@@ -253,30 +235,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       incrementLinesInput();
 
       if ( add == null ) { // The dimension entry was not found, we need to add it!
-        // First try to use an AUTOINCREMENT field
-        switch ( getTechKeyCreation() ) {
-          case CREATION_METHOD_TABLEMAX:
-            // Use our own counter: what's the next value for the technical key?
-            valKey = data.db.getNextValue( data.realSchemaName, data.realTableName,
-              meta.getTechnicalKeyField() );
-            break;
-          case CREATION_METHOD_AUTOINC:
-            valKey = new Long( 0 ); // value to accept new key...
-            break;
-          case CREATION_METHOD_SEQUENCE:
-            valKey =
-              data.db.getNextSequenceValue( data.realSchemaName, meta.getSequenceFrom(), meta
-                .getTechnicalKeyField() );
-            if ( valKey != null && isRowLevel() ) {
-              logRowlevel( BaseMessages.getString( PKG, "CombinationLookup.Log.FoundNextSequenceValue" )
-                + valKey.toString() );
-            }
-            break;
-          default:
-            break;
-        }
-
-        valKey = combiInsert( rowMeta, row, valKey, val_hash );
+        valKey = combiInsert( rowMeta, row, getNewTechnicalKey(), val_hash );
         incrementLinesOutput();
 
         if ( isRowLevel() ) {
@@ -293,6 +252,41 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
     }
 
+    return getOutputRow( rowMeta, row, valKey );
+  }
+
+  /**
+   * @return the technical key to insert a new combination with, 0 in case of an auto-increment field
+   */
+  private Long getNewTechnicalKey() throws HopDatabaseException {
+    Long valKey = null;
+
+    // First try to use an AUTOINCREMENT field
+    switch ( getTechKeyCreation() ) {
+      case CREATION_METHOD_TABLEMAX:
+        // Use our own counter: what's the next value for the technical key?
+        valKey = data.db.getNextValue( data.realSchemaName, data.realTableName,
+          meta.getTechnicalKeyField() );
+        break;
+      case CREATION_METHOD_AUTOINC:
+        valKey = new Long( 0 ); // value to accept new key...
+        break;
+      case CREATION_METHOD_SEQUENCE:
+        valKey =
+          data.db.getNextSequenceValue( data.realSchemaName, meta.getSequenceFrom(), meta
+            .getTechnicalKeyField() );
+        if ( valKey != null && isRowLevel() ) {
+          logRowlevel( BaseMessages.getString( PKG, "CombinationLookup.Log.FoundNextSequenceValue" )
+            + valKey.toString() );
+        }
+        break;
+      default:
+        break;
+    }
+    return valKey;
+  }
+
+  private Object[] getOutputRow( IRowMeta rowMeta, Object[] row, Long valKey ) {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
     int outputIndex = 0;
 
@@ -317,11 +311,216 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     return outputRow;
   }
 
+  private Object[] getHashRow( Object[] row ) {
+    Object[] hashRow = new Object[ data.hashRowMeta.size() ];
+    for ( int i = 0; i < data.keynrs.length; i++ ) {
+      hashRow[ i ] = row[ data.keynrs[ i ] ];
+    }
+    return hashRow;
+  }
+
+  @SuppressWarnings( "deprecation" )
+  private Long getHashValue( Object[] hashRow ) throws HopValueException {
+    return meta.useHash() ? new Long( data.hashRowMeta.oldXORHashCode( hashRow ) ) : null;
+  }
+
+  /**
+   * Look up the technical keys of the buffered rows and pass the rows on.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean lookupBatch() throws HopException {
+    try {
+      resolveBatchKeys();
+
+      for ( Object[] row : data.batchRows ) {
+        Long valKey = data.batchKeys.get( new RowMetaAndData( data.hashRowMeta, getHashRow( row ) ) );
+        putRow( data.outputRowMeta, getOutputRow( getInputRowMeta(), row, valKey ) );
+      }
+      if ( checkFeedback( getLinesRead() ) ) {
+        if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "CombinationLookup.Log.LineNumber" ) + getLinesRead() );
+        }
+      }
+    } catch ( HopException e ) {
+      if ( getTransformMeta().isDoingErrorHandling() ) {
+        for ( Object[] row : data.batchRows ) {
+          putError( getInputRowMeta(), row, 1L, Const.getStackTracker( e ), null, "CBL001" );
+        }
+      } else {
+        logError( BaseMessages.getString( PKG, "CombinationLookup.Log.ErrorInTransformRunning" ) + e.getMessage() );
+        setErrors( 1 );
+        stopAll();
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+    } finally {
+      data.batchRows.clear();
+      data.batchKeys.clear();
+    }
+    return true;
+  }
+
+  /**
+   * Determine the technical keys of the combinations in the buffered rows. The combinations which are not in the cache
+   * are looked up in the dimension with a single query, the ones which are not in the dimension either are added.
+   */
+  private void resolveBatchKeys() throws HopException {
+    List<Object[]> missingRows = new ArrayList<>();
+    for ( Object[] row : data.batchRows ) {
+      Object[] hashRow = getHashRow( row );
+      RowMetaAndData key = new RowMetaAndData( data.hashRowMeta, hashRow );
+      if ( !data.batchKeys.containsKey( key ) ) {
+        Long valKey = lookupInCache( data.hashRowMeta, hashRow );
+        data.batchKeys.put( key, valKey );
+        if ( valKey == null ) {
+          missingRows.add( row );
+        }
+      }
+    }
+    if ( missingRows.isEmpty() ) {
+      return;
+    }
+
+    Map<RowMetaAndData, Long> foundKeys = readBatchKeys( missingRows );
+
+    for ( Object[] row : missingRows ) {
+      Object[] hashRow = getHashRow( row );
+      RowMetaAndData key = new RowMetaAndData( data.hashRowMeta, hashRow );
+      Long valKey = foundKeys.get( key );
+      if ( valKey == null ) {
+        // With an auto-increment field the key is only known after the insert so those can't be batched.
+        //
+        valKey = combiInsert( getInputRowMeta(), row, getNewTechnicalKey(), getHashValue( hashRow ), data.batchInserts );
+        incrementLinesOutput();
+
+        if ( isRowLevel() ) {
+          logRowlevel( BaseMessages.getString( PKG, "CombinationLookup.Log.AddedDimensionEntry" ) + valKey );
+        }
+      }
+      data.batchKeys.put( key, valKey );
+      addToCache( data.hashRowMeta, hashRow, valKey );
+    }
+
+    executeBatchInserts();
+  }
+
+  /**
+   * Look up the technical keys of the combinations of the given rows in one go. If a combination occurs more than
+   * once in the dimension, the smallest technical key is used.
+   *
+   * <pre>
+   * SELECT tk, keylookup[] FROM table
+   * WHERE crcfield IN ( ?, ?, ... )
+   *    or
+   * WHERE ( keylookup1 = ? AND keylookup2 IS NULL ) OR ( keylookup1 = ? AND keylookup2 = ? ) ...
+   * </pre>
+   *
+   * @return the technical keys found, per combination
+   */
+  private Map<RowMetaAndData, Long> readBatchKeys( List<Object[]> rows ) throws HopException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    IRowMeta paramsRowMeta = new RowMeta();
+    List<Object> params = new ArrayList<>();
+    StringBuilder where = new StringBuilder();
+    Set<RowMetaAndData> lookupKeys = new HashSet<>();
+    Set<Long> hashValues = new HashSet<>();
+
+    for ( Object[] row : rows ) {
+      Object[] hashRow = getHashRow( row );
+      lookupKeys.add( new RowMetaAndData( data.hashRowMeta, hashRow ) );
+
+      if ( meta.useHash() ) {
+        // The combinations sharing a hash value are told apart by their key values afterwards
+        //
+        Long hashValue = getHashValue( hashRow );
+        if ( hashValues.add( hashValue ) ) {
+          where.append( where.length() == 0 ? databaseMeta.quoteField( meta.getHashField() ) + " IN ( ?" : ", ?" );
+          paramsRowMeta.addValueMeta( data.lookupRowMeta.getValueMeta( 0 ) );
+          params.add( hashValue );
+        }
+      } else {
+        where.append( where.length() == 0 ? "( " : " OR ( " );
+        for ( int i = 0; i < hashRow.length; i++ ) {
+          if ( i > 0 ) {
+            where.append( " AND " );
+          }
+          where.append( databaseMeta.quoteField( meta.getKeyLookup()[ i ] ) );
+          if ( data.hashRowMeta.isNull( hashRow, i ) ) {
+            where.append( " IS NULL" );
+          } else {
+            where.append( " = ?" );
+            paramsRowMeta.addValueMeta( data.hashRowMeta.getValueMeta( i ) );
+            params.add( hashRow[ i ] );
+          }
+        }
+        where.append( " )" );
+      }
+    }
+    if ( meta.useHash() ) {
+      where.append( " )" );
+    }
+
+    String sql = data.batchLookupSql + where;
+    if ( isDebug() ) {
+      logDebug( "Looking up " + lookupKeys.size() + " combinations with [" + sql + "]" );
+    }
+    List<Object[]> combinations =
+      data.db.getRows( databaseMeta.stripCR( sql ), paramsRowMeta, params.toArray(), ResultSet.FETCH_FORWARD, false, 0,
+        null );
+    IRowMeta combinationsRowMeta = data.db.getReturnRowMeta();
+
+    Map<RowMetaAndData, Long> foundKeys = new HashMap<>();
+    for ( Object[] combination : combinations ) {
+      incrementLinesInput();
+
+      Object[] hashRow = new Object[ data.hashRowMeta.size() ];
+      for ( int i = 0; i < hashRow.length; i++ ) {
+        hashRow[ i ] = data.hashRowMeta.getValueMeta( i ).convertData(
+          combinationsRowMeta.getValueMeta( i + 1 ), combination[ i + 1 ] );
+      }
+      RowMetaAndData key = new RowMetaAndData( data.hashRowMeta, hashRow );
+      Long valKey = combinationsRowMeta.getInteger( combination, 0 );
+      if ( valKey != null && lookupKeys.contains( key ) ) {
+        Long previous = foundKeys.get( key );
+        if ( previous == null || valKey < previous ) {
+          foundKeys.put( key, valKey );
+        }
+      }
+    }
+    return foundKeys;
+  }
+
+  /**
+   * Execute the batch of pending inserts of new combinations. Commit once the commit size is reached.
+   */
+  private void executeBatchInserts() throws HopDatabaseException {
+    if ( data.pendingInserts == 0 ) {
+      return;
+    }
+    try {
+      data.prepStatementInsert.executeBatch();
+      data.prepStatementInsert.clearBatch();
+    } catch ( SQLException e ) {
+      throw new HopDatabaseException( "Error executing the batched inserts of new combinations", e );
+    }
+    data.uncommittedRows += data.pendingInserts;
+    data.pendingInserts = 0;
+
+    if ( data.uncommittedRows >= meta.getCommitSize() ) {
+      data.db.commit();
+      data.uncommittedRows = 0;
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     // if no more input to be expected set done
     if ( r == null ) {
+      if ( data.batchRows != null && !data.batchRows.isEmpty() && !lookupBatch() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -369,9 +568,26 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       for ( int i = 0; i < meta.getKeyField().length; i++ ) {
         data.hashRowMeta.addValueMeta( getInputRowMeta().getValueMeta( data.keynrs[ i ] ) ); // KEYi = ?
       }
+      data.cache = new CombinationCache( data.hashRowMeta, Math.max( 0, meta.getCacheSize() + meta.getCacheSize() / 10 ) );
 
       setCombiLookup( getInputRowMeta() );
       preloadCache( data.hashRowMeta );
+
+      // Look up the rows in batches?
+      //
+      if ( meta.getLookupBatchSize() > 1 ) {
+        data.batchRows = new ArrayList<>( meta.getLookupBatchSize() );
+        data.batchKeys = new HashMap<>();
+        data.batchInserts = !isAutoIncrement() && !data.db.isAutoCommit() && data.db.getUseBatchInsert( true );
+      }
+    }
+
+    if ( data.batchRows != null ) {
+      data.batchRows.add( r );
+      if ( data.batchRows.size() >= meta.getLookupBatchSize() ) {
+        return lookupBatch();
+      }
+      return true;
     }
 
     try {
@@ -457,6 +673,16 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       sql += Const.CR;
     }
 
+    if ( meta.getLookupBatchSize() > 1 ) {
+      // SELECT <retval>, <key1>, <key2>, ... FROM <table> WHERE ...
+      //
+      data.batchLookupSql = "SELECT " + databaseMeta.quoteField( meta.getTechnicalKeyField() );
+      for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+        data.batchLookupSql += ", " + databaseMeta.quoteField( meta.getKeyLookup()[ i ] );
+      }
+      data.batchLookupSql += Const.CR + "FROM " + data.schemaTable + Const.CR + "WHERE ";
+    }
+
     try {
       if ( log.isDebug() ) {
         logDebug( "preparing combi-lookup statement:" + Const.CR + sql );
@@ -474,6 +700,16 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    * This inserts new record into a junk dimension
    */
   public Long combiInsert( IRowMeta rowMeta, Object[] row, Long valKey, Long valCrc )
+    throws HopDatabaseException {
+    return combiInsert( rowMeta, row, valKey, valCrc, false );
+  }
+
+  /**
+   * This inserts new record into a junk dimension
+   *
+   * @param batch true to add the insert to the batch of pending inserts, false to execute it right away
+   */
+  public Long combiInsert( IRowMeta rowMeta, Object[] row, Long valKey, Long valCrc, boolean batch )
     throws HopDatabaseException {
     String debug = "Combination insert";
     DatabaseMeta databaseMeta = meta.getDatabaseMeta();
@@ -618,7 +854,12 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       data.db.setValues( data.insertRowMeta, insertRow, data.prepStatementInsert );
 
       debug = "Insert row";
-      data.db.insertRow( data.prepStatementInsert );
+      if ( batch ) {
+        data.db.insertRow( data.prepStatementInsert, true, false );
+        data.pendingInserts++;
+      } else {
+        data.db.insertRow( data.prepStatementInsert );
+      }
 
       debug = "Retrieve key";
       if ( isAutoIncrement() && databaseMeta.supportsAutoGeneratedKeys() ) {
@@ -665,11 +906,6 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       data.realSchemaName = resolve( meta.getSchemaName() );
       data.realTableName = resolve( meta.getTableName() );
 
-      if ( meta.getCacheSize() > 0 ) {
-        data.cache = new HashMap<>( (int) ( meta.getCacheSize() * 1.5 ) );
-      } else {
-        data.cache = new HashMap<>();
-      }
       if ( meta.getDatabaseMeta() == null ) {
         logError( BaseMessages.getString( PKG, "CombinationLookup.Init.ConnectionMissing", getTransformName() ) );
         return false;
@@ -24,6 +24,7 @@ import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -34,7 +35,7 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
   public Database db;
   public int[] keynrs; // nrs in row of the keys
 
-  public Map<RowMetaAndData, Long> cache;
+  public CombinationCache cache;
 
   public IRowMeta outputRowMeta;
   public IRowMeta lookupRowMeta;
@@ -50,6 +51,16 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
   public PreparedStatement prepStatementInsert;
   public long smallestCacheKey;
 
+  /** The rows buffered to look up in one go */
+  public List<Object[]> batchRows;
+  /** The technical keys of the combinations of the current batch, null if not found yet */
+  public Map<RowMetaAndData, Long> batchKeys;
+  public String batchLookupSql;
+  /** Are the new combinations inserted in JDBC batches? */
+  public boolean batchInserts;
+  public int pendingInserts;
+  public int uncommittedRows;
+
   /**
    * Default Constructor
    */
@@ -84,6 +84,8 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
 
   private Text wCachesize;
 
+  private Text wLookupBatchSize;
+
   private Button wPreloadCache;
 
   private Text wTk;
@@ -283,6 +285,25 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
     wCachesize.setLayoutData( fdCachesize );
     wCachesize.setToolTipText( BaseMessages.getString( PKG, "CombinationLookupDialog.Cachesize.ToolTip" ) );
 
+    // Lookup batch size
+    Label wlLookupBatchSize = new Label( shell, SWT.RIGHT );
+    wlLookupBatchSize.setText( BaseMessages.getString( PKG, "CombinationLookupDialog.LookupBatchSize.Label" ) );
+    props.setLook( wlLookupBatchSize );
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment( 0, 0 );
+    fdlLookupBatchSize.right = new FormAttachment( middle, -margin );
+    fdlLookupBatchSize.top = new FormAttachment( wCachesize, margin );
+    wlLookupBatchSize.setLayoutData( fdlLookupBatchSize );
+    wLookupBatchSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wLookupBatchSize );
+    wLookupBatchSize.addModifyListener( lsMod );
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.top = new FormAttachment( wCachesize, margin );
+    fdLookupBatchSize.left = new FormAttachment( middle, 0 );
+    fdLookupBatchSize.right = new FormAttachment( middle + ( 100 - middle ) / 3, -margin );
+    wLookupBatchSize.setLayoutData( fdLookupBatchSize );
+    wLookupBatchSize.setToolTipText( BaseMessages.getString( PKG, "CombinationLookupDialog.LookupBatchSize.ToolTip" ) );
+
     // Preload Cache
     Label wlPreloadCache = new Label( shell, SWT.RIGHT );
     wlPreloadCache.setText( BaseMessages.getString( PKG, "CombinationLookupDialog.PreloadCache.Label" ) );
@@ -308,7 +329,7 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
     props.setLook( wlKey );
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wlPreloadCache, margin );
+    fdlKey.top = new FormAttachment( wLookupBatchSize, margin );
     fdlKey.right = new FormAttachment( 100, 0 );
     wlKey.setLayoutData( fdlKey );
 
@@ -568,6 +589,7 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
     wSeq.addSelectionListener( lsDef );
     wTk.addSelectionListener( lsDef );
     wCachesize.addSelectionListener( lsDef );
+    wLookupBatchSize.addSelectionListener( lsDef );
     wHashfield.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
@@ -792,6 +814,7 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
 
     wCommit.setText( "" + input.getCommitSize() );
     wCachesize.setText( "" + input.getCacheSize() );
+    wLookupBatchSize.setText( "" + input.getLookupBatchSize() );
 
     wLastUpdateField.setText( Const.NVL( input.getLastUpdateField(), "" ) );
 
@@ -869,6 +892,7 @@ public class CombinationLookupDialog extends BaseTransformDialog implements ITra
 
     in.setCommitSize( Const.toInt( wCommit.getText(), 0 ) );
     in.setCacheSize( Const.toInt( wCachesize.getText(), 0 ) );
+    in.setLookupBatchSize( Const.toInt( wLookupBatchSize.getText(), 0 ) );
 
     in.setLastUpdateField( wLastUpdateField.getText() );
   }
@@ -133,6 +133,10 @@ public class CombinationLookupMeta extends BaseTransformMeta
   @Injection(name = "CACHE_SIZE")
   private int cacheSize;
 
+  /** Look up the combinations of this many rows at once, row by row if 1 or less */
+  @Injection(name = "LOOKUP_BATCH_SIZE")
+  private int lookupBatchSize;
+
   /** Use the auto-increment feature of the database to generate keys. */
   @Injection(name = "AUTO_INC")
   private boolean useAutoinc;
@@ -204,6 +208,16 @@ public class CombinationLookupMeta extends BaseTransformMeta
     this.cacheSize = cacheSize;
   }
 
+  /** @return Returns the number of rows to look up at once. */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /** @param lookupBatchSize The number of rows to look up at once. */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /** @return Returns the hashField. */
   public String getHashField() {
     return hashField;
@@ -343,6 +357,7 @@ public class CombinationLookupMeta extends BaseTransformMeta
       commitSize = Const.toInt(commit, 0);
       csize = XmlHandler.getTagValue(transformNode, "cache_size");
       cacheSize = Const.toInt(csize, 0);
+      lookupBatchSize = Const.toInt(XmlHandler.getTagValue(transformNode, "lookup_batch_size"), 0);
 
       replaceFields = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "replace"));
       preloadCache = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preloadCache"));
@@ -386,6 +401,7 @@ public class CombinationLookupMeta extends BaseTransformMeta
     databaseMeta = null;
     commitSize = 100;
     cacheSize = DEFAULT_CACHE_SIZE;
+    lookupBatchSize = 0;
     replaceFields = false;
     preloadCache = false;
     useHash = false;
@@ -442,6 +458,9 @@ public class CombinationLookupMeta extends BaseTransformMeta
                 "connection", databaseMeta == null ? "" : databaseMeta.getName()));
     retval.append("      ").append(XmlHandler.addTagValue("commit", commitSize));
     retval.append("      ").append(XmlHandler.addTagValue("cache_size", cacheSize));
+    retval
+        .append("      ")
+        .append(XmlHandler.addTagValue("lookup_batch_size", lookupBatchSize));
     retval.append("      ").append(XmlHandler.addTagValue("replace", replaceFields));
     retval.append("      ").append(XmlHandler.addTagValue("preloadCache", preloadCache));
     retval.append("      ").append(XmlHandler.addTagValue("crc", useHash));
@@ -1007,6 +1026,9 @@ public class CombinationLookupMeta extends BaseTransformMeta
     if (getCacheSize() != o.getCacheSize()) {
       return false;
     }
+    if (getLookupBatchSize() != o.getLookupBatchSize()) {
+      return false;
+    }
     if (!getTechKeyCreation().equals(o.getTechKeyCreation())) {
       return false;
     }
@@ -1072,6 +1094,7 @@ public class CombinationLookupMeta extends BaseTransformMeta
     return Objects.hash(
         getCommitSize(),
         getCacheSize(),
+        getLookupBatchSize(),
         getTechKeyCreation(),
         replaceFields(),
         useHash(),
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CombinationCacheTest {
+
+  private IRowMeta keyRowMeta;
+
+  @Before
+  public void setUp() {
+    keyRowMeta = new RowMeta();
+    keyRowMeta.addValueMeta( new ValueMetaString( "code" ) );
+    keyRowMeta.addValueMeta( new ValueMetaInteger( "number" ) );
+  }
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    CombinationCache cache = new CombinationCache( keyRowMeta, 0 );
+    for ( long i = 0; i < 1000; i++ ) {
+      cache.put( new Object[] { "code" + ( i % 10 ), i }, 1000 + i );
+    }
+    assertEquals( 1000, cache.size() );
+    for ( long i = 0; i < 1000; i++ ) {
+      assertEquals( Long.valueOf( 1000 + i ), cache.get( new Object[] { "code" + ( i % 10 ), i } ) );
+    }
+    assertNull( cache.get( new Object[] { "code1", 2L } ) );
+  }
+
+  @Test
+  public void testNullValues() throws Exception {
+    CombinationCache cache = new CombinationCache( keyRowMeta, 10 );
+    cache.put( new Object[] { null, 1L }, 1L );
+    cache.put( new Object[] { "a", null }, 2L );
+    cache.put( new Object[] { null, null }, 3L );
+
+    assertEquals( Long.valueOf( 1L ), cache.get( new Object[] { null, 1L } ) );
+    assertEquals( Long.valueOf( 2L ), cache.get( new Object[] { "a", null } ) );
+    assertEquals( Long.valueOf( 3L ), cache.get( new Object[] { null, null } ) );
+    assertNull( cache.get( new Object[] { "a", 1L } ) );
+  }
+
+  @Test
+  public void testReplace() throws Exception {
+    CombinationCache cache = new CombinationCache( keyRowMeta, 10 );
+    cache.put( new Object[] { "a", 1L }, 1L );
+    cache.put( new Object[] { "a", 1L }, 5L );
+    assertEquals( 1, cache.size() );
+    assertEquals( Long.valueOf( 5L ), cache.get( new Object[] { "a", 1L } ) );
+  }
+
+  @Test
+  public void testRemoveUpTo() throws Exception {
+    CombinationCache cache = new CombinationCache( keyRowMeta, 100 );
+    for ( long i = 1; i <= 100; i++ ) {
+      cache.put( new Object[] { "code", i }, i );
+    }
+    cache.removeUpTo( 40L );
+
+    assertEquals( 60, cache.size() );
+    for ( long i = 1; i <= 100; i++ ) {
+      Long tk = cache.get( new Object[] { "code", i } );
+      if ( i <= 40 ) {
+        assertNull( tk );
+      } else {
+        assertEquals( Long.valueOf( i ), tk );
+      }
+    }
+  }
+
+  @Test
+  public void testSampleTechnicalKeys() throws Exception {
+    CombinationCache cache = new CombinationCache( keyRowMeta, 0 );
+    assertEquals( 0, cache.sampleTechnicalKeys( 5 ).length );
+
+    cache.put( new Object[] { "a", 1L }, 7L );
+    assertArrayEquals( new long[] { 7L }, cache.sampleTechnicalKeys( 5 ) );
+
+    for ( long i = 2; i <= 50; i++ ) {
+      cache.put( new Object[] { "a", i }, 100 - i );
+    }
+    long[] samples = cache.sampleTechnicalKeys( 5 );
+    assertEquals( 5, samples.length );
+    for ( int i = 1; i < samples.length; i++ ) {
+      assertEquals( true, samples[ i - 1 ] <= samples[ i ] );
+    }
+  }
+}
@@ -61,7 +61,7 @@ public class CombinationLookupMetaTest implements IInitializer<ITransformMeta> {
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "databaseMeta", "replaceFields", "keyField", "keyLookup",
         "useHash", "hashField", "technicalKeyField", "sequenceFrom", "commitSize", "preloadCache", "cacheSize",
-        "useAutoinc", "techKeyCreation", "lastUpdateField" );
+        "lookupBatchSize", "useAutoinc", "techKeyCreation", "lastUpdateField" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
       {
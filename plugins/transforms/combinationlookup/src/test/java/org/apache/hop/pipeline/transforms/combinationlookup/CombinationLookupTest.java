@@ -17,30 +17,61 @@
 
 package org.apache.hop.pipeline.transforms.combinationlookup;
 
+import org.apache.hop.core.Counters;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IProgressMonitor;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.GenericDatabaseMeta;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class CombinationLookupTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final String URL = "jdbc:h2:mem:combinationlookup;DB_CLOSE_DELAY=-1";
+
   private DatabaseMeta databaseMeta;
 
   private TransformMeta transformMeta;
@@ -49,6 +80,13 @@ public class CombinationLookupTest {
   private CombinationLookupMeta combinationLookupMeta;
   private CombinationLookupData combinationLookupData;
 
+  private Database database;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
   @Before
   public void setup() {
     databaseMeta = mock( DatabaseMeta.class );
@@ -86,4 +124,181 @@ public class CombinationLookupTest {
     combinationLookup.combiInsert( any( IRowMeta.class ), any( Object[].class ), anyLong(), anyLong() );
     verify( databaseMeta, times( 2 ) ).supportsAutoGeneratedKeys();
   }
+
+  @After
+  public void tearDown() throws Exception {
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      connection.createStatement().execute( "DROP TABLE IF EXISTS JUNK" );
+    }
+    Counters.getInstance().clear(); // the maximum technical key of the dropped table
+  }
+
+  @Test
+  public void testBatchResolvesMissesWithOneLookup() throws Exception {
+    for ( boolean useHash : new boolean[] { false, true } ) {
+      // Add the existing combinations row by row, with their hash codes
+      //
+      createJunk();
+      runPipeline( createMeta( useHash, 0 ), row( "a", "x" ), row( "b", "y" ) );
+
+      CombinationLookupMeta meta = createMeta( useHash, 10 );
+      List<Long> keys = runPipeline( meta, row( "b", "y" ), row( "c", "z" ), row( "a", "x" ), row( "a", null ) );
+
+      assertEquals( "hash " + useHash, Arrays.asList( 2L, 3L, 1L, 4L ), keys );
+      assertEquals( Arrays.asList( "1/a/x", "2/b/y", "3/c/z", "4/a/null" ), readJunk() );
+
+      // The 4 combinations are looked up with a single query, not one by one
+      //
+      verifyBatchLookups( 1 );
+      verify( database, never() ).getLookup( any( PreparedStatement.class ) );
+      tearDown();
+    }
+  }
+
+  @Test
+  public void testKeyRepeatedInBatch() throws Exception {
+    createJunk( "1/a/x" );
+
+    List<Long> keys = runPipeline( createMeta( false, 10 ),
+      row( "c", "z" ), row( "a", "x" ), row( "c", "z" ), row( "d", "z" ), row( "c", "z" ), row( "a", "x" ) );
+
+    // The repeated combinations are inserted only once and all get the same technical key
+    //
+    assertEquals( Arrays.asList( 2L, 1L, 2L, 3L, 2L, 1L ), keys );
+    assertEquals( Arrays.asList( "1/a/x", "2/c/z", "3/d/z" ), readJunk() );
+    verify( database, times( 2 ) ).insertRow( any( PreparedStatement.class ), eq( true ), eq( false ) );
+  }
+
+  @Test
+  public void testNewKeysInsertedInBatch() throws Exception {
+    createJunk( "5/a/x" );
+
+    List<Long> keys = runPipeline( createMeta( false, 10 ), row( "b", "y" ), row( "a", "x" ), row( "c", "z" ), row( "d", "z" ) );
+
+    // The new technical keys continue after the maximum in the table and the new combinations are added to a single
+    // JDBC batch instead of being inserted one by one
+    //
+    assertEquals( Arrays.asList( 6L, 5L, 7L, 8L ), keys );
+    assertEquals( Arrays.asList( "5/a/x", "6/b/y", "7/c/z", "8/d/z" ), readJunk() );
+    verify( database, times( 3 ) ).insertRow( any( PreparedStatement.class ), eq( true ), eq( false ) );
+    verify( database, never() ).insertRow( any( PreparedStatement.class ) );
+  }
+
+  @Test
+  public void testFinalPartialBatch() throws Exception {
+    createJunk();
+
+    List<Long> keys = runPipeline( createMeta( false, 3 ),
+      row( "a", "x" ), row( "b", "x" ), row( "c", "x" ),
+      row( "a", "x" ), row( "d", "x" ), row( "b", "x" ),
+      row( "e", "x" ) );
+
+    // Batches of 3, 3 and the remaining row when the input ends
+    //
+    assertEquals( Arrays.asList( 1L, 2L, 3L, 1L, 4L, 2L, 5L ), keys );
+    assertEquals( Arrays.asList( "1/a/x", "2/b/x", "3/c/x", "4/d/x", "5/e/x" ), readJunk() );
+    verifyBatchLookups( 3 );
+  }
+
+  private static Object[] row( String a, String b ) {
+    return new Object[] { a, b };
+  }
+
+  private CombinationLookupMeta createMeta( boolean useHash, int lookupBatchSize ) throws Exception {
+    DatabaseMeta h2 = new DatabaseMeta( "h2", "GENERIC", "Native", null, null, null, null, null );
+    h2.setManualUrl( URL );
+    ( (GenericDatabaseMeta) h2.getIDatabase() ).setDriverClass( "org.h2.Driver" );
+
+    CombinationLookupMeta meta = new CombinationLookupMeta();
+    meta.setDefault();
+    meta.setDatabaseMeta( h2 );
+    meta.setTablename( "JUNK" );
+    meta.setTechnicalKeyField( "TK" );
+    meta.setTechKeyCreation( CombinationLookupMeta.CREATION_METHOD_TABLEMAX );
+    meta.setUseHash( useHash );
+    meta.setHashField( "HASHCODE" );
+    meta.setCacheSize( -1 );
+    meta.setLookupBatchSize( lookupBatchSize );
+    meta.allocate( 2 );
+    meta.setKeyField( new String[] { "a", "b" } );
+    meta.setKeyLookup( new String[] { "A", "B" } );
+    return meta;
+  }
+
+  /**
+   * Run the rows through a Combination Lookup/Update transform
+   *
+   * @return The technical keys of the output rows
+   */
+  private List<Long> runPipeline( CombinationLookupMeta meta, Object[]... rows ) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName( getClass().getName() );
+    String pluginId = PluginRegistry.getInstance().getPluginId( TransformPluginType.class, meta );
+    pipelineMeta.addTransform( new TransformMeta( pluginId, "combination", meta ) );
+
+    Pipeline pipeline = new LocalPipelineEngine( pipelineMeta );
+    pipeline.prepareExecution();
+
+    BaseTransform transform = (BaseTransform) pipeline.getRunThread( "combination", 0 );
+    CombinationLookupData data = (CombinationLookupData) transform.getData();
+    database = spy( data.db );
+    data.db = database;
+
+    List<Long> keys = Collections.synchronizedList( new ArrayList<>() );
+    transform.addRowListener( new RowAdapter() {
+      @Override public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) {
+        keys.add( (Long) row[ rowMeta.indexOfValue( "TK" ) ] );
+      }
+    } );
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "a" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "b" ) );
+    RowProducer producer = pipeline.addRowProducer( "combination", 0 );
+    pipeline.startThreads();
+    for ( Object[] row : rows ) {
+      producer.putRow( rowMeta, row.clone() );
+    }
+    producer.finished();
+    pipeline.waitUntilFinished();
+    assertEquals( 0, pipeline.getErrors() );
+    return keys;
+  }
+
+  private void verifyBatchLookups( int times ) throws Exception {
+    verify( database, times( times ) ).getRows( anyString(), any( IRowMeta.class ), any( Object[].class ), anyInt(),
+      anyBoolean(), anyInt(), any( IProgressMonitor.class ) );
+  }
+
+  /**
+   * @param combinations The existing combinations as tk/a/b
+   */
+  private static void createJunk( String... combinations ) throws Exception {
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      connection.createStatement().execute(
+        "CREATE TABLE JUNK ( TK BIGINT PRIMARY KEY, HASHCODE BIGINT, A VARCHAR(10), B VARCHAR(10) )" );
+      PreparedStatement insert = connection.prepareStatement( "INSERT INTO JUNK ( TK, A, B ) VALUES ( ?, ?, ? )" );
+      for ( String combination : combinations ) {
+        String[] values = combination.split( "/" );
+        insert.setLong( 1, Long.parseLong( values[ 0 ] ) );
+        insert.setString( 2, values[ 1 ] );
+        insert.setString( 3, values[ 2 ] );
+        insert.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * @return The combinations in the junk dimension as tk/a/b
+   */
+  private static List<String> readJunk() throws Exception {
+    List<String> combinations = new ArrayList<>();
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      ResultSet resultSet = connection.createStatement().executeQuery( "SELECT TK, A, B FROM JUNK ORDER BY TK" );
+      while ( resultSet.next() ) {
+        combinations.add( resultSet.getLong( 1 ) + "/" + resultSet.getString( 2 ) + "/" + resultSet.getString( 3 ) );
+      }
+    }
+    return combinations;
+  }
 }
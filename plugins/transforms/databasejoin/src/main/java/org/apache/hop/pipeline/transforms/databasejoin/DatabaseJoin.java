@@ -82,24 +82,18 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
     // Set the values on the prepared statement (for faster exec.)
     ResultSet rs = data.db.openQuery( data.pstmt, data.lookupRowMeta, lookupRowData );
 
-    // Get a row from the database...
+    // Get a row from the database, straight into a copy of the input row...
     //
-    Object[] add = data.db.getRow( rs );
-    IRowMeta addMeta = data.db.getReturnRowMeta();
+    Object[] newRow = RowDataUtil.createResizedCopy( rowData, data.outputRowMeta.size() );
+    boolean found = data.db.getRow( rs, newRow, rowMeta.size() );
 
     incrementLinesInput();
 
     int counter = 0;
-    while ( add != null && ( meta.getRowLimit() == 0 || counter < meta.getRowLimit() ) ) {
+    while ( found && ( meta.getRowLimit() == 0 || counter < meta.getRowLimit() ) ) {
       counter++;
 
-      Object[] newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
-      int newIndex = rowMeta.size();
-      for ( int i = 0; i < addMeta.size(); i++ ) {
-        newRow[ newIndex++ ] = add[ i ];
-      }
-      // we have to clone, otherwise we only get the last new value
-      putRow( data.outputRowMeta, data.outputRowMeta.cloneRow( newRow ) );
+      putRow( data.outputRowMeta, newRow );
 
       if ( log.isRowLevel() ) {
         logRowlevel( BaseMessages.getString( PKG, "DatabaseJoin.Log.PutoutRow" )
@@ -108,7 +102,8 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
 
       // Get a new row
       if ( meta.getRowLimit() == 0 || counter < meta.getRowLimit() ) {
-        add = data.db.getRow( rs );
+        newRow = RowDataUtil.createResizedCopy( rowData, data.outputRowMeta.size() );
+        found = data.db.getRow( rs, newRow, rowMeta.size() );
         incrementLinesInput();
       }
     }
@@ -120,7 +115,7 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
         //
         data.notfound = new Object[ data.db.getReturnRowMeta().size() ];
       }
-      Object[] newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
+      newRow = RowDataUtil.resizeArray( rowData, data.outputRowMeta.size() );
       int newIndex = rowMeta.size();
       for ( int i = 0; i < data.notfound.length; i++ ) {
         newRow[ newIndex++ ] = data.notfound[ i ];
@@ -41,12 +41,16 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -99,6 +103,18 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
 
+      try {
+        // Look up the last rows of the input and send the last batched changes to the database
+        //
+        if ( data.batchRows != null && !data.batchRows.isEmpty() ) {
+          lookupBatch();
+        }
+        flushBatchUpdates();
+      } catch ( HopException e ) {
+        stopWithError( e );
+        return false;
+      }
+
       setOutputDone(); // signal end to receiver(s)
       return false;
     }
@@ -200,6 +216,25 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       }
 
       setDimLookup( data.outputRowMeta );
+
+      // Look up the rows in batches?
+      //
+      if ( meta.getLookupBatchSize() > 1 && data.keynrs.length > 0 && ( meta.isUpdate() || !meta.isPreloadingCache() ) ) {
+        data.batchRows = new ArrayList<>( meta.getLookupBatchSize() );
+        data.batchVersions = new HashMap<>();
+        data.batchChangedKeys = new HashSet<>();
+      }
+
+      // Send the changes to the dimension in batches? Only together with the batched lookup: the flag used to be
+      // ignored, existing pipelines which have it set keep writing row by row.
+      //
+      data.batchUpdates = data.batchRows != null && meta.isUpdate() && meta.useBatchUpdate()
+        && !data.db.isAutoCommit() && data.db.getUseBatchInsert( true );
+      if ( data.batchUpdates ) {
+        data.pendingStatements = new HashSet<>();
+        data.pendingKeys = new HashSet<>();
+        data.uncommittedRows = 0;
+      }
     }
 
     // convert row to normal storage...
@@ -210,26 +245,280 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
 
     try {
-      Object[] outputRow = lookupValues( data.inputRowMeta, r ); // add new values to the row in rowset[0].
-      putRow( data.outputRowMeta, outputRow ); // copy row to output rowset(s);
-
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( log.isBasic() ) {
-          logBasic( BaseMessages.getString( PKG, "DimensionLookup.Log.LineNumber" ) + getLinesRead() );
+      if ( data.batchRows != null ) {
+        data.batchRows.add( r );
+        if ( data.batchRows.size() >= meta.getLookupBatchSize() ) {
+          lookupBatch();
         }
+      } else {
+        lookupRow( r );
       }
     } catch ( HopException e ) {
-      logError( BaseMessages.getString( PKG, "DimensionLookup.Log.TransformCanNotContinueForErrors", e.getMessage() ) );
-      logError( Const.getStackTracker( e ) );
-      setErrors( 1 );
-      stopAll();
-      setOutputDone(); // signal end to receiver(s)
+      stopWithError( e );
       return false;
     }
 
     return true;
   }
 
+  private void stopWithError( HopException e ) {
+    logError( BaseMessages.getString( PKG, "DimensionLookup.Log.TransformCanNotContinueForErrors", e.getMessage() ) );
+    logError( Const.getStackTracker( e ) );
+    setErrors( 1 );
+    stopAll();
+    setOutputDone(); // signal end to receiver(s)
+  }
+
+  private void lookupRow( Object[] r ) throws HopException {
+    Object[] outputRow = lookupValues( data.inputRowMeta, r ); // add new values to the row in rowset[0].
+    putRow( data.outputRowMeta, outputRow ); // copy row to output rowset(s);
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      if ( log.isBasic() ) {
+        logBasic( BaseMessages.getString( PKG, "DimensionLookup.Log.LineNumber" ) + getLinesRead() );
+      }
+    }
+  }
+
+  /**
+   * Look up the buffered rows: all the versions of their natural keys are read with a single query, the rows are then
+   * handled one by one in the order they came in.
+   *
+   * @throws HopException in case of a database error
+   */
+  private void lookupBatch() throws HopException {
+    // The query needs to see the changes of the previous rows
+    //
+    flushBatchUpdates();
+    readBatchVersions();
+
+    for ( Object[] row : data.batchRows ) {
+      lookupRow( row );
+    }
+    data.batchRows.clear();
+  }
+
+  /**
+   * Read all the versions of the natural keys of the buffered rows which are not in the cache.
+   *
+   * <pre>
+   * SELECT tk, version, fieldlookup[], datefrom, dateto, keylookup[] FROM table
+   * WHERE keylookup IN ( ?, ?, ... )
+   *    or
+   * WHERE ( keylookup1 = ? AND keylookup2 = ? ) OR ( keylookup1 = ? AND keylookup2 = ? ) ...
+   * </pre>
+   */
+  private void readBatchVersions() throws HopException {
+    data.batchVersions.clear();
+    data.batchChangedKeys.clear();
+
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    int nrKeys = data.keynrs.length;
+    IRowMeta paramsRowMeta = new RowMeta();
+    List<Object> params = new ArrayList<>();
+    StringBuilder where = new StringBuilder();
+
+    for ( Object[] row : data.batchRows ) {
+      Object[] keyValues = getNaturalKey( row );
+      if ( keyValues == null ) {
+        continue; // a null key never matches
+      }
+      RowMetaAndData naturalKey = new RowMetaAndData( data.cacheKeyRowMeta, keyValues );
+      if ( data.batchVersions.containsKey( naturalKey ) ) {
+        continue;
+      }
+      if ( meta.getCacheSize() >= 0 && getFromCache( keyValues, determineDimensionUpdatedDate( row ) ) != null ) {
+        continue;
+      }
+      data.batchVersions.put( naturalKey, new ArrayList<>() );
+
+      if ( nrKeys == 1 ) {
+        where.append( where.length() == 0 ? databaseMeta.quoteField( meta.getKeyLookup()[ 0 ] ) + " IN ( ?" : ", ?" );
+      } else {
+        where.append( where.length() == 0 ? "( " : " OR ( " );
+        for ( int i = 0; i < nrKeys; i++ ) {
+          if ( i > 0 ) {
+            where.append( " AND " );
+          }
+          where.append( databaseMeta.quoteField( meta.getKeyLookup()[ i ] ) ).append( " = ?" );
+        }
+        where.append( " )" );
+      }
+      for ( int i = 0; i < nrKeys; i++ ) {
+        paramsRowMeta.addValueMeta( data.lookupRowMeta.getValueMeta( i ) );
+        params.add( keyValues[ i ] );
+      }
+    }
+    if ( data.batchVersions.isEmpty() ) {
+      return;
+    }
+    if ( nrKeys == 1 ) {
+      where.append( " )" );
+    }
+
+    String sql = data.batchLookupSql + where;
+    if ( isDebug() ) {
+      logDebug( "Looking up " + data.batchVersions.size() + " natural keys with [" + sql + "]" );
+    }
+    List<Object[]> versions =
+      data.db.getRows( databaseMeta.stripCR( sql ), paramsRowMeta, params.toArray(), ResultSet.FETCH_FORWARD, false, 0,
+        null );
+
+    if ( data.batchVersionsRowMeta == null ) {
+      data.batchVersionsRowMeta = data.db.getReturnRowMeta();
+
+      // The return values are the same as in a row by row lookup: without the date range if there's no cache
+      //
+      int nrReturnValues = data.batchVersionsRowMeta.size() - nrKeys - ( meta.getCacheSize() >= 0 ? 0 : 2 );
+      data.batchReturnRowMeta = new RowMeta();
+      for ( int i = 0; i < nrReturnValues; i++ ) {
+        data.batchReturnRowMeta.addValueMeta( data.batchVersionsRowMeta.getValueMeta( i ).clone() );
+      }
+    }
+
+    int keyIndex = data.batchVersionsRowMeta.size() - nrKeys;
+    for ( Object[] version : versions ) {
+      incrementLinesInput();
+
+      Object[] keyValues = new Object[ nrKeys ];
+      for ( int i = 0; i < nrKeys; i++ ) {
+        keyValues[ i ] = data.cacheKeyRowMeta.getValueMeta( i ).convertData(
+          data.batchVersionsRowMeta.getValueMeta( keyIndex + i ), version[ keyIndex + i ] );
+      }
+      List<Object[]> keyVersions = data.batchVersions.get( new RowMetaAndData( data.cacheKeyRowMeta, keyValues ) );
+      if ( keyVersions != null ) {
+        keyVersions.add( version );
+      }
+    }
+  }
+
+  /**
+   * @return the natural key of the row or null if one of the key values is null
+   */
+  private Object[] getNaturalKey( Object[] row ) {
+    Object[] keyValues = getKeyValues( row );
+    for ( Object keyValue : keyValues ) {
+      if ( keyValue == null ) {
+        return null;
+      }
+    }
+    return keyValues;
+  }
+
+  /**
+   * Find the version valid at the given date among the versions read for the batch.
+   *
+   * @return the return values of the version, null if there is no such version or if the natural key of the row has
+   * to be looked up separately.
+   */
+  private Object[] getBatchVersion( Object[] lookupRow, Date valueDate ) throws HopValueException {
+    Object[] keyValues = Arrays.copyOf( lookupRow, data.keynrs.length );
+    RowMetaAndData naturalKey = new RowMetaAndData( data.cacheKeyRowMeta, keyValues );
+    List<Object[]> versions = data.batchVersions.get( naturalKey );
+    if ( versions == null ) {
+      return null;
+    }
+
+    int dateFromIndex = data.batchVersionsRowMeta.size() - data.keynrs.length - 2;
+    long time = valueDate.getTime();
+    for ( Object[] version : versions ) {
+      Date dateFrom = data.batchVersionsRowMeta.getDate( version, dateFromIndex );
+      Date dateTo = data.batchVersionsRowMeta.getDate( version, dateFromIndex + 1 );
+      boolean fromMatches = dateFrom == null ? data.nullStartDatePossible : dateFrom.getTime() <= time;
+      if ( fromMatches && dateTo != null && time < dateTo.getTime() ) {
+        return Arrays.copyOf( version, data.batchReturnRowMeta.size() );
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true if the versions read for the batch can be used to look up the row
+   */
+  private boolean isInBatchVersions( Object[] row ) {
+    if ( data.batchRows == null || data.batchReturnRowMeta == null ) {
+      return false;
+    }
+    Object[] keyValues = getNaturalKey( row );
+    if ( keyValues == null ) {
+      return true; // never found
+    }
+    RowMetaAndData naturalKey = new RowMetaAndData( data.cacheKeyRowMeta, keyValues );
+    return data.batchVersions.containsKey( naturalKey ) && !data.batchChangedKeys.contains( naturalKey );
+  }
+
+  /**
+   * Remember that the dimension entry of this natural key changed
+   */
+  private void setKeyChanged( Object[] row ) {
+    if ( data.batchRows == null && !data.batchUpdates ) {
+      return;
+    }
+    RowMetaAndData naturalKey = new RowMetaAndData( data.cacheKeyRowMeta, getKeyValues( row ) );
+    if ( data.batchRows != null ) {
+      data.batchChangedKeys.add( naturalKey );
+    }
+    if ( data.batchUpdates ) {
+      data.pendingKeys.add( naturalKey );
+    }
+  }
+
+  private Object[] getKeyValues( Object[] row ) {
+    Object[] keyValues = new Object[ data.keynrs.length ];
+    for ( int i = 0; i < data.keynrs.length; i++ ) {
+      keyValues[ i ] = row[ data.keynrs[ i ] ];
+    }
+    return keyValues;
+  }
+
+  /**
+   * Insert or update a row in the dimension, in a JDBC batch if possible
+   *
+   * @param statement the statement with all the values set
+   * @param batch     false if the statement needs to be executed right away
+   */
+  private void writeRow( PreparedStatement statement, boolean batch ) throws HopDatabaseException {
+    if ( !data.batchUpdates || !batch ) {
+      data.db.insertRow( statement );
+      return;
+    }
+    data.db.insertRow( statement, true, false );
+    data.pendingStatements.add( statement );
+    data.uncommittedRows++;
+  }
+
+  /**
+   * Execute the pending batches of inserts and updates in the order a single row applies them: the inserts, the
+   * updates of the previous versions, the type 1 updates and finally the punch through updates. A natural key only has
+   * the changes of one row in the batches since the batches are executed before a key is looked up again. Commit once
+   * the commit size is reached.
+   */
+  private void flushBatchUpdates() throws HopDatabaseException {
+    if ( !data.batchUpdates || data.pendingStatements.isEmpty() ) {
+      return;
+    }
+    PreparedStatement[] statements = new PreparedStatement[] {
+      data.prepStatementInsert, data.prepStatementUpdate, data.prepStatementDimensionUpdate,
+      data.prepStatementPunchThrough };
+    try {
+      for ( PreparedStatement statement : statements ) {
+        if ( data.pendingStatements.contains( statement ) ) {
+          statement.executeBatch();
+          statement.clearBatch();
+        }
+      }
+    } catch ( SQLException e ) {
+      throw new HopDatabaseException( "Error executing the batched inserts and updates of the dimension", e );
+    }
+    data.pendingStatements.clear();
+    data.pendingKeys.clear();
+
+    if ( data.uncommittedRows >= meta.getCommitSize() ) {
+      data.db.commit();
+      data.uncommittedRows = 0;
+    }
+  }
+
   private Date determineDimensionUpdatedDate( Object[] row ) throws HopException {
     if ( data.datefieldnr < 0 ) {
       return getPipeline().getExecutionStartDate(); // start of pipeline...
@@ -415,6 +704,12 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
           + data.lookupRowMeta.getString( lookupRow ) );
       }
 
+      // The pending changes of the same natural key need to be in the database before we look at it again
+      //
+      if ( data.batchUpdates && data.pendingKeys.contains( new RowMetaAndData( data.cacheKeyRowMeta, getKeyValues( row ) ) ) ) {
+        flushBatchUpdates();
+      }
+
       // Do the lookup and see if we can find anything in the database.
       // But before that, let's see if we can find anything in the cache
       //
@@ -423,9 +718,15 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       }
 
       // Nothing found in the cache?
-      // Perform the lookup in the database...
+      // Use the versions read for the batch of rows or perform the lookup in the database...
       //
-      if ( returnRow == null ) {
+      if ( returnRow == null && isInBatchVersions( row ) ) {
+        data.returnRowMeta = data.batchReturnRowMeta;
+        returnRow = getBatchVersion( lookupRow, valueDate );
+        if ( returnRow != null && meta.getCacheSize() >= 0 ) {
+          addToCache( lookupRow, returnRow );
+        }
+      } else if ( returnRow == null ) {
         data.db.setValues( data.lookupRowMeta, lookupRow, data.prepStatementLookup );
         returnRow = data.db.getLookup( data.prepStatementLookup );
         data.returnRowMeta = data.db.getReturnRowMeta();
@@ -520,6 +821,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
         technicalKey =
           dimInsert( data.inputRowMeta, row, technicalKey, true, valueVersion, valueDateFrom, valueDateTo );
+        setKeyChanged( row );
 
         incrementLinesOutput();
         returnRow = new Object[ data.returnRowMeta.size() ];
@@ -744,6 +1046,9 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
           dimPunchThrough( rowMeta, row );
           incrementLinesUpdated();
         }
+        if ( !identical ) {
+          setKeyChanged( row );
+        }
 
         returnRow = new Object[ data.returnRowMeta.size() ];
         returnRow[ 0 ] = technicalKey;
@@ -846,6 +1151,15 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
         }
       }
     }
+    // The batched lookup reads all the versions of the natural keys and picks the right one itself
+    //
+    data.batchLookupSql =
+      sql + ", " + databaseMeta.quoteField( meta.getDateFrom() ) + ", " + databaseMeta.quoteField( meta.getDateTo() );
+    for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+      data.batchLookupSql += ", " + databaseMeta.quoteField( meta.getKeyLookup()[ i ] );
+    }
+    data.batchLookupSql += " FROM " + data.schemaTable + " WHERE ";
+
     if ( meta.getCacheSize() >= 0 ) {
       sql +=
         ", " + databaseMeta.quoteField( meta.getDateFrom() ) + ", " + databaseMeta.quoteField( meta.getDateTo() );
@@ -869,6 +1183,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       || ( meta.getStartDateAlternative() == DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE ) ) {
       // Null as a start date is possible...
       //
+      data.nullStartDatePossible = true;
       sql += " AND ( " + dateFromField + " IS NULL OR " + dateFromField + " <= ? )" + Const.CR;
       sql += " AND " + dateToField + " > ?" + Const.CR;
 
@@ -1155,7 +1470,8 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
     // INSERT NEW VALUE!
     data.db.setValues( data.insertRowMeta, insertRow, data.prepStatementInsert );
-    data.db.insertRow( data.prepStatementInsert );
+    // An auto-incremented key has to be retrieved right away
+    writeRow( data.prepStatementInsert, technicalKey != null );
 
     if ( isDebug() ) {
       logDebug( "Row inserted!" );
@@ -1240,7 +1556,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       if ( isDebug() ) {
         logDebug( "Values set for update (" + data.updateRowMeta.size() + ")" );
       }
-      data.db.insertRow( data.prepStatementUpdate ); // do the actual update
+      writeRow( data.prepStatementUpdate, true ); // do the actual update
       if ( isDebug() ) {
         logDebug( "Row updated!" );
       }
@@ -1349,7 +1665,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     dimensionUpdateRow[ updateIndex++ ] = dimkey;
 
     data.db.setValues( data.dimensionUpdateRowMeta, dimensionUpdateRow, data.prepStatementDimensionUpdate );
-    data.db.insertRow( data.prepStatementDimensionUpdate );
+    writeRow( data.prepStatementDimensionUpdate, true );
   }
 
   // This updates all versions of a dimension entry.
@@ -1439,7 +1755,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     // UPDATE VALUES
     data.db.setValues( data.punchThroughRowMeta, punchThroughRow, data.prepStatementPunchThrough ); // set values for
     // update
-    data.db.insertRow( data.prepStatementPunchThrough ); // do the actual punch through update
+    writeRow( data.prepStatementPunchThrough, true ); // do the actual punch through update
   }
 
   /**
@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.dimensionlookup;
 
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.hash.ByteArrayHashMap;
 import org.apache.hop.core.row.IRowMeta;
@@ -26,6 +27,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import java.sql.PreparedStatement;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Matt
@@ -93,6 +96,62 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
    */
   public IRowMeta inputRowMeta;
 
+  /**
+   * true if a null start of the date range matches any date
+   */
+  public boolean nullStartDatePossible;
+
+  /**
+   * The rows buffered to be looked up in a single query or null if every row is looked up separately
+   */
+  public List<Object[]> batchRows;
+
+  /**
+   * The query to look up all the versions of a batch of natural keys, without the where clause
+   */
+  public String batchLookupSql;
+
+  /**
+   * All the versions in the dimension of the natural keys of the current batch of rows
+   */
+  public Map<RowMetaAndData, List<Object[]>> batchVersions;
+
+  /**
+   * The layout of the versions: the return values, the date range and the natural keys
+   */
+  public IRowMeta batchVersionsRowMeta;
+
+  /**
+   * The return values of the versions, as in a row by row lookup
+   */
+  public IRowMeta batchReturnRowMeta;
+
+  /**
+   * The natural keys changed in the dimension since the versions were read
+   */
+  public Set<RowMetaAndData> batchChangedKeys;
+
+  /**
+   * true if the inserts and updates of the dimension are sent to the database in JDBC batches, only done together with
+   * the batched lookup
+   */
+  public boolean batchUpdates;
+
+  /**
+   * The statements with a batch which wasn't executed yet
+   */
+  public Set<PreparedStatement> pendingStatements;
+
+  /**
+   * The natural keys with changes in the pending batches
+   */
+  public Set<RowMetaAndData> pendingKeys;
+
+  /**
+   * The number of batched inserts and updates since the last commit
+   */
+  public int uncommittedRows;
+
   public DimensionLookupData() {
     super();
 
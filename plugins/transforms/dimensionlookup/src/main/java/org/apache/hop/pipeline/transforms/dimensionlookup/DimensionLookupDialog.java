@@ -83,6 +83,11 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlLookupBatchSize;
+  private Text wLookupBatchSize;
+
+  private Button wUseBatchUpdate;
+
   private CCombo wTk;
 
   private Label wlTkRename;
@@ -407,6 +412,48 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     fdCacheSize.right = new FormAttachment( 100, 0 );
     wCacheSize.setLayoutData( fdCacheSize );
 
+    // Lookup batch size ...
+    wlLookupBatchSize = new Label( comp, SWT.RIGHT );
+    wlLookupBatchSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.LookupBatchSize.Label" ) );
+    wlLookupBatchSize.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.LookupBatchSize.Tooltip" ) );
+    props.setLook( wlLookupBatchSize );
+    FormData fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment( 0, 0 );
+    fdlLookupBatchSize.right = new FormAttachment( middle, -margin );
+    fdlLookupBatchSize.top = new FormAttachment( wCacheSize, margin );
+    wlLookupBatchSize.setLayoutData( fdlLookupBatchSize );
+    wLookupBatchSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wLookupBatchSize );
+    wLookupBatchSize.addModifyListener( lsMod );
+    FormData fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment( middle, 0 );
+    fdLookupBatchSize.top = new FormAttachment( wCacheSize, margin );
+    fdLookupBatchSize.right = new FormAttachment( 100, 0 );
+    wLookupBatchSize.setLayoutData( fdLookupBatchSize );
+
+    // Use batch updates?
+    Label wlUseBatchUpdate = new Label( comp, SWT.RIGHT );
+    wlUseBatchUpdate.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.UseBatchUpdate.Label" ) );
+    wlUseBatchUpdate.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.UseBatchUpdate.Tooltip" ) );
+    props.setLook( wlUseBatchUpdate );
+    FormData fdlUseBatchUpdate = new FormData();
+    fdlUseBatchUpdate.left = new FormAttachment( 0, 0 );
+    fdlUseBatchUpdate.right = new FormAttachment( middle, -margin );
+    fdlUseBatchUpdate.top = new FormAttachment( wLookupBatchSize, margin );
+    wlUseBatchUpdate.setLayoutData( fdlUseBatchUpdate );
+    wUseBatchUpdate = new Button( comp, SWT.CHECK );
+    props.setLook( wUseBatchUpdate );
+    wUseBatchUpdate.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        input.setChanged();
+      }
+    } );
+    FormData fdUseBatchUpdate = new FormData();
+    fdUseBatchUpdate.left = new FormAttachment( middle, 0 );
+    fdUseBatchUpdate.top = new FormAttachment( wlUseBatchUpdate, 0, SWT.CENTER );
+    fdUseBatchUpdate.right = new FormAttachment( 100, 0 );
+    wUseBatchUpdate.setLayoutData( fdUseBatchUpdate );
+
     wlTkRename = new Label(comp, SWT.RIGHT );
 
     wTabFolder = new CTabFolder(comp, SWT.BORDER );
@@ -562,7 +609,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
 
     FormData fdTabFolder = new FormData();
     fdTabFolder.left = new FormAttachment( 0, 0 );
-    fdTabFolder.top = new FormAttachment( wCacheSize, margin );
+    fdTabFolder.top = new FormAttachment( wUseBatchUpdate, margin );
     fdTabFolder.right = new FormAttachment( 100, 0 );
     fdTabFolder.bottom = new FormAttachment( 60, 0);
     wTabFolder.setLayoutData(fdTabFolder);
@@ -975,6 +1022,7 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     wTable.addSelectionListener( lsDef );
     wCommit.addSelectionListener( lsDef );
     wCacheSize.addSelectionListener( lsDef );
+    wLookupBatchSize.addSelectionListener( lsDef );
     wTk.addSelectionListener( lsDef );
     wTkRename.addSelectionListener( lsDef );
     wSeq.addSelectionListener( lsDef );
@@ -1106,6 +1154,12 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     wlCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
     wCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
 
+    // The batched lookup doesn't apply to the pre-loaded cache
+    //
+    boolean preloading = wUseCache.getSelection() && wPreloadCache.getSelection() && !wUpdate.getSelection();
+    wlLookupBatchSize.setEnabled( !preloading );
+    wLookupBatchSize.setEnabled( !preloading );
+
   }
 
   protected void setComboBoxes() {
@@ -1274,6 +1328,8 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     if ( input.getCacheSize() >= 0 ) {
       wCacheSize.setText( "" + input.getCacheSize() );
     }
+    wLookupBatchSize.setText( "" + input.getLookupBatchSize() );
+    wUseBatchUpdate.setSelection( input.useBatchUpdate() );
 
     wMinyear.setText( "" + input.getMinYear() );
     wMaxyear.setText( "" + input.getMaxYear() );
@@ -1398,6 +1454,8 @@ public class DimensionLookupDialog extends BaseTransformDialog implements ITrans
     if ( wPreloadCache.getSelection() ) {
       in.setCacheSize( 0 );
     }
+    in.setLookupBatchSize( Const.toInt( wLookupBatchSize.getText(), 0 ) );
+    in.setUseBatchUpdate( wUseBatchUpdate.getSelection() );
 
     in.setMinYear( Const.toInt( wMinyear.getText(), Const.MIN_YEAR ) );
     in.setMaxYear( Const.toInt( wMaxyear.getText(), Const.MAX_YEAR ) );
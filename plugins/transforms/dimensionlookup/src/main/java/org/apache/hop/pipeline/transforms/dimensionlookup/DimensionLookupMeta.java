@@ -213,8 +213,16 @@ public class DimensionLookupMeta extends BaseTransformMeta
   private int commitSize;
 
   /** Flag to indicate the use of batch updates, default disabled for backward compatibility */
+  @Injection(name = "USE_BATCH_UPDATE")
   private boolean useBatchUpdate;
 
+  /**
+   * The number of incoming rows to look up in the dimension with a single query, 0 or 1 to look up
+   * every row separately
+   */
+  @Injection(name = "LOOKUP_BATCH_SIZE")
+  private int lookupBatchSize;
+
   /** The year to use as minus infinity in the dimensions date range */
   @Injection(name = "MIN_YEAR")
   private int minYear;
@@ -662,6 +670,7 @@ public class DimensionLookupMeta extends BaseTransformMeta
 
     cacheSize = 5000;
     preloadingCache = false;
+    lookupBatchSize = 0;
   }
 
   @Override
@@ -830,6 +839,7 @@ public class DimensionLookupMeta extends BaseTransformMeta
         .append("      ")
         .append(XmlHandler.addTagValue("start_date_field_name", startDateFieldName));
     retval.append("      ").append(XmlHandler.addTagValue("useBatch", useBatchUpdate));
+    retval.append("      ").append(XmlHandler.addTagValue("lookup_batch_size", lookupBatchSize));
 
     return retval.toString();
   }
@@ -907,6 +917,8 @@ public class DimensionLookupMeta extends BaseTransformMeta
       preloadingCache =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "preload_cache"));
       useBatchUpdate = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "useBatch"));
+      lookupBatchSize =
+          Const.toInt(XmlHandler.getTagValue(transformNode, "lookup_batch_size"), 0);
 
       usingStartDateAlternative =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "use_start_date_alternative"));
@@ -1888,6 +1900,16 @@ public class DimensionLookupMeta extends BaseTransformMeta
     this.preloadingCache = preloadingCache;
   }
 
+  /** @return the number of rows to look up with a single query, 0 or 1 to look up row by row */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /** @param lookupBatchSize the number of rows to look up with a single query */
+  public void setLookupBatchSize(int lookupBatchSize) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   /** @return the useBatchUpdate */
   public boolean useBatchUpdate() {
     return useBatchUpdate;
@@ -59,6 +59,8 @@ public class DimensionLookupMetaInjectionTest extends BaseMetadataInjectionTest<
     check( "USE_ALTERNATIVE_START_DATE", () -> meta.isUsingStartDateAlternative() );
     check( "ALTERNATIVE_START_COLUMN", () -> meta.getStartDateFieldName() );
     check( "PRELOAD_CACHE", () -> meta.isPreloadingCache() );
+    check( "USE_BATCH_UPDATE", () -> meta.useBatchUpdate() );
+    check( "LOOKUP_BATCH_SIZE", () -> meta.getLookupBatchSize() );
     check( "CONNECTION_NAME", () -> "My Connection", "My Connection" );
 
     IValueMeta mftt = new ValueMetaString( "f" );
@@ -85,7 +85,7 @@ public class DimensionLookupMetaTest implements IInitializer<ITransformMeta> {
     List<String> attributes =
       Arrays.asList( "schemaName", "tableName", "update", "dateField", "dateFrom", "dateTo", "keyField", "keyRename",
         "autoIncrement", "versionField", "commitSize", "useBatchUpdate", "minYear", "maxYear", "techKeyCreation",
-        "cacheSize", "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "keyStream",
+        "cacheSize", "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "lookupBatchSize", "keyStream",
         "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName" );
 
     Map<String, String> getterMap = new HashMap<String, String>() {
@@ -17,30 +17,75 @@
 
 package org.apache.hop.pipeline.transforms.dimensionlookup;
 
+import org.apache.hop.core.Counters;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.IProgressMonitor;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.GenericDatabaseMeta;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.plugins.TransformPluginType;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.RowAdapter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transform.TransformPartitioningMeta;
+import org.h2.api.Trigger;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class DimensionLookupTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final String URL = "jdbc:h2:mem:dimensionlookup;DB_CLOSE_DELAY=-1";
+  private static final String[] COLUMNS = { "TK", "VERSION", "DATE_FROM", "DATE_TO", "ID", "NAME", "CITY" };
+
+  /**
+   * The inserts and updates of the dimension rows in the order they were executed
+   */
+  private static final List<String> events = Collections.synchronizedList( new ArrayList<>() );
+
   private DatabaseMeta databaseMeta;
 
   private TransformMeta transformMeta;
@@ -49,6 +94,11 @@ public class DimensionLookupTest {
   private DimensionLookupMeta dimensionLookupMeta;
   private DimensionLookupData dimensionLookupData;
 
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    HopEnvironment.init();
+  }
+
   @Before
   public void setUp() throws Exception {
     databaseMeta = mock( DatabaseMeta.class );
@@ -98,4 +148,274 @@ public class DimensionLookupTest {
     dimensionLookupSpy.dimInsert( iRowMeta, objects, null, true, null, date, date );
     verify( databaseMeta, times( 2 ) ).supportsAutoGeneratedKeys();
   }
+
+  @After
+  public void tearDown() throws Exception {
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      connection.createStatement().execute( "DROP TABLE IF EXISTS DIM" );
+    }
+    Counters.getInstance().clear(); // the maximum technical key of the dropped table
+  }
+
+  @Test
+  public void testKeyRepeatedInBatchSeesInsertedVersion() throws Exception {
+    Object[][] rows = {
+      row( 1, "a", "x", "2020-01-01" ),
+      row( 1, "a", "x", "2020-02-01" ),
+      row( 2, "b", "y", "2020-01-01" ),
+      row( 1, "c", "x", "2020-03-01" ),
+      row( 1, "c", "x", "2020-03-02" ) };
+
+    createDimension();
+    List<Long> rowByRowKeys = runPipeline( createMeta( true, 0 ), rows );
+    List<String> rowByRowDimension = readDimension();
+    tearDown();
+
+    // The second row of key 1 finds the version inserted by the first one, the last row the version inserted by
+    // the row before it: no duplicate versions are created
+    //
+    createDimension();
+    assertEquals( Arrays.asList( 1L, 1L, 2L, 3L, 3L ), runPipeline( createMeta( true, 10 ), rows ) );
+    assertEquals( rowByRowKeys, Arrays.asList( 1L, 1L, 2L, 3L, 3L ) );
+    assertEquals( rowByRowDimension, readDimension() );
+    assertEquals( Arrays.asList(
+      "1/1/1900-01-01/2020-03-01/1/a/x",
+      "2/1/1900-01-01/2199-12-31/2/b/y",
+      "3/2/2020-03-01/2199-12-31/1/c/x" ), readDimension() );
+    verifyBatchLookups( 1 );
+  }
+
+  @Test
+  public void testBatchLookupPicksVersionByDate() throws Exception {
+    createDimension(
+      dimensionRow( 10, 1, "1900-01-01", "2020-01-01", 1, "old", "x" ),
+      dimensionRow( 11, 2, "2020-01-01", "2199-12-31", 1, "new", "x" ),
+      dimensionRow( 20, 1, "1900-01-01", "2199-12-31", 2, "b", "y" ) );
+
+    List<Long> keys = runPipeline( createMeta( false, 10 ),
+      row( 1, "old", "x", "2019-06-01" ),
+      row( 1, "new", "x", "2020-06-01" ),
+      row( 2, "b", "y", "2020-06-01" ),
+      row( 1, "new", "x", "2020-01-01" ),
+      row( 1, "old", "x", "2019-12-31" ),
+      row( 3, "c", "z", "2020-01-01" ) );
+
+    // The start date is part of a version, the end date isn't. The unknown key gets the not found key.
+    //
+    assertEquals( Arrays.asList( 10L, 11L, 20L, 11L, 10L, 0L ), keys );
+
+    // All versions are read with a single query, none of the rows is looked up separately
+    //
+    verifyBatchLookups( 1 );
+    verify( database, never() ).getLookup( any( PreparedStatement.class ) );
+  }
+
+  @Test
+  public void testBatchedChangesFlushedInOrderBeforeNextLookup() throws Exception {
+    Object[][] rows = {
+      row( 1, "b", "y", "2020-01-01" ),
+      row( 3, "c", "z", "2020-01-01" ),
+      row( 1, "b", "y", "2020-02-01" ),
+      row( 3, "c", "z", "2020-02-01" ) };
+    Object[] existing = dimensionRow( 1, 1, "1900-01-01", "2199-12-31", 1, "a", "x" );
+
+    createDimension( existing );
+    runPipeline( createMeta( true, 0 ), rows );
+    List<String> rowByRowDimension = readDimension();
+    tearDown();
+
+    createDimension( existing );
+    assertEquals( Arrays.asList( 2L, 3L, 2L, 3L ), runPipeline( createMeta( true, 2 ), rows ) );
+
+    // The first batch creates a new version of key 1, which also punches the city through to the old version, and
+    // inserts key 3. The changes are executed statement by statement in the order a single row applies them: the
+    // inserts, the end of the previous version and the punch through update.
+    // The second batch finds the new versions: nothing changes.
+    //
+    assertEquals( Arrays.asList( "insert 2", "insert 3", "update 1 DATE_TO", "update 1 CITY" ), events );
+    assertEquals( rowByRowDimension, readDimension() );
+    assertEquals( Arrays.asList(
+      "1/1/1900-01-01/2020-01-01/1/a/y",
+      "2/2/2020-01-01/2199-12-31/1/b/y",
+      "3/1/1900-01-01/2199-12-31/3/c/z" ), readDimension() );
+
+    // The 4 changes of the first batch reach the commit size of 2: they're committed before the second batch is
+    // looked up
+    //
+    InOrder inOrder = inOrder( database );
+    inOrder.verify( database ).getRows( anyString(), any( IRowMeta.class ), any( Object[].class ), anyInt(),
+      anyBoolean(), anyInt(), any( IProgressMonitor.class ) );
+    inOrder.verify( database ).commit();
+    inOrder.verify( database ).getRows( anyString(), any( IRowMeta.class ), any( Object[].class ), anyInt(),
+      anyBoolean(), anyInt(), any( IProgressMonitor.class ) );
+  }
+
+  private Database database;
+
+  private static IRowMeta inputRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "city" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    return rowMeta;
+  }
+
+  private static Object[] row( long id, String name, String city, String date ) throws Exception {
+    return new Object[] { id, name, city, parseDate( date ) };
+  }
+
+  private static Object[] dimensionRow( long tk, long version, String dateFrom, String dateTo, long id, String name,
+                                        String city ) throws Exception {
+    return new Object[] { tk, version, new Timestamp( parseDate( dateFrom ).getTime() ),
+      new Timestamp( parseDate( dateTo ).getTime() ), id, name, city };
+  }
+
+  private static Date parseDate( String date ) throws Exception {
+    return new SimpleDateFormat( "yyyy-MM-dd" ).parse( date );
+  }
+
+  private DimensionLookupMeta createMeta( boolean update, int lookupBatchSize ) throws Exception {
+    DatabaseMeta h2 = new DatabaseMeta( "h2", "GENERIC", "Native", null, null, null, null, null );
+    h2.setManualUrl( URL );
+    ( (GenericDatabaseMeta) h2.getIDatabase() ).setDriverClass( "org.h2.Driver" );
+
+    DimensionLookupMeta meta = new DimensionLookupMeta();
+    meta.setDefault();
+    meta.setDatabaseMeta( h2 );
+    meta.setTableName( "DIM" );
+    meta.setUpdate( update );
+    meta.setCommitSize( 2 );
+    meta.setCacheSize( -1 );
+    meta.setLookupBatchSize( lookupBatchSize );
+    meta.setUseBatchUpdate( true );
+    meta.setTechKeyCreation( DimensionLookupMeta.CREATION_METHOD_TABLEMAX );
+    meta.setKeyField( "TK" );
+    meta.setVersionField( "VERSION" );
+    meta.setDateFrom( "DATE_FROM" );
+    meta.setDateTo( "DATE_TO" );
+    meta.setDateField( "date" );
+    if ( update ) {
+      meta.allocate( 1, 2 );
+      meta.setFieldStream( new String[] { "name", "city" } );
+      meta.setFieldLookup( new String[] { "NAME", "CITY" } );
+      meta.setFieldUpdate(
+        new int[] { DimensionLookupMeta.TYPE_UPDATE_DIM_INSERT, DimensionLookupMeta.TYPE_UPDATE_DIM_PUNCHTHROUGH } );
+    } else {
+      meta.allocate( 1, 0 );
+    }
+    meta.setKeyStream( new String[] { "id" } );
+    meta.setKeyLookup( new String[] { "ID" } );
+    return meta;
+  }
+
+  /**
+   * Run the rows through a Dimension Lookup/Update transform
+   *
+   * @return The technical keys of the output rows
+   */
+  private List<Long> runPipeline( DimensionLookupMeta meta, Object[]... rows ) throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName( getClass().getName() );
+    String pluginId = PluginRegistry.getInstance().getPluginId( TransformPluginType.class, meta );
+    pipelineMeta.addTransform( new TransformMeta( pluginId, "dimension", meta ) );
+
+    Pipeline pipeline = new LocalPipelineEngine( pipelineMeta );
+    pipeline.prepareExecution();
+
+    BaseTransform transform = (BaseTransform) pipeline.getRunThread( "dimension", 0 );
+    DimensionLookupData data = (DimensionLookupData) transform.getData();
+    database = spy( data.db );
+    data.db = database;
+
+    List<Long> keys = Collections.synchronizedList( new ArrayList<>() );
+    transform.addRowListener( new RowAdapter() {
+      @Override public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) {
+        keys.add( (Long) row[ rowMeta.indexOfValue( "TK" ) ] );
+      }
+    } );
+
+    IRowMeta rowMeta = inputRowMeta();
+    RowProducer producer = pipeline.addRowProducer( "dimension", 0 );
+    pipeline.startThreads();
+    for ( Object[] row : rows ) {
+      producer.putRow( rowMeta, row.clone() );
+    }
+    producer.finished();
+    pipeline.waitUntilFinished();
+    assertEquals( 0, pipeline.getErrors() );
+    return keys;
+  }
+
+  private void verifyBatchLookups( int times ) throws Exception {
+    verify( database, times( times ) ).getRows( anyString(), any( IRowMeta.class ), any( Object[].class ), anyInt(),
+      anyBoolean(), anyInt(), any( IProgressMonitor.class ) );
+  }
+
+  private static void createDimension( Object[]... versions ) throws Exception {
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      Statement statement = connection.createStatement();
+      statement.execute( "CREATE TABLE DIM ( TK BIGINT PRIMARY KEY, VERSION INT, DATE_FROM TIMESTAMP, "
+        + "DATE_TO TIMESTAMP, ID BIGINT, NAME VARCHAR(50), CITY VARCHAR(50) )" );
+      PreparedStatement insert = connection.prepareStatement( "INSERT INTO DIM VALUES ( ?, ?, ?, ?, ?, ?, ? )" );
+      for ( Object[] version : versions ) {
+        for ( int i = 0; i < version.length; i++ ) {
+          insert.setObject( i + 1, version[ i ] );
+        }
+        insert.executeUpdate();
+      }
+      statement.execute( "CREATE TRIGGER DIM_EVENTS AFTER INSERT, UPDATE ON DIM FOR EACH ROW CALL \""
+        + DimensionTrigger.class.getName() + "\"" );
+    }
+    events.clear();
+  }
+
+  /**
+   * @return The dimension rows as tk/version/from/to/id/name/city, without the unknown row
+   */
+  private static List<String> readDimension() throws Exception {
+    List<String> rows = new ArrayList<>();
+    SimpleDateFormat format = new SimpleDateFormat( "yyyy-MM-dd" );
+    try ( Connection connection = DriverManager.getConnection( URL ) ) {
+      ResultSet resultSet = connection.createStatement().executeQuery(
+        "SELECT TK, VERSION, DATE_FROM, DATE_TO, ID, NAME, CITY FROM DIM WHERE TK > 0 ORDER BY TK" );
+      while ( resultSet.next() ) {
+        rows.add( resultSet.getLong( 1 ) + "/" + resultSet.getLong( 2 ) + "/"
+          + format.format( resultSet.getTimestamp( 3 ) ) + "/" + format.format( resultSet.getTimestamp( 4 ) ) + "/"
+          + resultSet.getLong( 5 ) + "/" + resultSet.getString( 6 ) + "/" + resultSet.getString( 7 ) );
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Records the inserted rows and the changed columns of the updated rows
+   */
+  public static class DimensionTrigger implements Trigger {
+    @Override public void init( Connection connection, String schemaName, String triggerName, String tableName,
+                                boolean before, int type ) {
+    }
+
+    @Override public void fire( Connection connection, Object[] oldRow, Object[] newRow ) {
+      long tk = ( (Number) newRow[ 0 ] ).longValue();
+      if ( tk == 0 ) {
+        return; // the unknown row
+      }
+      if ( oldRow == null ) {
+        events.add( "insert " + tk );
+        return;
+      }
+      for ( int i = 0; i < COLUMNS.length; i++ ) {
+        if ( !Objects.equals( oldRow[ i ], newRow[ i ] ) ) {
+          events.add( "update " + tk + " " + COLUMNS[ i ] );
+        }
+      }
+    }
+
+    @Override public void close() {
+    }
+
+    @Override public void remove() {
+    }
+  }
 }
@@ -24,7 +24,9 @@ package org.apache.hop.pipeline.transforms.excelinput.staxpoi;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamConstants;
@@ -69,17 +71,32 @@ public class StaxPoiSheet implements IKSheet {
   private int firstRow;
   private IKCell[] currentRowCells;
 
-  // full shared strings table
+  // full shared strings table, only used when no streamed shared strings are given
   private SharedStringsTable sst;
+  // shared strings read with StAX, bounded in memory
+  private StaxSharedStrings sharedStrings;
   // custom styles
   private StylesTable styles;
+  // whether or not a cell style is a date format, by style index
+  private final Map<String, Boolean> dateStyles = new HashMap<>();
 
   public StaxPoiSheet( XSSFReader reader, String sheetName, String sheetID )
+    throws InvalidFormatException, IOException, XMLStreamException {
+    this( reader, sheetName, sheetID, null );
+  }
+
+  /**
+   * @param sharedStrings the shared strings of the workbook or null to load the complete shared strings table
+   */
+  public StaxPoiSheet( XSSFReader reader, String sheetName, String sheetID, StaxSharedStrings sharedStrings )
     throws InvalidFormatException, IOException, XMLStreamException {
     this.sheetName = sheetName;
     xssfReader = reader;
     sheetId = sheetID;
-    sst = reader.getSharedStringsTable();
+    this.sharedStrings = sharedStrings;
+    if ( sharedStrings == null ) {
+      sst = reader.getSharedStringsTable();
+    }
     styles = reader.getStylesTable();
     sheetStream = reader.getSheet( sheetID );
     XMLInputFactory factory = StaxUtil.safeXMLInputFactory();
@@ -121,8 +138,7 @@ public class StaxPoiSheet implements IKSheet {
                   event = sheetReader.next();
                   if ( event == XMLStreamConstants.START_ELEMENT && sheetReader.getLocalName().equals( "v" ) ) {
                     int idx = Integer.parseInt( sheetReader.getElementText() );
-                    String content = new XSSFRichTextString( sst.getEntryAt( idx ) ).toString();
-                    headerRow.add( content );
+                    headerRow.add( getSharedString( idx ) );
                     break;
                   }
                 }
@@ -238,7 +254,7 @@ public class StaxPoiSheet implements IKSheet {
           // read content as string
           if ( cellType != null && cellType.equals( "s" ) ) {
             int idx = Integer.parseInt( sheetReader.getElementText() );
-            content = new XSSFRichTextString( sst.getEntryAt( idx ) ).toString();
+            content = getSharedString( idx );
           } else {
             content = sheetReader.getElementText();
           }
@@ -327,19 +343,33 @@ public class StaxPoiSheet implements IKSheet {
     }
   }
 
+  private String getSharedString( int idx ) {
+    if ( sharedStrings != null ) {
+      return sharedStrings.getString( idx );
+    }
+    return new XSSFRichTextString( sst.getEntryAt( idx ) ).toString();
+  }
+
   @VisibleForTesting
   protected boolean isDateCell( String cellStyle ) {
-    if ( cellStyle != null ) {
+    if ( cellStyle == null ) {
+      return false;
+    }
+    // a sheet only uses a handful of styles, don't look up and parse the format for every numeric cell
+    Boolean date = dateStyles.get( cellStyle );
+    if ( date == null ) {
+      date = false;
       int styleIdx = Integer.parseInt( cellStyle );
       CTXf cellXf = styles.getCellXfAt( styleIdx );
       if ( cellXf != null ) {
         // need id for builtin types, format if custom
         short formatId = (short) cellXf.getNumFmtId();
         String format = styles.getNumberFormatAt( formatId );
-        return DateUtil.isADateFormat( formatId, format );
+        date = DateUtil.isADateFormat( formatId, format );
       }
+      dateStyles.put( cellStyle, date );
     }
-    return false;
+    return date;
   }
 
   private Object parseValue( KCellType type, String vContent ) {
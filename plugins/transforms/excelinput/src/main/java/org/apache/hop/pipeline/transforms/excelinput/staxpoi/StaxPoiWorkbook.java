@@ -59,6 +59,9 @@ public class StaxPoiWorkbook implements IKWorkbook {
   // mapping of the sheet object with its ID/Name
   private Map<String, StaxPoiSheet> openSheetsMap;
 
+  // shared strings of all sheets, read when the first sheet is opened
+  private StaxSharedStrings sharedStrings;
+
   private OPCPackage opcpkg;
 
   protected StaxPoiWorkbook() {
@@ -133,7 +136,17 @@ public class StaxPoiWorkbook implements IKWorkbook {
 
     if ( sheet == null ) {
       try {
-        sheet = new StaxPoiSheet( reader, sheetName, sheetID );
+        if ( sharedStrings == null ) {
+          InputStream sharedStringsData = reader.getSharedStringsData();
+          try {
+            sharedStrings = new StaxSharedStrings( sharedStringsData );
+          } finally {
+            if ( sharedStringsData != null ) {
+              sharedStringsData.close();
+            }
+          }
+        }
+        sheet = new StaxPoiSheet( reader, sheetName, sheetID, sharedStrings );
         openSheetsMap.put( sheetID, sheet );
       } catch ( Exception e ) {
         log.logError( sheetName, e );
@@ -160,6 +173,14 @@ public class StaxPoiWorkbook implements IKWorkbook {
         log.logError( "Could not close xmlstream", e );
       }
     }
+    if ( sharedStrings != null ) {
+      try {
+        sharedStrings.close();
+      } catch ( IOException e ) {
+        log.logError( "Could not remove shared strings file", e );
+      }
+      sharedStrings = null;
+    }
     if ( opcpkg != null ) {
       //We should not save change in xlsx because it is input transform.
       opcpkg.revert();
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.excelinput.staxpoi;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The shared strings table of an XLSX file, read with StAX instead of being loaded as a complete POI
+ * SharedStringsTable.<br>
+ * Strings are kept in memory up to a maximum number of characters. The strings after that are written to a temporary
+ * file and read back by offset through a small LRU cache. This keeps the memory used by large workbooks with many
+ * unique strings bounded.<br>
+ * Not thread safe: a workbook is read by a single transform copy.
+ */
+public class StaxSharedStrings implements Closeable {
+
+  /**
+   * The system property to change the maximum number of characters of shared strings kept in memory
+   */
+  public static final String MAX_CHARS_IN_MEMORY_PROPERTY = "HOP_EXCEL_SHARED_STRINGS_MAX_CHARS";
+
+  public static final long DEFAULT_MAX_CHARS_IN_MEMORY = 8L * 1024 * 1024;
+
+  public static final int DEFAULT_CACHE_SIZE = 10000;
+
+  private static final Pattern UTF_PATTERN = Pattern.compile( "_x([0-9A-Fa-f]{4})_" );
+
+  private final long maxCharsInMemory;
+  private final int cacheSize;
+
+  private final List<String> strings = new ArrayList<>();
+  private long charsInMemory;
+
+  // The strings which didn't fit in memory anymore
+  private File spillFile;
+  private DataOutputStream spillOutput;
+  private RandomAccessFile spillInput;
+  private long spillPosition;
+  private long[] spillOffsets = new long[ 0 ];
+  private int spillCount;
+  private Map<Integer, String> cache;
+
+  public StaxSharedStrings( InputStream inputStream ) throws IOException, XMLStreamException {
+    this( inputStream, getMaxCharsInMemory(), DEFAULT_CACHE_SIZE );
+  }
+
+  /**
+   * @param inputStream      the shared strings part or null if the workbook doesn't have one
+   * @param maxCharsInMemory the maximum number of characters to keep in memory
+   * @param cacheSize        the maximum number of spilled strings to keep in the LRU cache
+   */
+  public StaxSharedStrings( InputStream inputStream, long maxCharsInMemory, int cacheSize )
+    throws IOException, XMLStreamException {
+    this.maxCharsInMemory = maxCharsInMemory;
+    this.cacheSize = cacheSize;
+    if ( inputStream == null ) {
+      return;
+    }
+    try {
+      read( inputStream );
+    } catch ( IOException | XMLStreamException | RuntimeException e ) {
+      close();
+      throw e;
+    } finally {
+      if ( spillOutput != null ) {
+        spillOutput.close();
+        spillOutput = null;
+      }
+    }
+  }
+
+  private void read( InputStream inputStream ) throws IOException, XMLStreamException {
+    XMLStreamReader reader = StaxUtil.safeXMLInputFactory().createXMLStreamReader( inputStream );
+    try {
+      StringBuilder text = new StringBuilder();
+      // Text in phonetic runs isn't part of the value
+      int phoneticDepth = 0;
+      while ( reader.hasNext() ) {
+        int event = reader.next();
+        if ( event == XMLStreamConstants.START_ELEMENT ) {
+          String name = reader.getLocalName();
+          if ( name.equals( "si" ) ) {
+            text.setLength( 0 );
+          } else if ( name.equals( "rPh" ) ) {
+            phoneticDepth++;
+          } else if ( name.equals( "t" ) && phoneticDepth == 0 ) {
+            text.append( reader.getElementText() );
+          }
+        } else if ( event == XMLStreamConstants.END_ELEMENT ) {
+          String name = reader.getLocalName();
+          if ( name.equals( "rPh" ) ) {
+            phoneticDepth--;
+          } else if ( name.equals( "si" ) ) {
+            add( utfDecode( text.toString() ) );
+          }
+        }
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void add( String value ) throws IOException {
+    if ( spillOutput == null && charsInMemory + value.length() <= maxCharsInMemory ) {
+      strings.add( value );
+      charsInMemory += value.length();
+      return;
+    }
+    if ( spillOutput == null ) {
+      spillFile = File.createTempFile( "hop-excel-sst-", ".tmp" );
+      spillFile.deleteOnExit();
+      spillOutput = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( spillFile ), 65536 ) );
+    }
+    if ( spillCount == spillOffsets.length ) {
+      spillOffsets = Arrays.copyOf( spillOffsets, Math.max( 1024, spillCount * 2 ) );
+    }
+    spillOffsets[ spillCount++ ] = spillPosition;
+    byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+    spillOutput.writeInt( bytes.length );
+    spillOutput.write( bytes );
+    spillPosition += 4 + bytes.length;
+  }
+
+  /**
+   * @param index the 0-based index of the shared string
+   * @return the shared string
+   * @throws IndexOutOfBoundsException if there is no string with that index
+   */
+  public String getString( int index ) {
+    if ( index >= 0 && index < strings.size() ) {
+      return strings.get( index );
+    }
+    int spillIndex = index - strings.size();
+    if ( index < 0 || spillIndex >= spillCount ) {
+      throw new IndexOutOfBoundsException( "Shared string " + index + " doesn't exist" );
+    }
+    if ( cache == null ) {
+      cache = new LinkedHashMap<Integer, String>( 256, 0.75f, true ) {
+        @Override protected boolean removeEldestEntry( Map.Entry<Integer, String> eldest ) {
+          return size() > cacheSize;
+        }
+      };
+    }
+    String value = cache.get( spillIndex );
+    if ( value == null ) {
+      value = readSpilled( spillIndex );
+      cache.put( spillIndex, value );
+    }
+    return value;
+  }
+
+  private String readSpilled( int spillIndex ) {
+    try {
+      if ( spillInput == null ) {
+        spillInput = new RandomAccessFile( spillFile, "r" );
+      }
+      spillInput.seek( spillOffsets[ spillIndex ] );
+      byte[] bytes = new byte[ spillInput.readInt() ];
+      spillInput.readFully( bytes );
+      return new String( bytes, StandardCharsets.UTF_8 );
+    } catch ( IOException e ) {
+      throw new IllegalStateException( "Unable to read shared string from " + spillFile, e );
+    }
+  }
+
+  /**
+   * @return the number of shared strings
+   */
+  public int getCount() {
+    return strings.size() + spillCount;
+  }
+
+  /**
+   * @return true if some of the strings were written to a temporary file
+   */
+  public boolean isSpilled() {
+    return spillFile != null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if ( spillOutput != null ) {
+        spillOutput.close();
+        spillOutput = null;
+      }
+      if ( spillInput != null ) {
+        spillInput.close();
+        spillInput = null;
+      }
+    } finally {
+      if ( spillFile != null ) {
+        spillFile.delete();
+        spillFile = null;
+      }
+      spillCount = 0;
+      cache = null;
+    }
+  }
+
+  /**
+   * Decode the _xHHHH_ escapes Excel uses for characters which can't be written in XML, like POI does.
+   */
+  static String utfDecode( String value ) {
+    if ( value == null || !value.contains( "_x" ) ) {
+      return value;
+    }
+    StringBuilder buffer = new StringBuilder( value.length() );
+    Matcher matcher = UTF_PATTERN.matcher( value );
+    int index = 0;
+    while ( matcher.find() ) {
+      buffer.append( value, index, matcher.start() );
+      buffer.append( (char) Integer.parseInt( matcher.group( 1 ), 16 ) );
+      index = matcher.end();
+    }
+    buffer.append( value, index, value.length() );
+    return buffer.toString();
+  }
+
+  private static long getMaxCharsInMemory() {
+    try {
+      return Long.parseLong( System.getProperty( MAX_CHARS_IN_MEMORY_PROPERTY, "" ).trim() );
+    } catch ( NumberFormatException e ) {
+      return DEFAULT_MAX_CHARS_IN_MEMORY;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.excelinput.staxpoi;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StaxSharedStringsTest {
+
+  private static final String SST =
+    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+      + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"5\" uniqueCount=\"5\">"
+      + "<si><t>One</t></si>"
+      + "<si><t xml:space=\"preserve\"> Two </t></si>"
+      + "<si><r><rPr><b/></rPr><t>Th</t></r><r><t>ree</t></r></si>"
+      + "<si><t>Four</t><rPh sb=\"0\" eb=\"1\"><t>phonetic</t></rPh></si>"
+      + "<si><t>Tab_x0009_bed</t></si>"
+      + "</sst>";
+
+  @Test
+  public void testReadInMemory() throws Exception {
+    try ( StaxSharedStrings strings = new StaxSharedStrings( toStream( SST ), 1000, 10 ) ) {
+      assertFalse( strings.isSpilled() );
+      assertStrings( strings );
+    }
+  }
+
+  @Test
+  public void testReadSpilled() throws Exception {
+    // Only the first two strings fit in memory, the cache holds a single string
+    try ( StaxSharedStrings strings = new StaxSharedStrings( toStream( SST ), 8, 1 ) ) {
+      assertTrue( strings.isSpilled() );
+      assertStrings( strings );
+      // read backwards to go through the cache evictions
+      assertEquals( "Four", strings.getString( 3 ) );
+      assertEquals( "Three", strings.getString( 2 ) );
+    }
+  }
+
+  @Test
+  public void testNoSharedStrings() throws Exception {
+    try ( StaxSharedStrings strings = new StaxSharedStrings( null, 1000, 10 ) ) {
+      assertEquals( 0, strings.getCount() );
+    }
+  }
+
+  @Test( expected = IndexOutOfBoundsException.class )
+  public void testInvalidIndex() throws Exception {
+    try ( StaxSharedStrings strings = new StaxSharedStrings( toStream( SST ), 8, 1 ) ) {
+      strings.getString( 5 );
+    }
+  }
+
+  private static void assertStrings( StaxSharedStrings strings ) {
+    assertEquals( 5, strings.getCount() );
+    assertEquals( "One", strings.getString( 0 ) );
+    assertEquals( " Two ", strings.getString( 1 ) );
+    assertEquals( "Three", strings.getString( 2 ) );
+    assertEquals( "Four", strings.getString( 3 ) );
+    assertEquals( "Tab\tbed", strings.getString( 4 ) );
+  }
+
+  private static InputStream toStream( String xml ) throws Exception {
+    return IOUtils.toInputStream( xml, "UTF-8" );
+  }
+}
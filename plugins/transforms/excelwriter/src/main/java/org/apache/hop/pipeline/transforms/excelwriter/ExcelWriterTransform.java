@@ -24,6 +24,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.util.ExecutorUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
@@ -60,6 +61,11 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta, ExcelWriterTransformData> implements ITransform<ExcelWriterTransformMeta, ExcelWriterTransformData> {
 
@@ -198,6 +204,7 @@ public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta
       if ( data.wb != null ) {
         closeOutputFile();
       }
+      waitForPendingWrites();
       setOutputDone();
       clearWorkbookMem();
       return false;
@@ -214,37 +221,127 @@ public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta
   }
 
   private void closeOutputFile() throws HopException {
-    try ( BufferedOutputStreamWithCloseDetection out = new BufferedOutputStreamWithCloseDetection( HopVfs.getOutputStream( data.file, false ) ) ) {
-      // may have to write a footer here
-      if ( meta.isFooterEnabled() ) {
-        writeHeader();
+    // may have to write a footer here
+    if ( meta.isFooterEnabled() ) {
+      writeHeader();
+    }
+    // handle auto size for columns
+    if ( meta.isAutoSizeColums() ) {
+
+      // track all columns for autosizing if using streaming worksheet
+      if ( data.sheet instanceof SXSSFSheet ) {
+        ( (SXSSFSheet) data.sheet ).trackAllColumnsForAutoSizing();
       }
-      // handle auto size for columns
-      if ( meta.isAutoSizeColums() ) {
 
-        // track all columns for autosizing if using streaming worksheet
-        if ( data.sheet instanceof SXSSFSheet ) {
-          ( (SXSSFSheet) data.sheet ).trackAllColumnsForAutoSizing();
+      if ( meta.getOutputFields() == null || meta.getOutputFields().length == 0 ) {
+        for ( int i = 0; i < data.inputRowMeta.size(); i++ ) {
+          data.sheet.autoSizeColumn( i + data.startingCol );
         }
+      } else {
+        for ( int i = 0; i < meta.getOutputFields().length; i++ ) {
+          data.sheet.autoSizeColumn( i + data.startingCol );
+        }
+      }
+    }
+    // force recalculation of formulas if requested
+    if ( meta.isForceFormulaRecalculation() ) {
+      recalculateAllWorkbookFormulas();
+    }
 
-        if ( meta.getOutputFields() == null || meta.getOutputFields().length == 0 ) {
-          for ( int i = 0; i < data.inputRowMeta.size(); i++ ) {
-            data.sheet.autoSizeColumn( i + data.startingCol );
-          }
-        } else {
-          for ( int i = 0; i < meta.getOutputFields().length; i++ ) {
-            data.sheet.autoSizeColumn( i + data.startingCol );
-          }
+    final Workbook wb = data.wb;
+    final FileObject file = data.file;
+    final Semaphore permits = data.writePermits;
+    if ( permits == null ) {
+      writeWorkbook( wb, file );
+      return;
+    }
+
+    // The workbook is complete: write it in the background while the next file is filled.
+    // Waiting for a permit limits the number of workbooks held at the same time.
+    //
+    checkFinishedWrites();
+    try {
+      permits.acquire();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( e );
+    }
+    try {
+      data.pendingWrites.add( ExecutorUtil.getExecutor().submit( () -> {
+        try {
+          writeWorkbook( wb, file );
+          return null;
+        } finally {
+          permits.release();
         }
+      } ) );
+    } catch ( RuntimeException e ) {
+      permits.release();
+      throw new HopException( e );
+    }
+  }
+
+  private static void writeWorkbook( Workbook wb, FileObject file ) throws HopException {
+    try ( BufferedOutputStreamWithCloseDetection out = new BufferedOutputStreamWithCloseDetection( HopVfs.getOutputStream( file, false ) ) ) {
+      wb.write( out );
+    } catch ( IOException e ) {
+      throw new HopException( e );
+    } finally {
+      // remove the temporary files holding the rows of the streamed sheets
+      if ( wb instanceof SXSSFWorkbook ) {
+        ( (SXSSFWorkbook) wb ).dispose();
       }
-      // force recalculation of formulas if requested
-      if ( meta.isForceFormulaRecalculation() ) {
-        recalculateAllWorkbookFormulas();
+    }
+  }
+
+  /**
+   * Report the first failure of the background writes which already finished
+   */
+  private void checkFinishedWrites() throws HopException {
+    Iterator<Future<?>> iterator = data.pendingWrites.iterator();
+    while ( iterator.hasNext() ) {
+      Future<?> write = iterator.next();
+      if ( write.isDone() ) {
+        iterator.remove();
+        getWriteResult( write );
       }
+    }
+  }
 
-      data.wb.write( out );
-    } catch ( IOException e ) {
+  /**
+   * Wait until all the files handed to the background writers are written
+   */
+  private void waitForPendingWrites() throws HopException {
+    if ( data.pendingWrites == null || data.pendingWrites.isEmpty() ) {
+      return;
+    }
+    HopException error = null;
+    for ( Future<?> write : data.pendingWrites ) {
+      try {
+        getWriteResult( write );
+      } catch ( HopException e ) {
+        if ( error == null ) {
+          error = e;
+        }
+      }
+    }
+    data.pendingWrites.clear();
+    if ( error != null ) {
+      throw error;
+    }
+  }
+
+  private void getWriteResult( Future<?> write ) throws HopException {
+    try {
+      write.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
       throw new HopException( e );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof HopException ) {
+        throw (HopException) e.getCause();
+      }
+      throw new HopException( e.getCause() );
     }
   }
 
@@ -289,9 +386,12 @@ public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta
       if ( meta.getOutputFields() == null || meta.getOutputFields().length == 0 ) {
         //  Write all values in stream to text file.
         int nr = data.inputRowMeta.size();
-        data.clearStyleCache( nr );
-        data.linkfieldnrs = new int[ nr ];
-        data.commentfieldnrs = new int[ nr ];
+        // only set up the style cache and the link and comment lookups once, not for every row
+        if ( data.linkfieldnrs == null || data.linkfieldnrs.length != nr ) {
+          data.clearStyleCache( nr );
+          data.linkfieldnrs = new int[ nr ];
+          data.commentfieldnrs = new int[ nr ];
+        }
         for ( int i = 0; i < nr; i++ ) {
           v = r[ i ];
           writeField( v, data.inputRowMeta.getValueMeta( i ), null, xlsRow, data.posX++, r, i, false );
@@ -641,7 +741,9 @@ public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta
       if ( meta.getExtension().equalsIgnoreCase( "xlsx" ) ) {
         XSSFWorkbook xssfWorkbook = new XSSFWorkbook( HopVfs.getInputStream( data.file ) );
         if ( meta.isStreamingData() && !meta.isTemplateEnabled() ) {
-          data.wb = new SXSSFWorkbook( xssfWorkbook, 100 );
+          int windowSize = meta.getStreamingWindowSize() > 0
+            ? meta.getStreamingWindowSize() : ExcelWriterTransformMeta.DEFAULT_STREAMING_WINDOW_SIZE;
+          data.wb = new SXSSFWorkbook( xssfWorkbook, windowSize );
         } else {
           //Initialize it later after writing header/template because SXSSFWorkbook can't read/rewrite existing data,
           // only append.
@@ -808,6 +910,8 @@ public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta
       data.shiftExistingCells = ExcelWriterTransformMeta.ROW_WRITE_PUSH_DOWN.equals( meta.getRowWritingMethod() );
       data.createNewSheet = ExcelWriterTransformMeta.IF_SHEET_EXISTS_CREATE_NEW.equals( meta.getIfSheetExists() );
       data.createNewFile = ExcelWriterTransformMeta.IF_FILE_EXISTS_CREATE_NEW.equals( meta.getIfFileExists() );
+      data.writePermits = meta.getParallelWrites() > 0 ? new Semaphore( meta.getParallelWrites() ) : null;
+      data.pendingWrites = new ArrayList<>();
       return true;
     }
     return false;
@@ -819,6 +923,13 @@ public class ExcelWriterTransform extends BaseTransform<ExcelWriterTransformMeta
    */
   @Override
   public void dispose(){
+    // don't leave files half written behind
+    try {
+      waitForPendingWrites();
+    } catch ( HopException e ) {
+      logError( "Error writing file in the background", e );
+      setErrors( 1 );
+    }
     clearWorkbookMem();
     super.dispose();
   }
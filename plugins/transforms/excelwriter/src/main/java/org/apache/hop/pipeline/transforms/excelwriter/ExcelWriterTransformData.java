@@ -25,6 +25,10 @@ import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
 public class ExcelWriterTransformData extends BaseTransformData implements ITransformData {
 
   public IRowMeta outputRowMeta;
@@ -52,6 +56,9 @@ public class ExcelWriterTransformData extends BaseTransformData implements ITran
   public String realPassword;
   public String realProtectedBy;
   public int[] linkfieldnrs;
+  /** Limits the number of finished files being written in the background, null to write them right away */
+  public Semaphore writePermits;
+  public List<Future<?>> pendingWrites;
   private CellStyle[] cellStyleCache;
   private CellStyle[] cellLinkStyleCache;
 
@@ -63,6 +63,10 @@ public class ExcelWriterTransformDialog extends BaseTransformDialog implements I
 
   private Button wStreamData;
 
+  private Text wStreamingWindowSize;
+
+  private Text wParallelWrites;
+
   private Button wAddTransformNr;
 
   private Label wlAddDate;
@@ -315,13 +319,51 @@ public class ExcelWriterTransformDialog extends BaseTransformDialog implements I
     wStreamData.setLayoutData(fdStreamData);
     wStreamData.addSelectionListener( lsSel );
 
+    // number of rows kept in memory when streaming
+    Label wlStreamingWindowSize = new Label(fileGroup, SWT.RIGHT);
+    wlStreamingWindowSize.setText( BaseMessages.getString( PKG, "ExcelWriterDialog.StreamingWindowSize.Label" ) );
+    props.setLook(wlStreamingWindowSize);
+    FormData fdlStreamingWindowSize = new FormData();
+    fdlStreamingWindowSize.left = new FormAttachment( 0, 0 );
+    fdlStreamingWindowSize.top = new FormAttachment( wStreamData, margin );
+    fdlStreamingWindowSize.right = new FormAttachment( middle, -margin );
+    wlStreamingWindowSize.setLayoutData(fdlStreamingWindowSize);
+    wStreamingWindowSize = new Text( fileGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wStreamingWindowSize );
+    wStreamingWindowSize.addModifyListener( lsMod );
+    wStreamingWindowSize.setToolTipText( BaseMessages.getString( PKG, "ExcelWriterDialog.StreamingWindowSize.Tooltip" ) );
+    FormData fdStreamingWindowSize = new FormData();
+    fdStreamingWindowSize.left = new FormAttachment( middle, 0 );
+    fdStreamingWindowSize.top = new FormAttachment( wStreamData, margin );
+    fdStreamingWindowSize.right = new FormAttachment( 100, 0 );
+    wStreamingWindowSize.setLayoutData(fdStreamingWindowSize);
+
+    // number of finished files written in the background
+    Label wlParallelWrites = new Label(fileGroup, SWT.RIGHT);
+    wlParallelWrites.setText( BaseMessages.getString( PKG, "ExcelWriterDialog.ParallelWrites.Label" ) );
+    props.setLook(wlParallelWrites);
+    FormData fdlParallelWrites = new FormData();
+    fdlParallelWrites.left = new FormAttachment( 0, 0 );
+    fdlParallelWrites.top = new FormAttachment( wStreamingWindowSize, margin );
+    fdlParallelWrites.right = new FormAttachment( middle, -margin );
+    wlParallelWrites.setLayoutData(fdlParallelWrites);
+    wParallelWrites = new Text( fileGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wParallelWrites );
+    wParallelWrites.addModifyListener( lsMod );
+    wParallelWrites.setToolTipText( BaseMessages.getString( PKG, "ExcelWriterDialog.ParallelWrites.Tooltip" ) );
+    FormData fdParallelWrites = new FormData();
+    fdParallelWrites.left = new FormAttachment( middle, 0 );
+    fdParallelWrites.top = new FormAttachment( wStreamingWindowSize, margin );
+    fdParallelWrites.right = new FormAttachment( 100, 0 );
+    wParallelWrites.setLayoutData(fdParallelWrites);
+
     // split every x rows
     Label wlSplitEvery = new Label(fileGroup, SWT.RIGHT);
     wlSplitEvery.setText( BaseMessages.getString( PKG, "ExcelWriterDialog.SplitEvery.Label" ) );
     props.setLook(wlSplitEvery);
     FormData fdlSplitEvery = new FormData();
     fdlSplitEvery.left = new FormAttachment( 0, 0 );
-    fdlSplitEvery.top = new FormAttachment( wStreamData, margin );
+    fdlSplitEvery.top = new FormAttachment( wParallelWrites, margin );
     fdlSplitEvery.right = new FormAttachment( middle, -margin );
     wlSplitEvery.setLayoutData(fdlSplitEvery);
     wSplitEvery = new Text( fileGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
@@ -330,7 +372,7 @@ public class ExcelWriterTransformDialog extends BaseTransformDialog implements I
     wSplitEvery.setToolTipText( BaseMessages.getString( PKG, "ExcelWriterDialog.SplitEvery.Tooltip" ) );
     FormData fdSplitEvery = new FormData();
     fdSplitEvery.left = new FormAttachment( middle, 0 );
-    fdSplitEvery.top = new FormAttachment( wStreamData, margin );
+    fdSplitEvery.top = new FormAttachment( wParallelWrites, margin );
     fdSplitEvery.right = new FormAttachment( 100, 0 );
     wSplitEvery.setLayoutData(fdSplitEvery);
 
@@ -1424,6 +1466,8 @@ public class ExcelWriterTransformDialog extends BaseTransformDialog implements I
     }
 
     wStreamData.setSelection( input.isStreamingData() );
+    wStreamingWindowSize.setText( "" + input.getStreamingWindowSize() );
+    wParallelWrites.setText( "" + input.getParallelWrites() );
     wSplitEvery.setText( "" + input.getSplitEvery() );
     wEmptyRows.setText( "" + input.getAppendEmpty() );
     wSkipRows.setText( "" + input.getAppendOffset() );
@@ -1542,6 +1586,8 @@ public class ExcelWriterTransformDialog extends BaseTransformDialog implements I
   private void getInfo( ExcelWriterTransformMeta tfoi ) {
     tfoi.setFileName( wFilename.getText() );
     tfoi.setStreamingData( wStreamData.getSelection() );
+    tfoi.setStreamingWindowSize( Const.toInt( wStreamingWindowSize.getText(), ExcelWriterTransformMeta.DEFAULT_STREAMING_WINDOW_SIZE ) );
+    tfoi.setParallelWrites( Const.toInt( wParallelWrites.getText(), 0 ) );
     tfoi.setDoNotOpenNewFileInit( wDoNotOpenNewFileInit.getSelection() );
     tfoi.setAppendOmitHeader( wOmitHeader.getSelection() );
     tfoi.setExtension( (String) wExtension.getData( wExtension.getText() ) );
@@ -1641,10 +1687,12 @@ public class ExcelWriterTransformDialog extends BaseTransformDialog implements I
       wPassword.setEnabled( wProtectSheet.getSelection() );
       wProtectedBy.setEnabled( wProtectSheet.getSelection() );
       wStreamData.setEnabled( false );
+      wStreamingWindowSize.setEnabled( false );
     } else {
       wPassword.setEnabled( false );
       wProtectedBy.setEnabled( false );
       wStreamData.setEnabled( true );
+      wStreamingWindowSize.setEnabled( true );
     }
   }
 
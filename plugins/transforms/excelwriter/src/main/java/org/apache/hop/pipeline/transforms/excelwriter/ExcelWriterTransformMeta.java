@@ -67,6 +67,8 @@ public class ExcelWriterTransformMeta extends BaseTransformMeta
   public static final String ROW_WRITE_OVERWRITE = "overwrite";
   public static final String ROW_WRITE_PUSH_DOWN = "push";
 
+  public static final int DEFAULT_STREAMING_WINDOW_SIZE = 100;
+
   /** The base name of the output file */
   private String fileName;
   /** what to do if file exists */
@@ -159,6 +161,15 @@ public class ExcelWriterTransformMeta extends BaseTransformMeta
   /** Do we need to stream data to handle very large files? */
   private boolean streamingData;
 
+  /** The number of rows kept in memory per sheet when streaming data */
+  private int streamingWindowSize;
+
+  /**
+   * The number of finished files which can be written in the background while the next file is filled, 0 to write
+   * them right away
+   */
+  private int parallelWrites;
+
   public ExcelWriterTransformMeta() {
     super();
   }
@@ -537,6 +548,12 @@ public class ExcelWriterTransformMeta extends BaseTransformMeta
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "file", "autosizecolums"));
       streamingData =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "file", "stream_data"));
+      streamingWindowSize =
+          Const.toInt(
+              XmlHandler.getTagValue(transformNode, "file", "stream_window_size"),
+              DEFAULT_STREAMING_WINDOW_SIZE);
+      parallelWrites =
+          Const.toInt(XmlHandler.getTagValue(transformNode, "file", "parallel_writes"), 0);
       protectsheet =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "file", "protect_sheet"));
       password =
@@ -604,6 +621,8 @@ public class ExcelWriterTransformMeta extends BaseTransformMeta
 
     autosizecolums = false;
     streamingData = false;
+    streamingWindowSize = DEFAULT_STREAMING_WINDOW_SIZE;
+    parallelWrites = 0;
     headerEnabled = true;
     footerEnabled = false;
     fileName = "file";
@@ -759,6 +778,10 @@ public class ExcelWriterTransformMeta extends BaseTransformMeta
     retval.append("      ").append(XmlHandler.addTagValue("sheetname", sheetname));
     retval.append("      ").append(XmlHandler.addTagValue("autosizecolums", autosizecolums));
     retval.append("      ").append(XmlHandler.addTagValue("stream_data", streamingData));
+    retval
+        .append("      ")
+        .append(XmlHandler.addTagValue("stream_window_size", streamingWindowSize));
+    retval.append("      ").append(XmlHandler.addTagValue("parallel_writes", parallelWrites));
     retval.append("      ").append(XmlHandler.addTagValue("protect_sheet", protectsheet));
     retval
         .append("      ")
@@ -945,6 +968,26 @@ public class ExcelWriterTransformMeta extends BaseTransformMeta
     this.streamingData = streamingData;
   }
 
+  /** @return the number of rows kept in memory per sheet when streaming data */
+  public int getStreamingWindowSize() {
+    return streamingWindowSize;
+  }
+
+  /** @param streamingWindowSize the number of rows kept in memory per sheet when streaming data */
+  public void setStreamingWindowSize(int streamingWindowSize) {
+    this.streamingWindowSize = streamingWindowSize;
+  }
+
+  /** @return the number of finished files which can be written in the background */
+  public int getParallelWrites() {
+    return parallelWrites;
+  }
+
+  /** @param parallelWrites the number of finished files which can be written in the background */
+  public void setParallelWrites(int parallelWrites) {
+    this.parallelWrites = parallelWrites;
+  }
+
   public boolean isTemplateSheetHidden() {
     return templateSheetHidden;
   }
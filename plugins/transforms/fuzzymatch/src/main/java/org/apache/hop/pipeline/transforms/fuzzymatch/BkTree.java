@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A Burkhard-Keller tree to find the values with a key within an edit distance of a given key without comparing it to
+ * all the keys in the tree. The distance function needs to be a metric (like Levenshtein) for the search to be exact.
+ *
+ * @param <T> The type of the values stored with the keys
+ */
+public class BkTree<T> {
+
+  /**
+   * A value found by a search, with its distance to the searched key
+   */
+  public static class Match<T> {
+    private final T value;
+    private final int distance;
+    private final int sequence;
+
+    private Match( T value, int distance, int sequence ) {
+      this.value = value;
+      this.distance = distance;
+      this.sequence = sequence;
+    }
+
+    public T getValue() {
+      return value;
+    }
+
+    public int getDistance() {
+      return distance;
+    }
+  }
+
+  private static class Node<T> {
+    private final String key;
+    // Values with the same key, the sequence numbers keep the order in which they were added
+    private final List<T> values = new ArrayList<>( 1 );
+    private final List<Integer> sequences = new ArrayList<>( 1 );
+    private Map<Integer, Node<T>> children;
+
+    private Node( String key ) {
+      this.key = key;
+    }
+  }
+
+  private final ToIntBiFunction<String, String> distanceFunction;
+  private Node<T> root;
+  private int size;
+
+  /**
+   * @param distanceFunction The metric to calculate the distance between two keys with
+   */
+  public BkTree( ToIntBiFunction<String, String> distanceFunction ) {
+    this.distanceFunction = distanceFunction;
+  }
+
+  /**
+   * Add a value to the tree
+   *
+   * @param key   The key of the value
+   * @param value The value
+   */
+  public void add( String key, T value ) {
+    int sequence = size++;
+    if ( root == null ) {
+      root = new Node<>( key );
+    }
+    Node<T> node = root;
+    while ( true ) {
+      int distance = distanceFunction.applyAsInt( node.key, key );
+      if ( distance == 0 && node.key.equals( key ) ) {
+        break;
+      }
+      if ( node.children == null ) {
+        node.children = new HashMap<>();
+      }
+      Node<T> child = node.children.get( distance );
+      if ( child == null ) {
+        child = new Node<>( key );
+        node.children.put( distance, child );
+        node = child;
+        break;
+      }
+      node = child;
+    }
+    node.values.add( value );
+    node.sequences.add( sequence );
+  }
+
+  /**
+   * Find the values with a key within the given distance range.
+   *
+   * @param key         The key to search for
+   * @param minDistance The minimal distance of the values to return
+   * @param maxDistance The maximal distance of the values to return
+   * @param closest     Only return the values with the smallest distance within the range
+   * @return The values found, in the order in which they were added to the tree
+   */
+  public List<Match<T>> search( String key, int minDistance, int maxDistance, boolean closest ) {
+    List<Match<T>> matches = new ArrayList<>();
+    if ( root == null ) {
+      return matches;
+    }
+    int radius = maxDistance;
+    Deque<Node<T>> stack = new ArrayDeque<>();
+    stack.push( root );
+    while ( !stack.isEmpty() ) {
+      Node<T> node = stack.pop();
+      int distance = distanceFunction.applyAsInt( node.key, key );
+      if ( distance >= minDistance && distance <= radius ) {
+        if ( closest && distance < radius ) {
+          // Everything found so far is further away, look no further than this one from now on
+          radius = distance;
+          matches.clear();
+        }
+        for ( int i = 0; i < node.values.size(); i++ ) {
+          matches.add( new Match<>( node.values.get( i ), distance, node.sequences.get( i ) ) );
+        }
+      }
+      if ( node.children != null ) {
+        // The triangle inequality tells us only these children can have keys within the radius
+        for ( Map.Entry<Integer, Node<T>> child : node.children.entrySet() ) {
+          if ( Math.abs( child.getKey() - distance ) <= radius ) {
+            stack.push( child.getValue() );
+          }
+        }
+      }
+    }
+    if ( closest ) {
+      // Matches found before the radius shrank the last time
+      for ( Iterator<Match<T>> it = matches.iterator(); it.hasNext(); ) {
+        if ( it.next().distance > radius ) {
+          it.remove();
+        }
+      }
+    }
+    matches.sort( Comparator.comparingInt( match -> match.sequence ) );
+    return matches;
+  }
+
+  /**
+   * @return The number of values in the tree
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -42,7 +42,11 @@ import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Performs a fuzzy match for each main stream field row An approximative match is done in a lookup stream
@@ -70,6 +74,8 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
         + data.infoStream.getTransformName() + "]" );
     }
 
+    createIndex();
+
     boolean firstRun = true;
     // Which row set do we read from?
     //
@@ -190,12 +196,62 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
   private void addToCache( Object[] value ) throws HopException {
     try {
       data.look.add( value );
+      addToIndex( value );
     } catch ( OutOfMemoryError o ) {
       // exception out of memory
       throw new HopException( BaseMessages.getString( PKG, "FuzzyMatch.Error.JavaHeap", o.toString() ) );
     }
   }
 
+  /**
+   * Prepare an index on the lookup values for the algorithms which can avoid comparing a value to all of them:
+   * Levenshtein distance is a metric so a BK-tree finds the values within the maximal distance, the phonetic algorithms
+   * only match values with the same code and a letter pair similarity above 0 requires a common letter pair.
+   */
+  private void createIndex() {
+    data.distanceIndex = null;
+    data.phoneticIndex = null;
+    data.similarityIndex = null;
+    switch ( meta.getAlgorithmType() ) {
+      case FuzzyMatchMeta.OPERATION_TYPE_LEVENSHTEIN:
+        data.distanceIndex = new BkTree<>( StringUtils::getLevenshteinDistance );
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_DOUBLE_METAPHONE:
+      case FuzzyMatchMeta.OPERATION_TYPE_METAPHONE:
+      case FuzzyMatchMeta.OPERATION_TYPE_SOUNDEX:
+      case FuzzyMatchMeta.OPERATION_TYPE_REFINED_SOUNDEX:
+        data.phoneticIndex = new HashMap<>();
+        break;
+      case FuzzyMatchMeta.OPERATION_TYPE_PAIR_SIMILARITY:
+        if ( data.minimalSimilarity > 0 ) {
+          data.similarityIndex = new LetterPairIndex<>();
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void addToIndex( Object[] value ) {
+    String key = (String) value[ 0 ];
+    if ( data.distanceIndex != null ) {
+      data.distanceIndex.add( meta.isCaseSensitive() ? key : key.toLowerCase(), value );
+    } else if ( data.phoneticIndex != null ) {
+      String code;
+      try {
+        code = getEncodedMF( key, meta.getAlgorithmType() );
+      } catch ( IllegalArgumentException e ) {
+        // A value with characters the algorithm can't encode can't match
+        code = null;
+      }
+      if ( code != null ) {
+        data.phoneticIndex.computeIfAbsent( code, c -> new ArrayList<>( 1 ) ).add( value );
+      }
+    } else if ( data.similarityIndex != null ) {
+      data.similarityIndex.add( key, value );
+    }
+  }
+
   private Object[] getFromCache( Object[] keyRow ) throws HopValueException {
     if ( isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "FuzzyMatch.Log.ReadingMainStreamRow", getInputRowMeta().getString(
@@ -231,13 +287,22 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
     // Reserve room
     Object[] rowData = buildEmptyRow();
 
-    Iterator<Object[]> it = data.look.iterator();
-
     long distance = -1;
 
     // Object o=row[data.indexOfMainField];
     String lookupvalue = getInputRowMeta().getString( row, data.indexOfMainField );
 
+    if ( data.distanceIndex != null ) {
+      String uselookupvalue = meta.isCaseSensitive() ? lookupvalue : lookupvalue.toLowerCase();
+      for ( BkTree.Match<Object[]> match : data.distanceIndex.search(
+        uselookupvalue, data.minimalDistance, data.maximalDistance, meta.isGetCloserValue() ) ) {
+        distance = addDistanceMatch( rowData, match.getValue(), match.getDistance(), distance );
+      }
+      return rowData;
+    }
+
+    Iterator<Object[]> it = data.look.iterator();
+
     while ( it.hasNext() ) {
       // Get cached row data
       Object[] cachedData = it.next();
@@ -254,6 +319,12 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
 
       switch ( meta.getAlgorithmType() ) {
         case FuzzyMatchMeta.OPERATION_TYPE_DAMERAU_LEVENSHTEIN:
+          // The distance is at least the difference in length, skip the values which can't be close enough
+          int lengthDifference = Math.abs( usecacheValue.length() - uselookupvalue.length() );
+          if ( lengthDifference > data.maximalDistance
+            || ( meta.isGetCloserValue() && distance != -1 && lengthDifference >= distance ) ) {
+            continue;
+          }
           cdistance = Utils.getDamerauLevenshteinDistance( usecacheValue, uselookupvalue );
           break;
         case FuzzyMatchMeta.OPERATION_TYPE_NEEDLEMAN_WUNSH:
@@ -265,58 +336,78 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
       }
 
       if ( data.minimalDistance <= cdistance && cdistance <= data.maximalDistance ) {
-        if ( meta.isGetCloserValue() ) {
-          if ( cdistance < distance || distance == -1 ) {
-            // Get closer value
-            // minimal distance
-            distance = cdistance;
-            int index = 0;
-            rowData[ index++ ] = cacheValue;
-            // Add metric value?
-            if ( data.addValueFieldName ) {
-              rowData[ index++ ] = distance;
-            }
-            // Add additional return values?
-            if ( data.addAdditionalFields ) {
-              for ( int i = 0; i < meta.getValue().length; i++ ) {
-                int nr = i + 1;
-                int nf = i + index;
-                rowData[ nf ] = cachedData[ nr ];
-              }
-            }
-          }
-        } else {
-          // get all values separated by values separator
-          if ( rowData[ 0 ] == null ) {
-            rowData[ 0 ] = cacheValue;
-          } else {
-            rowData[ 0 ] = (String) rowData[ 0 ] + data.valueSeparator + cacheValue;
-          }
-        }
+        distance = addDistanceMatch( rowData, cachedData, cdistance, distance );
       }
     }
 
     return rowData;
   }
 
+  /**
+   * Add a cached row within the distance range to the result.
+   *
+   * @return The smallest distance found so far
+   */
+  private long addDistanceMatch( Object[] rowData, Object[] cachedData, int cdistance, long distance ) {
+    String cacheValue = (String) cachedData[ 0 ];
+    if ( meta.isGetCloserValue() ) {
+      if ( cdistance < distance || distance == -1 ) {
+        // Get closer value
+        // minimal distance
+        distance = cdistance;
+        int index = 0;
+        rowData[ index++ ] = cacheValue;
+        // Add metric value?
+        if ( data.addValueFieldName ) {
+          rowData[ index++ ] = distance;
+        }
+        // Add additional return values?
+        if ( data.addAdditionalFields ) {
+          for ( int i = 0; i < meta.getValue().length; i++ ) {
+            int nr = i + 1;
+            int nf = i + index;
+            rowData[ nf ] = cachedData[ nr ];
+          }
+        }
+      }
+    } else {
+      // get all values separated by values separator
+      if ( rowData[ 0 ] == null ) {
+        rowData[ 0 ] = cacheValue;
+      } else {
+        rowData[ 0 ] = (String) rowData[ 0 ] + data.valueSeparator + cacheValue;
+      }
+    }
+    return distance;
+  }
+
   private Object[] doPhonetic( Object[] row ) {
     // Reserve room
     Object[] rowData = buildEmptyRow();
 
-    Iterator<Object[]> it = data.look.iterator();
-
     Object o = row[ data.indexOfMainField ];
     String lookupvalue = (String) o;
 
     String lookupValueMF = getEncodedMF( lookupvalue, meta.getAlgorithmType() );
 
+    // Only the values with the same code can match
+    Iterator<Object[]> it;
+    if ( data.phoneticIndex != null ) {
+      List<Object[]> matches = data.phoneticIndex.get( lookupValueMF );
+      it = matches == null ? Collections.emptyIterator() : matches.iterator();
+    } else {
+      it = data.look.iterator();
+    }
+
     while ( it.hasNext() ) {
       // Get cached row data
       Object[] cachedData = it.next();
       // Key value is the first value
       String cacheValue = (String) cachedData[ 0 ];
 
-      String cacheValueMF = getEncodedMF( cacheValue, meta.getAlgorithmType() );
+      // The values from the index have the same code
+      String cacheValueMF =
+        data.phoneticIndex != null ? lookupValueMF : getEncodedMF( cacheValue, meta.getAlgorithmType() );
 
       if ( lookupValueMF.equals( cacheValueMF ) ) {
 
@@ -367,8 +458,6 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
 
     // Reserve room
     Object[] rowData = buildEmptyRow();
-    // prepare to read from cache ...
-    Iterator<Object[]> it = data.look.iterator();
     double similarity = 0;
 
     // get current value from main stream
@@ -376,6 +465,11 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
 
     String lookupvalue = o == null ? "" : (String) o;
 
+    // prepare to read from cache ...
+    // only the values sharing a letter pair with the lookup value can be similar enough
+    List<Object[]> candidates = data.similarityIndex != null ? data.similarityIndex.getCandidates( lookupvalue ) : null;
+    Iterator<Object[]> it = candidates != null ? candidates.iterator() : data.look.iterator();
+
     while ( it.hasNext() ) {
       // Get cached row data
       Object[] cachedData = it.next();
@@ -604,6 +698,9 @@ public class FuzzyMatch extends BaseTransform<FuzzyMatchMeta, FuzzyMatchData> im
 
   public void dispose(){
     data.look.clear();
+    data.distanceIndex = null;
+    data.phoneticIndex = null;
+    data.similarityIndex = null;
     super.dispose();
   }
 
@@ -23,6 +23,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.hop.pipeline.transform.errorhandling.IStream;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author Samatar
@@ -37,6 +39,13 @@ public class FuzzyMatchData extends BaseTransformData implements ITransformData
    */
   public HashSet<Object[]> look;
 
+  /**
+   * The cached rows indexed on their key for the algorithm used, null when all the cached rows are compared
+   */
+  public BkTree<Object[]> distanceIndex;
+  public Map<String, List<Object[]>> phoneticIndex;
+  public LetterPairIndex<Object[]> similarityIndex;
+
   public boolean readLookupValues;
 
   /**
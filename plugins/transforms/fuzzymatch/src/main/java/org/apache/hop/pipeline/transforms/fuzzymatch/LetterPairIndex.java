@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index on the letter pairs used by {@link LetterPairSimilarity}. A value which doesn't share a single
+ * letter pair with another value has a similarity of 0, so only the values sharing a pair need to be scored when
+ * looking for a similarity above 0.
+ *
+ * @param <T> The type of the values stored with the keys
+ */
+public class LetterPairIndex<T> {
+
+  /**
+   * The numbers of the values containing a letter pair, in ascending order
+   */
+  private static class Posting {
+    private int[] valueNrs = new int[ 4 ];
+    private int size;
+
+    private void add( int valueNr ) {
+      if ( size > 0 && valueNrs[ size - 1 ] == valueNr ) {
+        // The same pair twice in one key
+        return;
+      }
+      if ( size == valueNrs.length ) {
+        valueNrs = Arrays.copyOf( valueNrs, size * 2 );
+      }
+      valueNrs[ size++ ] = valueNr;
+    }
+  }
+
+  private final List<T> values = new ArrayList<>();
+  private final Map<String, Posting> postings = new HashMap<>();
+
+  /**
+   * Add a value to the index
+   *
+   * @param key   The key to calculate the letter pairs of
+   * @param value The value
+   */
+  public void add( String key, T value ) {
+    int valueNr = values.size();
+    values.add( value );
+    for ( String pair : LetterPairSimilarity.wordLetterPairs( key.toUpperCase() ) ) {
+      postings.computeIfAbsent( pair, p -> new Posting() ).add( valueNr );
+    }
+  }
+
+  /**
+   * Find the values sharing at least one letter pair with the given key.
+   *
+   * @param key The key to look up
+   * @return The candidates in the order in which they were added or null if the key has no letter pairs to look up with
+   */
+  public List<T> getCandidates( String key ) {
+    List<String> pairs = LetterPairSimilarity.wordLetterPairs( key.toUpperCase() );
+    if ( pairs.isEmpty() ) {
+      return null;
+    }
+    BitSet valueNrs = new BitSet( values.size() );
+    for ( String pair : pairs ) {
+      Posting posting = postings.get( pair );
+      if ( posting != null ) {
+        for ( int i = 0; i < posting.size; i++ ) {
+          valueNrs.set( posting.valueNrs[ i ] );
+        }
+      }
+    }
+    List<T> candidates = new ArrayList<>( valueNrs.cardinality() );
+    for ( int i = valueNrs.nextSetBit( 0 ); i >= 0; i = valueNrs.nextSetBit( i + 1 ) ) {
+      candidates.add( values.get( i ) );
+    }
+    return candidates;
+  }
+
+  /**
+   * @return The number of values in the index
+   */
+  public int size() {
+    return values.size();
+  }
+}
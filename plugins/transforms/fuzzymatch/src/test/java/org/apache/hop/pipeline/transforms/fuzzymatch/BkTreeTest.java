@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BkTreeTest {
+
+  @Test
+  public void testSearch() {
+    BkTree<Integer> tree = new BkTree<>( StringUtils::getLevenshteinDistance );
+    String[] names = { "Catrine", "Catriny", "John", "Catrine", "Katrin", "Jon" };
+    for ( int i = 0; i < names.length; i++ ) {
+      tree.add( names[ i ], i );
+    }
+    assertEquals( 6, tree.size() );
+
+    assertEquals( "[0, 1, 3, 4]", values( tree.search( "Catrine", 0, 2, false ) ) );
+    assertEquals( "[0, 3]", values( tree.search( "Catrine", 0, 2, true ) ) );
+    assertEquals( "[1, 4]", values( tree.search( "Catrine", 1, 2, false ) ) );
+    assertEquals( "[1]", values( tree.search( "Catrine", 1, 2, true ) ) );
+    assertEquals( "[2, 5]", values( tree.search( "Jonh", 0, 2, false ) ) );
+    assertEquals( "[]", values( tree.search( "Peter", 0, 2, false ) ) );
+    assertTrue( new BkTree<Integer>( StringUtils::getLevenshteinDistance ).search( "a", 0, 5, false ).isEmpty() );
+  }
+
+  /**
+   * The tree finds the same values as comparing the key to all of them
+   */
+  @Test
+  public void testSearchMatchesFullScan() {
+    Random random = new Random( 7 );
+    List<String> keys = new ArrayList<>();
+    BkTree<Integer> tree = new BkTree<>( StringUtils::getLevenshteinDistance );
+    for ( int i = 0; i < 2000; i++ ) {
+      String key = randomString( random );
+      keys.add( key );
+      tree.add( key, i );
+    }
+
+    for ( int t = 0; t < 200; t++ ) {
+      String key = randomString( random );
+      int minDistance = random.nextInt( 2 );
+      int maxDistance = minDistance + random.nextInt( 4 );
+
+      List<Integer> expected = new ArrayList<>();
+      int closestDistance = Integer.MAX_VALUE;
+      List<Integer> closest = new ArrayList<>();
+      for ( int i = 0; i < keys.size(); i++ ) {
+        int distance = StringUtils.getLevenshteinDistance( keys.get( i ), key );
+        if ( minDistance <= distance && distance <= maxDistance ) {
+          expected.add( i );
+          if ( distance < closestDistance ) {
+            closestDistance = distance;
+            closest.clear();
+          }
+          if ( distance == closestDistance ) {
+            closest.add( i );
+          }
+        }
+      }
+      assertEquals( expected.toString(), values( tree.search( key, minDistance, maxDistance, false ) ) );
+      assertEquals( closest.toString(), values( tree.search( key, minDistance, maxDistance, true ) ) );
+    }
+  }
+
+  private static String values( List<BkTree.Match<Integer>> matches ) {
+    List<Integer> values = new ArrayList<>();
+    for ( BkTree.Match<Integer> match : matches ) {
+      values.add( match.getValue() );
+    }
+    return values.toString();
+  }
+
+  private static String randomString( Random random ) {
+    StringBuilder string = new StringBuilder();
+    int length = 3 + random.nextInt( 6 );
+    for ( int i = 0; i < length; i++ ) {
+      string.append( (char) ( 'a' + random.nextInt( 5 ) ) );
+    }
+    return string.toString();
+  }
+}
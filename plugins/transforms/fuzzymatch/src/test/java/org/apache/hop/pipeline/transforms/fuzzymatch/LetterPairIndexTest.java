@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fuzzymatch;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LetterPairIndexTest {
+
+  @Test
+  public void testGetCandidates() {
+    LetterPairIndex<String> index = new LetterPairIndex<>();
+    for ( String name : new String[] { "France", "French", "Germany", "Frankfurt", "a" } ) {
+      index.add( name, name );
+    }
+    assertEquals( 5, index.size() );
+    assertEquals( "[France, French, Frankfurt]", index.getCandidates( "fr" ).toString() );
+    assertEquals( "[Germany]", index.getCandidates( "GERM" ).toString() );
+    assertTrue( index.getCandidates( "xyz" ).isEmpty() );
+    assertNull( index.getCandidates( "a" ) );
+  }
+
+  /**
+   * All the values with a similarity above 0 are candidates
+   */
+  @Test
+  public void testCandidatesContainSimilarValues() {
+    Random random = new Random( 3 );
+    List<String> values = new ArrayList<>();
+    LetterPairIndex<String> index = new LetterPairIndex<>();
+    for ( int i = 0; i < 500; i++ ) {
+      String value = randomString( random );
+      values.add( value );
+      index.add( value, value );
+    }
+    for ( int t = 0; t < 100; t++ ) {
+      String key = randomString( random );
+      List<String> candidates = index.getCandidates( key );
+      if ( candidates == null ) {
+        continue;
+      }
+      for ( String value : values ) {
+        if ( LetterPairSimilarity.getSimiliarity( value, key ) > 0 ) {
+          assertTrue( value + " / " + key, candidates.contains( value ) );
+        }
+      }
+    }
+  }
+
+  private static String randomString( Random random ) {
+    StringBuilder string = new StringBuilder();
+    int length = 1 + random.nextInt( 8 );
+    for ( int i = 0; i < length; i++ ) {
+      string.append( "abcdE ".charAt( random.nextInt( 6 ) ) );
+    }
+    return string.toString();
+  }
+}
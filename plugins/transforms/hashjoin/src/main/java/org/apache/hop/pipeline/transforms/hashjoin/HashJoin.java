@@ -0,0 +1,477 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.errorhandling.IStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Join 2 unsorted streams on their key fields. The second (right hand side) stream is read first
+ * and kept in a hash table, the rows of the first stream are then looked up in that table. Supports
+ * INNER, LEFT OUTER, RIGHT OUTER and FULL OUTER joins.
+ *
+ * <p>When the second stream holds more rows than the configured cache size, both streams are
+ * partitioned to temporary files on their key hash (grace hash join). The partitions are then joined
+ * one by one, so only a single partition of the second stream needs to fit in memory.
+ */
+public class HashJoin extends BaseTransform<HashJoinMeta, HashJoinData>
+    implements ITransform<HashJoinMeta, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  public HashJoin(
+      TransformMeta transformMeta,
+      HashJoinMeta meta,
+      HashJoinData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    super(transformMeta, meta, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  public boolean processRow() throws HopException {
+    if (first) {
+      first = false;
+
+      // Find the RowSets to read from
+      //
+      List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+
+      data.oneRowSet = findInputRowSet(infoStreams.get(0).getTransformName());
+      if (data.oneRowSet == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG,
+                "HashJoin.Exception.UnableToFindSpecifiedTransform",
+                infoStreams.get(0).getTransformName()));
+      }
+
+      data.twoRowSet = findInputRowSet(infoStreams.get(1).getTransformName());
+      if (data.twoRowSet == null) {
+        throw new HopException(
+            BaseMessages.getString(
+                PKG,
+                "HashJoin.Exception.UnableToFindSpecifiedTransform",
+                infoStreams.get(1).getTransformName()));
+      }
+
+      // Build the hash table from the complete second stream
+      //
+      readSecondStream(infoStreams.get(1).getTransformName());
+
+      Object[] one = getRowFrom(data.oneRowSet);
+      if (one != null) {
+        data.oneMeta = data.oneRowSet.getRowMeta();
+      } else {
+        data.oneMeta =
+            getPipelineMeta().getTransformFields(this, infoStreams.get(0).getTransformName());
+      }
+      initFirstStream();
+
+      if (one == null) {
+        return firstStreamDone();
+      }
+      processFirstStreamRow(one);
+      return true;
+    }
+
+    if (data.partitionNr >= 0) {
+      if (data.partitionNr < data.oneFiles.length && !isStopped()) {
+        joinPartition(data.partitionNr++);
+        return true;
+      }
+      setOutputDone();
+      return false;
+    }
+
+    Object[] one = getRowFrom(data.oneRowSet);
+    if (one == null) {
+      return firstStreamDone();
+    }
+    processFirstStreamRow(one);
+    return true;
+  }
+
+  private void readSecondStream(String transformName) throws HopException {
+    Object[] two = getRowFrom(data.twoRowSet);
+    if (two != null) {
+      data.twoMeta = data.twoRowSet.getRowMeta();
+    } else {
+      data.twoMeta = getPipelineMeta().getTransformFields(this, transformName);
+    }
+
+    // The keys are stored in normal storage in the hash table
+    //
+    data.keyNrs2 = findKeys(data.twoMeta, meta.getKeyFields2());
+    data.keyMeta = new RowMeta();
+    for (int keyNr : data.keyNrs2) {
+      IValueMeta keyValueMeta = data.twoMeta.getValueMeta(keyNr).clone();
+      keyValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.keyMeta.addValueMeta(keyValueMeta);
+    }
+    data.table = new HashJoinTable(data.keyMeta);
+    RowKeyFilter.Builder filterBuilder = createKeyFilterBuilder();
+
+    while (two != null && !isStopped()) {
+      Object[] keyData = getSecondStreamKey(two);
+      if (filterBuilder != null) {
+        filterBuilder.add(keyData);
+      }
+      if (data.spilled) {
+        writeRow(data.twoMeta, data.twoFiles, data.twoOutputs, data.twoCounts, keyData, two);
+      } else {
+        data.table.add(keyData, two);
+        if (data.table.getRowCount() > data.cacheSize) {
+          spillTable();
+        }
+      }
+      two = getRowFrom(data.twoRowSet);
+    }
+
+    if (data.spilled) {
+      closeOutputs(data.twoOutputs);
+    }
+    if (filterBuilder != null) {
+      RowKeyFilter.publish(getPipeline(), getTransformName(), filterBuilder.build());
+    }
+  }
+
+  /**
+   * An input transform can subscribe to a Bloom filter on the keys of the second stream to drop the
+   * rows of the first stream which can't match. That's only possible if the join type drops them as
+   * well.
+   *
+   * @return The builder of the filter or null if we don't need to build one
+   */
+  private RowKeyFilter.Builder createKeyFilterBuilder() {
+    if (!RowKeyFilter.isSubscribed(getPipeline(), getTransformName())) {
+      return null;
+    }
+    if (data.two_optional || getTransformMeta().getCopies(this) > 1) {
+      logBasic(BaseMessages.getString(PKG, "HashJoin.Log.NoBloomFilter", meta.getJoinType()));
+      RowKeyFilter.publish(getPipeline(), getTransformName(), null);
+      return null;
+    }
+    return new RowKeyFilter.Builder(data.keyMeta);
+  }
+
+  private void initFirstStream() throws HopException {
+    data.keyNrs1 = findKeys(data.oneMeta, meta.getKeyFields1());
+    data.oneKeyMeta = new RowMeta();
+    data.convertOneKeys = new boolean[data.keyNrs1.length];
+    for (int i = 0; i < data.keyNrs1.length; i++) {
+      IValueMeta keyValueMeta = data.oneMeta.getValueMeta(data.keyNrs1[i]).clone();
+      keyValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      data.oneKeyMeta.addValueMeta(keyValueMeta);
+      data.convertOneKeys[i] = keyValueMeta.getType() != data.keyMeta.getValueMeta(i).getType();
+    }
+
+    // just for speed: oneMeta+twoMeta
+    //
+    data.outputRowMeta = new RowMeta();
+    data.outputRowMeta.mergeRowMeta(data.oneMeta.clone());
+    data.outputRowMeta.mergeRowMeta(data.twoMeta.clone());
+  }
+
+  private int[] findKeys(IRowMeta rowMeta, String[] keyFields) throws HopTransformException {
+    int[] keyNrs = new int[keyFields.length];
+    for (int i = 0; i < keyNrs.length; i++) {
+      keyNrs[i] = rowMeta.indexOfValue(keyFields[i]);
+      if (keyNrs[i] < 0) {
+        String message =
+            BaseMessages.getString(
+                PKG, "HashJoin.Exception.UnableToFindFieldInReferenceStream", keyFields[i]);
+        logError(message);
+        throw new HopTransformException(message);
+      }
+    }
+    return keyNrs;
+  }
+
+  private Object[] getSecondStreamKey(Object[] two) throws HopException {
+    Object[] keyData = new Object[data.keyNrs2.length];
+    for (int i = 0; i < keyData.length; i++) {
+      keyData[i] =
+          data.twoMeta.getValueMeta(data.keyNrs2[i]).convertToNormalStorageType(two[data.keyNrs2[i]]);
+    }
+    return keyData;
+  }
+
+  private Object[] getFirstStreamKey(Object[] one) throws HopException {
+    Object[] keyData = new Object[data.keyNrs1.length];
+    for (int i = 0; i < keyData.length; i++) {
+      Object value =
+          data.oneMeta.getValueMeta(data.keyNrs1[i]).convertToNormalStorageType(one[data.keyNrs1[i]]);
+      if (data.convertOneKeys[i]) {
+        value = data.keyMeta.getValueMeta(i).convertData(data.oneKeyMeta.getValueMeta(i), value);
+      }
+      keyData[i] = value;
+    }
+    return keyData;
+  }
+
+  private void processFirstStreamRow(Object[] one) throws HopException {
+    Object[] keyData = getFirstStreamKey(one);
+    if (data.spilled) {
+      writeRow(data.oneMeta, data.oneFiles, data.oneOutputs, data.oneCounts, keyData, one);
+    } else {
+      joinRow(data.table, one, keyData);
+    }
+  }
+
+  private void joinRow(HashJoinTable table, Object[] one, Object[] keyData) throws HopException {
+    HashJoinTable.Bucket bucket = table.get(keyData);
+    if (bucket != null) {
+      bucket.setMatched(true);
+      for (Object[] two : bucket.getRows()) {
+        putRow(data.outputRowMeta, createOutputRow(one, two));
+      }
+    } else if (data.two_optional) {
+      putRow(data.outputRowMeta, createOutputRow(one, null));
+    }
+  }
+
+  /** Output the rows of the second stream which didn't match any row of the first stream */
+  private void outputUnmatched(HashJoinTable table) throws HopException {
+    for (HashJoinTable.Bucket bucket : table.getBuckets()) {
+      if (!bucket.isMatched()) {
+        for (Object[] two : bucket.getRows()) {
+          putRow(data.outputRowMeta, createOutputRow(null, two));
+        }
+      }
+    }
+  }
+
+  private Object[] createOutputRow(Object[] one, Object[] two) {
+    Object[] outputRow = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+    if (one != null) {
+      System.arraycopy(one, 0, outputRow, 0, data.oneMeta.size());
+    }
+    if (two != null) {
+      System.arraycopy(two, 0, outputRow, data.oneMeta.size(), data.twoMeta.size());
+    }
+    return outputRow;
+  }
+
+  private boolean firstStreamDone() throws HopException {
+    if (data.spilled) {
+      closeOutputs(data.oneOutputs);
+      data.partitionNr = 0;
+      return true;
+    }
+    if (data.one_optional) {
+      outputUnmatched(data.table);
+    }
+    data.table.clear();
+    setOutputDone();
+    return false;
+  }
+
+  /**
+   * The second stream doesn't fit in memory: move the hash table to the partition files. From now
+   * on the rows of both streams go straight to their partition.
+   */
+  private void spillTable() throws HopException {
+    int partitions = meta.getPartitions() > 0 ? meta.getPartitions() : HashJoinMeta.DEFAULT_PARTITIONS;
+    logBasic(BaseMessages.getString(PKG, "HashJoin.Log.SpillingToDisk", data.cacheSize, partitions));
+
+    data.spilled = true;
+    data.oneFiles = new FileObject[partitions];
+    data.twoFiles = new FileObject[partitions];
+    data.oneOutputs = new DataOutputStream[partitions];
+    data.twoOutputs = new DataOutputStream[partitions];
+    data.oneCounts = new long[partitions];
+    data.twoCounts = new long[partitions];
+
+    for (HashJoinTable.Bucket bucket : data.table.getBuckets()) {
+      for (Object[] two : bucket.getRows()) {
+        writeRow(data.twoMeta, data.twoFiles, data.twoOutputs, data.twoCounts, bucket.getKey(), two);
+      }
+    }
+    data.table.clear();
+  }
+
+  private void writeRow(
+      IRowMeta rowMeta,
+      FileObject[] files,
+      DataOutputStream[] outputs,
+      long[] counts,
+      Object[] keyData,
+      Object[] row)
+      throws HopException {
+    int partition = data.table.partition(keyData, files.length);
+    if (outputs[partition] == null) {
+      files[partition] =
+          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()));
+      try {
+        outputs[partition] =
+            new DataOutputStream(
+                new BufferedOutputStream(HopVfs.getOutputStream(files[partition], false), 50000));
+      } catch (IOException e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "HashJoin.Exception.ErrorWritingPartition"), e);
+      }
+    }
+    rowMeta.writeData(outputs[partition], row);
+    counts[partition]++;
+  }
+
+  private void closeOutputs(DataOutputStream[] outputs) throws HopException {
+    try {
+      for (int i = 0; i < outputs.length; i++) {
+        if (outputs[i] != null) {
+          outputs[i].close();
+          outputs[i] = null;
+        }
+      }
+    } catch (IOException e) {
+      throw new HopException(
+          BaseMessages.getString(PKG, "HashJoin.Exception.ErrorWritingPartition"), e);
+    }
+  }
+
+  /** Join the rows of both streams which ended up in the given partition */
+  private void joinPartition(int partition) throws HopException {
+    if (log.isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "HashJoin.Log.JoiningPartition",
+              partition,
+              data.oneCounts[partition],
+              data.twoCounts[partition]));
+    }
+
+    HashJoinTable table = new HashJoinTable(data.keyMeta);
+    if (data.twoCounts[partition] > 0) {
+      try (DataInputStream input = openPartition(data.twoFiles[partition])) {
+        for (long i = 0; i < data.twoCounts[partition] && !isStopped(); i++) {
+          Object[] two = data.twoMeta.readData(input);
+          table.add(getSecondStreamKey(two), two);
+        }
+      } catch (IOException e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "HashJoin.Exception.ErrorReadingPartition"), e);
+      }
+    }
+
+    if (data.oneCounts[partition] > 0) {
+      try (DataInputStream input = openPartition(data.oneFiles[partition])) {
+        for (long i = 0; i < data.oneCounts[partition] && !isStopped(); i++) {
+          Object[] one = data.oneMeta.readData(input);
+          joinRow(table, one, getFirstStreamKey(one));
+        }
+      } catch (IOException e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "HashJoin.Exception.ErrorReadingPartition"), e);
+      }
+    }
+
+    if (data.one_optional) {
+      outputUnmatched(table);
+    }
+
+    deleteFile(data.oneFiles, partition);
+    deleteFile(data.twoFiles, partition);
+  }
+
+  private DataInputStream openPartition(FileObject fileObject) throws IOException {
+    return new DataInputStream(new BufferedInputStream(HopVfs.getInputStream(fileObject), 50000));
+  }
+
+  private void deleteFile(FileObject[] files, int partition) {
+    FileObject fileObject = files[partition];
+    files[partition] = null;
+    try {
+      if (fileObject != null && fileObject.exists()) {
+        fileObject.delete();
+      }
+    } catch (FileSystemException e) {
+      logError(e.getLocalizedMessage(), e);
+    }
+  }
+
+  public boolean init() {
+
+    if (super.init()) {
+      List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+      if (infoStreams.get(0).getTransformMeta() == null
+          || infoStreams.get(1).getTransformMeta() == null) {
+        logError(BaseMessages.getString(PKG, "HashJoin.Log.BothStreamsNeeded"));
+        return false;
+      }
+      if (meta.getKeyFields1().length != meta.getKeyFields2().length) {
+        logError(BaseMessages.getString(PKG, "HashJoin.Log.KeysMismatch"));
+        return false;
+      }
+      data.cacheSize = meta.getCacheSize() > 0 ? meta.getCacheSize() : HashJoinMeta.DEFAULT_CACHE_SIZE;
+
+      String joinType = meta.getJoinType();
+      for (int i = 0; i < HashJoinMeta.joinTypes.length; ++i) {
+        if (HashJoinMeta.joinTypes[i].equalsIgnoreCase(joinType)) {
+          data.one_optional = HashJoinMeta.one_optionals[i];
+          data.two_optional = HashJoinMeta.two_optionals[i];
+          return true;
+        }
+      }
+      logError(BaseMessages.getString(PKG, "HashJoin.Log.InvalidJoinType", meta.getJoinType()));
+      return false;
+    }
+    return false;
+  }
+
+  public void dispose() {
+    if (data.spilled) {
+      for (DataOutputStream output : data.oneOutputs) {
+        BaseTransform.closeQuietly(output);
+      }
+      for (DataOutputStream output : data.twoOutputs) {
+        BaseTransform.closeQuietly(output);
+      }
+      for (int i = 0; i < data.oneFiles.length; i++) {
+        deleteFile(data.oneFiles, i);
+        deleteFile(data.twoFiles, i);
+      }
+    }
+    if (data.table != null) {
+      data.table.clear();
+    }
+    super.dispose();
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.transform.BaseTransformData;
+import org.apache.hop.pipeline.transform.ITransformData;
+
+import java.io.DataOutputStream;
+
+public class HashJoinData extends BaseTransformData implements ITransformData {
+  public IRowSet oneRowSet;
+  public IRowSet twoRowSet;
+
+  /** The left hand side of the join, probed against the hash table */
+  public IRowMeta oneMeta;
+
+  /** The right hand side of the join, the hash table is built from these rows */
+  public IRowMeta twoMeta;
+
+  public IRowMeta outputRowMeta; // just for speed: oneMeta+twoMeta
+
+  public int[] keyNrs1;
+  public int[] keyNrs2;
+
+  /** The key metadata of the hash table, in normal storage */
+  public IRowMeta keyMeta;
+
+  /** The key metadata of the first stream, in normal storage */
+  public IRowMeta oneKeyMeta;
+
+  /** Keys of the first stream which need to be converted to the data type of the hash table */
+  public boolean[] convertOneKeys;
+
+  public boolean one_optional, two_optional;
+
+  public HashJoinTable table;
+
+  public int cacheSize;
+
+  /** true if the rows didn't fit in memory and both streams are partitioned to disk */
+  public boolean spilled;
+
+  public FileObject[] oneFiles;
+  public FileObject[] twoFiles;
+  public DataOutputStream[] oneOutputs;
+  public DataOutputStream[] twoOutputs;
+  public long[] oneCounts;
+  public long[] twoCounts;
+
+  /** The next partition to join, -1 as long as the first stream is being read */
+  public int partitionNr;
+
+  public HashJoinData() {
+    super();
+    partitionNr = -1;
+  }
+}
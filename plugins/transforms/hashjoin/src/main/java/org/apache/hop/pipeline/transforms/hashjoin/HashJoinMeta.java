@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.CheckResult;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.ICheckResult;
+import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopXmlException;
+import org.apache.hop.core.injection.Injection;
+import org.apache.hop.core.injection.InjectionSupported;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.xml.XmlHandler;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.PipelineMeta.PipelineType;
+import org.apache.hop.pipeline.transform.BaseTransformMeta;
+import org.apache.hop.pipeline.transform.ITransformIOMeta;
+import org.apache.hop.pipeline.transform.ITransformMeta;
+import org.apache.hop.pipeline.transform.TransformIOMeta;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.errorhandling.IStream;
+import org.apache.hop.pipeline.transform.errorhandling.IStream.StreamType;
+import org.apache.hop.pipeline.transform.errorhandling.Stream;
+import org.apache.hop.pipeline.transform.errorhandling.StreamIcon;
+import org.w3c.dom.Node;
+
+import java.util.List;
+
+@InjectionSupported(localizationPrefix = "HashJoin.Injection.")
+@Transform(
+    id = "HashJoin",
+    image = "hashjoin.svg",
+    name = "i18n::BaseTransform.TypeLongDesc.HashJoin",
+    description = "i18n::BaseTransform.TypeTooltipDesc.HashJoin",
+    categoryDescription = "i18n:org.apache.hop.pipeline.transform:BaseTransform.Category.Joins",
+    documentationUrl = "https://hop.apache.org/manual/latest/plugins/transforms/hashjoin.html")
+public class HashJoinMeta extends BaseTransformMeta
+    implements ITransformMeta<HashJoin, HashJoinData> {
+  private static final Class<?> PKG = HashJoinMeta.class; // For Translator
+
+  public static final String[] joinTypes = {"INNER", "LEFT OUTER", "RIGHT OUTER", "FULL OUTER"};
+  public static final boolean[] one_optionals = {false, false, true, true};
+  public static final boolean[] two_optionals = {false, true, false, true};
+
+  public static final int DEFAULT_CACHE_SIZE = 500000;
+  public static final int DEFAULT_PARTITIONS = 32;
+
+  @Injection(name = "JOIN_TYPE")
+  private String joinType;
+
+  @Injection(name = "KEY_FIELD1")
+  private String[] keyFields1;
+
+  @Injection(name = "KEY_FIELD2")
+  private String[] keyFields2;
+
+  /** The maximum number of rows of the second (build) stream to keep in memory */
+  @Injection(name = "CACHE_SIZE")
+  private int cacheSize;
+
+  /** The number of partitions to spread both streams over when the cache size is exceeded */
+  @Injection(name = "PARTITIONS")
+  private int partitions;
+
+  /** Directory to store the temporary partition files */
+  @Injection(name = "DIRECTORY")
+  private String directory;
+
+  /** Temporary partition files prefix */
+  @Injection(name = "PREFIX")
+  private String prefix;
+
+  /**
+   * The supported join types are INNER, LEFT OUTER, RIGHT OUTER and FULL OUTER
+   *
+   * @return The type of join
+   */
+  public String getJoinType() {
+    return joinType;
+  }
+
+  /**
+   * Sets the type of join
+   *
+   * @param joinType The type of join, e.g. INNER/FULL OUTER
+   */
+  public void setJoinType(String joinType) {
+    this.joinType = joinType;
+  }
+
+  /** @return Returns the keyFields1. */
+  public String[] getKeyFields1() {
+    return keyFields1;
+  }
+
+  /** @param keyFields1 The keyFields1 to set. */
+  public void setKeyFields1(String[] keyFields1) {
+    this.keyFields1 = keyFields1;
+  }
+
+  /** @return Returns the keyFields2. */
+  public String[] getKeyFields2() {
+    return keyFields2;
+  }
+
+  /** @param keyFields2 The keyFields2 to set. */
+  public void setKeyFields2(String[] keyFields2) {
+    this.keyFields2 = keyFields2;
+  }
+
+  /** @return The maximum number of rows of the second (build) stream to keep in memory */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /** @param cacheSize The maximum number of rows of the second (build) stream to keep in memory */
+  public void setCacheSize(int cacheSize) {
+    this.cacheSize = cacheSize;
+  }
+
+  /** @return The number of partitions used when the cache size is exceeded */
+  public int getPartitions() {
+    return partitions;
+  }
+
+  /** @param partitions The number of partitions used when the cache size is exceeded */
+  public void setPartitions(int partitions) {
+    this.partitions = partitions;
+  }
+
+  /** @return Returns the directory. */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /** @param directory The directory to set. */
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  /** @return Returns the prefix. */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /** @param prefix The prefix to set. */
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  public boolean excludeFromRowLayoutVerification() {
+    return true;
+  }
+
+  @Override
+  public HashJoin createTransform(
+      TransformMeta transformMeta,
+      HashJoinData data,
+      int copyNr,
+      PipelineMeta pipelineMeta,
+      Pipeline pipeline) {
+    return new HashJoin(transformMeta, this, data, copyNr, pipelineMeta, pipeline);
+  }
+
+  public HashJoinMeta() {
+    super(); // allocate BaseTransformMeta
+  }
+
+  public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
+      throws HopXmlException {
+    readData(transformNode);
+  }
+
+  public void allocate(int nrKeys1, int nrKeys2) {
+    keyFields1 = new String[nrKeys1];
+    keyFields2 = new String[nrKeys2];
+  }
+
+  public Object clone() {
+    HashJoinMeta retval = (HashJoinMeta) super.clone();
+    int nrKeys1 = keyFields1.length;
+    int nrKeys2 = keyFields2.length;
+    retval.allocate(nrKeys1, nrKeys2);
+    System.arraycopy(keyFields1, 0, retval.keyFields1, 0, nrKeys1);
+    System.arraycopy(keyFields2, 0, retval.keyFields2, 0, nrKeys2);
+
+    ITransformIOMeta transformIOMeta = new TransformIOMeta(true, true, false, false, false, false);
+    List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+
+    for (IStream infoStream : infoStreams) {
+      transformIOMeta.addStream(new Stream(infoStream));
+    }
+    retval.setTransformIOMeta(transformIOMeta);
+
+    return retval;
+  }
+
+  public String getXml() {
+    StringBuilder retval = new StringBuilder();
+
+    List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+
+    retval.append(XmlHandler.addTagValue("join_type", getJoinType()));
+    retval.append(XmlHandler.addTagValue("transform1", infoStreams.get(0).getTransformName()));
+    retval.append(XmlHandler.addTagValue("transform2", infoStreams.get(1).getTransformName()));
+    retval.append(XmlHandler.addTagValue("cache_size", cacheSize));
+    retval.append(XmlHandler.addTagValue("partitions", partitions));
+    retval.append(XmlHandler.addTagValue("directory", directory));
+    retval.append(XmlHandler.addTagValue("prefix", prefix));
+
+    retval.append("    <keys_1>" + Const.CR);
+    for (int i = 0; i < keyFields1.length; i++) {
+      retval.append("      " + XmlHandler.addTagValue("key", keyFields1[i]));
+    }
+    retval.append("    </keys_1>" + Const.CR);
+
+    retval.append("    <keys_2>" + Const.CR);
+    for (int i = 0; i < keyFields2.length; i++) {
+      retval.append("      " + XmlHandler.addTagValue("key", keyFields2[i]));
+    }
+    retval.append("    </keys_2>" + Const.CR);
+
+    return retval.toString();
+  }
+
+  private void readData(Node transformNode) throws HopXmlException {
+    try {
+
+      Node keysNode1 = XmlHandler.getSubNode(transformNode, "keys_1");
+      Node keysNode2 = XmlHandler.getSubNode(transformNode, "keys_2");
+
+      int nrKeys1 = XmlHandler.countNodes(keysNode1, "key");
+      int nrKeys2 = XmlHandler.countNodes(keysNode2, "key");
+
+      allocate(nrKeys1, nrKeys2);
+
+      for (int i = 0; i < nrKeys1; i++) {
+        Node keynode = XmlHandler.getSubNodeByNr(keysNode1, "key", i);
+        keyFields1[i] = XmlHandler.getNodeValue(keynode);
+      }
+
+      for (int i = 0; i < nrKeys2; i++) {
+        Node keynode = XmlHandler.getSubNodeByNr(keysNode2, "key", i);
+        keyFields2[i] = XmlHandler.getNodeValue(keynode);
+      }
+
+      List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+      infoStreams.get(0).setSubject(XmlHandler.getTagValue(transformNode, "transform1"));
+      infoStreams.get(1).setSubject(XmlHandler.getTagValue(transformNode, "transform2"));
+      joinType = XmlHandler.getTagValue(transformNode, "join_type");
+      cacheSize =
+          Const.toInt(XmlHandler.getTagValue(transformNode, "cache_size"), DEFAULT_CACHE_SIZE);
+      partitions =
+          Const.toInt(XmlHandler.getTagValue(transformNode, "partitions"), DEFAULT_PARTITIONS);
+      directory = XmlHandler.getTagValue(transformNode, "directory");
+      prefix = XmlHandler.getTagValue(transformNode, "prefix");
+    } catch (Exception e) {
+      throw new HopXmlException(
+          BaseMessages.getString(PKG, "HashJoinMeta.Exception.UnableToLoadTransformMeta"), e);
+    }
+  }
+
+  public void setDefault() {
+    joinType = joinTypes[0];
+    cacheSize = DEFAULT_CACHE_SIZE;
+    partitions = DEFAULT_PARTITIONS;
+    directory = "${java.io.tmpdir}";
+    prefix = "hashjoin";
+    allocate(0, 0);
+  }
+
+  @Override
+  public void searchInfoAndTargetTransforms(List<TransformMeta> transforms) {
+    List<IStream> infoStreams = getTransformIOMeta().getInfoStreams();
+    for (IStream stream : infoStreams) {
+      stream.setTransformMeta(
+          TransformMeta.findTransform(transforms, (String) stream.getSubject()));
+    }
+  }
+
+  public void check(
+      List<ICheckResult> remarks,
+      PipelineMeta pipelineMeta,
+      TransformMeta transformMeta,
+      IRowMeta prev,
+      String[] input,
+      String[] output,
+      IRowMeta info,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider) {
+    CheckResult cr;
+    if (keyFields1.length == 0 || keyFields1.length != keyFields2.length) {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysMismatch"),
+              transformMeta);
+    } else {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_OK,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.KeysOk"),
+              transformMeta);
+    }
+    remarks.add(cr);
+
+    if (Const.indexOfString(joinType, joinTypes) < 0) {
+      cr =
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(PKG, "HashJoinMeta.CheckResult.InvalidJoinType", joinType),
+              transformMeta);
+      remarks.add(cr);
+    }
+  }
+
+  public void getFields(
+      IRowMeta r,
+      String name,
+      IRowMeta[] info,
+      TransformMeta nextTransform,
+      IVariables variables,
+      IHopMetadataProvider metadataProvider)
+      throws HopTransformException {
+    // We don't have any input fields here in "r" as they are all info fields.
+    // So we just merge in the info fields.
+    //
+    if (info != null) {
+      for (int i = 0; i < info.length; i++) {
+        if (info[i] != null) {
+          r.mergeRowMeta(info[i], name);
+        }
+      }
+    }
+
+    for (int i = 0; i < r.size(); i++) {
+      IValueMeta vmi = r.getValueMeta(i);
+      if (vmi != null && Utils.isEmpty(vmi.getName())) {
+        vmi.setOrigin(name);
+      }
+    }
+  }
+
+  public HashJoinData getTransformData() {
+    return new HashJoinData();
+  }
+
+  /**
+   * Returns the Input/Output metadata for this transform. The first info stream is the left hand
+   * side of the join and is probed, the second info stream is the right hand side and is used to
+   * build the hash table.
+   */
+  public ITransformIOMeta getTransformIOMeta() {
+    ITransformIOMeta ioMeta = super.getTransformIOMeta(false);
+    if (ioMeta == null) {
+
+      ioMeta = new TransformIOMeta(true, true, false, false, false, false);
+
+      ioMeta.addStream(
+          new Stream(
+              StreamType.INFO,
+              null,
+              BaseMessages.getString(PKG, "HashJoinMeta.InfoStream.FirstStream.Description"),
+              StreamIcon.INFO,
+              null));
+      ioMeta.addStream(
+          new Stream(
+              StreamType.INFO,
+              null,
+              BaseMessages.getString(PKG, "HashJoinMeta.InfoStream.SecondStream.Description"),
+              StreamIcon.INFO,
+              null));
+      setTransformIOMeta(ioMeta);
+    }
+
+    return ioMeta;
+  }
+
+  public void resetTransformIoMeta() {
+    // Don't reset!
+  }
+
+  public PipelineType[] getSupportedPipelineTypes() {
+    return new PipelineType[] {
+      PipelineType.Normal,
+    };
+  }
+}
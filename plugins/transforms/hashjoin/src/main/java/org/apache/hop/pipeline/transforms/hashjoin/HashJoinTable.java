@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The in-memory hash table of the Hash Join transform: the rows of the right hand side of the join
+ * grouped by their key. The keys are expected to be in normal storage.
+ */
+public class HashJoinTable {
+
+  /** All the rows with the same key */
+  public static class Bucket {
+    private final Object[] key;
+    private final List<Object[]> rows = new ArrayList<>(1);
+    private boolean matched;
+
+    Bucket(Object[] key) {
+      this.key = key;
+    }
+
+    public Object[] getKey() {
+      return key;
+    }
+
+    public List<Object[]> getRows() {
+      return rows;
+    }
+
+    /** @return true if a row of the left hand side of the join matched this key */
+    public boolean isMatched() {
+      return matched;
+    }
+
+    public void setMatched(boolean matched) {
+      this.matched = matched;
+    }
+  }
+
+  private final IRowMeta keyMeta;
+  private final Map<RowMetaAndData, Bucket> buckets = new HashMap<>();
+  private long rowCount;
+
+  public HashJoinTable(IRowMeta keyMeta) {
+    this.keyMeta = keyMeta;
+  }
+
+  /**
+   * Add a row to the table
+   *
+   * @param keyData The key of the row
+   * @param row The row to add
+   */
+  public void add(Object[] keyData, Object[] row) {
+    RowMetaAndData key = new RowMetaAndData(keyMeta, keyData);
+    Bucket bucket = buckets.get(key);
+    if (bucket == null) {
+      bucket = new Bucket(keyData);
+      buckets.put(key, bucket);
+    }
+    bucket.rows.add(row);
+    rowCount++;
+  }
+
+  /**
+   * @param keyData The key to look up
+   * @return The rows with the given key or null if there are none
+   */
+  public Bucket get(Object[] keyData) {
+    return buckets.get(new RowMetaAndData(keyMeta, keyData));
+  }
+
+  public Collection<Bucket> getBuckets() {
+    return buckets.values();
+  }
+
+  /** @return The number of rows in the table */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public void clear() {
+    buckets.clear();
+    rowCount = 0;
+  }
+
+  /**
+   * Calculate the partition of a key. The hash code is mixed and the partition is taken from the
+   * high bits so that the keys within a partition still spread over the buckets of a hash table.
+   *
+   * @param keyData The key, of the same type as the keys in this table
+   * @param partitions The number of partitions
+   * @return The partition number, between 0 and partitions-1
+   * @throws HopValueException in case the hash code can't be calculated
+   */
+  public int partition(Object[] keyData, int partitions) throws HopValueException {
+    long hash = (keyMeta.hashCode(keyData) * 0x9E3779B9L) & 0xFFFFFFFFL;
+    return (int) ((hash * partitions) >>> 32);
+  }
+}
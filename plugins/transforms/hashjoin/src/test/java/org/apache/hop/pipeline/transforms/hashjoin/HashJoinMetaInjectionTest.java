@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.injection.BaseMetadataInjectionTest;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class HashJoinMetaInjectionTest extends BaseMetadataInjectionTest<HashJoinMeta> {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Before
+  public void setup() throws Exception {
+    setup( new HashJoinMeta() );
+  }
+
+  @Test
+  public void test() throws Exception {
+    check( "JOIN_TYPE", () -> meta.getJoinType() );
+    check( "KEY_FIELD1", () -> meta.getKeyFields1()[ 0 ] );
+    check( "KEY_FIELD2", () -> meta.getKeyFields2()[ 0 ] );
+    check( "CACHE_SIZE", () -> meta.getCacheSize() );
+    check( "PARTITIONS", () -> meta.getPartitions() );
+    check( "DIRECTORY", () -> meta.getDirectory() );
+    check( "PREFIX", () -> meta.getPrefix() );
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.errorhandling.IStream;
+import org.apache.hop.pipeline.transforms.loadsave.LoadSaveTester;
+import org.apache.hop.pipeline.transforms.loadsave.validator.IFieldLoadSaveValidator;
+import org.apache.hop.pipeline.transforms.loadsave.validator.IFieldLoadSaveValidatorFactory;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+public class HashJoinMetaTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  LoadSaveTester loadSaveTester;
+
+  public HashJoinMetaTest() {
+    List<String> attributes =
+      Arrays.asList( "joinType", "keyFields1", "keyFields2", "cacheSize", "partitions", "directory", "prefix" );
+
+    Map<String, IFieldLoadSaveValidator<?>> attrValidatorMap = new HashMap<>();
+
+    Map<String, IFieldLoadSaveValidator<?>> typeValidatorMap = new HashMap<>();
+
+    Map<String, String> getterMap = new HashMap<>();
+    getterMap.put( "joinType", "getJoinType" );
+    getterMap.put( "keyFields1", "getKeyFields1" );
+    getterMap.put( "keyFields2", "getKeyFields2" );
+    getterMap.put( "cacheSize", "getCacheSize" );
+    getterMap.put( "partitions", "getPartitions" );
+    getterMap.put( "directory", "getDirectory" );
+    getterMap.put( "prefix", "getPrefix" );
+
+    Map<String, String> setterMap = new HashMap<>();
+    setterMap.put( "joinType", "setJoinType" );
+    setterMap.put( "keyFields1", "setKeyFields1" );
+    setterMap.put( "keyFields2", "setKeyFields2" );
+    setterMap.put( "cacheSize", "setCacheSize" );
+    setterMap.put( "partitions", "setPartitions" );
+    setterMap.put( "directory", "setDirectory" );
+    setterMap.put( "prefix", "setPrefix" );
+
+    this.loadSaveTester = new LoadSaveTester( HashJoinMeta.class,
+      attributes,
+      getterMap, setterMap,
+      attrValidatorMap, typeValidatorMap );
+
+    IFieldLoadSaveValidatorFactory validatorFactory = loadSaveTester.getFieldLoadSaveValidatorFactory();
+
+    IFieldLoadSaveValidator<HashJoinMeta> targetValidator = new IFieldLoadSaveValidator<HashJoinMeta>() {
+
+      @Override
+      public HashJoinMeta getTestObject() {
+        return new HashJoinMeta() {
+          {
+            setJoinType( joinTypes[ 0 ] );
+            setKeyFields1( new String[] { "field1", "field2" } );
+            setKeyFields2( new String[] { "field1", "field3" } );
+          }
+        };
+      }
+
+      @Override
+      public boolean validateTestObject( HashJoinMeta testObject, Object actual ) {
+        return testObject.getJoinType().equals( ( (HashJoinMeta) actual ).getJoinType() )
+          && Arrays.equals( testObject.getKeyFields1(), ( (HashJoinMeta) actual ).getKeyFields1() )
+          && Arrays.equals( testObject.getKeyFields2(), ( (HashJoinMeta) actual ).getKeyFields2() );
+      }
+    };
+
+    validatorFactory.registerValidator( validatorFactory.getName( HashJoinMeta.class ), targetValidator );
+  }
+
+  @Test
+  public void testSerialization() throws HopException {
+    loadSaveTester.testSerialization();
+  }
+
+  @Test
+  public void testGetFields() throws Exception {
+    RowMeta outputRowMeta = new RowMeta();
+    HashJoinMeta meta = new HashJoinMeta();
+
+    RowMeta inputRow1 = new RowMeta();
+    inputRow1.addValueMeta( new ValueMetaInteger( "id" ) );
+    inputRow1.addValueMeta( new ValueMetaString( "name" ) );
+
+    RowMeta inputRow2 = new RowMeta();
+    inputRow2.addValueMeta( new ValueMetaInteger( "id" ) );
+    inputRow2.addValueMeta( new ValueMetaString( "value" ) );
+
+    TransformMeta transformMeta = new TransformMeta( "Hash", meta );
+
+    meta.getFields( outputRowMeta, "Hash Join",
+      new IRowMeta[] { inputRow1, inputRow2 }, transformMeta, new Variables(), null );
+
+    assertEquals( 4, outputRowMeta.size() );
+    assertEquals( "id", outputRowMeta.getValueMeta( 0 ).getName() );
+    assertEquals( "name", outputRowMeta.getValueMeta( 1 ).getName() );
+    assertEquals( "id_1", outputRowMeta.getValueMeta( 2 ).getName() );
+    assertEquals( "value", outputRowMeta.getValueMeta( 3 ).getName() );
+  }
+
+  @Test
+  public void cloneTest() throws Exception {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setDefault();
+    meta.setKeyFields1( new String[] { "kf1-1", "kf1-2" } );
+    meta.setKeyFields2( new String[] { "kf2-1", "kf2-2" } );
+    meta.setJoinType( "FULL OUTER" );
+    meta.setCacheSize( 1000 );
+    HashJoinMeta aClone = (HashJoinMeta) meta.clone();
+    assertNotSame( meta, aClone );
+    assertFalse( meta.getKeyFields1() == aClone.getKeyFields1() );
+    assertEquals( Arrays.asList( meta.getKeyFields1() ), Arrays.asList( aClone.getKeyFields1() ) );
+    assertEquals( Arrays.asList( meta.getKeyFields2() ), Arrays.asList( aClone.getKeyFields2() ) );
+    assertEquals( meta.getJoinType(), aClone.getJoinType() );
+    assertEquals( 1000, aClone.getCacheSize() );
+    assertEquals( HashJoinMeta.DEFAULT_PARTITIONS, aClone.getPartitions() );
+
+    List<IStream> infoStreams = meta.getTransformIOMeta().getInfoStreams();
+    List<IStream> cloneInfoStreams = aClone.getTransformIOMeta().getInfoStreams();
+    assertEquals( infoStreams.size(), cloneInfoStreams.size() );
+    for ( int i = 0; i < infoStreams.size(); i++ ) {
+      assertNotSame( infoStreams.get( i ), cloneInfoStreams.get( i ) );
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.hashjoin;
+
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.QueueRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HashJoinTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private TransformMockHelper<HashJoinMeta, HashJoinData> smh;
+
+  private static final Object[][] LEFT_ROWS = {
+    { 1L, "a" }, { 2L, "b" }, { 3L, "c" }, { 3L, "c2" }, { null, "n" } };
+
+  private static final Object[][] RIGHT_ROWS = {
+    { 2L, "x" }, { 3L, "y" }, { 3L, "y2" }, { 4L, "z" }, { 5L, "w" } };
+
+  private static final List<String> INNER = Arrays.asList(
+    "2,b,2,x", "3,c,3,y", "3,c,3,y2", "3,c2,3,y", "3,c2,3,y2" );
+
+  @Before
+  public void setUp() {
+    smh = new TransformMockHelper<>( "HashJoin", HashJoinMeta.class, HashJoinData.class );
+    when( smh.logChannelFactory.create( any(), any( ILoggingObject.class ) ) ).thenReturn( smh.iLogChannel );
+    when( smh.pipeline.isRunning() ).thenReturn( true );
+
+    TransformMeta leftMeta = when( mock( TransformMeta.class ).getName() ).thenReturn( "Left" ).getMock();
+    when( smh.pipelineMeta.findTransform( "Left" ) ).thenReturn( leftMeta );
+    TransformMeta rightMeta = when( mock( TransformMeta.class ).getName() ).thenReturn( "Right" ).getMock();
+    when( smh.pipelineMeta.findTransform( "Right" ) ).thenReturn( rightMeta );
+  }
+
+  @After
+  public void cleanUp() {
+    smh.cleanUp();
+  }
+
+  @Test
+  public void testInnerJoin() throws Exception {
+    assertEquals( INNER, join( "INNER", 1000 ) );
+  }
+
+  @Test
+  public void testLeftOuterJoin() throws Exception {
+    assertEquals( sorted( INNER, "1,a,null,null", "null,n,null,null" ), join( "LEFT OUTER", 1000 ) );
+  }
+
+  @Test
+  public void testRightOuterJoin() throws Exception {
+    assertEquals( sorted( INNER, "null,null,4,z", "null,null,5,w" ), join( "RIGHT OUTER", 1000 ) );
+  }
+
+  @Test
+  public void testFullOuterJoin() throws Exception {
+    assertEquals( sorted( INNER, "1,a,null,null", "null,n,null,null", "null,null,4,z", "null,null,5,w" ),
+      join( "FULL OUTER", 1000 ) );
+  }
+
+  @Test
+  public void testSpilledJoinsGiveTheSameResult() throws Exception {
+    for ( String joinType : HashJoinMeta.joinTypes ) {
+      assertEquals( joinType, join( joinType, 1000 ), join( joinType, 1 ) );
+    }
+    assertEquals( 0, tempFolder.getRoot().list().length );
+  }
+
+  @Test
+  public void testPublishesBloomFilter() throws Exception {
+    when( smh.pipeline.getExtensionDataMap() ).thenReturn( new HashMap<>() );
+    RowKeyFilter.subscribe( smh.pipeline, smh.transformMeta.getName() );
+
+    assertEquals( INNER, join( "INNER", 1 ) );
+    RowKeyFilter filter = RowKeyFilter.waitFor( smh.pipeline, smh.transformMeta.getName(), () -> false );
+    for ( Object[] right : RIGHT_ROWS ) {
+      assertTrue( filter.mightContain( new Object[] { right[ 0 ] } ) );
+    }
+    assertFalse( filter.mightContain( new Object[] { 1L } ) );
+  }
+
+  @Test
+  public void testNoBloomFilterForLeftOuterJoin() throws Exception {
+    when( smh.pipeline.getExtensionDataMap() ).thenReturn( new HashMap<>() );
+    RowKeyFilter.subscribe( smh.pipeline, smh.transformMeta.getName() );
+
+    join( "LEFT OUTER", 1000 );
+    assertNull( RowKeyFilter.waitFor( smh.pipeline, smh.transformMeta.getName(), () -> false ) );
+  }
+
+  private List<String> join( String joinType, int cacheSize ) throws HopException {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setDefault();
+    meta.setJoinType( joinType );
+    meta.setKeyFields1( new String[] { "id" } );
+    meta.setKeyFields2( new String[] { "id" } );
+    meta.setCacheSize( cacheSize );
+    meta.setPartitions( 3 );
+    meta.setDirectory( tempFolder.getRoot().getAbsolutePath() );
+    meta.getTransformIOMeta().getInfoStreams().get( 0 ).setTransformMeta( smh.pipelineMeta.findTransform( "Left" ) );
+    meta.getTransformIOMeta().getInfoStreams().get( 1 ).setTransformMeta( smh.pipelineMeta.findTransform( "Right" ) );
+
+    HashJoinData data = new HashJoinData();
+    HashJoin transform = new HashJoin( smh.transformMeta, meta, data, 0, smh.pipelineMeta, smh.pipeline );
+    assertTrue( transform.init() );
+    transform.addRowSetToInputRowSets( createRowSet( "Left", "name", LEFT_ROWS ) );
+    transform.addRowSetToInputRowSets( createRowSet( "Right", "value", RIGHT_ROWS ) );
+    IRowSet output = new QueueRowSet();
+    transform.addRowSetToOutputRowSets( output );
+
+    while ( transform.processRow() ) {
+      // Keep going
+    }
+    transform.dispose();
+
+    List<String> result = new ArrayList<>();
+    Object[] row;
+    while ( ( row = output.getRow() ) != null ) {
+      assertEquals( 4, output.getRowMeta().size() );
+      result.add( row[ 0 ] + "," + row[ 1 ] + "," + row[ 2 ] + "," + row[ 3 ] );
+    }
+    Collections.sort( result );
+    return result;
+  }
+
+  private IRowSet createRowSet( String transformName, String fieldName, Object[][] rows ) {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( fieldName ) );
+
+    IRowSet rowSet = new QueueRowSet();
+    rowSet.setThreadNameFromToCopy( transformName, 0, "HashJoin", 0 );
+    for ( Object[] row : rows ) {
+      rowSet.putRow( rowMeta, row.clone() );
+    }
+    rowSet.setDone();
+    return rowSet;
+  }
+
+  private static List<String> sorted( List<String> rows, String... extra ) {
+    List<String> result = new ArrayList<>( rows );
+    result.addAll( Arrays.asList( extra ) );
+    Collections.sort( result );
+    return result;
+  }
+}
@@ -25,6 +25,8 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.AsyncCallQueue;
+import org.apache.hop.core.util.HostRateLimiter;
 import org.apache.hop.core.util.HttpClientManager;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -73,23 +75,33 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
   private Object[] execHttp( IRowMeta rowMeta, Object[] row ) throws HopException {
     if ( first ) {
       first = false;
-      data.argnrs = new int[ meta.getArgumentField().length ];
-
-      for ( int i = 0; i < meta.getArgumentField().length; i++ ) {
-        data.argnrs[ i ] = rowMeta.indexOfValue( meta.getArgumentField()[ i ] );
-        if ( data.argnrs[ i ] < 0 ) {
-          logError( BaseMessages.getString( PKG, "HTTP.Log.ErrorFindingField" ) + meta.getArgumentField()[ i ] + "]" );
-          throw new HopTransformException( BaseMessages.getString( PKG, "HTTP.Exception.CouldnotFindField", meta
-            .getArgumentField()[ i ] ) );
-        }
-      }
+      lookupArguments( rowMeta );
     }
 
     return callHttpService( rowMeta, row );
   }
 
+  private void lookupArguments( IRowMeta rowMeta ) throws HopException {
+    data.argnrs = new int[ meta.getArgumentField().length ];
+
+    for ( int i = 0; i < meta.getArgumentField().length; i++ ) {
+      data.argnrs[ i ] = rowMeta.indexOfValue( meta.getArgumentField()[ i ] );
+      if ( data.argnrs[ i ] < 0 ) {
+        logError( BaseMessages.getString( PKG, "HTTP.Log.ErrorFindingField" ) + meta.getArgumentField()[ i ] + "]" );
+        throw new HopTransformException( BaseMessages.getString( PKG, "HTTP.Exception.CouldnotFindField", meta
+          .getArgumentField()[ i ] ) );
+      }
+    }
+  }
+
   @VisibleForTesting
   Object[] callHttpService( IRowMeta rowMeta, Object[] rowData ) throws HopException {
+    CloseableHttpClient httpClient = createHttpClient();
+    HttpGet method = createHttpGet( rowMeta, rowData );
+    return executeHttpGet( httpClient, method, rowMeta, rowData, true );
+  }
+
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
 
     if ( data.realConnectionTimeout > -1 ) {
@@ -105,9 +117,13 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
       clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
 
-    // Prepare Http get
+  /**
+   * Prepare the Http get for a row. Everything depending on the row is evaluated here, on the transform thread.
+   */
+  private HttpGet createHttpGet( IRowMeta rowMeta, Object[] rowData ) throws HopException {
     URI uri = null;
     try {
       URIBuilder uriBuilder = constructUrlBuilder( rowMeta, rowData );
@@ -127,7 +143,21 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
           }
         }
       }
+      return method;
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "HTTP.Log.UnableGetResult", uri ), e );
+    }
+  }
 
+  /**
+   * Execute the Http get and add the results to the row.
+   *
+   * @param lastAttempt false if the call is retried when the server is overloaded
+   */
+  private Object[] executeHttpGet( CloseableHttpClient httpClient, HttpGet method, IRowMeta rowMeta, Object[] rowData,
+                                   boolean lastAttempt ) throws HopException {
+    URI uri = method.getURI();
+    try {
       Object[] newRow = null;
       if ( rowData != null ) {
         newRow = rowData.clone();
@@ -165,6 +195,11 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
           logDebug( BaseMessages.getString( PKG, "HTTP.Log.ResponseStatusCode", "" + statusCode ) );
         }
 
+        if ( !lastAttempt && HttpClientManager.isRetryableStatus( statusCode ) ) {
+          throw new AsyncCallQueue.RetryException(
+            BaseMessages.getString( PKG, "HTTP.Log.Retrying", String.valueOf( statusCode ), uri ) );
+        }
+
         String body;
         switch ( statusCode ) {
           case HttpURLConnection.HTTP_UNAUTHORIZED:
@@ -282,6 +317,15 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.asyncCalls != null ) {
+        // Wait for the calls in flight
+        //
+        while ( !data.asyncCalls.isEmpty() ) {
+          if ( !putCompletedCall( data.asyncCalls.take() ) ) {
+            return false;
+          }
+        }
+      }
       setOutputDone();
       return false;
     }
@@ -340,35 +384,88 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
 
     } // end if first
 
+    if ( data.asyncCalls != null ) {
+      return processRowAsynchronously( r );
+    }
+
     try {
       Object[] outputRowData = execHttp( getInputRowMeta(), r ); // add new values to the row
-      putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
+      putOutputRow( outputRowData );
+    } catch ( HopException e ) {
+      return handleCallError( r, e );
+    }
 
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "HTTP.LineNumber" ) + getLinesRead() );
-        }
-      }
+    return true;
+  }
+
+  /**
+   * Submit the call for the row and pass on the rows of the calls which finished in the meantime.
+   */
+  private boolean processRowAsynchronously( Object[] r ) throws HopException {
+    IRowMeta rowMeta = getInputRowMeta();
+    if ( first ) {
+      first = false;
+      lookupArguments( rowMeta );
+      data.httpClient = createHttpClient();
+    }
+
+    HttpGet method;
+    try {
+      method = createHttpGet( rowMeta, r );
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleCallError( r, e );
+    }
 
-      if ( getTransformMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "HTTP.ErrorInTransformRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
+    while ( data.asyncCalls.isFull() ) {
+      if ( !putCompletedCall( data.asyncCalls.take() ) ) {
         return false;
       }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTP001" );
+    }
+    // Only GET requests: safe to retry after any IO error
+    data.asyncCalls.submit( r, method.getURI().getHost(), true,
+      lastAttempt -> executeHttpGet( data.httpClient, method, rowMeta, r, lastAttempt ) );
+
+    for ( AsyncCallQueue.Completed<Object[]> completed : data.asyncCalls.poll() ) {
+      if ( !putCompletedCall( completed ) ) {
+        return false;
       }
     }
+    return true;
+  }
 
+  private boolean putCompletedCall( AsyncCallQueue.Completed<Object[]> completed ) throws HopException {
+    if ( completed.getException() != null ) {
+      return handleCallError( completed.getRow(), completed.getException() );
+    }
+    putOutputRow( completed.getResult() );
+    return true;
+  }
+
+  private void putOutputRow( Object[] outputRowData ) throws HopException {
+    putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      if ( isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "HTTP.LineNumber" ) + getLinesRead() );
+      }
+    }
+  }
+
+  /**
+   * Send the row to the error handling or stop the pipeline if there is none.
+   *
+   * @return false if the pipeline is stopped
+   */
+  private boolean handleCallError( Object[] r, Exception e ) throws HopException {
+    if ( !getTransformMeta().isDoingErrorHandling() ) {
+      logError( BaseMessages.getString( PKG, "HTTP.ErrorInTransformRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    // Simply add this row to the error row
+    putError( getInputRowMeta(), r, 1, e.toString(), null, "HTTP001" );
     return true;
   }
 
@@ -384,8 +481,27 @@ public class Http extends BaseTransform<HttpMeta, HttpData> implements ITransfor
       data.realSocketTimeout = Const.toInt( resolve( meta.getSocketTimeout() ), -1 );
       data.realConnectionTimeout = Const.toInt( resolve( meta.getSocketTimeout() ), -1 );
 
+      if ( meta.isAsynchronous() ) {
+        double rateLimit = Const.toDouble( resolve( meta.getRateLimit() ), 0.0 );
+        data.asyncCalls = new AsyncCallQueue<>( getTransformName(),
+          Const.toInt( resolve( meta.getMaxInFlight() ), HttpMeta.DEFAULT_MAX_IN_FLIGHT ),
+          meta.isOrderedOutput(),
+          Const.toInt( resolve( meta.getMaxRetries() ), 0 ),
+          Const.toLong( resolve( meta.getRetryDelay() ), HttpMeta.DEFAULT_RETRY_DELAY ),
+          rateLimit > 0 ? new HostRateLimiter( rateLimit ) : null );
+      }
+
       return true;
     }
     return false;
   }
+
+  @Override
+  public void dispose() {
+    if ( data.asyncCalls != null ) {
+      data.asyncCalls.shutdown();
+      data.asyncCalls = null;
+    }
+    super.dispose();
+  }
 }
@@ -18,9 +18,11 @@
 package org.apache.hop.pipeline.transforms.http;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.AsyncCallQueue;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 
 /**
  * @author Matt
@@ -44,6 +46,16 @@ public class HttpData extends BaseTransformData implements ITransformData {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  /**
+   * The calls in flight when the calls are executed asynchronously
+   */
+  public AsyncCallQueue<Object[]> asyncCalls;
+
+  /**
+   * The client shared by the asynchronous calls
+   */
+  public CloseableHttpClient httpClient;
+
   /**
    * Default constructor.
    */
@@ -79,6 +79,23 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
 
   private TextVar wResponseHeader;
 
+  private Button wAsynchronous;
+
+  private Label wlMaxInFlight;
+  private TextVar wMaxInFlight;
+
+  private Label wlOrderedOutput;
+  private Button wOrderedOutput;
+
+  private Label wlMaxRetries;
+  private TextVar wMaxRetries;
+
+  private Label wlRetryDelay;
+  private TextVar wRetryDelay;
+
+  private Label wlRateLimit;
+  private TextVar wRateLimit;
+
   private final HttpMeta input;
 
   private ColumnInfo[] colinf;
@@ -571,6 +588,146 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     // ////////////////////////
     lastControl = gProxy;
 
+    // ////////////////////////
+    // START ASYNCHRONOUS CALLS GROUP
+
+    Group gAsync = new Group( wGeneralComp, SWT.SHADOW_ETCHED_IN );
+    gAsync.setText( BaseMessages.getString( PKG, "HTTPDialog.AsyncGroup.Label" ) );
+    FormLayout asyncLayout = new FormLayout();
+    asyncLayout.marginWidth = 3;
+    asyncLayout.marginHeight = 3;
+    gAsync.setLayout( asyncLayout );
+    props.setLook( gAsync );
+
+    Label wlAsynchronous = new Label( gAsync, SWT.RIGHT );
+    wlAsynchronous.setText( BaseMessages.getString( PKG, "HTTPDialog.Asynchronous.Label" ) );
+    props.setLook( wlAsynchronous );
+    FormData fdlAsynchronous = new FormData();
+    fdlAsynchronous.left = new FormAttachment( 0, 0 );
+    fdlAsynchronous.top = new FormAttachment( 0, margin );
+    fdlAsynchronous.right = new FormAttachment( middle, -margin );
+    wlAsynchronous.setLayoutData( fdlAsynchronous );
+    wAsynchronous = new Button( gAsync, SWT.CHECK );
+    wAsynchronous.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.Asynchronous.Tooltip" ) );
+    props.setLook( wAsynchronous );
+    FormData fdAsynchronous = new FormData();
+    fdAsynchronous.left = new FormAttachment( middle, 0 );
+    fdAsynchronous.top = new FormAttachment( wlAsynchronous, 0, SWT.CENTER );
+    fdAsynchronous.right = new FormAttachment( 100, 0 );
+    wAsynchronous.setLayoutData( fdAsynchronous );
+    wAsynchronous.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        activeAsynchronous();
+      }
+    } );
+
+    wlMaxInFlight = new Label( gAsync, SWT.RIGHT );
+    wlMaxInFlight.setText( BaseMessages.getString( PKG, "HTTPDialog.MaxInFlight.Label" ) );
+    props.setLook( wlMaxInFlight );
+    FormData fdlMaxInFlight = new FormData();
+    fdlMaxInFlight.left = new FormAttachment( 0, 0 );
+    fdlMaxInFlight.top = new FormAttachment( wAsynchronous, margin );
+    fdlMaxInFlight.right = new FormAttachment( middle, -margin );
+    wlMaxInFlight.setLayoutData( fdlMaxInFlight );
+    wMaxInFlight = new TextVar( variables, gAsync, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxInFlight.addModifyListener( lsMod );
+    wMaxInFlight.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.MaxInFlight.Tooltip" ) );
+    props.setLook( wMaxInFlight );
+    FormData fdMaxInFlight = new FormData();
+    fdMaxInFlight.left = new FormAttachment( middle, 0 );
+    fdMaxInFlight.top = new FormAttachment( wAsynchronous, margin );
+    fdMaxInFlight.right = new FormAttachment( 100, 0 );
+    wMaxInFlight.setLayoutData( fdMaxInFlight );
+
+    wlOrderedOutput = new Label( gAsync, SWT.RIGHT );
+    wlOrderedOutput.setText( BaseMessages.getString( PKG, "HTTPDialog.OrderedOutput.Label" ) );
+    props.setLook( wlOrderedOutput );
+    FormData fdlOrderedOutput = new FormData();
+    fdlOrderedOutput.left = new FormAttachment( 0, 0 );
+    fdlOrderedOutput.top = new FormAttachment( wMaxInFlight, margin );
+    fdlOrderedOutput.right = new FormAttachment( middle, -margin );
+    wlOrderedOutput.setLayoutData( fdlOrderedOutput );
+    wOrderedOutput = new Button( gAsync, SWT.CHECK );
+    wOrderedOutput.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.OrderedOutput.Tooltip" ) );
+    props.setLook( wOrderedOutput );
+    FormData fdOrderedOutput = new FormData();
+    fdOrderedOutput.left = new FormAttachment( middle, 0 );
+    fdOrderedOutput.top = new FormAttachment( wlOrderedOutput, 0, SWT.CENTER );
+    fdOrderedOutput.right = new FormAttachment( 100, 0 );
+    wOrderedOutput.setLayoutData( fdOrderedOutput );
+    wOrderedOutput.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
+    wlMaxRetries = new Label( gAsync, SWT.RIGHT );
+    wlMaxRetries.setText( BaseMessages.getString( PKG, "HTTPDialog.MaxRetries.Label" ) );
+    props.setLook( wlMaxRetries );
+    FormData fdlMaxRetries = new FormData();
+    fdlMaxRetries.left = new FormAttachment( 0, 0 );
+    fdlMaxRetries.top = new FormAttachment( wOrderedOutput, margin );
+    fdlMaxRetries.right = new FormAttachment( middle, -margin );
+    wlMaxRetries.setLayoutData( fdlMaxRetries );
+    wMaxRetries = new TextVar( variables, gAsync, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxRetries.addModifyListener( lsMod );
+    wMaxRetries.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    FormData fdMaxRetries = new FormData();
+    fdMaxRetries.left = new FormAttachment( middle, 0 );
+    fdMaxRetries.top = new FormAttachment( wOrderedOutput, margin );
+    fdMaxRetries.right = new FormAttachment( 100, 0 );
+    wMaxRetries.setLayoutData( fdMaxRetries );
+
+    wlRetryDelay = new Label( gAsync, SWT.RIGHT );
+    wlRetryDelay.setText( BaseMessages.getString( PKG, "HTTPDialog.RetryDelay.Label" ) );
+    props.setLook( wlRetryDelay );
+    FormData fdlRetryDelay = new FormData();
+    fdlRetryDelay.left = new FormAttachment( 0, 0 );
+    fdlRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdlRetryDelay.right = new FormAttachment( middle, -margin );
+    wlRetryDelay.setLayoutData( fdlRetryDelay );
+    wRetryDelay = new TextVar( variables, gAsync, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRetryDelay.addModifyListener( lsMod );
+    wRetryDelay.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.RetryDelay.Tooltip" ) );
+    props.setLook( wRetryDelay );
+    FormData fdRetryDelay = new FormData();
+    fdRetryDelay.left = new FormAttachment( middle, 0 );
+    fdRetryDelay.top = new FormAttachment( wMaxRetries, margin );
+    fdRetryDelay.right = new FormAttachment( 100, 0 );
+    wRetryDelay.setLayoutData( fdRetryDelay );
+
+    wlRateLimit = new Label( gAsync, SWT.RIGHT );
+    wlRateLimit.setText( BaseMessages.getString( PKG, "HTTPDialog.RateLimit.Label" ) );
+    props.setLook( wlRateLimit );
+    FormData fdlRateLimit = new FormData();
+    fdlRateLimit.left = new FormAttachment( 0, 0 );
+    fdlRateLimit.top = new FormAttachment( wRetryDelay, margin );
+    fdlRateLimit.right = new FormAttachment( middle, -margin );
+    wlRateLimit.setLayoutData( fdlRateLimit );
+    wRateLimit = new TextVar( variables, gAsync, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wRateLimit.addModifyListener( lsMod );
+    wRateLimit.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.RateLimit.Tooltip" ) );
+    props.setLook( wRateLimit );
+    FormData fdRateLimit = new FormData();
+    fdRateLimit.left = new FormAttachment( middle, 0 );
+    fdRateLimit.top = new FormAttachment( wRetryDelay, margin );
+    fdRateLimit.right = new FormAttachment( 100, 0 );
+    wRateLimit.setLayoutData( fdRateLimit );
+
+    FormData fdAsync = new FormData();
+    fdAsync.left = new FormAttachment( 0, 0 );
+    fdAsync.right = new FormAttachment( 100, 0 );
+    fdAsync.top = new FormAttachment( lastControl, margin );
+    gAsync.setLayoutData( fdAsync );
+
+    // END ASYNCHRONOUS CALLS GROUP
+    // ////////////////////////
+    lastControl = gAsync;
+
     FormData fdGeneralComp = new FormData();
     fdGeneralComp.left = new FormAttachment( 0, 0 );
     fdGeneralComp.top = new FormAttachment( wTransformName, margin );
@@ -747,6 +904,7 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     getData();
     wTabFolder.setSelection( 0 );
     activeUrlInfield();
+    activeAsynchronous();
     input.setChanged( changed );
 
     shell.open();
@@ -803,6 +961,20 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wUrl.setEnabled( !wUrlInField.getSelection() );
   }
 
+  private void activeAsynchronous() {
+    boolean asynchronous = wAsynchronous.getSelection();
+    wlMaxInFlight.setEnabled( asynchronous );
+    wMaxInFlight.setEnabled( asynchronous );
+    wlOrderedOutput.setEnabled( asynchronous );
+    wOrderedOutput.setEnabled( asynchronous );
+    wlMaxRetries.setEnabled( asynchronous );
+    wMaxRetries.setEnabled( asynchronous );
+    wlRetryDelay.setEnabled( asynchronous );
+    wRetryDelay.setEnabled( asynchronous );
+    wlRateLimit.setEnabled( asynchronous );
+    wRateLimit.setEnabled( asynchronous );
+  }
+
   /**
    * Copy information from the meta-data input to the dialog fields.
    */
@@ -833,6 +1005,12 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     wSocketTimeOut.setText( Const.NVL( input.getSocketTimeout(), "" ) );
     wConnectionTimeOut.setText( Const.NVL( input.getConnectionTimeout(), "" ) );
     wCloseIdleConnectionsTime.setText( Const.NVL( input.getCloseIdleConnectionsTime(), "" ) );
+    wAsynchronous.setSelection( input.isAsynchronous() );
+    wMaxInFlight.setText( Const.NVL( input.getMaxInFlight(), "" ) );
+    wOrderedOutput.setSelection( input.isOrderedOutput() );
+    wMaxRetries.setText( Const.NVL( input.getMaxRetries(), "" ) );
+    wRetryDelay.setText( Const.NVL( input.getRetryDelay(), "" ) );
+    wRateLimit.setText( Const.NVL( input.getRateLimit(), "" ) );
 
     wUrl.setText( Const.NVL( input.getUrl(), "" ) );
     wUrlInField.setSelection( input.isUrlInField() );
@@ -922,6 +1100,12 @@ public class HttpDialog extends BaseTransformDialog implements ITransformDialog
     input.setSocketTimeout( wSocketTimeOut.getText() );
     input.setConnectionTimeout( wConnectionTimeOut.getText() );
     input.setCloseIdleConnectionsTime( wCloseIdleConnectionsTime.getText() );
+    input.setAsynchronous( wAsynchronous.getSelection() );
+    input.setMaxInFlight( wMaxInFlight.getText() );
+    input.setOrderedOutput( wOrderedOutput.getSelection() );
+    input.setMaxRetries( wMaxRetries.getText() );
+    input.setRetryDelay( wRetryDelay.getText() );
+    input.setRateLimit( wRateLimit.getText() );
 
     transformName = wTransformName.getText(); // return value
 
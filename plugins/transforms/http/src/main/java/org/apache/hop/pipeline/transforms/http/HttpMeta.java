@@ -65,6 +65,10 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+  public static final long DEFAULT_RETRY_DELAY = 1000L;
+
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
@@ -103,6 +107,24 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
   private String[] headerParameter;
   private String[] headerField;
 
+  /** Execute the calls asynchronously, several calls at the same time */
+  private boolean asynchronous;
+
+  /** The maximum number of calls in flight at the same time */
+  private String maxInFlight;
+
+  /** Pass on the rows in the order they were read, not in the order the calls finish */
+  private boolean orderedOutput;
+
+  /** The number of times a call is retried after a connection error or an overloaded server */
+  private String maxRetries;
+
+  /** The delay in ms before the first retry, doubled for every next retry */
+  private String retryDelay;
+
+  /** The maximum number of calls per second per host, empty for no limit */
+  private String rateLimit;
+
   public HttpMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -273,6 +295,12 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
     responseTimeFieldName = "";
     responseHeaderFieldName = "";
     encoding = "UTF-8";
+    asynchronous = false;
+    maxInFlight = String.valueOf(DEFAULT_MAX_IN_FLIGHT);
+    orderedOutput = true;
+    maxRetries = "0";
+    retryDelay = String.valueOf(DEFAULT_RETRY_DELAY);
+    rateLimit = "";
   }
 
   public void getFields(
@@ -324,6 +352,12 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
     retval.append("    " + XmlHandler.addTagValue("connectionTimeout", connectionTimeout));
     retval.append(
         "    " + XmlHandler.addTagValue("closeIdleConnectionsTime", closeIdleConnectionsTime));
+    retval.append("    ").append(XmlHandler.addTagValue("asynchronous", asynchronous));
+    retval.append("    ").append(XmlHandler.addTagValue("max_in_flight", maxInFlight));
+    retval.append("    ").append(XmlHandler.addTagValue("ordered_output", orderedOutput));
+    retval.append("    ").append(XmlHandler.addTagValue("max_retries", maxRetries));
+    retval.append("    ").append(XmlHandler.addTagValue("retry_delay", retryDelay));
+    retval.append("    ").append(XmlHandler.addTagValue("rate_limit", rateLimit));
 
     retval.append("    <lookup>").append(Const.CR);
 
@@ -373,6 +407,12 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
       socketTimeout = XmlHandler.getTagValue(transformNode, "socketTimeout");
       connectionTimeout = XmlHandler.getTagValue(transformNode, "connectionTimeout");
       closeIdleConnectionsTime = XmlHandler.getTagValue(transformNode, "closeIdleConnectionsTime");
+      asynchronous = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "asynchronous"));
+      maxInFlight = XmlHandler.getTagValue(transformNode, "max_in_flight");
+      orderedOutput = !"N".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ordered_output"));
+      maxRetries = XmlHandler.getTagValue(transformNode, "max_retries");
+      retryDelay = XmlHandler.getTagValue(transformNode, "retry_delay");
+      rateLimit = XmlHandler.getTagValue(transformNode, "rate_limit");
 
       Node lookup = XmlHandler.getSubNode(transformNode, "lookup");
       nrargs = XmlHandler.countNodes(lookup, "arg");
@@ -585,4 +625,64 @@ public class HttpMeta extends BaseTransformMeta implements ITransformMeta<Http,
   public void setResponseHeaderFieldName(String responseHeaderFieldName) {
     this.responseHeaderFieldName = responseHeaderFieldName;
   }
+
+  /** @return true if the calls are executed asynchronously, several calls at the same time */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /** @param asynchronous true to execute the calls asynchronously */
+  public void setAsynchronous(boolean asynchronous) {
+    this.asynchronous = asynchronous;
+  }
+
+  /** @return The maximum number of calls in flight at the same time */
+  public String getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /** @param maxInFlight The maximum number of calls in flight at the same time */
+  public void setMaxInFlight(String maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  /** @return true if the rows are passed on in the order they were read */
+  public boolean isOrderedOutput() {
+    return orderedOutput;
+  }
+
+  /** @param orderedOutput true to pass on the rows in the order they were read */
+  public void setOrderedOutput(boolean orderedOutput) {
+    this.orderedOutput = orderedOutput;
+  }
+
+  /** @return The number of times a call is retried */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /** @param maxRetries The number of times a call is retried */
+  public void setMaxRetries(String maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /** @return The delay in ms before the first retry */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /** @param retryDelay The delay in ms before the first retry */
+  public void setRetryDelay(String retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
+  /** @return The maximum number of calls per second per host */
+  public String getRateLimit() {
+    return rateLimit;
+  }
+
+  /** @param rateLimit The maximum number of calls per second per host, empty for no limit */
+  public void setRateLimit(String rateLimit) {
+    this.rateLimit = rateLimit;
+  }
 }
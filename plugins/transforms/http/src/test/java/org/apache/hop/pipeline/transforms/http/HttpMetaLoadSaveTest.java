@@ -47,7 +47,8 @@ public class HttpMetaLoadSaveTest {
       Arrays.asList( "url", "urlInField", "urlField", "encoding", "httpLogin", "httpPassword", "proxyHost",
         "proxyPort", "socketTimeout", "connectionTimeout", "closeIdleConnectionsTime", "argumentField",
         "argumentParameter", "headerField", "headerParameter", "fieldName", "resultCodeFieldName",
-        "responseTimeFieldName", "responseHeaderFieldName" );
+        "responseTimeFieldName", "responseHeaderFieldName", "asynchronous", "maxInFlight", "orderedOutput",
+        "maxRetries", "retryDelay", "rateLimit" );
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<>();
 
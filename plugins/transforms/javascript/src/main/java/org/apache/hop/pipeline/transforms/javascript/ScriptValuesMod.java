@@ -266,7 +266,7 @@ public class ScriptValuesMod extends BaseTransform<ScriptValuesMetaMod, ScriptVa
         try {
           // Checking for StartScript
           if ( strStartScript != null && strStartScript.length() > 0 ) {
-            Script startScript = data.cx.compileString( strStartScript, "pipeline_Start", 1, null );
+            Script startScript = ScriptValuesScriptCache.compile( data.cx, strStartScript, "pipeline_Start" );
             startScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "Start Script found!" ) );
@@ -280,8 +280,8 @@ public class ScriptValuesMod extends BaseTransform<ScriptValuesMetaMod, ScriptVa
           throw new HopValueException( BaseMessages.getString( PKG, "ScriptValuesMod.Log.ErrorProcessingStartScript" ), es );
 
         }
-        // Now Compile our Script
-        data.script = data.cx.compileString( strTransformScript, "script", 1, null );
+        // Now Compile our Script, or reuse it when another copy or an earlier run of the pipeline compiled it already
+        data.script = ScriptValuesScriptCache.compile( data.cx, strTransformScript, "script" );
       } catch ( Exception e ) {
         throw new HopValueException( BaseMessages.getString(
           PKG, "ScriptValuesMod.Log.CouldNotCompileJavascript" ), e );
@@ -319,8 +319,11 @@ public class ScriptValuesMod extends BaseTransform<ScriptValuesMetaMod, ScriptVa
         }
 
         // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        if ( data.jsRowMeta == null || data.jsRowMetaSource != rowMeta ) {
+          data.jsRowMeta = Context.toObject( rowMeta, data.scope );
+          data.jsRowMetaSource = rowMeta;
+        }
+        data.scope.put( "rowMeta", data.scope, data.jsRowMeta );
       } catch ( Exception e ) {
         throw new HopValueException( BaseMessages.getString( PKG, "ScriptValuesMod.Log.UnexpectedeError" ), e );
       }
@@ -433,7 +436,7 @@ public class ScriptValuesMod extends BaseTransform<ScriptValuesMetaMod, ScriptVa
         if ( data.cx != null ) {
           // Checking for EndScript
           if ( strEndScript != null && strEndScript.length() > 0 ) {
-            Script endScript = data.cx.compileString( strEndScript, "pipeline_End", 1, null );
+            Script endScript = ScriptValuesScriptCache.compile( data.cx, strEndScript, "pipeline_End" );
             endScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "End Script found!" ) );
@@ -40,6 +40,12 @@ public class ScriptValuesModData extends BaseTransformData implements ITransform
   public IRowMeta outputRowMeta;
   public int[] replaceIndex;
 
+  /**
+   * The row metadata as handed to the script, wrapped again only when the metadata of the input rows changes
+   */
+  public IRowMeta jsRowMetaSource;
+  public Scriptable jsRowMeta;
+
   public ScriptValuesModData() {
     super();
     cx = null;
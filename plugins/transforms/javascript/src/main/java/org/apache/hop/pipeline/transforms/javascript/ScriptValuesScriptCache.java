@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.javascript;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the compiled scripts of the JavaScript transforms in the JVM. A compiled script doesn't hold on to a scope or a
+ * context so it can be executed by all copies of a transform and by the transforms of pipelines which are executed
+ * over and over again, like the ones of a pipeline executor, without compiling it again each time.
+ */
+public class ScriptValuesScriptCache {
+
+  /**
+   * The maximum number of compiled scripts to keep, the least recently used ones are dropped first
+   */
+  public static final int MAX_SIZE = 500;
+
+  private static final Map<String, Script> cache = new LinkedHashMap<String, Script>( 16, 0.75f, true ) {
+    @Override
+    protected boolean removeEldestEntry( Map.Entry<String, Script> eldest ) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  private ScriptValuesScriptCache() {
+  }
+
+  /**
+   * Get a compiled script from the cache or compile it with the given context.
+   *
+   * @param cx         The context to compile with, the optimization level and language version are part of the key
+   * @param source     The source of the script
+   * @param sourceName The name of the script for the error messages
+   * @return The compiled script
+   */
+  public static Script compile( Context cx, String source, String sourceName ) {
+    String key = cx.getOptimizationLevel() + "/" + cx.getLanguageVersion() + "/" + sourceName + "/" + source;
+    synchronized ( cache ) {
+      Script script = cache.get( key );
+      if ( script != null ) {
+        return script;
+      }
+    }
+    // Compile outside of the lock: when two copies compile the same script at the same time, the first one is kept
+    //
+    Script script = cx.compileString( source, sourceName, 1, null );
+    synchronized ( cache ) {
+      Script cached = cache.putIfAbsent( key, script );
+      return cached != null ? cached : script;
+    }
+  }
+
+  /**
+   * @return The number of compiled scripts in the cache
+   */
+  public static int size() {
+    synchronized ( cache ) {
+      return cache.size();
+    }
+  }
+
+  public static void clear() {
+    synchronized ( cache ) {
+      cache.clear();
+    }
+  }
+}
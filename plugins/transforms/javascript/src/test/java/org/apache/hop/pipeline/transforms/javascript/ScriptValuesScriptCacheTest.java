@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.javascript;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ScriptValuesScriptCacheTest {
+
+  private Context cx;
+
+  @Before
+  public void setUp() {
+    ScriptValuesScriptCache.clear();
+    cx = ContextFactory.getGlobal().enterContext();
+    cx.setOptimizationLevel( 9 );
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+    ScriptValuesScriptCache.clear();
+  }
+
+  @Test
+  public void testCompiledOnce() {
+    Script script = ScriptValuesScriptCache.compile( cx, "var b = a * 2;", "script" );
+    assertSame( script, ScriptValuesScriptCache.compile( cx, "var b = a * 2;", "script" ) );
+    assertNotSame( script, ScriptValuesScriptCache.compile( cx, "var b = a * 3;", "script" ) );
+    assertNotSame( script, ScriptValuesScriptCache.compile( cx, "var b = a * 2;", "pipeline_Start" ) );
+
+    cx.setOptimizationLevel( -1 );
+    assertNotSame( script, ScriptValuesScriptCache.compile( cx, "var b = a * 2;", "script" ) );
+    assertEquals( 4, ScriptValuesScriptCache.size() );
+  }
+
+  @Test
+  public void testSharedScriptKeepsScopesApart() {
+    Script script = ScriptValuesScriptCache.compile( cx, "var total = ( typeof total == 'undefined' ? 0 : total ) + a;", "script" );
+
+    Scriptable scope1 = cx.initStandardObjects( null, false );
+    Scriptable scope2 = cx.initStandardObjects( null, false );
+    for ( int i = 1; i <= 3; i++ ) {
+      scope1.put( "a", scope1, i );
+      script.exec( cx, scope1 );
+      scope2.put( "a", scope2, 10 * i );
+      script.exec( cx, scope2 );
+    }
+    assertEquals( 6.0, Context.toNumber( scope1.get( "total", scope1 ) ), 0 );
+    assertEquals( 60.0, Context.toNumber( scope2.get( "total", scope2 ) ), 0 );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedScriptsAreDropped() {
+    Script first = ScriptValuesScriptCache.compile( cx, "var x = 0;", "script" );
+    for ( int i = 1; i <= ScriptValuesScriptCache.MAX_SIZE; i++ ) {
+      ScriptValuesScriptCache.compile( cx, "var x = " + i + ";", "script" );
+    }
+    assertEquals( ScriptValuesScriptCache.MAX_SIZE, ScriptValuesScriptCache.size() );
+    assertNotSame( first, ScriptValuesScriptCache.compile( cx, "var x = 0;", "script" ) );
+  }
+}
@@ -29,8 +29,12 @@ import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
@@ -43,9 +47,13 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -57,6 +65,39 @@ public class KafkaConsumerInput
 
   private static final Class<?> PKG = KafkaConsumerInputMeta.class; // For Translator
 
+  public static final IEngineMetric METRIC_LAG =
+      new EngineMetric(
+          "kafka-lag",
+          BaseMessages.getString(PKG, "KafkaConsumerInput.Metric.Lag.Header"),
+          BaseMessages.getString(PKG, "KafkaConsumerInput.Metric.Lag.Tooltip"),
+          "200",
+          true);
+  public static final IEngineMetric METRIC_IN_FLIGHT =
+      new EngineMetric(
+          "kafka-in-flight",
+          BaseMessages.getString(PKG, "KafkaConsumerInput.Metric.InFlight.Header"),
+          BaseMessages.getString(PKG, "KafkaConsumerInput.Metric.InFlight.Tooltip"),
+          "210",
+          true);
+  public static final IEngineMetric METRIC_THROUGHPUT =
+      new EngineMetric(
+          "kafka-throughput",
+          BaseMessages.getString(PKG, "KafkaConsumerInput.Metric.Throughput.Header"),
+          BaseMessages.getString(PKG, "KafkaConsumerInput.Metric.Throughput.Tooltip"),
+          "220",
+          true);
+
+  /** Don't block longer than this in a poll so that paused partitions are resumed in time */
+  private static final long MAX_PARALLEL_POLL_TIMEOUT = 1000L;
+
+  /** The maximum number of batches a worker can have waiting before its partitions are paused */
+  private static final int MAX_PENDING_BATCHES = 2;
+
+  private static final long METRICS_INTERVAL = 1000L;
+
+  /** The parallel sub-pipelines all pass their result rows to the next transforms */
+  private final Object putRowLock = new Object();
+
   public KafkaConsumerInput(
       TransformMeta transformMeta,
       KafkaConsumerInputMeta meta,
@@ -85,15 +126,20 @@ public class KafkaConsumerInput
 
     data.consumer = buildKafkaConsumer(this, meta);
 
+    Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
+    int nrWorkers = getParallelWorkers(this, meta);
+    if (nrWorkers > 1) {
+      return initParallelWorkers(topics, nrWorkers);
+    }
+
     // Subscribe to the topics...
     //
-    Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
     data.consumer.subscribe(topics);
 
     // Load and start the single threader transformation
     //
     try {
-      initSubPipeline();
+      initSubPipeline(getTransformName());
     } catch (Exception e) {
       logError("Error initializing sub-transformation", e);
       return false;
@@ -102,7 +148,68 @@ public class KafkaConsumerInput
     return true;
   }
 
-  private void initSubPipeline() throws HopException {
+  /**
+   * Start a sub-pipeline per worker and spread the partitions over them.
+   *
+   * @param topics The topics to subscribe to
+   * @param nrWorkers The number of workers
+   * @return true if all sub-pipelines were started
+   */
+  private boolean initParallelWorkers(Set<String> topics, int nrWorkers) {
+    logBasic(BaseMessages.getString(PKG, "KafkaConsumerInput.Log.StartingWorkers", nrWorkers));
+    List<KafkaConsumerWorker> workers = new ArrayList<>();
+    try {
+      for (int i = 0; i < nrWorkers; i++) {
+        // The first sub-pipeline keeps the name of this transform
+        //
+        String name = i == 0 ? getTransformName() : getTransformName() + " #" + (i + 1);
+        data.rowProducer = null;
+        initSubPipeline(name);
+
+        RowProducer rowProducer = data.rowProducer;
+        SingleThreadedPipelineExecutor executor = data.executor;
+        workers.add(
+            new KafkaConsumerWorker(
+                name, records -> processBatch(rowProducer, executor, records)));
+      }
+    } catch (Exception e) {
+      logError("Error initializing sub-transformation", e);
+      return false;
+    } finally {
+      data.rowProducer = null;
+      data.executor = null;
+    }
+    workers.forEach(KafkaConsumerWorker::start);
+
+    // A worker can have a couple of batches waiting before its partitions are paused
+    //
+    long maxPendingRecords = data.batch > 0 ? (long) data.batch * MAX_PENDING_BATCHES : 1000L;
+    data.parallelConsumer =
+        new KafkaParallelConsumer(data.consumer, workers, maxPendingRecords, log);
+    data.consumer.subscribe(topics, data.parallelConsumer);
+    return true;
+  }
+
+  /**
+   * Pass the records to a sub-pipeline and do an iteration. Called by the worker threads.
+   *
+   * @throws HopException In case the sub-pipeline failed
+   */
+  private void processBatch(
+      RowProducer rowProducer,
+      SingleThreadedPipelineExecutor executor,
+      List<ConsumerRecord<String, String>> records)
+      throws HopException {
+    for (ConsumerRecord<String, String> record : records) {
+      rowProducer.putRow(data.outputRowMeta, processMessageAsRow(record));
+    }
+    executor.oneIteration();
+    if (executor.isStopped() || executor.getErrors() > 0) {
+      throw new HopException(BaseMessages.getString(PKG, "KafkaConsumerInput.Error.SubPipeline"));
+    }
+  }
+
+  private void initSubPipeline(String subPipelineName) throws HopException {
     try {
 
       CurrentDirectoryResolver r = new CurrentDirectoryResolver();
@@ -162,7 +269,9 @@ public class KafkaConsumerInput
                   throws HopTransformException {
                 // Write this row to the next transform(s)
                 //
-                KafkaConsumerInput.this.putRow(rowMeta, row);
+                synchronized (putRowLock) {
+                  KafkaConsumerInput.this.putRow(rowMeta, row);
+                }
               }
             });
       }
@@ -178,7 +287,8 @@ public class KafkaConsumerInput
         throw new HopException("Initialization of sub-pipeline failed");
       }
 
-      getPipeline().addActiveSubPipeline(getTransformName(), kafkaPipeline);
+      getPipeline().addActiveSubPipeline(subPipelineName, kafkaPipeline);
+      data.subPipelines.add(kafkaPipeline);
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
     }
@@ -186,6 +296,10 @@ public class KafkaConsumerInput
 
   @Override
   public void dispose() {
+    if (data.parallelConsumer != null) {
+      data.parallelConsumer.close();
+      data.parallelConsumer = null;
+    }
     if (data.consumer != null) {
       data.consumer.unsubscribe();
       data.consumer.close();
@@ -216,7 +330,11 @@ public class KafkaConsumerInput
     config.put(
         ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
         variables.resolve(meta.getDirectBootstrapServers()));
-    config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, meta.isAutoCommit());
+    // With parallel sub-pipelines the offsets are committed once the records are processed
+    //
+    config.put(
+        ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,
+        meta.isAutoCommit() && getParallelWorkers(variables, meta) <= 1);
 
     // Timeout : max batch wait
     //
@@ -245,9 +363,18 @@ public class KafkaConsumerInput
     return new KafkaConsumer(config);
   }
 
+  /** @return The number of sub-pipelines processing the records at the same time, at least 1 */
+  public static int getParallelWorkers(IVariables variables, KafkaConsumerInputMeta meta) {
+    return Math.max(1, Const.toInt(variables.resolve(meta.getParallelWorkers()), 1));
+  }
+
   @Override
   public boolean processRow() throws HopException {
 
+    if (data.parallelConsumer != null) {
+      return processRowParallel();
+    }
+
     // Poll records...
     // If we get any, process them...
     //
@@ -285,9 +412,83 @@ public class KafkaConsumerInput
       data.consumer.commitAsync();
     }
 
+    updateMetrics(getLinesInput(), 0L);
+
+    return true;
+  }
+
+  /** Read records and hand them to the parallel sub-pipelines */
+  private boolean processRowParallel() {
+    long timeout = data.batch > 0 ? data.batch : MAX_PARALLEL_POLL_TIMEOUT;
+    try {
+      int nrRecords = data.parallelConsumer.poll(Math.min(timeout, MAX_PARALLEL_POLL_TIMEOUT));
+      setLinesInput(getLinesInput() + nrRecords);
+    } catch (HopException e) {
+      // An error occurred in one of the sub-pipelines
+      //
+      logError(e.getMessage(), e);
+      setErrors(1);
+      data.subPipelines.forEach(IPipelineEngine::stopAll);
+      setOutputDone();
+      stopAll();
+      return false;
+    }
+
+    updateMetrics(
+        data.parallelConsumer.getProcessedRecords(), data.parallelConsumer.getPendingRecords());
+
     return true;
   }
 
+  /**
+   * Calculate the lag and throughput about once a second. This runs on the transform thread since
+   * the consumer can only be used from one thread.
+   *
+   * @param processedRecords The total number of records processed so far
+   * @param pendingRecords The number of records read but not processed yet
+   */
+  private void updateMetrics(long processedRecords, long pendingRecords) {
+    data.pendingRecords = pendingRecords;
+    long now = System.currentTimeMillis();
+    if (data.lastMetricsTime == 0L) {
+      data.lastMetricsTime = now;
+      data.lastProcessedRecords = processedRecords;
+      return;
+    }
+    long elapsed = now - data.lastMetricsTime;
+    if (elapsed >= METRICS_INTERVAL) {
+      data.throughput = (processedRecords - data.lastProcessedRecords) * 1000L / elapsed;
+      data.lastMetricsTime = now;
+      data.lastProcessedRecords = processedRecords;
+      data.lag = getMaxLag(data.consumer);
+    }
+  }
+
+  /**
+   * @param consumer The consumer
+   * @return The maximum number of records the consumer is behind on any of its partitions or -1 if
+   *     it's unknown
+   */
+  public static long getMaxLag(Consumer<?, ?> consumer) {
+    for (Map.Entry<MetricName, ? extends Metric> entry : consumer.metrics().entrySet()) {
+      MetricName name = entry.getKey();
+      if ("records-lag-max".equals(name.name()) && !name.tags().containsKey("topic")) {
+        double value = entry.getValue().value();
+        return Double.isNaN(value) || Double.isInfinite(value) ? -1L : (long) value;
+      }
+    }
+    return -1L;
+  }
+
+  @Override
+  public Map<IEngineMetric, Long> getCustomMetrics() {
+    Map<IEngineMetric, Long> metrics = new HashMap<>();
+    metrics.put(METRIC_LAG, data.lag);
+    metrics.put(METRIC_IN_FLIGHT, data.pendingRecords);
+    metrics.put(METRIC_THROUGHPUT, data.throughput);
+    return metrics;
+  }
+
   public Object[] processMessageAsRow(ConsumerRecord<String, String> record) {
 
     Object[] rowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
@@ -18,12 +18,17 @@
 package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.kafka.clients.consumer.Consumer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 public class KafkaConsumerInputData extends BaseTransformData implements ITransformData {
   public IRowMeta outputRowMeta;
@@ -32,6 +37,19 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public RowProducer rowProducer;
   public SingleThreadedPipelineExecutor executor;
 
+  /** Spreads the partitions over parallel sub-pipelines, null when a single sub-pipeline is used */
+  public KafkaParallelConsumer parallelConsumer;
+
+  /** The sub-pipelines started by this transform, one per worker */
+  public List<IPipelineEngine<PipelineMeta>> subPipelines = new ArrayList<>();
+
+  /** The metrics, updated by the transform thread and read by anyone asking for them */
+  public volatile long lag = -1L;
+  public volatile long throughput;
+  public volatile long pendingRecords;
+  public long lastMetricsTime;
+  public long lastProcessedRecords;
+
   /**
    *
    */
@@ -84,6 +84,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
   protected TextVar wBatchSize;
   protected Label wlBatchDuration;
   protected TextVar wBatchDuration;
+  protected Label wlParallelWorkers;
+  protected TextVar wParallelWorkers;
 
   protected CTabFolder wTabFolder;
   protected CTabItem wSetupTab;
@@ -273,6 +275,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     m.setFilename( wFilename.getText() );
     m.setBatchSize( wBatchSize.getText() );
     m.setBatchDuration( wBatchDuration.getText() );
+    m.setParallelWorkers( wParallelWorkers.getText() );
     m.setSubTransform( wSubTransform.getText() );
     setTopicsFromTable();
 
@@ -303,7 +306,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     wOffsetGroup.setLayout( flOffsetGroup );
 
     FormData fdOffsetGroup = new FormData();
-    fdOffsetGroup.top = new FormAttachment( wBatchSize, 15 );
+    fdOffsetGroup.top = new FormAttachment( wParallelWorkers, 15 );
     fdOffsetGroup.left = new FormAttachment( 0, 0 );
     fdOffsetGroup.right = new FormAttachment( 100, 0 );
     wOffsetGroup.setLayoutData( fdOffsetGroup );
@@ -584,6 +587,25 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     fdBatchSize.top = new FormAttachment( wlBatchSize, 5 );
     wBatchSize.setLayoutData( fdBatchSize );
 
+    wlParallelWorkers = new Label( wBatchComp, SWT.LEFT );
+    props.setLook( wlParallelWorkers );
+    wlParallelWorkers.setText( BaseMessages.getString( PKG, "KafkaConsumerInputDialog.ParallelWorkers" ) );
+    wlParallelWorkers.setToolTipText( BaseMessages.getString( PKG, "KafkaConsumerInputDialog.ParallelWorkers.Tooltip" ) );
+    FormData fdlParallelWorkers = new FormData();
+    fdlParallelWorkers.left = new FormAttachment( 0, 0 );
+    fdlParallelWorkers.top = new FormAttachment( wBatchSize, 10 );
+    fdlParallelWorkers.right = new FormAttachment( 50, 0 );
+    wlParallelWorkers.setLayoutData( fdlParallelWorkers );
+
+    wParallelWorkers = new TextVar( variables, wBatchComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wParallelWorkers );
+    wParallelWorkers.addModifyListener( lsMod );
+    FormData fdParallelWorkers = new FormData();
+    fdParallelWorkers.left = new FormAttachment( 0, 0 );
+    fdParallelWorkers.right = new FormAttachment( 100, 0 );
+    fdParallelWorkers.top = new FormAttachment( wlParallelWorkers, 5 );
+    wParallelWorkers.setLayoutData( fdParallelWorkers );
+
     wBatchComp.layout();
     wBatchTab.setControl( wBatchComp );
   }
@@ -748,6 +770,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog implements ITr
     wConsumerGroup.setText( Const.NVL( meta.getConsumerGroup(), "" ) );
     wBatchSize.setText( Const.NVL(meta.getBatchSize(), "") );
     wBatchDuration.setText( Const.NVL(meta.getBatchDuration(), "") );
+    wParallelWorkers.setText( Const.NVL( meta.getParallelWorkers(), "1" ) );
 
     wbAutoCommit.setSelection( meta.isAutoCommit() );
     wbManualCommit.setSelection( !meta.isAutoCommit() );
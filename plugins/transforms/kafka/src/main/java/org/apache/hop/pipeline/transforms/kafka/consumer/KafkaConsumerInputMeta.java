@@ -91,6 +91,7 @@ public class KafkaConsumerInputMeta
   public static final String KAFKA_NAME_ATTRIBUTE = "kafkaName";
   public static final String TYPE_ATTRIBUTE = "type";
   public static final String AUTO_COMMIT = "AUTO_COMMIT";
+  public static final String PARALLEL_WORKERS = "parallelWorkers";
 
   @Injection(name = PIPELINE_PATH)
   protected String filename = "";
@@ -104,6 +105,13 @@ public class KafkaConsumerInputMeta
   @Injection(name = SUB_TRANSFORM)
   protected String subTransform = "";
 
+  /**
+   * The number of sub-pipelines processing the records at the same time. The partitions are spread over them, the
+   * records of a partition are always processed by the same sub-pipeline.
+   */
+  @Injection(name = "PARALLEL_WORKERS")
+  protected String parallelWorkers = "1";
+
   @Injection(name = "DIRECT_BOOTSTRAP_SERVERS")
   private String directBootstrapServers;
 
@@ -209,6 +217,7 @@ public class KafkaConsumerInputMeta
     }
     setBatchSize(XmlHandler.getTagValue(transformNode, BATCH_SIZE));
     setBatchDuration(XmlHandler.getTagValue(transformNode, BATCH_DURATION));
+    setParallelWorkers(Const.NVL(XmlHandler.getTagValue(transformNode, PARALLEL_WORKERS), "1"));
     setDirectBootstrapServers(XmlHandler.getTagValue(transformNode, DIRECT_BOOTSTRAP_SERVERS));
 
     String autoCommitValue = XmlHandler.getTagValue(transformNode, AUTO_COMMIT);
@@ -258,6 +267,7 @@ public class KafkaConsumerInputMeta
   public void setDefault() {
     batchSize = "1000";
     batchDuration = "1000";
+    parallelWorkers = "1";
   }
 
   public RowMeta getRowMeta(String origin, IVariables variables) throws HopTransformException {
@@ -300,6 +310,7 @@ public class KafkaConsumerInputMeta
     xml.append("    ").append(XmlHandler.addTagValue(SUB_TRANSFORM, getSubTransform()));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_SIZE, batchSize));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_DURATION, batchDuration));
+    xml.append("    ").append(XmlHandler.addTagValue(PARALLEL_WORKERS, parallelWorkers));
     xml.append("    ")
         .append(XmlHandler.addTagValue(DIRECT_BOOTSTRAP_SERVERS, directBootstrapServers));
     xml.append("    ").append(XmlHandler.addTagValue(AUTO_COMMIT, autoCommit));
@@ -560,6 +571,20 @@ public class KafkaConsumerInputMeta
     this.batchDuration = batchDuration;
   }
 
+  /**
+   * Gets parallelWorkers
+   *
+   * @return The number of sub-pipelines processing the records at the same time
+   */
+  public String getParallelWorkers() {
+    return parallelWorkers;
+  }
+
+  /** @param parallelWorkers The number of sub-pipelines processing the records at the same time */
+  public void setParallelWorkers(String parallelWorkers) {
+    this.parallelWorkers = parallelWorkers;
+  }
+
   /**
    * Gets the name of the transform in the kafka pipeline to retrieve data from
    *
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes batches of records on a thread of its own, one batch at a time and in the order they
+ * were submitted. The records of a partition are always submitted to the same worker so their order
+ * is kept. The offsets of the processed records are kept until the consumer commits them.
+ */
+public class KafkaConsumerWorker implements Runnable {
+
+  /** Processes a batch of records, typically by passing them to a sub-pipeline */
+  @FunctionalInterface
+  public interface IBatchProcessor {
+    void process(List<ConsumerRecord<String, String>> records) throws HopException;
+  }
+
+  private final String name;
+  private final IBatchProcessor processor;
+  private final BlockingQueue<List<ConsumerRecord<String, String>>> batches =
+      new LinkedBlockingQueue<>();
+  private final Map<TopicPartition, Long> processedOffsets = new ConcurrentHashMap<>();
+  private final AtomicLong pendingRecords = new AtomicLong();
+  private final AtomicLong processedRecords = new AtomicLong();
+  private volatile Exception error;
+  private volatile boolean stopped;
+  private Thread thread;
+
+  public KafkaConsumerWorker(String name, IBatchProcessor processor) {
+    this.name = name;
+    this.processor = processor;
+  }
+
+  public void start() {
+    thread = new Thread(this, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Queue a batch of records to process. All records of a partition need to be submitted to the
+   * same worker.
+   *
+   * @param records The records to process, in offset order per partition
+   */
+  public void submit(List<ConsumerRecord<String, String>> records) {
+    pendingRecords.addAndGet(records.size());
+    batches.add(records);
+  }
+
+  @Override
+  public void run() {
+    while (!stopped) {
+      List<ConsumerRecord<String, String>> batch;
+      try {
+        batch = batches.poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (batch == null) {
+        continue;
+      }
+      try {
+        if (error == null) {
+          processor.process(batch);
+          for (ConsumerRecord<String, String> record : batch) {
+            processedOffsets.put(
+                new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
+          }
+          processedRecords.addAndGet(batch.size());
+        }
+      } catch (Exception e) {
+        // Stop processing: the offsets of this batch and the next ones are not committed
+        //
+        error = e;
+      } finally {
+        synchronized (this) {
+          pendingRecords.addAndGet(-batch.size());
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Wait until all the submitted records are processed or until processing failed.
+   *
+   * @throws InterruptedException
+   */
+  public synchronized void drain() throws InterruptedException {
+    while (pendingRecords.get() > 0 && error == null && !stopped) {
+      wait(100);
+    }
+  }
+
+  /**
+   * Take the offsets to commit for the records processed since the last call.
+   *
+   * @return The next offset to read per partition
+   */
+  public Map<TopicPartition, OffsetAndMetadata> takeProcessedOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (Map.Entry<TopicPartition, Long> entry : processedOffsets.entrySet()) {
+      // Only remove the offset if no newer one was stored in the meantime
+      //
+      if (processedOffsets.remove(entry.getKey(), entry.getValue())) {
+        offsets.put(entry.getKey(), new OffsetAndMetadata(entry.getValue()));
+      }
+    }
+    return offsets;
+  }
+
+  /** Forget about the offsets of partitions which are no longer assigned to this consumer */
+  public void clearProcessedOffsets() {
+    processedOffsets.clear();
+  }
+
+  public void stop() {
+    stopped = true;
+    batches.clear();
+    if (thread != null) {
+      try {
+        thread.join(5000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** @return The number of records submitted but not processed yet */
+  public long getPendingRecords() {
+    return pendingRecords.get();
+  }
+
+  /** @return The total number of records processed */
+  public long getProcessedRecords() {
+    return processedRecords.get();
+  }
+
+  /** @return The error which stopped the processing or null if there was none */
+  public Exception getError() {
+    return error;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
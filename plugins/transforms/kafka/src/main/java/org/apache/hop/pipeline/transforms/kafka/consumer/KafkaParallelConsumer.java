@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spreads the partitions assigned to a consumer over a number of workers which process the
+ * records at the same time. The consumer itself is only used from the thread calling {@link
+ * #poll(long)}, as required by Kafka.
+ *
+ * <p>A partition is always handled by the same worker so the records of a partition are processed
+ * in order. The offsets of the processed records are committed asynchronously with the next poll.
+ * When a worker falls behind, its partitions are paused until it catches up. On a rebalance the
+ * workers finish their records and the offsets are committed before the partitions are given up.
+ */
+public class KafkaParallelConsumer implements ConsumerRebalanceListener {
+
+  private static final Class<?> PKG = KafkaConsumerInputMeta.class; // For Translator
+
+  private final Consumer<String, String> consumer;
+  private final List<KafkaConsumerWorker> workers;
+  private final long maxPendingRecords;
+  private final ILogChannel log;
+
+  private final Map<TopicPartition, KafkaConsumerWorker> partitionWorkers = new HashMap<>();
+  private final Set<TopicPartition> pausedPartitions = new HashSet<>();
+
+  /**
+   * @param consumer The consumer to read records from
+   * @param workers The started workers to process the records with
+   * @param maxPendingRecords The number of records a worker can have waiting before its
+   *     partitions are paused
+   * @param log The log channel to report commit failures to
+   */
+  public KafkaParallelConsumer(
+      Consumer<String, String> consumer,
+      List<KafkaConsumerWorker> workers,
+      long maxPendingRecords,
+      ILogChannel log) {
+    this.consumer = consumer;
+    this.workers = workers;
+    this.maxPendingRecords = Math.max(1, maxPendingRecords);
+    this.log = log;
+  }
+
+  /**
+   * Commit the offsets of the processed records, poll for new records and hand them to the
+   * workers.
+   *
+   * @param timeout The maximum time to wait for records in ms
+   * @return The number of records read
+   * @throws HopException In case a worker failed to process its records
+   */
+  public int poll(long timeout) throws HopException {
+    checkWorkers();
+    commitAsync();
+    pauseBusyWorkers();
+
+    ConsumerRecords<String, String> records = consumer.poll(timeout);
+    if (records.isEmpty()) {
+      return 0;
+    }
+
+    // The records are grouped per partition in offset order, keep that order per worker
+    //
+    Map<KafkaConsumerWorker, List<ConsumerRecord<String, String>>> batches = new LinkedHashMap<>();
+    for (ConsumerRecord<String, String> record : records) {
+      KafkaConsumerWorker worker =
+          getWorker(new TopicPartition(record.topic(), record.partition()));
+      batches.computeIfAbsent(worker, w -> new ArrayList<>()).add(record);
+    }
+    batches.forEach(KafkaConsumerWorker::submit);
+
+    return records.count();
+  }
+
+  /**
+   * @param partition The partition
+   * @return The worker processing the records of the partition. A new partition is given to the
+   *     worker with the least partitions.
+   */
+  public KafkaConsumerWorker getWorker(TopicPartition partition) {
+    KafkaConsumerWorker worker = partitionWorkers.get(partition);
+    if (worker == null) {
+      Map<KafkaConsumerWorker, Integer> counts = new HashMap<>();
+      workers.forEach(w -> counts.put(w, 0));
+      partitionWorkers.values().forEach(w -> counts.merge(w, 1, Integer::sum));
+      worker = workers.stream().min(Comparator.comparingInt(counts::get)).get();
+      partitionWorkers.put(partition, worker);
+    }
+    return worker;
+  }
+
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    // Finish what was read so far and commit it before somebody else gets the partitions
+    //
+    try {
+      for (KafkaConsumerWorker worker : workers) {
+        worker.drain();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    commitSync();
+
+    workers.forEach(KafkaConsumerWorker::clearProcessedOffsets);
+    partitionWorkers.clear();
+    pausedPartitions.clear();
+  }
+
+  @Override
+  public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+    // Spread the partitions evenly in a predictable way
+    //
+    List<TopicPartition> sorted = new ArrayList<>(partitions);
+    sorted.sort(
+        Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition));
+    sorted.forEach(this::getWorker);
+  }
+
+  /**
+   * Stop the workers and commit the offsets of the records they processed. The records which were
+   * read but not processed yet are read again by the next consumer of their partition.
+   */
+  public void close() {
+    workers.forEach(KafkaConsumerWorker::stop);
+    commitSync();
+  }
+
+  private void checkWorkers() throws HopException {
+    for (KafkaConsumerWorker worker : workers) {
+      if (worker.getError() != null) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "KafkaConsumerInput.Error.Worker", worker.getName()),
+            worker.getError());
+      }
+    }
+  }
+
+  private Map<TopicPartition, OffsetAndMetadata> takeProcessedOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    workers.forEach(worker -> offsets.putAll(worker.takeProcessedOffsets()));
+    return offsets;
+  }
+
+  private void commitAsync() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = takeProcessedOffsets();
+    if (!offsets.isEmpty()) {
+      consumer.commitAsync(
+          offsets,
+          (committed, e) -> {
+            if (e != null) {
+              log.logError(
+                  BaseMessages.getString(PKG, "KafkaConsumerInput.Log.CommitFailed", committed), e);
+            }
+          });
+    }
+  }
+
+  private void commitSync() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = takeProcessedOffsets();
+    if (!offsets.isEmpty()) {
+      try {
+        consumer.commitSync(offsets);
+      } catch (RuntimeException e) {
+        log.logError(
+            BaseMessages.getString(PKG, "KafkaConsumerInput.Log.CommitFailed", offsets), e);
+      }
+    }
+  }
+
+  private void pauseBusyWorkers() {
+    List<TopicPartition> pause = new ArrayList<>();
+    List<TopicPartition> resume = new ArrayList<>();
+    for (TopicPartition partition : consumer.assignment()) {
+      KafkaConsumerWorker worker = partitionWorkers.get(partition);
+      boolean busy = worker != null && worker.getPendingRecords() >= maxPendingRecords;
+      if (busy && pausedPartitions.add(partition)) {
+        pause.add(partition);
+      } else if (!busy && pausedPartitions.remove(partition)) {
+        resume.add(partition);
+      }
+    }
+    if (!pause.isEmpty()) {
+      consumer.pause(pause);
+    }
+    if (!resume.isEmpty()) {
+      consumer.resume(resume);
+    }
+  }
+
+  /** @return The number of records read but not processed yet */
+  public long getPendingRecords() {
+    return workers.stream().mapToLong(KafkaConsumerWorker::getPendingRecords).sum();
+  }
+
+  /** @return The number of records processed by all workers */
+  public long getProcessedRecords() {
+    return workers.stream().mapToLong(KafkaConsumerWorker::getProcessedRecords).sum();
+  }
+
+  /** @return The partitions which are paused because their worker is busy */
+  public Set<TopicPartition> getPausedPartitions() {
+    return pausedPartitions;
+  }
+}
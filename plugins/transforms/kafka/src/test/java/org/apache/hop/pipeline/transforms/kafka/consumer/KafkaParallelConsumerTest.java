@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class KafkaParallelConsumerTest {
+
+  private static final String TOPIC = "topic";
+
+  private final TopicPartition partition0 = new TopicPartition(TOPIC, 0);
+  private final TopicPartition partition1 = new TopicPartition(TOPIC, 1);
+
+  private MockConsumer<String, String> consumer;
+  private List<KafkaConsumerWorker> workers;
+
+  @Before
+  public void setUp() {
+    consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    consumer.assign(Arrays.asList(partition0, partition1));
+    Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+    beginningOffsets.put(partition0, 0L);
+    beginningOffsets.put(partition1, 0L);
+    consumer.updateBeginningOffsets(beginningOffsets);
+  }
+
+  @After
+  public void tearDown() {
+    if (workers != null) {
+      workers.forEach(KafkaConsumerWorker::stop);
+    }
+  }
+
+  @Test
+  public void testPartitionsKeepTheirOrderAndOffsetsAreCommitted() throws Exception {
+    Map<String, List<Long>> processed = Collections.synchronizedMap(new HashMap<>());
+    workers = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      workers.add(
+          new KafkaConsumerWorker(
+              "worker-" + i,
+              records -> {
+                for (ConsumerRecord<String, String> record : records) {
+                  processed
+                      .computeIfAbsent(record.key(), k -> new ArrayList<>())
+                      .add(record.offset());
+                }
+              }));
+    }
+    workers.forEach(KafkaConsumerWorker::start);
+    KafkaParallelConsumer parallelConsumer =
+        new KafkaParallelConsumer(consumer, workers, 1000, mock(ILogChannel.class));
+    parallelConsumer.onPartitionsAssigned(Arrays.asList(partition1, partition0));
+
+    // Every partition has a worker of its own
+    //
+    assertNotSame(parallelConsumer.getWorker(partition0), parallelConsumer.getWorker(partition1));
+
+    for (long offset = 0; offset < 10; offset++) {
+      consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, offset, "p0", "value"));
+      consumer.addRecord(new ConsumerRecord<>(TOPIC, 1, offset, "p1", "value"));
+    }
+    assertEquals(20, parallelConsumer.poll(0));
+
+    for (KafkaConsumerWorker worker : workers) {
+      worker.drain();
+    }
+    assertEquals(20, parallelConsumer.getProcessedRecords());
+    assertEquals(0, parallelConsumer.getPendingRecords());
+    assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), processed.get("p0"));
+    assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), processed.get("p1"));
+
+    // The offsets are committed with the next poll
+    //
+    parallelConsumer.poll(0);
+    assertEquals(10L, consumer.committed(partition0).offset());
+    assertEquals(10L, consumer.committed(partition1).offset());
+  }
+
+  @Test
+  public void testBusyWorkerIsPaused() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    workers = new ArrayList<>();
+    workers.add(new KafkaConsumerWorker("slow", records -> await(release)));
+    workers.add(new KafkaConsumerWorker("fast", records -> {}));
+    workers.forEach(KafkaConsumerWorker::start);
+
+    KafkaParallelConsumer parallelConsumer =
+        new KafkaParallelConsumer(consumer, workers, 5, mock(ILogChannel.class));
+    parallelConsumer.onPartitionsAssigned(Arrays.asList(partition0, partition1));
+    assertSame(workers.get(0), parallelConsumer.getWorker(partition0));
+
+    for (long offset = 0; offset < 10; offset++) {
+      consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, offset, "p0", "value"));
+    }
+    parallelConsumer.poll(0);
+
+    // The slow worker has too many records waiting, its partition is paused with the next poll
+    //
+    parallelConsumer.poll(0);
+    assertEquals(Collections.singleton(partition0), parallelConsumer.getPausedPartitions());
+    assertTrue(consumer.paused().contains(partition0));
+
+    release.countDown();
+    workers.get(0).drain();
+    parallelConsumer.poll(0);
+    assertTrue(parallelConsumer.getPausedPartitions().isEmpty());
+    assertTrue(consumer.paused().isEmpty());
+    assertEquals(10L, consumer.committed(partition0).offset());
+  }
+
+  @Test
+  public void testFailedWorkerStopsConsumer() throws Exception {
+    workers = new ArrayList<>();
+    workers.add(
+        new KafkaConsumerWorker(
+            "failing",
+            records -> {
+              throw new HopException("Sub-pipeline failed");
+            }));
+    workers.add(new KafkaConsumerWorker("working", records -> {}));
+    workers.forEach(KafkaConsumerWorker::start);
+
+    KafkaParallelConsumer parallelConsumer =
+        new KafkaParallelConsumer(consumer, workers, 1000, mock(ILogChannel.class));
+    parallelConsumer.onPartitionsAssigned(Arrays.asList(partition0, partition1));
+
+    for (long offset = 0; offset < 5; offset++) {
+      consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, offset, "p0", "value"));
+      consumer.addRecord(new ConsumerRecord<>(TOPIC, 1, offset, "p1", "value"));
+    }
+    parallelConsumer.poll(0);
+    for (KafkaConsumerWorker worker : workers) {
+      worker.drain();
+    }
+
+    // The error is reported with the next poll
+    //
+    try {
+      parallelConsumer.poll(0);
+      fail("The failure of the worker should be reported");
+    } catch (HopException e) {
+      assertSame(workers.get(0).getError(), e.getCause());
+    }
+
+    // Only the records which were processed are committed
+    //
+    parallelConsumer.close();
+    assertNull(consumer.committed(partition0));
+    assertEquals(5L, consumer.committed(partition1).offset());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
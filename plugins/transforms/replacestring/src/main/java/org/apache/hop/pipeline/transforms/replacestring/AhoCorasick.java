@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.replacestring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton which finds a set of literal strings in a text in a single scan.
+ * <p>
+ * Matches are found the way a regular expression alternation of the same strings would find them: the leftmost match
+ * first and of the strings matching at the same position, the first one in the list. Case insensitive matching
+ * follows the rules of {@link java.util.regex.Pattern#CASE_INSENSITIVE}: US-ASCII only, unless unicode case folding
+ * is asked for.
+ */
+public class AhoCorasick {
+
+  private final int[] lengths;
+  private final int maxLength;
+  private final boolean caseInsensitive;
+  private final boolean unicodeCase;
+
+  /** The transitions of every node, sorted on the character */
+  private final char[][] keys;
+  private final int[][] targets;
+  private final int[] fail;
+
+  /** The indexes of the strings which end in every node, including the ones reached over the fail links */
+  private final int[][] outputs;
+
+  /**
+   * @param strings         The strings to find, none of them empty
+   * @param caseInsensitive Ignore the case of the characters
+   * @param unicodeCase     Fold the case of all unicode characters, not just US-ASCII
+   */
+  public AhoCorasick( String[] strings, boolean caseInsensitive, boolean unicodeCase ) {
+    this.caseInsensitive = caseInsensitive;
+    this.unicodeCase = unicodeCase;
+    this.lengths = new int[ strings.length ];
+
+    // Build the trie
+    //
+    List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+    List<List<Integer>> ends = new ArrayList<>();
+    trie.add( new TreeMap<>() );
+    ends.add( new ArrayList<>() );
+    int max = 0;
+    for ( int s = 0; s < strings.length; s++ ) {
+      String string = strings[ s ];
+      if ( string.isEmpty() ) {
+        throw new IllegalArgumentException( "Unable to search for an empty string" );
+      }
+      int node = 0;
+      for ( int i = 0; i < string.length(); i++ ) {
+        char c = fold( string.charAt( i ) );
+        Integer next = trie.get( node ).get( c );
+        if ( next == null ) {
+          next = trie.size();
+          trie.add( new TreeMap<>() );
+          ends.add( new ArrayList<>() );
+          trie.get( node ).put( c, next );
+        }
+        node = next;
+      }
+      ends.get( node ).add( s );
+      lengths[ s ] = string.length();
+      max = Math.max( max, string.length() );
+    }
+    this.maxLength = max;
+
+    int nrNodes = trie.size();
+    keys = new char[ nrNodes ][];
+    targets = new int[ nrNodes ][];
+    for ( int node = 0; node < nrNodes; node++ ) {
+      TreeMap<Character, Integer> transitions = trie.get( node );
+      keys[ node ] = new char[ transitions.size() ];
+      targets[ node ] = new int[ transitions.size() ];
+      int t = 0;
+      for ( Character c : transitions.keySet() ) {
+        keys[ node ][ t ] = c;
+        targets[ node ][ t++ ] = transitions.get( c );
+      }
+    }
+
+    // Breadth first: the fail link of a node points to the longest proper suffix which is also in the trie
+    //
+    fail = new int[ nrNodes ];
+    outputs = new int[ nrNodes ][];
+    outputs[ 0 ] = new int[ 0 ];
+    Deque<Integer> queue = new ArrayDeque<>();
+    for ( int child : targets[ 0 ] ) {
+      fail[ child ] = 0;
+      queue.add( child );
+    }
+    while ( !queue.isEmpty() ) {
+      int node = queue.poll();
+      int[] inherited = outputs[ fail[ node ] ];
+      int[] own = new int[ ends.get( node ).size() + inherited.length ];
+      for ( int i = 0; i < ends.get( node ).size(); i++ ) {
+        own[ i ] = ends.get( node ).get( i );
+      }
+      System.arraycopy( inherited, 0, own, ends.get( node ).size(), inherited.length );
+      outputs[ node ] = own;
+
+      for ( int t = 0; t < keys[ node ].length; t++ ) {
+        int child = targets[ node ][ t ];
+        fail[ child ] = node == 0 ? 0 : step( fail[ node ], keys[ node ][ t ] );
+        queue.add( child );
+      }
+    }
+  }
+
+  /**
+   * Find the first match in the text from the given position.
+   *
+   * @param text The text to search
+   * @param from The position to start searching from
+   * @param match Receives the index of the string found
+   * @return The start position of the match or -1 if there is none
+   */
+  public int find( CharSequence text, int from, int[] match ) {
+    int state = 0;
+    int bestStart = -1;
+    int bestString = -1;
+    int length = text.length();
+    for ( int i = from; i < length; i++ ) {
+      // No string starting at or before the best start can end beyond this point
+      if ( bestStart >= 0 && i >= bestStart + maxLength ) {
+        break;
+      }
+      state = step( state, fold( text.charAt( i ) ) );
+      for ( int s : outputs[ state ] ) {
+        int start = i - lengths[ s ] + 1;
+        if ( bestStart < 0 || start < bestStart || ( start == bestStart && s < bestString ) ) {
+          bestStart = start;
+          bestString = s;
+        }
+      }
+    }
+    match[ 0 ] = bestString;
+    return bestStart;
+  }
+
+  /**
+   * @return The length of the string with the given index
+   */
+  public int getLength( int index ) {
+    return lengths[ index ];
+  }
+
+  private int step( int state, char c ) {
+    while ( true ) {
+      int t = Arrays.binarySearch( keys[ state ], c );
+      if ( t >= 0 ) {
+        return targets[ state ][ t ];
+      }
+      if ( state == 0 ) {
+        return 0;
+      }
+      state = fail[ state ];
+    }
+  }
+
+  private char fold( char c ) {
+    if ( !caseInsensitive ) {
+      return c;
+    }
+    if ( unicodeCase ) {
+      return Character.toLowerCase( Character.toUpperCase( c ) );
+    }
+    return c >= 'A' && c <= 'Z' ? (char) ( c + ( 'a' - 'A' ) ) : c;
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.replacestring;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the replacements of a group of rules on the same field in a single pass over the string, instead of a
+ * pass per rule.
+ * <p>
+ * The rules behave as one regular expression alternation of their patterns, in the order of the rules: at every
+ * position the first rule which matches is applied and the search continues after the replaced text. Unlike the
+ * rule by rule replacement, a rule never sees the result of the rules before it.
+ * <p>
+ * Literal rules are searched for with an Aho-Corasick automaton, regular expressions are combined in a single
+ * pattern.
+ */
+public class MultiPatternReplacer {
+
+  private final AhoCorasick automaton;
+  private final Pattern pattern;
+  private final int[] groupNrs;
+  private final String[] replacements;
+
+  private MultiPatternReplacer( AhoCorasick automaton, Pattern pattern, int[] groupNrs, String[] replacements ) {
+    this.automaton = automaton;
+    this.pattern = pattern;
+    this.groupNrs = groupNrs;
+    this.replacements = replacements;
+  }
+
+  /**
+   * Combine literal rules.
+   *
+   * @param strings         The literal strings to replace, none of them empty
+   * @param replacements    The replacement of every string
+   * @param caseInsensitive Ignore the case of the characters
+   * @param unicodeCase     Fold the case of all unicode characters, not just US-ASCII
+   * @return The replacer
+   */
+  public static MultiPatternReplacer literal( String[] strings, String[] replacements, boolean caseInsensitive,
+                                              boolean unicodeCase ) {
+    return new MultiPatternReplacer( new AhoCorasick( strings, caseInsensitive, unicodeCase ), null, null,
+      replacements );
+  }
+
+  /**
+   * Combine regular expression rules. Every pattern is wrapped in a named group, its flags are set inline.
+   *
+   * @param patterns     The compiled patterns of the rules
+   * @param replacements The replacement of every pattern, without group references
+   * @return The replacer or null if the patterns can't be combined
+   */
+  public static MultiPatternReplacer regex( Pattern[] patterns, String[] replacements ) {
+    StringBuilder combined = new StringBuilder();
+    int[] groupNrs = new int[ patterns.length ];
+    int groupNr = 1;
+    for ( int i = 0; i < patterns.length; i++ ) {
+      if ( !isCombinable( patterns[ i ] ) ) {
+        return null;
+      }
+      if ( i > 0 ) {
+        combined.append( '|' );
+      }
+      combined.append( "(?<hoprule" ).append( i ).append( ">(?" );
+      if ( ( patterns[ i ].flags() & Pattern.CASE_INSENSITIVE ) != 0 ) {
+        combined.append( 'i' );
+      }
+      if ( ( patterns[ i ].flags() & Pattern.UNICODE_CHARACTER_CLASS ) != 0 ) {
+        combined.append( 'U' );
+      }
+      combined.append( ':' ).append( patterns[ i ].pattern() ).append( "))" );
+
+      groupNrs[ i ] = groupNr;
+      groupNr += 1 + patterns[ i ].matcher( "" ).groupCount();
+    }
+
+    Pattern pattern;
+    try {
+      pattern = Pattern.compile( combined.toString() );
+    } catch ( IllegalArgumentException e ) {
+      return null;
+    }
+    // A pattern which swallowed the groups around it, with an open \Q for example, would change the group count
+    if ( pattern.matcher( "" ).groupCount() != groupNr - 1 ) {
+      return null;
+    }
+    return new MultiPatternReplacer( null, pattern, groupNrs, replacements );
+  }
+
+  /**
+   * Only patterns with the flags the rules use and without comments or back references to their own groups can be
+   * combined.
+   */
+  private static boolean isCombinable( Pattern pattern ) {
+    if ( ( pattern.flags() & ~( Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CHARACTER_CLASS ) ) != 0 ) {
+      return false;
+    }
+    String regex = pattern.pattern();
+    if ( regex.isEmpty() || regex.indexOf( '#' ) >= 0 || regex.contains( "\\k<" ) ) {
+      return false;
+    }
+    for ( int i = 0; i < regex.length() - 1; i++ ) {
+      if ( regex.charAt( i ) == '\\' ) {
+        if ( Character.isDigit( regex.charAt( i + 1 ) ) ) {
+          return false;
+        }
+        i++;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the replacement can be used as is, without group references or escapes
+   */
+  public static boolean isPlainReplacement( String replacement ) {
+    return replacement != null && replacement.indexOf( '$' ) < 0 && replacement.indexOf( '\\' ) < 0;
+  }
+
+  /**
+   * Apply all the rules in a single pass.
+   *
+   * @param value The string to replace in, may be null
+   * @return The string with all the replacements
+   */
+  public String replace( String value ) {
+    if ( value == null ) {
+      return null;
+    }
+    if ( automaton != null ) {
+      return replaceLiterals( value );
+    }
+    return replaceRegex( value );
+  }
+
+  private String replaceLiterals( String value ) {
+    int[] match = new int[ 1 ];
+    int start = automaton.find( value, 0, match );
+    if ( start < 0 ) {
+      return value;
+    }
+    StringBuilder result = new StringBuilder( value.length() + 16 );
+    int position = 0;
+    while ( start >= 0 ) {
+      result.append( value, position, start ).append( replacements[ match[ 0 ] ] );
+      position = start + automaton.getLength( match[ 0 ] );
+      start = automaton.find( value, position, match );
+    }
+    result.append( value, position, value.length() );
+    return result.toString();
+  }
+
+  private String replaceRegex( String value ) {
+    Matcher matcher = pattern.matcher( value );
+    if ( !matcher.find() ) {
+      return value;
+    }
+    StringBuffer result = new StringBuffer( value.length() + 16 );
+    do {
+      int rule = 0;
+      while ( rule < groupNrs.length - 1 && matcher.start( groupNrs[ rule ] ) < 0 ) {
+        rule++;
+      }
+      matcher.appendReplacement( result, replacements[ rule ] );
+    } while ( matcher.find() );
+    matcher.appendTail( result );
+    return result.toString();
+  }
+}
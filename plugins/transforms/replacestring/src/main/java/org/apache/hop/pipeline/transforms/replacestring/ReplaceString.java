@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.replacestring;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -120,9 +121,16 @@ public class ReplaceString extends BaseTransform<ReplaceStringMeta, ReplaceStrin
 
       IRowMeta currentRowMeta =
         ( numFieldsAlreadyBeenTransformed.contains( data.inStreamNrs[ i ] ) ) ? data.outputRowMeta : getInputRowMeta();
-      String value =
-        replaceString( currentRowMeta.getString( rowData, data.inStreamNrs[ i ] ), data.patterns[ i ],
-          getResolvedReplaceByString( i, row ) );
+      String value;
+      if ( data.replacers != null && data.replacers[ i ] != null ) {
+        // All the rules of the group in a single pass
+        value = data.replacers[ i ].replace( currentRowMeta.getString( rowData, data.inStreamNrs[ i ] ) );
+        i = data.groupEnds[ i ] - 1;
+      } else {
+        value =
+          replaceString( currentRowMeta.getString( rowData, data.inStreamNrs[ i ] ), data.patterns[ i ],
+            getResolvedReplaceByString( i, row ) );
+      }
 
       if ( Utils.isEmpty( data.outStreamNrs[ i ] ) ) {
         // update field value
@@ -198,6 +206,10 @@ public class ReplaceString extends BaseTransform<ReplaceStringMeta, ReplaceStrin
         data.setEmptyString[ i ] = meta.isSetEmptyString()[ i ];
 
       }
+
+      if ( meta.isMultiPattern() ) {
+        groupRules();
+      }
     } // end if first
 
     try {
@@ -229,6 +241,77 @@ public class ReplaceString extends BaseTransform<ReplaceStringMeta, ReplaceStrin
     return true;
   }
 
+  /**
+   * Group the consecutive rules which replace in the same field by a fixed string, so that they can be applied in a
+   * single pass. Literal rules with the same case sensitivity are searched for with an Aho-Corasick automaton, the
+   * other ones are combined in a single regular expression.
+   */
+  private void groupRules() {
+    data.replacers = new MultiPatternReplacer[ data.numFields ];
+    data.groupEnds = new int[ data.numFields ];
+    int nrGroups = 0;
+    int start = 0;
+    while ( start < data.numFields ) {
+      String kind = getGroupKind( start );
+      int end = start + 1;
+      if ( kind != null ) {
+        while ( end < data.numFields && kind.equals( getGroupKind( end ) )
+          && data.inStreamNrs[ end ] == data.inStreamNrs[ start ] ) {
+          end++;
+        }
+      }
+      if ( end - start > 1 ) {
+        String[] replacements = new String[ end - start ];
+        for ( int i = start; i < end; i++ ) {
+          replacements[ i - start ] = data.setEmptyString[ i ] ? StringUtil.EMPTY_STRING : data.replaceByString[ i ];
+        }
+        MultiPatternReplacer replacer;
+        if ( kind.startsWith( "literal" ) ) {
+          String[] strings = new String[ end - start ];
+          for ( int i = start; i < end; i++ ) {
+            strings[ i - start ] = data.patterns[ i ].pattern();
+          }
+          replacer = MultiPatternReplacer.literal( strings, replacements,
+            meta.getCaseSensitive()[ start ] != ReplaceStringMeta.CASE_SENSITIVE_YES,
+            meta.isUnicode()[ start ] == ReplaceStringMeta.IS_UNICODE_YES );
+        } else {
+          replacer = MultiPatternReplacer.regex( Arrays.copyOfRange( data.patterns, start, end ), replacements );
+        }
+        if ( replacer != null ) {
+          data.replacers[ start ] = replacer;
+          data.groupEnds[ start ] = end;
+          nrGroups++;
+        } else {
+          end = start + 1;
+        }
+      }
+      start = end;
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "ReplaceString.Log.RuleGroups", data.numFields, nrGroups ) );
+    }
+  }
+
+  /**
+   * @return The kind of group the rule can be part of or null if it has to be applied on its own
+   */
+  private String getGroupKind( int i ) {
+    if ( !Utils.isEmpty( data.outStreamNrs[ i ] ) || data.replaceFieldIndex[ i ] >= 0 ) {
+      return null;
+    }
+    String replacement = data.setEmptyString[ i ] ? StringUtil.EMPTY_STRING : data.replaceByString[ i ];
+    if ( !MultiPatternReplacer.isPlainReplacement( replacement ) || Utils.isEmpty( data.patterns[ i ].pattern() ) ) {
+      return null;
+    }
+    if ( ( data.patterns[ i ].flags() & Pattern.LITERAL ) != 0 ) {
+      if ( meta.getCaseSensitive()[ i ] == ReplaceStringMeta.CASE_SENSITIVE_YES ) {
+        return "literal";
+      }
+      return meta.isUnicode()[ i ] == ReplaceStringMeta.IS_UNICODE_YES ? "literal-unicode-nocase" : "literal-nocase";
+    }
+    return "regex";
+  }
+
   public boolean init() {
     return super.init() ;
   }
@@ -237,6 +320,7 @@ public class ReplaceString extends BaseTransform<ReplaceStringMeta, ReplaceStrin
 
     data.outStreamNrs = null;
     data.patterns = null;
+    data.replacers = null;
     data.replaceByString = null;
     data.replaceString = null;
     data.valueChange = null;
@@ -63,6 +63,16 @@ public class ReplaceStringData extends BaseTransformData implements ITransformDa
 
   public int numFields;
 
+  /**
+   * The replacer of a group of rules applied in a single pass, set at the first rule of the group
+   */
+  public MultiPatternReplacer[] replacers;
+
+  /**
+   * The index after the last rule of the group starting at a rule
+   */
+  public int[] groupEnds;
+
   /**
    * Default constructor.
    */
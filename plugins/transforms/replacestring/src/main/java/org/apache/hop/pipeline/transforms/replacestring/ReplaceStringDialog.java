@@ -55,6 +55,8 @@ public class ReplaceStringDialog extends BaseTransformDialog implements ITransfo
 
   private TableView wFields;
 
+  private Button wMultiPattern;
+
   private final ReplaceStringMeta input;
 
   private final Map<String, Integer> inputFields;
@@ -119,6 +121,25 @@ public class ReplaceStringDialog extends BaseTransformDialog implements ITransfo
     wGet.addListener( SWT.Selection, e -> get() );
     setButtonPositions( new Button[] { wOk, wGet, wCancel }, margin, null );
 
+    // Apply the rules in a single pass?
+    Label wlMultiPattern = new Label( shell, SWT.RIGHT );
+    wlMultiPattern.setText( BaseMessages.getString( PKG, "ReplaceStringDialog.MultiPattern.Label" ) );
+    wlMultiPattern.setToolTipText( BaseMessages.getString( PKG, "ReplaceStringDialog.MultiPattern.Tooltip" ) );
+    props.setLook( wlMultiPattern );
+    FormData fdlMultiPattern = new FormData();
+    fdlMultiPattern.left = new FormAttachment( 0, 0 );
+    fdlMultiPattern.right = new FormAttachment( middle, -margin );
+    fdlMultiPattern.bottom = new FormAttachment( wOk, -2 * margin );
+    wlMultiPattern.setLayoutData( fdlMultiPattern );
+    wMultiPattern = new Button( shell, SWT.CHECK );
+    wMultiPattern.setToolTipText( BaseMessages.getString( PKG, "ReplaceStringDialog.MultiPattern.Tooltip" ) );
+    props.setLook( wMultiPattern );
+    wMultiPattern.addListener( SWT.Selection, e -> input.setChanged() );
+    FormData fdMultiPattern = new FormData();
+    fdMultiPattern.left = new FormAttachment( middle, 0 );
+    fdMultiPattern.top = new FormAttachment( wlMultiPattern, 0, SWT.CENTER );
+    wMultiPattern.setLayoutData( fdMultiPattern );
+
     Label wlKey = new Label(shell, SWT.NONE);
     wlKey.setText( BaseMessages.getString( PKG, "ReplaceStringDialog.Fields.Label" ) );
     props.setLook(wlKey);
@@ -189,7 +210,7 @@ public class ReplaceStringDialog extends BaseTransformDialog implements ITransfo
     fdKey.left = new FormAttachment( 0, 0 );
     fdKey.top = new FormAttachment(wlKey, margin );
     fdKey.right = new FormAttachment( 100, -margin );
-    fdKey.bottom = new FormAttachment( wOk, -2*margin );
+    fdKey.bottom = new FormAttachment( wlMultiPattern, -2*margin );
     wFields.setLayoutData(fdKey);
 
     //
@@ -306,6 +327,7 @@ public class ReplaceStringDialog extends BaseTransformDialog implements ITransfo
 
     wFields.setRowNums();
     wFields.optWidth( true );
+    wMultiPattern.setSelection( input.isMultiPattern() );
 
     wTransformName.selectAll();
     wTransformName.setFocus();
@@ -349,6 +371,8 @@ public class ReplaceStringDialog extends BaseTransformDialog implements ITransfo
       inf.isUnicode()[ i ] = ReplaceStringMeta.getIsUnicodeByDesc( item.getText( 10 ) );
     }
 
+    inf.setMultiPattern( wMultiPattern.getSelection() );
+
     transformName = wTransformName.getText(); // return value
   }
 
@@ -93,6 +93,10 @@ public class ReplaceStringMeta extends BaseTransformMeta
   @Injection(name = "IS_UNICODE", group = "FIELDS")
   private int[] isUnicode;
 
+  /** Apply the consecutive rules on the same field in a single pass over the string */
+  @Injection(name = "MULTI_PATTERN")
+  private boolean multiPattern;
+
   protected static final String[] caseSensitiveCode = {"no", "yes"};
 
   protected static final String[] isUnicodeCode = {"no", "yes"};
@@ -236,6 +240,16 @@ public class ReplaceStringMeta extends BaseTransformMeta
     readData(transformNode, metadataProvider);
   }
 
+  /** @return true if the consecutive rules on the same field are applied in a single pass */
+  public boolean isMultiPattern() {
+    return multiPattern;
+  }
+
+  /** @param multiPattern true to apply the consecutive rules on the same field in a single pass */
+  public void setMultiPattern(boolean multiPattern) {
+    this.multiPattern = multiPattern;
+  }
+
   public void allocate(int nrkeys) {
     fieldInStream = new String[nrkeys];
     fieldOutStream = new String[nrkeys];
@@ -283,6 +297,8 @@ public class ReplaceStringMeta extends BaseTransformMeta
     try {
       int nrkeys;
 
+      multiPattern = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "multi_pattern"));
+
       Node lookup = XmlHandler.getSubNode(transformNode, "fields");
       nrkeys = XmlHandler.countNodes(lookup, "field");
 
@@ -334,6 +350,7 @@ public class ReplaceStringMeta extends BaseTransformMeta
     fieldInStream = null;
     fieldOutStream = null;
     int nrkeys = 0;
+    multiPattern = false;
 
     allocate(nrkeys);
   }
@@ -341,6 +358,7 @@ public class ReplaceStringMeta extends BaseTransformMeta
   public String getXml() {
     StringBuilder retval = new StringBuilder(500);
 
+    retval.append("    ").append(XmlHandler.addTagValue("multi_pattern", multiPattern));
     retval.append("    <fields>").append(Const.CR);
 
     for (int i = 0; i < fieldInStream.length; i++) {
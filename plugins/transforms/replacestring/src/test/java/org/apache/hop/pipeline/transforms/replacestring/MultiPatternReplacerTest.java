@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.replacestring;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MultiPatternReplacerTest {
+
+  @Test
+  public void testLiteralRules() {
+    MultiPatternReplacer replacer = MultiPatternReplacer.literal(
+      new String[] { "Street", "St", "Avenue", "Ave" }, new String[] { "ST", "ST", "AV", "AV" }, false, false );
+    assertEquals( "12 Main ST, 3 Park AV", replacer.replace( "12 Main Street, 3 Park Avenue" ) );
+    assertEquals( "12 Main ST", replacer.replace( "12 Main St" ) );
+    assertEquals( "nothing to do", replacer.replace( "nothing to do" ) );
+    assertEquals( "", replacer.replace( "" ) );
+    assertNull( replacer.replace( null ) );
+  }
+
+  @Test
+  public void testFirstRuleWinsAtTheSamePosition() {
+    // The rules don't see each others results and the first rule matching at a position is applied
+    MultiPatternReplacer replacer =
+      MultiPatternReplacer.literal( new String[] { "ab", "abc", "b" }, new String[] { "1", "2", "3" }, false, false );
+    assertEquals( "1c", replacer.replace( "abc" ) );
+    assertEquals( "x3c1", replacer.replace( "xbcab" ) );
+  }
+
+  @Test
+  public void testCaseInsensitiveLiterals() {
+    MultiPatternReplacer ascii =
+      MultiPatternReplacer.literal( new String[] { "straße", "road" }, new String[] { "STR", "RD" }, true, false );
+    assertEquals( "RD STR STRASSE", ascii.replace( "ROAD STRAßE STRASSE" ) );
+
+    MultiPatternReplacer unicode =
+      MultiPatternReplacer.literal( new String[] { "élan" }, new String[] { "x" }, true, true );
+    assertEquals( "x x", unicode.replace( "ÉLAN élan" ) );
+    assertEquals( "ÉLAN", ascii.replace( "ÉLAN" ) );
+  }
+
+  /**
+   * Literal rules give the same result as the replacement with an alternation of the strings
+   */
+  @Test
+  public void testLiteralsMatchAlternation() {
+    Random random = new Random( 42 );
+    for ( int round = 0; round < 200; round++ ) {
+      int nrStrings = 1 + random.nextInt( 8 );
+      String[] strings = new String[ nrStrings ];
+      String[] replacements = new String[ nrStrings ];
+      StringBuilder alternation = new StringBuilder();
+      for ( int i = 0; i < nrStrings; i++ ) {
+        strings[ i ] = randomString( random, 1 + random.nextInt( 3 ) );
+        replacements[ i ] = "<" + i + ">";
+        alternation.append( i > 0 ? "|" : "" ).append( "(" ).append( Pattern.quote( strings[ i ] ) ).append( ")" );
+      }
+      boolean caseInsensitive = random.nextBoolean();
+      Pattern pattern = Pattern.compile( alternation.toString(), caseInsensitive ? Pattern.CASE_INSENSITIVE : 0 );
+      MultiPatternReplacer replacer = MultiPatternReplacer.literal( strings, replacements, caseInsensitive, false );
+
+      for ( int t = 0; t < 20; t++ ) {
+        String text = randomString( random, random.nextInt( 30 ) );
+        assertEquals( text, replaceWithAlternation( pattern, text ), replacer.replace( text ) );
+      }
+    }
+  }
+
+  @Test
+  public void testRegexRules() {
+    MultiPatternReplacer replacer = MultiPatternReplacer.regex(
+      new Pattern[] {
+        Pattern.compile( "\\bst(reet)?\\b", Pattern.CASE_INSENSITIVE ),
+        Pattern.compile( "[0-9]+" ),
+        Pattern.compile( "\\s+" ) },
+      new String[] { "ST", "#", " " } );
+    assertNotNull( replacer );
+    assertEquals( "# Main ST #", replacer.replace( "12  Main Street\t7" ) );
+    assertEquals( "ST ST", replacer.replace( "st STREET" ) );
+  }
+
+  @Test
+  public void testRegexRulesWithEmptyMatches() {
+    Pattern[] patterns = { Pattern.compile( "x*" ), Pattern.compile( "a" ) };
+    MultiPatternReplacer replacer = MultiPatternReplacer.regex( patterns, new String[] { "-", "A" } );
+    assertNotNull( replacer );
+    assertEquals( Pattern.compile( "(x*)|(a)" ).matcher( "axxb" ).replaceAll( "-" ), replacer.replace( "axxb" ) );
+  }
+
+  @Test
+  public void testRegexRulesWhichCantBeCombined() {
+    String[] replacements = { "a", "b" };
+    // Back references to their own groups
+    assertNull( MultiPatternReplacer.regex(
+      new Pattern[] { Pattern.compile( "(a)\\1" ), Pattern.compile( "b" ) }, replacements ) );
+    // Comments
+    assertNull( MultiPatternReplacer.regex(
+      new Pattern[] { Pattern.compile( "(?x)a # comment" ), Pattern.compile( "b" ) }, replacements ) );
+    // Unterminated quote which would swallow the rest of the combined pattern
+    assertNull( MultiPatternReplacer.regex(
+      new Pattern[] { Pattern.compile( "\\Qa(" ), Pattern.compile( "b" ) }, replacements ) );
+    // Other flags
+    assertNull( MultiPatternReplacer.regex(
+      new Pattern[] { Pattern.compile( "a", Pattern.MULTILINE ), Pattern.compile( "b" ) }, replacements ) );
+  }
+
+  @Test
+  public void testPlainReplacement() {
+    assertTrue( MultiPatternReplacer.isPlainReplacement( "street" ) );
+    assertTrue( MultiPatternReplacer.isPlainReplacement( "" ) );
+    assertFalse( MultiPatternReplacer.isPlainReplacement( "$1" ) );
+    assertFalse( MultiPatternReplacer.isPlainReplacement( "\\n" ) );
+    assertFalse( MultiPatternReplacer.isPlainReplacement( null ) );
+  }
+
+  private static String replaceWithAlternation( Pattern pattern, String text ) {
+    Matcher matcher = pattern.matcher( text );
+    StringBuffer result = new StringBuffer();
+    while ( matcher.find() ) {
+      int group = 1;
+      while ( matcher.group( group ) == null ) {
+        group++;
+      }
+      matcher.appendReplacement( result, "<" + ( group - 1 ) + ">" );
+    }
+    matcher.appendTail( result );
+    return result.toString();
+  }
+
+  private static String randomString( Random random, int length ) {
+    StringBuilder string = new StringBuilder();
+    for ( int i = 0; i < length; i++ ) {
+      string.append( "abAB".charAt( random.nextInt( 4 ) ) );
+    }
+    return string.toString();
+  }
+}
@@ -46,5 +46,6 @@ public class ReplaceStringMetaInjectionTest extends BaseMetadataInjectionTest<Re
     check( "REPLACE_WHOLE_WORD", () -> meta.getWholeWord()[ 0 ] );
     check( "CASE_SENSITIVE", () -> meta.getCaseSensitive()[ 0 ] );
     check( "IS_UNICODE", () -> meta.isUnicode()[ 0 ] );
+    check( "MULTI_PATTERN", () -> meta.isMultiPattern() );
   }
 }
@@ -80,7 +80,8 @@ public class ReplaceStringMetaTest {
   @Test
   public void testRoundTrips() throws HopException {
     List<String> attributes = Arrays.asList( "in_stream_name", "out_stream_name", "use_regex", "replace_string",
-      "replace_by_string", "set_empty_string", "replace_field_by_string", "whole_word", "case_sensitive", "is_unicode" );
+      "replace_by_string", "set_empty_string", "replace_field_by_string", "whole_word", "case_sensitive", "is_unicode",
+      "multi_pattern" );
 
     Map<String, String> getterMap = new HashMap<>();
     getterMap.put( "in_stream_name", "getFieldInStream" );
@@ -93,6 +94,7 @@ public class ReplaceStringMetaTest {
     getterMap.put( "whole_word", "getWholeWord" );
     getterMap.put( "case_sensitive", "getCaseSensitive" );
     getterMap.put( "is_unicode", "isUnicode" );
+    getterMap.put( "multi_pattern", "isMultiPattern" );
 
     Map<String, String> setterMap = new HashMap<>();
     setterMap.put( "in_stream_name", "setFieldInStream" );
@@ -105,6 +107,7 @@ public class ReplaceStringMetaTest {
     setterMap.put( "whole_word", "setWholeWord" );
     setterMap.put( "case_sensitive", "setCaseSensitive" );
     setterMap.put( "is_unicode", "setIsUnicode" );
+    setterMap.put( "multi_pattern", "setMultiPattern" );
 
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<>();
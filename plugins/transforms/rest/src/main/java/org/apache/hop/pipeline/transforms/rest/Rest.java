@@ -32,6 +32,9 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.encryption.Encr;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.util.AsyncCallQueue;
+import org.apache.hop.core.util.HostRateLimiter;
+import org.apache.hop.core.util.HttpClientManager;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -43,6 +46,7 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
 import org.json.simple.JSONObject;
 
 import javax.net.ssl.HostnameVerifier;
@@ -76,35 +80,114 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
     return queryParams;
   }
 
+  /**
+   * The values of a row needed to call the service. They are evaluated on the transform thread so the call itself can
+   * be executed on another thread.
+   */
+  private static class RestRequest {
+    private String url;
+    private String method;
+    private String[] matrixParamValues;
+    private String[] paramValues;
+    private String[] headerValues;
+    private String body;
+
+    /**
+     * @return true if sending the request again has no other effect than sending it once, so it can be retried after
+     * any error
+     */
+    private boolean isIdempotent() {
+      return RestMeta.HTTP_METHOD_GET.equals( method ) || RestMeta.HTTP_METHOD_HEAD.equals( method )
+        || RestMeta.HTTP_METHOD_OPTIONS.equals( method );
+    }
+  }
+
   protected Object[] callRest( Object[] rowData ) throws HopException {
+    RestRequest request = createRequest( rowData );
+    Client client = null;
+    try {
+      client = createClient();
+      return executeRequest( client, request, rowData, true );
+    } finally {
+      if ( client != null ) {
+        client.destroy();
+      }
+    }
+  }
+
+  private Client createClient() {
+    // create an instance of the com.sun.jersey.api.client.Client class
+    Client client = ApacheHttpClient4.create( data.config );
+    if ( data.basicAuthentication != null ) {
+      client.addFilter( data.basicAuthentication );
+    }
+    return client;
+  }
+
+  private RestRequest createRequest( Object[] rowData ) throws HopException {
+    RestRequest request = new RestRequest();
     // get dynamic url ?
     if ( meta.isUrlInField() ) {
-      data.realUrl = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
+      request.url = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
+    } else {
+      request.url = data.realUrl;
     }
     // get dynamic method?
     if ( meta.isDynamicMethod() ) {
-      data.method = data.inputRowMeta.getString( rowData, data.indexOfMethod );
-      if ( Utils.isEmpty( data.method ) ) {
+      request.method = data.inputRowMeta.getString( rowData, data.indexOfMethod );
+      if ( Utils.isEmpty( request.method ) ) {
         throw new HopException( BaseMessages.getString( PKG, "Rest.Error.MethodMissing" ) );
       }
+    } else {
+      request.method = data.method;
     }
+    try {
+      if ( data.useMatrixParams ) {
+        request.matrixParamValues = new String[ data.nrMatrixParams ];
+        for ( int i = 0; i < data.nrMatrixParams; i++ ) {
+          request.matrixParamValues[ i ] = data.inputRowMeta.getString( rowData, data.indexOfMatrixParamFields[ i ] );
+        }
+      }
+      if ( data.useParams ) {
+        request.paramValues = new String[ data.nrParams ];
+        for ( int i = 0; i < data.nrParams; i++ ) {
+          request.paramValues[ i ] = data.inputRowMeta.getString( rowData, data.indexOfParamFields[ i ] );
+        }
+      }
+      if ( data.useHeaders ) {
+        request.headerValues = new String[ data.nrheader ];
+        for ( int i = 0; i < data.nrheader; i++ ) {
+          request.headerValues[ i ] = data.inputRowMeta.getString( rowData, data.indexOfHeaderFields[ i ] );
+        }
+      }
+      if ( data.useBody ) {
+        // Set Http request entity
+        request.body = Const.NVL( data.inputRowMeta.getString( rowData, data.indexOfBodyField ), null );
+      }
+    } catch ( Exception e ) {
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", request.url ), e );
+    }
+    return request;
+  }
+
+  /**
+   * Call the service and add the results to the row.
+   *
+   * @param lastAttempt false if the call is retried when the server is overloaded
+   */
+  private Object[] executeRequest( Client client, RestRequest request, Object[] rowData, boolean lastAttempt )
+    throws HopException {
     WebResource webResource = null;
-    Client client = null;
     Object[] newRow = null;
     if ( rowData != null ) {
       newRow = rowData.clone();
     }
     try {
       if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", data.realUrl ) );
-      }
-      // create an instance of the com.sun.jersey.api.client.Client class
-      client = ApacheHttpClient4.create( data.config );
-      if ( data.basicAuthentication != null ) {
-        client.addFilter( data.basicAuthentication );
+        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", request.url ) );
       }
       // create a WebResource object, which encapsulates a web resource for the client
-      webResource = client.resource( data.realUrl );
+      webResource = client.resource( request.url );
 
       // used for calculating the responseTime
       long startTime = System.currentTimeMillis();
@@ -113,7 +196,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         // Add matrix parameters
         UriBuilder builder = webResource.getUriBuilder();
         for ( int i = 0; i < data.nrMatrixParams; i++ ) {
-          String value = data.inputRowMeta.getString( rowData, data.indexOfMatrixParamFields[ i ] );
+          String value = request.matrixParamValues[ i ];
           if ( isDebug() ) {
             logDebug( BaseMessages.getString( PKG, "Rest.Log.matrixParameterValue", data.matrixParamNames[ i ], value ) );
           }
@@ -125,7 +208,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       if ( data.useParams ) {
         // Add query parameters
         for ( int i = 0; i < data.nrParams; i++ ) {
-          String value = data.inputRowMeta.getString( rowData, data.indexOfParamFields[ i ] );
+          String value = request.paramValues[ i ];
           if ( isDebug() ) {
             logDebug( BaseMessages.getString( PKG, "Rest.Log.queryParameterValue", data.paramNames[ i ], value ) );
           }
@@ -140,7 +223,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       if ( data.useHeaders ) {
         // Add headers
         for ( int i = 0; i < data.nrheader; i++ ) {
-          String value = data.inputRowMeta.getString( rowData, data.indexOfHeaderFields[ i ] );
+          String value = request.headerValues[ i ];
 
           // unsure if an already set header will be returned to builder
           builder = builder.header( data.headerNames[ i ], value );
@@ -154,36 +237,33 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       }
 
       ClientResponse response = null;
-      String entityString = null;
-      if ( data.useBody ) {
-        // Set Http request entity
-        entityString = Const.NVL( data.inputRowMeta.getString( rowData, data.indexOfBodyField ), null );
-        if ( isDebug() ) {
-          logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", entityString ) );
-        }
+      String entityString = request.body;
+      if ( data.useBody && isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", entityString ) );
       }
+      String method = request.method;
       try {
-        if ( data.method.equals( RestMeta.HTTP_METHOD_GET ) ) {
+        if ( method.equals( RestMeta.HTTP_METHOD_GET ) ) {
           response = builder.get( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_POST ) ) {
+        } else if ( method.equals( RestMeta.HTTP_METHOD_POST ) ) {
           if ( null != contentType ) {
             response = builder.type( contentType ).post( ClientResponse.class, entityString );
           } else {
             response = builder.type( data.mediaType ).post( ClientResponse.class, entityString );
           }
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
+        } else if ( method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
           if ( null != contentType ) {
             response = builder.type( contentType ).put( ClientResponse.class, entityString );
           } else {
             response = builder.type( data.mediaType ).put( ClientResponse.class, entityString );
           }
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
+        } else if ( method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
           response = builder.delete( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
+        } else if ( method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
           response = builder.head();
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
+        } else if ( method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
           response = builder.options( ClientResponse.class );
-        } else if ( data.method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
+        } else if ( method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
           if ( null != contentType ) {
             response = builder.type( contentType ).method( RestMeta.HTTP_METHOD_PATCH, ClientResponse.class, entityString );
           } else {
@@ -191,7 +271,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
               entityString );
           }
         } else {
-          throw new HopException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", data.method ) );
+          throw new HopException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", method ) );
         }
       } catch ( UniformInterfaceException u ) {
         response = u.getResponse();
@@ -199,7 +279,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
       // Get response time
       long responseTime = System.currentTimeMillis() - startTime;
       if ( isDetailed() ) {
-        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), data.realUrl ) );
+        logDetailed( BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), request.url ) );
       }
 
       // Get status
@@ -209,6 +289,12 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         logDebug( BaseMessages.getString( PKG, "Rest.Log.ResponseCode", "" + status ) );
       }
 
+      if ( !lastAttempt && HttpClientManager.isRetryableStatus( status, request.isIdempotent() ) ) {
+        response.close();
+        throw new AsyncCallQueue.RetryException(
+          BaseMessages.getString( PKG, "Rest.Log.Retrying", String.valueOf( status ), request.url ) );
+      }
+
       // Get Response
       String body;
       String headerString = null;
@@ -254,14 +340,7 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, headerString );
       }
     } catch ( Exception e ) {
-      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", data.realUrl ), e );
-    } finally {
-      if ( webResource != null ) {
-        webResource = null;
-      }
-      if ( client != null ) {
-        client.destroy();
-      }
+      throw new HopException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", request.url ), e );
     }
     return newRow;
   }
@@ -334,6 +413,15 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
 
     if ( r == null ) {
       // no more input to be expected...
+      if ( data.asyncCalls != null ) {
+        // Wait for the calls in flight
+        //
+        while ( !data.asyncCalls.isEmpty() ) {
+          if ( !putCompletedCall( data.asyncCalls.take() ) ) {
+            return false;
+          }
+        }
+      }
       setOutputDone();
       return false;
     }
@@ -446,36 +534,83 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         }
       }
     } // end if first
+
+    if ( data.asyncCalls != null ) {
+      return processRowAsynchronously( r );
+    }
+
     try {
       Object[] outputRowData = callRest( r );
-      putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "Rest.LineNumber" ) + getLinesRead() );
-        }
-      }
+      putOutputRow( outputRowData );
     } catch ( HopException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if ( getTransformMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "Rest.ErrorInTransformRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        logError( Const.getStackTracker( e ) );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
+      return handleCallError( r, e );
+    }
+    return true;
+  }
+
+  /**
+   * Submit the call for the row and pass on the rows of the calls which finished in the meantime.
+   */
+  private boolean processRowAsynchronously( Object[] r ) throws HopException {
+    RestRequest request;
+    try {
+      request = createRequest( r );
+    } catch ( HopException e ) {
+      return handleCallError( r, e );
+    }
+
+    while ( data.asyncCalls.isFull() ) {
+      if ( !putCompletedCall( data.asyncCalls.take() ) ) {
         return false;
       }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "Rest001" );
+    }
+    data.asyncCalls.submit( r, HostRateLimiter.getHost( request.url ), request.isIdempotent(),
+      lastAttempt -> executeRequest( data.client, request, r, lastAttempt ) );
+
+    for ( AsyncCallQueue.Completed<Object[]> completed : data.asyncCalls.poll() ) {
+      if ( !putCompletedCall( completed ) ) {
+        return false;
       }
     }
     return true;
   }
 
+  private boolean putCompletedCall( AsyncCallQueue.Completed<Object[]> completed ) throws HopException {
+    if ( completed.getException() != null ) {
+      return handleCallError( completed.getRow(), completed.getException() );
+    }
+    putOutputRow( completed.getResult() );
+    return true;
+  }
+
+  private void putOutputRow( Object[] outputRowData ) throws HopException {
+    putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
+    if ( checkFeedback( getLinesRead() ) ) {
+      if ( isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "Rest.LineNumber" ) + getLinesRead() );
+      }
+    }
+  }
+
+  /**
+   * Send the row to the error handling or stop the pipeline if there is none.
+   *
+   * @return false if the pipeline is stopped
+   */
+  private boolean handleCallError( Object[] r, Exception e ) throws HopException {
+    if ( !getTransformMeta().isDoingErrorHandling() ) {
+      logError( BaseMessages.getString( PKG, "Rest.ErrorInTransformRunning" ) + e.getMessage() );
+      setErrors( 1 );
+      logError( Const.getStackTracker( e ) );
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    // Simply add this row to the error row
+    putError( getInputRowMeta(), r, 1, e.toString(), null, "Rest001" );
+    return true;
+  }
+
   public boolean init() {
 
     if ( super.init() ) {
@@ -527,6 +662,23 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
         logError( BaseMessages.getString( PKG, "Rest.Error.Config" ), e );
         return false;
       }
+
+      if ( meta.isAsynchronous() ) {
+        int maxInFlight = Const.toInt( resolve( meta.getMaxInFlight() ), RestMeta.DEFAULT_MAX_IN_FLIGHT );
+        double rateLimit = Const.toDouble( resolve( meta.getRateLimit() ), 0.0 );
+        data.asyncCalls = new AsyncCallQueue<>( getTransformName(), maxInFlight, meta.isOrderedOutput(),
+          Const.toInt( resolve( meta.getMaxRetries() ), 0 ),
+          Const.toLong( resolve( meta.getRetryDelay() ), RestMeta.DEFAULT_RETRY_DELAY ),
+          rateLimit > 0 ? new HostRateLimiter( rateLimit ) : null );
+
+        // A single client with a connection pool large enough for all the calls in flight
+        //
+        PoolingClientConnectionManager connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal( Math.max( 1, maxInFlight ) );
+        connectionManager.setDefaultMaxPerRoute( Math.max( 1, maxInFlight ) );
+        data.config.getProperties().put( ApacheHttpClient4Config.PROPERTY_CONNECTION_MANAGER, connectionManager );
+        data.client = createClient();
+      }
       return true;
     }
     return false;
@@ -534,6 +686,14 @@ public class Rest extends BaseTransform<RestMeta, RestData> implements ITransfor
 
   public void dispose() {
 
+    if ( data.asyncCalls != null ) {
+      data.asyncCalls.shutdown();
+      data.asyncCalls = null;
+    }
+    if ( data.client != null ) {
+      data.client.destroy();
+      data.client = null;
+    }
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
@@ -17,9 +17,11 @@
 
 package org.apache.hop.pipeline.transforms.rest;
 
+import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.AsyncCallQueue;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -121,6 +123,16 @@ public class RestData extends BaseTransformData implements ITransformData {
 
   public MediaType mediaType;
 
+  /**
+   * The calls in flight when the calls are executed asynchronously
+   **/
+  public AsyncCallQueue<Object[]> asyncCalls;
+
+  /**
+   * The client shared by the asynchronous calls
+   **/
+  public Client client;
+
   public RestData() {
     super();
     this.indexOfUrlField = -1;
@@ -87,6 +87,10 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
   public static final String HTTP_METHOD_OPTIONS = "OPTIONS";
   public static final String HTTP_METHOD_PATCH = "PATCH";
 
+  public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+  public static final long DEFAULT_RETRY_DELAY = 1000L;
+
   /** URL / service to be called */
   private String url;
 
@@ -137,6 +141,24 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
 
   private String trustStorePassword;
 
+  /** Execute the calls asynchronously, several calls at the same time */
+  private boolean asynchronous;
+
+  /** The maximum number of calls in flight at the same time */
+  private String maxInFlight;
+
+  /** Pass on the rows in the order they were read, not in the order the calls finish */
+  private boolean orderedOutput;
+
+  /** The number of times a call is retried after a connection error or an overloaded server */
+  private String maxRetries;
+
+  /** The delay in ms before the first retry, doubled for every next retry */
+  private String retryDelay;
+
+  /** The maximum number of calls per second per host, empty for no limit */
+  private String rateLimit;
+
   public RestMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -355,6 +377,12 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
+    this.asynchronous = false;
+    this.maxInFlight = String.valueOf(DEFAULT_MAX_IN_FLIGHT);
+    this.orderedOutput = true;
+    this.maxRetries = "0";
+    this.retryDelay = String.valueOf(DEFAULT_RETRY_DELAY);
+    this.rateLimit = "";
   }
 
   @Override
@@ -419,6 +447,12 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
         .append(
             XmlHandler.addTagValue(
                 "trustStorePassword", Encr.encryptPasswordIfNotUsingVariables(trustStorePassword)));
+    retval.append("    ").append(XmlHandler.addTagValue("asynchronous", asynchronous));
+    retval.append("    ").append(XmlHandler.addTagValue("max_in_flight", maxInFlight));
+    retval.append("    ").append(XmlHandler.addTagValue("ordered_output", orderedOutput));
+    retval.append("    ").append(XmlHandler.addTagValue("max_retries", maxRetries));
+    retval.append("    ").append(XmlHandler.addTagValue("retry_delay", retryDelay));
+    retval.append("    ").append(XmlHandler.addTagValue("rate_limit", rateLimit));
 
     retval.append("    <headers>").append(Const.CR);
     for (int i = 0, len = (headerName != null ? headerName.length : 0); i < len; i++) {
@@ -486,6 +520,12 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
       trustStorePassword =
           Encr.decryptPasswordOptionallyEncrypted(
               XmlHandler.getTagValue(transformNode, "trustStorePassword"));
+      asynchronous = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "asynchronous"));
+      maxInFlight = XmlHandler.getTagValue(transformNode, "max_in_flight");
+      orderedOutput = !"N".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ordered_output"));
+      maxRetries = XmlHandler.getTagValue(transformNode, "max_retries");
+      retryDelay = XmlHandler.getTagValue(transformNode, "retry_delay");
+      rateLimit = XmlHandler.getTagValue(transformNode, "rate_limit");
 
       Node headernode = XmlHandler.getSubNode(transformNode, "headers");
       int nrheaders = XmlHandler.countNodes(headernode, "header");
@@ -789,4 +829,64 @@ public class RestMeta extends BaseTransformMeta implements ITransformMeta<Rest,
         || method.equals(HTTP_METHOD_PATCH)
         || method.equals(HTTP_METHOD_DELETE));
   }
+
+  /** @return true if the calls are executed asynchronously, several calls at the same time */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /** @param asynchronous true to execute the calls asynchronously */
+  public void setAsynchronous(boolean asynchronous) {
+    this.asynchronous = asynchronous;
+  }
+
+  /** @return The maximum number of calls in flight at the same time */
+  public String getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /** @param maxInFlight The maximum number of calls in flight at the same time */
+  public void setMaxInFlight(String maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  /** @return true if the rows are passed on in the order they were read */
+  public boolean isOrderedOutput() {
+    return orderedOutput;
+  }
+
+  /** @param orderedOutput true to pass on the rows in the order they were read */
+  public void setOrderedOutput(boolean orderedOutput) {
+    this.orderedOutput = orderedOutput;
+  }
+
+  /** @return The number of times a call is retried */
+  public String getMaxRetries() {
+    return maxRetries;
+  }
+
+  /** @param maxRetries The number of times a call is retried */
+  public void setMaxRetries(String maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /** @return The delay in ms before the first retry */
+  public String getRetryDelay() {
+    return retryDelay;
+  }
+
+  /** @param retryDelay The delay in ms before the first retry */
+  public void setRetryDelay(String retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
+  /** @return The maximum number of calls per second per host */
+  public String getRateLimit() {
+    return rateLimit;
+  }
+
+  /** @param rateLimit The maximum number of calls per second per host, empty for no limit */
+  public void setRateLimit(String rateLimit) {
+    this.rateLimit = rateLimit;
+  }
 }
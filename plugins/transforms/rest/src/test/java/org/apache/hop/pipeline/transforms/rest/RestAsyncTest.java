@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.encryption.Encr;
+import org.apache.hop.core.encryption.TwoWayPasswordEncoderPluginType;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.util.EnvUtil;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+/**
+ * Calls a local embedded REST service with the asynchronous mode of the transform.
+ */
+public class RestAsyncTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  private static final int NR_ROWS = 20;
+
+  private TransformMockHelper<RestMeta, RestData> helper;
+  private HttpServer server;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+  @BeforeClass
+  public static void beforeClass() throws HopException {
+    PluginRegistry.addPluginType( TwoWayPasswordEncoderPluginType.getInstance() );
+    PluginRegistry.init();
+    String passwordEncoderPluginID =
+      Const.NVL( EnvUtil.getSystemProperty( Const.HOP_PASSWORD_ENCODER_PLUGIN ), "Hop" );
+    Encr.init( passwordEncoderPluginID );
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    helper = new TransformMockHelper<>( "REST", RestMeta.class, RestData.class );
+    doReturn( helper.iLogChannel ).when( helper.logChannelFactory ).create( any(), any( ILoggingObject.class ) );
+    when( helper.pipeline.isRunning() ).thenReturn( true );
+
+    server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+    server.setExecutor( Executors.newCachedThreadPool() );
+    server.createContext( "/echo", exchange -> {
+      String value = getValue( exchange );
+      maxInFlight.accumulateAndGet( inFlight.incrementAndGet(), Math::max );
+      try {
+        // The first rows get the slowest responses
+        Thread.sleep( 2L * ( NR_ROWS - Integer.parseInt( value ) ) );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      inFlight.decrementAndGet();
+      respond( exchange, 200, value );
+    } );
+    server.createContext( "/busy", exchange -> {
+      String value = getValue( exchange );
+      int attempt = attempts.computeIfAbsent( value, k -> new AtomicInteger() ).incrementAndGet();
+      respond( exchange, attempt < 3 ? 503 : 200, value );
+    } );
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop( 0 );
+    helper.cleanUp();
+  }
+
+  @Test
+  public void testOrderedAsynchronousCalls() throws Exception {
+    List<Object[]> rows = process( "/echo", "8", true, "0" );
+
+    assertEquals( NR_ROWS, rows.size() );
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      assertEquals( getUrl( "/echo", i ), rows.get( i )[ 0 ] );
+      assertEquals( String.valueOf( i ), rows.get( i )[ 1 ] );
+      assertEquals( 200L, rows.get( i )[ 2 ] );
+    }
+    assertTrue( maxInFlight.get() > 1 );
+    assertTrue( maxInFlight.get() <= 8 );
+  }
+
+  @Test
+  public void testUnorderedAsynchronousCalls() throws Exception {
+    List<Object[]> rows = process( "/echo", "4", false, "0" );
+
+    assertEquals( NR_ROWS, rows.size() );
+    List<String> values = new ArrayList<>();
+    for ( Object[] row : rows ) {
+      assertEquals( getUrl( "/echo", Integer.parseInt( (String) row[ 1 ] ) ), row[ 0 ] );
+      values.add( (String) row[ 1 ] );
+    }
+    Collections.sort( values, ( a, b ) -> Integer.parseInt( a ) - Integer.parseInt( b ) );
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      assertEquals( String.valueOf( i ), values.get( i ) );
+    }
+    assertTrue( maxInFlight.get() <= 4 );
+  }
+
+  @Test
+  public void testRetryOverloadedServer() throws Exception {
+    List<Object[]> rows = process( "/busy", "4", true, "2" );
+
+    assertEquals( NR_ROWS, rows.size() );
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      assertEquals( 200L, rows.get( i )[ 2 ] );
+      assertEquals( 3, attempts.get( String.valueOf( i ) ).get() );
+    }
+  }
+
+  private List<Object[]> process( String path, String maxCalls, boolean ordered, String retries ) throws Exception {
+    RestMeta meta = new RestMeta();
+    meta.setDefault();
+    meta.setUrlInField( true );
+    meta.setUrlField( "url" );
+    meta.setFieldName( "result" );
+    meta.setResultCodeFieldName( "code" );
+    meta.setAsynchronous( true );
+    meta.setMaxInFlight( maxCalls );
+    meta.setOrderedOutput( ordered );
+    meta.setMaxRetries( retries );
+    meta.setRetryDelay( "1" );
+
+    Rest rest = new Rest( helper.transformMeta, meta, new RestData(), 0, helper.pipelineMeta, helper.pipeline );
+    assertTrue( rest.init() );
+
+    List<Object[]> input = new ArrayList<>();
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      input.add( new Object[] { getUrl( path, i ) } );
+    }
+    IRowSet rowSet = helper.getMockInputRowSet( input );
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "url" ) );
+    when( rowSet.getRowMeta() ).thenReturn( rowMeta );
+    rest.addRowSetToInputRowSets( rowSet );
+
+    List<Object[]> output = new ArrayList<>();
+    rest.addRowListener( new RowAdapter() {
+      @Override
+      public void rowWrittenEvent( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+        output.add( row );
+      }
+    } );
+
+    try {
+      while ( rest.processRow() ) {
+        // Keep on processing
+      }
+    } finally {
+      rest.dispose();
+    }
+    assertEquals( 0, rest.getErrors() );
+    return output;
+  }
+
+  private String getUrl( String path, int value ) {
+    return "http://localhost:" + server.getAddress().getPort() + path + "?q=" + value;
+  }
+
+  private static String getValue( HttpExchange exchange ) {
+    String query = exchange.getRequestURI().getQuery();
+    return query.substring( query.indexOf( '=' ) + 1 );
+  }
+
+  private static void respond( HttpExchange exchange, int status, String body ) throws IOException {
+    byte[] bytes = body.getBytes( StandardCharsets.UTF_8 );
+    exchange.sendResponseHeaders( status, bytes.length );
+    try ( OutputStream out = exchange.getResponseBody() ) {
+      out.write( bytes );
+    }
+  }
+}
@@ -71,7 +71,8 @@ public class RestMetaTest {
         "urlField", "bodyField", "httpLogin", "httpPassword", "proxyHost", "proxyPort", "preemptive",
         "trustStoreFile", "trustStorePassword", "headerField", "headerName", "parameterField", "parameterName",
         "matrixParameterField", "matrixParameterName", "fieldName", "resultCodeFieldName", "responseTimeFieldName",
-        "responseHeaderFieldName" );
+        "responseHeaderFieldName", "asynchronous", "maxInFlight", "orderedOutput", "maxRetries", "retryDelay",
+        "rateLimit" );
 
     Map<String, IFieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<>();
@@ -17,12 +17,12 @@
 
 package org.apache.hop.pipeline.transforms.rowstoresult;
 
+import org.apache.hop.core.ResultRows;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,7 +36,7 @@ public class RowsToResultData extends BaseTransformData implements ITransformDat
   public RowsToResultData() {
     super();
 
-    rows = new ArrayList<>();
+    rows = new ResultRows();
   }
 
 }
@@ -21,6 +21,8 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.gzip.GzipCompressionOutputStream;
+import org.apache.hop.core.compress.gzip.GzipCompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
@@ -41,7 +43,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * Sort the rows in the input-streams based on certain criteria
@@ -115,7 +116,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
 
     // Then write them to disk...
     DataOutputStream dos;
-    GZIPOutputStream gzos;
+    GzipCompressionOutputStream gzos;
     int p;
 
     try {
@@ -125,7 +126,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> implemen
       data.files.add( fileObject ); // Remember the files!
       OutputStream outputStream = HopVfs.getOutputStream( fileObject, false );
       if ( data.compressFiles ) {
-        gzos = new GZIPOutputStream( new BufferedOutputStream( outputStream ) );
+        // Compresses in parallel if variable HOP_COMPRESSION_THREADS is set
+        gzos = new GzipCompressionProvider().createOutputStream( new BufferedOutputStream( outputStream ) );
         dos = new DataOutputStream( gzos );
       } else {
         dos = new DataOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sortedmerge;
+
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * A tournament tree holding the next row of every input stream of the merge.
+ * <p>
+ * Every inner node keeps the stream which lost the match played at that node, the overall winner is kept separately.
+ * When the winner is replaced by the next row of its stream only the matches on the path from that stream to the root
+ * are replayed: log2(k) comparisons for k streams. Streams without rows left lose every match.
+ * <p>
+ * Rows are compared on their sort key, see {@link RowSetRow#getSortKey()}. Rows with the same key are taken in the order
+ * of the streams to keep the merge deterministic.
+ */
+public class LoserTree {
+
+  private final IValueMeta[] keyMeta;
+  private final RowSetRow[] rows;
+  private final int[] losers;
+  private int winner;
+
+  /**
+   * @param rows    the first row of every stream, null for the streams without rows
+   * @param keyMeta the metadata of the sort keys, with the sort direction set
+   * @throws HopValueException in case rows can't be compared
+   */
+  public LoserTree( RowSetRow[] rows, IValueMeta[] keyMeta ) throws HopValueException {
+    this.keyMeta = keyMeta;
+    this.rows = rows;
+    this.losers = new int[ Math.max( 1, rows.length ) ];
+    this.winner = rows.length == 0 ? -1 : play( 1 );
+  }
+
+  /**
+   * Play the matches of the sub-tree below the given node, leaves are numbered from size to 2*size-1.
+   *
+   * @return the winner of the sub-tree
+   */
+  private int play( int node ) throws HopValueException {
+    if ( node >= rows.length ) {
+      return node - rows.length;
+    }
+    int left = play( 2 * node );
+    int right = play( 2 * node + 1 );
+    if ( beats( left, right ) ) {
+      losers[ node ] = right;
+      return left;
+    }
+    losers[ node ] = left;
+    return right;
+  }
+
+  /**
+   * @return the row with the smallest key of all streams, null if all streams are exhausted
+   */
+  public RowSetRow peek() {
+    return winner < 0 ? null : rows[ winner ];
+  }
+
+  /**
+   * @return the index of the stream of the smallest row
+   */
+  public int getWinner() {
+    return winner;
+  }
+
+  /**
+   * Replace the smallest row by the next row of the same stream.
+   *
+   * @param row the next row of the stream or null if the stream has no more rows
+   * @throws HopValueException in case rows can't be compared
+   */
+  public void replaceWinner( RowSetRow row ) throws HopValueException {
+    if ( winner < 0 ) {
+      return;
+    }
+    rows[ winner ] = row;
+    int candidate = winner;
+    for ( int node = ( winner + rows.length ) / 2; node > 0; node /= 2 ) {
+      if ( beats( losers[ node ], candidate ) ) {
+        int loser = candidate;
+        candidate = losers[ node ];
+        losers[ node ] = loser;
+      }
+    }
+    winner = candidate;
+  }
+
+  private boolean beats( int a, int b ) throws HopValueException {
+    RowSetRow rowA = rows[ a ];
+    RowSetRow rowB = rows[ b ];
+    if ( rowA == null ) {
+      return rowB == null && a < b;
+    }
+    if ( rowB == null ) {
+      return true;
+    }
+    Object[] keyA = rowA.getSortKey();
+    Object[] keyB = rowB.getSortKey();
+    for ( int i = 0; i < keyMeta.length; i++ ) {
+      int cmp = keyMeta[ i ].compare( keyA[ i ], keyB[ i ] );
+      if ( cmp != 0 ) {
+        return cmp < 0;
+      }
+    }
+    return a < b;
+  }
+}
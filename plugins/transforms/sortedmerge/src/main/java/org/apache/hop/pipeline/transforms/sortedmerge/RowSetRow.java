@@ -25,6 +25,7 @@ public class RowSetRow {
   private IRowSet rowSet;
   private IRowMeta rowMeta;
   private Object[] rowData;
+  private Object[] sortKey;
 
   /**
    * @param rowSet
@@ -78,4 +79,18 @@ public class RowSetRow {
   public void setRowMeta( IRowMeta rowMeta ) {
     this.rowMeta = rowMeta;
   }
+
+  /**
+   * @return the values of the fields to merge on, in normal storage
+   */
+  public Object[] getSortKey() {
+    return sortKey;
+  }
+
+  /**
+   * @param sortKey the values of the fields to merge on, in normal storage
+   */
+  public void setSortKey( Object[] sortKey ) {
+    this.sortKey = sortKey;
+  }
 }
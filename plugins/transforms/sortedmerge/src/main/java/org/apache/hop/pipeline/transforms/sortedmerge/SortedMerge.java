@@ -21,16 +21,17 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.IRowListener;
 import org.apache.hop.pipeline.transform.ITransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayDeque;
 import java.util.List;
 
 /**
@@ -51,114 +52,74 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
    * We read from all streams in the partition merge mode For that we need at least one row on all input rowsets... If
    * we don't have a row, we wait for one.
    * <p>
-   * TODO: keep the inputRowSets() list sorted and go from there. That should dramatically improve speed as you only
-   * need half as many comparisons.
+   * The next row of every stream is kept in a tournament tree so that finding the smallest row and replacing it by the
+   * next row of the same stream only takes log2(k) comparisons for k streams.
    *
    * @return the next row
    */
+  @SuppressWarnings( "unchecked" )
   private synchronized Object[] getRowSorted() throws HopException {
     if ( first ) {
       first = false;
 
-      // Verify that socket connections to all the remote input transforms are opened
-      // before we start to read/write ...
+      // Take a copy of the input row sets: the streams without rows are removed from the list while we read
       //
-      //openRemoteInputTransformSocketsOnce();
-
-      // Read one row from all rowsets...
-      //
-      data.sortedBuffer = new ArrayList<>();
+      List<IRowSet> inputRowSets = getInputRowSets();
+      data.rowSets = inputRowSets.toArray( new IRowSet[ 0 ] );
       data.rowMeta = null;
 
-      // PDI-1212:
-      // If one of the inputRowSets holds a null row (the input yields
-      // 0 rows), then the null rowSet is removed from the InputRowSet buffer.. (BaseTransform.getRowFrom())
-      // which throws this loop off by one (the next set never gets processed).
-      // Instead of modifying BaseTransform, I figure reversing the loop here would
-      // effect change in less areas. If the reverse loop causes a problem, please
-      List<IRowSet> inputRowSets = getInputRowSets();
-      for ( int i = inputRowSets.size() - 1; i >= 0 && !isStopped(); i-- ) {
+      if ( data.batchSize > 1 ) {
+        data.batches = new ArrayDeque[ data.rowSets.length ];
+        for ( int i = 0; i < data.batches.length; i++ ) {
+          data.batches[ i ] = new ArrayDeque<>( data.batchSize );
+        }
+      }
 
-        IRowSet rowSet = inputRowSets.get( i );
-        Object[] row = getRowFrom( rowSet );
+      // Read one row from all rowsets...
+      //
+      RowSetRow[] rows = new RowSetRow[ data.rowSets.length ];
+      for ( int i = 0; i < data.rowSets.length && !isStopped(); i++ ) {
+        Object[] row = readRow( i );
         if ( row != null ) {
-          // Add this row to the sortedBuffer...
-          // Which is not yet sorted, we'll get to that later.
-          //
-          data.sortedBuffer.add( new RowSetRow( rowSet, rowSet.getRowMeta(), row ) );
           if ( data.rowMeta == null ) {
-            data.rowMeta = rowSet.getRowMeta().clone();
-          }
+            data.rowMeta = data.rowSets[ i ].getRowMeta().clone();
 
-          // What fields do we compare on and in what order?
-
-          // Better cache the location of the partitioning column
-          // First time operation only
-          //
-          if ( data.fieldIndices == null ) {
-            // Get the indexes of the specified sort fields...
-            data.fieldIndices = new int[ meta.getFieldName().length ];
-            for ( int f = 0; f < data.fieldIndices.length; f++ ) {
-              data.fieldIndices[ f ] = data.rowMeta.indexOfValue( meta.getFieldName()[ f ] );
-              if ( data.fieldIndices[ f ] < 0 ) {
-                throw new HopTransformException( "Unable to find fieldname ["
-                  + meta.getFieldName()[ f ] + "] in row : " + data.rowMeta );
-              }
-
-              data.rowMeta.getValueMeta( data.fieldIndices[ f ] ).setSortedDescending( !meta.getAscending()[ f ] );
-            }
+            // What fields do we compare on and in what order?
+            //
+            initSortKeys();
           }
+          rows[ i ] = new RowSetRow( data.rowSets[ i ], data.rowSets[ i ].getRowMeta(), row );
+          rows[ i ].setSortKey( new Object[ data.fieldIndices.length ] );
+          fillSortKey( rows[ i ] );
         }
-
-        data.comparator = ( o1, o2 ) -> {
-          try {
-            return o1.getRowMeta().compare( o1.getRowData(), o2.getRowData(), data.fieldIndices );
-          } catch ( HopValueException e ) {
-            return 0; // TODO see if we should fire off alarms over here... Perhaps throw a RuntimeException.
-          }
-        };
-
-        // Now sort the sortedBuffer for the first time.
-        //
-        Collections.sort( data.sortedBuffer, data.comparator );
       }
+
+      data.tree = new LoserTree( rows, data.keyMeta );
     }
 
-    // If our sorted buffer is empty, it means we're done...
+    // The smallest row of all streams is the winner of the tree.
+    // If there is none, all streams are exhausted and we're done.
     //
-    if ( data.sortedBuffer.isEmpty() ) {
+    RowSetRow smallestRow = data.tree.peek();
+    if ( smallestRow == null ) {
       return null;
     }
-
-    // now that we have all rows sorted, all we need to do is find out what the smallest row is.
-    // The smallest row is the first in our case...
-    //
-    RowSetRow smallestRow = data.sortedBuffer.get( 0 );
-    data.sortedBuffer.remove( 0 );
     Object[] outputRowData = smallestRow.getRowData();
 
     // We read another row from the row set where the smallest row came from.
-    // That we we exhaust all row sets.
-    //
-    Object[] extraRow = getRowFrom( smallestRow.getRowSet() );
-
-    // Add it to the sorted buffer in the right position...
+    // That way we exhaust all row sets.
     //
+    Object[] extraRow = readRow( data.tree.getWinner() );
     if ( extraRow != null ) {
-      // Add this one to the sortedBuffer
+      // The row of the stream is no longer in use, recycle it
       //
-      RowSetRow add = new RowSetRow( smallestRow.getRowSet(), smallestRow.getRowSet().getRowMeta(), extraRow );
-      int index = Collections.binarySearch( data.sortedBuffer, add, data.comparator );
-      if ( index < 0 ) {
-        data.sortedBuffer.add( -index - 1, add );
-      } else {
-        data.sortedBuffer.add( index, add );
-      }
+      smallestRow.setRowData( extraRow );
+      fillSortKey( smallestRow );
+      data.tree.replaceWinner( smallestRow );
+    } else {
+      data.tree.replaceWinner( null );
     }
 
-    // This concludes the regular program...
-    //
-
     // optionally perform safe mode checking to prevent problems.
     //
     if ( getPipeline().isSafeModeEnabled() ) {
@@ -170,6 +131,75 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
     return outputRowData;
   }
 
+  /**
+   * Look up the fields to merge on and prepare the metadata to compare their values with
+   */
+  private void initSortKeys() throws HopTransformException {
+    data.fieldIndices = new int[ meta.getFieldName().length ];
+    data.keyMeta = new IValueMeta[ data.fieldIndices.length ];
+    for ( int f = 0; f < data.fieldIndices.length; f++ ) {
+      data.fieldIndices[ f ] = data.rowMeta.indexOfValue( meta.getFieldName()[ f ] );
+      if ( data.fieldIndices[ f ] < 0 ) {
+        throw new HopTransformException( "Unable to find fieldname ["
+          + meta.getFieldName()[ f ] + "] in row : " + data.rowMeta );
+      }
+
+      IValueMeta valueMeta = data.rowMeta.getValueMeta( data.fieldIndices[ f ] );
+      valueMeta.setSortedDescending( !meta.getAscending()[ f ] );
+
+      // The sort keys are converted to normal storage once per row so that comparing doesn't need to
+      //
+      data.keyMeta[ f ] = valueMeta.clone();
+      data.keyMeta[ f ].setStorageType( IValueMeta.STORAGE_TYPE_NORMAL );
+      data.keyMeta[ f ].setStorageMetadata( null );
+    }
+  }
+
+  private void fillSortKey( RowSetRow row ) throws HopValueException {
+    IRowMeta rowMeta = row.getRowMeta();
+    Object[] rowData = row.getRowData();
+    Object[] sortKey = row.getSortKey();
+    for ( int f = 0; f < sortKey.length; f++ ) {
+      int index = data.fieldIndices[ f ];
+      sortKey[ f ] = rowMeta.getValueMeta( index ).convertToNormalStorageType( rowData[ index ] );
+    }
+  }
+
+  /**
+   * Read the next row of an input stream. When reading in batches the rows which are already waiting in the row set are
+   * taken in one go, without waiting for more rows to arrive.
+   *
+   * @param stream the index of the input stream
+   * @return the next row or null if the stream has no more rows
+   */
+  private Object[] readRow( int stream ) throws HopException {
+    IRowSet rowSet = data.rowSets[ stream ];
+    if ( data.batches == null ) {
+      return getRowFrom( rowSet );
+    }
+
+    ArrayDeque<Object[]> batch = data.batches[ stream ];
+    if ( batch.isEmpty() ) {
+      Object[] row = getRowFrom( rowSet );
+      if ( row == null ) {
+        return null;
+      }
+      batch.add( row );
+      while ( batch.size() < data.batchSize ) {
+        Object[] extraRow = rowSet.getRowImmediate();
+        if ( extraRow == null ) {
+          break;
+        }
+        incrementLinesRead();
+        for ( IRowListener listener : getRowListeners() ) {
+          listener.rowReadEvent( rowSet.getRowMeta(), extraRow );
+        }
+        batch.add( extraRow );
+      }
+    }
+    return batch.poll();
+  }
+
   public boolean processRow() throws HopException {
 
     Object[] row = getRowSorted(); // get row, sorted
@@ -191,9 +221,7 @@ public class SortedMerge extends BaseTransform<SortedMergeMeta, SortedMergeData>
   public boolean init() {
 
     if ( super.init() ) {
-      // data.rowComparator = new RowComparator();
-
-      // Add init code here.
+      data.batchSize = meta.getBatchSize();
       return true;
     }
     return false;
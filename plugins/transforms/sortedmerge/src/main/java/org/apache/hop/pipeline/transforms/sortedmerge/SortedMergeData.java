@@ -17,12 +17,13 @@
 
 package org.apache.hop.pipeline.transforms.sortedmerge;
 
+import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.ArrayDeque;
 
 /**
  * @author Matt
@@ -32,8 +33,13 @@ public class SortedMergeData extends BaseTransformData implements ITransformData
   public int[] fieldIndices;
   // public RowComparator rowComparator;
   public IRowMeta rowMeta;
-  public List<RowSetRow> sortedBuffer;
-  public Comparator<RowSetRow> comparator;
+  public IValueMeta[] keyMeta;
+  public IRowSet[] rowSets;
+  public LoserTree tree;
+
+  /** The rows read ahead per input stream when rows are read in batches */
+  public ArrayDeque<Object[]>[] batches;
+  public int batchSize;
 
   public SortedMergeData() {
     super();
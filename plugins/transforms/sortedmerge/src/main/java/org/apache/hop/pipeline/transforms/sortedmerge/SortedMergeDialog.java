@@ -51,6 +51,8 @@ public class SortedMergeDialog extends BaseTransformDialog implements ITransform
 
   private TableView wFields;
 
+  private Text wBatchSize;
+
   private final SortedMergeMeta input;
 
   private final Map<String, Integer> inputFields;
@@ -113,12 +115,32 @@ public class SortedMergeDialog extends BaseTransformDialog implements ITransform
 
     setButtonPositions( new Button[] { wOk, wCancel, wGet }, margin, null );
 
+    // Batch size
+    Label wlBatchSize = new Label( shell, SWT.RIGHT );
+    wlBatchSize.setText( BaseMessages.getString( PKG, "SortedMergeDialog.BatchSize.Label" ) );
+    wlBatchSize.setToolTipText( BaseMessages.getString( PKG, "SortedMergeDialog.BatchSize.Tooltip" ) );
+    props.setLook( wlBatchSize );
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment( 0, 0 );
+    fdlBatchSize.right = new FormAttachment( middle, -margin );
+    fdlBatchSize.top = new FormAttachment( wTransformName, margin );
+    wlBatchSize.setLayoutData( fdlBatchSize );
+    wBatchSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBatchSize.setToolTipText( BaseMessages.getString( PKG, "SortedMergeDialog.BatchSize.Tooltip" ) );
+    props.setLook( wBatchSize );
+    wBatchSize.addModifyListener( lsMod );
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment( middle, 0 );
+    fdBatchSize.top = new FormAttachment( wTransformName, margin );
+    fdBatchSize.right = new FormAttachment( 100, 0 );
+    wBatchSize.setLayoutData( fdBatchSize );
+
     Label wlFields = new Label(shell, SWT.NONE);
     wlFields.setText( BaseMessages.getString( PKG, "SortedMergeDialog.Fields.Label" ) );
     props.setLook(wlFields);
     FormData fdlFields = new FormData();
     fdlFields.left = new FormAttachment( 0, 0 );
-    fdlFields.top = new FormAttachment( wTransformName, margin );
+    fdlFields.top = new FormAttachment( wBatchSize, margin );
     wlFields.setLayoutData(fdlFields);
 
     final int FieldsCols = 2;
@@ -180,6 +202,7 @@ public class SortedMergeDialog extends BaseTransformDialog implements ITransform
     };
 
     wTransformName.addSelectionListener( lsDef );
+    wBatchSize.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -239,6 +262,8 @@ public class SortedMergeDialog extends BaseTransformDialog implements ITransform
     wFields.setRowNums();
     wFields.optWidth( true );
 
+    wBatchSize.setText( Integer.toString( input.getBatchSize() ) );
+
     wTransformName.selectAll();
     wTransformName.setFocus();
   }
@@ -256,6 +281,8 @@ public class SortedMergeDialog extends BaseTransformDialog implements ITransform
 
     transformName = wTransformName.getText(); // return value
 
+    input.setBatchSize( Const.toInt( wBatchSize.getText(), 1 ) );
+
     int nrFields = wFields.nrNonEmpty();
 
     input.allocate( nrFields );
@@ -69,6 +69,12 @@ public class SortedMergeMeta extends BaseTransformMeta
   @Injection(name = "ASCENDING", group = "FIELDS")
   private boolean[] ascending;
 
+  /**
+   * The maximum number of rows taken at once from an input stream when they're available, 1 reads row by row
+   */
+  @Injection(name = "BATCH_SIZE")
+  private int batchSize;
+
   public void loadXml(Node transformNode, IHopMetadataProvider metadataProvider)
       throws HopXmlException {
     readData(transformNode);
@@ -87,6 +93,8 @@ public class SortedMergeMeta extends BaseTransformMeta
     for (int i = 0; i < nrFields; i++) {
       fieldName[i] = "field" + i;
     }
+
+    batchSize = 1;
   }
 
   public Object clone() {
@@ -129,6 +137,8 @@ public class SortedMergeMeta extends BaseTransformMeta
           ascending[i] = false;
         }
       }
+
+      batchSize = Const.toInt(XmlHandler.getTagValue(transformNode, "batch_size"), 1);
     } catch (Exception e) {
       throw new HopXmlException("Unable to load transform info from XML", e);
     }
@@ -145,6 +155,7 @@ public class SortedMergeMeta extends BaseTransformMeta
       retval.append("        </field>" + Const.CR);
     }
     retval.append("      </fields>" + Const.CR);
+    retval.append("    " + XmlHandler.addTagValue("batch_size", batchSize));
 
     return retval.toString();
   }
@@ -276,6 +287,16 @@ public class SortedMergeMeta extends BaseTransformMeta
     this.fieldName = fieldName;
   }
 
+  /** @return the maximum number of rows taken at once from an input stream */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /** @param batchSize the maximum number of rows taken at once from an input stream */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
   public PipelineType[] getSupportedPipelineTypes() {
     return new PipelineType[] {
       PipelineType.Normal,
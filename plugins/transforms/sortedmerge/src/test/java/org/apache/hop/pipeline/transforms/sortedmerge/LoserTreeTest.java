@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sortedmerge;
+
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LoserTreeTest {
+
+  @Test
+  public void testMergeManyStreams() throws Exception {
+    Random random = new Random( 123 );
+    for ( int streams = 1; streams <= 17; streams++ ) {
+      List<List<Long>> inputs = new ArrayList<>();
+      List<Long> expected = new ArrayList<>();
+      for ( int s = 0; s < streams; s++ ) {
+        // Some streams are empty
+        List<Long> input = new ArrayList<>();
+        int size = random.nextInt( 4 ) == 0 ? 0 : random.nextInt( 50 );
+        for ( int i = 0; i < size; i++ ) {
+          input.add( (long) random.nextInt( 100 ) );
+        }
+        Collections.sort( input );
+        inputs.add( input );
+        expected.addAll( input );
+      }
+      Collections.sort( expected );
+
+      assertEquals( expected, merge( inputs, new ValueMetaInteger( "key" ) ) );
+    }
+  }
+
+  @Test
+  public void testDescendingWithNulls() throws Exception {
+    ValueMetaString keyMeta = new ValueMetaString( "key" );
+    keyMeta.setSortedDescending( true );
+
+    List<List<String>> inputs = new ArrayList<>();
+    inputs.add( list( "d", "b", null ) );
+    inputs.add( list( "e", "c", "a" ) );
+    inputs.add( list( (String) null ) );
+
+    assertEquals( list( "e", "d", "c", "b", "a", null, null ), merge( inputs, keyMeta ) );
+  }
+
+  @Test
+  public void testEqualKeysInStreamOrder() throws Exception {
+    RowSetRow[] rows = new RowSetRow[] { row( 1L ), row( 1L ), row( 0L ) };
+    LoserTree tree = new LoserTree( rows, new IValueMeta[] { new ValueMetaInteger( "key" ) } );
+
+    assertEquals( 2, tree.getWinner() );
+    tree.replaceWinner( null );
+    assertEquals( 0, tree.getWinner() );
+    tree.replaceWinner( null );
+    assertEquals( 1, tree.getWinner() );
+    tree.replaceWinner( null );
+    assertNull( tree.peek() );
+  }
+
+  @Test
+  public void testNoStreams() throws Exception {
+    LoserTree tree = new LoserTree( new RowSetRow[ 0 ], new IValueMeta[] { new ValueMetaInteger( "key" ) } );
+    assertNull( tree.peek() );
+  }
+
+  @SafeVarargs
+  private static <T> List<T> list( T... values ) {
+    List<T> list = new ArrayList<>();
+    Collections.addAll( list, values );
+    return list;
+  }
+
+  private static RowSetRow row( Object key ) {
+    RowSetRow row = new RowSetRow( null, null, new Object[] { key } );
+    row.setSortKey( new Object[] { key } );
+    return row;
+  }
+
+  private static <T> List<T> merge( List<List<T>> inputs, IValueMeta keyMeta ) throws Exception {
+    int[] positions = new int[ inputs.size() ];
+    RowSetRow[] rows = new RowSetRow[ inputs.size() ];
+    for ( int s = 0; s < rows.length; s++ ) {
+      rows[ s ] = inputs.get( s ).isEmpty() ? null : row( inputs.get( s ).get( positions[ s ]++ ) );
+    }
+
+    LoserTree tree = new LoserTree( rows, new IValueMeta[] { keyMeta } );
+    List<T> result = new ArrayList<>();
+    while ( tree.peek() != null ) {
+      @SuppressWarnings( "unchecked" )
+      T value = (T) tree.peek().getSortKey()[ 0 ];
+      result.add( value );
+
+      int s = tree.getWinner();
+      List<T> input = inputs.get( s );
+      tree.replaceWinner( positions[ s ] < input.size() ? row( input.get( positions[ s ]++ ) ) : null );
+    }
+    return result;
+  }
+}
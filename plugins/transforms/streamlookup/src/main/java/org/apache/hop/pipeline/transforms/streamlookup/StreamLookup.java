@@ -34,6 +34,7 @@ import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
 import java.math.BigDecimal;
@@ -140,6 +141,15 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     int[] valueNrs = new int[ meta.getValue().length ];
     boolean firstRun = true;
 
+    // Does an input transform want to drop the rows without a matching key before they get here?
+    //
+    boolean publishing = RowKeyFilter.isSubscribed( getPipeline(), getTransformName() );
+    if ( publishing && getTransformMeta().getCopies( this ) > 1 ) {
+      logBasic( BaseMessages.getString( PKG, "StreamLookup.Log.NoBloomFilterWithCopies" ) );
+      RowKeyFilter.publish( getPipeline(), getTransformName(), null );
+      publishing = false;
+    }
+
     // Which row set do we read from?
     //
     IRowSet rowSet = findInputRowSet( data.infoStream.getTransformName() );
@@ -188,6 +198,10 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
 
         data.cacheKeyMeta = cacheKeyMeta;
         data.cacheValueMeta = cacheValueMeta;
+
+        if ( publishing ) {
+          data.keyFilterBuilder = new RowKeyFilter.Builder( cacheKeyMeta );
+        }
       }
 
       Object[] keyData = new Object[ keyNrs.length ];
@@ -204,10 +218,21 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       }
 
       addToCache( data.cacheKeyMeta, keyData, data.cacheValueMeta, valueData );
+      if ( data.keyFilterBuilder != null ) {
+        data.keyFilterBuilder.add( keyData );
+      }
 
       rowData = getRowFrom( rowSet );
     }
 
+    if ( publishing ) {
+      // Without lookup rows we don't know the key types: let all rows pass
+      //
+      RowKeyFilter.publish( getPipeline(), getTransformName(),
+        data.keyFilterBuilder == null ? null : data.keyFilterBuilder.build() );
+      data.keyFilterBuilder = null;
+    }
+
     return true;
   }
 
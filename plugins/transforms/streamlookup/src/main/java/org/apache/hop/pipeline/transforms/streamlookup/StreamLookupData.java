@@ -24,6 +24,7 @@ import org.apache.hop.core.hash.LongHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
 import org.apache.hop.pipeline.transform.errorhandling.IStream;
 
 import java.util.ArrayList;
@@ -97,6 +98,11 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
 
   public IStream infoStream;
 
+  /**
+   * Collects the lookup keys for the Bloom filter of the input transforms which subscribed to it, null if there are none
+   */
+  public RowKeyFilter.Builder keyFilterBuilder;
+
   public StreamLookupData() {
     super();
     look = new HashMap<>();
@@ -680,7 +680,7 @@ public class CsvInput
               ignoreEnclosuresInField = true;
             }
           } else {
-            if ( data.moveEndBufferPointer() ) {
+            if ( data.moveEndBufferPointerPastPlainBytes() ) {
               endOfBuffer = true;
               break;
             }
@@ -907,6 +907,11 @@ public class CsvInput
         }
       }
 
+      // Memory-mapped reading and word-at-a-time scanning of field content
+      //
+      data.memoryMapped = meta.isMemoryMapped();
+      data.initWordScanning();
+
       switch ( data.encodingType ) {
         case DOUBLE_BIG_ENDIAN:
           data.crLfMatcher = new MultiByteBigCrLfMatcher();
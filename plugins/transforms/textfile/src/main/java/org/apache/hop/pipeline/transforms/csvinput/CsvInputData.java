@@ -26,6 +26,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.List;
 
@@ -34,6 +36,16 @@ import java.util.List;
  * @since 24-jan-2005
  */
 public class CsvInputData extends BaseTransformData implements ITransformData {
+  /**
+   * The size of the region of a file we map into memory at once in memory-mapped mode
+   */
+  static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long LINE_FEED_WORD = '\n' * ONES;
+  private static final long CARRIAGE_RETURN_WORD = '\r' * ONES;
+
   public FileChannel fc;
   public ByteBuffer bb;
   public IRowMeta convertRowMeta;
@@ -78,6 +90,22 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
 
   public IFieldsMapping fieldsMapping;
 
+  /**
+   * Copy data straight from a memory-mapped region of the file instead of reading it through an intermediate buffer
+   */
+  public boolean memoryMapped;
+  private MappedByteBuffer mappedBuffer;
+  private long mappedStart;
+
+  /**
+   * Skip over plain field content 8 bytes at a time. Only possible for single byte encodings.
+   */
+  public boolean wordScanning;
+  private long delimiterWord;
+  private long enclosureWord;
+  private boolean enclosureScanned;
+  private ByteBuffer wordBuffer;
+
   /**
    * Data class for CsvInput transform
    *
@@ -114,6 +142,10 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
   }
 
   private int readBufferFromFile() throws IOException {
+    if ( memoryMapped ) {
+      return readBufferFromMappedFile();
+    }
+
     // See if the line is not longer than the buffer.
     // In that case we need to increase the size of the byte buffer.
     // Since this method doesn't get called every other character, I'm sure we can spend a bit of time here without
@@ -148,6 +180,53 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
     return n;
   }
 
+  /**
+   * Copy the next block of data from the memory-mapped region of the file into the byte array.
+   * The position of the file channel is kept up to date so that positioning the channel works in both modes.
+   *
+   * @return the number of bytes read or -1 if we're at the end of the file.
+   * @throws IOException in case the file can't be mapped
+   */
+  private int readBufferFromMappedFile() throws IOException {
+    long position = fc.position();
+    long size = fc.size();
+    if ( position >= size ) {
+      return -1;
+    }
+
+    if ( mappedBuffer == null || position < mappedStart || position >= mappedStart + mappedBuffer.capacity() ) {
+      mappedStart = position;
+      mappedBuffer = fc.map( FileChannel.MapMode.READ_ONLY, position, Math.min( MAPPED_REGION_SIZE, size - position ) );
+    }
+
+    int offset = (int) ( position - mappedStart );
+    int n = Math.min( preferredBufferSize, mappedBuffer.capacity() - offset );
+    bufferSize = endBuffer + n;
+    if ( byteBuffer.length < bufferSize ) {
+      byte[] newByteBuffer = new byte[ bufferSize ];
+      System.arraycopy( byteBuffer, 0, newByteBuffer, 0, endBuffer );
+      byteBuffer = newByteBuffer;
+    }
+
+    mappedBuffer.position( offset );
+    mappedBuffer.get( byteBuffer, endBuffer, n );
+    fc.position( position + n );
+
+    return n;
+  }
+
+  /**
+   * Prepare the word-at-a-time scanning of plain field content for the delimiter and enclosure in use.
+   */
+  void initWordScanning() {
+    wordScanning = encodingType != null && encodingType.getLength() == 1 && delimiter != null && delimiter.length > 0;
+    if ( wordScanning ) {
+      delimiterWord = ( delimiter[ 0 ] & 0xFFL ) * ONES;
+      enclosureScanned = enclosure != null && enclosure.length > 0;
+      enclosureWord = enclosureScanned ? ( enclosure[ 0 ] & 0xFFL ) * ONES : 0L;
+    }
+  }
+
   private void resizeByteBuffer( int newSize ) {
     ByteBuffer newBuffer = ByteBuffer.allocateDirect( newSize ); // Increase by 50%
     newBuffer.position( 0 );
@@ -212,6 +291,63 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
     return resizeBufferIfNeeded();
   }
 
+  /**
+   * Moves the endBuffer pointer past the current byte and all following bytes which can't start a delimiter, an
+   * enclosure or a new line. This gives the same result as calling {@link #moveEndBufferPointer()} for every one of
+   * those bytes but looks at 8 bytes at a time.
+   *
+   * @return true if we reached the end of the byte buffer.
+   * @throws IOException In case we get an error reading from the input file.
+   */
+  boolean moveEndBufferPointerPastPlainBytes() throws IOException {
+    if ( wordScanning ) {
+      int next = findSpecialByte( byteBuffer, endBuffer + 1, bufferSize );
+      totalBytesRead += next - 1 - endBuffer;
+      endBuffer = next - 1;
+    }
+    return moveEndBufferPointer();
+  }
+
+  /**
+   * @return the index of the first byte of the given array in [from, to[ which is a delimiter, enclosure, carriage return or line
+   * feed byte, or to if there is none.
+   */
+  int findSpecialByte( byte[] bytes, int from, int to ) {
+    if ( wordBuffer == null || wordBuffer.array() != bytes ) {
+      wordBuffer = ByteBuffer.wrap( bytes ).order( ByteOrder.LITTLE_ENDIAN );
+    }
+    int index = from;
+    while ( index + 8 <= to ) {
+      long word = wordBuffer.getLong( index );
+      long matches = zeroBytes( word ^ delimiterWord ) | zeroBytes( word ^ LINE_FEED_WORD )
+        | zeroBytes( word ^ CARRIAGE_RETURN_WORD );
+      if ( enclosureScanned ) {
+        matches |= zeroBytes( word ^ enclosureWord );
+      }
+      if ( matches != 0 ) {
+        // Little endian: the lowest flagged byte is the first match, bytes above it can be false positives
+        //
+        return index + ( Long.numberOfTrailingZeros( matches ) >>> 3 );
+      }
+      index += 8;
+    }
+    while ( index < to ) {
+      byte b = bytes[ index ];
+      if ( b == delimiter[ 0 ] || b == '\n' || b == '\r' || ( enclosureScanned && b == enclosure[ 0 ] ) ) {
+        return index;
+      }
+      index++;
+    }
+    return to;
+  }
+
+  /**
+   * @return a word with the high bit set in the lowest byte which is zero
+   */
+  private static long zeroBytes( long word ) {
+    return ( word - ONES ) & ~word & HIGH_BITS;
+  }
+
   /**
    * <pre>
    *       [abcd "" defg] --> [abcd " defg]
@@ -267,6 +403,7 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
       if ( fis != null ) {
         fis.close();
       }
+      mappedBuffer = null;
     } catch ( IOException e ) {
       throw new HopException( "Unable to close file channel for file '" + filenames[ filenr - 1 ], e );
     }
@@ -98,6 +98,8 @@ public class CsvInputDialog extends BaseTransformDialog implements ITransformDia
   private boolean isReceivingInput;
   private Button wRunningInParallel;
   private Button wNewlinePossible;
+
+  private Button wMemoryMapped;
   private ComboVar wEncoding;
 
   private boolean gotEncodings = false;
@@ -451,6 +453,25 @@ public class CsvInputDialog extends BaseTransformDialog implements ITransformDia
     } );
     lastControl = wlNewlinePossible;
 
+    // Read the file through a memory-mapped region?
+    //
+    Label wlMemoryMapped = new Label( shell, SWT.RIGHT );
+    wlMemoryMapped.setText( BaseMessages.getString( PKG, "CsvInputDialog.MemoryMapped.Label" ) );
+    wlMemoryMapped.setToolTipText( BaseMessages.getString( PKG, "CsvInputDialog.MemoryMapped.Tooltip" ) );
+    props.setLook( wlMemoryMapped );
+    FormData fdlMemoryMapped = new FormData();
+    fdlMemoryMapped.top = new FormAttachment( lastControl, margin );
+    fdlMemoryMapped.left = new FormAttachment( 0, 0 );
+    fdlMemoryMapped.right = new FormAttachment( middle, -margin );
+    wlMemoryMapped.setLayoutData( fdlMemoryMapped );
+    wMemoryMapped = new Button( shell, SWT.CHECK );
+    props.setLook( wMemoryMapped );
+    FormData fdMemoryMapped = new FormData();
+    fdMemoryMapped.top = new FormAttachment( wlMemoryMapped, 0, SWT.CENTER );
+    fdMemoryMapped.left = new FormAttachment( middle, 0 );
+    wMemoryMapped.setLayoutData( fdMemoryMapped );
+    lastControl = wlMemoryMapped;
+
     // Encoding
     Label wlEncoding = new Label( shell, SWT.RIGHT );
     wlEncoding.setText( BaseMessages.getString( PKG, "CsvInputDialog.Encoding.Label" ) );
@@ -689,6 +710,7 @@ public class CsvInputDialog extends BaseTransformDialog implements ITransformDia
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
     wNewlinePossible.setSelection( inputMeta.isNewlinePossibleInFields() );
+    wMemoryMapped.setSelection( inputMeta.isMemoryMapped() );
     wRowNumField.setText( Const.NVL( inputMeta.getRowNumField(), "" ) );
     wAddResult.setSelection( inputMeta.isAddResultFile() );
     wEncoding.setText( Const.NVL( inputMeta.getEncoding(), "" ) );
@@ -747,6 +769,7 @@ public class CsvInputDialog extends BaseTransformDialog implements ITransformDia
     inputMeta.setAddResultFile( wAddResult.getSelection() );
     inputMeta.setRunningInParallel( wRunningInParallel.getSelection() );
     inputMeta.setNewlinePossibleInFields( wNewlinePossible.getSelection() );
+    inputMeta.setMemoryMapped( wMemoryMapped.getSelection() );
     inputMeta.setEncoding( wEncoding.getText() );
 
     int nrNonEmptyFields = wFields.nrNonEmpty();
@@ -106,6 +106,8 @@ public class CsvInputMeta extends BaseTransformMeta
 
   private boolean newlinePossibleInFields;
 
+  private boolean memoryMapped;
+
   public CsvInputMeta() {
     super();
     allocate(0);
@@ -164,6 +166,7 @@ public class CsvInputMeta extends BaseTransformMeta
         newlinePossibleInFields = "Y".equalsIgnoreCase(nlp);
       }
       encoding = XmlHandler.getTagValue(transformNode, "encoding");
+      memoryMapped = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "memory_mapped"));
 
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
       int nrFields = XmlHandler.countNodes(fields, "field");
@@ -215,6 +218,7 @@ public class CsvInputMeta extends BaseTransformMeta
         .append("    ")
         .append(XmlHandler.addTagValue("newline_possible", newlinePossibleInFields));
     retval.append("    ").append(XmlHandler.addTagValue("encoding", encoding));
+    retval.append("    ").append(XmlHandler.addTagValue("memory_mapped", memoryMapped));
 
     retval.append("    ").append(XmlHandler.openTag("fields")).append(Const.CR);
     for (int i = 0; i < inputFields.length; i++) {
@@ -656,6 +660,16 @@ public class CsvInputMeta extends BaseTransformMeta
     this.newlinePossibleInFields = newlinePossibleInFields;
   }
 
+  /** @return true if local files are read through a memory-mapped region */
+  public boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  /** @param memoryMapped the memoryMapped to set */
+  public void setMemoryMapped(boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
+  }
+
   @Override
   public FileObject getHeaderFileObject(final IVariables variables) {
     final String filename = variables.resolve(getFilename());
@@ -17,15 +17,27 @@
 
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.file.EncodingType;
 import org.apache.hop.core.playlist.FilePlayListAll;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.file.BaseFileInputTransform;
 import org.apache.hop.pipeline.transforms.file.IBaseFileInputReader;
+import org.apache.hop.ui.pipeline.transform.common.TextFileLineUtil;
+
+import java.io.InputStream;
 
 /**
  * Read all sorts of text files, convert them to rows and writes these to one or more output streams.
@@ -39,17 +51,161 @@ public class TextFileInput
 
   private static final Class<?> PKG = TextFileInputMeta.class; // For Translator
 
+  /**
+   * Files smaller than this size per copy are not split in byte ranges
+   */
+  static final long MIN_RANGE_SIZE = 1024L * 1024L;
+
   public TextFileInput( TransformMeta transformMeta, TextFileInputMeta meta, TextFileInputData data, int copyNr, PipelineMeta pipelineMeta,
                         Pipeline pipeline ) {
     super( transformMeta, meta, data, copyNr, pipelineMeta, pipeline );
   }
 
+  @Override
+  protected boolean openNextFile() {
+    if ( data.parallel ) {
+      // The files which can't be split in byte ranges are divided over the copies
+      //
+      while ( data.currentFileIndex < data.files.nrOfFiles()
+        && !isSplittable( data.files.getFile( data.currentFileIndex ) )
+        && data.currentFileIndex % data.nrCopies != getCopyNr() ) {
+        data.currentFileIndex++;
+      }
+    }
+    return super.openNextFile();
+  }
+
   @Override
   protected IBaseFileInputReader createReader( TextFileInputMeta meta, TextFileInputData data, FileObject file )
     throws Exception {
+    if ( data.parallel && isSplittable( file ) ) {
+      return createRangeReader( file );
+    }
     return new TextFileInputReader( this, meta, data, file, log );
   }
 
+  /**
+   * Create a reader for the records of the byte range of this copy in the given file.
+   */
+  private IBaseFileInputReader createRangeReader( FileObject file ) throws Exception {
+    long fileSize = file.getContent().getSize();
+    TextFileParallelReadPlan plan =
+      TextFileParallelReadPlan.getPlan( getPipeline(), getTransformName(), data.filename, fileSize, data.nrCopies );
+    int copy = getCopyNr();
+    long rangeStart = plan.getRangeStart( copy );
+    long rangeEnd = plan.getRangeEnd( copy );
+
+    // Line feeds can only be part of a field if we join the lines of enclosed fields.
+    // In that case we need to know if an enclosed field is open at the start and end of our range.
+    //
+    int enclosure = -1;
+    boolean openAtStart = false;
+    boolean openAtEnd = false;
+    if ( data.breakInEnclosure ) {
+      enclosure = data.enclosure.charAt( 0 );
+      long count;
+      try ( InputStream in = HopVfs.getInputStream( file ) ) {
+        IOUtils.skipFully( in, rangeStart );
+        count = TextFileParallelReadPlan.countEnclosures( in, rangeEnd - rangeStart, (byte) enclosure );
+      }
+      plan.setEnclosureCount( copy, count );
+      long before = plan.getEnclosuresBefore( copy, this::isStopped );
+      openAtStart = before % 2 == 1;
+      openAtEnd = ( before + count ) % 2 == 1;
+    }
+
+    long startPosition = rangeStart == 0 ? 0 : rangeStart + findRecordStart( file, rangeStart, enclosure, openAtStart );
+    long endPosition = rangeEnd >= fileSize ? -1 : rangeEnd + findRecordStart( file, rangeEnd, enclosure, openAtEnd );
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "TextFileInput.Log.ReadingRange", Long.toString( startPosition ),
+        Long.toString( endPosition < 0 ? fileSize : endPosition ), data.filename ) );
+    }
+    return new TextFileInputReader( this, meta, data, file, log, startPosition, endPosition );
+  }
+
+  private long findRecordStart( FileObject file, long position, int enclosure, boolean open ) throws Exception {
+    try ( InputStream in = HopVfs.getInputStream( file ) ) {
+      IOUtils.skipFully( in, position );
+      return TextFileParallelReadPlan.findRecordStart( in, enclosure, open );
+    }
+  }
+
+  /**
+   * @return true if the given file is read in byte ranges by all the copies, false if a single copy reads it
+   */
+  boolean isSplittable( FileObject file ) {
+    if ( !data.splittable ) {
+      return false;
+    }
+    try {
+      return file.getContent().getSize() >= MIN_RANGE_SIZE * data.nrCopies;
+    } catch ( FileSystemException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * Only uncompressed files with a single byte encoding and without any layout spanning multiple lines can be split
+   * in byte ranges. An enclosure needs to be a single byte and can't be escaped with another character, so that
+   * counting enclosures gives the enclosure state.
+   */
+  private boolean isSplittableLayout() {
+    String compression = meta.content.fileCompression;
+    if ( !Utils.isEmpty( compression ) && !"None".equalsIgnoreCase( compression ) ) {
+      return false;
+    }
+    if ( EncodingType.guessEncodingType( meta.getEncoding() ) != EncodingType.SINGLE ) {
+      return false;
+    }
+    if ( meta.content.footer || meta.content.layoutPaged || meta.content.lineWrapped || meta.content.nrLinesDocHeader > 0
+      || meta.content.includeRowNumber || meta.content.rowLimit > 0 ) {
+      return false;
+    }
+    if ( data.breakInEnclosure ) {
+      if ( data.enclosure.length() != 1 || data.enclosure.charAt( 0 ) > 127 ) {
+        return false;
+      }
+      return Utils.isEmpty( data.escapeCharacter ) || data.escapeCharacter.equals( data.enclosure );
+    }
+    return true;
+  }
+
+  /**
+   * Drop the rows which can't match any key of the lookup transform we take a Bloom filter from.
+   */
+  @Override
+  public void putRow( IRowMeta rowMeta, Object[] row ) throws HopTransformException {
+    if ( data.bloomFilterTransform != null ) {
+      try {
+        if ( data.bloomFilterMatcher == null ) {
+          RowKeyFilter filter = RowKeyFilter.waitFor( getPipeline(), data.bloomFilterTransform, this::isStopped );
+          if ( filter == null ) {
+            logBasic( BaseMessages.getString( PKG, "TextFileInput.Log.BloomFilterNotPublished", data.bloomFilterTransform ) );
+            data.bloomFilterTransform = null;
+          } else {
+            data.bloomFilterMatcher = filter.createMatcher( rowMeta, data.bloomFilterFields );
+          }
+        }
+        if ( data.bloomFilterMatcher != null && !data.bloomFilterMatcher.matches( row ) ) {
+          data.bloomFilterDropped++;
+          return;
+        }
+      } catch ( HopException e ) {
+        throw new HopTransformException( e );
+      }
+    }
+    super.putRow( rowMeta, row );
+  }
+
+  @Override
+  public void dispose() {
+    if ( data.bloomFilterDropped > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "TextFileInput.Log.BloomFilterDropped", data.bloomFilterDropped,
+        data.bloomFilterTransform ) );
+    }
+    super.dispose();
+  }
+
   @Override
   public boolean init() {
     if (!super.init()) {
@@ -76,6 +232,24 @@ public class TextFileInput
       return false;
     }
 
+    data.breakInEnclosure = meta.content.breakInEnclosureAllowed && data.fileType == TextFileLineUtil.FILE_TYPE_CSV
+      && !Utils.isEmpty( data.enclosure );
+
+    data.nrCopies = getTransformMeta().getCopies( this );
+    data.parallel = meta.content.runningInParallel && data.nrCopies > 1 && !meta.inputFiles.acceptingFilenames;
+    data.splittable = data.parallel && isSplittableLayout();
+
+    // Ask the lookup transform for a Bloom filter on its keys before it starts reading them
+    //
+    if ( !Utils.isEmpty( meta.content.bloomFilterTransform ) && !Utils.isEmpty( meta.content.bloomFilterFields ) ) {
+      data.bloomFilterTransform = resolve( meta.content.bloomFilterTransform );
+      data.bloomFilterFields = resolve( meta.content.bloomFilterFields ).split( "," );
+      for ( int i = 0; i < data.bloomFilterFields.length; i++ ) {
+        data.bloomFilterFields[ i ] = data.bloomFilterFields[ i ].trim();
+      }
+      RowKeyFilter.subscribe( getPipeline(), data.bloomFilterTransform );
+    }
+
     return true;
   }
 }
@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.fileinput.text;
 
 import org.apache.hop.core.file.EncodingType;
 import org.apache.hop.core.playlist.IFilePlayList;
+import org.apache.hop.pipeline.transform.RowKeyFilter;
 import org.apache.hop.pipeline.transforms.file.BaseFileInputTransformData;
 
 import java.util.LinkedList;
@@ -67,6 +68,37 @@ public class TextFileInputData extends BaseFileInputTransformData {
 
   public EncodingType encodingType;
 
+  /**
+   * Join lines as long as an enclosed field is open
+   */
+  public boolean breakInEnclosure;
+
+  /**
+   * Split the files over the copies of the transform
+   */
+  public boolean parallel;
+
+  public int nrCopies;
+
+  /**
+   * The layout allows large files to be read in byte ranges, one for every copy
+   */
+  public boolean splittable;
+
+  /**
+   * The transform to take the Bloom filter from and the fields to test, null if all rows pass
+   */
+  public String bloomFilterTransform;
+
+  public String[] bloomFilterFields;
+
+  /**
+   * Tests the rows against the Bloom filter, null as long as the filter wasn't received
+   */
+  public RowKeyFilter.Matcher bloomFilterMatcher;
+
+  public long bloomFilterDropped;
+
   public TextFileInputData() {
     // linked list is better, as usually .remove(0) is applied to this list
     lineBuffer = new LinkedList<>();
@@ -159,6 +159,14 @@ public class TextFileInputDialog extends BaseTransformDialog implements ITransfo
 
   private Button wNoempty;
 
+  private Button wEnclBreaks;
+
+  private Button wParallel;
+
+  private CCombo wBloomFilterTransform;
+
+  private TextVar wBloomFilterFields;
+
   private Button wInclFilename;
 
   private Label wlInclFilenameField;
@@ -876,17 +884,13 @@ public class TextFileInputDialog extends BaseTransformDialog implements ITransfo
     fdlEnclBreaks.top = new FormAttachment( wEnclosure, margin );
     fdlEnclBreaks.right = new FormAttachment( middle, -margin );
     wlEnclBreaks.setLayoutData(fdlEnclBreaks);
-    Button wEnclBreaks = new Button(wContentComp, SWT.CHECK);
+    wEnclBreaks = new Button(wContentComp, SWT.CHECK);
     props.setLook(wEnclBreaks);
     FormData fdEnclBreaks = new FormData();
     fdEnclBreaks.left = new FormAttachment( middle, 0 );
     fdEnclBreaks.top = new FormAttachment( wlEnclBreaks, 0, SWT.CENTER );
     wEnclBreaks.setLayoutData(fdEnclBreaks);
 
-    // Disable until the logic works...
-    wlEnclBreaks.setEnabled( false );
-    wEnclBreaks.setEnabled( false );
-
     // Escape
     Label wlEscape = new Label(wContentComp, SWT.RIGHT);
     wlEscape.setText( BaseMessages.getString( PKG, "TextFileInputDialog.Escape.Label" ) );
@@ -1268,13 +1272,73 @@ public class TextFileInputDialog extends BaseTransformDialog implements ITransfo
     fdLimit.right = new FormAttachment( 100, 0 );
     wLimit.setLayoutData(fdLimit);
 
+    // Read in parallel checkbox
+    Label wlParallel = new Label(wContentComp, SWT.RIGHT);
+    wlParallel.setText( BaseMessages.getString( PKG, "TextFileInputDialog.Parallel.Label" ) );
+    props.setLook(wlParallel);
+    FormData fdlParallel = new FormData();
+    fdlParallel.left = new FormAttachment( 0, 0 );
+    fdlParallel.top = new FormAttachment( wLimit, margin );
+    fdlParallel.right = new FormAttachment( middle, -margin );
+    wlParallel.setLayoutData(fdlParallel);
+    wParallel = new Button(wContentComp, SWT.CHECK );
+    wParallel.setToolTipText( BaseMessages.getString( PKG, "TextFileInputDialog.Parallel.Tooltip" ) );
+    props.setLook( wParallel );
+    FormData fdParallel = new FormData();
+    fdParallel.left = new FormAttachment( middle, 0 );
+    fdParallel.top = new FormAttachment( wlParallel, 0, SWT.CENTER );
+    wParallel.setLayoutData(fdParallel);
+
+    // Take a Bloom filter from a lookup transform?
+    Label wlBloomFilterTransform = new Label(wContentComp, SWT.RIGHT);
+    wlBloomFilterTransform.setText( BaseMessages.getString( PKG, "TextFileInputDialog.BloomFilterTransform.Label" ) );
+    props.setLook(wlBloomFilterTransform);
+    FormData fdlBloomFilterTransform = new FormData();
+    fdlBloomFilterTransform.left = new FormAttachment( 0, 0 );
+    fdlBloomFilterTransform.top = new FormAttachment( wParallel, margin );
+    fdlBloomFilterTransform.right = new FormAttachment( middle, -margin );
+    wlBloomFilterTransform.setLayoutData(fdlBloomFilterTransform);
+    wBloomFilterTransform = new CCombo(wContentComp, SWT.BORDER );
+    for ( String name : pipelineMeta.getTransformNames() ) {
+      if ( !name.equals( transformName ) ) {
+        wBloomFilterTransform.add( name );
+      }
+    }
+    wBloomFilterTransform.setToolTipText( BaseMessages.getString( PKG, "TextFileInputDialog.BloomFilterTransform.Tooltip" ) );
+    props.setLook( wBloomFilterTransform );
+    wBloomFilterTransform.addModifyListener( lsMod );
+    FormData fdBloomFilterTransform = new FormData();
+    fdBloomFilterTransform.left = new FormAttachment( middle, 0 );
+    fdBloomFilterTransform.top = new FormAttachment( wlBloomFilterTransform, 0, SWT.CENTER );
+    fdBloomFilterTransform.right = new FormAttachment( 100, 0 );
+    wBloomFilterTransform.setLayoutData(fdBloomFilterTransform);
+
+    // The fields to test against the Bloom filter
+    Label wlBloomFilterFields = new Label(wContentComp, SWT.RIGHT);
+    wlBloomFilterFields.setText( BaseMessages.getString( PKG, "TextFileInputDialog.BloomFilterFields.Label" ) );
+    props.setLook(wlBloomFilterFields);
+    FormData fdlBloomFilterFields = new FormData();
+    fdlBloomFilterFields.left = new FormAttachment( 0, 0 );
+    fdlBloomFilterFields.top = new FormAttachment( wBloomFilterTransform, margin );
+    fdlBloomFilterFields.right = new FormAttachment( middle, -margin );
+    wlBloomFilterFields.setLayoutData(fdlBloomFilterFields);
+    wBloomFilterFields = new TextVar( variables, wContentComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBloomFilterFields.setToolTipText( BaseMessages.getString( PKG, "TextFileInputDialog.BloomFilterFields.Tooltip" ) );
+    props.setLook( wBloomFilterFields );
+    wBloomFilterFields.addModifyListener( lsMod );
+    FormData fdBloomFilterFields = new FormData();
+    fdBloomFilterFields.left = new FormAttachment( middle, 0 );
+    fdBloomFilterFields.top = new FormAttachment( wlBloomFilterFields, 0, SWT.CENTER );
+    fdBloomFilterFields.right = new FormAttachment( 100, 0 );
+    wBloomFilterFields.setLayoutData(fdBloomFilterFields);
+
     // Date Lenient checkbox
     Label wlDateLenient = new Label(wContentComp, SWT.RIGHT);
     wlDateLenient.setText( BaseMessages.getString( PKG, "TextFileInputDialog.DateLenient.Label" ) );
     props.setLook(wlDateLenient);
     FormData fdlDateLenient = new FormData();
     fdlDateLenient.left = new FormAttachment( 0, 0 );
-    fdlDateLenient.top = new FormAttachment( wLimit, margin );
+    fdlDateLenient.top = new FormAttachment( wBloomFilterFields, margin );
     fdlDateLenient.right = new FormAttachment( middle, -margin );
     wlDateLenient.setLayoutData(fdlDateLenient);
     wDateLenient = new Button(wContentComp, SWT.CHECK );
@@ -2006,6 +2070,10 @@ public class TextFileInputDialog extends BaseTransformDialog implements ITransfo
       wCompression.setText( meta.content.fileCompression );
     }
     wNoempty.setSelection( meta.content.noEmptyLines );
+    wEnclBreaks.setSelection( meta.content.breakInEnclosureAllowed );
+    wParallel.setSelection( meta.content.runningInParallel );
+    wBloomFilterTransform.setText( Const.NVL( meta.content.bloomFilterTransform, "" ) );
+    wBloomFilterFields.setText( Const.NVL( meta.content.bloomFilterFields, "" ) );
     wInclFilename.setSelection( meta.content.includeFilename );
     wInclRownum.setSelection( meta.content.includeRowNumber );
     wRownumByFile.setSelection( meta.content.rowNumberByFile );
@@ -2292,6 +2360,10 @@ public class TextFileInputDialog extends BaseTransformDialog implements ITransfo
     meta.content.fileCompression = wCompression.getText();
     meta.content.dateFormatLenient = wDateLenient.getSelection();
     meta.content.noEmptyLines = wNoempty.getSelection();
+    meta.content.breakInEnclosureAllowed = wEnclBreaks.getSelection();
+    meta.content.runningInParallel = wParallel.getSelection();
+    meta.content.bloomFilterTransform = wBloomFilterTransform.getText();
+    meta.content.bloomFilterFields = wBloomFilterFields.getText();
     meta.content.encoding = wEncoding.getText();
     meta.content.length = wLength.getText();
 
@@ -155,6 +155,18 @@ public class TextFileInputMeta
     @Injection(name = "NO_EMPTY_LINES")
     public boolean noEmptyLines;
 
+    /** Split the files over the transform copies so that they are read in parallel */
+    @Injection(name = "RUNNING_IN_PARALLEL")
+    public boolean runningInParallel;
+
+    /** The join or lookup transform to take a Bloom filter on its keys from */
+    @Injection(name = "BLOOM_FILTER_TRANSFORM")
+    public String bloomFilterTransform;
+
+    /** The comma separated fields to test against the Bloom filter, in the order of the keys */
+    @Injection(name = "BLOOM_FILTER_FIELDS")
+    public String bloomFilterFields;
+
     /** Flag indicating that we should include the filename in the output */
     @Injection(name = "INCLUDE_FILENAME")
     public boolean includeFilename;
@@ -298,6 +310,11 @@ public class TextFileInputMeta
 
       String nempty = XmlHandler.getTagValue(transformNode, "noempty");
       content.noEmptyLines = YES.equalsIgnoreCase(nempty) || nempty == null;
+      content.runningInParallel =
+          YES.equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "parallel"));
+      content.bloomFilterTransform =
+          XmlHandler.getTagValue(transformNode, "bloom_filter_transform");
+      content.bloomFilterFields = XmlHandler.getTagValue(transformNode, "bloom_filter_fields");
       content.includeFilename =
           YES.equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "include"));
       content.filenameField = XmlHandler.getTagValue(transformNode, "include_field");
@@ -728,6 +745,13 @@ public class TextFileInputMeta
         .append("    ")
         .append(XmlHandler.addTagValue("nr_lines_doc_header", content.nrLinesDocHeader));
     retval.append("    ").append(XmlHandler.addTagValue("noempty", content.noEmptyLines));
+    retval.append("    ").append(XmlHandler.addTagValue("parallel", content.runningInParallel));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("bloom_filter_transform", content.bloomFilterTransform));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("bloom_filter_fields", content.bloomFilterFields));
     retval.append("    ").append(XmlHandler.addTagValue("include", content.includeFilename));
     retval.append("    ").append(XmlHandler.addTagValue("include_field", content.filenameField));
     retval.append("    ").append(XmlHandler.addTagValue("rownum", content.includeRowNumber));
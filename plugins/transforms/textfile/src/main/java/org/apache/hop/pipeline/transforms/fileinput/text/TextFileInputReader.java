@@ -17,6 +17,8 @@
 
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.compress.CompressionInputStream;
 import org.apache.hop.core.compress.ICompressionProvider;
@@ -33,6 +35,7 @@ import org.apache.hop.pipeline.transforms.file.IBaseFileInputTransformControl;
 import org.apache.hop.ui.pipeline.transform.common.TextFileLineUtil;
 
 import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 
 /**
@@ -58,12 +61,34 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
   protected long lineNumberInFile;
 
+  /**
+   * Skip the header lines: only when reading from the start of the file
+   */
+  private final boolean header;
+
+  /**
+   * The characters which ended the last line read when breaks in enclosed fields are allowed
+   */
+  private final StringBuilder lineSeparator = new StringBuilder();
+
   public TextFileInputReader( IBaseFileInputTransformControl transform, TextFileInputMeta meta, TextFileInputData data,
                               FileObject file, ILogChannel log ) throws Exception {
+    this( transform, meta, data, file, log, 0L, -1L );
+  }
+
+  /**
+   * Create a reader for the records in a range of bytes of an uncompressed file.
+   *
+   * @param startPosition The position of the first byte to read, the start of a record
+   * @param endPosition   The position after the last byte to read or -1 to read until the end of the file
+   */
+  public TextFileInputReader( IBaseFileInputTransformControl transform, TextFileInputMeta meta, TextFileInputData data,
+                              FileObject file, ILogChannel log, long startPosition, long endPosition ) throws Exception {
     this.transform = transform;
     this.meta = meta;
     this.data = data;
     this.log = log;
+    this.header = meta.content.header && startPosition == 0;
 
     ICompressionProvider provider =
       CompressionProviderFactory.getInstance().getCompressionProviderByName( meta.content.fileCompression );
@@ -72,7 +97,14 @@ public class TextFileInputReader implements IBaseFileInputReader {
       log.logDetailed( "This is a compressed file being handled by the " + provider.getName() + " provider" );
     }
 
-    in = provider.createInputStream( HopVfs.getInputStream( file ) );
+    InputStream fileStream = HopVfs.getInputStream( file );
+    if ( startPosition > 0 ) {
+      IOUtils.skipFully( fileStream, startPosition );
+    }
+    if ( endPosition >= 0 ) {
+      fileStream = new BoundedInputStream( fileStream, Math.max( 0L, endPosition - startPosition ) );
+    }
+    in = provider.createInputStream( fileStream );
 
     in.nextEntry();
 
@@ -95,7 +127,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected void readInitial() throws Exception {
-    data.doneWithHeader = !meta.content.header;
+    data.doneWithHeader = !header;
     // /////////////////////////////////////////////////////////////////////////////
     // Read the first lines...
 
@@ -108,7 +140,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
      * OK, read a number of lines in the buffer: The header rows The nr rows in the page : optional The footer rows
      */
     int bufferSize = 1;
-    bufferSize += meta.content.header ? meta.content.nrHeaderLines : 0;
+    bufferSize += header ? meta.content.nrHeaderLines : 0;
     bufferSize +=
       meta.content.layoutPaged ? meta.content.nrLinesPerPage * ( Math.max( 0, meta.content.nrWraps ) + 1 ) : Math.max(
         0, meta.content.nrWraps ); // it helps when we have wrapped input w/o header
@@ -128,7 +160,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
     }
 
     for ( int i = 0; i < bufferSize && !data.doneReading; i++ ) {
-      boolean wasNotFiltered = tryToReadLine( !meta.content.header || i >= meta.content.nrHeaderLines );
+      boolean wasNotFiltered = tryToReadLine( !header || i >= meta.content.nrHeaderLines );
       if ( !wasNotFiltered ) {
         // grab another line, this one got filtered
         bufferSize++;
@@ -415,8 +447,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected boolean tryToReadLine( boolean applyFilter ) throws HopFileException {
-    String line;
-    line = TextFileLineUtil.getLine( log, isr, data.encodingType, data.fileFormatType, data.lineStringBuilder );
+    String line = readLine();
     if ( line != null ) {
       // when there is no header, check the filter for the first line
       if ( applyFilter ) {
@@ -442,6 +473,39 @@ public class TextFileInputReader implements IBaseFileInputReader {
     return true;
   }
 
+  /**
+   * Read the next line. If breaks in enclosed fields are allowed, lines are joined with their original line separators
+   * as long as an enclosed field is open.
+   *
+   * @return the line or null if there are no more lines
+   */
+  private String readLine() throws HopFileException {
+    if ( !data.breakInEnclosure ) {
+      return TextFileLineUtil.getLine( log, isr, data.encodingType, data.fileFormatType, data.lineStringBuilder );
+    }
+    String line = TextFileLineUtil.getLine( log, isr, data.encodingType, data.fileFormatType, data.lineStringBuilder,
+      lineSeparator );
+    if ( line == null ) {
+      return null;
+    }
+    boolean open = TextFileInputUtils.isEnclosureOpen( line, data.enclosure, data.escapeCharacter, false );
+    if ( !open ) {
+      return line;
+    }
+    StringBuilder joined = new StringBuilder( line );
+    while ( open ) {
+      String separator = lineSeparator.toString();
+      String next = TextFileLineUtil.getLine( log, isr, data.encodingType, data.fileFormatType, data.lineStringBuilder,
+        lineSeparator );
+      if ( next == null ) {
+        break;
+      }
+      joined.append( separator ).append( next );
+      open = TextFileInputUtils.isEnclosureOpen( next, data.enclosure, data.escapeCharacter, true );
+    }
+    return joined.toString();
+  }
+
   /**
    * Check if the line should be taken.
    *
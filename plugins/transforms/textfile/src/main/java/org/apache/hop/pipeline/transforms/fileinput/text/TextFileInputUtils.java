@@ -793,4 +793,35 @@ public class TextFileInputUtils {
 
     return strings;
   }
+
+  /**
+   * Determine whether an enclosed field is still open at the end of the given piece of a line. Doubled enclosures
+   * cancel each other out and enclosures preceded by the escape character are ignored.
+   *
+   * @param line            the (piece of the) line to examine
+   * @param enclosure       the enclosure string
+   * @param escapeCharacter the escape character, can be empty
+   * @param open            true if an enclosed field was open at the start of the line
+   * @return true if an enclosed field is open at the end of the line
+   */
+  public static boolean isEnclosureOpen( String line, String enclosure, String escapeCharacter, boolean open ) {
+    if ( Utils.isEmpty( enclosure ) || line == null ) {
+      return open;
+    }
+    boolean escaping = !Utils.isEmpty( escapeCharacter ) && !escapeCharacter.equals( enclosure );
+    int index = 0;
+    while ( index < line.length() ) {
+      if ( escaping && line.startsWith( escapeCharacter, index ) ) {
+        // Skip the escaped character, whatever it is
+        //
+        index += escapeCharacter.length() + 1;
+      } else if ( line.startsWith( enclosure, index ) ) {
+        open = !open;
+        index += enclosure.length();
+      } else {
+        index++;
+      }
+    }
+    return open;
+  }
 }
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Splits a single file in byte ranges, one for every copy of a text file input transform, and resolves where the
+ * records of every range start.
+ * <p>
+ * A range doesn't usually start at the beginning of a record: a copy skips ahead to the first line break which isn't
+ * part of an enclosed field. To know whether a line break is enclosed we need the enclosure state at the start of
+ * the range. Every copy counts the enclosures in its own range, all at the same time. The parity of the sum of the
+ * counts of the previous ranges then gives the exact state at the start of a range. This only needs a quick scan for
+ * a single byte value, the expensive parsing of the fields is still done once, by a single copy.
+ * <p>
+ * The plan is shared by the copies of a transform through the extension data map of the pipeline.
+ */
+public class TextFileParallelReadPlan {
+
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+  private final long fileSize;
+  private final int nrCopies;
+  private final Long[] enclosureCounts;
+
+  public TextFileParallelReadPlan( long fileSize, int nrCopies ) {
+    this.fileSize = fileSize;
+    this.nrCopies = nrCopies;
+    this.enclosureCounts = new Long[ nrCopies ];
+  }
+
+  /**
+   * Get the plan for a file, shared by all copies of a transform.
+   *
+   * @param pipeline      The pipeline the transform copies run in
+   * @param transformName The name of the transform
+   * @param filename      The name of the file to split
+   * @param fileSize      The size of the file
+   * @param nrCopies      The number of copies of the transform
+   * @return The plan
+   */
+  public static TextFileParallelReadPlan getPlan( IPipelineEngine<?> pipeline, String transformName, String filename,
+                                                  long fileSize, int nrCopies ) {
+    String key = TextFileParallelReadPlan.class.getName() + ":" + transformName + ":" + filename;
+    Map<String, Object> map = pipeline.getExtensionDataMap();
+    synchronized ( map ) {
+      TextFileParallelReadPlan plan = (TextFileParallelReadPlan) map.get( key );
+      if ( plan == null ) {
+        plan = new TextFileParallelReadPlan( fileSize, nrCopies );
+        map.put( key, plan );
+      }
+      return plan;
+    }
+  }
+
+  /**
+   * @return the position of the first byte of the range of the given copy
+   */
+  public long getRangeStart( int copy ) {
+    return fileSize * copy / nrCopies;
+  }
+
+  /**
+   * @return the position right after the last byte of the range of the given copy
+   */
+  public long getRangeEnd( int copy ) {
+    return fileSize * ( copy + 1 ) / nrCopies;
+  }
+
+  public synchronized void setEnclosureCount( int copy, long count ) {
+    enclosureCounts[ copy ] = count;
+    notifyAll();
+  }
+
+  /**
+   * Wait until the copies reading the ranges before the given one counted their enclosures.
+   *
+   * @param copy    The copy to get the number of preceding enclosures for
+   * @param stopped Tells us to stop waiting
+   * @return The number of enclosures in the file before the range of the given copy
+   * @throws HopException In case we were stopped or interrupted
+   */
+  public synchronized long getEnclosuresBefore( int copy, BooleanSupplier stopped ) throws HopException {
+    try {
+      long total = 0;
+      for ( int i = 0; i < copy; i++ ) {
+        while ( enclosureCounts[ i ] == null ) {
+          if ( stopped.getAsBoolean() ) {
+            throw new HopException( "Stopped while waiting for the enclosures of range " + i + " to be counted" );
+          }
+          wait( 100 );
+        }
+        total += enclosureCounts[ i ];
+      }
+      return total;
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new HopException( "Interrupted while waiting for the enclosures to be counted", e );
+    }
+  }
+
+  /**
+   * Count the occurrences of the enclosure byte in the next length bytes of the stream.
+   */
+  public static long countEnclosures( InputStream in, long length, byte enclosure ) throws IOException {
+    byte[] buffer = new byte[ SCAN_BUFFER_SIZE ];
+    long count = 0;
+    long remaining = length;
+    while ( remaining > 0 ) {
+      int n = in.read( buffer, 0, (int) Math.min( buffer.length, remaining ) );
+      if ( n < 0 ) {
+        break;
+      }
+      for ( int i = 0; i < n; i++ ) {
+        if ( buffer[ i ] == enclosure ) {
+          count++;
+        }
+      }
+      remaining -= n;
+    }
+    return count;
+  }
+
+  /**
+   * Find the start of the first record in the stream: the byte after the first line feed outside of an enclosed field.
+   *
+   * @param in        The stream, positioned where to start looking
+   * @param enclosure The enclosure byte or -1 if line feeds are never enclosed
+   * @param open      true if an enclosed field is open at the current position of the stream
+   * @return The number of bytes to skip to get to the start of the record, the number of bytes left in the stream if
+   * there is no next record.
+   */
+  public static long findRecordStart( InputStream in, int enclosure, boolean open ) throws IOException {
+    InputStream stream = in instanceof BufferedInputStream ? in : new BufferedInputStream( in, SCAN_BUFFER_SIZE );
+    boolean enclosed = enclosure >= 0 && open;
+    long offset = 0;
+    int b;
+    while ( ( b = stream.read() ) >= 0 ) {
+      offset++;
+      if ( enclosure >= 0 && b == ( enclosure & 0xFF ) ) {
+        enclosed = !enclosed;
+      } else if ( b == '\n' && !enclosed ) {
+        return offset;
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Gets fileSize
+   *
+   * @return value of fileSize
+   */
+  public long getFileSize() {
+    return fileSize;
+  }
+
+  /**
+   * Gets nrCopies
+   *
+   * @return value of nrCopies
+   */
+  public int getNrCopies() {
+    return nrCopies;
+  }
+}
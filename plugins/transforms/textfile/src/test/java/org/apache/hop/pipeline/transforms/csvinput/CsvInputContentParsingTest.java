@@ -122,6 +122,30 @@ public class CsvInputContentParsingTest extends BaseCsvParsingTest {
     );
   }
 
+  @Test
+  public void testMemoryMappedLongFields() throws Exception {
+    meta.setMemoryMapped( true );
+    meta.setBufferSize( "7" );
+
+    StringBuilder data = new StringBuilder( "a,b,c\n" );
+    Object[][] expected = new Object[ 20 ][];
+    for ( int i = 0; i < expected.length; i++ ) {
+      String longField = "field value " + i + " which is longer than a word and the read buffer";
+      data.append( longField ).append( ",\"" ).append( i ).append( ",\"\"x\"\"\"," ).append( i * 10 ).append( "\r\n" );
+      expected[ i ] = new Object[] { longField, i + ",\"x\"", Integer.toString( i * 10 ) };
+    }
+
+    String file = createTestFile( "UTF-8", data.toString() ).getAbsolutePath();
+    init( file, true );
+
+    setFields( new TextFileInputField( "a", -1, -1 ), new TextFileInputField( "b", -1, -1 ),
+      new TextFileInputField( "c", -1, -1 ) );
+
+    process();
+
+    check( expected );
+  }
+
   @Test( expected = HopTransformException.class )
   public void testNoHeaderOptions() throws Exception {
     meta.setHeaderPresent( false );
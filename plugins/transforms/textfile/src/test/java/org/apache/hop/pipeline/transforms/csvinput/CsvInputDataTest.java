@@ -17,9 +17,11 @@
 
 package org.apache.hop.pipeline.transforms.csvinput;
 
+import org.apache.hop.core.file.EncodingType;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CsvInputDataTest {
   @Test
@@ -61,4 +63,21 @@ public class CsvInputDataTest {
     String result = new String( csvInputData.removeEscapedEnclosures( "345\"\"1\"\"abc".getBytes(), 2 ) );
     assertEquals( "345\"1\"abc", result );
   }
+
+  @Test
+  public void testFindSpecialByte() {
+    CsvInputData csvInputData = new CsvInputData();
+    csvInputData.encodingType = EncodingType.SINGLE;
+    csvInputData.delimiter = ";".getBytes();
+    csvInputData.enclosure = "\"".getBytes();
+    csvInputData.initWordScanning();
+    assertTrue( csvInputData.wordScanning );
+
+    byte[] line = "abcdefghijklmnopq;rstuvwxyz\"0123456789\r\n".getBytes();
+    assertEquals( 17, csvInputData.findSpecialByte( line, 0, line.length ) );
+    assertEquals( 27, csvInputData.findSpecialByte( line, 18, line.length ) );
+    assertEquals( 38, csvInputData.findSpecialByte( line, 28, line.length ) );
+    assertEquals( 39, csvInputData.findSpecialByte( line, 39, line.length ) );
+    assertEquals( 10, csvInputData.findSpecialByte( line, 0, 10 ) );
+  }
 }
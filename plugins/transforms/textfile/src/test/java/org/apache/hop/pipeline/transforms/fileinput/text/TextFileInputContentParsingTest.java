@@ -95,6 +95,39 @@ public class TextFileInputContentParsingTest extends BaseTextParsingTest {
       { "third", "3", "3.3" } } );
   }
 
+  @Test
+  public void testBreakInEnclosure() throws Exception {
+
+    meta.content.fileFormat = "unix";
+    meta.content.breakInEnclosureAllowed = true;
+
+    initByFile( "enclosure_breaks.csv" );
+
+    setFields( new BaseFileField( "f1", -1, -1 ), new BaseFileField( "f2", -1, -1 ),
+      new BaseFileField( "f2", -1, -1 ) );
+
+    process();
+
+    check( new Object[][] { { "first\nline", "1", "1.1" }, { "second", "2", "2.2" }, { "third\n\n;third", "3", "3.3" } } );
+  }
+
+  @Test
+  public void testBreakInEnclosureDos() throws Exception {
+
+    meta.content.fileFormat = "DOS";
+    meta.content.breakInEnclosureAllowed = true;
+
+    initByFile( "enclosure_breaks_dos.csv" );
+
+    setFields( new BaseFileField( "f1", -1, -1 ), new BaseFileField( "f2", -1, -1 ),
+      new BaseFileField( "f2", -1, -1 ) );
+
+    process();
+
+    check( new Object[][] { { "first\r\nline", "1", "1.1" }, { "second", "2", "2.2" },
+      { "third\r\n\r\n;third", "3", "3.3" } } );
+  }
+
   @Test
   public void testGzipCompression() throws Exception {
 
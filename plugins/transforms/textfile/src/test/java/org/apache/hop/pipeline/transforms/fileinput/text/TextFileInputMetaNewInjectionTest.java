@@ -69,6 +69,12 @@ public class TextFileInputMetaNewInjectionTest extends BaseMetadataInjectionTest
 
     check( "NO_EMPTY_LINES", () -> meta.content.noEmptyLines );
 
+    check( "RUNNING_IN_PARALLEL", () -> meta.content.runningInParallel );
+
+    check( "BLOOM_FILTER_TRANSFORM", () -> meta.content.bloomFilterTransform );
+
+    check( "BLOOM_FILTER_FIELDS", () -> meta.content.bloomFilterFields );
+
     check( "INCLUDE_FILENAME", () -> meta.content.includeFilename );
 
     check( "FILENAME_FIELD", () -> meta.content.filenameField );
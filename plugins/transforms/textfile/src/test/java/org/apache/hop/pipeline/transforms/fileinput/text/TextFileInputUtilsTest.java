@@ -151,4 +151,13 @@ public class TextFileInputUtilsTest {
     Assert.assertEquals( "C", strings[ 1 ] );
   }
 
+  @Test
+  public void isEnclosureOpen() throws Exception {
+    Assert.assertFalse( TextFileInputUtils.isEnclosureOpen( "A;B", "\"", "", false ) );
+    Assert.assertTrue( TextFileInputUtils.isEnclosureOpen( "\"A;B", "\"", "", false ) );
+    Assert.assertFalse( TextFileInputUtils.isEnclosureOpen( "B\";C", "\"", "", true ) );
+    Assert.assertTrue( TextFileInputUtils.isEnclosureOpen( "\"A\"\"B", "\"", "\"", false ) );
+    // An escaped enclosure doesn't close the field
+    Assert.assertTrue( TextFileInputUtils.isEnclosureOpen( "\"A\\\"B", "\"", "\\", false ) );
+  }
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.fileinput.text;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TextFileParallelReadPlanTest {
+
+  private static final String CONTENT =
+    "a;\"1\"\n\"b\nb\";2\n\"c;\"\"\n\";3\nd;4\n\"e\n\n\";5\nf;6\n";
+
+  @Test
+  public void testCountEnclosures() throws Exception {
+    byte[] bytes = CONTENT.getBytes( StandardCharsets.US_ASCII );
+    assertEquals( 10, TextFileParallelReadPlan.countEnclosures( new ByteArrayInputStream( bytes ), bytes.length, (byte) '"' ) );
+    assertEquals( 2, TextFileParallelReadPlan.countEnclosures( new ByteArrayInputStream( bytes ), 6, (byte) '"' ) );
+  }
+
+  @Test
+  public void testFindRecordStart() throws Exception {
+    byte[] bytes = "b\nb\";2\nc;3\n".getBytes( StandardCharsets.US_ASCII );
+    assertEquals( 7, TextFileParallelReadPlan.findRecordStart( new ByteArrayInputStream( bytes ), '"', true ) );
+    assertEquals( 2, TextFileParallelReadPlan.findRecordStart( new ByteArrayInputStream( bytes ), '"', false ) );
+    assertEquals( 2, TextFileParallelReadPlan.findRecordStart( new ByteArrayInputStream( bytes ), -1, true ) );
+    bytes = "no line feed".getBytes( StandardCharsets.US_ASCII );
+    assertEquals( bytes.length, TextFileParallelReadPlan.findRecordStart( new ByteArrayInputStream( bytes ), '"', false ) );
+  }
+
+  /**
+   * Whatever the number of copies, the ranges together need to contain every record exactly once.
+   */
+  @Test
+  public void testRangesCoverAllRecords() throws Exception {
+    byte[] bytes = CONTENT.getBytes( StandardCharsets.US_ASCII );
+    for ( int nrCopies = 1; nrCopies <= bytes.length; nrCopies++ ) {
+      TextFileParallelReadPlan plan = new TextFileParallelReadPlan( bytes.length, nrCopies );
+      for ( int copy = 0; copy < nrCopies; copy++ ) {
+        long start = plan.getRangeStart( copy );
+        long end = plan.getRangeEnd( copy );
+        plan.setEnclosureCount( copy, TextFileParallelReadPlan.countEnclosures( stream( bytes, start ), end - start, (byte) '"' ) );
+      }
+      List<Long> starts = new ArrayList<>();
+      for ( int copy = 0; copy < nrCopies; copy++ ) {
+        long before = plan.getEnclosuresBefore( copy, () -> false );
+        long rangeStart = plan.getRangeStart( copy );
+        long start = rangeStart == 0 ? 0
+          : rangeStart + TextFileParallelReadPlan.findRecordStart( stream( bytes, rangeStart ), '"', before % 2 == 1 );
+        starts.add( start );
+      }
+      starts.add( (long) bytes.length );
+      StringBuilder all = new StringBuilder();
+      for ( int copy = 0; copy < nrCopies; copy++ ) {
+        String range = new String( bytes, (int) (long) starts.get( copy ),
+          (int) Math.max( 0, starts.get( copy + 1 ) - starts.get( copy ) ), StandardCharsets.US_ASCII );
+        // Every range only contains complete records
+        assertEquals( "Range " + copy + " of " + nrCopies, 0, TextFileParallelReadPlan.countEnclosures(
+          new ByteArrayInputStream( range.getBytes( StandardCharsets.US_ASCII ) ), range.length(), (byte) '"' ) % 2 );
+        all.append( range );
+      }
+      assertEquals( CONTENT, all.toString() );
+    }
+  }
+
+  private static ByteArrayInputStream stream( byte[] bytes, long position ) {
+    return new ByteArrayInputStream( bytes, (int) position, bytes.length - (int) position );
+  }
+}
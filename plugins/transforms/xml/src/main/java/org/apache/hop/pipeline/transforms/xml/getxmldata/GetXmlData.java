@@ -52,6 +52,10 @@ import org.dom4j.XPath;
 import org.dom4j.io.SAXReader;
 import org.dom4j.tree.AbstractNode;
 
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
@@ -396,21 +400,29 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
               return ReadNextString();
             }
 
-            // Open the XML document
-            if ( !setDocument( null, file, false, false ) ) {
-              throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
-            }
+            if ( data.streaming ) {
+              openStreamingReader( null, file, true );
+            } else {
+              // Open the XML document
+              if ( !setDocument( null, file, false, false ) ) {
+                throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
+              }
 
-            if ( !applyXPath() ) {
-              throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+              if ( !applyXPath() ) {
+                throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+              }
             }
 
             addFileToResultFilesname( file );
 
-            if ( log.isDetailed() ) {
+            // While streaming the occurrences are only known at the end of the file
+            if ( log.isDetailed() && !data.streaming ) {
               logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize, file
                   .getName().getBaseName() ) );
             }
+            if ( data.streaming ) {
+              file = null; // closed together with the reader
+            }
 
           } catch ( Exception e ) {
             throw new HopException( e );
@@ -431,16 +443,20 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
             xmltring = false;
           }
 
-          // Open the XML document
-          if ( !setDocument( Fieldvalue, null, xmltring, url ) ) {
-            throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
-          }
+          if ( data.streaming ) {
+            openStreamingReader( Fieldvalue, null, false );
+          } else {
+            // Open the XML document
+            if ( !setDocument( Fieldvalue, null, xmltring, url ) ) {
+              throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
+            }
 
-          // Apply XPath and set node list
-          if ( !applyXPath() ) {
-            throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+            // Apply XPath and set node list
+            if ( !applyXPath() ) {
+              throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+            }
           }
-          if ( log.isDetailed() ) {
+          if ( log.isDetailed() && !data.streaming ) {
             logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize ) );
           }
         }
@@ -590,18 +606,22 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.OpeningFile", data.file.toString() ) );
         }
 
-        // Open the XML document
-        if ( !setDocument( null, data.file, false, false ) ) {
-          if ( data.stopPruning ) {
-            return false; // ignore error when stopped while pruning
+        if ( data.streaming ) {
+          openStreamingReader( null, data.file, false );
+        } else {
+          // Open the XML document
+          if ( !setDocument( null, data.file, false, false ) ) {
+            if ( data.stopPruning ) {
+              return false; // ignore error when stopped while pruning
+            }
+            throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
           }
-          throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
-        }
 
-        // Apply XPath and set node list
-        if ( data.prunePath == null ) { // this was already done in processStreaming()
-          if ( !applyXPath() ) {
-            throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+          // Apply XPath and set node list
+          if ( data.prunePath == null ) { // this was already done in processStreaming()
+            if ( !applyXPath() ) {
+              throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+            }
           }
         }
 
@@ -609,8 +629,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
 
         if ( log.isDetailed() ) {
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.FileOpened", data.file.toString() ) );
-          logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize, data.file
-              .getName().getBaseName() ) );
+          if ( !data.streaming ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize, data.file
+                .getName().getBaseName() ) );
+          }
         }
       }
     } catch ( Exception e ) {
@@ -678,6 +700,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
 
   private Object[] getXmlRow() throws HopException {
 
+    if ( data.streaming ) {
+      return getStreamingXmlRow();
+    }
     if ( !meta.isInFields() ) {
       while ( ( data.nodenr >= data.nodesize || data.file == null ) ) {
         if ( !openNextFile() ) {
@@ -689,6 +714,126 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
     return getXmlRowPutRowWithErrorhandling();
   }
 
+  /**
+   * Read the next row in streaming mode: the values of the next loop node of the current document or the first one of
+   * the next document.
+   */
+  private Object[] getStreamingXmlRow() throws HopException {
+    data.errorInRowButContinue = false;
+    while ( true ) {
+      if ( data.streamingReader != null ) {
+        String[] values = data.streamingReader.next();
+        if ( values != null ) {
+          data.nodesize++;
+          return processPutRow( null, values );
+        }
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize,
+            data.streamingSource ) );
+        }
+        closeStreamingReader();
+      }
+      if ( meta.isInFields() ) {
+        if ( !ReadNextString() || data.readrow == null ) {
+          return null;
+        }
+      } else if ( !openNextFile() ) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Open a streaming reader on an XML string or file.
+   *
+   * @param xml       The XML to read if no file is given
+   * @param file      The file to read
+   * @param closeFile true if the file needs to be closed together with the reader
+   */
+  private void openStreamingReader( String xml, FileObject file, boolean closeFile ) throws HopException {
+    closeStreamingReader();
+    this.prevRow = buildEmptyRow(); // pre-allocate previous row
+    // The loop nodes are counted while reading
+    data.nodenr = 0;
+    data.nodesize = 0;
+    data.streamingSource = file == null ? "" : file.getName().getBaseName();
+    InputStream inputStream = null;
+    try {
+      XMLStreamReader reader;
+      Closeable source = null;
+      if ( file == null ) {
+        reader = data.xmlInputFactory.createXMLStreamReader( new StringReader( xml ) );
+      } else {
+        String encoding = Utils.isEmpty( meta.getEncoding() ) ? "UTF-8" : meta.getEncoding();
+        inputStream = new BufferedInputStream( HopVfs.getInputStream( file ), 65536 );
+        InputStream fileInputStream = inputStream;
+        source = () -> {
+          try {
+            fileInputStream.close();
+          } finally {
+            if ( closeFile ) {
+              file.close();
+            }
+          }
+        };
+        reader = data.xmlInputFactory.createXMLStreamReader( inputStream, encoding );
+      }
+      data.streamingReader = new StreamingXmlReader( data.streamingXPath, reader, source, meta.isIgnoreComments() );
+    } catch ( Exception e ) {
+      BaseTransform.closeQuietly( inputStream );
+      throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ), e );
+    }
+  }
+
+  private void closeStreamingReader() {
+    if ( data.streamingReader != null ) {
+      try {
+        data.streamingReader.close();
+      } catch ( IOException e ) {
+        // Ignore close errors
+      }
+      data.streamingReader = null;
+    }
+  }
+
+  /**
+   * Check if the loop path and field paths can be evaluated while streaming through the documents.
+   *
+   * @return true if the documents can be processed in streaming mode
+   */
+  private boolean prepareStreaming() {
+    String reason = null;
+    if ( meta.isNamespaceAware() ) {
+      reason = BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.NamespaceAware" );
+    } else if ( meta.isValidating() ) {
+      reason = BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Validating" );
+    } else if ( meta.isuseToken() ) {
+      reason = BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.UseToken" );
+    } else if ( meta.isInFields() && !meta.getIsAFile() && meta.isReadUrl() ) {
+      reason = BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.ReadUrl" );
+    } else {
+      String[] fieldPaths = new String[ data.nrInputFields ];
+      boolean[] nodeXml = new boolean[ data.nrInputFields ];
+      for ( int i = 0; i < data.nrInputFields; i++ ) {
+        GetXmlDataField xmlDataField = meta.getInputFields()[ i ];
+        fieldPaths[ i ] = xmlDataField.getResolvedXPath();
+        nodeXml[ i ] = xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_TYPE_SINGLE_NODE;
+      }
+      try {
+        data.streamingXPath = StreamingXPath.compile( data.PathValue, fieldPaths, nodeXml );
+        data.xmlInputFactory = StreamingXmlReader.createInputFactory();
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Activated" ) );
+        }
+        return true;
+      } catch ( HopException e ) {
+        reason = e.getSuperMessage();
+      }
+    }
+    logBasic( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.NotPossible", reason ) );
+    return false;
+  }
+
   private Object[] getXmlRowPutRowWithErrorhandling() throws HopException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -705,7 +850,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
         }
       }
 
-      r = processPutRow( data.an.get( data.nodenr ) );
+      r = processPutRow( data.an.get( data.nodenr ), null );
     } catch ( Exception e ) {
       throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Error.UnableReadFile" ), e );
     }
@@ -713,7 +858,11 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
     return r;
   }
 
-  private Object[] processPutRow( Node node ) throws HopException {
+  /**
+   * @param node           The loop node to read the fields from
+   * @param streamedValues The values of the fields when streaming, null to read them from the node
+   */
+  private Object[] processPutRow( Node node, String[] streamedValues ) throws HopException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -745,8 +894,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
         // Get node value
         String nodevalue;
 
-        // Handle namespaces
-        if ( meta.isNamespaceAware() ) {
+        if ( streamedValues != null ) {
+          nodevalue = streamedValues[i];
+        } else if ( meta.isNamespaceAware() ) {
+          // Handle namespaces
           XPath xpathField = node.createXPath( addNSPrefix( XPathValue, data.PathValue ) );
           xpathField.setNamespaceURIs( data.NAMESPACE );
           if ( xmlDataField.getResultType() == GetXmlDataField.RESULT_TYPE_VALUE_OF ) {
@@ -970,12 +1121,15 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> im
         }
       }
 
+      data.streaming = meta.isStreaming() && prepareStreaming();
+
       return true;
     }
     return false;
   }
 
   public void dispose( ) {
+    closeStreamingReader();
     if ( data.file != null ) {
       try {
         data.file.close();
@@ -38,6 +38,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 import org.dom4j.Document;
 import org.dom4j.Node;
 
+import javax.xml.stream.XMLInputFactory;
+
 /**
  * @author Samatar
  * @since 21-06-2007
@@ -60,6 +62,11 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
   public String PathValue;
   public String prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+  public boolean streaming; // true when the paths are evaluated while streaming through the documents
+  public StreamingXPath streamingXPath;
+  public XMLInputFactory xmlInputFactory;
+  public StreamingXmlReader streamingReader;
+  public String streamingSource; // name of the document read by the streaming reader
   public boolean errorInRowButContinue; // true when actual row has an error and error handling is active: means
                                         // continue (error handling in this transform should be redesigned)
   public String tokenStart;
@@ -128,6 +128,8 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
   private Label wlPrunePath;
   private TextVar wPrunePath;
 
+  private Button wStreaming;
+
   private Label wlEncoding;
   private CCombo wEncoding;
 
@@ -762,6 +764,23 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     fdPrunePath.right = new FormAttachment( 100, 0 );
     wPrunePath.setLayoutData( fdPrunePath );
 
+    // Evaluate the paths while streaming through the documents
+    Label wlStreaming = new Label( wXmlConf, SWT.RIGHT );
+    wlStreaming.setText( BaseMessages.getString( PKG, "GetXMLDataDialog.StreamingXPath.Label" ) );
+    props.setLook( wlStreaming );
+    FormData fdlStreaming = new FormData();
+    fdlStreaming.left = new FormAttachment( 0, 0 );
+    fdlStreaming.top = new FormAttachment( wPrunePath, margin );
+    fdlStreaming.right = new FormAttachment( middle, -margin );
+    wlStreaming.setLayoutData( fdlStreaming );
+    wStreaming = new Button( wXmlConf, SWT.CHECK );
+    props.setLook( wStreaming );
+    wStreaming.setToolTipText( BaseMessages.getString( PKG, "GetXMLDataDialog.StreamingXPath.Tooltip" ) );
+    FormData fdStreaming = new FormData();
+    fdStreaming.left = new FormAttachment( middle, 0 );
+    fdStreaming.top = new FormAttachment( wlStreaming, 0, SWT.CENTER );
+    wStreaming.setLayoutData( fdStreaming );
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment( 0, margin );
     fdXmlConf.top = new FormAttachment( 0, margin );
@@ -1444,6 +1463,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     wNameSpaceAware.setSelection( in.isNamespaceAware() );
     wReadUrl.setSelection( in.isReadUrl() );
     wIgnoreComment.setSelection( in.isIgnoreComments() );
+    wStreaming.setSelection( in.isStreaming() );
     wValidating.setSelection( in.isValidating() );
     wUseToken.setSelection( in.isuseToken() );
     wIgnoreEmptyFile.setSelection( in.isIgnoreEmptyFile() );
@@ -1609,6 +1629,7 @@ public class GetXmlDataDialog extends BaseTransformDialog implements ITransformD
     in.setNamespaceAware( wNameSpaceAware.getSelection() );
     in.setReadUrl( wReadUrl.getSelection() );
     in.setIgnoreComments( wIgnoreComment.getSelection() );
+    in.setStreaming( wStreaming.getSelection() );
     in.setValidating( wValidating.getSelection() );
     in.setuseToken( wUseToken.getSelection() );
     in.setIgnoreEmptyFile( wIgnoreEmptyFile.getSelection() );
@@ -151,6 +151,9 @@ public class GetXmlDataMeta extends BaseTransformMeta
   // Given this path activates the streaming algorithm to process large files
   private String prunePath;
 
+  /** Flag : evaluate the paths while streaming through the documents instead of reading them */
+  private boolean streaming;
+
   /** Additional fields * */
   private String shortFileFieldName;
 
@@ -271,6 +274,19 @@ public class GetXmlDataMeta extends BaseTransformMeta
     this.readurl = readurl;
   }
 
+  /**
+   * @return true if the loop path and field paths are evaluated while streaming through the
+   *     documents, false to read every document completely first
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /** @param streaming the streaming flag to set */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
   public void setAddResultFile(boolean addResultFile) {
     this.addResultFile = addResultFile;
   }
@@ -582,6 +598,7 @@ public class GetXmlDataMeta extends BaseTransformMeta
     retval.append("    ").append(XmlHandler.addTagValue("IsAFile", IsAFile));
     retval.append("    ").append(XmlHandler.addTagValue("XmlField", xmlField));
     retval.append("    ").append(XmlHandler.addTagValue("prunePath", prunePath));
+    retval.append("    ").append(XmlHandler.addTagValue("streaming", streaming));
     retval.append("    ").append(XmlHandler.addTagValue("shortFileFieldName", shortFileFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("pathFieldName", pathFieldName));
     retval.append("    ").append(XmlHandler.addTagValue("hiddenFieldName", hiddenFieldName));
@@ -679,6 +696,7 @@ public class GetXmlDataMeta extends BaseTransformMeta
 
       xmlField = XmlHandler.getTagValue(transformNode, "XmlField");
       prunePath = XmlHandler.getTagValue(transformNode, "prunePath");
+      streaming = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streaming"));
 
       shortFileFieldName = XmlHandler.getTagValue(transformNode, "shortFileFieldName");
       pathFieldName = XmlHandler.getTagValue(transformNode, "pathFieldName");
@@ -731,6 +749,7 @@ public class GetXmlDataMeta extends BaseTransformMeta
     ignorecomments = false;
     readurl = false;
     validating = false;
+    streaming = false;
 
     int nrFiles = 0;
     int nrFields = 0;
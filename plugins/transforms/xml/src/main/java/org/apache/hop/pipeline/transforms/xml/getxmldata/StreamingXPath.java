@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.i18n.BaseMessages;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The subset of XPath which can be evaluated while streaming through a document with {@link StreamingXmlReader}.
+ * <p>
+ * The loop path is an absolute path of element names, separated by / or // (any descendant). The field paths are
+ * relative to the loop node: . for the loop node itself, a path of child element names, optionally ending with an
+ * attribute (@name) or text(). A field path can start with ../ to go up to the ancestors of the loop node. A name can
+ * be * to match any element. Predicates, functions and other axes are not supported.
+ */
+public class StreamingXPath {
+  private static final Class<?> PKG = GetXmlDataMeta.class; // For Translator
+
+  private static final String NAME = "[^\\s/\\[\\]()@|=*:'\",<>!]+";
+  private static final Pattern QNAME = Pattern.compile( NAME + "(:" + NAME + ")?|\\*" );
+
+  /**
+   * A single element or attribute name test
+   */
+  static class Step {
+    final String prefix;
+    final String localName;
+    final boolean descendant;
+
+    Step( String name, boolean descendant ) {
+      int colon = name.indexOf( ':' );
+      this.prefix = colon < 0 ? null : name.substring( 0, colon );
+      this.localName = colon < 0 ? name : name.substring( colon + 1 );
+      this.descendant = descendant;
+    }
+
+    /**
+     * Names without a prefix match on the local name, ignoring the namespace
+     */
+    boolean matches( String elementPrefix, String elementLocalName ) {
+      if ( "*".equals( localName ) ) {
+        return true;
+      }
+      if ( !localName.equals( elementLocalName ) ) {
+        return false;
+      }
+      return prefix == null || prefix.equals( elementPrefix );
+    }
+  }
+
+  /**
+   * What to return of the selected node
+   */
+  enum Result {
+    /** The string value: all the text of an element or the value of an attribute */
+    VALUE,
+    /** The text directly in the element */
+    TEXT,
+    /** The node as XML */
+    XML
+  }
+
+  /**
+   * A compiled field path
+   */
+  static class FieldPath {
+    /** The number of levels to go up from the loop node to the context node */
+    int up;
+    /** The child elements to go down from the context node */
+    Step[] steps;
+    /** The attribute to select or null if an element is selected */
+    Step attribute;
+    Result result;
+  }
+
+  private final Step[] loopSteps;
+  private final FieldPath[] fieldPaths;
+  private final boolean attributesNeeded;
+
+  private StreamingXPath( Step[] loopSteps, FieldPath[] fieldPaths ) {
+    this.loopSteps = loopSteps;
+    this.fieldPaths = fieldPaths;
+    boolean attributes = false;
+    for ( FieldPath fieldPath : fieldPaths ) {
+      attributes |= fieldPath.attribute != null && fieldPath.steps.length == 0;
+    }
+    this.attributesNeeded = attributes;
+  }
+
+  /**
+   * Compile the loop path and field paths.
+   *
+   * @param loopPath   The absolute path of the loop nodes
+   * @param fieldPaths The paths of the fields, relative to the loop node
+   * @param nodeXml    For every field true if the XML of the node is returned instead of its value
+   * @return The compiled paths
+   * @throws HopException if any of the paths is not supported in streaming mode, the message describes why
+   */
+  public static StreamingXPath compile( String loopPath, String[] fieldPaths, boolean[] nodeXml ) throws HopException {
+    Step[] loopSteps = compileLoopPath( loopPath );
+    FieldPath[] compiled = new FieldPath[ fieldPaths.length ];
+    for ( int i = 0; i < fieldPaths.length; i++ ) {
+      compiled[ i ] = compileFieldPath( fieldPaths[ i ], nodeXml[ i ] );
+    }
+    return new StreamingXPath( loopSteps, compiled );
+  }
+
+  private static Step[] compileLoopPath( String path ) throws HopException {
+    String rest = path == null ? "" : path.trim();
+    if ( !rest.startsWith( "/" ) || rest.equals( "/" ) ) {
+      throw unsupported( path );
+    }
+    List<Step> steps = new ArrayList<>();
+    while ( !rest.isEmpty() ) {
+      boolean descendant = rest.startsWith( "//" );
+      rest = rest.substring( descendant ? 2 : 1 );
+      int slash = rest.indexOf( '/' );
+      String name = slash < 0 ? rest : rest.substring( 0, slash );
+      rest = slash < 0 ? "" : rest.substring( slash );
+      if ( !QNAME.matcher( name ).matches() ) {
+        throw unsupported( path );
+      }
+      steps.add( new Step( name, descendant ) );
+    }
+    return steps.toArray( new Step[ 0 ] );
+  }
+
+  private static FieldPath compileFieldPath( String path, boolean nodeXml ) throws HopException {
+    FieldPath fieldPath = new FieldPath();
+    String rest = path == null ? "" : path.trim();
+    if ( rest.startsWith( "/" ) ) {
+      throw unsupported( path );
+    }
+    while ( rest.startsWith( "./" ) ) {
+      rest = rest.substring( 2 );
+    }
+    while ( rest.equals( ".." ) || rest.startsWith( "../" ) ) {
+      fieldPath.up++;
+      rest = rest.length() > 2 ? rest.substring( 3 ) : "";
+    }
+
+    List<Step> steps = new ArrayList<>();
+    fieldPath.result = nodeXml ? Result.XML : Result.VALUE;
+    String[] names = rest.isEmpty() || rest.equals( "." ) ? new String[ 0 ] : rest.split( "/", -1 );
+    for ( int i = 0; i < names.length; i++ ) {
+      String name = names[ i ].trim();
+      boolean last = i == names.length - 1;
+      if ( last && name.startsWith( GetXmlDataMeta.AT ) && QNAME.matcher( name.substring( 1 ) ).matches() ) {
+        fieldPath.attribute = new Step( name.substring( 1 ), false );
+      } else if ( last && name.equals( "text()" ) && !nodeXml ) {
+        fieldPath.result = Result.TEXT;
+      } else if ( name.equals( "." ) ) {
+        continue;
+      } else if ( QNAME.matcher( name ).matches() ) {
+        steps.add( new Step( name, false ) );
+      } else {
+        throw unsupported( path );
+      }
+    }
+    fieldPath.steps = steps.toArray( new Step[ 0 ] );
+
+    // The value of an ancestor isn't complete until after the loop node
+    //
+    if ( fieldPath.up > 0 && fieldPath.steps.length == 0 && fieldPath.attribute == null ) {
+      throw unsupported( path );
+    }
+    return fieldPath;
+  }
+
+  private static HopException unsupported( String path ) {
+    return new HopException( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingXPath.Unsupported", path ) );
+  }
+
+  /**
+   * @param prefixes   The prefixes of the open elements, from the root down
+   * @param localNames The local names of the open elements
+   * @param depth      The number of open elements
+   * @return true if the element at the given depth is a loop node
+   */
+  boolean isLoopNode( String[] prefixes, String[] localNames, int depth ) {
+    Step lastStep = loopSteps[ loopSteps.length - 1 ];
+    if ( depth == 0 || !lastStep.matches( prefixes[ depth - 1 ], localNames[ depth - 1 ] ) ) {
+      return false;
+    }
+    return matches( 0, prefixes, localNames, 0, depth );
+  }
+
+  private boolean matches( int stepIndex, String[] prefixes, String[] localNames, int index, int depth ) {
+    if ( stepIndex == loopSteps.length ) {
+      return index == depth;
+    }
+    if ( index == depth ) {
+      return false;
+    }
+    Step step = loopSteps[ stepIndex ];
+    if ( !step.descendant ) {
+      return step.matches( prefixes[ index ], localNames[ index ] )
+        && matches( stepIndex + 1, prefixes, localNames, index + 1, depth );
+    }
+    for ( int i = index; i < depth; i++ ) {
+      if ( step.matches( prefixes[ i ], localNames[ i ] )
+        && matches( stepIndex + 1, prefixes, localNames, i + 1, depth ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  FieldPath[] getFieldPaths() {
+    return fieldPaths;
+  }
+
+  /**
+   * @return true if attributes of the loop node or its ancestors are selected
+   */
+  boolean isAttributesNeeded() {
+    return attributesNeeded;
+  }
+}
@@ -0,0 +1,506 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.xml.getxmldata.StreamingXPath.FieldPath;
+import org.apache.hop.pipeline.transforms.xml.getxmldata.StreamingXPath.Result;
+import org.apache.hop.pipeline.transforms.xml.getxmldata.StreamingXPath.Step;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates a {@link StreamingXPath} while reading through a document with a StAX cursor. Only the open elements and
+ * the values of the fields being collected are kept in memory, so the memory use doesn't depend on the size of the
+ * document.
+ * <p>
+ * The fields are evaluated like XPath would on the complete document, with one exception: a field which goes up to
+ * an ancestor of the loop node (../) can only see the elements which start before the end of the loop node.
+ */
+public class StreamingXmlReader implements Closeable {
+  private static final Class<?> PKG = GetXmlDataMeta.class; // For Translator
+
+  /**
+   * Report CDATA sections separately from text with the parser of the JDK, to keep them in the XML of nodes
+   */
+  private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+  private final StreamingXPath xpath;
+  private final FieldPath[] fieldPaths;
+  private final XMLStreamReader reader;
+  private final Closeable source;
+  private final boolean ignoreComments;
+
+  /**
+   * The open elements, from the root down
+   */
+  private int depth;
+  private String[] prefixes = new String[ 16 ];
+  private String[] localNames = new String[ 16 ];
+  private Frame[] frames = new Frame[ 16 ];
+
+  private final List<Capture> captures = new ArrayList<>();
+
+  /**
+   * The rows of the loop nodes in document order, a row is complete when its loop node ended
+   */
+  private final ArrayDeque<LoopRow> loopRows = new ArrayDeque<>();
+
+  private boolean finished;
+
+  private static class LoopRow {
+    private String[] values;
+  }
+
+  /**
+   * An open element
+   */
+  private static class Frame {
+    private boolean loopNode;
+    private LoopRow loopRow;
+
+    /**
+     * The values of the fields for which this element is the context node: the value or the capture in progress
+     */
+    private Object[] values;
+
+    private int nrAttributes;
+    private String[] attributePrefixes = new String[ 4 ];
+    private String[] attributeNames = new String[ 4 ];
+    private String[] attributeValues = new String[ 4 ];
+
+    private void reset() {
+      loopNode = false;
+      loopRow = null;
+      nrAttributes = 0;
+      if ( values != null ) {
+        Arrays.fill( values, null );
+      }
+    }
+
+    private String getAttribute( Step step ) {
+      for ( int i = 0; i < nrAttributes; i++ ) {
+        if ( step.matches( attributePrefixes[ i ], attributeNames[ i ] ) ) {
+          return attributeValues[ i ];
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * The value of a field being collected from the current element and its content
+   */
+  private static class Capture {
+    private final int field;
+    private final int depth;
+    private final Result result;
+    private final StringBuilder text = new StringBuilder();
+    private boolean startTagOpen;
+
+    Capture( int field, int depth, Result result ) {
+      this.field = field;
+      this.depth = depth;
+      this.result = result;
+    }
+
+    private void closeStartTag() {
+      if ( startTagOpen ) {
+        text.append( '>' );
+        startTagOpen = false;
+      }
+    }
+  }
+
+  /**
+   * @param xpath          The compiled loop and field paths
+   * @param reader         The StAX cursor on the document
+   * @param source         The stream to close together with this reader, can be null
+   * @param ignoreComments true if comments are left out of the XML of nodes
+   */
+  public StreamingXmlReader( StreamingXPath xpath, XMLStreamReader reader, Closeable source, boolean ignoreComments ) {
+    this.xpath = xpath;
+    this.fieldPaths = xpath.getFieldPaths();
+    this.reader = reader;
+    this.source = source;
+    this.ignoreComments = ignoreComments;
+  }
+
+  /**
+   * @return A factory for the cursors on the documents. Like in the DOM mode, DTDs are not loaded.
+   */
+  public static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty( XMLInputFactory.IS_COALESCING, false );
+    if ( factory.isPropertySupported( REPORT_CDATA ) ) {
+      factory.setProperty( REPORT_CDATA, true );
+    }
+    factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+    factory.setXMLResolver( ( publicId, systemId, baseUri, namespace ) -> new ByteArrayInputStream( new byte[ 0 ] ) );
+    return factory;
+  }
+
+  /**
+   * Read until the next loop node is complete.
+   *
+   * @return The values of the fields for the next loop node or null if there are no more loop nodes
+   * @throws HopException In case the document can't be parsed
+   */
+  public String[] next() throws HopException {
+    try {
+      while ( true ) {
+        LoopRow head = loopRows.peekFirst();
+        if ( head != null && head.values != null ) {
+          loopRows.pollFirst();
+          return head.values;
+        }
+        if ( finished || !reader.hasNext() ) {
+          finished = true;
+          return null;
+        }
+        switch ( reader.next() ) {
+          case XMLStreamConstants.START_ELEMENT:
+            startElement();
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            endElement();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+            characters( false );
+            break;
+          case XMLStreamConstants.CDATA:
+            characters( true );
+            break;
+          case XMLStreamConstants.COMMENT:
+            if ( !ignoreComments ) {
+              appendMarkup( "<!--" + reader.getText() + "-->" );
+            }
+            break;
+          case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            String data = reader.getPIData();
+            appendMarkup( "<?" + reader.getPITarget() + ( data == null || data.isEmpty() ? "" : " " + data ) + "?>" );
+            break;
+          default:
+            break;
+        }
+      }
+    } catch ( XMLStreamException e ) {
+      throw new HopException( BaseMessages.getString( PKG, "GetXMLData.Error.StreamingRead", e.getMessage() ), e );
+    }
+  }
+
+  private void startElement() {
+    if ( depth == frames.length ) {
+      int size = depth * 2;
+      prefixes = Arrays.copyOf( prefixes, size );
+      localNames = Arrays.copyOf( localNames, size );
+      frames = Arrays.copyOf( frames, size );
+    }
+    String prefix = reader.getPrefix();
+    prefixes[ depth ] = prefix == null ? "" : prefix;
+    localNames[ depth ] = reader.getLocalName();
+    Frame frame = frames[ depth ];
+    if ( frame == null ) {
+      frame = new Frame();
+      frames[ depth ] = frame;
+    }
+    frame.reset();
+    depth++;
+
+    if ( xpath.isAttributesNeeded() ) {
+      storeAttributes( frame );
+    }
+    if ( xpath.isLoopNode( prefixes, localNames, depth ) ) {
+      frame.loopNode = true;
+      frame.loopRow = new LoopRow();
+      loopRows.addLast( frame.loopRow );
+    }
+
+    for ( int i = 0; i < fieldPaths.length; i++ ) {
+      FieldPath fieldPath = fieldPaths[ i ];
+      int nrSteps = fieldPath.steps.length;
+      if ( nrSteps == 0 ) {
+        // The loop node itself
+        //
+        if ( fieldPath.up == 0 && fieldPath.attribute == null && frame.loopNode ) {
+          startCapture( frame, i, fieldPath );
+        }
+        continue;
+      }
+      int contextIndex = depth - 1 - nrSteps;
+      if ( contextIndex < 0 ) {
+        continue;
+      }
+      Frame context = frames[ contextIndex ];
+      if ( ( fieldPath.up == 0 && !context.loopNode ) || ( context.values != null && context.values[ i ] != null ) ) {
+        continue;
+      }
+      if ( !stepsMatch( fieldPath.steps, contextIndex + 1 ) ) {
+        continue;
+      }
+      if ( fieldPath.attribute == null ) {
+        startCapture( context, i, fieldPath );
+      } else {
+        // XPath selects the first element which has the attribute
+        //
+        for ( int a = 0; a < reader.getAttributeCount(); a++ ) {
+          if ( fieldPath.attribute.matches( nvl( reader.getAttributePrefix( a ) ), reader.getAttributeLocalName( a ) ) ) {
+            setValue( context, i, attributeValue( fieldPath, qualifiedName( reader.getAttributePrefix( a ),
+              reader.getAttributeLocalName( a ) ), reader.getAttributeValue( a ) ) );
+            break;
+          }
+        }
+      }
+    }
+
+    for ( Capture capture : captures ) {
+      if ( capture.result == Result.XML ) {
+        capture.closeStartTag();
+        appendStartTag( capture.text );
+        capture.startTagOpen = true;
+      }
+    }
+  }
+
+  private void endElement() {
+    String qualifiedName = null;
+    for ( int i = captures.size() - 1; i >= 0; i-- ) {
+      Capture capture = captures.get( i );
+      if ( capture.result == Result.XML ) {
+        if ( capture.startTagOpen ) {
+          capture.text.append( "/>" );
+          capture.startTagOpen = false;
+        } else {
+          if ( qualifiedName == null ) {
+            qualifiedName = qualifiedName( prefixes[ depth - 1 ], localNames[ depth - 1 ] );
+          }
+          capture.text.append( "</" ).append( qualifiedName ).append( '>' );
+        }
+      }
+    }
+    for ( int i = captures.size() - 1; i >= 0; i-- ) {
+      Capture capture = captures.get( i );
+      if ( capture.depth == depth ) {
+        Frame target = frames[ depth - 1 - fieldPaths[ capture.field ].steps.length ];
+        target.values[ capture.field ] = capture.text.toString();
+        captures.remove( i );
+      }
+    }
+
+    Frame frame = frames[ depth - 1 ];
+    if ( frame.loopNode ) {
+      frame.loopRow.values = getValues( depth - 1 );
+    }
+    depth--;
+  }
+
+  private void characters( boolean cdata ) {
+    if ( captures.isEmpty() ) {
+      return;
+    }
+    char[] characters = reader.getTextCharacters();
+    int start = reader.getTextStart();
+    int length = reader.getTextLength();
+    for ( Capture capture : captures ) {
+      switch ( capture.result ) {
+        case VALUE:
+          capture.text.append( characters, start, length );
+          break;
+        case TEXT:
+          if ( capture.depth == depth ) {
+            capture.text.append( characters, start, length );
+          }
+          break;
+        case XML:
+          capture.closeStartTag();
+          if ( cdata ) {
+            capture.text.append( "<![CDATA[" ).append( characters, start, length ).append( "]]>" );
+          } else {
+            escape( capture.text, characters, start, length, false );
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private void appendMarkup( String markup ) {
+    for ( Capture capture : captures ) {
+      if ( capture.result == Result.XML ) {
+        capture.closeStartTag();
+        capture.text.append( markup );
+      }
+    }
+  }
+
+  private void startCapture( Frame target, int field, FieldPath fieldPath ) {
+    Capture capture = new Capture( field, depth, fieldPath.result );
+    setValue( target, field, capture );
+    captures.add( capture );
+  }
+
+  private void setValue( Frame target, int field, Object value ) {
+    if ( target.values == null ) {
+      target.values = new Object[ fieldPaths.length ];
+    }
+    target.values[ field ] = value;
+  }
+
+  private boolean stepsMatch( Step[] steps, int index ) {
+    for ( int i = 0; i < steps.length; i++ ) {
+      if ( !steps[ i ].matches( prefixes[ index + i ], localNames[ index + i ] ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String[] getValues( int loopIndex ) {
+    String[] values = new String[ fieldPaths.length ];
+    for ( int i = 0; i < fieldPaths.length; i++ ) {
+      FieldPath fieldPath = fieldPaths[ i ];
+      int contextIndex = loopIndex - fieldPath.up;
+      Object value = null;
+      if ( contextIndex >= 0 ) {
+        Frame context = frames[ contextIndex ];
+        if ( fieldPath.steps.length == 0 && fieldPath.attribute != null ) {
+          String attributeValue = context.getAttribute( fieldPath.attribute );
+          if ( attributeValue != null ) {
+            value = attributeValue( fieldPath, getAttributeName( context, fieldPath.attribute ), attributeValue );
+          }
+        } else if ( context.values != null ) {
+          value = context.values[ i ];
+        }
+      }
+      if ( value instanceof Capture ) {
+        // Only possible when an ancestor is selected which isn't complete yet
+        //
+        value = ( (Capture) value ).text.toString();
+      }
+      values[ i ] = value == null ? "" : (String) value;
+    }
+    return values;
+  }
+
+  private void storeAttributes( Frame frame ) {
+    int count = reader.getAttributeCount();
+    if ( count > frame.attributeNames.length ) {
+      frame.attributePrefixes = new String[ count ];
+      frame.attributeNames = new String[ count ];
+      frame.attributeValues = new String[ count ];
+    }
+    for ( int i = 0; i < count; i++ ) {
+      frame.attributePrefixes[ i ] = nvl( reader.getAttributePrefix( i ) );
+      frame.attributeNames[ i ] = reader.getAttributeLocalName( i );
+      frame.attributeValues[ i ] = reader.getAttributeValue( i );
+    }
+    frame.nrAttributes = count;
+  }
+
+  private static String getAttributeName( Frame frame, Step step ) {
+    for ( int i = 0; i < frame.nrAttributes; i++ ) {
+      if ( step.matches( frame.attributePrefixes[ i ], frame.attributeNames[ i ] ) ) {
+        return qualifiedName( frame.attributePrefixes[ i ], frame.attributeNames[ i ] );
+      }
+    }
+    return step.localName;
+  }
+
+  private static String attributeValue( FieldPath fieldPath, String name, String value ) {
+    if ( fieldPath.result != Result.XML ) {
+      return value;
+    }
+    StringBuilder xml = new StringBuilder( name ).append( "=\"" );
+    escape( xml, value.toCharArray(), 0, value.length(), true );
+    return xml.append( '"' ).toString();
+  }
+
+  private void appendStartTag( StringBuilder xml ) {
+    xml.append( '<' ).append( qualifiedName( prefixes[ depth - 1 ], localNames[ depth - 1 ] ) );
+    for ( int i = 0; i < reader.getNamespaceCount(); i++ ) {
+      String prefix = reader.getNamespacePrefix( i );
+      xml.append( prefix == null || prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix ).append( "=\"" );
+      String uri = nvl( reader.getNamespaceURI( i ) );
+      escape( xml, uri.toCharArray(), 0, uri.length(), true );
+      xml.append( '"' );
+    }
+    for ( int i = 0; i < reader.getAttributeCount(); i++ ) {
+      xml.append( ' ' ).append( qualifiedName( reader.getAttributePrefix( i ), reader.getAttributeLocalName( i ) ) )
+        .append( "=\"" );
+      String value = reader.getAttributeValue( i );
+      escape( xml, value.toCharArray(), 0, value.length(), true );
+      xml.append( '"' );
+    }
+  }
+
+  private static void escape( StringBuilder xml, char[] characters, int start, int length, boolean attribute ) {
+    for ( int i = start; i < start + length; i++ ) {
+      char c = characters[ i ];
+      switch ( c ) {
+        case '&':
+          xml.append( "&amp;" );
+          break;
+        case '<':
+          xml.append( "&lt;" );
+          break;
+        case '>':
+          xml.append( "&gt;" );
+          break;
+        case '"':
+          xml.append( attribute ? "&quot;" : "\"" );
+          break;
+        default:
+          xml.append( c );
+          break;
+      }
+    }
+  }
+
+  private static String qualifiedName( String prefix, String localName ) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  private static String nvl( String value ) {
+    return value == null ? "" : value;
+  }
+
+  @Override public void close() throws IOException {
+    try {
+      reader.close();
+    } catch ( XMLStreamException e ) {
+      throw new IOException( e );
+    } finally {
+      if ( source != null ) {
+        source.close();
+      }
+    }
+  }
+}
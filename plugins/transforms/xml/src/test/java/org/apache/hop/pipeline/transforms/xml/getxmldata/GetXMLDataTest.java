@@ -21,6 +21,7 @@ import junit.framework.TestCase;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.plugins.PluginRegistry;
 import org.apache.hop.core.plugins.TransformPluginType;
 import org.apache.hop.core.row.IRowMeta;
@@ -38,6 +39,9 @@ import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
 import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.apache.hop.pipeline.transforms.xml.RowTransformCollector;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -184,6 +188,56 @@ public class GetXMLDataTest extends TestCase {
    *           Upon any exception
    */
   public void testGetXMLDataSimple1() throws Exception {
+    runGetXMLDataSimple1( false );
+  }
+
+  /**
+   * Test case for Get XML Data transform, very simple example, with the paths evaluated while streaming.
+   *
+   * @throws Exception
+   *           Upon any exception
+   */
+  public void testGetXMLDataSimple1Streaming() throws Exception {
+    runGetXMLDataSimple1( true );
+  }
+
+  /**
+   * Test case for Get XML Data transform reading the files named in a field while streaming, with detailed logging.
+   *
+   * @throws Exception
+   *           Upon any exception
+   */
+  public void testGetXMLDataFilesStreaming() throws Exception {
+    File file1 = File.createTempFile( "getxmldata", ".xml" );
+    File file2 = File.createTempFile( "getxmldata", ".xml" );
+    try {
+      Files.write( file1.toPath(), getXML1().getBytes( StandardCharsets.UTF_8 ) );
+      Files.write( file2.toPath(), getXML2().getBytes( StandardCharsets.UTF_8 ) );
+
+      IRowMeta rm = createRowMetaInterface();
+      List<RowMetaAndData> inputList = new ArrayList<>();
+      inputList.add( new RowMetaAndData( rm, new Object[] { file1.getAbsolutePath() } ) );
+      inputList.add( new RowMetaAndData( rm, new Object[] { file2.getAbsolutePath() } ) );
+
+      // The field holds the file names instead of the documents
+      List<RowMetaAndData> goldenImageRows = createResultData1();
+      goldenImageRows.get( 0 ).getData()[0] = file1.getAbsolutePath();
+      goldenImageRows.get( 1 ).getData()[0] = file1.getAbsolutePath();
+      goldenImageRows.get( 2 ).getData()[0] = file2.getAbsolutePath();
+
+      runGetXMLDataSimple1( true, true, inputList, goldenImageRows );
+    } finally {
+      file1.delete();
+      file2.delete();
+    }
+  }
+
+  private void runGetXMLDataSimple1( boolean streaming ) throws Exception {
+    runGetXMLDataSimple1( streaming, false, createData(), createResultData1() );
+  }
+
+  private void runGetXMLDataSimple1( boolean streaming, boolean isAFile, List<RowMetaAndData> inputList,
+      List<RowMetaAndData> goldenImageRows ) throws Exception {
     HopEnvironment.init();
 
     //
@@ -283,11 +337,12 @@ public class GetXMLDataTest extends TestCase {
     fields[4].setTrimType( GetXmlDataField.TYPE_TRIM_NONE );
 
     gxdm.setEncoding( "UTF-8" );
-    gxdm.setIsAFile( false );
+    gxdm.setIsAFile( isAFile );
     gxdm.setInFields( true );
     gxdm.setLoopXPath( "Level1/Level2/Props" );
     gxdm.setXMLField( "field1" );
     gxdm.setInputFields( fields );
+    gxdm.setStreaming( streaming );
 
     PipelineHopMeta hi = new PipelineHopMeta( injectorTransform, getXMLDataTransform );
     pipelineMeta.addPipelineHop( hi );
@@ -307,6 +362,9 @@ public class GetXMLDataTest extends TestCase {
 
     // Now execute the transformation...
     Pipeline trans = new LocalPipelineEngine( pipelineMeta );
+    if ( isAFile ) {
+      trans.setLogLevel( LogLevel.DETAILED );
+    }
 
     trans.prepareExecution();
 
@@ -318,7 +376,6 @@ public class GetXMLDataTest extends TestCase {
     trans.startThreads();
 
     // add rows
-    List<RowMetaAndData> inputList = createData();
     Iterator<RowMetaAndData> it = inputList.iterator();
     while ( it.hasNext() ) {
       RowMetaAndData rm = it.next();
@@ -327,10 +384,10 @@ public class GetXMLDataTest extends TestCase {
     rp.finished();
 
     trans.waitUntilFinished();
+    assertEquals( 0, trans.getErrors() );
 
     // Compare the results
     List<RowMetaAndData> resultRows = dummyRc1.getRowsWritten();
-    List<RowMetaAndData> goldenImageRows = createResultData1();
 
     checkRows( goldenImageRows, resultRows );
   }
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import org.apache.hop.core.exception.HopException;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Node;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class StreamingXmlReaderTest {
+
+  private static final String XML =
+    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+      + "<orders region=\"EU\">"
+      + "  <header><created>2020-01-01</created></header>"
+      + "  <order id=\"1\" status=\"open\">"
+      + "    <customer><name>Jan &amp; Co</name><city>Gent</city></customer>"
+      + "    <lines>"
+      + "      <line nr=\"1\"><product>A</product><qty>2</qty></line>"
+      + "      <line nr=\"2\"><product>B</product><qty>3</qty><note><![CDATA[<fragile>]]></note></line>"
+      + "    </lines>"
+      + "    <!-- checked -->"
+      + "  </order>"
+      + "  <order id=\"2\">"
+      + "    <customer><name>Piet</name></customer>"
+      + "    <lines>"
+      + "      <line nr=\"1\"><product>C</product><qty>1</qty><empty/></line>"
+      + "    </lines>"
+      + "  </order>"
+      + "  <group><order id=\"3\"><lines><line nr=\"9\"><product>D</product></line></lines></order></group>"
+      + "</orders>";
+
+  private static List<String[]> stream( String loopPath, String[] fieldPaths, boolean[] nodeXml )
+    throws Exception {
+    StreamingXPath xpath = StreamingXPath.compile( loopPath, fieldPaths, nodeXml );
+    List<String[]> rows = new ArrayList<>();
+    try ( StreamingXmlReader reader = new StreamingXmlReader( xpath,
+      StreamingXmlReader.createInputFactory().createXMLStreamReader( new StringReader( XML ) ), null, false ) ) {
+      String[] row;
+      while ( ( row = reader.next() ) != null ) {
+        rows.add( row );
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Evaluate the paths like the transform does on the complete document
+   */
+  @SuppressWarnings( "unchecked" )
+  private static List<String[]> dom( String loopPath, String[] fieldPaths, boolean[] nodeXml ) throws Exception {
+    Document document = DocumentHelper.parseText( XML );
+    List<String[]> rows = new ArrayList<>();
+    for ( Node node : (List<Node>) document.selectNodes( loopPath ) ) {
+      String[] row = new String[ fieldPaths.length ];
+      for ( int i = 0; i < fieldPaths.length; i++ ) {
+        if ( nodeXml[ i ] ) {
+          Node selected = node.selectSingleNode( fieldPaths[ i ] );
+          row[ i ] = selected == null ? "" : selected.asXML();
+        } else {
+          row[ i ] = node.valueOf( fieldPaths[ i ] );
+        }
+      }
+      rows.add( row );
+    }
+    return rows;
+  }
+
+  private static void assertSameAsDom( String loopPath, String[] fieldPaths, boolean[] nodeXml ) throws Exception {
+    List<String[]> expected = dom( loopPath, fieldPaths, nodeXml );
+    List<String[]> actual = stream( loopPath, fieldPaths, nodeXml );
+    assertEquals( expected.size(), actual.size() );
+    for ( int i = 0; i < expected.size(); i++ ) {
+      assertArrayEquals( "row " + i, expected.get( i ), actual.get( i ) );
+    }
+  }
+
+  @Test
+  public void testChildElementsAndAttributes() throws Exception {
+    String[] paths = { "product", "qty", "@nr", "note", "missing", ".", "text()" };
+    assertSameAsDom( "/orders/order/lines/line", paths, new boolean[ paths.length ] );
+  }
+
+  @Test
+  public void testAncestors() throws Exception {
+    String[] paths = { "../../@id", "../../@status", "../../customer/name", "../../../@region", "product",
+      "../../../header/created" };
+    assertSameAsDom( "/orders/order/lines/line", paths, new boolean[ paths.length ] );
+  }
+
+  @Test
+  public void testDescendantsAndWildcards() throws Exception {
+    String[] paths = { "@id", "customer/name", "*/line/product", "lines/line/@nr" };
+    assertSameAsDom( "//order", paths, new boolean[ paths.length ] );
+    assertSameAsDom( "/orders/*/lines", new String[] { "line/product" }, new boolean[ 1 ] );
+  }
+
+  @Test
+  public void testNodeXml() throws Exception {
+    String[] paths = { "customer", "lines/line/note", "@status", "lines/line/empty" };
+    assertSameAsDom( "/orders/order", paths, new boolean[] { true, true, true, true } );
+  }
+
+  @Test
+  public void testNestedLoopNodesInDocumentOrder() throws Exception {
+    List<String[]> rows = stream( "/orders//line", new String[] { "product" }, new boolean[ 1 ] );
+    assertEquals( 4, rows.size() );
+    assertEquals( "D", rows.get( 3 )[ 0 ] );
+    assertSameAsDom( "/orders//*", new String[] { "@id", "lines/line/product" }, new boolean[ 2 ] );
+  }
+
+  @Test
+  public void testUnsupportedPaths() {
+    String[][] unsupported = {
+      { "/orders/order[1]", "@id" },
+      { "orders/order", "@id" },
+      { "/orders/order", "customer[name='Piet']" },
+      { "/orders/order", "//name" },
+      { "/orders/order", "/orders/header" },
+      { "/orders/order", "count(lines/line)" },
+      { "/orders/order", ".." },
+    };
+    for ( String[] paths : unsupported ) {
+      try {
+        StreamingXPath.compile( paths[ 0 ], new String[] { paths[ 1 ] }, new boolean[ 1 ] );
+        fail( "Paths should not be supported: " + paths[ 0 ] + ", " + paths[ 1 ] );
+      } catch ( HopException e ) {
+        // Expected
+      }
+    }
+  }
+
+  @Test
+  public void testEndOfDocument() throws Exception {
+    StreamingXPath xpath = StreamingXPath.compile( "/orders/none", new String[ 0 ], new boolean[ 0 ] );
+    StreamingXmlReader reader = new StreamingXmlReader( xpath,
+      StreamingXmlReader.createInputFactory().createXMLStreamReader( new StringReader( XML ) ), null, false );
+    assertNull( reader.next() );
+    assertNull( reader.next() );
+    reader.close();
+  }
+}
@@ -45,8 +45,22 @@ public class TextFileLineUtil {
 
   public static final String getLine( ILogChannel log, InputStreamReader reader, EncodingType encodingType,
                                       int formatNr, StringBuilder line ) throws HopFileException {
+    return getLine( log, reader, encodingType, formatNr, line, null );
+  }
+
+  /**
+   * Read a line without the characters which end it.
+   *
+   * @param separator receives the characters which ended the line, nothing at the end of the file. Can be null.
+   */
+  public static final String getLine( ILogChannel log, InputStreamReader reader, EncodingType encodingType,
+                                      int formatNr, StringBuilder line, StringBuilder separator )
+    throws HopFileException {
     int c = 0;
     line.setLength( 0 );
+    if ( separator != null ) {
+      separator.setLength( 0 );
+    }
     try {
       switch ( formatNr ) {
         case FILE_FORMAT_DOS:
@@ -54,6 +68,7 @@ public class TextFileLineUtil {
             c = reader.read();
 
             if ( encodingType.isReturn( c ) || encodingType.isLinefeed( c ) ) {
+              int first = c;
               c = reader.read(); // skip \n and \r
               if ( !encodingType.isReturn( c ) && !encodingType.isLinefeed( c ) ) {
                 // make sure its really a linefeed or cariage return
@@ -61,6 +76,9 @@ public class TextFileLineUtil {
                 // so we have pulled a character from the next line
                 throw new HopFileException( BaseMessages.getString( PKG, "TextFileLineUtil.Log.SingleLineFound" ) );
               }
+              if ( separator != null ) {
+                separator.append( (char) first ).append( (char) c );
+              }
               return line.toString();
             }
             if ( c >= 0 ) {
@@ -73,6 +91,9 @@ public class TextFileLineUtil {
             c = reader.read();
 
             if ( encodingType.isLinefeed( c ) || encodingType.isReturn( c ) ) {
+              if ( separator != null ) {
+                separator.append( (char) c );
+              }
               return line.toString();
             }
             if ( c >= 0 ) {
@@ -83,15 +104,25 @@ public class TextFileLineUtil {
         case FILE_FORMAT_MIXED:
           // in mixed mode we suppose the LF is the last char and CR is ignored
           // not for MAC OS 9 but works for Mac OS X. Mac OS 9 can use UNIX-Format
+          boolean afterReturn = false;
           while ( c >= 0 ) {
             c = reader.read();
 
             if ( encodingType.isLinefeed( c ) ) {
+              if ( separator != null ) {
+                if ( afterReturn ) {
+                  separator.append( '\r' );
+                }
+                separator.append( (char) c );
+              }
               return line.toString();
             } else if ( !encodingType.isReturn( c ) ) {
               if ( c >= 0 ) {
                 line.append( (char) c );
               }
+              afterReturn = false;
+            } else {
+              afterReturn = true;
             }
           }
           break;
@@ -83,6 +83,14 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
   private TextVar wLimit;
 
+  private CCombo wPartitionMethod;
+
+  private TextVar wPartitionField;
+
+  private CCombo wBloomFilterTransform;
+
+  private TextVar wBloomFilterFields;
+
   private Label wlEachRow;
   private Button wEachRow;
 
@@ -173,6 +181,97 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     fdLimit.bottom = new FormAttachment( wlLimit, 0, SWT.CENTER );
     wLimit.setLayoutData( fdLimit );
 
+    // Split field
+    Label wlPartitionField = new Label( shell, SWT.RIGHT );
+    wlPartitionField.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionField" ) );
+    props.setLook( wlPartitionField );
+    FormData fdlPartitionField = new FormData();
+    fdlPartitionField.left = new FormAttachment( 0, 0 );
+    fdlPartitionField.right = new FormAttachment( middle, -margin );
+    fdlPartitionField.bottom = new FormAttachment( wlLimit, -margin );
+    wlPartitionField.setLayoutData( fdlPartitionField );
+    wPartitionField = new TextVar( variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPartitionField );
+    wPartitionField.addModifyListener( lsMod );
+    FormData fdPartitionField = new FormData();
+    fdPartitionField.left = new FormAttachment( middle, 0 );
+    fdPartitionField.right = new FormAttachment( 100, 0 );
+    fdPartitionField.bottom = new FormAttachment( wlPartitionField, 0, SWT.CENTER );
+    wPartitionField.setLayoutData( fdPartitionField );
+
+    // Split the rows over the copies?
+    Label wlPartitionMethod = new Label( shell, SWT.RIGHT );
+    wlPartitionMethod.setText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMethod" ) );
+    wlPartitionMethod.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMethod.Tooltip" ) );
+    props.setLook( wlPartitionMethod );
+    FormData fdlPartitionMethod = new FormData();
+    fdlPartitionMethod.left = new FormAttachment( 0, 0 );
+    fdlPartitionMethod.right = new FormAttachment( middle, -margin );
+    fdlPartitionMethod.bottom = new FormAttachment( wlPartitionField, -margin );
+    wlPartitionMethod.setLayoutData( fdlPartitionMethod );
+    wPartitionMethod = new CCombo( shell, SWT.BORDER | SWT.READ_ONLY );
+    props.setLook( wPartitionMethod );
+    for ( String method : TableInputMeta.PARTITION_METHODS ) {
+      wPartitionMethod.add( BaseMessages.getString( PKG, "TableInputDialog.PartitionMethod." + method ) );
+    }
+    wPartitionMethod.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.PartitionMethod.Tooltip" ) );
+    wPartitionMethod.addModifyListener( lsMod );
+    wPartitionMethod.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        setFlags();
+      }
+    } );
+    FormData fdPartitionMethod = new FormData();
+    fdPartitionMethod.left = new FormAttachment( middle, 0 );
+    fdPartitionMethod.right = new FormAttachment( 100, 0 );
+    fdPartitionMethod.bottom = new FormAttachment( wlPartitionMethod, 0, SWT.CENTER );
+    wPartitionMethod.setLayoutData( fdPartitionMethod );
+
+    // The fields to test against the Bloom filter
+    Label wlBloomFilterFields = new Label( shell, SWT.RIGHT );
+    wlBloomFilterFields.setText( BaseMessages.getString( PKG, "TableInputDialog.BloomFilterFields" ) );
+    wlBloomFilterFields.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.BloomFilterFields.Tooltip" ) );
+    props.setLook( wlBloomFilterFields );
+    FormData fdlBloomFilterFields = new FormData();
+    fdlBloomFilterFields.left = new FormAttachment( 0, 0 );
+    fdlBloomFilterFields.right = new FormAttachment( middle, -margin );
+    fdlBloomFilterFields.bottom = new FormAttachment( wlPartitionMethod, -margin );
+    wlBloomFilterFields.setLayoutData( fdlBloomFilterFields );
+    wBloomFilterFields = new TextVar( variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wBloomFilterFields );
+    wBloomFilterFields.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.BloomFilterFields.Tooltip" ) );
+    wBloomFilterFields.addModifyListener( lsMod );
+    FormData fdBloomFilterFields = new FormData();
+    fdBloomFilterFields.left = new FormAttachment( middle, 0 );
+    fdBloomFilterFields.right = new FormAttachment( 100, 0 );
+    fdBloomFilterFields.bottom = new FormAttachment( wlBloomFilterFields, 0, SWT.CENTER );
+    wBloomFilterFields.setLayoutData( fdBloomFilterFields );
+
+    // Take a Bloom filter from a lookup transform?
+    Label wlBloomFilterTransform = new Label( shell, SWT.RIGHT );
+    wlBloomFilterTransform.setText( BaseMessages.getString( PKG, "TableInputDialog.BloomFilterTransform" ) );
+    wlBloomFilterTransform.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.BloomFilterTransform.Tooltip" ) );
+    props.setLook( wlBloomFilterTransform );
+    FormData fdlBloomFilterTransform = new FormData();
+    fdlBloomFilterTransform.left = new FormAttachment( 0, 0 );
+    fdlBloomFilterTransform.right = new FormAttachment( middle, -margin );
+    fdlBloomFilterTransform.bottom = new FormAttachment( wlBloomFilterFields, -margin );
+    wlBloomFilterTransform.setLayoutData( fdlBloomFilterTransform );
+    wBloomFilterTransform = new CCombo( shell, SWT.BORDER );
+    props.setLook( wBloomFilterTransform );
+    for ( String name : pipelineMeta.getTransformNames() ) {
+      if ( !name.equals( transformName ) ) {
+        wBloomFilterTransform.add( name );
+      }
+    }
+    wBloomFilterTransform.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.BloomFilterTransform.Tooltip" ) );
+    wBloomFilterTransform.addModifyListener( lsMod );
+    FormData fdBloomFilterTransform = new FormData();
+    fdBloomFilterTransform.left = new FormAttachment( middle, 0 );
+    fdBloomFilterTransform.right = new FormAttachment( 100, 0 );
+    fdBloomFilterTransform.bottom = new FormAttachment( wlBloomFilterTransform, 0, SWT.CENTER );
+    wBloomFilterTransform.setLayoutData( fdBloomFilterTransform );
+
     // Execute for each row?
     wlEachRow = new Label( shell, SWT.RIGHT );
     wlEachRow.setText( BaseMessages.getString( PKG, "TableInputDialog.ExecuteForEachRow" ) );
@@ -180,7 +279,7 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     FormData fdlEachRow = new FormData();
     fdlEachRow.left = new FormAttachment( 0, 0 );
     fdlEachRow.right = new FormAttachment( middle, -margin );
-    fdlEachRow.bottom = new FormAttachment( wlLimit, -margin );
+    fdlEachRow.bottom = new FormAttachment( wlBloomFilterTransform, -margin );
     wlEachRow.setLayoutData( fdlEachRow );
     wEachRow = new Button( shell, SWT.CHECK );
     props.setLook( wEachRow );
@@ -338,6 +437,8 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
 
     wTransformName.addSelectionListener( lsDef );
     wLimit.addSelectionListener( lsDef );
+    wPartitionField.addSelectionListener( lsDef );
+    wBloomFilterFields.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -385,6 +486,11 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
       wConnection.setText( input.getDatabaseMeta().getName() );
     }
     wLimit.setText( Const.NVL( input.getRowLimit(), "" ) );
+    int methodIndex = Const.indexOfString( input.getPartitionMethod(), TableInputMeta.PARTITION_METHODS );
+    wPartitionMethod.select( Math.max( 0, methodIndex ) );
+    wPartitionField.setText( Const.NVL( input.getPartitionField(), "" ) );
+    wBloomFilterTransform.setText( Const.NVL( input.getBloomFilterTransform(), "" ) );
+    wBloomFilterFields.setText( Const.NVL( input.getBloomFilterFields(), "" ) );
 
     IStream infoStream = input.getTransformIOMeta().getInfoStreams().get( 0 );
     if ( infoStream.getTransformMeta() != null ) {
@@ -429,6 +535,10 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
     meta.setSql( preview && !Utils.isEmpty( wSql.getSelectionText() ) ? wSql.getSelectionText() : wSql.getText() );
     meta.setDatabaseMeta( pipelineMeta.findDatabase( wConnection.getText() ) );
     meta.setRowLimit( wLimit.getText() );
+    meta.setPartitionMethod( TableInputMeta.PARTITION_METHODS[ Math.max( 0, wPartitionMethod.getSelectionIndex() ) ] );
+    meta.setPartitionField( wPartitionField.getText() );
+    meta.setBloomFilterTransform( wBloomFilterTransform.getText() );
+    meta.setBloomFilterFields( wBloomFilterFields.getText() );
     IStream infoStream = input.getTransformIOMeta().getInfoStreams().get( 0 );
     infoStream.setTransformMeta( pipelineMeta.findTransform( wDatefrom.getText() ) );
     meta.setExecuteEachInputRow( wEachRow.getSelection() );
@@ -546,6 +656,8 @@ public class TableInputDialog extends BaseTransformDialog implements ITransformD
       wPreview.setEnabled( true );
     }
 
+    // The split field is only needed when the rows are split over the copies
+    wPartitionField.setEnabled( wPartitionMethod.getSelectionIndex() > 0 );
   }
 
   /**
@@ -58,6 +58,7 @@ public class HopServerEditor extends MetadataEditor<HopServer> {
   private TextVar wHostname;
   private TextVar wPort;
   private TextVar wWebAppName;
+  private TextVar wRowSetPort;
   private TextVar wUsername;
   private TextVar wPassword;
   private Button wSSL;
@@ -135,6 +136,7 @@ public class HopServerEditor extends MetadataEditor<HopServer> {
     wHostname.addModifyListener(lsMod);
     wPort.addModifyListener(lsMod);
     wWebAppName.addModifyListener(lsMod);
+    wRowSetPort.addModifyListener(lsMod);
     wUsername.addModifyListener(lsMod);
     wPassword.addModifyListener(lsMod);
     wProxyHost.addModifyListener(lsMod);
@@ -219,12 +221,31 @@ public class HopServerEditor extends MetadataEditor<HopServer> {
     fdWebAppName.right = new FormAttachment(95, 0);
     wWebAppName.setLayoutData(fdWebAppName);
 
+    // remote row set port (optional)
+    Label wlRowSetPort = new Label(wServiceComp, SWT.RIGHT);
+    wlRowSetPort.setText(BaseMessages.getString(PKG, "HopServerDialog.RowSetPort.Label"));
+    props.setLook(wlRowSetPort);
+    FormData fdlRowSetPort = new FormData();
+    fdlRowSetPort.top = new FormAttachment(wWebAppName, margin);
+    fdlRowSetPort.left = new FormAttachment(0, 0);
+    fdlRowSetPort.right = new FormAttachment(middle, -margin);
+    wlRowSetPort.setLayoutData(fdlRowSetPort);
+
+    wRowSetPort = new TextVar(manager.getVariables(), wServiceComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+
+    props.setLook(wRowSetPort);
+    FormData fdRowSetPort = new FormData();
+    fdRowSetPort.top = new FormAttachment(wWebAppName, margin);
+    fdRowSetPort.left = new FormAttachment(middle, 0);
+    fdRowSetPort.right = new FormAttachment(95, 0);
+    wRowSetPort.setLayoutData(fdRowSetPort);
+
     // Username
     Label wlUsername = new Label(wServiceComp, SWT.RIGHT);
     wlUsername.setText(BaseMessages.getString(PKG, "HopServerDialog.UserName.Label"));
     props.setLook(wlUsername);
     FormData fdlUsername = new FormData();
-    fdlUsername.top = new FormAttachment(wWebAppName, margin);
+    fdlUsername.top = new FormAttachment(wRowSetPort, margin);
     fdlUsername.left = new FormAttachment(0, 0);
     fdlUsername.right = new FormAttachment(middle, -margin);
     wlUsername.setLayoutData(fdlUsername);
@@ -233,7 +254,7 @@ public class HopServerEditor extends MetadataEditor<HopServer> {
 
     props.setLook(wUsername);
     FormData fdUsername = new FormData();
-    fdUsername.top = new FormAttachment(wWebAppName, margin);
+    fdUsername.top = new FormAttachment(wRowSetPort, margin);
     fdUsername.left = new FormAttachment(middle, 0);
     fdUsername.right = new FormAttachment(95, 0);
     wUsername.setLayoutData(fdUsername);
@@ -386,6 +407,7 @@ public class HopServerEditor extends MetadataEditor<HopServer> {
     wHostname.setText(Const.NVL(server.getHostname(), ""));
     wPort.setText(Const.NVL(server.getPort(), ""));
     wWebAppName.setText(Const.NVL(server.getWebAppName(), ""));
+    wRowSetPort.setText(Const.NVL(server.getRowSetPort(), ""));
     wUsername.setText(Const.NVL(server.getUsername(), ""));
     wPassword.setText(Const.NVL(server.getPassword(), ""));
     wProxyHost.setText(Const.NVL(server.getProxyHostname(), ""));
@@ -400,6 +422,7 @@ public class HopServerEditor extends MetadataEditor<HopServer> {
     server.setHostname(wHostname.getText());
     server.setPort(wPort.getText());
     server.setWebAppName(wWebAppName.getText());
+    server.setRowSetPort(wRowSetPort.getText());
     server.setUsername(wUsername.getText());
     server.setPassword(wPassword.getText());
     server.setProxyHostname(wProxyHost.getText());